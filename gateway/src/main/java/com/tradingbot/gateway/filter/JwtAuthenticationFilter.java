@@ -1,9 +1,12 @@
 package com.tradingbot.gateway.filter;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-
-import javax.crypto.SecretKey;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,8 +25,10 @@ import org.springframework.web.server.ServerWebExchange;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import reactor.core.publisher.Mono;
 
 /**
@@ -31,13 +36,21 @@ import reactor.core.publisher.Mono;
  *
  * <p>Validates the Bearer token on every inbound request before forwarding to the backend.
  * Public paths (auth endpoints, actuator, docs) are bypassed automatically.
- * Validated claims are forwarded as headers so the backend can trust them without re-parsing.
+ * Validated claims are forwarded as headers so the backend can trust them without re-parsing,
+ * and exposed to later filters as the {@link #VERIFIED_TOKEN_ATTRIBUTE} exchange attribute.
+ *
+ * <p>Signing keys and parsers are built once at startup. {@code jwt.previous-secrets} lists
+ * retired secrets that are still accepted during a key rotation. Verified tokens are cached
+ * (see {@link VerifiedTokenCache}) so a repeat request costs one SHA-256 and a map lookup.
  */
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    /** Exchange attribute holding the {@link VerifiedTokenCache.VerifiedToken} for this request. */
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".verifiedToken";
+
     private static final List<String> PUBLIC_PATHS = List.of(
             "/api/auth/login",
             "/api/auth/register",
@@ -49,8 +62,31 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             "/swagger-ui"
     );
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    // Single prefix match instead of a stream over PUBLIC_PATHS per request
+    private static final Pattern PUBLIC_PATH_PATTERN = Pattern.compile(PUBLIC_PATHS.stream()
+            .map(Pattern::quote)
+            .collect(Collectors.joining("|", "^(?:", ")")));
+
+    // Current key first, then retired keys still honoured during rotation
+    private final List<JwtParser> parsers;
+    private final VerifiedTokenCache cache;
+
+    public JwtAuthenticationFilter(
+            @Value("${jwt.secret}") String jwtSecret,
+            @Value("${jwt.previous-secrets:}") String previousSecrets,
+            @Value("${jwt.cache.max-entries:100000}") int cacheMaxEntries,
+            @Value("${jwt.cache.ttl:5m}") Duration cacheTtl) {
+        List<JwtParser> keyParsers = new ArrayList<>();
+        keyParsers.add(parserFor(jwtSecret));
+        Arrays.stream(previousSecrets.split(","))
+                .map(String::trim)
+                .filter(secret -> !secret.isEmpty())
+                .forEach(secret -> keyParsers.add(parserFor(secret)));
+        this.parsers = List.copyOf(keyParsers);
+        this.cache = new VerifiedTokenCache(cacheMaxEntries, cacheTtl.toMillis(), System::currentTimeMillis);
+        log.info("JWT filter initialised with {} verification key(s), token cache size {}",
+                parsers.size(), cacheMaxEntries);
+    }
 
     @Override
     public int getOrder() {
@@ -73,20 +109,25 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
         String token = authHeader.substring(7);
         try {
-            Claims claims = parseToken(token);
-            if (!"access".equals(claims.get("type", String.class))) {
+            VerifiedTokenCache.VerifiedToken verified = cache.get(token);
+            if (verified == null) {
+                verified = verify(token);
+            }
+            if (!"access".equals(verified.type())) {
                 return unauthorised(exchange, "Refresh tokens cannot be used for API access");
             }
 
             // Forward validated claims to the backend as trusted headers
             ServerHttpRequest mutated = request.mutate()
-                    .header("X-Auth-User-Id", claims.getSubject())
-                    .header("X-Auth-Username", stringOrEmpty(claims.get("username")))
-                    .header("X-Auth-Roles", stringOrEmpty(claims.get("roles")))
+                    .header("X-Auth-User-Id", verified.userId())
+                    .header("X-Auth-Username", verified.username())
+                    .header("X-Auth-Roles", verified.roles())
                     .header("X-Gateway-Verified", "true")
                     .build();
 
-            return chain.filter(exchange.mutate().request(mutated).build());
+            ServerWebExchange authenticated = exchange.mutate().request(mutated).build();
+            authenticated.getAttributes().put(VERIFIED_TOKEN_ATTRIBUTE, verified);
+            return chain.filter(authenticated);
 
         } catch (ExpiredJwtException e) {
             log.debug("Rejected expired token for path {}", path);
@@ -97,17 +138,41 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         }
     }
 
+    /**
+     * Full signature verification, then cache the forwarded claims until the token expires.
+     */
+    private VerifiedTokenCache.VerifiedToken verify(String token) {
+        Claims claims = parseToken(token);
+        String userId = claims.getSubject();
+        String username = stringOrEmpty(claims.get("username"));
+        String roles = stringOrEmpty(claims.get("roles"));
+        String type = claims.get("type", String.class);
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        cache.put(token, userId, username, roles, type, expiresAt);
+        return new VerifiedTokenCache.VerifiedToken(userId, username, roles, type, expiresAt);
+    }
+
     private Claims parseToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; ; i++) {
+            try {
+                return parsers.get(i).parseSignedClaims(token).getPayload();
+            } catch (SignatureException e) {
+                // Signed with a different key; try the next one during rotation
+                if (i == parsers.size() - 1) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static JwtParser parserFor(String secret) {
         return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build();
     }
 
     private boolean isPublicPath(String path) {
-        return PUBLIC_PATHS.stream().anyMatch(path::startsWith);
+        return PUBLIC_PATH_PATTERN.matcher(path).lookingAt();
     }
 
     private Mono<Void> unauthorised(ServerWebExchange exchange, String message) {
@@ -0,0 +1,104 @@
+package com.tradingbot.gateway.filter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of already-verified access tokens.
+ *
+ * <p>Keyed by the SHA-256 of the raw token so bearer credentials are never retained in memory.
+ * An entry lives until the earlier of the token's own {@code exp} and a maximum TTL, so a
+ * retired signing key stops being honoured within that TTL. Expired entries are dropped on
+ * lookup; when the cache is full, expired entries are swept first and then arbitrary entries
+ * are evicted (a re-verification is the only cost of a miss).
+ */
+final class VerifiedTokenCache {
+
+    /** Claims the filter forwards downstream, resolved once per token. */
+    record VerifiedToken(String userId, String username, String roles, String type, long expiresAtMillis) {}
+
+    private record TokenKey(long high, long low) {}
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Map<TokenKey, VerifiedToken> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long maxTtlMillis;
+    private final LongSupplier clock;
+
+    VerifiedTokenCache(int maxEntries, long maxTtlMillis, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.maxTtlMillis = maxTtlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the cached verification, or null if absent or no longer valid
+     */
+    VerifiedToken get(String token) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        TokenKey key = keyOf(token);
+        VerifiedToken cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (clock.getAsLong() >= cached.expiresAtMillis()) {
+            entries.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Cache a freshly verified token. {@code tokenExpiresAtMillis} is the token's {@code exp}.
+     */
+    void put(String token, String userId, String username, String roles, String type, long tokenExpiresAtMillis) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long expiresAt = Math.min(tokenExpiresAtMillis, now + maxTtlMillis);
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(keyOf(token), new VerifiedToken(userId, username, roles, type, expiresAt));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(v -> now >= v.expiresAtMillis());
+        // Still full: drop about a tenth so eviction cost is amortised over many puts
+        int excess = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<TokenKey> it = entries.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static TokenKey keyOf(String token) {
+        MessageDigest digest = SHA_256.get();
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new TokenKey(hash.getLong(), hash.getLong());
+    }
+}
@@ -0,0 +1,163 @@
+package com.tradingbot.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for JwtAuthenticationFilter public paths, claim forwarding and key rotation.
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "current-secret-current-secret-current-secret";
+    private static final String PREVIOUS_SECRET = "previous-secret-previous-secret-previous-sec";
+    private static final String UNKNOWN_SECRET = "unknown-secret-unknown-secret-unknown-secret";
+
+    private final JwtAuthenticationFilter filter =
+            new JwtAuthenticationFilter(SECRET, " " + PREVIOUS_SECRET + " ,", 100, Duration.ofMinutes(5));
+
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.set(exchange);
+        return Mono.empty();
+    };
+
+    @Test
+    void publicPathsBypassAuthentication() {
+        for (String path : new String[] {"/api/auth/login", "/actuator/health", "/v3/api-docs/gateway",
+                "/swagger-ui/index.html"}) {
+            forwarded.set(null);
+            MockServerWebExchange exchange = exchange(path, null);
+
+            filter.filter(exchange, chain).block();
+
+            assertSame(exchange, forwarded.get(), path);
+        }
+    }
+
+    @Test
+    void protectedPathsRequireABearerToken() {
+        for (String path : new String[] {"/api/bots", "/api/auth/me", "/api/actuator"}) {
+            MockServerWebExchange exchange = exchange(path, null);
+
+            filter.filter(exchange, chain).block();
+
+            assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode(), path);
+        }
+        MockServerWebExchange basic = exchange("/api/bots", "Basic dXNlcjpwYXNz");
+        filter.filter(basic, chain).block();
+        assertEquals(HttpStatus.UNAUTHORIZED, basic.getResponse().getStatusCode());
+        assertNull(forwarded.get());
+    }
+
+    @Test
+    void forwardsVerifiedClaimsAsHeaders() {
+        String token = token(SECRET, "access", Duration.ofMinutes(10));
+
+        // The second request is served from the verified-token cache
+        for (int i = 0; i < 2; i++) {
+            filter.filter(exchange("/api/bots", "Bearer " + token), chain).block();
+
+            HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+            assertEquals("42", headers.getFirst("X-Auth-User-Id"));
+            assertEquals("alice", headers.getFirst("X-Auth-Username"));
+            assertEquals("USER", headers.getFirst("X-Auth-Roles"));
+            assertEquals("true", headers.getFirst("X-Gateway-Verified"));
+            VerifiedTokenCache.VerifiedToken verified =
+                    forwarded.get().getAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTRIBUTE);
+            assertEquals("42", verified.userId());
+        }
+    }
+
+    @Test
+    void acceptsTokensSignedWithARetiredKeyDuringRotation() {
+        String token = token(PREVIOUS_SECRET, "access", Duration.ofMinutes(10));
+
+        filter.filter(exchange("/api/bots", "Bearer " + token), chain).block();
+
+        assertEquals("42", forwarded.get().getRequest().getHeaders().getFirst("X-Auth-User-Id"));
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnUnknownKey() {
+        MockServerWebExchange exchange =
+                exchange("/api/bots", "Bearer " + token(UNKNOWN_SECRET, "access", Duration.ofMinutes(10)));
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertNull(forwarded.get());
+    }
+
+    @Test
+    void rejectsRetiredKeysOnceRotationIsOver() {
+        JwtAuthenticationFilter rotated = new JwtAuthenticationFilter(SECRET, "", 100, Duration.ofMinutes(5));
+        MockServerWebExchange exchange =
+                exchange("/api/bots", "Bearer " + token(PREVIOUS_SECRET, "access", Duration.ofMinutes(10)));
+
+        rotated.filter(exchange, chain).block();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        MockServerWebExchange exchange =
+                exchange("/api/bots", "Bearer " + token(SECRET, "access", Duration.ofMinutes(-1)));
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertNull(forwarded.get());
+    }
+
+    @Test
+    void rejectsRefreshTokensEvenWhenCached() {
+        String token = token(SECRET, "refresh", Duration.ofMinutes(10));
+
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = exchange("/api/bots", "Bearer " + token);
+
+            filter.filter(exchange, chain).block();
+
+            assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        }
+        assertNull(forwarded.get());
+    }
+
+    private static MockServerWebExchange exchange(String path, String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private static String token(String secret, String type, Duration validFor) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject("42")
+                .claim("username", "alice")
+                .claim("roles", "USER")
+                .claim("type", type)
+                .issuedAt(new Date(now - 60_000))
+                .expiration(new Date(now + validFor.toMillis()))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
@@ -0,0 +1,101 @@
+package com.tradingbot.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for VerifiedTokenCache expiry, TTL capping and eviction.
+ */
+class VerifiedTokenCacheTest {
+
+    private static final long TTL = 60_000;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private VerifiedTokenCache cache(int maxEntries) {
+        return new VerifiedTokenCache(maxEntries, TTL, now::get);
+    }
+
+    @Test
+    void returnsCachedClaimsUntilTheTokenExpires() {
+        VerifiedTokenCache cache = cache(10);
+        cache.put("token", "42", "alice", "USER", "access", now.get() + 10_000);
+
+        VerifiedTokenCache.VerifiedToken cached = cache.get("token");
+        assertNotNull(cached);
+        assertEquals("42", cached.userId());
+        assertEquals("alice", cached.username());
+        assertEquals("USER", cached.roles());
+        assertEquals("access", cached.type());
+
+        now.addAndGet(10_000);
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void capsTheLifetimeAtTheMaximumTtl() {
+        VerifiedTokenCache cache = cache(10);
+        cache.put("token", "42", "alice", "USER", "access", Long.MAX_VALUE);
+
+        now.addAndGet(TTL - 1);
+        assertNotNull(cache.get("token"));
+        now.addAndGet(1);
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    void doesNotCacheAlreadyExpiredTokens() {
+        VerifiedTokenCache cache = cache(10);
+        cache.put("token", "42", "alice", "USER", "access", now.get());
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void distinguishesTokensByTheirFullValue() {
+        VerifiedTokenCache cache = cache(10);
+        cache.put("token-a", "1", "alice", "USER", "access", now.get() + 10_000);
+
+        assertNull(cache.get("token-b"));
+        assertEquals("1", cache.get("token-a").userId());
+    }
+
+    @Test
+    void sweepsExpiredEntriesBeforeEvictingLiveOnes() {
+        VerifiedTokenCache cache = cache(3);
+        cache.put("short-1", "1", "a", "USER", "access", now.get() + 1_000);
+        cache.put("short-2", "2", "b", "USER", "access", now.get() + 1_000);
+        cache.put("long", "3", "c", "USER", "access", now.get() + 30_000);
+
+        now.addAndGet(1_000);
+        cache.put("new", "4", "d", "USER", "access", now.get() + 30_000);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("long"));
+        assertNotNull(cache.get("new"));
+    }
+
+    @Test
+    void evictsLiveEntriesWhenFullAndStaysBounded() {
+        VerifiedTokenCache cache = cache(20);
+        for (int i = 0; i < 100; i++) {
+            cache.put("token-" + i, String.valueOf(i), "u", "USER", "access", now.get() + 30_000);
+            assertTrue(cache.size() <= 20);
+        }
+        assertNotNull(cache.get("token-99"));
+    }
+
+    @Test
+    void zeroCapacityDisablesTheCache() {
+        VerifiedTokenCache cache = cache(0);
+        cache.put("token", "42", "alice", "USER", "access", now.get() + 10_000);
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,115 @@
+package tradingbot.bot.service.simulator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import tradingbot.bot.service.simulator.MatchingEngine.Side;
+
+/**
+ * Order-event throughput of {@link MatchingEngine} and tick throughput of
+ * {@link SimulatedFuturesExchangeService}.
+ *
+ * <p>{@link #orderFlow} replays a fixed random mix: 60% limit orders within 50 ticks of the mid
+ * (each also cancelling the market maker's oldest of 1024 resting orders, which bounds the book),
+ * 30% cancels of recent orders and 10% market orders from margined accounts. Run with
+ * {@code ./gradlew jmh}; the target is over 1 ops/us (one million order events per second).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MatchingEngineBenchmark {
+
+    private static final String SYMBOL = "BTCUSDT";
+    private static final int EVENTS = 1 << 16;
+    private static final int RESTING = 1 << 10;
+    private static final double MID = 50_000;
+    private static final double TICK = 0.1;
+
+    private MatchingEngine engine;
+    private int marketMaker;
+    private final int[] traders = new int[16];
+
+    private final byte[] kind = new byte[EVENTS];
+    private final boolean[] buy = new boolean[EVENTS];
+    private final int[] offset = new int[EVENTS];
+    private final double[] quantity = new double[EVENTS];
+    private final long[] resting = new long[RESTING];
+    private int next;
+    private int placed;
+
+    private SimulatedFuturesExchangeService exchange;
+    private final double[] walk = new double[EVENTS];
+    private long tickTime;
+
+    @Setup
+    public void setUp() {
+        engine = new MatchingEngine(0.0002, 0.0005, 0.005);
+        engine.addSymbol(SYMBOL, TICK);
+        marketMaker = engine.openUnlimitedAccount();
+        for (int i = 0; i < traders.length; i++) {
+            traders[i] = engine.openAccount(1e12);
+            engine.setLeverage(traders[i], SYMBOL, 10);
+        }
+        engine.updateMarkPrice(SYMBOL, MID);
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < EVENTS; i++) {
+            int k = random.nextInt(100);
+            kind[i] = (byte) (k < 60 ? 0 : k < 90 ? 1 : 2);
+            buy[i] = random.nextBoolean();
+            offset[i] = 1 + random.nextInt(50);
+            quantity[i] = 0.001 * (1 + random.nextInt(1000));
+        }
+
+        exchange = new SimulatedFuturesExchangeService(1e9, 0.01, 0.0002, 0.0005, 0.005, 1, 1_000_000,
+                0.0001, TimeUnit.HOURS.toMillis(8));
+        double price = MID;
+        for (int i = 0; i < EVENTS; i++) {
+            price *= 1 + (random.nextDouble() - 0.5) * 0.0004;
+            walk[i] = price;
+        }
+        tickTime = 1_700_000_000_000L;
+        exchange.onTick(SYMBOL, MID, 1, tickTime);
+        exchange.enterLongPosition(SYMBOL, 1);
+        // far enough away to stay resting, so every tick checks both trigger sides
+        exchange.placeStopLossOrder(SYMBOL, "Sell", 1, MID / 2);
+        exchange.placeTakeProfitOrder(SYMBOL, "Sell", 1, MID * 2);
+    }
+
+    @Benchmark
+    public long orderFlow() {
+        int i = next++ & (EVENTS - 1);
+        switch (kind[i]) {
+            case 0 -> {
+                double price = MID + (buy[i] ? -offset[i] : offset[i]) * TICK;
+                long id = engine.submitLimit(marketMaker, SYMBOL, buy[i] ? Side.BUY : Side.SELL,
+                        quantity[i], price, false).id();
+                int slot = placed++ & (RESTING - 1);
+                if (resting[slot] != 0) {
+                    engine.cancel(resting[slot]);
+                }
+                resting[slot] = id;
+            }
+            case 1 -> engine.cancel(resting[(placed - 1 - offset[i] * 7) & (RESTING - 1)]);
+            default -> engine.submitMarket(traders[i & 15], SYMBOL, buy[i] ? Side.BUY : Side.SELL,
+                    quantity[i], false);
+        }
+        return engine.fillCount();
+    }
+
+    /** One simulator tick: re-quote, mark update with a resting bracket, bar update. */
+    @Benchmark
+    public void tick() {
+        int i = next++ & (EVENTS - 1);
+        tickTime += 10;
+        exchange.onTick(SYMBOL, walk[i], 0.01, tickTime);
+    }
+}
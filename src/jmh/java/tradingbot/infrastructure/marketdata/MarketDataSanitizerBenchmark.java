@@ -0,0 +1,94 @@
+package tradingbot.infrastructure.marketdata;
+
+import static java.math.RoundingMode.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import tradingbot.domain.market.BookTickerPayload;
+import tradingbot.domain.market.RawPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.domain.market.StreamMarketDataEvent.EventType;
+
+/**
+ * Per-tick cost of {@link MarketDataSanitizer} and book-ticker mid/spread math, against the
+ * {@code BigDecimal} arithmetic it replaced.
+ *
+ * <p>Run with {@code ./gradlew jmh}; the {@code gc} profiler reports
+ * {@code gc.alloc.rate.norm}, which is 0 B/op for the sanitizer and primitive paths and over
+ * 100 B/op for the {@code BigDecimal} versions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MarketDataSanitizerBenchmark {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private MarketDataSanitizer sanitizer;
+    private StreamMarketDataEvent bookTicker;
+    private StreamMarketDataEvent trade;
+    private BookTickerPayload payload;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        sanitizer = new MarketDataSanitizer();
+        var maxSpread = MarketDataSanitizer.class.getDeclaredField("maxSpreadPercent");
+        maxSpread.setAccessible(true);
+        maxSpread.setDouble(sanitizer, 5.0);
+
+        payload = new BookTickerPayload(new BigDecimal("45000.10"), new BigDecimal("45000.20"));
+        bookTicker = new StreamMarketDataEvent("BINANCE_FUTURES", "BTCUSDT", EventType.BOOK_TICKER,
+                payload.ask(), BigDecimal.ZERO, Instant.now(), payload);
+        trade = new StreamMarketDataEvent("BINANCE_FUTURES", "BTCUSDT", EventType.TRADE,
+                new BigDecimal("45000.10"), new BigDecimal("0.003"), Instant.now(), new RawPayload("{}"));
+    }
+
+    @Benchmark
+    public boolean isValidBookTicker() {
+        return sanitizer.isValid(bookTicker);
+    }
+
+    @Benchmark
+    public boolean isValidTrade() {
+        return sanitizer.isValid(trade);
+    }
+
+    @Benchmark
+    public StreamMarketDataEvent sanitizeBookTicker() {
+        return sanitizer.sanitize(bookTicker);
+    }
+
+    @Benchmark
+    public double spreadPercent() {
+        return payload.spreadPercent();
+    }
+
+    /** The spread check {@link MarketDataSanitizer} used before the primitive fast path. */
+    @Benchmark
+    public double spreadPercentBigDecimal() {
+        return payload.ask().subtract(payload.bid())
+                .divide(payload.ask(), 6, HALF_UP)
+                .multiply(HUNDRED)
+                .doubleValue();
+    }
+
+    @Benchmark
+    public double midPrice() {
+        return payload.midPrice();
+    }
+
+    @Benchmark
+    public BigDecimal midBigDecimal() {
+        return payload.mid();
+    }
+}
@@ -0,0 +1,146 @@
+package tradingbot.infrastructure.marketdata.journal;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import reactor.core.publisher.Flux;
+import tradingbot.domain.market.EmptyPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.domain.market.StreamMarketDataEvent.EventType;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+/**
+ * Capture and replay cost of the tick journal.
+ *
+ * <p>{@code appendRecord} is the raw mapped write and {@code appendEvent} the full per-tick path
+ * from a {@link StreamMarketDataEvent} (symbol lookup, lock, conversion, write); both should be
+ * well under a microsecond with 0 B/op. {@code replayMillionRecords} reads one million records
+ * from a live file, so a day of BTCUSDT trades replays in well under a second.
+ *
+ * <p>Iterations are one second and the append files are deleted after each, which keeps the
+ * disk written per iteration around a gigabyte.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TickJournalBenchmark {
+
+    private static final String SYMBOL = "BTCUSDT";
+    private static final int REPLAY_RECORDS = 1_000_000;
+    private static final long RECORDS_PER_FILE = 1 << 22;
+
+    private Path dir;
+    private TickJournalWriter writer;
+    private TickJournal journal;
+    private StreamMarketDataEvent trade;
+    private Path replayFile;
+    private long timestamp;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("tick-journal-bench");
+        trade = new StreamMarketDataEvent("BINANCE_FUTURES", SYMBOL, EventType.TRADE,
+                new BigDecimal("45000.10"), new BigDecimal("0.003"), Instant.now(), new EmptyPayload());
+
+        replayFile = dir.resolve("replay.tj");
+        try (TickJournalWriter replay = TickJournalWriter.open(replayFile, SYMBOL, 0, REPLAY_RECORDS)) {
+            for (int i = 0; i < REPLAY_RECORDS; i++) {
+                replay.append(i, 45_000 + i * 0.1, 0.003, TickSide.TRADE, i % 2 == 0 ? "BINANCE_FUTURES" : "BYBIT_LINEAR");
+            }
+            replay.seal();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void openFiles() throws IOException {
+        ExchangeWebSocketClient noStreams = new ExchangeWebSocketClient() {
+            @Override
+            public Flux<StreamMarketDataEvent> streamTrades(String symbol) {
+                return Flux.empty();
+            }
+
+            @Override
+            public Flux<StreamMarketDataEvent> streamBookTicker(String symbol) {
+                return Flux.empty();
+            }
+        };
+        journal = new TickJournal(noStreams, dir.resolve("journal"), List.of(), RECORDS_PER_FILE,
+                false, false, Executors.newSingleThreadExecutor());
+        journal.start();
+        openWriter();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteFiles() throws Exception {
+        journal.shutdown();
+        writer.close();
+        Files.delete(writer.path());
+        writer = null;
+        delete(dir.resolve("journal"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(dir);
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (var files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void openWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            Files.delete(writer.path());
+        }
+        writer = TickJournalWriter.open(dir.resolve("append.tj"), SYMBOL,
+                LocalDate.now(ZoneOffset.UTC).toEpochDay(), RECORDS_PER_FILE);
+    }
+
+    @Benchmark
+    public boolean appendRecord() throws IOException {
+        if (!writer.append(++timestamp, 45_000.1, 0.003, TickSide.TRADE, "BINANCE_FUTURES")) {
+            openWriter();
+        }
+        return true;
+    }
+
+    @Benchmark
+    public void appendEvent() {
+        journal.append(trade);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long replayMillionRecords(Blackhole blackhole) throws IOException {
+        try (TickJournalReader reader = TickJournalReader.open(replayFile)) {
+            return reader.readAll((ts, price, quantity, side, exchange) -> blackhole.consume(price));
+        }
+    }
+}
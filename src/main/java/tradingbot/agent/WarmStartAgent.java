@@ -0,0 +1,43 @@
+package tradingbot.agent;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import tradingbot.agent.domain.model.SeriesBar;
+
+/**
+ * WarmStartAgent — a {@link ReactiveTradingAgent} whose indicator state is derived entirely from
+ * its rolling bar series, so it can be exported and restored across restarts instead of being
+ * rebuilt from live or REST candles.
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li>Both methods are only meaningful once the series exists: after {@link #start()} or
+ *       inside the warm-up of {@link #start(Consumer)}; before that they return an empty list
+ *       and 0 respectively.</li>
+ *   <li>Both must be safe to call concurrently with {@link #onKlineClosed}.</li>
+ * </ul>
+ */
+public interface WarmStartAgent extends ReactiveTradingAgent {
+
+    /**
+     * Starts the agent like {@link #start()}, but runs {@code warmUp} after the bar series is
+     * built and before the agent turns {@code ACTIVE}. Restored bars are therefore in place
+     * before the first live candle is accepted, which would otherwise make them look stale.
+     * A failing warm-up is logged and the agent starts cold.
+     */
+    void start(Consumer<? super WarmStartAgent> warmUp);
+
+    /**
+     * Returns up to {@code maxBars} of the most recent bars, oldest first.
+     */
+    List<SeriesBar> recentBars(int maxBars);
+
+    /**
+     * Appends the bars that close after the current last bar, in order. Older or duplicate bars
+     * are skipped, so restoring a snapshot and then a REST gap that overlaps it is safe.
+     *
+     * @return number of bars appended
+     */
+    int restoreBars(List<SeriesBar> bars);
+}
@@ -1,9 +1,14 @@
 package tradingbot.agent.api.controller;
 
-import java.util.List;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,7 +20,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tradingbot.agent.api.dto.CursorPage;
 import tradingbot.agent.api.dto.OrderResponse;
 import tradingbot.agent.application.OrderService;
 import tradingbot.agent.infrastructure.persistence.OrderEntity;
@@ -25,9 +34,11 @@ import tradingbot.agent.infrastructure.persistence.OrderEntity;
 public class OrderController {
     private static final Logger log = LoggerFactory.getLogger(OrderController.class);
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -88,14 +99,39 @@ public class OrderController {
     }
 
     /**
-     * Fetch orders for a given agent (or all orders if agentId not provided)
+     * Fetch a page of orders for a given agent (or all orders if agentId not provided), newest first.
+     * Pass the returned nextCursor as {@code cursor} to fetch the following page.
      */
     @GetMapping
-    public ResponseEntity<List<OrderResponse>> getOrders(
-            @RequestParam(required = false) String agentId) {
-        log.info("Received GET /api/v1/orders with agentId={}", agentId);
-        List<OrderResponse> orders = orderService.getOrders(agentId);
-        log.info("Response for GET /api/v1/orders: {} orders", orders.size());
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<CursorPage<OrderResponse>> getOrders(
+            @RequestParam(required = false) String agentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("Received GET /api/v1/orders with agentId={}, size={}", agentId, size);
+        CursorPage<OrderResponse> page = orderService.getOrders(agentId, cursor, size);
+        log.info("Response for GET /api/v1/orders: {} orders", page.content().size());
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Export every order for an agent as newline-delimited JSON, oldest first.
+     * Rows are streamed from the database straight to the response.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam String agentId) {
+        log.info("Received GET /api/v1/orders/export with agentId={}", agentId);
+        StreamingResponseBody body = out -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            orderService.exportOrders(agentId, order -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(order));
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
     }
 }
@@ -0,0 +1,17 @@
+package tradingbot.agent.api.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Keyset-paginated list; pass nextCursor back to fetch the following page")
+public record CursorPage<T>(
+    @Schema(description = "Items for the current page, newest first")
+    List<T> content,
+
+    @Schema(description = "Page size", example = "50")
+    int size,
+
+    @Schema(description = "Cursor for the next page, or null on the last page")
+    String nextCursor
+) {}
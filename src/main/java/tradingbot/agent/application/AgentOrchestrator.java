@@ -7,15 +7,18 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.lang.Nullable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,7 +30,6 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import reactor.core.Disposable;
 import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 import tradingbot.agent.ReactiveTradingAgent;
 import tradingbot.agent.application.event.AgentPausedEvent;
 import tradingbot.agent.application.event.AgentStartedEvent;
@@ -38,6 +40,7 @@ import tradingbot.agent.config.OrderExecutionGatewayRegistry;
 import tradingbot.agent.domain.execution.ExecutionResult;
 import tradingbot.agent.domain.execution.OrderExecutionGateway;
 import tradingbot.agent.domain.model.Agent;
+import tradingbot.agent.domain.model.AgentDecision;
 import tradingbot.agent.domain.model.AgentDecision.Action;
 import tradingbot.agent.domain.model.AgentId;
 import tradingbot.agent.domain.model.AgentStatus;
@@ -45,7 +48,13 @@ import tradingbot.agent.domain.model.AgentSymbolLink;
 import tradingbot.agent.domain.repository.AgentRepository;
 import tradingbot.agent.infrastructure.persistence.OrderEntity;
 import tradingbot.agent.infrastructure.repository.OrderRepository;
+import tradingbot.bot.TradeDirection;
+import tradingbot.bot.events.TradeSignalEvent;
+import tradingbot.bot.messaging.EventPublisher;
+import tradingbot.bot.metrics.LatencyTracer;
+import tradingbot.bot.metrics.LatencyTracer.Stage;
 import tradingbot.bot.metrics.TradingMetrics;
+import tradingbot.config.VirtualThreads;
 import tradingbot.domain.market.KlineClosedEvent;
 import tradingbot.domain.market.MarketEvent;
 import tradingbot.domain.market.StreamMarketDataEvent;
@@ -94,6 +103,12 @@ public class AgentOrchestrator {
     private final AgentStrategy activeStrategy;
     private final ExchangeWebSocketClient webSocketClient;
     private final Scheduler agentScheduler;
+    /**
+     * Guards the routing cache and subscription set. A lock rather than {@code synchronized}:
+     * {@link #refreshSubscriptions} queries the database while holding it, which would pin a
+     * virtual carrier thread inside a monitor.
+     */
+    private final ReentrantLock subscriptionLock = new ReentrantLock();
     
     @Value("${websocket.enabled:false}")
     private boolean websocketEnabled;
@@ -135,6 +150,13 @@ public class AgentOrchestrator {
     private final org.springframework.context.ApplicationEventPublisher eventPublisher;
     private final TradingMetrics tradingMetrics;
 
+    @Autowired(required = false)
+    private LatencyTracer latencyTracer = LatencyTracer.disabled();
+
+    /** Records entry decisions on the signals topic, where session replays diff against them. */
+    @Autowired(required = false)
+    private EventPublisher signalPublisher;
+
     /**
      * Primary constructor — Spring uses this for dependency injection.
      *
@@ -167,7 +189,7 @@ public class AgentOrchestrator {
         this.performanceTrackingService = performanceTrackingService;
         this.eventPublisher = eventPublisher;
         this.tradingMetrics = tradingMetrics;
-        this.agentScheduler = Schedulers.boundedElastic();
+        this.agentScheduler = VirtualThreads.blockingScheduler();
 
         String normalized = strategyName.toLowerCase();
         if ("rag".equals(normalized) || "legacy".equals(normalized)) {
@@ -199,33 +221,39 @@ public class AgentOrchestrator {
      * lightweight projection query (only id + symbol, no full entity hydration).
      * Used at startup and as a periodic safety-net reconciliation.
      */
-    public synchronized void refreshSubscriptions() {
-        if (!websocketEnabled) return;
+    public void refreshSubscriptions() {
+        subscriptionLock.lock();
+        try {
+            if (!websocketEnabled) return;
         
-        // 1. Use lightweight projection — only ids + symbols, no full entity hydration
-        List<AgentSymbolLink> activeLinks = agentRepository.findActiveAgentSymbols();
+            // 1. Use lightweight projection — only ids + symbols, no full entity hydration
+            List<AgentSymbolLink> activeLinks = agentRepository.findActiveAgentSymbols();
         
-        // 2. Rebuild the symbol -> agent mapping
-        symbolToAgentMap.clear();
-        for (AgentSymbolLink link : activeLinks) {
-            symbolToAgentMap.computeIfAbsent(link.symbol(), k -> ConcurrentHashMap.newKeySet())
-                            .add(new AgentId(link.agentId()));
-        }
+            // 2. Rebuild the symbol -> agent mapping
+            symbolToAgentMap.clear();
+            for (AgentSymbolLink link : activeLinks) {
+                symbolToAgentMap.computeIfAbsent(link.symbol(), k -> ConcurrentHashMap.newKeySet())
+                                .add(new AgentId(link.agentId()));
+            }
         
-        logger.info("[Orchestrator] Refreshed symbolToAgentMap: {} agents across {} symbols",
-                activeLinks.size(), symbolToAgentMap.size());
+            logger.info("[Orchestrator] Refreshed symbolToAgentMap: {} agents across {} symbols",
+                    activeLinks.size(), symbolToAgentMap.size());
         
-        // 3. Ensure we have a subscription for each needed symbol
-        symbolToAgentMap.keySet().forEach(symbol -> {
-            if (!activeSubscriptions.containsKey(symbol)) {
-                logger.info("Subscribing to WebSocket for symbol: {}", symbol);
-                Disposable sub = webSocketClient.streamTrades(symbol)
-                    .doOnNext(this::handleMarketEvent)
-                    .onErrorContinue((ex, obj) -> logger.error("Error in stream for {}: {}", symbol, ex.getMessage()))
-                    .subscribe();
-                activeSubscriptions.put(symbol, sub);
-            }
-        });
+            // 3. Ensure we have a subscription for each needed symbol
+            symbolToAgentMap.keySet().forEach(symbol -> {
+                if (!activeSubscriptions.containsKey(symbol)) {
+                    logger.info("Subscribing to WebSocket for symbol: {}", symbol);
+                    Disposable sub = webSocketClient.streamTrades(symbol)
+                        .doOnNext(this::handleMarketEvent)
+                        .onErrorContinue((ex, obj) -> logger.error("Error in stream for {}: {}", symbol, ex.getMessage()))
+                        .subscribe();
+                    activeSubscriptions.put(symbol, sub);
+                    webSocketClient.subscribeOrderBook(symbol);
+                }
+            });
+        } finally {
+            subscriptionLock.unlock();
+        }
     }
 
     /**
@@ -244,6 +272,8 @@ public class AgentOrchestrator {
             return;
         }
 
+        long ingestStart = System.nanoTime();
+        LatencyTracer.Trace trace = latencyTracer.begin(event.receivedNanos()).mark(Stage.CONSUMED);
         Instant now = Instant.now();
 
         // Iterate and schedule execution if throttled condition met
@@ -257,20 +287,27 @@ public class AgentOrchestrator {
                 
                 // Offload the blocking/transactional agent logic to a separate scheduler
                 // so we don't block the Netty/WebSocket thread.
-                agentScheduler.schedule(() -> executeAgentTransactionWrapper(agentId, event));
+                LatencyTracer.Trace agentTrace = trace.fork();
+                agentScheduler.schedule(() -> executeAgentTransactionWrapper(agentId, event, agentTrace));
             }
         }
+        if (tradingMetrics != null) {
+            TradingMetrics.recordSince(tradingMetrics.tickIngestTimer(), ingestStart);
+        }
     }
 
     /**
      * Non-transactional wrapper to call the transactional method.
      * This ensures the transaction boundary is clean.
      */
-    private void executeAgentTransactionWrapper(AgentId agentId, MarketEvent event) {
+    private void executeAgentTransactionWrapper(AgentId agentId, MarketEvent event, LatencyTracer.Trace trace) {
+        trace.mark(Stage.DISPATCHED);
         try {
-            executeAgentTransaction(agentId, event);
+            executeAgentTransaction(agentId, event, trace);
         } catch (Exception e) {
             logger.error("Error in async agent execution for {}: {}", agentId, e.getMessage(), e);
+        } finally {
+            trace.finish(event.symbol());
         }
     }
 
@@ -279,7 +316,7 @@ public class AgentOrchestrator {
      * Loads the fresh agent state and runs the strategy.
      */
     @Transactional
-    protected void executeAgentTransaction(AgentId agentId, MarketEvent triggeringEvent) {
+    protected void executeAgentTransaction(AgentId agentId, MarketEvent triggeringEvent, LatencyTracer.Trace trace) {
         // Reload agent to ensure we have fresh state in this transaction
         agentRepository.findById(agentId).ifPresentOrElse(agent -> {
             logger.debug("Executing strategy for agent {} triggered by {} @ {}", 
@@ -288,10 +325,19 @@ public class AgentOrchestrator {
                 triggeringEvent.price());
             
             // Execute iteration (Note: this modifies agent state)
+            long decisionStart = System.nanoTime();
             activeStrategy.executeIteration(agent, triggeringEvent);
+            trace.mark(Stage.DECIDED);
+            if (tradingMetrics != null) {
+                TradingMetrics.recordSince(tradingMetrics.agentDecisionTimer(), decisionStart);
+            }
             
             // Save updated state
+            long saveStart = System.nanoTime();
             agentRepository.save(agent);
+            if (tradingMetrics != null) {
+                TradingMetrics.recordSince(tradingMetrics.persistenceTimer("agent.save"), saveStart);
+            }
         }, () -> {
             logger.warn("Agent {} not found during execution, evicting from caches", agentId);
             // Remove stale agent from all in-memory caches so it stops receiving events.
@@ -303,7 +349,6 @@ public class AgentOrchestrator {
     public void cleanup() {
         activeSubscriptions.values().forEach(Disposable::dispose);
         activeSubscriptions.clear();
-        agentScheduler.dispose(); // Shutdown scheduler
     }
     
     /**
@@ -369,12 +414,21 @@ public class AgentOrchestrator {
      * </ul>
      *
      * <p>Topic pattern: {@code kline-closed.BTCUSDT}, {@code kline-closed.ETHUSDT}, …
+     *
+     * <p>The optional trace headers written by the producer feed {@link LatencyTracer}; records
+     * without them (other producers, replays) are traced from this listener onwards.
      */
     @KafkaListener(
             topicPattern = "kline-closed\\..*",
             groupId = "agent-orchestrator-klines",
             containerFactory = "kafkaListenerContainerFactory")
-    public void onKlineClosedEvent(KlineClosedEvent event) {
+    public void onKlineClosedEvent(
+            KlineClosedEvent event,
+            @Header(name = LatencyTracer.HEADER_PUBLISHED_NANOS, required = false) byte[] publishedNanos,
+            @Header(name = LatencyTracer.HEADER_CLOCK, required = false) byte[] traceClock) {
+        LatencyTracer.Trace trace = latencyTracer
+                .beginFromKafka(event.receivedNanos(), publishedNanos, traceClock)
+                .mark(Stage.CONSUMED);
         if (agents.isEmpty()) {
             // No ReactiveTradingAgent beans registered yet (normal during Phase 1).
             logger.trace("[KlineListener] No ReactiveTradingAgent beans — skipping dispatch for {}/{}",
@@ -385,7 +439,7 @@ public class AgentOrchestrator {
         agents.stream()
                 .filter(agent -> event.symbol().equals(agent.getSymbol()))
                 .filter(agent -> agent.getStatus() == AgentStatus.ACTIVE)
-                .forEach(agent -> dispatchWithBulkhead(agent, event));
+                .forEach(agent -> dispatchWithBulkhead(agent, event, trace.fork()));
     }
 
     /**
@@ -395,7 +449,7 @@ public class AgentOrchestrator {
      * <p>A bulkhead is created lazily with conservative defaults
      * (10 concurrent calls, 500 ms max wait) if one does not yet exist.
      */
-    private void dispatchWithBulkhead(ReactiveTradingAgent agent, KlineClosedEvent event) {
+    private void dispatchWithBulkhead(ReactiveTradingAgent agent, KlineClosedEvent event, LatencyTracer.Trace trace) {
         String bulkheadName = "agent-" + agent.getId();
         Bulkhead bulkhead = bulkheadRegistry.bulkhead(
                 bulkheadName,
@@ -410,12 +464,19 @@ public class AgentOrchestrator {
                         agent.getId(), event.symbol());
                 return;
             }
+            trace.mark(Stage.DISPATCHED);
             try {
+                long decisionStart = System.nanoTime();
                 agent.onKlineClosed(event)
                         .doOnSuccess(decision -> {
+                            trace.mark(Stage.DECIDED);
+                            if (tradingMetrics != null) {
+                                TradingMetrics.recordSince(tradingMetrics.agentDecisionTimer(), decisionStart);
+                            }
                             logger.info(
                                     "[AgenticAgent] {} → {} (confidence {}%) for {}",
                                     agent.getId(), decision.action(), decision.confidence(), event.symbol());
+                            publishSignal(agent, event, decision);
                             // P1: Route decision through the per-agent gateway
                             OrderExecutionGateway gateway = gatewayRegistry.resolve(
                                     agent.getId(), agent.getExchange());
@@ -427,6 +488,7 @@ public class AgentOrchestrator {
                                             ? tradingMetrics.orderPlacementTimer(event.symbol(), direction)
                                                     .recordCallable(() -> gateway.execute(decision, event.symbol(), price))
                                             : gateway.execute(decision, event.symbol(), price);
+                                    trace.mark(Stage.ORDER_SENT);
                                     logger.info("[AgenticAgent] {} execution: {} success={} fill={}",
                                             agent.getId(), result.action(), result.success(), result.fillPrice());
 
@@ -462,7 +524,11 @@ public class AgentOrchestrator {
                                         }
                                         
                                         OrderEntity entity = entityBuilder.build();
+                                        long saveStart = System.nanoTime();
                                         orderRepository.save(entity);
+                                        if (tradingMetrics != null) {
+                                            TradingMetrics.recordSince(tradingMetrics.persistenceTimer("order.save"), saveStart);
+                                        }
                                         
                                         // P3: Track performance metrics
                                         performanceTrackingService.recordExecution(agent.getId(), result);
@@ -511,6 +577,7 @@ public class AgentOrchestrator {
                         .doOnError(ex -> logger.error(
                                 "[AgenticAgent] {} error on kline {}: {}",
                                 agent.getId(), event.symbol(), ex.getMessage(), ex))
+                        .doFinally(signal -> trace.finish(event.symbol()))
                         .subscribe();
             } finally {
                 bulkhead.releasePermission();
@@ -518,6 +585,21 @@ public class AgentOrchestrator {
         });
     }
 
+    /**
+     * Publishes an entry decision as a {@link TradeSignalEvent} tagged with the candle it was
+     * made on, so that {@code ReplayEngine} can line recorded and replayed decisions up exactly.
+     */
+    private void publishSignal(ReactiveTradingAgent agent, KlineClosedEvent event, AgentDecision decision) {
+        if (signalPublisher == null || !decision.isEntry()) {
+            return;
+        }
+        TradeSignalEvent signal = new TradeSignalEvent(agent.getId(), event.symbol(),
+                decision.action() == Action.BUY ? TradeDirection.LONG : TradeDirection.SHORT);
+        signal.setStrength(decision.confidence() / 100.0);
+        signal.setMetadata(Map.of(TradeSignalEvent.KLINE_CLOSE_TIME, event.closeTime().toEpochMilli()));
+        signalPublisher.publishTradeSignal(signal);
+    }
+
     /**
      * Run a single iteration using the active strategy (Polling version)
      */
@@ -559,13 +641,18 @@ public class AgentOrchestrator {
      *
      * @param agentId the agent to evict
      */
-    public synchronized void evictAgent(AgentId agentId) {
-        symbolToAgentMap.forEach((symbol, agentIds) -> agentIds.remove(agentId));
-        symbolToAgentMap.entrySet().removeIf(e -> e.getValue().isEmpty());
-        lastExecutionTime.remove(agentId);
-        gatewayRegistry.evict(agentId.getValue());
-        logger.info("[Orchestrator] Evicted agent {} from symbolToAgentMap, lastExecutionTime, and gatewayRegistry caches",
-                agentId);
+    public void evictAgent(AgentId agentId) {
+        subscriptionLock.lock();
+        try {
+            symbolToAgentMap.forEach((symbol, agentIds) -> agentIds.remove(agentId));
+            symbolToAgentMap.entrySet().removeIf(e -> e.getValue().isEmpty());
+            lastExecutionTime.remove(agentId);
+            gatewayRegistry.evict(agentId.getValue());
+            logger.info("[Orchestrator] Evicted agent {} from symbolToAgentMap, lastExecutionTime, and gatewayRegistry caches",
+                    agentId);
+        } finally {
+            subscriptionLock.unlock();
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -574,22 +661,29 @@ public class AgentOrchestrator {
 
     /**
      * Reacts to an agent being activated — adds it to the in-memory routing
-     * cache and opens a WebSocket subscription for the symbol if needed.
+     * cache and opens the trade and depth subscriptions for the symbol if needed.
      */
     @EventListener
-    public synchronized void onAgentStarted(AgentStartedEvent event) {
-        symbolToAgentMap.computeIfAbsent(event.symbol(), k -> ConcurrentHashMap.newKeySet())
-                        .add(event.agentId());
-
-        if (websocketEnabled && !activeSubscriptions.containsKey(event.symbol())) {
-            logger.info("New symbol detected dynamically, subscribing: {}", event.symbol());
-            Disposable sub = webSocketClient.streamTrades(event.symbol())
-                .doOnNext(this::handleMarketEvent)
-                .onErrorContinue((ex, obj) -> logger.error("Stream error {}: {}", event.symbol(), ex.getMessage()))
-                .subscribe();
-            activeSubscriptions.put(event.symbol(), sub);
+    public void onAgentStarted(AgentStartedEvent event) {
+        subscriptionLock.lock();
+        try {
+            symbolToAgentMap.computeIfAbsent(event.symbol(), k -> ConcurrentHashMap.newKeySet())
+                            .add(event.agentId());
+
+            if (websocketEnabled && !activeSubscriptions.containsKey(event.symbol())) {
+                logger.info("New symbol detected dynamically, subscribing: {}", event.symbol());
+                Disposable sub = webSocketClient.streamTrades(event.symbol())
+                    .doOnNext(this::handleMarketEvent)
+                    .onErrorContinue((ex, obj) -> logger.error("Stream error {}: {}", event.symbol(), ex.getMessage()))
+                    .subscribe();
+                activeSubscriptions.put(event.symbol(), sub);
+                // Order placement only reads the local book, so it is opened with the symbol's first agent
+                webSocketClient.subscribeOrderBook(event.symbol());
+            }
+            logger.info("[Orchestrator] Agent {} added to symbolToAgentMap for {}", event.agentId(), event.symbol());
+        } finally {
+            subscriptionLock.unlock();
         }
-        logger.info("[Orchestrator] Agent {} added to symbolToAgentMap for {}", event.agentId(), event.symbol());
     }
 
     /**
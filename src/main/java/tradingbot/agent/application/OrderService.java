@@ -3,11 +3,17 @@ package tradingbot.agent.application;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.EntityManager;
+import tradingbot.agent.api.dto.CursorPage;
 import tradingbot.agent.api.dto.OrderResponse;
+import tradingbot.agent.api.dto.PageCursor;
 import tradingbot.agent.domain.util.OrderIdGenerator;
 import tradingbot.agent.infrastructure.persistence.OrderEntity;
 import tradingbot.agent.infrastructure.repository.OrderRepository;
@@ -15,17 +21,61 @@ import tradingbot.agent.infrastructure.repository.OrderRepository;
 @Service
 @Transactional
 public class OrderService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
 
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, EntityManager entityManager) {
         this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * One keyset page of orders, newest first, for an agent (or all agents if agentId is blank).
+     * Fetches size + 1 rows to know whether a next page exists without a count query.
+     *
+     * @param cursor nextCursor from the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> getOrders(String agentId, String cursor, int size) {
+        int pageSize = size > 0 ? Math.min(size, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        boolean byAgent = agentId != null && !agentId.isEmpty();
+        PageCursor after = cursor != null && !cursor.isEmpty() ? PageCursor.decode(cursor) : null;
+
+        List<OrderEntity> rows;
+        if (after == null) {
+            rows = byAgent ? orderRepository.findFirstPageByAgent(agentId, limit) : orderRepository.findFirstPage(limit);
+        } else {
+            rows = byAgent
+                ? orderRepository.findPageByAgentBefore(agentId, after.at(), after.id(), limit)
+                : orderRepository.findPageBefore(after.at(), after.id(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderEntity> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            OrderEntity last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(page.stream().map(OrderEntity::toOrderResponse).toList(), pageSize, nextCursor);
     }
 
-    public List<OrderResponse> getOrders(String agentId) {
-        List<OrderEntity> entities = (agentId != null && !agentId.isEmpty())
-            ? orderRepository.findByAgentId(agentId)
-            : orderRepository.findAll();
-        return entities.stream().map(OrderEntity::toOrderResponse).toList();
+    /**
+     * Stream every order for an agent, oldest first, to {@code sink} in constant memory.
+     * Rows are fetched in JDBC batches and detached once handed off.
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(String agentId, Consumer<OrderResponse> sink) {
+        try (Stream<OrderEntity> orders = orderRepository.streamByAgentId(agentId)) {
+            orders.forEach(order -> {
+                sink.accept(order.toOrderResponse());
+                entityManager.detach(order);
+            });
+        }
     }
 
     public Optional<OrderResponse> getOrderById(String id) {
@@ -7,6 +7,8 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import tradingbot.agent.application.event.TradeCompletedEvent;
+import tradingbot.agent.infrastructure.llm.LlmCallScheduler;
+import tradingbot.agent.infrastructure.llm.LlmPriority;
 import tradingbot.agent.infrastructure.persistence.TradeMemoryEntity;
 import tradingbot.agent.service.RAGService;
 import tradingbot.agent.service.TradeReflectionService;
@@ -25,19 +27,28 @@ import tradingbot.agent.service.TradeReflectionService;
  *    a. Deletes the stale PENDING vector embedding.
  *    b. Re-embeds the completed trade scenario and stores the updated vector.
  *    c. Updates the SQL metadata record with the real outcome.
+ *
+ * The LLM call is admitted by {@link LlmCallScheduler} at {@link LlmPriority#REFLECTION},
+ * so reflections queue behind live decisions instead of competing with them.
  */
 @Service
 public class TradeReflectionListener {
 
     private static final Logger logger = LoggerFactory.getLogger(TradeReflectionListener.class);
 
+    /** Prompt (reasoning capped at 800 chars) plus a short lesson, in tokens. */
+    private static final int REFLECTION_TOKEN_ESTIMATE = 600;
+
     private final TradeReflectionService tradeReflectionService;
     private final RAGService ragService;
+    private final LlmCallScheduler llmCallScheduler;
 
     public TradeReflectionListener(TradeReflectionService tradeReflectionService,
-                                   RAGService ragService) {
+                                   RAGService ragService,
+                                   LlmCallScheduler llmCallScheduler) {
         this.tradeReflectionService = tradeReflectionService;
         this.ragService = ragService;
+        this.llmCallScheduler = llmCallScheduler;
     }
 
     /**
@@ -91,14 +102,16 @@ public class TradeReflectionListener {
 
     private String generateLesson(TradeCompletedEvent event) {
         try {
-            return tradeReflectionService.generateLesson(
-                    event.getSymbol(),
-                    event.getDirection().name(),
-                    String.format("%.4f", event.getEntryPrice()),
-                    String.format("%.4f", event.getExitPrice()),
-                    String.format("%.2f", event.getRealizedPnlPercent()),
-                    sanitizeReasoning(event.getOriginalReasoning())
-            );
+            String reasoning = sanitizeReasoning(event.getOriginalReasoning());
+            return llmCallScheduler.execute(LlmPriority.REFLECTION, REFLECTION_TOKEN_ESTIMATE,
+                    () -> tradeReflectionService.generateLesson(
+                            event.getSymbol(),
+                            event.getDirection().name(),
+                            String.format("%.4f", event.getEntryPrice()),
+                            String.format("%.4f", event.getExitPrice()),
+                            String.format("%.2f", event.getRealizedPnlPercent()),
+                            reasoning
+                    ));
         } catch (Exception e) {
             logger.warn("[Reflection] LLM lesson generation failed for agent {} on {}: {}",
                     event.getAgentId(), event.getSymbol(), e.getMessage());
@@ -15,6 +15,9 @@ import tradingbot.agent.domain.model.TradeMemory;
 import tradingbot.agent.domain.model.TradeOutcome;
 import tradingbot.agent.config.AgentExecutionContext;
 import tradingbot.agent.config.ExchangeServiceRegistry;
+import tradingbot.agent.infrastructure.llm.LlmCallRejectedException;
+import tradingbot.agent.infrastructure.llm.LlmCallScheduler;
+import tradingbot.agent.infrastructure.llm.LlmPriority;
 import tradingbot.agent.service.RAGService;
 import tradingbot.agent.service.TradingAgentService;
 import tradingbot.domain.market.MarketEvent;
@@ -38,6 +41,7 @@ public class LangChain4jStrategy implements AgentStrategy {
     private final RAGService ragService;
     private final ExchangeServiceRegistry exchangeServiceRegistry;
     private final AgentExecutionContext executionContext;
+    private final LlmCallScheduler llmCallScheduler;
 
     @Value("${rag.enabled:true}")
     private boolean ragEnabled;
@@ -45,15 +49,20 @@ public class LangChain4jStrategy implements AgentStrategy {
     @Value("${rag.strategy.context-limit:3}")
     private int ragContextLimit;
 
+    @Value("${llm.max-tokens:2000}")
+    private int llmMaxTokens;
+
     public LangChain4jStrategy(
             TradingAgentService tradingAgentService,
             RAGService ragService,
             ExchangeServiceRegistry exchangeServiceRegistry,
-            AgentExecutionContext executionContext) {
+            AgentExecutionContext executionContext,
+            LlmCallScheduler llmCallScheduler) {
         this.tradingAgentService = tradingAgentService;
         this.ragService = ragService;
         this.exchangeServiceRegistry = exchangeServiceRegistry;
         this.executionContext = executionContext;
+        this.llmCallScheduler = llmCallScheduler;
     }
     
     @Override
@@ -69,21 +78,31 @@ public class LangChain4jStrategy implements AgentStrategy {
                 ? String.format("$%.2f", triggeringEvent.price().doubleValue())
                 : "unknown (polling mode — use market-data tool)";
 
-        // 3. Invoke the agent - it will autonomously call tools and make decisions
-        executionContext.set(exchangeServiceRegistry.resolve(agent.getExchangeName()));
+        // 3. Invoke the agent - it will autonomously call tools and make decisions.
+        //    The whole tool-calling exchange runs under one live-decision slot; if it waits
+        //    past its deadline the iteration is skipped rather than trading on a stale price.
+        int estimatedTokens = llmMaxTokens + ragContext.length() / 4;
         String agentResponse;
         try {
-            agentResponse = tradingAgentService.analyzeAndDecide(
-                agent.getId().getValue(),
-                agent.getTradingSymbol(),
-                agent.getGoal().toString(),
-                agent.getCapital(),
-                agent.getState().getIterationCount(),
-                ragContext,
-                triggerPrice
-            );
-        } finally {
-            executionContext.clear();
+            agentResponse = llmCallScheduler.execute(LlmPriority.LIVE_DECISION, estimatedTokens, () -> {
+                executionContext.set(exchangeServiceRegistry.resolve(agent.getExchangeName()));
+                try {
+                    return tradingAgentService.analyzeAndDecide(
+                        agent.getId().getValue(),
+                        agent.getTradingSymbol(),
+                        agent.getGoal().toString(),
+                        agent.getCapital(),
+                        agent.getState().getIterationCount(),
+                        ragContext,
+                        triggerPrice
+                    );
+                } finally {
+                    executionContext.clear();
+                }
+            });
+        } catch (LlmCallRejectedException e) {
+            logger.warn("Agent {} skipped iteration: {}", agent.getId(), e.getMessage());
+            return;
         }
         
         logger.info("Agent {} decision: {}", agent.getId(), agentResponse);
@@ -28,6 +28,9 @@ import org.ta4j.core.num.Num;
  *       reference they return — the {@link BarSeries} is owned by the agent.</li>
  *   <li>{@link #indicator()} is called once during agent initialization and the
  *       returned object is reused across all subsequent bar events.</li>
+ *   <li>The series is a bounded {@link RollingBarSeries}: an indicator may only
+ *       look back over bars still retained, so its period must be among those the
+ *       agent passes to {@link RollingBarSeries#capacityFor}.</li>
  *   <li>The factory method {@link #of(Indicator)} provides a trivial default
  *       implementation for wiring concrete ta4j indicators at configuration time.</li>
  * </ul>
@@ -0,0 +1,57 @@
+package tradingbot.agent.domain.indicator;
+
+import java.util.Arrays;
+
+import org.ta4j.core.BaseBarSeries;
+import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.num.DoubleNum;
+
+/**
+ * RollingBarSeries — builds the bounded, double-backed {@link BaseBarSeries} that a long-running
+ * {@link tradingbot.agent.ReactiveTradingAgent} feeds with closed klines.
+ *
+ * <p>An unbounded series keeps every bar for the life of the process (roughly 43k bars a month
+ * per agent at 1m). Here the series holds at most {@link #capacityFor} bars: once full, each new
+ * bar evicts the oldest one, and ta4j's {@code CachedIndicator}s drop the cached results for
+ * evicted indices, so per-agent heap stays flat. Bar indices keep increasing after eviction —
+ * {@code getEndIndex()} is still the total number of bars seen minus one.
+ *
+ * <p>Prices are {@link DoubleNum} (a primitive {@code double}) rather than ta4j's default
+ * {@code DecimalNum}, whose {@code BigDecimal} arithmetic costs an allocation per operation.
+ * Constants mixed into indicator arithmetic must therefore come from {@code series.numOf(..)}.
+ */
+public final class RollingBarSeries {
+
+    /**
+     * Bars kept per unit of the longest lookback. Recursive indicators (EMA, Wilder RSI) carry
+     * their state in the cache from bar to bar, so eviction does not change their values while an
+     * agent evaluates every bar; the slack only matters when the cache is rebuilt from the oldest
+     * retained bar, where after 10 × the period the seed's weight is below 1e-8.
+     */
+    static final int LOOKBACK_MULTIPLE = 10;
+
+    /** Lower bound so short-period agents still keep a useful window for snapshots and prompts. */
+    static final int MIN_CAPACITY = 200;
+
+    private RollingBarSeries() {
+    }
+
+    /**
+     * @param lookbacks every indicator period (or combined period, e.g. MACD slow + signal)
+     *                  evaluated on the series
+     * @return the number of bars to retain
+     */
+    public static int capacityFor(int... lookbacks) {
+        int longest = Arrays.stream(lookbacks).max().orElse(0);
+        return Math.max(MIN_CAPACITY, longest * LOOKBACK_MULTIPLE);
+    }
+
+    public static BaseBarSeries create(String name, int capacity) {
+        BaseBarSeries series = new BaseBarSeriesBuilder()
+                .withName(name)
+                .withNumTypeOf(DoubleNum.class)
+                .build();
+        series.setMaximumBarCount(capacity);
+        return series;
+    }
+}
@@ -0,0 +1,15 @@
+package tradingbot.agent.domain.model;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * SeriesBar — one OHLCV bar of an agent's rolling indicator series, decoupled from ta4j so it can
+ * be snapshotted and restored.
+ *
+ * @param endTime bar close time
+ * @param period  bar duration
+ */
+public record SeriesBar(Instant endTime, Duration period,
+                        double open, double high, double low, double close, double volume) {
+}
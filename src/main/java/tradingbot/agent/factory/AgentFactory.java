@@ -6,7 +6,8 @@ import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-// import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
@@ -23,6 +24,7 @@ import tradingbot.agent.infrastructure.repository.AgentEntity;
 import tradingbot.bot.FuturesTradingBot;
 import tradingbot.bot.FuturesTradingBot.BotParams;
 import tradingbot.bot.TradeDirection;
+import tradingbot.bot.metrics.TradingMetrics;
 import tradingbot.bot.service.FuturesExchangeService;
 import tradingbot.bot.service.PaperFuturesExchangeService;
 import tradingbot.bot.strategy.analyzer.SentimentAnalyzer;
@@ -38,6 +40,7 @@ import tradingbot.bot.strategy.indicator.RSITechnicalIndicator;
 import tradingbot.bot.strategy.indicator.TechnicalIndicator;
 import tradingbot.bot.strategy.tracker.TrailingStopTracker;
 import tradingbot.config.TradingConfig;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
 
 /**
  * Factory component responsible for instantiating TradingAgent objects.
@@ -58,6 +61,15 @@ public class AgentFactory {
     private final AgentProperties agentProperties;
     private final RiskGuard riskGuard;
 
+    @Autowired(required = false)
+    private TradingMetrics tradingMetrics;
+
+    @Autowired(required = false)
+    private ExchangeWebSocketClient webSocketClient;
+
+    @Value("${websocket.enabled:false}")
+    private boolean websocketEnabled;
+
     public AgentFactory(FuturesExchangeService exchangeService,
                         ExchangeServiceRegistry exchangeServiceRegistry,
                         SentimentAnalyzer sentimentAnalyzer,
@@ -133,6 +145,7 @@ public class AgentFactory {
             .config(tradingConfig)
             .tradeDirection(direction)
             .skipLeverageInit(false) // Exchange-specific logic can be added if needed
+            .priceStream(priceStream())
             .build();
         return new FuturesTradingBot(botParams);
     }
@@ -191,11 +204,17 @@ public class AgentFactory {
             .config(config)
             .tradeDirection(direction)
             .skipLeverageInit(isPaper)
+            .priceStream(priceStream())
             .build();
 
         return new FuturesTradingBot(botParams);
     }
 
+    /** Live trades for trailing-stop checks between scheduled steps; null when streaming is off. */
+    private ExchangeWebSocketClient priceStream() {
+        return websocketEnabled ? webSocketClient : null;
+    }
+
     private ReactiveTradingAgent createTechnicalTradingAgent(AgentEntity entity, TradingConfig config) {
         return new TechnicalTradingAgent(
                 entity.getId(),
@@ -210,7 +229,8 @@ public class AgentFactory {
                 config.getRsiOversoldThreshold(),
                 config.getRsiOverboughtThreshold(),
                 config.getBbPeriod(),
-                config.getBbStandardDeviation());
+                config.getBbStandardDeviation(),
+                tradingMetrics != null ? tradingMetrics.indicatorComputeTimer() : null);
     }
 
     private Map<String, TechnicalIndicator> createIndicators(TradingConfig config) {
@@ -0,0 +1,57 @@
+package tradingbot.agent.impl;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+
+import tradingbot.agent.domain.model.SeriesBar;
+
+/**
+ * Converts between a ta4j {@link BarSeries} and {@link SeriesBar}s for the
+ * {@link tradingbot.agent.WarmStartAgent} implementations. Callers hold the agent's series lock.
+ */
+final class BarSeriesSnapshots {
+
+    private BarSeriesSnapshots() {
+    }
+
+    static List<SeriesBar> recentBars(BarSeries series, int maxBars) {
+        if (series == null || series.isEmpty() || maxBars <= 0) {
+            return List.of();
+        }
+        int end = series.getEndIndex();
+        int from = Math.max(series.getBeginIndex(), end - maxBars + 1);
+        List<SeriesBar> bars = new ArrayList<>(end - from + 1);
+        for (int i = from; i <= end; i++) {
+            Bar bar = series.getBar(i);
+            bars.add(new SeriesBar(bar.getEndTime().toInstant(), bar.getTimePeriod(),
+                    bar.getOpenPrice().doubleValue(),
+                    bar.getHighPrice().doubleValue(),
+                    bar.getLowPrice().doubleValue(),
+                    bar.getClosePrice().doubleValue(),
+                    bar.getVolume().doubleValue()));
+        }
+        return bars;
+    }
+
+    static int restoreBars(BarSeries series, List<SeriesBar> bars) {
+        if (series == null) {
+            return 0;
+        }
+        int appended = 0;
+        for (SeriesBar bar : bars) {
+            ZonedDateTime endTime = ZonedDateTime.ofInstant(bar.endTime(), ZoneOffset.UTC);
+            if (!series.isEmpty() && !endTime.isAfter(series.getLastBar().getEndTime())) {
+                continue;
+            }
+            series.addBar(bar.period(), endTime,
+                    bar.open(), bar.high(), bar.low(), bar.close(), bar.volume());
+            appended++;
+        }
+        return appended;
+    }
+}
@@ -4,33 +4,40 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.ta4j.core.BaseBarSeries;
-import org.ta4j.core.BaseBarSeriesBuilder;
 import org.ta4j.core.indicators.EMAIndicator;
 import org.ta4j.core.indicators.MACDIndicator;
 import org.ta4j.core.indicators.RSIIndicator;
 import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.Sinks;
 import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.WarmStartAgent;
+import tradingbot.agent.domain.indicator.RollingBarSeries;
 import tradingbot.agent.domain.model.AgentDecision;
 import tradingbot.agent.domain.model.AgentDecision.Action;
 import tradingbot.agent.domain.model.AgentGoal;
 import tradingbot.agent.domain.model.AgentGoal.GoalType;
 import tradingbot.agent.domain.model.AgentStatus;
+import tradingbot.agent.domain.model.SeriesBar;
 import tradingbot.agent.domain.model.Perception;
+import tradingbot.agent.domain.model.Reasoning;
 import tradingbot.agent.domain.model.ReasoningContext;
 import tradingbot.agent.domain.risk.RiskContext;
 import tradingbot.agent.domain.risk.RiskGuard;
 import tradingbot.agent.infrastructure.llm.LLMProvider;
+import tradingbot.config.VirtualThreads;
 import tradingbot.domain.market.KlineClosedEvent;
 
 /**
@@ -42,12 +49,13 @@ import tradingbot.domain.market.KlineClosedEvent;
  *
  * <h3>Signal pipeline</h3>
  * <ol>
- *   <li>Add incoming bar to the internal {@code BarSeries}.</li>
+ *   <li>Add incoming bar to the internal {@code BarSeries}, a bounded
+ *       {@link tradingbot.agent.domain.indicator.RollingBarSeries}.</li>
  *   <li>If bar count &lt; {@code warmupBars}: return HOLD ("Warming up").</li>
  *   <li>Compute MACD histogram and RSI.</li>
  *   <li>Derive {@code technicalSignal} (BUY / SELL / HOLD) from indicator crossovers.</li>
  *   <li>Build a {@link Perception} + {@link ReasoningContext} and call
- *       {@link LLMProvider#generateReasoning(ReasoningContext)}.</li>
+ *       {@link LLMProvider#generateReasoningAsync(ReasoningContext)}.</li>
  *   <li>Merge LLM recommendation with technical signal (LLM is tie-break).</li>
  * </ol>
  *
@@ -61,7 +69,7 @@ import tradingbot.domain.market.KlineClosedEvent;
  *       routing is handled by the caller ({@code BacktestAgentExecutionService}).</li>
  * </ul>
  */
-public class LLMTradingAgent implements ReactiveTradingAgent {
+public class LLMTradingAgent implements WarmStartAgent {
 
     private static final Logger log = LoggerFactory.getLogger(LLMTradingAgent.class);
 
@@ -81,8 +89,11 @@ public class LLMTradingAgent implements ReactiveTradingAgent {
     private final int macdSignal;
     private final int rsiPeriod;
     private final int warmupBars;
+    /** Bars retained by the rolling series; older bars are evicted. */
+    private final int seriesCapacity;
 
-    // --- ta4j state (created in start()) ----------------------------------------
+    // --- ta4j state (created in start(), guarded by seriesLock) -----------------
+    private final ReentrantLock seriesLock = new ReentrantLock();
     private BaseBarSeries barSeries;
     private ClosePriceIndicator closePrice;
     private MACDIndicator macdIndicator;
@@ -93,6 +104,9 @@ public class LLMTradingAgent implements ReactiveTradingAgent {
     private final AtomicReference<AgentStatus> status =
             new AtomicReference<>(AgentStatus.CREATED);
     private final AtomicInteger iterationCount = new AtomicInteger(0);
+    /** Fires on {@link #stop()} to cancel in-flight LLM calls; replaced on every start(). */
+    private final AtomicReference<Sinks.One<Boolean>> shutdownSignal =
+            new AtomicReference<>(Sinks.one());
 
     /**
      * Creates a new {@code LLMTradingAgent} with customisable indicator periods.
@@ -126,32 +140,50 @@ public class LLMTradingAgent implements ReactiveTradingAgent {
         this.macdSignal = macdSignal;
         this.rsiPeriod  = rsiPeriod;
         this.warmupBars = warmupBars;
+        this.seriesCapacity = RollingBarSeries.capacityFor(macdSlow + macdSignal, rsiPeriod, warmupBars);
     }
 
     // ── TradingAgent lifecycle ─────────────────────────────────────────────────
 
     @Override
     public void start() {
+        start(agent -> { });
+    }
+
+    @Override
+    public void start(Consumer<? super WarmStartAgent> warmUp) {
         if (!status.compareAndSet(AgentStatus.CREATED, AgentStatus.INITIALIZING) &&
             !status.compareAndSet(AgentStatus.STOPPED, AgentStatus.INITIALIZING)) {
             log.warn("[{}] start() called in unexpected state: {}", agentId, status.get());
             return;
         }
         // Build the shared BarSeries and wire all ta4j indicators
-        barSeries    = new BaseBarSeriesBuilder().withName(agentId + "-series").build();
-        closePrice   = new ClosePriceIndicator(barSeries);
-        macdIndicator = new MACDIndicator(closePrice, macdFast, macdSlow);
-        signalLine   = new EMAIndicator(macdIndicator, macdSignal);
-        rsiIndicator  = new RSIIndicator(closePrice, rsiPeriod);
+        seriesLock.lock();
+        try {
+            barSeries     = RollingBarSeries.create(agentId + "-series", seriesCapacity);
+            closePrice    = new ClosePriceIndicator(barSeries);
+            macdIndicator = new MACDIndicator(closePrice, macdFast, macdSlow);
+            signalLine    = new EMAIndicator(macdIndicator, macdSignal);
+            rsiIndicator  = new RSIIndicator(closePrice, rsiPeriod);
+        } finally {
+            seriesLock.unlock();
+        }
+        try {
+            warmUp.accept(this);
+        } catch (RuntimeException e) {
+            log.warn("[{}] warm-up failed, starting cold: {}", agentId, e.getMessage());
+        }
+        shutdownSignal.set(Sinks.one());
 
         status.set(AgentStatus.ACTIVE);
-        log.info("[{}] started — MACD({},{},{}) RSI({}) warmup={} bars",
-                agentId, macdFast, macdSlow, macdSignal, rsiPeriod, warmupBars);
+        log.info("[{}] started — MACD({},{},{}) RSI({}) warmup={} bars, capacity={} bars",
+                agentId, macdFast, macdSlow, macdSignal, rsiPeriod, warmupBars, seriesCapacity);
     }
 
     @Override
     public void stop() {
         AgentStatus previous = status.getAndSet(AgentStatus.STOPPED);
+        shutdownSignal.get().tryEmitValue(Boolean.TRUE);
         log.info("[{}] stopped (was {})", agentId, previous);
     }
 
@@ -179,8 +211,11 @@ public class LLMTradingAgent implements ReactiveTradingAgent {
     /**
      * Processes one closed candle and returns an {@link AgentDecision} asynchronously.
      *
-     * <p>All blocking work (ta4j math + LLM call) is deferred to a
-     * bounded-elastic thread — the calling Kafka listener thread is never blocked.
+     * <p>The ta4j math runs on the blocking scheduler, never on the caller's (Kafka
+     * listener) thread; the LLM call goes through
+     * {@link LLMProvider#generateReasoningAsync}, so a non-blocking provider holds
+     * no thread while waiting on the network. {@link #stop()} cancels any call
+     * still in flight and the decision degrades to HOLD.
      */
     @Override
     public Mono<AgentDecision> onKlineClosed(KlineClosedEvent event) {
@@ -189,8 +224,23 @@ public class LLMTradingAgent implements ReactiveTradingAgent {
             return Mono.just(AgentDecision.of(agentId, symbol, Action.HOLD, 0,
                     "Agent not ACTIVE (status=" + status.get() + ")", params.quantity, params.stopLossPercent, params.takeProfitPercent));
         }
-        return Mono.fromCallable(() -> evaluate(event, params))
-               .subscribeOn(Schedulers.boundedElastic())
+        Mono<Boolean> shutdown = shutdownSignal.get().asMono();
+        return Mono.fromCallable(() -> {
+                    seriesLock.lock();
+                    try {
+                        return analyse(event, params);
+                    } finally {
+                        seriesLock.unlock();
+                    }
+               })
+               .subscribeOn(VirtualThreads.blockingScheduler())
+               .flatMap(step -> step.decision() != null
+                       ? Mono.just(step.decision())
+                       : llmProvider.generateReasoningAsync(step.reasoningContext())
+                               .map(reasoning -> merge(step, reasoning, params)))
+               .takeUntilOther(shutdown)
+               .switchIfEmpty(Mono.fromSupplier(() -> AgentDecision.of(agentId, symbol, Action.HOLD, 0,
+                       "Agent stopped before decision completed", params.quantity, params.stopLossPercent, params.takeProfitPercent)))
                .onErrorResume(ex -> {
                    log.error("[{}] error evaluating bar at {}: {}", agentId, event.closeTime(), ex.getMessage());
                    status.compareAndSet(AgentStatus.ACTIVE, AgentStatus.ERROR);
@@ -199,6 +249,28 @@ public class LLMTradingAgent implements ReactiveTradingAgent {
                });
     }
 
+    // ── WarmStartAgent ─────────────────────────────────────────────────────────
+
+    @Override
+    public List<SeriesBar> recentBars(int maxBars) {
+        seriesLock.lock();
+        try {
+            return BarSeriesSnapshots.recentBars(barSeries, maxBars);
+        } finally {
+            seriesLock.unlock();
+        }
+    }
+
+    @Override
+    public int restoreBars(List<SeriesBar> bars) {
+        seriesLock.lock();
+        try {
+            return BarSeriesSnapshots.restoreBars(barSeries, bars);
+        } finally {
+            seriesLock.unlock();
+        }
+    }
+
     // ── TradingAgent boilerplate ───────────────────────────────────────────────
 
     @Override public String getId()   { return agentId; }
@@ -223,7 +295,11 @@ public class LLMTradingAgent implements ReactiveTradingAgent {
 
     // ── private logic ─────────────────────────────────────────────────────────
 
-    private AgentDecision evaluate(KlineClosedEvent event, RiskParams params) {
+    /**
+     * Synchronous part of the pipeline: risk guard, warm-up and indicators. Returns either a
+     * final decision or the context for the LLM call.
+     */
+    private AnalysisStep analyse(KlineClosedEvent event, RiskParams params) {
         addBar(event);
         int idx = barSeries.getEndIndex();
         int count = iterationCount.incrementAndGet();
@@ -234,13 +310,13 @@ public class LLMTradingAgent implements ReactiveTradingAgent {
             Optional<AgentDecision> override = riskGuard.evaluate(event, riskCtx);
             if (override.isPresent()) {
                 log.info("[{}] RiskGuard override: {} — skipping LLM", agentId, override.get().reasoning());
-                return override.get();
+                return AnalysisStep.done(override.get());
             }
         }
 
         if (idx < warmupBars) {
-            return AgentDecision.of(agentId, symbol, Action.HOLD, 50,
-                    "Warming up (%d/%d bars)".formatted(idx, warmupBars), params.quantity, params.stopLossPercent, params.takeProfitPercent);
+            return AnalysisStep.done(AgentDecision.of(agentId, symbol, Action.HOLD, 50,
+                    "Warming up (%d/%d bars)".formatted(idx, warmupBars), params.quantity, params.stopLossPercent, params.takeProfitPercent));
         }
 
         // ── 1. Technical indicators ──────────────────────────────────────────
@@ -278,8 +354,14 @@ public class LLMTradingAgent implements ReactiveTradingAgent {
                 "Maximise risk-adjusted return on " + symbol);
 
         var reasoningCtx = new ReasoningContext(goal, perception, symbol, 10_000.0, count);
+        return new AnalysisStep(null, reasoningCtx, technicalAction, idx, closeVal, macdNow, histNow, rsi, rsiZone);
+    }
 
-        var reasoning = llmProvider.generateReasoning(reasoningCtx);
+    /**
+     * Asynchronous tail of the pipeline, run once the LLM has answered.
+     */
+    private AgentDecision merge(AnalysisStep step, Reasoning reasoning, RiskParams params) {
+        Action technicalAction = step.technicalAction();
         String recommendation = reasoning.getRecommendation().toUpperCase();
 
         // ── 3. Merge technical + LLM ────────────────────────────────────────
@@ -298,12 +380,24 @@ public class LLMTradingAgent implements ReactiveTradingAgent {
 
         int confidence = reasoning.getConfidence();
         String fullReasoning = "MACD=%+.4f hist=%+.4f RSI=%.1f(%s) → technical=%s | LLM=%s | final=%s"
-                .formatted(macdNow, histNow, rsi, rsiZone, technicalAction, recommendation, finalAction);
+                .formatted(step.macd(), step.histogram(), step.rsi(), step.rsiZone(), technicalAction, recommendation, finalAction);
 
-        log.debug("[{}] bar={} close={} {}", agentId, idx, closeVal, fullReasoning);
+        log.debug("[{}] bar={} close={} {}", agentId, step.barIndex(), step.close(), fullReasoning);
         return AgentDecision.of(agentId, symbol, finalAction, confidence, fullReasoning, params.quantity, params.stopLossPercent, params.takeProfitPercent);
     }
 
+    /**
+     * Result of {@link #analyse}: either a final {@code decision} (risk override / warm-up)
+     * or the indicator snapshot plus the context to send to the LLM.
+     */
+    private record AnalysisStep(AgentDecision decision, ReasoningContext reasoningContext,
+                                Action technicalAction, int barIndex, double close,
+                                double macd, double histogram, double rsi, String rsiZone) {
+        static AnalysisStep done(AgentDecision decision) {
+            return new AnalysisStep(decision, null, Action.HOLD, -1, 0, 0, 0, 0, null);
+        }
+    }
+
     private static class RiskParams {
         final Double quantity;
         final Double stopLossPercent;
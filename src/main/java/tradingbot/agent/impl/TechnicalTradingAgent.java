@@ -4,15 +4,18 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.ta4j.core.BaseBarSeries;
-import org.ta4j.core.BaseBarSeriesBuilder;
 import org.ta4j.core.indicators.EMAIndicator;
 import org.ta4j.core.indicators.MACDIndicator;
 import org.ta4j.core.indicators.RSIIndicator;
@@ -21,16 +24,19 @@ import org.ta4j.core.indicators.bollinger.BollingerBandsMiddleIndicator;
 import org.ta4j.core.indicators.bollinger.BollingerBandsUpperIndicator;
 import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
-import org.ta4j.core.num.DecimalNum;
 
+import io.micrometer.core.instrument.Timer;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.WarmStartAgent;
+import tradingbot.agent.domain.indicator.RollingBarSeries;
 import tradingbot.agent.domain.model.AgentDecision;
 import tradingbot.agent.domain.model.AgentDecision.Action;
 import tradingbot.agent.domain.model.AgentStatus;
+import tradingbot.agent.domain.model.SeriesBar;
 import tradingbot.agent.domain.risk.RiskContext;
 import tradingbot.agent.domain.risk.RiskGuard;
+import tradingbot.config.VirtualThreads;
 import tradingbot.domain.market.KlineClosedEvent;
 
 /**
@@ -57,7 +63,7 @@ import tradingbot.domain.market.KlineClosedEvent;
  * <p>Instances are created by {@code AgentFactory} per {@code AgentEntity}
  * and registered dynamically with {@code AgentOrchestrator}.
  */
-public class TechnicalTradingAgent implements ReactiveTradingAgent {
+public class TechnicalTradingAgent implements WarmStartAgent {
 
     private static final Logger log = LoggerFactory.getLogger(TechnicalTradingAgent.class);
 
@@ -80,8 +86,13 @@ public class TechnicalTradingAgent implements ReactiveTradingAgent {
     private final int bbPeriod;
     private final double bbStdDev;
     private final int warmupBars;
+    /** Bars retained by the rolling series; older bars are evicted. */
+    private final int seriesCapacity;
+    /** Optional; times the indicator reads on each closed bar. */
+    private final Timer indicatorTimer;
 
-    // --- ta4j state (initialised in start()) ------------------------------------
+    // --- ta4j state (initialised in start(), guarded by seriesLock) -------------
+    private final ReentrantLock seriesLock = new ReentrantLock();
     private BaseBarSeries barSeries;
     private ClosePriceIndicator closePrice;
     private MACDIndicator macdIndicator;
@@ -102,7 +113,8 @@ public class TechnicalTradingAgent implements ReactiveTradingAgent {
                                  Supplier<RiskContext> riskContextSupplier,
                                  int macdFast, int macdSlow, int macdSignal,
                                  int rsiPeriod, double rsiOversold, double rsiOverbought,
-                                 int bbPeriod, double bbStdDev) {
+                                 int bbPeriod, double bbStdDev,
+                                 Timer indicatorTimer) {
         this.agentId = agentId;
         this.symbol = symbol;
         this.exchange = exchange;
@@ -117,30 +129,47 @@ public class TechnicalTradingAgent implements ReactiveTradingAgent {
         this.bbPeriod = bbPeriod;
         this.bbStdDev = bbStdDev;
         this.warmupBars = Math.max(macdSlow + macdSignal, bbPeriod);
+        this.seriesCapacity = RollingBarSeries.capacityFor(macdSlow + macdSignal, rsiPeriod, bbPeriod);
+        this.indicatorTimer = indicatorTimer;
     }
 
     // ── TradingAgent lifecycle ─────────────────────────────────────────────────
 
     @Override
     public void start() {
+        start(agent -> { });
+    }
+
+    @Override
+    public void start(Consumer<? super WarmStartAgent> warmUp) {
         if (!status.compareAndSet(AgentStatus.CREATED, AgentStatus.INITIALIZING) &&
             !status.compareAndSet(AgentStatus.STOPPED, AgentStatus.INITIALIZING)) {
             log.warn("[{}] start() called in unexpected state: {}", agentId, status.get());
             return;
         }
-        barSeries         = new BaseBarSeriesBuilder().withName(agentId + "-series").build();
-        closePrice        = new ClosePriceIndicator(barSeries);
-        macdIndicator     = new MACDIndicator(closePrice, macdFast, macdSlow);
-        signalLine        = new EMAIndicator(macdIndicator, macdSignal);
-        rsiIndicator      = new RSIIndicator(closePrice, rsiPeriod);
-        bbMiddle          = new BollingerBandsMiddleIndicator(closePrice);
-        bbStdDevIndicator = new StandardDeviationIndicator(closePrice, bbPeriod);
-        bbLower           = new BollingerBandsLowerIndicator(bbMiddle, bbStdDevIndicator, DecimalNum.valueOf(bbStdDev));
-        bbUpper           = new BollingerBandsUpperIndicator(bbMiddle, bbStdDevIndicator, DecimalNum.valueOf(bbStdDev));
+        seriesLock.lock();
+        try {
+            barSeries         = RollingBarSeries.create(agentId + "-series", seriesCapacity);
+            closePrice        = new ClosePriceIndicator(barSeries);
+            macdIndicator     = new MACDIndicator(closePrice, macdFast, macdSlow);
+            signalLine        = new EMAIndicator(macdIndicator, macdSignal);
+            rsiIndicator      = new RSIIndicator(closePrice, rsiPeriod);
+            bbMiddle          = new BollingerBandsMiddleIndicator(closePrice);
+            bbStdDevIndicator = new StandardDeviationIndicator(closePrice, bbPeriod);
+            bbLower           = new BollingerBandsLowerIndicator(bbMiddle, bbStdDevIndicator, barSeries.numOf(bbStdDev));
+            bbUpper           = new BollingerBandsUpperIndicator(bbMiddle, bbStdDevIndicator, barSeries.numOf(bbStdDev));
+        } finally {
+            seriesLock.unlock();
+        }
+        try {
+            warmUp.accept(this);
+        } catch (RuntimeException e) {
+            log.warn("[{}] warm-up failed, starting cold: {}", agentId, e.getMessage());
+        }
 
         status.set(AgentStatus.ACTIVE);
-        log.info("[{}] started — MACD({},{},{}) RSI({}) BB({},{}) warmup={} bars",
-                agentId, macdFast, macdSlow, macdSignal, rsiPeriod, bbPeriod, bbStdDev, warmupBars);
+        log.info("[{}] started — MACD({},{},{}) RSI({}) BB({},{}) warmup={} bars, capacity={} bars",
+                agentId, macdFast, macdSlow, macdSignal, rsiPeriod, bbPeriod, bbStdDev, warmupBars, seriesCapacity);
     }
 
     @Override
@@ -173,8 +202,15 @@ public class TechnicalTradingAgent implements ReactiveTradingAgent {
                     "Agent not ACTIVE (status=" + status.get() + ")",
                     params.quantity, params.stopLossPercent, params.takeProfitPercent));
         }
-        return Mono.fromCallable(() -> evaluate(event, params))
-                .subscribeOn(Schedulers.boundedElastic())
+        return Mono.fromCallable(() -> {
+                    seriesLock.lock();
+                    try {
+                        return evaluate(event, params);
+                    } finally {
+                        seriesLock.unlock();
+                    }
+                })
+                .subscribeOn(VirtualThreads.blockingScheduler())
                 .onErrorResume(ex -> {
                     log.error("[{}] error evaluating bar at {}: {}", agentId, event.closeTime(), ex.getMessage());
                     status.compareAndSet(AgentStatus.ACTIVE, AgentStatus.ERROR);
@@ -184,6 +220,28 @@ public class TechnicalTradingAgent implements ReactiveTradingAgent {
                 });
     }
 
+    // ── WarmStartAgent ───────────────────────────────────────────────────────────
+
+    @Override
+    public List<SeriesBar> recentBars(int maxBars) {
+        seriesLock.lock();
+        try {
+            return BarSeriesSnapshots.recentBars(barSeries, maxBars);
+        } finally {
+            seriesLock.unlock();
+        }
+    }
+
+    @Override
+    public int restoreBars(List<SeriesBar> bars) {
+        seriesLock.lock();
+        try {
+            return BarSeriesSnapshots.restoreBars(barSeries, bars);
+        } finally {
+            seriesLock.unlock();
+        }
+    }
+
     // ── TradingAgent boilerplate ─────────────────────────────────────────────────
 
     @Override public String getId()      { return agentId; }
@@ -230,6 +288,7 @@ public class TechnicalTradingAgent implements ReactiveTradingAgent {
         }
 
         // ── 1. Indicators ────────────────────────────────────────────────────
+        long indicatorStart = System.nanoTime();
         double macdNow  = macdIndicator.getValue(idx).doubleValue();
         double macdPrev = macdIndicator.getValue(idx - 1).doubleValue();
         double sigNow   = signalLine.getValue(idx).doubleValue();
@@ -238,6 +297,9 @@ public class TechnicalTradingAgent implements ReactiveTradingAgent {
         double bbLowerVal = bbLower.getValue(idx).doubleValue();
         double bbUpperVal = bbUpper.getValue(idx).doubleValue();
         double closeVal = event.close().doubleValue();
+        if (indicatorTimer != null) {
+            indicatorTimer.record(System.nanoTime() - indicatorStart, TimeUnit.NANOSECONDS);
+        }
 
         double histNow  = macdNow - sigNow;
         double histPrev = macdPrev - sigPrev;
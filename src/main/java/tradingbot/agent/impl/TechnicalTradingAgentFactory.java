@@ -0,0 +1,61 @@
+package tradingbot.agent.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.TradingAgentFactory;
+import tradingbot.config.TradingConfig;
+
+/**
+ * TechnicalTradingAgentFactory — {@link TradingAgentFactory} for {@link TechnicalTradingAgent}s
+ * whose MACD, RSI and Bollinger Band parameters come from the {@link TradingConfig}.
+ *
+ * <p>{@link LLMTradingAgentFactory} stays {@code @Primary}; callers that need the indicator
+ * parameters to matter (parameter optimisation) inject this one by name, e.g.
+ * {@code @Qualifier(TechnicalTradingAgentFactory.BEAN_NAME)}.
+ *
+ * <p>Agents are built without a {@code RiskGuard} or risk context, so each decision depends on
+ * the bars seen so far and nothing else. That is what lets a backtest compute an agent's signals
+ * once and reuse them across overlapping windows.
+ */
+@Component(TechnicalTradingAgentFactory.BEAN_NAME)
+public class TechnicalTradingAgentFactory implements TradingAgentFactory {
+
+    public static final String BEAN_NAME = "technicalTradingAgentFactory";
+
+    private static final Logger log = LoggerFactory.getLogger(TechnicalTradingAgentFactory.class);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Creates and starts a new {@link TechnicalTradingAgent}; the returned agent is
+     * {@code ACTIVE}.
+     */
+    @Override
+    public ReactiveTradingAgent create(TradingConfig config) {
+        String agentId = "ta-" + config.getSymbol().toLowerCase() + "-" + sequence.incrementAndGet();
+        log.debug("[TechnicalTradingAgentFactory] creating agent id={} MACD({},{},{}) RSI({},{},{}) BB({},{})",
+                agentId, config.getMacdFastPeriod(), config.getMacdSlowPeriod(), config.getMacdSignalPeriod(),
+                config.getLookbackPeriodRsi(), config.getRsiOversoldThreshold(), config.getRsiOverboughtThreshold(),
+                config.getBbPeriod(), config.getBbStandardDeviation());
+
+        TechnicalTradingAgent agent = new TechnicalTradingAgent(
+                agentId, config.getSymbol(), "BINANCE", null, null,
+                config.getMacdFastPeriod(), config.getMacdSlowPeriod(), config.getMacdSignalPeriod(),
+                config.getLookbackPeriodRsi(), config.getRsiOversoldThreshold(), config.getRsiOverboughtThreshold(),
+                config.getBbPeriod(), config.getBbStandardDeviation(),
+                null);
+
+        agent.start(); // CREATED → ACTIVE
+        return agent;
+    }
+
+    @Override
+    public String describe() {
+        return "TechnicalTradingAgentFactory[MACD + RSI + Bollinger Bands from TradingConfig]";
+    }
+}
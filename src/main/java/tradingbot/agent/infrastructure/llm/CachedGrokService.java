@@ -2,11 +2,14 @@ package tradingbot.agent.infrastructure.llm;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HexFormat;
 import java.util.Optional;
@@ -18,8 +21,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PreDestroy;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -27,6 +33,7 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import tradingbot.agent.domain.model.Reasoning;
 import tradingbot.agent.domain.model.ReasoningContext;
+import tradingbot.agent.service.EmbeddingService;
 
 /**
  * CachedGrokService — A caching decorator for GrokClient.
@@ -37,11 +44,20 @@ import tradingbot.agent.domain.model.ReasoningContext;
  *
  * Cache strategy (two-level):
  *   L1 — Redis: fast lookup, shared across JVM runs, configurable TTL.
- *   L2 — File system: survives Redis restarts, useful for offline backtests.
+ *   L2 — File system: survives Redis restarts, useful for offline backtests. Stored as a
+ *        segmented append-only log (see {@link SegmentedLogCache}), not one file per key.
+ *
+ * Cache key: SHA-256( symbol + priceBand + volumeBucket + trend + sentiment + goal )
+ * Price is rounded to a geometric band of 'agent.llm.cache.price-band-bps' basis points and
+ * volume to a log bucket, so consecutive ticks of a quiet market share one key instead of
+ * missing on every price change. iterationCount and timestamp are excluded from the key.
  *
- * Cache key: SHA-256( symbol + price + trend + sentiment + volume + goal )
- * The key is deterministic — same market conditions always yield the same cached response.
- * iterationCount and timestamp are intentionally excluded from the key.
+ * Misses are coalesced: concurrent agents asking for the same key while the LLM call is in
+ * flight wait for that single call rather than issuing their own (see {@link SingleFlight}).
+ *
+ * Optional L3 — semantic lookup ('agent.llm.cache.semantic.enabled=true'): before calling
+ * the LLM, the context is embedded and compared against recent responses for the same
+ * symbol and goal; a response above the similarity threshold is reused.
  */
 @Primary
 @Component
@@ -54,20 +70,47 @@ public class CachedGrokService implements LLMProvider {
     private final GrokClient delegate;   // nullable — absent when grok is disabled (offline backtest)
     private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
-    private final Path fileCacheDir;
+    private final SegmentedLogCache fileCache;   // nullable — L2 disabled if the directory is unusable
     private final long redisTtlHours;
+    private final long fileTtlHours;
+    private final double priceBandLog;      // log(1 + bps/10_000); 0 disables price banding
+    private final double volumeLogBase;     // log(base); 0 disables volume bucketing
+    private final SingleFlight<String, Reasoning> singleFlight = new SingleFlight<>();
+    private final SemanticResponseCache semanticCache;   // nullable — absent unless enabled
 
     public CachedGrokService(
             Optional<GrokClient> delegate,
             RedisTemplate<String, String> redisTemplate,
+            Optional<EmbeddingService> embeddingService,
             @Value("${agent.llm.cache.file-dir:${java.io.tmpdir}/trading-bot-llm-cache}") String fileCacheDir,
-            @Value("${agent.llm.cache.redis-ttl-hours:720}") long redisTtlHours) {
+            @Value("${agent.llm.cache.redis-ttl-hours:720}") long redisTtlHours,
+            @Value("${agent.llm.cache.file-ttl-hours:2160}") long fileTtlHours,
+            @Value("${agent.llm.cache.segment-max-mb:64}") long segmentMaxMb,
+            @Value("${agent.llm.cache.compaction-live-ratio:0.5}") double compactionLiveRatio,
+            @Value("${agent.llm.cache.price-band-bps:10}") double priceBandBps,
+            @Value("${agent.llm.cache.volume-log-base:2}") double volumeLogBase,
+            @Value("${agent.llm.cache.semantic.enabled:false}") boolean semanticEnabled,
+            @Value("${agent.llm.cache.semantic.threshold:0.97}") double semanticThreshold,
+            @Value("${agent.llm.cache.semantic.max-entries:256}") int semanticMaxEntries,
+            @Value("${agent.llm.cache.semantic.max-age-minutes:60}") long semanticMaxAgeMinutes) {
         this.delegate = delegate.orElse(null);
         this.redisTemplate = redisTemplate;
         this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
-        this.fileCacheDir = Paths.get(fileCacheDir);
         this.redisTtlHours = redisTtlHours;
-        ensureFileCacheDir();
+        this.fileTtlHours = fileTtlHours;
+        this.fileCache = openFileCache(Paths.get(fileCacheDir), segmentMaxMb, compactionLiveRatio);
+        deleteLegacyFiles(Paths.get(fileCacheDir));
+        this.priceBandLog = priceBandBps > 0 ? Math.log1p(priceBandBps / 10_000.0) : 0.0;
+        this.volumeLogBase = volumeLogBase > 1 ? Math.log(volumeLogBase) : 0.0;
+        if (semanticEnabled && embeddingService.isPresent()) {
+            this.semanticCache = new SemanticResponseCache(embeddingService.get(), semanticThreshold,
+                    semanticMaxEntries, Duration.ofMinutes(semanticMaxAgeMinutes));
+        } else {
+            if (semanticEnabled) {
+                logger.warn("[LLM Cache] Semantic lookup enabled but no EmbeddingService bean is available — disabled");
+            }
+            this.semanticCache = null;
+        }
     }
 
     @Override
@@ -90,7 +133,40 @@ public class CachedGrokService implements LLMProvider {
             return fromFile;
         }
 
-        // --- Cache MISS: call real Grok API (or offline synthetic fallback) ---
+        // --- Cache MISS: coalesce concurrent misses for the same key into one load ---
+        return singleFlight.execute(cacheKey, () -> loadOnMiss(cacheKey, context));
+    }
+
+    /**
+     * Executed by exactly one caller per key at a time. Re-checks L1 because another leader
+     * may have populated it between our lookup and acquiring the flight.
+     */
+    private Reasoning loadOnMiss(String cacheKey, ReasoningContext context) {
+        Reasoning fromRedis = readFromRedis(cacheKey);
+        if (fromRedis != null) {
+            return fromRedis;
+        }
+
+        // --- L3: semantic similarity over recent responses ---
+        String scope = null;
+        double[] embedding = null;
+        if (semanticCache != null) {
+            scope = semanticScope(context);
+            try {
+                embedding = semanticCache.embed(describe(context));
+                Optional<Reasoning> similar = semanticCache.findSimilar(scope, embedding);
+                if (similar.isPresent()) {
+                    logger.debug("[LLM Cache HIT - Semantic] key={}", cacheKey);
+                    writeToRedis(cacheKey, similar.get());
+                    return similar.get();
+                }
+            } catch (Exception e) {
+                logger.warn("[LLM Cache] Semantic lookup failed (non-fatal): {}", e.getMessage());
+                embedding = null;
+            }
+        }
+
+        // --- call real Grok API (or offline synthetic fallback) ---
         Reasoning reasoning;
         if (delegate != null && delegate.isEnabled()) {
             logger.info("[LLM Cache MISS] Calling real Grok API. key={}, symbol={}, price={}",
@@ -102,9 +178,12 @@ public class CachedGrokService implements LLMProvider {
             reasoning = syntheticReasoning(context);
         }
 
-        // Store in both caches
+        // Store in all caches
         writeToRedis(cacheKey, reasoning);
         writeToFile(cacheKey, reasoning);
+        if (embedding != null) {
+            semanticCache.store(scope, embedding, reasoning);
+        }
 
         return reasoning;
     }
@@ -168,14 +247,14 @@ public class CachedGrokService implements LLMProvider {
     // -------------------------------------------------------------------------
 
     /**
-     * Build a deterministic SHA-256 cache key from the market context fields.
+     * Build a deterministic SHA-256 cache key from the bucketed market context fields.
      * Excludes iterationCount and timestamp — same market state = same cache key.
      */
-    private String buildCacheKey(ReasoningContext context) {
+    String buildCacheKey(ReasoningContext context) {
         String raw = String.join("|",
                 context.getTradingSymbol(),
-                String.valueOf(context.getPerception().getCurrentPrice()),
-                String.valueOf(context.getPerception().getVolume()),
+                priceBucket(context.getPerception().getCurrentPrice()),
+                volumeBucket(context.getPerception().getVolume()),
                 nullSafe(context.getPerception().getTrend()),
                 nullSafe(context.getPerception().getSentiment()),
                 context.getGoal() != null ? context.getGoal().toString() : "null"
@@ -183,6 +262,41 @@ public class CachedGrokService implements LLMProvider {
         return sha256(raw);
     }
 
+    /**
+     * Geometric price band: prices within the same band of {@code price-band-bps} share a bucket.
+     * Using log-space bands keeps the relative width identical for BTC at 60k and DOGE at 0.1.
+     */
+    String priceBucket(double price) {
+        if (priceBandLog == 0.0 || price <= 0) {
+            return String.valueOf(price);
+        }
+        return "p" + (long) Math.floor(Math.log(price) / priceBandLog);
+    }
+
+    /** Log bucket of volume: each bucket spans a factor of {@code volume-log-base}. */
+    String volumeBucket(double volume) {
+        if (volumeLogBase == 0.0 || volume <= 0) {
+            return String.valueOf(volume);
+        }
+        return "v" + (long) Math.floor(Math.log(volume) / volumeLogBase);
+    }
+
+    private String semanticScope(ReasoningContext context) {
+        return context.getTradingSymbol() + "|" + (context.getGoal() != null ? context.getGoal().getType() : "null");
+    }
+
+    /**
+     * Natural-language rendering of the context fed to the embedding model.
+     */
+    private String describe(ReasoningContext context) {
+        return "%s price %.2f volume %.0f trend %s sentiment %s".formatted(
+                context.getTradingSymbol(),
+                context.getPerception().getCurrentPrice(),
+                context.getPerception().getVolume(),
+                nullSafe(context.getPerception().getTrend()),
+                nullSafe(context.getPerception().getSentiment()));
+    }
+
     private String sha256(String input) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
@@ -228,10 +342,10 @@ public class CachedGrokService implements LLMProvider {
     // -------------------------------------------------------------------------
 
     private Reasoning readFromFile(String cacheKey) {
-        Path file = fileCacheDir.resolve(cacheKey + ".json");
-        if (!Files.exists(file)) return null;
+        if (fileCache == null) return null;
+        String json = fileCache.get(cacheKey);
+        if (json == null) return null;
         try {
-            String json = Files.readString(file);
             return fromDto(objectMapper.readValue(json, CachedReasoningDto.class));
         } catch (IOException e) {
             logger.warn("[LLM Cache] File read failed for key={}: {}", cacheKey, e.getMessage());
@@ -240,21 +354,73 @@ public class CachedGrokService implements LLMProvider {
     }
 
     private void writeToFile(String cacheKey, Reasoning reasoning) {
-        Path file = fileCacheDir.resolve(cacheKey + ".json");
+        if (fileCache == null) return;
         try {
             String json = objectMapper.writeValueAsString(toDto(reasoning));
-            Files.writeString(file, json);
+            fileCache.put(cacheKey, json, fileExpiryMillis());
         } catch (IOException e) {
             logger.warn("[LLM Cache] File write failed (non-fatal): {}", e.getMessage());
         }
     }
 
-    private void ensureFileCacheDir() {
+    private long fileExpiryMillis() {
+        return fileTtlHours > 0 ? System.currentTimeMillis() + TimeUnit.HOURS.toMillis(fileTtlHours) : 0L;
+    }
+
+    private SegmentedLogCache openFileCache(Path dir, long segmentMaxMb, double compactionLiveRatio) {
+        try {
+            SegmentedLogCache cache = new SegmentedLogCache(dir, segmentMaxMb * 1024 * 1024,
+                    compactionLiveRatio, Clock.systemUTC());
+            logger.info("[LLM Cache] File cache directory: {}", dir.toAbsolutePath());
+            return cache;
+        } catch (IOException e) {
+            logger.warn("[LLM Cache] Could not open file cache in {} (L2 disabled): {}", dir, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Removes files left by the legacy one-file-per-key layout ({@code <sha256>.json}). They are
+     * not imported: entries are cheap to regenerate and old files carry no expiry, so the log
+     * starts empty and fills on the next misses.
+     */
+    private void deleteLegacyFiles(Path dir) {
+        if (fileCache == null) return;
+        int deleted = 0;
+        try (DirectoryStream<Path> legacy = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : legacy) {
+                Files.delete(file);
+                deleted++;
+            }
+        } catch (IOException e) {
+            logger.warn("[LLM Cache] Legacy file cache cleanup stopped after {} files: {}", deleted, e.getMessage());
+        }
+        if (deleted > 0) {
+            logger.info("[LLM Cache] Deleted {} legacy cache files", deleted);
+        }
+    }
+
+    /**
+     * Drops expired L2 entries and rewrites sparse segments in the background.
+     */
+    @Scheduled(fixedDelayString = "${agent.llm.cache.compaction-interval-ms:600000}",
+               initialDelayString = "${agent.llm.cache.compaction-interval-ms:600000}")
+    public void compactFileCache() {
+        if (fileCache == null) return;
+        try {
+            fileCache.compact();
+        } catch (IOException e) {
+            logger.warn("[LLM Cache] File cache compaction failed (will retry): {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void closeFileCache() {
+        if (fileCache == null) return;
         try {
-            Files.createDirectories(fileCacheDir);
-            logger.info("[LLM Cache] File cache directory: {}", fileCacheDir.toAbsolutePath());
+            fileCache.close();
         } catch (IOException e) {
-            logger.warn("[LLM Cache] Could not create file cache directory {}: {}", fileCacheDir, e.getMessage());
+            logger.warn("[LLM Cache] Error closing file cache: {}", e.getMessage());
         }
     }
 
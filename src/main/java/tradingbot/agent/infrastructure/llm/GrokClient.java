@@ -1,19 +1,31 @@
 package tradingbot.agent.infrastructure.llm;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
 import tradingbot.agent.domain.model.Reasoning;
 import tradingbot.agent.domain.model.ReasoningContext;
 import tradingbot.agent.infrastructure.llm.dto.GrokApiRequest;
@@ -21,100 +33,227 @@ import tradingbot.agent.infrastructure.llm.dto.GrokApiResponse;
 
 /**
  * GrokClient - Integration with X.AI Grok LLM
- * 
- * Simplified MVP implementation
+ *
+ * Non-blocking client built on the JDK {@link HttpClient}:
+ * - One client (and connection pool) per bean, shared by every agent; HTTP/2 is
+ *   negotiated when the endpoint supports it, so concurrent calls multiplex on one connection.
+ * - {@link #generateReasoningAsync} holds no thread while waiting on the network; a couple of
+ *   I/O threads ('agent.llm.grok.io-threads') serve hundreds of in-flight decisions.
+ * - With 'agent.llm.grok.streaming=true' the response is read as server-sent events and fed
+ *   token by token into {@link ReasoningParser.Incremental}; the stream is cancelled as soon as
+ *   the CONFIDENCE section has arrived.
+ * - 'agent.llm.grok.timeout' bounds each call; cancelling the returned Mono aborts the exchange.
+ * - Calls are admitted by {@link LlmCallScheduler} as {@link LlmPriority#LIVE_DECISION}; the
+ *   timeout starts at dispatch, and a call dropped in the queue falls back to HOLD like any error.
  */
 @Component
 @ConditionalOnProperty(name = "agent.llm.grok.enabled", havingValue = "true", matchIfMissing = false)
 public class GrokClient implements LLMProvider {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(GrokClient.class);
-    
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
+
     private final String apiKey;
     private final String apiUrl;
     private final String model;
     private final double temperature;
     private final int maxTokens;
     private final boolean enabled;
-    private final RestTemplate restTemplate;
-    
+    private final Duration timeout;
+    private final boolean streaming;
+    private final LlmCallScheduler scheduler;
+    private final ExecutorService ioExecutor;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     public GrokClient(
+            LlmCallScheduler scheduler,
             @Value("${agent.llm.grok.api-key}") String apiKey,
             @Value("${agent.llm.grok.api-url}") String apiUrl,
             @Value("${agent.llm.grok.model}") String model,
             @Value("${agent.llm.grok.temperature}") double temperature,
             @Value("${agent.llm.grok.max-tokens}") int maxTokens,
-            @Value("${agent.llm.grok.enabled}") boolean enabled) {
+            @Value("${agent.llm.grok.enabled}") boolean enabled,
+            @Value("${agent.llm.grok.timeout:30s}") Duration timeout,
+            @Value("${agent.llm.grok.streaming:true}") boolean streaming,
+            @Value("${agent.llm.grok.io-threads:2}") int ioThreads) {
         this.apiKey = apiKey;
         this.apiUrl = apiUrl;
         this.model = model;
         this.temperature = temperature;
         this.maxTokens = maxTokens;
         this.enabled = enabled;
-        this.restTemplate = new RestTemplate();
+        this.timeout = timeout;
+        this.streaming = streaming;
+        this.scheduler = scheduler;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.ioExecutor = Executors.newFixedThreadPool(Math.max(1, ioThreads), r -> {
+            Thread t = new Thread(r, "grok-http-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(timeout)
+                .executor(ioExecutor)
+                .build();
     }
-    
+
+    /**
+     * Blocking variant kept for callers outside a reactive pipeline (e.g. CachedGrokService).
+     */
     @Override
     public Reasoning generateReasoning(ReasoningContext context) {
+        return generateReasoningAsync(context).block();
+    }
+
+    @Override
+    public Mono<Reasoning> generateReasoningAsync(ReasoningContext context) {
         if (!enabled || apiKey == null || apiKey.isBlank()) {
-            logger.warn("Grok LLM is not properly configured. Returning fallback reasoning.");
-            return createFallbackReasoning(context);
-        }
-        
-        try {
-            logger.info("Calling Grok LLM for agent reasoning");
-            
-            // Build type-safe request
-            GrokApiRequest request = new GrokApiRequest(
-                model,
-                List.of(
-                    new GrokApiRequest.Message("system", PromptTemplates.getSystemPrompt()),
-                    new GrokApiRequest.Message("user", PromptTemplates.buildReasoningPrompt(context))
-                ),
-                temperature,
-                maxTokens
-            );
-            
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("Content-Type", "application/json");
-            
-            HttpEntity<GrokApiRequest> requestEntity = new HttpEntity<>(request, headers);
-            
-            // Call Grok API with type-safe response
-            ResponseEntity<GrokApiResponse> response = restTemplate.exchange(
-                apiUrl,
-                HttpMethod.POST,
-                requestEntity,
-                GrokApiResponse.class
-            );
-            
-            // Parse response
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                String llmOutput = extractContent(response.getBody());
-                return ReasoningParser.parse(llmOutput, context);
-            } else {
-                logger.error("Grok API returned non-success status: {}", response.getStatusCode());
+            return Mono.fromSupplier(() -> {
+                logger.warn("Grok LLM is not properly configured. Returning fallback reasoning.");
                 return createFallbackReasoning(context);
-            }
-            
-        } catch (Exception e) {
-            logger.error("Error calling Grok LLM: {}", e.getMessage(), e);
-            return createFallbackReasoning(context);
+            });
         }
+
+        return Mono.defer(() -> {
+                    String payload = buildPayload(context, streaming);
+                    // Rough prompt size (~4 chars per token) plus the completion allowance
+                    int estimatedTokens = payload.length() / 4 + maxTokens;
+                    return scheduler.submit(LlmPriority.LIVE_DECISION, estimatedTokens, () -> {
+                        HttpRequest request = buildRequest(payload, streaming);
+                        Mono<Reasoning> call = streaming
+                                ? streamReasoning(request, context)
+                                : completeReasoning(request, context);
+                        return call.timeout(timeout);
+                    });
+                })
+                .onErrorResume(e -> {
+                    if (e instanceof LlmCallRejectedException) {
+                        logger.warn("Grok LLM call not dispatched: {}", e.getMessage());
+                    } else {
+                        logger.error("Error calling Grok LLM: {}", e.toString());
+                    }
+                    return Mono.just(createFallbackReasoning(context));
+                });
     }
-    
+
     @Override
     public boolean isEnabled() {
         return enabled;
     }
-    
+
     @Override
     public String getProviderName() {
         return "Grok (X.AI)";
     }
-    
+
+    @PreDestroy
+    public void shutdown() {
+        httpClient.shutdownNow();
+        ioExecutor.shutdownNow();
+    }
+
+    // -------------------------------------------------------------------------
+    // Transport
+    // -------------------------------------------------------------------------
+
+    /**
+     * Single JSON response ({@code stream=false}).
+     */
+    private Mono<Reasoning> completeReasoning(HttpRequest request, ReasoningContext context) {
+        logger.debug("Calling Grok LLM for agent reasoning");
+        return Mono.fromFuture(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .map(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new GrokApiException(response.statusCode());
+                    }
+                    return ReasoningParser.parse(extractContent(readResponse(response.body())), context);
+                });
+    }
+
+    /**
+     * Server-sent events ({@code stream=true}): deltas are folded into an incremental parser
+     * and the exchange is cancelled once the response is complete.
+     */
+    private Mono<Reasoning> streamReasoning(HttpRequest request, ReasoningContext context) {
+        logger.debug("Streaming Grok LLM response for agent reasoning");
+        return serverSentData(request)
+                .takeWhile(data -> !SSE_DONE.equals(data))
+                .map(this::extractDelta)
+                .scanWith(ReasoningParser::incremental, ReasoningParser.Incremental::append)
+                .takeUntil(ReasoningParser.Incremental::isComplete)
+                .last()
+                .map(accumulated -> accumulated.toReasoning(context));
+    }
+
+    private Flux<String> serverSentData(HttpRequest request) {
+        return Flux.create(sink -> {
+            SseDataSubscriber lines = new SseDataSubscriber(sink);
+            CompletableFuture<HttpResponse<Void>> future = httpClient.sendAsync(request,
+                    info -> info.statusCode() / 100 == 2
+                            ? HttpResponse.BodySubscribers.fromLineSubscriber(lines)
+                            : HttpResponse.BodySubscribers.discarding());
+            future.whenComplete((response, error) -> {
+                if (error != null) {
+                    sink.error(error);
+                } else if (response.statusCode() / 100 != 2) {
+                    sink.error(new GrokApiException(response.statusCode()));
+                } else {
+                    sink.complete();
+                }
+            });
+            sink.onDispose(() -> {
+                lines.cancel();
+                future.cancel(true);
+            });
+        });
+    }
+
+    private String buildPayload(ReasoningContext context, boolean stream) {
+        GrokApiRequest body = new GrokApiRequest(
+            model,
+            List.of(
+                new GrokApiRequest.Message("system", PromptTemplates.getSystemPrompt()),
+                new GrokApiRequest.Message("user", PromptTemplates.buildReasoningPrompt(context))
+            ),
+            temperature,
+            maxTokens
+        );
+        if (stream) {
+            body.setStream(Boolean.TRUE);
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize Grok request", e);
+        }
+    }
+
+    private HttpRequest buildRequest(String payload, boolean stream) {
+        return HttpRequest.newBuilder(URI.create(apiUrl))
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .header("Accept", stream ? "text/event-stream" : "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build();
+    }
+
+    // -------------------------------------------------------------------------
+    // Parsing
+    // -------------------------------------------------------------------------
+
+    private GrokApiResponse readResponse(String json) {
+        try {
+            return objectMapper.readValue(json, GrokApiResponse.class);
+        } catch (JsonProcessingException e) {
+            logger.error("Error parsing Grok response: {}", e.getMessage());
+            return new GrokApiResponse();
+        }
+    }
+
     /**
      * Extract content from Grok API response
      */
@@ -124,7 +263,7 @@ public class GrokClient implements LLMProvider {
                 GrokApiResponse.Choice firstChoice = response.getChoices().getFirst();
                 if (firstChoice.getMessage() != null) {
                     String content = firstChoice.getMessage().getContent();
-                    
+
                     // Log token usage if available
                     if (response.getUsage() != null) {
                         logger.debug("Grok API usage - Prompt: {} tokens, Completion: {} tokens, Total: {} tokens",
@@ -132,7 +271,7 @@ public class GrokClient implements LLMProvider {
                             response.getUsage().getCompletionTokens(),
                             response.getUsage().getTotalTokens());
                     }
-                    
+
                     return content;
                 }
             }
@@ -142,7 +281,19 @@ public class GrokClient implements LLMProvider {
         }
         return "Error parsing LLM response";
     }
-    
+
+    /**
+     * Extract the token text from one streamed {@code chat.completion.chunk}.
+     */
+    private String extractDelta(String chunkJson) {
+        GrokApiResponse chunk = readResponse(chunkJson);
+        if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) {
+            return "";
+        }
+        GrokApiResponse.Message delta = chunk.getChoices().getFirst().getDelta();
+        return delta != null && delta.getContent() != null ? delta.getContent() : "";
+    }
+
     /**
      * Create fallback reasoning when LLM is unavailable
      */
@@ -156,4 +307,64 @@ public class GrokClient implements LLMProvider {
             Instant.now()
         );
     }
+
+    /**
+     * Forwards the payload of each {@code data:} line of an SSE body to a Reactor sink.
+     */
+    private static final class SseDataSubscriber implements Flow.Subscriber<String> {
+
+        private final FluxSink<String> sink;
+        private volatile Flow.Subscription subscription;
+
+        SseDataSubscriber(FluxSink<String> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.startsWith(SSE_DATA_PREFIX)) {
+                sink.next(line.substring(SSE_DATA_PREFIX.length()).trim());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            sink.error(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            // Completion is signalled from the response future so the status code is known first
+        }
+
+        void cancel() {
+            Flow.Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+        }
+    }
+
+    /**
+     * Non-2xx response from the Grok API.
+     */
+    static final class GrokApiException extends RuntimeException {
+
+        private final int statusCode;
+
+        GrokApiException(int statusCode) {
+            super("Grok API returned non-success status: " + statusCode);
+            this.statusCode = statusCode;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+    }
 }
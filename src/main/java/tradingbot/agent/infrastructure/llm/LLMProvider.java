@@ -1,7 +1,9 @@
 package tradingbot.agent.infrastructure.llm;
 
+import reactor.core.publisher.Mono;
 import tradingbot.agent.domain.model.Reasoning;
 import tradingbot.agent.domain.model.ReasoningContext;
+import tradingbot.config.VirtualThreads;
 
 /**
  * LLMProvider - Interface for LLM providers (Grok, GPT-4, etc.)
@@ -13,6 +15,18 @@ public interface LLMProvider {
      */
     Reasoning generateReasoning(ReasoningContext context);
     
+    /**
+     * Generate reasoning without blocking the caller.
+     * 
+     * The default wraps the blocking call on a virtual thread. Providers with a
+     * non-blocking transport (see {@link GrokClient}) override this so no thread is held
+     * while waiting on the network; cancelling the returned Mono cancels the request.
+     */
+    default Mono<Reasoning> generateReasoningAsync(ReasoningContext context) {
+        return Mono.fromCallable(() -> generateReasoning(context))
+                .subscribeOn(VirtualThreads.blockingScheduler());
+    }
+    
     /**
      * Check if provider is enabled
      */
@@ -0,0 +1,19 @@
+package tradingbot.agent.infrastructure.llm;
+
+/**
+ * Thrown by {@link LlmCallScheduler} when a queued call is dropped before it reaches the
+ * provider, e.g. because its deadline passed while it waited for a concurrency slot or budget.
+ */
+public class LlmCallRejectedException extends RuntimeException {
+
+    private final LlmPriority priority;
+
+    public LlmCallRejectedException(LlmPriority priority, String message) {
+        super(message);
+        this.priority = priority;
+    }
+
+    public LlmPriority getPriority() {
+        return priority;
+    }
+}
@@ -0,0 +1,477 @@
+package tradingbot.agent.infrastructure.llm;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.EstimationProbe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * LlmCallScheduler - single admission point for every LLM call.
+ *
+ * - Requests wait in one queue ordered by {@link LlmPriority}, then arrival order, so a burst of
+ *   reflections never delays a live decision.
+ * - A request is dispatched only while in-flight calls are below the adaptive concurrency limit
+ *   and the request- and token-per-minute budgets have room; 0 disables a budget.
+ * - The limit follows AIMD: it grows by 1/limit on every success faster than 'latency-target'
+ *   and is multiplied by 'backoff-ratio' on a 429 or a slow call (at most once per round trip).
+ * - Every request carries a per-priority deadline; one still queued when it passes is dropped with
+ *   {@link LlmCallRejectedException} rather than spending budget on a stale answer.
+ *
+ * Metrics: llm.scheduler.{queue.size, inflight, concurrency.limit} gauges,
+ * llm.scheduler.queue.wait and llm.scheduler.call timers, llm.scheduler.dropped and
+ * llm.scheduler.rate.limited counters.
+ */
+@Component
+public class LlmCallScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmCallScheduler.class);
+
+    private static final String PRIORITY = "priority";
+    private static final String OUTCOME = "outcome";
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int DROPPED = 2;
+
+    private final Bucket requestBudget;
+    private final Bucket tokenBudget;
+    private final long tokensPerMinute;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final Map<LlmPriority, Duration> deadlines = new EnumMap<>(LlmPriority.class);
+    private final Map<LlmPriority, Timer> queueWaitTimers = new EnumMap<>(LlmPriority.class);
+    private final Map<LlmPriority, Counter> droppedCounters = new EnumMap<>(LlmPriority.class);
+    private final Map<LlmPriority, Map<Outcome, Timer>> callTimers = new EnumMap<>(LlmPriority.class);
+    private final Counter rateLimitedCounter;
+    private final Scheduler timer = Schedulers.parallel();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock; volatile so gauges can sample without locking
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>();
+    private volatile double limit;
+    private volatile int inFlight;
+    private long lastDecreaseNanos = Long.MIN_VALUE;
+    private boolean budgetRetryScheduled;
+
+    public LlmCallScheduler(
+            MeterRegistry meterRegistry,
+            @Value("${agent.llm.scheduler.requests-per-minute:60}") long requestsPerMinute,
+            @Value("${agent.llm.scheduler.tokens-per-minute:200000}") long tokensPerMinute,
+            @Value("${agent.llm.scheduler.initial-concurrency:4}") int initialConcurrency,
+            @Value("${agent.llm.scheduler.min-concurrency:1}") int minConcurrency,
+            @Value("${agent.llm.scheduler.max-concurrency:16}") int maxConcurrency,
+            @Value("${agent.llm.scheduler.latency-target:10s}") Duration latencyTarget,
+            @Value("${agent.llm.scheduler.backoff-ratio:0.7}") double backoffRatio,
+            @Value("${agent.llm.scheduler.deadline.live-decision:15s}") Duration liveDecisionDeadline,
+            @Value("${agent.llm.scheduler.deadline.risk:30s}") Duration riskDeadline,
+            @Value("${agent.llm.scheduler.deadline.reflection:10m}") Duration reflectionDeadline,
+            @Value("${agent.llm.scheduler.deadline.backfill:1h}") Duration backfillDeadline) {
+        this.requestBudget = perMinuteBucket(requestsPerMinute);
+        this.tokenBudget = perMinuteBucket(tokensPerMinute);
+        this.tokensPerMinute = tokensPerMinute;
+        this.minConcurrency = Math.max(1, minConcurrency);
+        this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+        this.limit = Math.clamp(initialConcurrency, this.minConcurrency, this.maxConcurrency);
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.backoffRatio = backoffRatio;
+        deadlines.put(LlmPriority.LIVE_DECISION, liveDecisionDeadline);
+        deadlines.put(LlmPriority.RISK, riskDeadline);
+        deadlines.put(LlmPriority.REFLECTION, reflectionDeadline);
+        deadlines.put(LlmPriority.BACKFILL, backfillDeadline);
+
+        for (LlmPriority priority : LlmPriority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            queueWaitTimers.put(priority, Timer.builder("llm.scheduler.queue.wait")
+                    .description("Time LLM requests spend queued before dispatch")
+                    .tag(PRIORITY, tag)
+                    .register(meterRegistry));
+            droppedCounters.put(priority, Counter.builder("llm.scheduler.dropped")
+                    .description("LLM requests dropped because their deadline passed while queued")
+                    .tag(PRIORITY, tag)
+                    .register(meterRegistry));
+            Map<Outcome, Timer> byOutcome = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                byOutcome.put(outcome, Timer.builder("llm.scheduler.call")
+                        .description("LLM call latency from dispatch to completion")
+                        .tag(PRIORITY, tag)
+                        .tag(OUTCOME, outcome.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry));
+            }
+            callTimers.put(priority, byOutcome);
+        }
+        this.rateLimitedCounter = Counter.builder("llm.scheduler.rate.limited")
+                .description("LLM calls rejected by the provider with HTTP 429")
+                .register(meterRegistry);
+        Gauge.builder("llm.scheduler.queue.size", this, s -> s.queuedCount())
+                .description("LLM requests waiting for a concurrency slot or budget")
+                .register(meterRegistry);
+        Gauge.builder("llm.scheduler.inflight", this, s -> s.inFlight)
+                .description("LLM calls currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("llm.scheduler.concurrency.limit", this, s -> s.limit)
+                .description("Current adaptive LLM concurrency limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a non-blocking call once the scheduler admits it. The call is not subscribed until
+     * then; the returned Mono fails with {@link LlmCallRejectedException} if the priority's
+     * deadline passes first. Cancelling it frees the slot.
+     *
+     * @param estimatedTokens prompt plus completion tokens charged against the token budget
+     */
+    public <T> Mono<T> submit(LlmPriority priority, int estimatedTokens, Supplier<Mono<T>> call) {
+        return acquire(priority, estimatedTokens)
+                .flatMap(permit -> Mono.defer(call)
+                        .doOnSuccess(value -> permit.succeeded())
+                        .doOnError(permit::failed)
+                        .doOnCancel(permit::cancelled));
+    }
+
+    /**
+     * Blocking variant for synchronous callers (LangChain4j AI services). The calling thread
+     * waits for admission and then runs the call itself.
+     */
+    public <T> T execute(LlmPriority priority, int estimatedTokens, Supplier<T> call) {
+        Permit permit = acquire(priority, estimatedTokens).block();
+        boolean completed = false;
+        try {
+            T result = call.get();
+            completed = true;
+            permit.succeeded();
+            return result;
+        } catch (RuntimeException e) {
+            completed = true;
+            permit.failed(e);
+            throw e;
+        } finally {
+            if (!completed) {
+                permit.cancelled();
+            }
+        }
+    }
+
+    public int queuedCount() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight;
+    }
+
+    public double concurrencyLimit() {
+        return limit;
+    }
+
+    /**
+     * True when the error (or one of its causes) is an HTTP 429 from a provider. Only typed status
+     * codes count; messages are not inspected, since any text containing "429" would match.
+     */
+    static boolean isRateLimited(Throwable error) {
+        Throwable t = error;
+        for (int depth = 0; t != null && depth < 8; depth++, t = t.getCause()) {
+            if (t instanceof GrokClient.GrokApiException api) {
+                return api.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS.value();
+            }
+            if (t instanceof WebClientResponseException response) {
+                return response.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+            }
+            if (t instanceof RestClientResponseException response) {
+                return response.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+            }
+        }
+        return false;
+    }
+
+    // -------------------------------------------------------------------------
+    // Admission
+    // -------------------------------------------------------------------------
+
+    private Mono<Permit> acquire(LlmPriority priority, int estimatedTokens) {
+        return Mono.create(sink -> {
+            long tokens = Math.max(0, estimatedTokens);
+            if (tokenBudget != null) {
+                // A request larger than the whole budget would otherwise wait forever
+                tokens = Math.min(tokens, tokensPerMinute);
+            }
+            Duration deadline = deadlines.get(priority);
+            Pending pending = new Pending(priority, sequence.incrementAndGet(), tokens, sink);
+            sink.onCancel(() -> abandon(pending));
+            pending.expiry = timer.schedule(() -> expire(pending), deadline.toNanos(), TimeUnit.NANOSECONDS);
+            lock.lock();
+            try {
+                queue.add(pending);
+            } finally {
+                lock.unlock();
+            }
+            drain();
+        });
+    }
+
+    /**
+     * Grant slots to queued requests in priority order while concurrency and budget allow.
+     * Sinks are completed outside the lock.
+     */
+    private void drain() {
+        List<Pending> granted = new ArrayList<>();
+        lock.lock();
+        try {
+            while (inFlight < Math.max(minConcurrency, (int) limit)) {
+                Pending head = queue.peek();
+                if (head == null) {
+                    break;
+                }
+                if (head.state.get() != WAITING) {
+                    queue.poll();
+                    continue;
+                }
+                long waitNanos = budgetWaitNanos(head.tokens);
+                if (waitNanos > 0) {
+                    scheduleBudgetRetry(waitNanos);
+                    break;
+                }
+                queue.poll();
+                head.permit = new Permit(head.priority);
+                inFlight++;
+                if (!head.state.compareAndSet(WAITING, GRANTED)) {
+                    // Cancelled or expired between the peek and now
+                    inFlight--;
+                    continue;
+                }
+                consumeBudget(head.tokens);
+                granted.add(head);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Pending pending : granted) {
+            pending.expiry.dispose();
+            queueWaitTimers.get(pending.priority).record(System.nanoTime() - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+            pending.sink.success(pending.permit);
+        }
+    }
+
+    private void expire(Pending pending) {
+        if (!pending.state.compareAndSet(WAITING, DROPPED)) {
+            return;
+        }
+        removeQueued(pending);
+        droppedCounters.get(pending.priority).increment();
+        Duration waited = Duration.ofNanos(System.nanoTime() - pending.enqueuedAt);
+        logger.warn("Dropping {} LLM request after {} ms in queue (deadline passed)",
+                pending.priority, waited.toMillis());
+        pending.sink.error(new LlmCallRejectedException(pending.priority,
+                pending.priority + " request dropped after waiting " + waited.toMillis() + " ms"));
+    }
+
+    private void abandon(Pending pending) {
+        if (pending.state.compareAndSet(WAITING, DROPPED)) {
+            Disposable expiry = pending.expiry;
+            if (expiry != null) {
+                expiry.dispose();
+            }
+            removeQueued(pending);
+        } else if (pending.state.get() == GRANTED) {
+            // Cancelled after the grant but before the permit reached the subscriber
+            pending.permit.cancelled();
+        }
+    }
+
+    private void removeQueued(Pending pending) {
+        lock.lock();
+        try {
+            queue.remove(pending);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Budgets
+    // -------------------------------------------------------------------------
+
+    private static Bucket perMinuteBucket(long perMinute) {
+        if (perMinute <= 0) {
+            return null;
+        }
+        return Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(perMinute)
+                        .refillGreedy(perMinute, Duration.ofMinutes(1))
+                        .build())
+                .build();
+    }
+
+    private long budgetWaitNanos(long tokens) {
+        long wait = 0;
+        if (requestBudget != null) {
+            EstimationProbe probe = requestBudget.estimateAbilityToConsume(1);
+            if (!probe.canBeConsumed()) {
+                wait = probe.getNanosToWaitForRefill();
+            }
+        }
+        if (tokenBudget != null && tokens > 0) {
+            EstimationProbe probe = tokenBudget.estimateAbilityToConsume(tokens);
+            if (!probe.canBeConsumed()) {
+                wait = Math.max(wait, probe.getNanosToWaitForRefill());
+            }
+        }
+        return wait;
+    }
+
+    private void consumeBudget(long tokens) {
+        if (requestBudget != null) {
+            requestBudget.tryConsume(1);
+        }
+        if (tokenBudget != null && tokens > 0) {
+            tokenBudget.tryConsume(tokens);
+        }
+    }
+
+    private void scheduleBudgetRetry(long waitNanos) {
+        if (budgetRetryScheduled) {
+            return;
+        }
+        budgetRetryScheduled = true;
+        timer.schedule(() -> {
+            lock.lock();
+            try {
+                budgetRetryScheduled = false;
+            } finally {
+                lock.unlock();
+            }
+            drain();
+        }, waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // -------------------------------------------------------------------------
+    // AIMD
+    // -------------------------------------------------------------------------
+
+    private void onRelease(Permit permit, Outcome outcome) {
+        long latencyNanos = System.nanoTime() - permit.grantedAt;
+        callTimers.get(permit.priority).get(outcome).record(latencyNanos, TimeUnit.NANOSECONDS);
+        if (outcome == Outcome.RATE_LIMITED) {
+            rateLimitedCounter.increment();
+        }
+
+        lock.lock();
+        try {
+            inFlight--;
+            boolean congested = outcome == Outcome.RATE_LIMITED
+                    || (outcome == Outcome.SUCCESS && latencyNanos > latencyTargetNanos);
+            if (congested) {
+                // Calls dispatched before the last decrease already saw the reduced limit's cause
+                if (permit.grantedAt > lastDecreaseNanos) {
+                    double previous = limit;
+                    limit = Math.max(minConcurrency, limit * backoffRatio);
+                    lastDecreaseNanos = System.nanoTime();
+                    logger.info("LLM concurrency limit {} -> {} after {} ({} ms)",
+                            String.format("%.2f", previous), String.format("%.2f", limit),
+                            outcome, TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+                }
+            } else if (outcome == Outcome.SUCCESS) {
+                limit = Math.min(maxConcurrency, limit + 1.0 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    private enum Outcome { SUCCESS, RATE_LIMITED, ERROR, CANCELLED }
+
+    /**
+     * A granted concurrency slot. Released exactly once by whichever outcome is reported first.
+     */
+    private final class Permit {
+
+        private final LlmPriority priority;
+        private final long grantedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(LlmPriority priority) {
+            this.priority = priority;
+        }
+
+        void succeeded() {
+            release(Outcome.SUCCESS);
+        }
+
+        void failed(Throwable error) {
+            release(isRateLimited(error) ? Outcome.RATE_LIMITED : Outcome.ERROR);
+        }
+
+        void cancelled() {
+            release(Outcome.CANCELLED);
+        }
+
+        private void release(Outcome outcome) {
+            if (released.compareAndSet(false, true)) {
+                onRelease(this, outcome);
+            }
+        }
+    }
+
+    private static final class Pending implements Comparable<Pending> {
+
+        final LlmPriority priority;
+        final long sequence;
+        final long tokens;
+        final MonoSink<Permit> sink;
+        final long enqueuedAt = System.nanoTime();
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        volatile Disposable expiry;
+        volatile Permit permit;
+
+        Pending(LlmPriority priority, long sequence, long tokens, MonoSink<Permit> sink) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.tokens = tokens;
+            this.sink = sink;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
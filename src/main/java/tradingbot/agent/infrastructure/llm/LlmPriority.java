@@ -0,0 +1,22 @@
+package tradingbot.agent.infrastructure.llm;
+
+/**
+ * Priority classes for {@link LlmCallScheduler}, highest first.
+ *
+ * A queued request of a higher class is always dispatched before any request of a lower
+ * class, so background work can never delay a live trading decision.
+ */
+public enum LlmPriority {
+
+    /** Decision for a live agent on a fresh market event. Stale ones are worthless. */
+    LIVE_DECISION,
+
+    /** Risk review of an open position or pending order. */
+    RISK,
+
+    /** Post-trade self-reflection (see TradeReflectionListener). */
+    REFLECTION,
+
+    /** Backtests, cache warm-up and other bulk work. */
+    BACKFILL
+}
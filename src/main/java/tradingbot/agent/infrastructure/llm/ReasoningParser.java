@@ -17,6 +17,8 @@ public class ReasoningParser {
     private static final Pattern RISK_PATTERN = Pattern.compile("RISK ASSESSMENT:\\s*(.+?)(?=\\n\\nRECOMMENDATION:|$)", Pattern.DOTALL);
     private static final Pattern RECOMMENDATION_PATTERN = Pattern.compile("RECOMMENDATION:\\s*(.+?)(?=\\n\\nCONFIDENCE:|$)", Pattern.DOTALL);
     private static final Pattern CONFIDENCE_PATTERN = Pattern.compile("CONFIDENCE:\\s*(\\d+)%?");
+    /** CONFIDENCE is the last section; it is complete once its number is terminated by '%' or a newline. */
+    private static final Pattern CONFIDENCE_TERMINATED_PATTERN = Pattern.compile("CONFIDENCE:\\s*\\d+\\s*(%|\\n)");
     
     /**
      * Parse LLM output into Reasoning
@@ -38,6 +40,13 @@ public class ReasoningParser {
         );
     }
     
+    /**
+     * Create an accumulator for a streamed LLM response.
+     */
+    public static Incremental incremental() {
+        return new Incremental();
+    }
+    
     private static String extractSection(String text, Pattern pattern, String defaultValue) {
         Matcher matcher = pattern.matcher(text);
         return matcher.find() ? matcher.group(1).trim() : defaultValue;
@@ -54,4 +63,47 @@ public class ReasoningParser {
         }
         return 50;
     }
+    
+    /**
+     * Incremental - Accumulates streamed tokens and detects when the response is complete.
+     * 
+     * Lets a streaming client stop reading (and cancel the HTTP exchange) as soon as the
+     * final CONFIDENCE section has arrived instead of waiting for trailing tokens.
+     * Not thread-safe: one instance per response stream.
+     */
+    public static final class Incremental {
+        
+        private final StringBuilder buffer = new StringBuilder(1024);
+        private boolean complete;
+        
+        private Incremental() {
+        }
+        
+        /**
+         * Append a streamed chunk. Returns this accumulator for chaining in reactive reducers.
+         */
+        public Incremental append(String chunk) {
+            if (chunk == null || chunk.isEmpty() || complete) {
+                return this;
+            }
+            buffer.append(chunk);
+            // Only re-scan when the chunk could have terminated the CONFIDENCE value
+            if (chunk.indexOf('%') >= 0 || chunk.indexOf('\n') >= 0) {
+                complete = CONFIDENCE_TERMINATED_PATTERN.matcher(buffer).find();
+            }
+            return this;
+        }
+        
+        public boolean isComplete() {
+            return complete;
+        }
+        
+        public String text() {
+            return buffer.toString();
+        }
+        
+        public Reasoning toReasoning(ReasoningContext context) {
+            return parse(buffer.toString(), context);
+        }
+    }
 }
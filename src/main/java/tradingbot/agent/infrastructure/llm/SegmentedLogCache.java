@@ -0,0 +1,464 @@
+package tradingbot.agent.infrastructure.llm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SegmentedLogCache — append-only, segmented key/value store backing the L2 LLM file cache.
+ *
+ * Replaces the former one-file-per-key layout (hundreds of thousands of tiny JSON files)
+ * with a handful of segment files:
+ *
+ * <pre>
+ *   segment-00000001.log   sealed   [record][record]...[footer index][trailer]
+ *   segment-00000002.log   sealed   ...
+ *   segment-00000003.log   active   [record][record]...            (appends go here)
+ *
+ *   record  = crc32c:4 | expiresAt:8 | keyLen:4 | valueLen:4 | key | value
+ *   footer  = n x ( keyLen:4 | key | offset:8 | length:4 | expiresAt:8 )
+ *   trailer = footerOffset:8 | entryCount:4 | footerCrc:4 | MAGIC:8
+ * </pre>
+ *
+ * An in-memory index maps key → (segment, offset, length), so a lookup costs one
+ * positioned read plus a CRC check. When the active segment exceeds
+ * {@code maxSegmentBytes} it is sealed: its live keys are written as a footer, which lets
+ * startup rebuild the index without scanning record data. Only the active (unsealed)
+ * segment is scanned on startup; a torn tail write is detected by CRC and truncated.
+ *
+ * {@link #compact()} drops expired entries from the index and rewrites sealed segments
+ * whose live-byte ratio fell below {@code compactionLiveRatio} into the active segment,
+ * deleting the old file afterwards. Later segments always win on rebuild, so a crash
+ * mid-compaction only leaves harmless duplicates.
+ */
+class SegmentedLogCache implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedLogCache.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int RECORD_HEADER_BYTES = 4 + 8 + 4 + 4;
+    private static final int TRAILER_BYTES = 8 + 4 + 4 + 8;
+    private static final long FOOTER_MAGIC = 0x4C4C4D4341434845L; // "LLMCACHE"
+    private static final int MAX_KEY_BYTES = 1024;
+
+    private final Path dir;
+    private final long maxSegmentBytes;
+    private final double compactionLiveRatio;
+    private final Clock clock;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // All fields below are guarded by lock
+    private final Map<String, Location> index = new HashMap<>();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private Segment active;
+
+    SegmentedLogCache(Path dir, long maxSegmentBytes, double compactionLiveRatio, Clock clock) throws IOException {
+        this.dir = dir;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.compactionLiveRatio = compactionLiveRatio;
+        this.clock = clock;
+        Files.createDirectories(dir);
+        recover();
+    }
+
+    /**
+     * @return the stored value, or {@code null} if absent, expired or failing its checksum
+     */
+    String get(String key) {
+        lock.readLock().lock();
+        try {
+            Location loc = index.get(key);
+            if (loc == null || loc.isExpired(clock.millis())) {
+                return null;
+            }
+            Segment segment = segments.get(loc.segmentId());
+            ByteBuffer buf = ByteBuffer.allocate(loc.length());
+            readFully(segment.channel, buf, loc.offset());
+            buf.flip();
+            LogRecord record = LogRecord.decode(buf);
+            if (record == null || !record.key().equals(key)) {
+                logger.warn("[LLM Cache] Checksum mismatch for key={} in {} @{} — ignoring entry",
+                        key, segment.path.getFileName(), loc.offset());
+                return null;
+            }
+            return record.value();
+        } catch (IOException e) {
+            logger.warn("[LLM Cache] Segment read failed for key={}: {}", key, e.getMessage());
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Append {@code value} under {@code key}; {@code expiresAtMillis <= 0} never expires.
+     */
+    void put(String key, String value, long expiresAtMillis) throws IOException {
+        lock.writeLock().lock();
+        try {
+            append(new LogRecord(key, value, expiresAtMillis));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Evict expired entries and rewrite sparse sealed segments into the active segment.
+     *
+     * @return number of segment files deleted
+     */
+    int compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            long now = clock.millis();
+            Iterator<Map.Entry<String, Location>> it = index.entrySet().iterator();
+            while (it.hasNext()) {
+                Location loc = it.next().getValue();
+                if (loc.isExpired(now)) {
+                    segments.get(loc.segmentId()).liveBytes -= loc.length();
+                    it.remove();
+                }
+            }
+
+            int deleted = 0;
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                if (segment == active || segment.dataBytes == 0) {
+                    continue;
+                }
+                double liveRatio = (double) segment.liveBytes / segment.dataBytes;
+                if (segment.liveBytes > 0 && liveRatio >= compactionLiveRatio) {
+                    continue;
+                }
+                for (Map.Entry<String, Location> entry : liveEntries(segment.id)) {
+                    Location loc = entry.getValue();
+                    ByteBuffer buf = ByteBuffer.allocate(loc.length());
+                    readFully(segment.channel, buf, loc.offset());
+                    buf.flip();
+                    LogRecord record = LogRecord.decode(buf);
+                    if (record != null) {
+                        append(record);
+                    } else {
+                        index.remove(entry.getKey());
+                    }
+                }
+                segments.remove(segment.id);
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+                deleted++;
+            }
+            if (deleted > 0) {
+                logger.info("[LLM Cache] Compaction removed {} segment(s); {} live entries in {} segment(s)",
+                        deleted, index.size(), segments.size());
+            }
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes and closes all segments. The active segment is left unsealed; it is
+     * re-scanned (and appended to) on the next start.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            active.channel.force(false);
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+            segments.clear();
+            index.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Append / roll (write lock held)
+    // -------------------------------------------------------------------------
+
+    private void append(LogRecord record) throws IOException {
+        ByteBuffer buf = record.encode();
+        int length = buf.remaining();
+        if (active.dataBytes > 0 && active.dataBytes + length > maxSegmentBytes) {
+            seal(active);
+            active = openSegment(active.id + 1);
+        }
+        long offset = active.dataBytes;
+        writeFully(active.channel, buf, offset);
+        active.dataBytes += length;
+        active.liveBytes += length;
+
+        Location previous = index.put(record.key(),
+                new Location(active.id, offset, length, record.expiresAtMillis()));
+        if (previous != null) {
+            segments.get(previous.segmentId()).liveBytes -= previous.length();
+        }
+    }
+
+    private void seal(Segment segment) throws IOException {
+        List<Map.Entry<String, Location>> entries = liveEntries(segment.id);
+        int footerBytes = 0;
+        for (Map.Entry<String, Location> entry : entries) {
+            footerBytes += 4 + entry.getKey().getBytes(StandardCharsets.UTF_8).length + 8 + 4 + 8;
+        }
+        ByteBuffer footer = ByteBuffer.allocate(footerBytes + TRAILER_BYTES);
+        for (Map.Entry<String, Location> entry : entries) {
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            Location loc = entry.getValue();
+            footer.putInt(key.length).put(key).putLong(loc.offset()).putInt(loc.length()).putLong(loc.expiresAtMillis());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(footer.array(), 0, footerBytes);
+        footer.putLong(segment.dataBytes).putInt(entries.size()).putInt((int) crc.getValue()).putLong(FOOTER_MAGIC);
+        footer.flip();
+        writeFully(segment.channel, footer, segment.dataBytes);
+        segment.channel.truncate(segment.dataBytes + footer.limit());
+        segment.channel.force(false);
+        segment.sealed = true;
+    }
+
+    private List<Map.Entry<String, Location>> liveEntries(int segmentId) {
+        List<Map.Entry<String, Location>> entries = new ArrayList<>();
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            if (entry.getValue().segmentId() == segmentId) {
+                entries.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        return entries;
+    }
+
+    // -------------------------------------------------------------------------
+    // Recovery
+    // -------------------------------------------------------------------------
+
+    private void recover() throws IOException {
+        TreeMap<Integer, Path> found = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    found.put(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())), path);
+                } catch (NumberFormatException e) {
+                    logger.warn("[LLM Cache] Ignoring unexpected file in cache dir: {}", name);
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, Path> entry : found.entrySet()) {
+            Segment segment = openSegment(entry.getKey());
+            if (!loadFooter(segment)) {
+                scan(segment);
+                if (!entry.getKey().equals(found.lastKey())) {
+                    // A crash between rolling and sealing: seal it now so it is never scanned again
+                    seal(segment);
+                }
+            }
+        }
+        // Recompute live bytes from the final index (later segments override earlier ones)
+        for (Location loc : index.values()) {
+            segments.get(loc.segmentId()).liveBytes += loc.length();
+        }
+
+        Segment last = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        active = (last == null || last.sealed) ? openSegment(last == null ? 1 : last.id + 1) : last;
+        logger.info("[LLM Cache] Recovered {} entries from {} segment(s) in {}",
+                index.size(), segments.size(), dir.toAbsolutePath());
+    }
+
+    private boolean loadFooter(Segment segment) throws IOException {
+        long fileSize = segment.channel.size();
+        if (fileSize < TRAILER_BYTES) {
+            return false;
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+        readFully(segment.channel, trailer, fileSize - TRAILER_BYTES);
+        trailer.flip();
+        long footerOffset = trailer.getLong();
+        int count = trailer.getInt();
+        int storedCrc = trailer.getInt();
+        if (trailer.getLong() != FOOTER_MAGIC || footerOffset < 0 || footerOffset > fileSize - TRAILER_BYTES) {
+            return false;
+        }
+        ByteBuffer footer = ByteBuffer.allocate((int) (fileSize - TRAILER_BYTES - footerOffset));
+        readFully(segment.channel, footer, footerOffset);
+        CRC32C crc = new CRC32C();
+        crc.update(footer.array(), 0, footer.capacity());
+        if ((int) crc.getValue() != storedCrc) {
+            logger.warn("[LLM Cache] Footer checksum mismatch in {} — rescanning records", segment.path.getFileName());
+            return false;
+        }
+        footer.flip();
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[footer.getInt()];
+            footer.get(key);
+            index.put(new String(key, StandardCharsets.UTF_8),
+                    new Location(segment.id, footer.getLong(), footer.getInt(), footer.getLong()));
+        }
+        segment.dataBytes = footerOffset;
+        segment.sealed = true;
+        return true;
+    }
+
+    private void scan(Segment segment) throws IOException {
+        long fileSize = segment.channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        while (position + RECORD_HEADER_BYTES <= fileSize) {
+            header.clear();
+            readFully(segment.channel, header, position);
+            int keyLen = header.getInt(12);
+            int valueLen = header.getInt(16);
+            long length = (long) RECORD_HEADER_BYTES + keyLen + valueLen;
+            if (keyLen <= 0 || keyLen > MAX_KEY_BYTES || valueLen < 0 || position + length > fileSize) {
+                break;
+            }
+            ByteBuffer buf = ByteBuffer.allocate((int) length);
+            readFully(segment.channel, buf, position);
+            buf.flip();
+            LogRecord record = LogRecord.decode(buf);
+            if (record == null) {
+                break;
+            }
+            index.put(record.key(), new Location(segment.id, position, (int) length, record.expiresAtMillis()));
+            position += length;
+        }
+        if (position < fileSize) {
+            logger.warn("[LLM Cache] Truncating {} torn/corrupt byte(s) at the tail of {}",
+                    fileSize - position, segment.path.getFileName());
+            segment.channel.truncate(position);
+        }
+        segment.dataBytes = position;
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        Path path = dir.resolve(SEGMENT_PREFIX + "%08d".formatted(id) + SEGMENT_SUFFIX);
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, path, channel);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    // -------------------------------------------------------------------------
+    // I/O helpers
+    // -------------------------------------------------------------------------
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0) {
+                throw new IOException("Unexpected end of segment at " + (position + buf.position()));
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        long offset = position;
+        while (buf.hasRemaining()) {
+            offset += channel.write(buf, offset);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Internal types
+    // -------------------------------------------------------------------------
+
+    private record Location(int segmentId, long offset, int length, long expiresAtMillis) {
+        boolean isExpired(long nowMillis) {
+            return expiresAtMillis > 0 && expiresAtMillis <= nowMillis;
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        long dataBytes;    // end of record data (= footer offset once sealed)
+        long liveBytes;    // bytes of records still referenced by the index
+        boolean sealed;
+
+        Segment(int id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+
+    private record LogRecord(String key, String value, long expiresAtMillis) {
+
+        ByteBuffer encode() {
+            byte[] k = key.getBytes(StandardCharsets.UTF_8);
+            byte[] v = value.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buf = ByteBuffer.allocate(RECORD_HEADER_BYTES + k.length + v.length);
+            buf.putInt(0).putLong(expiresAtMillis).putInt(k.length).putInt(v.length).put(k).put(v);
+            CRC32C crc = new CRC32C();
+            crc.update(buf.array(), 4, buf.capacity() - 4);
+            buf.putInt(0, (int) crc.getValue());
+            buf.flip();
+            return buf;
+        }
+
+        /** @return the decoded record, or {@code null} if the checksum or lengths do not match */
+        static LogRecord decode(ByteBuffer buf) {
+            int length = buf.remaining();
+            if (length < RECORD_HEADER_BYTES) {
+                return null;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buf.array(), 4, length - 4);
+            if ((int) crc.getValue() != buf.getInt(0)) {
+                return null;
+            }
+            long expiresAt = buf.getLong(4);
+            int keyLen = buf.getInt(12);
+            int valueLen = buf.getInt(16);
+            if (RECORD_HEADER_BYTES + keyLen + valueLen != length) {
+                return null;
+            }
+            String key = new String(buf.array(), RECORD_HEADER_BYTES, keyLen, StandardCharsets.UTF_8);
+            String value = new String(buf.array(), RECORD_HEADER_BYTES + keyLen, valueLen, StandardCharsets.UTF_8);
+            return new LogRecord(key, value, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package tradingbot.agent.infrastructure.llm;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import tradingbot.agent.domain.model.Reasoning;
+import tradingbot.agent.service.EmbeddingService;
+
+/**
+ * SemanticResponseCache — nearest-neighbour lookup over recently generated LLM responses.
+ *
+ * Exact and bucketed keys miss whenever a single field crosses a bucket boundary.
+ * This cache embeds a textual description of the market context and returns the most
+ * similar recent response when its cosine similarity clears {@code threshold}.
+ *
+ * Entries are partitioned by scope (symbol + goal) so a BTC context can never be
+ * answered with an ETH response, and each scope keeps at most {@code maxEntriesPerScope}
+ * entries (oldest evicted first). Entries older than {@code maxAge} are ignored and pruned.
+ * A linear scan over a few hundred vectors is cheap compared with a single LLM call.
+ */
+class SemanticResponseCache {
+
+    private final EmbeddingService embeddingService;
+    private final double threshold;
+    private final int maxEntriesPerScope;
+    private final Duration maxAge;
+    private final ConcurrentMap<String, Deque<Entry>> scopes = new ConcurrentHashMap<>();
+
+    SemanticResponseCache(EmbeddingService embeddingService, double threshold,
+                          int maxEntriesPerScope, Duration maxAge) {
+        this.embeddingService = embeddingService;
+        this.threshold = threshold;
+        this.maxEntriesPerScope = maxEntriesPerScope;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Embed {@code description} once so the same vector can be used for lookup and store.
+     */
+    double[] embed(String description) {
+        return embeddingService.embed(description);
+    }
+
+    /**
+     * Return the most similar non-expired response in {@code scope}, if any clears the threshold.
+     */
+    Optional<Reasoning> findSimilar(String scope, double[] embedding) {
+        Deque<Entry> entries = scopes.get(scope);
+        if (entries == null) {
+            return Optional.empty();
+        }
+        Instant cutoff = Instant.now().minus(maxAge);
+        Reasoning best = null;
+        double bestScore = threshold;
+        synchronized (entries) {
+            Iterator<Entry> it = entries.iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.storedAt().isBefore(cutoff)) {
+                    it.remove();
+                    continue;
+                }
+                double score = embeddingService.cosineSimilarity(embedding, entry.embedding());
+                if (score >= bestScore) {
+                    bestScore = score;
+                    best = entry.reasoning();
+                }
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    void store(String scope, double[] embedding, Reasoning reasoning) {
+        Deque<Entry> entries = scopes.computeIfAbsent(scope, k -> new ArrayDeque<>());
+        synchronized (entries) {
+            entries.addLast(new Entry(embedding, reasoning, Instant.now()));
+            while (entries.size() > maxEntriesPerScope) {
+                entries.removeFirst();
+            }
+        }
+    }
+
+    private record Entry(double[] embedding, Reasoning reasoning, Instant storedAt) {}
+}
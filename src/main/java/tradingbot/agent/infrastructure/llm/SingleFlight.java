@@ -0,0 +1,66 @@
+package tradingbot.agent.infrastructure.llm;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight — coalesces concurrent calls for the same key into one execution.
+ *
+ * The first caller for a key (the "leader") runs the supplier; every caller that
+ * arrives while the leader is still running waits on the same future and receives
+ * the same result (or the same exception). Once the leader finishes the key is
+ * released, so the next call starts a fresh execution.
+ *
+ * Used by {@link CachedGrokService} so that N agents on the same symbol, arriving in
+ * the same kline close, trigger exactly one LLM round trip instead of N.
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run {@code supplier} for {@code key}, or join an execution already in flight.
+     *
+     * @return the supplier's result, shared by all callers that coalesced on this key
+     */
+    V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            V value = supplier.get();
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            // Errors too: a waiter left on an uncompleted future would block forever
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /** Number of keys currently being computed (exposed for tests and diagnostics). */
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package tradingbot.agent.infrastructure.llm.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -18,6 +19,10 @@ public class GrokApiRequest {
     @JsonProperty("max_tokens")
     private int maxTokens;
     
+    /** When true the API answers with server-sent events of incremental deltas. Omitted when null. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stream;
+    
     // Constructors
     
     public GrokApiRequest() {
@@ -64,6 +69,14 @@ public class GrokApiRequest {
         this.maxTokens = maxTokens;
     }
     
+    public Boolean getStream() {
+        return stream;
+    }
+    
+    public void setStream(Boolean stream) {
+        this.stream = stream;
+    }
+    
     /**
      * Message - Represents a message in the conversation
      */
@@ -72,12 +72,14 @@ public class GrokApiResponse {
     }
     
     /**
-     * Choice - Represents a single completion choice
+     * Choice - Represents a single completion choice.
+     * Streaming chunks ({@code chat.completion.chunk}) carry {@code delta} instead of {@code message}.
      */
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Choice {
         private int index;
         private Message message;
+        private Message delta;
         
         @JsonProperty("finish_reason")
         private String finishReason;
@@ -98,6 +100,14 @@ public class GrokApiResponse {
             this.message = message;
         }
         
+        public Message getDelta() {
+            return delta;
+        }
+        
+        public void setDelta(Message delta) {
+            this.delta = delta;
+        }
+        
         public String getFinishReason() {
             return finishReason;
         }
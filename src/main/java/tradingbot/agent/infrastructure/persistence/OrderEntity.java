@@ -25,7 +25,9 @@ import tradingbot.agent.api.dto.OrderResponse;
     @Index(name = "idx_orders_agent_id", columnList = "agent_id"),
     @Index(name = "idx_orders_symbol", columnList = "symbol"),
     @Index(name = "idx_orders_status", columnList = "status"),
-    @Index(name = "idx_orders_created_at", columnList = "created_at")
+    @Index(name = "idx_orders_created_at", columnList = "created_at"),
+    @Index(name = "idx_orders_agent_created_at", columnList = "agent_id, created_at DESC, id DESC"),
+    @Index(name = "idx_orders_created_at_id", columnList = "created_at DESC, id DESC")
 })
 public class OrderEntity {
         public OrderResponse toOrderResponse() {
@@ -18,7 +18,8 @@ import jakarta.persistence.Table;
     @Index(name = "idx_positions_agent_id", columnList = "agent_id"),
     @Index(name = "idx_positions_symbol", columnList = "symbol"),
     @Index(name = "idx_positions_status", columnList = "status"),
-    @Index(name = "idx_positions_opened_at", columnList = "opened_at")
+    @Index(name = "idx_positions_opened_at", columnList = "opened_at"),
+    @Index(name = "idx_positions_agent_closed_at", columnList = "agent_id, closed_at DESC, id DESC")
 })
 public class PositionEntity {
     
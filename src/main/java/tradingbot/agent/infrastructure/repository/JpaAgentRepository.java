@@ -5,6 +5,7 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -25,7 +26,18 @@ public interface JpaAgentRepository extends JpaRepository<AgentEntity, String> {
      */
     @Query("SELECT a FROM AgentEntity a WHERE a.status = 'ACTIVE'")
     List<AgentEntity> findAllActive();
+
+    /**
+     * One page of active agents, without a count query (used for paged startup loading)
+     */
+    @Query("SELECT a FROM AgentEntity a WHERE a.status = 'ACTIVE'")
+    Slice<AgentEntity> findAllActive(Pageable pageable);
     
+    /**
+     * Find all agents trading a symbol, whatever their status (used by session replay)
+     */
+    List<AgentEntity> findByTradingSymbol(String tradingSymbol, Pageable limit);
+
     /**
      * Find agents owned by a specific user (paginated)
      */
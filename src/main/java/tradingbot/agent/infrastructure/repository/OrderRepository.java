@@ -2,16 +2,25 @@ package tradingbot.agent.infrastructure.repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import tradingbot.agent.infrastructure.persistence.OrderEntity;
 
 /**
  * OrderRepository - JPA repository for Order persistence
+ *
+ * List finders take a {@link Pageable} limit (e.g. {@code PageRequest.of(0, n)}) so no caller can
+ * load an agent's whole history into heap; full exports go through {@link #streamByAgentId}.
  */
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, String> {
@@ -19,32 +28,32 @@ public interface OrderRepository extends JpaRepository<OrderEntity, String> {
     /**
      * Find all orders for a specific agent
      */
-    List<OrderEntity> findByAgentId(String agentId);
+    List<OrderEntity> findByAgentId(String agentId, Pageable limit);
     
     /**
      * Find all orders for a specific symbol
      */
-    List<OrderEntity> findBySymbol(String symbol);
+    List<OrderEntity> findBySymbol(String symbol, Pageable limit);
     
     /**
      * Find all orders for an agent on a specific symbol
      */
-    List<OrderEntity> findByAgentIdAndSymbol(String agentId, String symbol);
+    List<OrderEntity> findByAgentIdAndSymbol(String agentId, String symbol, Pageable limit);
     
     /**
      * Find all orders with a specific status
      */
-    List<OrderEntity> findByStatus(OrderEntity.Status status);
+    List<OrderEntity> findByStatus(OrderEntity.Status status, Pageable limit);
     
     /**
      * Find all orders for an agent with a specific status
      */
-    List<OrderEntity> findByAgentIdAndStatus(String agentId, OrderEntity.Status status);
+    List<OrderEntity> findByAgentIdAndStatus(String agentId, OrderEntity.Status status, Pageable limit);
     
     /**
      * Find orders created after a specific timestamp
      */
-    List<OrderEntity> findByCreatedAtAfter(Instant timestamp);
+    List<OrderEntity> findByCreatedAtAfter(Instant timestamp, Pageable limit);
     
     /**
      * Find recent orders for an agent (last N days)
@@ -53,7 +62,8 @@ public interface OrderRepository extends JpaRepository<OrderEntity, String> {
            "AND o.createdAt >= :since ORDER BY o.createdAt DESC")
     List<OrderEntity> findRecentOrdersByAgent(
         @Param("agentId") String agentId,
-        @Param("since") Instant since
+        @Param("since") Instant since,
+        Pageable limit
     );
     
     /**
@@ -66,5 +76,46 @@ public interface OrderRepository extends JpaRepository<OrderEntity, String> {
      */
     @Query("SELECT o FROM OrderEntity o WHERE o.agentId = :agentId " +
            "AND o.status = 'EXECUTED' ORDER BY o.executedAt DESC")
-    List<OrderEntity> findExecutedOrdersByAgent(@Param("agentId") String agentId);
+    List<OrderEntity> findExecutedOrdersByAgent(@Param("agentId") String agentId, Pageable limit);
+    
+    // -------------------------------------------------------------------------
+    // Keyset (seek) pagination, newest first by (createdAt, id).
+    // Pass PageRequest.of(0, size) as the limit; backed by idx_orders_agent_created_at
+    // and idx_orders_created_at_id so each page is an index range scan.
+    // -------------------------------------------------------------------------
+    
+    @Query("SELECT o FROM OrderEntity o ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderEntity> findFirstPage(Pageable limit);
+    
+    @Query("SELECT o FROM OrderEntity o " +
+           "WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderEntity> findPageBefore(
+        @Param("createdAt") Instant createdAt,
+        @Param("id") String id,
+        Pageable limit
+    );
+    
+    @Query("SELECT o FROM OrderEntity o WHERE o.agentId = :agentId " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderEntity> findFirstPageByAgent(@Param("agentId") String agentId, Pageable limit);
+    
+    @Query("SELECT o FROM OrderEntity o WHERE o.agentId = :agentId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderEntity> findPageByAgentBefore(
+        @Param("agentId") String agentId,
+        @Param("createdAt") Instant createdAt,
+        @Param("id") String id,
+        Pageable limit
+    );
+    
+    /**
+     * Stream every order for an agent, oldest first, for exports.
+     * Must be consumed inside a transaction; the fetch size lets the JDBC driver
+     * pull rows in batches instead of materialising the whole result set.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o FROM OrderEntity o WHERE o.agentId = :agentId ORDER BY o.createdAt, o.id")
+    Stream<OrderEntity> streamByAgentId(@Param("agentId") String agentId);
 }
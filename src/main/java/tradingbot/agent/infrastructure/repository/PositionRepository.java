@@ -1,14 +1,23 @@
 package tradingbot.agent.infrastructure.repository;
 
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import tradingbot.agent.infrastructure.persistence.PositionEntity;
 
 /**
  * PositionRepository - JPA repository for Position persistence
+ *
+ * Finders over all of an agent's or symbol's positions take a {@link Pageable} limit; the
+ * status finders are meant for OPEN positions, which stay few.
  */
 @Repository
 public interface PositionRepository extends JpaRepository<PositionEntity, String> {
@@ -16,7 +25,9 @@ public interface PositionRepository extends JpaRepository<PositionEntity, String
     /**
      * Find all positions for a specific agent
      */
-    List<PositionEntity> findByAgentId(String agentId);
+    List<PositionEntity> findByAgentId(String agentId, Pageable limit);
+    
+    long countByAgentId(String agentId);
     
     /**
      * Find all positions with a specific status
@@ -36,5 +47,95 @@ public interface PositionRepository extends JpaRepository<PositionEntity, String
     /**
      * Find all positions for a specific symbol
      */
-    List<PositionEntity> findBySymbol(String symbol);
+    List<PositionEntity> findBySymbol(String symbol, Pageable limit);
+    
+    // -------------------------------------------------------------------------
+    // Conditional writes. The polling monitor and the tick-driven trigger engine update
+    // positions from different threads, so each write only applies while the position is
+    // still OPEN instead of saving back an entity that may have been closed meanwhile.
+    // -------------------------------------------------------------------------
+    
+    /**
+     * Record a monitoring pass.
+     * @return 1 if the position was still open, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PositionEntity p SET p.lastCheckedAt = :checkedAt, p.lastUnrealizedPnl = :unrealizedPnl " +
+           "WHERE p.id = :id AND p.status = 'OPEN'")
+    int updateMonitoringIfOpen(
+        @Param("id") String id,
+        @Param("checkedAt") Instant checkedAt,
+        @Param("unrealizedPnl") double unrealizedPnl
+    );
+    
+    /**
+     * Move a trailing stop.
+     * @return 1 if the position was still open, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PositionEntity p SET p.stopLoss = :stopLoss WHERE p.id = :id AND p.status = 'OPEN'")
+    int updateStopLossIfOpen(@Param("id") String id, @Param("stopLoss") double stopLoss);
+    
+    /**
+     * Claim an open position for closing. Only one caller can win for a given position.
+     * @return 1 if this call closed the position, 0 if it was already closed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PositionEntity p SET p.status = :status, p.exitPrice = :exitPrice, " +
+           "p.realizedPnl = :realizedPnl, p.closedAt = :closedAt WHERE p.id = :id AND p.status = 'OPEN'")
+    int closeIfOpen(
+        @Param("id") String id,
+        @Param("status") PositionEntity.Status status,
+        @Param("exitPrice") double exitPrice,
+        @Param("realizedPnl") double realizedPnl,
+        @Param("closedAt") Instant closedAt
+    );
+    
+    /**
+     * Undo {@link #closeIfOpen} when the exit order could not be placed.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PositionEntity p SET p.status = 'OPEN', p.exitPrice = NULL, p.realizedPnl = NULL, " +
+           "p.closedAt = NULL WHERE p.id = :id AND p.status = :status")
+    int reopen(@Param("id") String id, @Param("status") PositionEntity.Status status);
+    
+    // -------------------------------------------------------------------------
+    // Trade history: closed positions, keyset-paginated newest first by (closedAt, id).
+    // Backed by idx_positions_agent_closed_at.
+    // -------------------------------------------------------------------------
+    
+    @Query("SELECT p FROM PositionEntity p WHERE p.agentId = :agentId " +
+           "AND p.status <> 'OPEN' AND p.closedAt >= :from AND p.closedAt <= :to " +
+           "ORDER BY p.closedAt DESC, p.id DESC")
+    List<PositionEntity> findClosedFirstPage(
+        @Param("agentId") String agentId,
+        @Param("from") Instant from,
+        @Param("to") Instant to,
+        Pageable limit
+    );
+    
+    @Query("SELECT p FROM PositionEntity p WHERE p.agentId = :agentId " +
+           "AND p.status <> 'OPEN' AND p.closedAt >= :from AND p.closedAt <= :to " +
+           "AND (p.closedAt < :closedAt OR (p.closedAt = :closedAt AND p.id < :id)) " +
+           "ORDER BY p.closedAt DESC, p.id DESC")
+    List<PositionEntity> findClosedPageBefore(
+        @Param("agentId") String agentId,
+        @Param("from") Instant from,
+        @Param("to") Instant to,
+        @Param("closedAt") Instant closedAt,
+        @Param("id") String id,
+        Pageable limit
+    );
+    
+    @Query("SELECT COUNT(p) FROM PositionEntity p WHERE p.agentId = :agentId " +
+           "AND p.status <> 'OPEN' AND p.closedAt >= :from AND p.closedAt <= :to")
+    long countClosed(@Param("agentId") String agentId, @Param("from") Instant from, @Param("to") Instant to);
+    
+    @Query("SELECT COALESCE(SUM(p.realizedPnl), 0) FROM PositionEntity p WHERE p.agentId = :agentId " +
+           "AND p.status <> 'OPEN' AND p.closedAt >= :from AND p.closedAt <= :to")
+    double sumClosedRealizedPnl(@Param("agentId") String agentId, @Param("from") Instant from, @Param("to") Instant to);
 }
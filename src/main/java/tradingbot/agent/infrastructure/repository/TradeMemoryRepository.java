@@ -3,6 +3,7 @@ package tradingbot.agent.infrastructure.repository;
 import java.time.Instant;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,6 +20,9 @@ import tradingbot.agent.infrastructure.persistence.TradeMemoryEntity;
  * - Performance analytics
  * - Audit trails
  * - Backup of experience metadata
+ *
+ * List finders take a {@link Pageable} limit (e.g. {@code PageRequest.of(0, n)}) so no caller can
+ * load an agent's whole history into heap.
  */
 @Repository
 public interface TradeMemoryRepository extends JpaRepository<TradeMemoryEntity, String> {
@@ -26,22 +30,22 @@ public interface TradeMemoryRepository extends JpaRepository<TradeMemoryEntity,
     /**
      * Find all experiences for a specific agent
      */
-    List<TradeMemoryEntity> findByAgentId(String agentId);
+    List<TradeMemoryEntity> findByAgentId(String agentId, Pageable limit);
 
     /**
      * Find all experiences for a specific symbol
      */
-    List<TradeMemoryEntity> findBySymbol(String symbol);
+    List<TradeMemoryEntity> findBySymbol(String symbol, Pageable limit);
 
     /**
      * Find all experiences for an agent on a specific symbol
      */
-    List<TradeMemoryEntity> findByAgentIdAndSymbol(String agentId, String symbol);
+    List<TradeMemoryEntity> findByAgentIdAndSymbol(String agentId, String symbol, Pageable limit);
 
     /**
      * Find all experiences with a specific outcome
      */
-    List<TradeMemoryEntity> findByOutcome(TradeMemoryEntity.Outcome outcome);
+    List<TradeMemoryEntity> findByOutcome(TradeMemoryEntity.Outcome outcome, Pageable limit);
 
     /**
      * Find profitable trades for an agent
@@ -49,12 +53,12 @@ public interface TradeMemoryRepository extends JpaRepository<TradeMemoryEntity,
         @Query("SELECT m FROM TradeMemoryEntity m WHERE m.agentId = :agentId " +
            "AND m.outcome = 'PROFIT' AND m.profitPercent > 0 " +
            "ORDER BY m.profitPercent DESC")
-    List<TradeMemoryEntity> findProfitableTradesByAgent(@Param("agentId") String agentId);
+    List<TradeMemoryEntity> findProfitableTradesByAgent(@Param("agentId") String agentId, Pageable limit);
 
     /**
      * Find experiences created after a specific timestamp
      */
-    List<TradeMemoryEntity> findByTimestampAfter(Instant timestamp);
+    List<TradeMemoryEntity> findByTimestampAfter(Instant timestamp, Pageable limit);
 
     /**
      * Find recent experiences for an agent (last N days)
@@ -62,7 +66,8 @@ public interface TradeMemoryRepository extends JpaRepository<TradeMemoryEntity,
         @Query("SELECT m FROM TradeMemoryEntity m WHERE m.agentId = :agentId " +
            "ORDER BY m.timestamp DESC")
     List<TradeMemoryEntity> findRecentExperiencesByAgent(
-        @Param("agentId") String agentId
+        @Param("agentId") String agentId,
+        Pageable limit
     );
 
     /**
@@ -97,4 +102,4 @@ public interface TradeMemoryRepository extends JpaRepository<TradeMemoryEntity,
         @Param("agentId") String agentId,
         @Param("symbol") String symbol
     );
-}
\ No newline at end of file
+}
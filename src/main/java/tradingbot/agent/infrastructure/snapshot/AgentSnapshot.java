@@ -0,0 +1,23 @@
+package tradingbot.agent.infrastructure.snapshot;
+
+import java.time.Instant;
+import java.util.List;
+
+import tradingbot.agent.domain.model.SeriesBar;
+
+/**
+ * Point-in-time copy of one agent's rolling bar series.
+ *
+ * @param bars oldest first
+ */
+public record AgentSnapshot(String agentId, String symbol, Instant takenAt, List<SeriesBar> bars) {
+
+    public AgentSnapshot {
+        bars = List.copyOf(bars);
+    }
+
+    /** @return close time of the newest bar, or null when the snapshot is empty */
+    public Instant lastBarEnd() {
+        return bars.isEmpty() ? null : bars.get(bars.size() - 1).endTime();
+    }
+}
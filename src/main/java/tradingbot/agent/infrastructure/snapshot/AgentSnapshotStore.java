@@ -0,0 +1,77 @@
+package tradingbot.agent.infrastructure.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local-disk store for {@link AgentSnapshot}s, one {@code <agentId>.snap} file per agent.
+ *
+ * <p>A save writes a temp file and atomically renames it over the previous snapshot, so a crash
+ * mid-write leaves the last good snapshot in place. A file that fails to decode (truncated,
+ * checksum mismatch, older format) is logged and treated as absent; the agent then warms up the
+ * way it would without a snapshot.
+ */
+@Component
+public class AgentSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AgentSnapshotStore.class);
+
+    private static final String SUFFIX = ".snap";
+
+    private final Path dir;
+
+    public AgentSnapshotStore(@Value("${agent.snapshot.dir:data/agent-snapshots}") String dir) {
+        this.dir = Paths.get(dir);
+    }
+
+    public void save(AgentSnapshot snapshot) throws IOException {
+        Files.createDirectories(dir);
+        Path target = file(snapshot.agentId());
+        Path tmp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, AgentSnapshotCodec.encode(snapshot));
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public Optional<AgentSnapshot> load(String agentId) {
+        Path file = file(agentId);
+        try {
+            AgentSnapshot snapshot = AgentSnapshotCodec.decode(Files.readAllBytes(file));
+            if (!agentId.equals(snapshot.agentId())) {
+                log.warn("[Snapshot] {} holds agent {}; ignoring", file, snapshot.agentId());
+                return Optional.empty();
+            }
+            return Optional.of(snapshot);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("[Snapshot] Ignoring unreadable snapshot {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void delete(String agentId) {
+        try {
+            Files.deleteIfExists(file(agentId));
+        } catch (IOException e) {
+            log.warn("[Snapshot] Could not delete snapshot for agent {}: {}", agentId, e.getMessage());
+        }
+    }
+
+    private Path file(String agentId) {
+        return dir.resolve(agentId.replaceAll("[^A-Za-z0-9._-]", "_") + SUFFIX);
+    }
+}
@@ -3,74 +3,158 @@ package tradingbot.agent.manager;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import tradingbot.agent.ReactiveTradingAgent;
 import tradingbot.agent.TradingAgent;
+import tradingbot.agent.WarmStartAgent;
 import tradingbot.agent.application.AgentOrchestrator;
 import tradingbot.agent.factory.AgentFactory;
 import tradingbot.agent.infrastructure.repository.AgentEntity;
 import tradingbot.agent.infrastructure.repository.JpaAgentRepository;
+import tradingbot.agent.service.AgentSnapshotService;
+import tradingbot.bot.metrics.TradingMetrics;
+/**
+ * In-memory registry of trading agents.
+ *
+ * <p>Only ACTIVE agents are built at startup: they are read page by page and constructed and
+ * started in parallel on a bounded pool, so the context (and readiness) waits for the agents that
+ * must trade and nothing else. Paused and stopped agents are hydrated from the database on first
+ * access through {@link #getAgent} or {@link #startAgent}. Whenever an agent is started, its bar
+ * series is restored through {@link AgentSnapshotService} when a snapshot exists.
+ *
+ * <p>Because inactive agents are only in memory once touched, {@link #getAgents()} is not a
+ * count of registered agents. {@link #countAgents()} and the {@code trading.bots.registered}
+ * gauge read a counter seeded from the repository at load and maintained on create and delete,
+ * so neither issues a query.
+ */
 @Service
 public class AgentManager {
     private static final Logger log = LoggerFactory.getLogger(AgentManager.class);
 
     private final Map<String, TradingAgent> agents = new ConcurrentHashMap<>();
+    // Seeded from the repository once at load, then kept current by createAgent / deleteAgent
+    private final AtomicLong registeredAgents = new AtomicLong();
 
     private final JpaAgentRepository agentRepository;
     private final AgentFactory agentFactory;
     private final AgentOrchestrator agentOrchestrator;
+    private final int loadParallelism;
+    private final int loadPageSize;
+
+    @Autowired(required = false)
+    private TradingMetrics tradingMetrics;
+
+    @Autowired(required = false)
+    private AgentSnapshotService snapshotService;
 
     public AgentManager(JpaAgentRepository agentRepository, AgentFactory agentFactory,
-                        AgentOrchestrator agentOrchestrator) {
+                        AgentOrchestrator agentOrchestrator,
+                        @Value("${agent.loading.parallelism:0}") int loadParallelism,
+                        @Value("${agent.loading.page-size:200}") int loadPageSize) {
         this.agentRepository = agentRepository;
         this.agentFactory = agentFactory;
         this.agentOrchestrator = agentOrchestrator;
+        this.loadParallelism = loadParallelism > 0
+                ? loadParallelism
+                : Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.loadPageSize = Math.max(1, loadPageSize);
     }
 
     @PostConstruct
     public void loadAgents() {
-        log.info("Loading agents from database...");
-        List<AgentEntity> entities = agentRepository.findAll();
-        for (AgentEntity entity : entities) {
-            try {
-                TradingAgent agent = agentFactory.createAgent(entity);
-                if (agent == null) {
-                    log.warn("Skipping agent {} — factory returned null (check goalDescription JSON)", entity.getId());
-                    continue;
-                }
-                agents.put(agent.getId(), agent);
-                if (agent instanceof ReactiveTradingAgent reactive) {
-                    agentOrchestrator.registerReactiveAgent(reactive);
-                }
-                if (entity.getStatus() == AgentEntity.AgentStatus.ACTIVE) {
-                    log.info("Starting agent: {}", agent.getName());
-                    agent.start();
+        registeredAgents.set(agentRepository.count());
+        if (tradingMetrics != null) {
+            tradingMetrics.countRegisteredBotsWith(registeredAgents::get);
+        }
+        log.info("Loading active agents from database (parallelism={}, pageSize={})...",
+                loadParallelism, loadPageSize);
+        long startNanos = System.nanoTime();
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(loadParallelism, r -> {
+            Thread t = new Thread(r, "agent-loader-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            Pageable pageable = PageRequest.of(0, loadPageSize, Sort.by("id"));
+            Slice<AgentEntity> page;
+            do {
+                // Next page is fetched while the pool is still building this one
+                page = agentRepository.findAllActive(pageable);
+                for (AgentEntity entity : page.getContent()) {
+                    tasks.add(CompletableFuture.runAsync(() -> {
+                        if (loadAgent(entity)) {
+                            loaded.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }, pool));
                 }
-            } catch (Exception e) {
-                log.error("Failed to load agent: {}", entity.getId(), e);
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdown();
+        }
+        log.info("Loaded {} active agents in {} ms ({} failed); inactive agents load on first access",
+                loaded.get(), (System.nanoTime() - startNanos) / 1_000_000, failed.get());
+    }
+
+    /**
+     * Builds, registers and starts one active agent. Runs on the loader pool.
+     */
+    private boolean loadAgent(AgentEntity entity) {
+        try {
+            TradingAgent agent = agentFactory.createAgent(entity);
+            if (agent == null) {
+                log.warn("Skipping agent {} — factory returned null (check goalDescription JSON)", entity.getId());
+                return false;
             }
+            track(agents.put(agent.getId(), agent), agent);
+            if (agent instanceof ReactiveTradingAgent reactive) {
+                agentOrchestrator.registerReactiveAgent(reactive);
+            }
+            log.info("Starting agent: {}", agent.getName());
+            startAndWarm(agent);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to load agent: {}", entity.getId(), e);
+            return false;
         }
-        log.info("Loaded {} agents", agents.size());
     }
 
     public void registerAgent(TradingAgent agent) {
-        agents.put(agent.getId(), agent);
+        track(agents.put(agent.getId(), agent), agent);
         // Note: Persistence is handled by the creator of the agent (e.g. Controller/Service)
         // creating the AgentEntity first.
     }
 
     public void startAgent(String id) {
-        TradingAgent agent = agents.get(id);
+        TradingAgent agent = getAgent(id);
         if (agent != null) {
             if (!agent.isRunning()) {
-                agent.start();
+                startAndWarm(agent);
             }
             updateAgentStatus(id, AgentEntity.AgentStatus.ACTIVE);
             log.info("Agent {} started", id);
@@ -80,18 +164,22 @@ public class AgentManager {
     }
 
     public void stopAgent(String id) {
+        // An agent that was never hydrated is not running, so there is nothing to stop
         TradingAgent agent = agents.get(id);
         if (agent != null) {
             if (agent.isRunning()) {
-                agent.stop();
+                transition(agent, agent::stop);
                 updateAgentStatus(id, AgentEntity.AgentStatus.STOPPED);
                 log.info("Agent {} stopped", id);
             }
-        } else {
+        } else if (!agentRepository.existsById(id)) {
             log.warn("Agent not found: {}", id);
         }
     }
 
+    /**
+     * Starts every agent currently in memory.
+     */
     public void startAll() {
         agents.keySet().forEach(this::startAgent);
     }
@@ -111,12 +199,23 @@ public class AgentManager {
         // OR we rely on the fact that the process is dying.
         
         // Let's just stop the in-memory agents.
-        agents.values().forEach(TradingAgent::stop);
+        agents.values().forEach(agent -> transition(agent, agent::stop));
     }
 
+    /**
+     * @return the agents currently in memory: all active agents plus any hydrated since startup
+     */
     public List<TradingAgent> getAgents() {
         return new ArrayList<>(agents.values());
     }
+
+    /**
+     * @return every registered agent, whether or not it has been loaded into memory
+     */
+    public long countAgents() {
+        return registeredAgents.get();
+    }
+
     private void updateAgentStatus(String id, AgentEntity.AgentStatus status) {
         agentRepository.findById(id).ifPresent(entity -> {
             AgentEntity updated = new AgentEntity.Builder()
@@ -148,9 +247,13 @@ public class AgentManager {
         });
     }
     public TradingAgent createAgent(AgentEntity entity) {
+        boolean isNew = entity.getId() == null || !agentRepository.existsById(entity.getId());
         agentRepository.save(entity);
+        if (isNew) {
+            registeredAgents.incrementAndGet();
+        }
         TradingAgent agent = agentFactory.createAgent(entity); // throws RuntimeException on invalid config
-        agents.put(agent.getId(), agent);
+        track(agents.put(agent.getId(), agent), agent);
         if (agent instanceof ReactiveTradingAgent reactive) {
             agentOrchestrator.registerReactiveAgent(reactive);
         }
@@ -160,14 +263,55 @@ public class AgentManager {
     public void deleteAgent(String id) {
         TradingAgent agent = agents.remove(id);
         if (agent != null && agent.isRunning()) {
-            agent.stop();
+            transition(agent, agent::stop);
         }
+        track(agent, null);
         agentOrchestrator.deregisterReactiveAgent(id);
-        agentRepository.deleteById(id);
+        if (agentRepository.existsById(id)) {
+            agentRepository.deleteById(id);
+            registeredAgents.decrementAndGet();
+        }
+        if (snapshotService != null) {
+            snapshotService.forget(id);
+        }
     }
 
+    /**
+     * Returns the agent, hydrating it from the database on first access.
+     *
+     * @return the agent, or null if it does not exist or cannot be built
+     */
     public TradingAgent getAgent(String id) {
-        return agents.get(id);
+        TradingAgent agent = agents.get(id);
+        return agent != null ? agent : hydrate(id);
+    }
+
+    private TradingAgent hydrate(String id) {
+        AgentEntity entity = agentRepository.findById(id).orElse(null);
+        if (entity == null) {
+            return null;
+        }
+        TradingAgent created;
+        try {
+            created = agentFactory.createAgent(entity);
+        } catch (Exception e) {
+            log.error("Failed to hydrate agent: {}", id, e);
+            return null;
+        }
+        if (created == null) {
+            return null;
+        }
+        // Built outside the map so a slow factory never blocks other lookups; first one in wins
+        TradingAgent existing = agents.putIfAbsent(id, created);
+        if (existing != null) {
+            return existing;
+        }
+        track(null, created);
+        if (created instanceof ReactiveTradingAgent reactive) {
+            agentOrchestrator.registerReactiveAgent(reactive);
+        }
+        log.debug("Hydrated agent {} on first access", id);
+        return created;
     }
 
     public void refreshAgent(String id) {
@@ -176,7 +320,7 @@ public class AgentManager {
         agentRepository.findById(id).ifPresent(entity -> {
             try {
                 TradingAgent agent = agentFactory.createAgent(entity);
-                agents.put(id, agent);
+                track(agents.put(id, agent), agent);
                 if (agent instanceof ReactiveTradingAgent reactive) {
                     agentOrchestrator.registerReactiveAgent(reactive);
                 }
@@ -185,4 +329,40 @@ public class AgentManager {
             }
         });
     }
+
+    /**
+     * Keeps the running gauge in step with a map replacement. Either side may be null.
+     */
+    private void track(TradingAgent previous, TradingAgent current) {
+        if (tradingMetrics == null || previous == current) {
+            return;
+        }
+        if (previous != null && previous.isRunning()) {
+            tradingMetrics.botRunningChanged(false);
+        }
+        if (current != null && current.isRunning()) {
+            tradingMetrics.botRunningChanged(true);
+        }
+    }
+
+    /**
+     * Starts the agent and, when it supports it, restores its bar series from the last snapshot
+     * while it is still initializing, so no live candle reaches it before the restored bars.
+     */
+    private void startAndWarm(TradingAgent agent) {
+        if (snapshotService != null && agent instanceof WarmStartAgent warm) {
+            transition(agent, () -> warm.start(snapshotService::warmStart));
+        } else {
+            transition(agent, agent::start);
+        }
+    }
+
+    private void transition(TradingAgent agent, Runnable action) {
+        boolean wasRunning = agent.isRunning();
+        action.run();
+        boolean running = agent.isRunning();
+        if (tradingMetrics != null && running != wasRunning) {
+            tradingMetrics.botRunningChanged(running);
+        }
+    }
 }
@@ -0,0 +1,236 @@
+package tradingbot.agent.service;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import tradingbot.agent.WarmStartAgent;
+import tradingbot.agent.config.ExchangeServiceRegistry;
+import tradingbot.agent.domain.model.SeriesBar;
+import tradingbot.agent.infrastructure.snapshot.AgentSnapshot;
+import tradingbot.agent.infrastructure.snapshot.AgentSnapshotStore;
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+
+/**
+ * AgentSnapshotService — warm starts agents from their last bar-series snapshot.
+ *
+ * <p>Every {@code agent.snapshot.interval-ms} (and once on shutdown) the last
+ * {@code agent.snapshot.max-bars} bars of each started {@link WarmStartAgent} are written through
+ * {@link AgentSnapshotStore}; agents with no new bar since their previous snapshot are skipped.
+ *
+ * <p>When {@code AgentManager} starts an agent, {@link #warmStart} runs as the warm-up of
+ * {@link WarmStartAgent#start(java.util.function.Consumer)}, before the agent turns
+ * {@code ACTIVE} and accepts live candles. It restores the snapshot and then
+ * fetches only the bars that closed while the process was down — one {@code fetchOhlcv} call of
+ * at most {@code max-bars} candles, instead of the full indicator warm-up. Indicators are derived
+ * from the series, so they are valid again as soon as the bars are back. An outage of
+ * {@code max-bars} candles or more is not bridged: the snapshot is dropped and the agent starts
+ * from the latest candles instead. Agents without a snapshot warm up from live bars exactly as
+ * before, with no REST traffic.
+ */
+@Service
+public class AgentSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(AgentSnapshotService.class);
+
+    private final AgentSnapshotStore store;
+    private final ExchangeServiceRegistry exchangeServiceRegistry;
+    private final boolean enabled;
+    private final int maxBars;
+    private final Clock clock;
+
+    /** Started agents by id, with the close time of the newest bar already on disk. */
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+
+    public AgentSnapshotService(AgentSnapshotStore store,
+                                ExchangeServiceRegistry exchangeServiceRegistry,
+                                @Value("${agent.snapshot.enabled:true}") boolean enabled,
+                                @Value("${agent.snapshot.max-bars:500}") int maxBars) {
+        this(store, exchangeServiceRegistry, enabled, maxBars, Clock.systemUTC());
+    }
+
+    AgentSnapshotService(AgentSnapshotStore store, ExchangeServiceRegistry exchangeServiceRegistry,
+                         boolean enabled, int maxBars, Clock clock) {
+        this.store = store;
+        this.exchangeServiceRegistry = exchangeServiceRegistry;
+        this.enabled = enabled;
+        this.maxBars = Math.max(1, maxBars);
+        this.clock = clock;
+    }
+
+    /**
+     * Restores a freshly started agent from its snapshot, fills the gap since the snapshot from
+     * the exchange, and tracks the agent for periodic snapshots. When the agent was down for
+     * {@code max-bars} candles or more the gap cannot be bridged in one fetch, so the snapshot is
+     * dropped and the agent starts from the latest {@code max-bars} candles instead; appending
+     * them to the snapshot would leave a hole in the series that the indicators run across.
+     *
+     * @return number of bars restored (snapshot plus gap, or the fresh fetch)
+     */
+    public int warmStart(WarmStartAgent agent) {
+        if (!enabled) {
+            return 0;
+        }
+        AgentSnapshot snapshot = store.load(agent.getId()).orElse(null);
+        tracked.put(agent.getId(), new Tracked(agent, snapshot != null ? snapshot.lastBarEnd() : null));
+        if (snapshot == null || snapshot.bars().isEmpty()) {
+            return 0;
+        }
+        if (snapshot.symbol() != null && !snapshot.symbol().equals(agent.getSymbol())) {
+            log.info("[Snapshot] Agent {} now trades {} (snapshot is {}); warming up from scratch",
+                    agent.getId(), agent.getSymbol(), snapshot.symbol());
+            return 0;
+        }
+        List<SeriesBar> bars = snapshot.bars();
+        Instant lastEnd = snapshot.lastBarEnd();
+        Duration interval = bars.size() >= 2 ? Duration.between(bars.get(bars.size() - 2).endTime(), lastEnd) : null;
+        String timeframe = interval != null ? timeframe(interval) : null;
+        Instant now = clock.instant();
+        long missing = timeframe != null ? Duration.between(lastEnd, now).dividedBy(interval) : 0;
+
+        if (missing >= maxBars) {
+            // One extra candle covers the one still forming, which is dropped
+            List<SeriesBar> fresh = fetchClosedBars(agent, timeframe, interval, maxBars + 1, null, now);
+            int restored = fresh != null ? agent.restoreBars(fresh) : 0;
+            log.info("[Snapshot] Agent {} was down for {} bars (max {}); dropped snapshot taken {} and "
+                    + "restored {} fresh bars from {}", agent.getId(), missing, maxBars, snapshot.takenAt(),
+                    restored, agent.getExchange());
+            return restored;
+        }
+
+        int restored = agent.restoreBars(bars);
+        int gap = 0;
+        if (missing > 0) {
+            List<SeriesBar> gapBars = fetchClosedBars(agent, timeframe, interval, (int) missing + 1, lastEnd, now);
+            gap = gapBars != null ? agent.restoreBars(gapBars) : 0;
+        }
+        log.info("[Snapshot] Agent {} restored {} bars from snapshot taken {} and {} gap bars from {}",
+                agent.getId(), restored, snapshot.takenAt(), gap, agent.getExchange());
+        return restored + gap;
+    }
+
+    /**
+     * Stops tracking a deleted agent and removes its snapshot.
+     */
+    public void forget(String agentId) {
+        tracked.remove(agentId);
+        store.delete(agentId);
+    }
+
+    @Scheduled(fixedDelayString = "${agent.snapshot.interval-ms:60000}",
+               initialDelayString = "${agent.snapshot.interval-ms:60000}")
+    public void snapshotAll() {
+        if (!enabled) {
+            return;
+        }
+        int written = 0;
+        for (Tracked entry : tracked.values()) {
+            if (snapshot(entry)) {
+                written++;
+            }
+        }
+        if (written > 0) {
+            log.debug("[Snapshot] Wrote {} agent snapshots", written);
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        snapshotAll();
+    }
+
+    private boolean snapshot(Tracked entry) {
+        WarmStartAgent agent = entry.agent;
+        List<SeriesBar> bars = agent.recentBars(maxBars);
+        if (bars.isEmpty()) {
+            return false;
+        }
+        Instant lastBarEnd = bars.get(bars.size() - 1).endTime();
+        if (lastBarEnd.equals(entry.savedBarEnd)) {
+            return false;
+        }
+        try {
+            store.save(new AgentSnapshot(agent.getId(), agent.getSymbol(), clock.instant(), bars));
+            entry.savedBarEnd = lastBarEnd;
+            return true;
+        } catch (IOException e) {
+            log.warn("[Snapshot] Failed to write snapshot for agent {} (will retry): {}", agent.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Fetches up to {@code limit} candles and keeps those closed after {@code after} (any, when
+     * null) and no later than {@code now}.
+     *
+     * @return the closed bars, or null when the fetch failed
+     */
+    private List<SeriesBar> fetchClosedBars(WarmStartAgent agent, String timeframe, Duration interval,
+                                            int limit, Instant after, Instant now) {
+        try {
+            List<Candle> candles = exchangeServiceRegistry.resolve(agent.getExchange())
+                    .fetchOhlcv(agent.getSymbol(), timeframe, limit);
+            List<SeriesBar> closed = new ArrayList<>(candles.size());
+            for (Candle candle : candles) {
+                Instant closeTime = Instant.ofEpochMilli(candle.getCloseTime());
+                if ((after == null || closeTime.isAfter(after)) && !closeTime.isAfter(now)) {
+                    closed.add(new SeriesBar(closeTime, interval,
+                            candle.getOpen().doubleValue(), candle.getHigh().doubleValue(),
+                            candle.getLow().doubleValue(), candle.getClose().doubleValue(),
+                            candle.getVolume().doubleValue()));
+                }
+            }
+            return closed;
+        } catch (RuntimeException e) {
+            log.warn("[Snapshot] Candle fetch failed for agent {} ({} {} bars): {}",
+                    agent.getId(), agent.getSymbol(), limit, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Maps a bar interval to the exchange timeframe string, or null when it matches none.
+     */
+    static String timeframe(Duration interval) {
+        // Kline close times are the last millisecond of the bar, so spacing may be off by one
+        long seconds = Math.round(interval.toMillis() / 1000.0);
+        return switch ((int) Math.min(seconds, Integer.MAX_VALUE)) {
+            case 60 -> "1m";
+            case 180 -> "3m";
+            case 300 -> "5m";
+            case 900 -> "15m";
+            case 1800 -> "30m";
+            case 3600 -> "1h";
+            case 7200 -> "2h";
+            case 14400 -> "4h";
+            case 21600 -> "6h";
+            case 28800 -> "8h";
+            case 43200 -> "12h";
+            case 86400 -> "1d";
+            default -> null;
+        };
+    }
+
+    private static final class Tracked {
+
+        final WarmStartAgent agent;
+        volatile Instant savedBarEnd;
+
+        Tracked(WarmStartAgent agent, Instant savedBarEnd) {
+            this.agent = agent;
+            this.savedBarEnd = savedBarEnd;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -20,6 +21,8 @@ import tradingbot.agent.infrastructure.persistence.OrderEntity;
 import tradingbot.bot.controller.exception.BotOperationException;
 import tradingbot.bot.events.TradeExecutionEvent;
 import tradingbot.bot.messaging.EventPublisher;
+import tradingbot.domain.market.OrderBook;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
 import tradingbot.agent.config.AgentExecutionContext;
 /**
  * OrderPlacementService - Parses LLM reasoning and executes orders
@@ -77,6 +80,12 @@ public class OrderPlacementService {
     @Value("${rag.order.default-leverage:1}")
     private int defaultLeverage;
 
+    @Value("${orderbook.max-slippage-bps:25}")
+    private double maxSlippageBps;
+
+    @Autowired(required = false)
+    private ExchangeWebSocketClient marketDataClient;
+
     public OrderPlacementService(
             EventPublisher eventPublisher,
             OrderService orderService,
@@ -127,6 +136,23 @@ public class OrderPlacementService {
                 ? perception.getAskPrice()
                 : perception.getBidPrice();
 
+        // With a synced local book, cap the quantity to what rests within the slippage tolerance
+        // and price the fill by walking the real depth
+        OrderBook book = syncedBook(perception.getSymbol());
+        if (book != null) {
+            OrderBook.Side consumed = details.direction() == TradeDirection.LONG ? OrderBook.Side.ASK : OrderBook.Side.BID;
+            double available = book.depthWithinBps(consumed, maxSlippageBps);
+            if (available > 0 && details.quantity() > available) {
+                logger.warn("Quantity {} exceeds {} resting within {} bps on {}, reducing quantity",
+                    details.quantity(), available, maxSlippageBps, perception.getSymbol());
+                details = new OrderDetails(details.direction(), available, details.stopLoss(), details.takeProfit());
+            }
+            double bookFill = book.averageFillPrice(consumed, details.quantity());
+            if (!Double.isNaN(bookFill)) {
+                fillPrice = bookFill;
+            }
+        }
+
         // Validate position size
         double positionSize = details.quantity() * fillPrice;
         double maxPositionSize = agent.getCapital() * (maxPositionSizePercent / 100.0);
@@ -176,6 +202,17 @@ public class OrderPlacementService {
         return order;
     }
     
+    /**
+     * The local book if the symbol's depth stream is subscribed and synced, else null so that the
+     * order is priced from the perceived bid/ask. Never opens a stream or a REST snapshot.
+     */
+    private OrderBook syncedBook(String symbol) {
+        if (marketDataClient == null) {
+            return null;
+        }
+        return marketDataClient.orderBook(symbol).filter(OrderBook::isSynced).orElse(null);
+    }
+
     /**
      * Parse order details from LLM reasoning
      */
@@ -19,11 +19,15 @@ import tradingbot.bot.service.FuturesExchangeService;
  * PositionMonitoringService - Monitors open positions and tracks P&L
  * 
  * This service:
- * 1. Periodically checks all open positions (every 10 seconds)
+ * 1. Periodically checks all open positions (every 'positions.monitor.interval-ms', default 10s)
  * 2. Calculates unrealized P&L for each position
  * 3. Detects when positions are closed
  * 4. Updates position status and realized P&L
  * 5. Triggers RAG updates with trade outcomes
+ *
+ * When {@link PositionTriggerEngine} is streaming, stop-loss / take-profit exits fire from
+ * the WebSocket tick and this poll only reconciles the trigger books and refreshes P&L from
+ * the last streamed price (no REST call). Otherwise levels are checked here as before.
  */
 @Service
 public class PositionMonitoringService {
@@ -32,27 +36,31 @@ public class PositionMonitoringService {
     
     private final PositionRepository positionRepository;
     private final FuturesExchangeService exchangeService;
+    private final PositionTriggerEngine triggerEngine;
     
     public PositionMonitoringService(
             PositionRepository positionRepository,
-            FuturesExchangeService exchangeService) {
+            FuturesExchangeService exchangeService,
+            PositionTriggerEngine triggerEngine) {
         this.positionRepository = positionRepository;
         this.exchangeService = exchangeService;
+        this.triggerEngine = triggerEngine;
     }
     
     /**
-     * Monitor all open positions every 10 seconds
+     * Monitor all open positions every 'positions.monitor.interval-ms'
      */
-    @Scheduled(fixedDelay = 10000, initialDelay = 5000)
+    @Scheduled(fixedDelayString = "${positions.monitor.interval-ms:10000}", initialDelay = 5000)
     public void monitorOpenPositions() {
         try {
             List<PositionEntity> openPositions = positionRepository.findByStatus(PositionEntity.Status.OPEN);
+            triggerEngine.reconcile(openPositions);
             
             if (openPositions.isEmpty()) {
                 return; // No positions to monitor
             }
             
-            logger.info("Monitoring {} open position(s)", openPositions.size());
+            logger.debug("Monitoring {} open position(s)", openPositions.size());
             
             for (PositionEntity positionEntity : openPositions) {
                 try {
@@ -76,8 +84,9 @@ public class PositionMonitoringService {
         String symbol = positionEntity.getSymbol();
         
         try {
-            // Fetch current price
-            double currentPrice = exchangeService.getCurrentPrice(symbol);
+            // Prefer the last streamed price; fall back to REST when the symbol is not streamed
+            Double streamed = triggerEngine.isStreaming() ? triggerEngine.lastPrice(symbol) : null;
+            double currentPrice = streamed != null ? streamed : exchangeService.getCurrentPrice(symbol);
             if (currentPrice <= 0) {
                 logger.warn("Invalid price received for symbol {}", symbol);
                 return;
@@ -104,15 +113,21 @@ public class PositionMonitoringService {
                 String.format("%.2f", unrealizedPnlPercent)
             );
             
-            // Update last checked time and P&L
+            // Update last checked time and P&L, unless the trigger engine closed it meanwhile
             positionEntity.setLastCheckedAt(Instant.now());
             positionEntity.setLastUnrealizedPnl(unrealizedPnl);
-            if (positionEntity.getId() != null) {
-                positionRepository.save(positionEntity);
+            if (positionEntity.getId() != null
+                    && positionRepository.updateMonitoringIfOpen(positionEntity.getId(),
+                            positionEntity.getLastCheckedAt(), unrealizedPnl) == 0) {
+                logger.debug("Position {} closed since it was loaded; skipping", positionEntity.getId());
+                return;
             }
             
-            // Check for stop-loss or take-profit hits (manual trigger if needed)
-            checkStopLossAndTakeProfit(positionEntity, currentPrice);
+            // Check for stop-loss or take-profit hits (manual trigger if needed);
+            // with streaming enabled the trigger engine has already handled them on the tick
+            if (!triggerEngine.isStreaming()) {
+                checkStopLossAndTakeProfit(positionEntity, currentPrice);
+            }
             
         } catch (Exception e) {
             logger.error("Error monitoring position {} on {}: {}", 
@@ -196,43 +211,7 @@ public class PositionMonitoringService {
             PositionEntity positionEntity, 
             double currentPrice, 
             Position.PositionStatus reason) {
-        
-        try {
-            logger.info("Executing emergency exit for position {}: {}",
-                positionEntity.getId(), reason);
-            
-            // Place market order to close position
-            String symbol = positionEntity.getSymbol();
-            double quantity = positionEntity.getQuantity();
-            
-          if (positionEntity.getDirection() == PositionEntity.Direction.LONG) {
-                exchangeService.exitLongPosition(symbol, quantity);
-            } else {
-                exchangeService.exitShortPosition(symbol, quantity);
-            }
-            
-            // Calculate realized P&L
-            double realizedPnl = calculateUnrealizedPnl(
-                positionEntity.getDirection(),
-                positionEntity.getEntryPrice(),
-                currentPrice,
-                quantity
-            );
-            
-            // Update position status
-            positionEntity.setStatus(mapPositionStatus(reason));
-            positionEntity.setExitPrice(currentPrice);
-            positionEntity.setRealizedPnl(realizedPnl);
-            positionEntity.setClosedAt(Instant.now());
-            positionRepository.save(positionEntity);
-            
-            logger.info("Position {} closed: Realized P&L = ${}",
-                positionEntity.getId(), String.format("%.2f", realizedPnl));
-            
-        } catch (Exception e) {
-            logger.error("Failed to execute emergency exit for position {}: {}",
-                positionEntity.getId(), e.getMessage());
-        }
+        triggerEngine.closePosition(positionEntity, currentPrice, reason);
     }
     
     /**
@@ -278,6 +257,7 @@ public class PositionMonitoringService {
         );
         
         positionRepository.save(entity);
+        triggerEngine.arm(entity);
         
         logger.info("Created position: {}", position);
         return position;
@@ -289,16 +269,4 @@ public class PositionMonitoringService {
     public List<PositionEntity> getOpenPositions(String agentId) {
         return positionRepository.findByAgentIdAndStatus(agentId, PositionEntity.Status.OPEN);
     }
-    
-    /**
-     * Map Position.PositionStatus to PositionEntity.Status
-     */
-    private PositionEntity.Status mapPositionStatus(Position.PositionStatus status) {
-        return switch (status) {
-            case OPEN -> PositionEntity.Status.OPEN;
-            case CLOSED -> PositionEntity.Status.CLOSED;
-            case STOPPED_OUT -> PositionEntity.Status.STOPPED_OUT;
-            case LIQUIDATED -> PositionEntity.Status.LIQUIDATED;
-        };
-    }
 }
@@ -0,0 +1,416 @@
+package tradingbot.agent.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import tradingbot.agent.domain.model.Position;
+import tradingbot.agent.infrastructure.persistence.PositionEntity;
+import tradingbot.agent.infrastructure.repository.PositionRepository;
+import tradingbot.bot.events.RiskEvent;
+import tradingbot.bot.messaging.EventPublisher;
+import tradingbot.bot.service.FuturesExchangeService;
+import tradingbot.config.VirtualThreads;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+/**
+ * PositionTriggerEngine - event-driven stop-loss, take-profit and trailing-stop exits
+ * for every open position, long and short, on any symbol.
+ *
+ * Each symbol with armed positions has a {@link TriggerBook} and a WebSocket trade stream.
+ * On every tick only the crossed levels are visited, so exits are dispatched within
+ * milliseconds of the price crossing instead of on the next 10s REST poll.
+ *
+ * Trailing stops ('positions.trigger.trailing-stop-percent', 0 = off) are ratcheted at most
+ * once per 'positions.trigger.trailing-batch-ms' from the extreme price of the batch, and
+ * the moved stops are persisted in one write.
+ *
+ * Requires 'websocket.enabled=true'; otherwise {@link PositionMonitoringService} keeps
+ * checking levels on its REST poll.
+ */
+@Service
+public class PositionTriggerEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionTriggerEngine.class);
+
+    private final PositionRepository positionRepository;
+    private final FuturesExchangeService exchangeService;
+    private final ExchangeWebSocketClient webSocketClient;
+    private final EventPublisher eventPublisher;
+    private final boolean enabled;
+    private final double trailingStopPercent;
+    private final long trailingBatchMs;
+    private final Scheduler exitScheduler = VirtualThreads.blockingScheduler();
+
+    private final Map<String, SymbolBook> books = new ConcurrentHashMap<>();
+    // Fired but not yet closed in the DB; never re-armed by reconcile
+    private final Set<String> pendingExits = ConcurrentHashMap.newKeySet();
+
+    public PositionTriggerEngine(
+            PositionRepository positionRepository,
+            FuturesExchangeService exchangeService,
+            ExchangeWebSocketClient webSocketClient,
+            EventPublisher eventPublisher,
+            @Value("${websocket.enabled:false}") boolean enabled,
+            @Value("${positions.trigger.trailing-stop-percent:0}") double trailingStopPercent,
+            @Value("${positions.trigger.trailing-batch-ms:250}") long trailingBatchMs) {
+        this.positionRepository = positionRepository;
+        this.exchangeService = exchangeService;
+        this.webSocketClient = webSocketClient;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.trailingStopPercent = trailingStopPercent;
+        this.trailingBatchMs = trailingBatchMs;
+    }
+
+    @PostConstruct
+    public void armOpenPositions() {
+        if (!enabled) {
+            logger.info("Position trigger engine disabled (websocket.enabled=false); exits are checked by polling");
+            return;
+        }
+        List<PositionEntity> open = positionRepository.findByStatus(PositionEntity.Status.OPEN);
+        open.forEach(this::arm);
+        logger.info("Position trigger engine armed {} open position(s) across {} symbol(s)",
+                open.size(), books.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        books.values().forEach(book -> {
+            book.lock.lock();
+            try {
+                book.unsubscribe();
+            } finally {
+                book.lock.unlock();
+            }
+        });
+        books.clear();
+    }
+
+    /**
+     * True when exits are driven by the WebSocket stream rather than the REST poll.
+     */
+    public boolean isStreaming() {
+        return enabled;
+    }
+
+    /**
+     * Arm (or re-arm) the exit levels of an open position.
+     */
+    public void arm(PositionEntity position) {
+        if (!enabled || position.getStatus() != PositionEntity.Status.OPEN || pendingExits.contains(position.getId())) {
+            return;
+        }
+        if (position.getStopLoss() == null && position.getTakeProfit() == null && trailingStopPercent <= 0) {
+            return;
+        }
+        TriggerBook.Side side = position.getDirection() == PositionEntity.Direction.LONG
+                ? TriggerBook.Side.LONG
+                : TriggerBook.Side.SHORT;
+        while (true) {
+            SymbolBook book = books.computeIfAbsent(position.getSymbol(), SymbolBook::new);
+            book.lock.lock();
+            try {
+                if (books.get(position.getSymbol()) != book) {
+                    continue; // retired by unsubscribeIfIdle in the meantime
+                }
+                book.triggers.add(position.getId(), side, position.getStopLoss(), position.getTakeProfit(),
+                        trailingStopPercent, position.getEntryPrice());
+                book.subscribe();
+                return;
+            } finally {
+                book.lock.unlock();
+            }
+        }
+    }
+
+    public void disarm(String symbol, String positionId) {
+        SymbolBook book = books.get(symbol);
+        if (book == null) {
+            return;
+        }
+        book.lock.lock();
+        try {
+            book.triggers.remove(positionId);
+        } finally {
+            book.lock.unlock();
+        }
+        unsubscribeIfIdle(book);
+    }
+
+    /**
+     * Bring the books in line with the current set of open positions: arm new ones and
+     * drop those closed elsewhere (exchange-side SL/TP, manual close).
+     */
+    public void reconcile(Collection<PositionEntity> openPositions) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, List<PositionEntity>> bySymbol = openPositions.stream()
+                .collect(Collectors.groupingBy(PositionEntity::getSymbol));
+        for (SymbolBook book : books.values()) {
+            Set<String> stillOpen = bySymbol.getOrDefault(book.symbol, List.of()).stream()
+                    .map(PositionEntity::getId)
+                    .collect(Collectors.toSet());
+            book.lock.lock();
+            try {
+                book.triggers.positionIds().stream()
+                        .filter(id -> !stillOpen.contains(id))
+                        .forEach(book.triggers::remove);
+            } finally {
+                book.lock.unlock();
+            }
+            unsubscribeIfIdle(book);
+        }
+        for (PositionEntity position : openPositions) {
+            SymbolBook book = books.get(position.getSymbol());
+            boolean armed;
+            if (book == null) {
+                armed = false;
+            } else {
+                book.lock.lock();
+                try {
+                    armed = book.triggers.contains(position.getId());
+                } finally {
+                    book.lock.unlock();
+                }
+            }
+            if (!armed) {
+                arm(position);
+            }
+        }
+    }
+
+    /**
+     * Last traded price seen on the stream, or null if the symbol is not streamed.
+     */
+    public Double lastPrice(String symbol) {
+        SymbolBook book = books.get(symbol);
+        return book != null && book.lastPrice > 0 ? book.lastPrice : null;
+    }
+
+    /**
+     * Evaluate one tick. Called on the WebSocket thread; exits are handed to a worker.
+     */
+    void onTick(String symbol, double price) {
+        SymbolBook book = books.get(symbol);
+        if (book == null || price <= 0) {
+            return;
+        }
+        List<TriggerBook.Fired> fired;
+        List<TriggerBook.Adjustment> adjustments = List.of();
+        book.lock.lock();
+        try {
+            book.lastPrice = price;
+            book.triggers.observe(price);
+            long now = System.currentTimeMillis();
+            if (now - book.lastTrailingFlush >= trailingBatchMs) {
+                adjustments = book.triggers.applyTrailing();
+                book.lastTrailingFlush = now;
+            }
+            fired = book.triggers.evaluate(price);
+        } finally {
+            book.lock.unlock();
+        }
+        if (!adjustments.isEmpty()) {
+            List<TriggerBook.Adjustment> batch = adjustments;
+            exitScheduler.schedule(() -> persistTrailingStops(batch));
+        }
+        for (TriggerBook.Fired trigger : fired) {
+            pendingExits.add(trigger.positionId());
+            exitScheduler.schedule(() -> executeExit(trigger, price));
+        }
+        if (!fired.isEmpty()) {
+            unsubscribeIfIdle(book);
+        }
+    }
+
+    /**
+     * Close a position with a market order and record the outcome. Shared with the
+     * polling fallback in {@link PositionMonitoringService}.
+     *
+     * <p>The position is claimed with a conditional update before the order is sent, so when
+     * the engine and the monitor race on the same position only one of them exits it. If the
+     * order fails the claim is undone and the position stays OPEN.
+     *
+     * @return true if this call closed the position
+     */
+    public boolean closePosition(PositionEntity positionEntity, double currentPrice, Position.PositionStatus reason) {
+        String symbol = positionEntity.getSymbol();
+        double quantity = positionEntity.getQuantity();
+        double realizedPnl = positionEntity.getDirection() == PositionEntity.Direction.LONG
+                ? (currentPrice - positionEntity.getEntryPrice()) * quantity
+                : (positionEntity.getEntryPrice() - currentPrice) * quantity;
+        PositionEntity.Status status = mapPositionStatus(reason);
+        Instant closedAt = Instant.now();
+        try {
+            if (positionRepository.closeIfOpen(positionEntity.getId(), status, currentPrice, realizedPnl, closedAt) == 0) {
+                logger.info("Position {} already closed; no exit sent", positionEntity.getId());
+                return false;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to claim position {} for exit: {}", positionEntity.getId(), e.getMessage());
+            return false;
+        }
+
+        try {
+            logger.info("Executing emergency exit for position {}: {}",
+                positionEntity.getId(), reason);
+
+            // Place market order to close position
+            if (positionEntity.getDirection() == PositionEntity.Direction.LONG) {
+                exchangeService.exitLongPosition(symbol, quantity);
+            } else {
+                exchangeService.exitShortPosition(symbol, quantity);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to execute emergency exit for position {}: {}",
+                positionEntity.getId(), e.getMessage());
+            try {
+                positionRepository.reopen(positionEntity.getId(), status);
+            } catch (Exception reopenFailure) {
+                logger.error("Failed to reopen position {} after a failed exit: {}",
+                    positionEntity.getId(), reopenFailure.getMessage());
+            }
+            return false;
+        }
+
+        positionEntity.setStatus(status);
+        positionEntity.setExitPrice(currentPrice);
+        positionEntity.setRealizedPnl(realizedPnl);
+        positionEntity.setClosedAt(closedAt);
+        logger.info("Position {} closed: Realized P&L = ${}",
+            positionEntity.getId(), String.format("%.2f", realizedPnl));
+        return true;
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private void executeExit(TriggerBook.Fired trigger, double price) {
+        try {
+            positionRepository.findById(trigger.positionId())
+                    .filter(p -> p.getStatus() == PositionEntity.Status.OPEN)
+                    .ifPresent(position -> {
+                        logger.warn("{} triggered for {} {} at {} (level: {})", trigger.kind(),
+                                position.getSymbol(), trigger.side(), price, String.format("%.2f", trigger.level()));
+                        Position.PositionStatus reason = trigger.kind() == TriggerBook.Kind.TAKE_PROFIT
+                                ? Position.PositionStatus.CLOSED
+                                : Position.PositionStatus.STOPPED_OUT;
+                        if (closePosition(position, price, reason)) {
+                            publishTriggerEvent(position, trigger, price);
+                        }
+                    });
+        } finally {
+            pendingExits.remove(trigger.positionId());
+        }
+    }
+
+    /**
+     * Map Position.PositionStatus to PositionEntity.Status
+     */
+    private PositionEntity.Status mapPositionStatus(Position.PositionStatus status) {
+        return switch (status) {
+            case OPEN -> PositionEntity.Status.OPEN;
+            case CLOSED -> PositionEntity.Status.CLOSED;
+            case STOPPED_OUT -> PositionEntity.Status.STOPPED_OUT;
+            case LIQUIDATED -> PositionEntity.Status.LIQUIDATED;
+        };
+    }
+
+    private void persistTrailingStops(List<TriggerBook.Adjustment> adjustments) {
+        try {
+            Map<String, Double> levels = adjustments.stream()
+                    .collect(Collectors.toMap(TriggerBook.Adjustment::positionId,
+                            TriggerBook.Adjustment::stopLevel, (a, b) -> b));
+            int updated = 0;
+            for (Map.Entry<String, Double> level : levels.entrySet()) {
+                updated += positionRepository.updateStopLossIfOpen(level.getKey(), level.getValue());
+            }
+            logger.debug("Persisted {} trailing stop adjustment(s)", updated);
+        } catch (Exception e) {
+            logger.error("Failed to persist trailing stop adjustments: {}", e.getMessage());
+        }
+    }
+
+    private void publishTriggerEvent(PositionEntity position, TriggerBook.Fired trigger, double price) {
+        try {
+            RiskEvent riskEvent = new RiskEvent(position.getAgentId(), trigger.kind() + "_TRIGGERED", position.getSymbol());
+            riskEvent.setCurrentPrice(price);
+            riskEvent.setStopPrice(trigger.level());
+            riskEvent.setSeverity("HIGH");
+            // The position is already closed; downstream consumers only record it
+            riskEvent.setAction("ALERT_ONLY");
+            riskEvent.setDescription(String.format("%s %s position %s closed at %.2f (level %.2f)",
+                    trigger.kind(), trigger.side(), position.getId(), price, trigger.level()));
+            eventPublisher.publishRiskEvent(riskEvent);
+        } catch (Exception e) {
+            logger.error("Error publishing trigger event for position {}", position.getId(), e);
+        }
+    }
+
+    private void unsubscribeIfIdle(SymbolBook book) {
+        book.lock.lock();
+        try {
+            if (!book.triggers.isEmpty()) {
+                return;
+            }
+            books.remove(book.symbol, book);
+            book.unsubscribe();
+        } finally {
+            book.lock.unlock();
+        }
+    }
+
+    /**
+     * Trigger book plus stream subscription for one symbol.
+     */
+    private final class SymbolBook {
+
+        final String symbol;
+        final ReentrantLock lock = new ReentrantLock();
+        // Guarded by lock
+        final TriggerBook triggers = new TriggerBook();
+        long lastTrailingFlush;
+        private Disposable subscription;
+        volatile double lastPrice;
+
+        SymbolBook(String symbol) {
+            this.symbol = symbol;
+        }
+
+        void subscribe() {
+            if (subscription != null) {
+                return;
+            }
+            logger.info("Subscribing trigger book to trade stream for {}", symbol);
+            subscription = webSocketClient.streamTrades(symbol)
+                    .doOnNext(event -> onTick(symbol, event.price().doubleValue()))
+                    .onErrorContinue((ex, obj) -> logger.error("Error in trigger stream for {}: {}", symbol, ex.getMessage()))
+                    .subscribe();
+        }
+
+        void unsubscribe() {
+            if (subscription != null) {
+                subscription.dispose();
+                subscription = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package tradingbot.agent.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * TriggerBook - price-indexed exit levels for every armed position on one symbol.
+ *
+ * Levels live in two sorted maps keyed by price:
+ * - fire-at-or-below: long stop-loss / trailing stop, short take-profit
+ * - fire-at-or-above: short stop-loss / trailing stop, long take-profit
+ * so a tick only visits the levels it crossed: O(log n + k) for k fired positions.
+ *
+ * Trailing stops are ratcheted in batches: {@link #observe} only records the extreme prices
+ * since the last flush, and {@link #applyTrailing} moves the stops of positions whose
+ * watermark was exceeded (again O(log n + k), using watermark-sorted maps).
+ *
+ * Not thread-safe; {@link PositionTriggerEngine} serialises access per symbol.
+ */
+final class TriggerBook {
+
+    enum Side { LONG, SHORT }
+
+    enum Kind { STOP_LOSS, TRAILING_STOP, TAKE_PROFIT }
+
+    /** A position whose level was crossed; it has already been removed from the book. */
+    record Fired(String positionId, Side side, Kind kind, double level) {}
+
+    /** A trailing stop moved by {@link #applyTrailing}. */
+    record Adjustment(String positionId, double stopLevel) {}
+
+    private final NavigableMap<Double, Set<String>> fireAtOrBelow = new TreeMap<>();
+    private final NavigableMap<Double, Set<String>> fireAtOrAbove = new TreeMap<>();
+    // Trailing watermarks: highest price seen for longs, lowest for shorts
+    private final NavigableMap<Double, Set<String>> longHighWater = new TreeMap<>();
+    private final NavigableMap<Double, Set<String>> shortLowWater = new TreeMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private double batchHigh = Double.NaN;
+    private double batchLow = Double.NaN;
+
+    /**
+     * Arm (or re-arm) a position. With a trailing percent the stop starts at
+     * {@code referencePrice} minus (long) or plus (short) that percentage, or at
+     * {@code stopLoss} if that is tighter.
+     */
+    void add(String positionId, Side side, Double stopLoss, Double takeProfit,
+             double trailingPercent, double referencePrice) {
+        remove(positionId);
+        Entry entry = new Entry(positionId, side, trailingPercent);
+        entries.put(positionId, entry);
+
+        Double stop = stopLoss;
+        Kind stopKind = Kind.STOP_LOSS;
+        if (entry.trails()) {
+            entry.watermark = referencePrice;
+            index(side == Side.LONG ? longHighWater : shortLowWater, referencePrice, positionId);
+            double trailed = entry.trailedStop(referencePrice);
+            if (stop == null || entry.tighter(trailed, stop)) {
+                stop = trailed;
+                stopKind = Kind.TRAILING_STOP;
+            }
+        }
+        if (stop != null) {
+            setStop(entry, stop, stopKind);
+        }
+        if (takeProfit != null) {
+            entry.takeProfit = takeProfit;
+            index(side == Side.LONG ? fireAtOrAbove : fireAtOrBelow, takeProfit, positionId);
+        }
+    }
+
+    boolean remove(String positionId) {
+        Entry entry = entries.remove(positionId);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.stop != null) {
+            unindex(stopMap(entry.side), entry.stop, positionId);
+        }
+        if (entry.takeProfit != null) {
+            unindex(entry.side == Side.LONG ? fireAtOrAbove : fireAtOrBelow, entry.takeProfit, positionId);
+        }
+        if (entry.trails()) {
+            unindex(entry.side == Side.LONG ? longHighWater : shortLowWater, entry.watermark, positionId);
+        }
+        return true;
+    }
+
+    /**
+     * Record a tick for the next trailing flush. O(1).
+     */
+    void observe(double price) {
+        if (Double.isNaN(batchHigh) || price > batchHigh) {
+            batchHigh = price;
+        }
+        if (Double.isNaN(batchLow) || price < batchLow) {
+            batchLow = price;
+        }
+    }
+
+    /**
+     * Ratchet the trailing stops of every position whose watermark the batch extremes exceeded.
+     */
+    List<Adjustment> applyTrailing() {
+        List<Adjustment> adjustments = new ArrayList<>();
+        if (Double.isNaN(batchHigh)) {
+            return adjustments;
+        }
+        ratchet(longHighWater.headMap(batchHigh, false), batchHigh, longHighWater, adjustments);
+        ratchet(shortLowWater.tailMap(batchLow, false), batchLow, shortLowWater, adjustments);
+        batchHigh = Double.NaN;
+        batchLow = Double.NaN;
+        return adjustments;
+    }
+
+    /**
+     * Remove and return every position with a level crossed by {@code price}.
+     */
+    List<Fired> evaluate(double price) {
+        Map<String, Fired> fired = new LinkedHashMap<>();
+        collect(fireAtOrBelow.tailMap(price, true), true, fired);
+        collect(fireAtOrAbove.headMap(price, true), false, fired);
+        fired.keySet().forEach(this::remove);
+        return new ArrayList<>(fired.values());
+    }
+
+    boolean contains(String positionId) {
+        return entries.containsKey(positionId);
+    }
+
+    Set<String> positionIds() {
+        return new HashSet<>(entries.keySet());
+    }
+
+    Double stopLevel(String positionId) {
+        Entry entry = entries.get(positionId);
+        return entry != null ? entry.stop : null;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private void ratchet(NavigableMap<Double, Set<String>> exceeded, double extreme,
+                         NavigableMap<Double, Set<String>> marks, List<Adjustment> adjustments) {
+        if (exceeded.isEmpty()) {
+            return;
+        }
+        List<String> moved = new ArrayList<>();
+        exceeded.values().forEach(moved::addAll);
+        exceeded.clear();
+        for (String positionId : moved) {
+            Entry entry = entries.get(positionId);
+            entry.watermark = extreme;
+            index(marks, extreme, positionId);
+            double trailed = entry.trailedStop(extreme);
+            if (entry.stop == null || entry.tighter(trailed, entry.stop)) {
+                setStop(entry, trailed, Kind.TRAILING_STOP);
+                adjustments.add(new Adjustment(positionId, trailed));
+            }
+        }
+    }
+
+    private void collect(NavigableMap<Double, Set<String>> crossed, boolean below, Map<String, Fired> fired) {
+        for (Map.Entry<Double, Set<String>> level : crossed.entrySet()) {
+            for (String positionId : level.getValue()) {
+                Entry entry = entries.get(positionId);
+                // A position has at most one level per map: its stop on one side, take-profit on the other
+                Kind kind = (entry.side == Side.LONG) == below ? entry.stopKind : Kind.TAKE_PROFIT;
+                fired.putIfAbsent(positionId, new Fired(positionId, entry.side, kind, level.getKey()));
+            }
+        }
+    }
+
+    private void setStop(Entry entry, double level, Kind kind) {
+        NavigableMap<Double, Set<String>> map = stopMap(entry.side);
+        if (entry.stop != null) {
+            unindex(map, entry.stop, entry.positionId);
+        }
+        entry.stop = level;
+        entry.stopKind = kind;
+        index(map, level, entry.positionId);
+    }
+
+    private NavigableMap<Double, Set<String>> stopMap(Side side) {
+        return side == Side.LONG ? fireAtOrBelow : fireAtOrAbove;
+    }
+
+    private static void index(NavigableMap<Double, Set<String>> map, double level, String positionId) {
+        map.computeIfAbsent(level, k -> new HashSet<>()).add(positionId);
+    }
+
+    private static void unindex(NavigableMap<Double, Set<String>> map, double level, String positionId) {
+        Set<String> ids = map.get(level);
+        if (ids != null && ids.remove(positionId) && ids.isEmpty()) {
+            map.remove(level);
+        }
+    }
+
+    private static final class Entry {
+        final String positionId;
+        final Side side;
+        final double trailingFraction;
+        Double stop;
+        Kind stopKind;
+        Double takeProfit;
+        double watermark;
+
+        Entry(String positionId, Side side, double trailingPercent) {
+            this.positionId = positionId;
+            this.side = side;
+            this.trailingFraction = trailingPercent / 100.0;
+        }
+
+        boolean trails() {
+            return trailingFraction > 0;
+        }
+
+        double trailedStop(double watermark) {
+            return side == Side.LONG ? watermark * (1 - trailingFraction) : watermark * (1 + trailingFraction);
+        }
+
+        /** True if {@code candidate} is closer to the market than {@code current}. */
+        boolean tighter(double candidate, double current) {
+            return side == Side.LONG ? candidate > current : candidate < current;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package tradingbot.bot;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 import jakarta.validation.ConstraintViolation;
@@ -10,11 +12,13 @@ import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import reactor.core.Disposable;
 import tradingbot.agent.TradingAgent;
 import tradingbot.bot.capability.LeverageConfigurable;
 import tradingbot.bot.capability.SentimentAware;
 import tradingbot.bot.events.MarketDataEvent;
 import tradingbot.bot.model.MarketData;
+import tradingbot.bot.scheduling.BotTimerWheel;
 import tradingbot.bot.service.FuturesExchangeService;
 import tradingbot.bot.strategy.analyzer.SentimentAnalyzer;
 import tradingbot.bot.strategy.calculator.IndicatorCalculator;
@@ -22,10 +26,26 @@ import tradingbot.bot.strategy.calculator.IndicatorValues;
 import tradingbot.bot.strategy.exit.PositionExitCondition;
 import tradingbot.bot.strategy.tracker.TrailingStopTracker;
 import tradingbot.config.TradingConfig;
-
+import tradingbot.domain.market.KlineClosedEvent;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+/**
+ * Futures bot driven by events rather than a polling thread.
+ *
+ * <p>The full trading step (indicators, entry and exit checks) runs on the shared {@link
+ * BotTimerWheel}: the first run lands at a random point within the check interval and each later
+ * run is rescheduled with ±10% jitter, so bots started together do not hit the exchange together.
+ * While a position is open, trade / book-ticker prices (from {@link #onEvent} or the optional
+ * {@code priceStream}) move and check the trailing stop without any REST call, and a closed kline
+ * re-evaluates the {@link PositionExitCondition}s.
+ */
 public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, SentimentAware {
     private final Logger logger = Logger.getLogger(FuturesTradingBot.class.getName());
-    private static final int CHECK_INTERVAL_SECONDS = 900; // 15 minutes
+    private static final Duration DEFAULT_CHECK_INTERVAL = Duration.ofMinutes(15);
+    private static final double CHECK_JITTER = 0.1;
+    /** Trailing-stop checks are cheap, but the tracker logs every new extreme; one price per window is enough. */
+    private static final Duration PRICE_SAMPLE = Duration.ofMillis(250);
 
     private final String id;
     private final String name;
@@ -42,6 +62,13 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
     private volatile boolean sentimentEnabled;
     private int currentLeverage;
 
+    private final Duration checkInterval;
+    private final BotTimerWheel timerWheel;
+    private final ExchangeWebSocketClient priceStream;
+    private final ReentrantLock stepLock = new ReentrantLock();
+    private volatile BotTimerWheel.Timeout nextCheck;
+    private volatile Disposable priceSubscription;
+
     // Public getters for accessibility
     public FuturesExchangeService getExchangeService() { return exchangeService; }
     public IndicatorCalculator getIndicatorCalculator() { return indicatorCalculator; }
@@ -71,6 +98,9 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
         this.running = false;
         this.sentimentEnabled = false;
         this.currentLeverage = config.getLeverage();
+        this.checkInterval = params.checkInterval != null ? params.checkInterval : DEFAULT_CHECK_INTERVAL;
+        this.timerWheel = params.timerWheel;
+        this.priceStream = params.priceStream;
         if (!params.skipLeverageInit) {
             initializeLeverage();
         }
@@ -99,6 +129,9 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
         private final TradingConfig config;
         private final TradeDirection direction;
         private final boolean skipLeverageInit;
+        private final Duration checkInterval;
+        private final BotTimerWheel timerWheel;
+        private final ExchangeWebSocketClient priceStream;
 
         private BotParams(Builder builder) {
             this.id = builder.id;
@@ -111,6 +144,9 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
             this.config = builder.config;
             this.direction = builder.direction;
             this.skipLeverageInit = builder.skipLeverageInit;
+            this.checkInterval = builder.checkInterval;
+            this.timerWheel = builder.timerWheel;
+            this.priceStream = builder.priceStream;
         }
 
         public String getId() { return id; }
@@ -148,6 +184,18 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
             return skipLeverageInit;
         }
 
+        public Duration getCheckInterval() {
+            return checkInterval;
+        }
+
+        public BotTimerWheel getTimerWheel() {
+            return timerWheel;
+        }
+
+        public ExchangeWebSocketClient getPriceStream() {
+            return priceStream;
+        }
+
         public static class Builder {
             // Shared validator instance for better performance
             private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
@@ -178,6 +226,10 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
             
             private boolean skipLeverageInit = false; // Default value
 
+            private Duration checkInterval;
+            private BotTimerWheel timerWheel;
+            private ExchangeWebSocketClient priceStream;
+
             public Builder id(String id) {
                 this.id = id;
                 return this;
@@ -273,6 +325,36 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
                 return this;
             }
 
+            /**
+             * Sets the interval between full trading steps.
+             * @param checkInterval the interval (optional, default: 15 minutes)
+             * @return this builder
+             */
+            public Builder checkInterval(Duration checkInterval) {
+                this.checkInterval = checkInterval;
+                return this;
+            }
+
+            /**
+             * Sets the timer wheel that schedules trading steps.
+             * @param timerWheel the timer wheel (optional, default: {@link BotTimerWheel#shared()})
+             * @return this builder
+             */
+            public Builder timerWheel(BotTimerWheel timerWheel) {
+                this.timerWheel = timerWheel;
+                return this;
+            }
+
+            /**
+             * Sets the live trade stream used for trailing-stop checks between trading steps.
+             * @param priceStream the WebSocket client (optional; without it only {@link #onEvent} ticks are used)
+             * @return this builder
+             */
+            public Builder priceStream(ExchangeWebSocketClient priceStream) {
+                this.priceStream = priceStream;
+                return this;
+            }
+
             /**
              * Convenience method for test mode - equivalent to skipLeverageInit(true).
              * @return this builder
@@ -318,14 +400,35 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
             logger.warning("Trading bot is already running");
             return;
         }
-        new Thread(this::run).start();
+        running = true;
+        // First step at a random point in the interval so bots started together are spread out
+        scheduleNextCheck(BotTimerWheel.initialDelay(checkInterval));
+        if (priceStream != null) {
+            priceSubscription = priceStream.streamTrades(config.getSymbol())
+                    .sample(PRICE_SAMPLE)
+                    .subscribe(e -> onPriceTick(e.price().doubleValue()),
+                               e -> logger.warning("Price stream failed for " + config.getSymbol() + ": " + e.getMessage()));
+        }
     }
 
     @Override
     public void stop() {
         running = false;
-        if (isInPosition()) {
-            exitPosition();
+        BotTimerWheel.Timeout check = nextCheck;
+        if (check != null) {
+            check.cancel();
+        }
+        Disposable subscription = priceSubscription;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        stepLock.lock();
+        try {
+            if (isInPosition()) {
+                exitPosition();
+            }
+        } finally {
+            stepLock.unlock();
         }
     }
 
@@ -337,9 +440,61 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
             if (marketData != null) {
                 processMarketData(marketData);
             }
+        } else if (event instanceof StreamMarketDataEvent tick) {
+            if (tick.price() != null && isOwnSymbol(tick.symbol())
+                    && (tick.type() == StreamMarketDataEvent.EventType.TRADE
+                        || tick.type() == StreamMarketDataEvent.EventType.BOOK_TICKER)) {
+                onPriceTick(tick.price().doubleValue());
+            }
+        } else if (event instanceof KlineClosedEvent kline && isOwnSymbol(kline.symbol())) {
+            onBarClosed(kline.close().doubleValue());
         }
     }
 
+    /**
+     * Moves the trailing stop to {@code price} and exits if it is hit. Does nothing outside a
+     * position, and skips the tick if a trading step currently holds the position.
+     */
+    public void onPriceTick(double price) {
+        if (!running || !isInPosition() || !stepLock.tryLock()) {
+            return;
+        }
+        try {
+            if (!isInPosition()) {
+                return;
+            }
+            trailingStopTracker.updateTrailingStop(price);
+            if (trailingStopTracker.checkTrailingStop(price)) {
+                logger.info(() -> "Trailing stop hit at %.2f for %s".formatted(price, config.getSymbol()));
+                exitPosition();
+            }
+        } catch (Exception e) {
+            logger.severe("Error handling price tick for " + config.getSymbol() + ": " + e.getMessage());
+        } finally {
+            stepLock.unlock();
+        }
+    }
+
+    private void onBarClosed(double close) {
+        if (!running || !isInPosition()) {
+            return;
+        }
+        stepLock.lock();
+        try {
+            if (isInPosition() && shouldExitPosition(close)) {
+                exitPosition();
+            }
+        } catch (Exception e) {
+            logger.severe("Error evaluating exit conditions for " + config.getSymbol() + ": " + e.getMessage());
+        } finally {
+            stepLock.unlock();
+        }
+    }
+
+    private boolean isOwnSymbol(String symbol) {
+        return config.getSymbol().equalsIgnoreCase(symbol);
+    }
+
     public void processMarketData(MarketData marketData) {
         // Invalidate or update cachedMarketData to avoid stale data
         cachedMarketData = marketData;
@@ -399,43 +554,51 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
                 config.getSymbol(), currentLeverage, config.getTrailingStopPercent()));
     }
 
-    private void run() {
-        running = true;
-        while (running) {
-            try {
-                executeTradingStep();
-                Thread.sleep(CHECK_INTERVAL_SECONDS * 1000);
-            } catch (InterruptedException e) {
-                logger.severe("Trading loop interrupted");
-                Thread.currentThread().interrupt();
-                running = false;
-            } catch (Exception e) {
-                logger.severe("Error in trading cycle: " + e.getMessage());
-                sleepSafely();
+    private void scheduleNextCheck(Duration delay) {
+        BotTimerWheel wheel = timerWheel != null ? timerWheel : BotTimerWheel.shared();
+        nextCheck = wheel.schedule(this::runScheduledStep, delay);
+    }
+
+    private void runScheduledStep() {
+        if (!running) {
+            return;
+        }
+        try {
+            executeTradingStep();
+        } catch (Exception e) {
+            logger.severe("Error in trading cycle: " + e.getMessage());
+        } finally {
+            if (running) {
+                scheduleNextCheck(BotTimerWheel.jittered(checkInterval, CHECK_JITTER));
             }
         }
     }
 
     public void executeTradingStep() {
-        // Invalidate cache at the start of each step to ensure fresh data for backtesting
-        cachedMarketData = null;
-        
-        double currentPrice = exchangeService.getCurrentPrice(config.getSymbol());
-        trailingStopTracker.updateTrailingStop(currentPrice);
+        stepLock.lock();
+        try {
+            // Invalidate cache at the start of each step to ensure fresh data for backtesting
+            cachedMarketData = null;
 
-        if (isInPosition() && shouldExitPosition(currentPrice)) {
-            exitPosition();
-            return;
-        }
+            double currentPrice = exchangeService.getCurrentPrice(config.getSymbol());
+            trailingStopTracker.updateTrailingStop(currentPrice);
 
-        MarketData marketData = fetchMarketData();
-        if (marketData == null) {
-            return;
-        }
+            if (isInPosition() && shouldExitPosition(currentPrice)) {
+                exitPosition();
+                return;
+            }
 
-        logMarketData(currentPrice, marketData);
-        if (!isInPosition() && isEntrySignalValid(marketData)) {
-            enterPosition();
+            MarketData marketData = fetchMarketData();
+            if (marketData == null) {
+                return;
+            }
+
+            logMarketData(currentPrice, marketData);
+            if (!isInPosition() && isEntrySignalValid(marketData)) {
+                enterPosition();
+            }
+        } finally {
+            stepLock.unlock();
         }
     }
 
@@ -566,14 +729,6 @@ public class FuturesTradingBot implements TradingAgent, LeverageConfigurable, Se
         }
     }
 
-    private void sleepSafely() {
-        try {
-            Thread.sleep(CHECK_INTERVAL_SECONDS * 1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
-
     /**
      * Exception thrown when a trading position entry fails
      */
@@ -1,7 +1,10 @@
 package tradingbot.bot.controller;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -26,6 +29,11 @@ import tradingbot.bot.service.backtest.BacktestRunRegistry;
 import tradingbot.bot.service.backtest.BacktestService;
 import tradingbot.bot.service.backtest.EquityCurveExportService;
 import tradingbot.bot.service.backtest.EquityCurvePoint;
+import tradingbot.bot.service.backtest.PortfolioBacktestService;
+import tradingbot.bot.service.backtest.PortfolioBacktestService.PortfolioBacktestResult;
+import tradingbot.bot.service.backtest.WalkForwardReport;
+import tradingbot.bot.service.backtest.WalkForwardService;
+import tradingbot.bot.service.backtest.WalkForwardWindow;
 import tradingbot.config.TradingConfig;
 
 @RestController
@@ -36,13 +44,19 @@ public class BacktestController {
     private final BacktestService backtestService;
     private final BacktestRunRegistry runRegistry;
     private final EquityCurveExportService exportService;
+    private final PortfolioBacktestService portfolioBacktestService;
+    private final WalkForwardService walkForwardService;
 
     public BacktestController(BacktestService backtestService,
                                BacktestRunRegistry runRegistry,
-                               EquityCurveExportService exportService) {
-        this.backtestService = backtestService;
-        this.runRegistry     = runRegistry;
-        this.exportService   = exportService;
+                               EquityCurveExportService exportService,
+                               PortfolioBacktestService portfolioBacktestService,
+                               WalkForwardService walkForwardService) {
+        this.backtestService          = backtestService;
+        this.runRegistry              = runRegistry;
+        this.exportService            = exportService;
+        this.portfolioBacktestService = portfolioBacktestService;
+        this.walkForwardService       = walkForwardService;
     }
 
     // ── write ─────────────────────────────────────────────────────────────────
@@ -77,6 +91,95 @@ public class BacktestController {
         return ResponseEntity.ok(result);
     }
 
+    @PostMapping(value = "/portfolio", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Run Portfolio Backtest",
+               description = "Replays one CSV per symbol, merged by candle close time, with one agent per config "
+                       + "trading on a shared cross-margin account. Files and configs are matched by position; each "
+                       + "config's leverage applies to its symbol. The portfolio run is stored like a single-symbol run.")
+    public ResponseEntity<PortfolioBacktestResult> runPortfolioBacktest(
+            @Parameter(description = "One CSV of historical candle data per symbol", required = true)
+            @RequestPart("files") List<MultipartFile> files,
+
+            @Parameter(description = "One trading configuration per file, in the same order", required = true)
+            @RequestPart("configs") List<TradingConfig> configs,
+
+            @Parameter(description = "Starting balance of the shared account", example = "10000")
+            @RequestParam(defaultValue = "10000") double initialCapital,
+
+            @Parameter(description = "Simulated network latency in milliseconds", example = "100")
+            @RequestParam(defaultValue = "0") long latencyMs,
+
+            @Parameter(description = "Simulated slippage percentage (0.01 = 1%)", example = "0.001")
+            @RequestParam(defaultValue = "0.0") double slippagePercent,
+
+            @Parameter(description = "Simulated trading fee rate (0.0004 = 0.04%)", example = "0.0004")
+            @RequestParam(defaultValue = "0.0004") double feeRate
+    ) throws IOException {
+
+        if (files.isEmpty() || files.stream().anyMatch(MultipartFile::isEmpty)) {
+            throw new IllegalArgumentException("Files cannot be empty");
+        }
+
+        List<InputStream> csvData = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            csvData.add(file.getInputStream());
+        }
+        PortfolioBacktestResult result = portfolioBacktestService.runPortfolioBacktest(
+                csvData, configs, initialCapital, latencyMs, slippagePercent, feeRate);
+
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/walk-forward", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Run Walk-Forward Optimisation",
+               description = "Splits the CSV into in-sample/out-of-sample windows, picks the best parameter combination "
+                       + "of the grid on each in-sample range with the technical-indicator agent, and replays it on the "
+                       + "following out-of-sample range. The stitched out-of-sample run is stored like a single run.")
+    public ResponseEntity<WalkForwardReport> runWalkForward(
+            @Parameter(description = "CSV file containing historical candle data", required = true)
+            @RequestPart("file") MultipartFile file,
+
+            @Parameter(description = "Base trading configuration every candidate starts from", required = true)
+            @RequestPart("config") TradingConfig config,
+
+            @Parameter(description = "Values to try per parameter, e.g. {\"lookbackPeriodRsi\": [10, 14, 21]}; "
+                    + "omitted = the base configuration alone")
+            @RequestPart(value = "grid", required = false) Map<String, List<Double>> grid,
+
+            @Parameter(description = "Bars per in-sample range (the first range when anchored)", required = true, example = "2000")
+            @RequestParam int inSampleBars,
+
+            @Parameter(description = "Bars per out-of-sample range", required = true, example = "500")
+            @RequestParam int outOfSampleBars,
+
+            @Parameter(description = "ROLLING moves the in-sample start forward; ANCHORED keeps it at the first bar")
+            @RequestParam(defaultValue = "ROLLING") WalkForwardWindow.Mode mode,
+
+            @Parameter(description = "In-sample score to maximise: SHARPE_RATIO or TOTAL_PROFIT")
+            @RequestParam(defaultValue = "SHARPE_RATIO") WalkForwardService.Objective objective,
+
+            @Parameter(description = "Simulated network latency in milliseconds", example = "100")
+            @RequestParam(defaultValue = "0") long latencyMs,
+
+            @Parameter(description = "Simulated slippage percentage (0.01 = 1%)", example = "0.001")
+            @RequestParam(defaultValue = "0.0") double slippagePercent,
+
+            @Parameter(description = "Simulated trading fee rate (0.0004 = 0.04%)", example = "0.0004")
+            @RequestParam(defaultValue = "0.0004") double feeRate
+    ) throws IOException {
+
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File cannot be empty");
+        }
+
+        WalkForwardReport report = walkForwardService.runWalkForward(file.getInputStream(), config,
+                grid != null ? grid : Map.of(),
+                new WalkForwardService.Settings(inSampleBars, outOfSampleBars, mode, objective,
+                        latencyMs, slippagePercent, feeRate));
+
+        return ResponseEntity.ok(report);
+    }
+
     // ── read ──────────────────────────────────────────────────────────────────
 
     @GetMapping("/runs")
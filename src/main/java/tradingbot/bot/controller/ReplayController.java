@@ -0,0 +1,101 @@
+package tradingbot.bot.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import tradingbot.bot.service.replay.ReplayEngine;
+import tradingbot.bot.service.replay.ReplayReport;
+import tradingbot.bot.service.replay.ReplaySegment;
+import tradingbot.bot.service.replay.ReplaySource;
+import tradingbot.config.TradingConfig;
+
+@RestController
+@RequestMapping("/api/v1/replay")
+@Tag(name = "Replay", description = "Recorded session replay API")
+public class ReplayController {
+
+    private final ReplayEngine replayEngine;
+
+    public ReplayController(ReplayEngine replayEngine) {
+        this.replayEngine = replayEngine;
+    }
+
+    @PostMapping
+    @Operation(summary = "Replay a recorded window",
+               description = "Replays the recorded Kafka topics between from and to through fresh technical agents and returns the decision diff. "
+                           + "Stored bots are replayed with their own config; LLM bots are therefore compared with the technical strategy, not reproduced.")
+    public ResponseEntity<ReplayReport> replayWindow(
+            @Parameter(description = "Inclusive window start (ISO-8601)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Exclusive window end (ISO-8601)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Simulated time per unit of wall time; 0 replays as fast as possible", example = "0")
+            @RequestParam(defaultValue = "0") double speed,
+
+            @Parameter(description = "Configuration for recorded bots that are no longer stored and for unrecorded symbols; the symbol is taken from each candle stream")
+            @RequestBody(required = false) TradingConfig config) {
+
+        return ResponseEntity.ok(replayEngine.replay(from, to, config != null ? config : new TradingConfig(), speed));
+    }
+
+    @PostMapping(value = "/segment", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Replay an exported segment",
+               description = "Replays a segment file previously downloaded from /export and returns the decision diff. "
+                           + "Agents are built as for a recorded window.")
+    public ResponseEntity<ReplayReport> replaySegment(
+            @Parameter(description = "Segment file (gzip JSON lines)", required = true)
+            @RequestPart("file") MultipartFile file,
+
+            @Parameter(description = "Configuration for recorded bots that are no longer stored and for unrecorded symbols; the symbol is taken from each candle stream")
+            @RequestPart(value = "config", required = false) TradingConfig config,
+
+            @Parameter(description = "Simulated time per unit of wall time; 0 replays as fast as possible", example = "0")
+            @RequestParam(defaultValue = "0") double speed) throws IOException {
+
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File cannot be empty");
+        }
+        try (InputStream in = file.getInputStream();
+             ReplaySource source = ReplaySegment.read(in)) {
+            return ResponseEntity.ok(replayEngine.replay(source, config != null ? config : new TradingConfig(), speed));
+        }
+    }
+
+    @GetMapping(value = "/export", produces = "application/gzip")
+    @Operation(summary = "Export a recorded window",
+               description = "Downloads the recorded Kafka topics between from and to as a replay segment.")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "Inclusive window start (ISO-8601)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Exclusive window end (ISO-8601)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        StreamingResponseBody body = out -> replayEngine.export(from, to, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"replay-" + from.toEpochMilli() + "-" + to.toEpochMilli() + ".jsonl.gz\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(body);
+    }
+}
@@ -563,7 +563,7 @@ public class TradingBotController {
         BotListResponse response = new BotListResponse(
             paginatedBotIds,
             paginationInfo,
-            agentManager.getAgents().size()
+            (int) agentManager.countAgents()
         );
 
         return ResponseEntity.ok(response);
@@ -595,13 +595,10 @@ public class TradingBotController {
             }
         }
 
-        // Filter by direction — check the in-memory agent's trade direction
+        // Filter by direction — read the persisted config; looking up the agent would hydrate
+        // every bot in the table
         if (direction != null && !direction.isEmpty()) {
-            TradingAgent inMemoryAgent = agentManager.getAgent(agent.getId());
-            if (!(inMemoryAgent instanceof FuturesTradingBot)) {
-                return false;
-            }
-            TradeDirection dir = ((FuturesTradingBot) inMemoryAgent).getDirection();
+            TradeDirection dir = persistedDirection(agent);
             if (dir == null || !dir.name().equalsIgnoreCase(direction)) {
                 return false;
             }
@@ -622,6 +619,26 @@ public class TradingBotController {
         return true;
     }
 
+    /**
+     * Direction a futures bot is built with, as {@code AgentFactory} resolves it from the stored
+     * {@link TradingConfig}; null for agents that are not futures bots or whose config is unreadable.
+     */
+    private TradeDirection persistedDirection(AgentEntity agent) {
+        if (agent.getExecutionMode() != AgentEntity.ExecutionMode.FUTURES
+                && agent.getExecutionMode() != AgentEntity.ExecutionMode.FUTURES_PAPER) {
+            return null;
+        }
+        try {
+            TradingConfig config = objectMapper.readValue(agent.getGoalDescription(), TradingConfig.class);
+            if (config.getDirection() == null || config.getDirection().isBlank()) {
+                return TradeDirection.LONG;
+            }
+            return TradeDirection.valueOf(config.getDirection().toUpperCase());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * Sort bots based on sort field and order
      */
@@ -16,7 +16,7 @@ public class BotListResponse extends BaseResponse {
     @Schema(description = "Pagination information")
     private PaginationInfo pagination;
     
-    @Schema(description = "Number of bots currently active in memory", example = "5")
+    @Schema(description = "Number of registered bots, whether or not they are loaded in memory", example = "5")
     private int activeInMemory;
 
     public BotListResponse() {
@@ -10,6 +10,9 @@ import tradingbot.bot.TradeDirection;
  */
 public class TradeSignalEvent extends TradingEvent {
 
+    /** Metadata key: close time (epoch ms) of the candle an agent decided on. */
+    public static final String KLINE_CLOSE_TIME = "klineCloseTime";
+
     private String symbol;
     private TradeDirection signal;
     private double strength;
@@ -0,0 +1,659 @@
+package tradingbot.bot.grpc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.indicators.ATRIndicator;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.adx.ADXIndicator;
+import org.ta4j.core.indicators.bollinger.BollingerBandsLowerIndicator;
+import org.ta4j.core.indicators.bollinger.BollingerBandsMiddleIndicator;
+import org.ta4j.core.indicators.bollinger.BollingerBandsUpperIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
+import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.Num;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import net.devh.boot.grpc.server.service.GrpcService;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import tradingbot.agent.api.dto.PageCursor;
+import tradingbot.agent.infrastructure.persistence.PositionEntity;
+import tradingbot.agent.infrastructure.repository.PositionRepository;
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+import tradingbot.bot.service.FuturesExchangeService;
+import tradingbot.domain.market.BookTickerPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.grpc.common.ErrorResponse;
+import tradingbot.grpc.common.IndicatorValues;
+import tradingbot.grpc.common.MarketData;
+import tradingbot.grpc.common.Position;
+import tradingbot.grpc.common.TradeDirection;
+import tradingbot.grpc.trading.CalculateIndicatorsRequest;
+import tradingbot.grpc.trading.CalculateIndicatorsResponse;
+import tradingbot.grpc.trading.GetAllPositionsRequest;
+import tradingbot.grpc.trading.GetAllPositionsResponse;
+import tradingbot.grpc.trading.GetMarketDataRequest;
+import tradingbot.grpc.trading.GetMarketDataResponse;
+import tradingbot.grpc.trading.GetPositionRequest;
+import tradingbot.grpc.trading.GetPositionResponse;
+import tradingbot.grpc.trading.GetTradeHistoryRequest;
+import tradingbot.grpc.trading.GetTradeHistoryResponse;
+import tradingbot.grpc.trading.StreamMarketDataRequest;
+import tradingbot.grpc.trading.TradeRecord;
+import tradingbot.grpc.trading.TradingServiceGrpc;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+/**
+ * gRPC Service implementation for Trading Operations
+ *
+ * Read-side trading API for the Gateway: positions, trade history, candles, indicators
+ * and a live market data stream. Order entry (ExecuteTrade, ClosePosition,
+ * UpdatePositionLimits) stays on the agent/REST path and is reported as UNIMPLEMENTED.
+ *
+ * StreamMarketData fans one exchange WebSocket subscription per symbol out to any number
+ * of gRPC subscribers. Each subscriber has a single conflation slot: the feed overwrites
+ * it on every tick and the subscriber drains it only while its call is ready (HTTP/2 flow
+ * control window open). A slow client therefore skips intermediate ticks and always
+ * receives the latest snapshot, and server memory per subscriber stays O(1) regardless of
+ * how far behind it is. All subscribers share one HTTP/2 connection per client channel.
+ * When the upstream errors or completes, every subscriber's call is closed with the same
+ * outcome (an error as {@code UNAVAILABLE}) and the feed is dropped, so the next subscription
+ * opens a fresh upstream instead of joining a dead one.
+ */
+@GrpcService
+public class TradingOperationsServiceImpl extends TradingServiceGrpc.TradingServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradingOperationsServiceImpl.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_CANDLE_LIMIT = 100;
+    private static final int MAX_CANDLE_LIMIT = 1000;
+    private static final int DEFAULT_INDICATOR_PERIOD = 14;
+    // Open-ended trade history upper bound that still fits a SQL TIMESTAMP
+    private static final Instant FAR_FUTURE = Instant.parse("9999-12-31T23:59:59Z");
+
+    private final ExchangeWebSocketClient webSocketClient;
+    private final FuturesExchangeService exchangeService;
+    private final PositionRepository positionRepository;
+
+    private final Map<String, SymbolFeed> feeds = new ConcurrentHashMap<>();
+    private final AtomicLong conflatedTicks = new AtomicLong();
+
+    public TradingOperationsServiceImpl(ExchangeWebSocketClient webSocketClient,
+                                        FuturesExchangeService exchangeService,
+                                        PositionRepository positionRepository) {
+        this.webSocketClient = webSocketClient;
+        this.exchangeService = exchangeService;
+        this.positionRepository = positionRepository;
+    }
+
+    // -------------------------------------------------------------------------
+    // Positions and history
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void getPosition(GetPositionRequest request, StreamObserver<GetPositionResponse> responseObserver) {
+        logger.debug("gRPC GetPosition called for position: {}", request.getPositionId());
+
+        try {
+            Optional<PositionEntity> position = positionRepository.findById(request.getPositionId())
+                    .filter(p -> request.getBotId().isEmpty() || request.getBotId().equals(p.getAgentId()));
+
+            if (position.isEmpty()) {
+                responseObserver.onError(Status.NOT_FOUND
+                        .withDescription("Position not found with ID: " + request.getPositionId())
+                        .asRuntimeException());
+                return;
+            }
+
+            responseObserver.onNext(GetPositionResponse.newBuilder()
+                    .setPosition(toProtoPosition(position.get()))
+                    .build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            logger.error("Error getting position", e);
+            responseObserver.onNext(GetPositionResponse.newBuilder().setError(internalError(e)).build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void getAllPositions(GetAllPositionsRequest request, StreamObserver<GetAllPositionsResponse> responseObserver) {
+        logger.debug("gRPC GetAllPositions called for bot: {}", request.getBotId());
+
+        try {
+            // With closed positions included, return the newest MAX_PAGE_SIZE; GetTradeHistory pages the rest
+            List<PositionEntity> positions;
+            long total;
+            if (request.getIncludeClosed()) {
+                positions = positionRepository.findByAgentId(request.getBotId(),
+                        PageRequest.of(0, MAX_PAGE_SIZE, Sort.by(Sort.Order.desc("openedAt"), Sort.Order.desc("id"))));
+                total = positions.size() < MAX_PAGE_SIZE ? positions.size() : positionRepository.countByAgentId(request.getBotId());
+            } else {
+                positions = positionRepository.findByAgentIdAndStatus(request.getBotId(), PositionEntity.Status.OPEN);
+                total = positions.size();
+            }
+
+            GetAllPositionsResponse.Builder response = GetAllPositionsResponse.newBuilder()
+                    .setTotalCount((int) total);
+            positions.forEach(p -> response.addPositions(toProtoPosition(p)));
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            logger.error("Error listing positions", e);
+            responseObserver.onNext(GetAllPositionsResponse.newBuilder().setError(internalError(e)).build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void getTradeHistory(GetTradeHistoryRequest request, StreamObserver<GetTradeHistoryResponse> responseObserver) {
+        logger.debug("gRPC GetTradeHistory called for bot: {}", request.getBotId());
+
+        try {
+            String agentId = request.getBotId();
+            Instant from = Instant.ofEpochMilli(request.getStartTime());
+            Instant to = request.getEndTime() > 0 ? Instant.ofEpochMilli(request.getEndTime()) : FAR_FUTURE;
+            int pageSize = request.getPageSize() > 0 ? Math.min(request.getPageSize(), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+            int page = Math.max(request.getPage(), 0);
+
+            // Newest first; closed positions are the trade records. A cursor seeks straight to the
+            // next page; without one, page is applied as a database-side offset for older clients.
+            List<PositionEntity> rows;
+            boolean hasMore;
+            if (!request.getCursor().isEmpty()) {
+                PageCursor after = PageCursor.decode(request.getCursor());
+                rows = positionRepository.findClosedPageBefore(agentId, from, to, after.at(), after.id(),
+                        PageRequest.of(0, pageSize + 1));
+                hasMore = rows.size() > pageSize;
+            } else if (page > 0) {
+                rows = positionRepository.findClosedFirstPage(agentId, from, to, PageRequest.of(page, pageSize));
+                hasMore = rows.size() == pageSize;
+            } else {
+                rows = positionRepository.findClosedFirstPage(agentId, from, to, PageRequest.of(0, pageSize + 1));
+                hasMore = rows.size() > pageSize;
+            }
+            List<PositionEntity> trades = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+
+            GetTradeHistoryResponse.Builder response = GetTradeHistoryResponse.newBuilder()
+                    .setTotalCount((int) positionRepository.countClosed(agentId, from, to))
+                    .setPage(page)
+                    .setPageSize(pageSize)
+                    .setTotalPnl(positionRepository.sumClosedRealizedPnl(agentId, from, to))
+                    .setTotalFees(0.0);
+            trades.forEach(p -> response.addTrades(toTradeRecord(p)));
+            if (hasMore && !trades.isEmpty()) {
+                PositionEntity last = trades.get(trades.size() - 1);
+                response.setNextCursor(new PageCursor(last.getClosedAt(), last.getId()).encode());
+            }
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        } catch (Exception e) {
+            logger.error("Error getting trade history", e);
+            responseObserver.onNext(GetTradeHistoryResponse.newBuilder().setError(internalError(e)).build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Market data
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void getMarketData(GetMarketDataRequest request, StreamObserver<GetMarketDataResponse> responseObserver) {
+        logger.debug("gRPC GetMarketData called for symbol: {}", request.getSymbol());
+
+        try {
+            int limit = request.getLimit() > 0 ? Math.min(request.getLimit(), MAX_CANDLE_LIMIT) : DEFAULT_CANDLE_LIMIT;
+            List<Candle> candles = exchangeService.fetchOhlcv(request.getSymbol(), interval(request.getInterval()), limit);
+
+            GetMarketDataResponse.Builder response = GetMarketDataResponse.newBuilder();
+            for (Candle candle : candles) {
+                response.addHistorical(MarketData.newBuilder()
+                        .setSymbol(request.getSymbol())
+                        .setPrice(candle.getClose().doubleValue())
+                        .setVolume(candle.getVolume().doubleValue())
+                        .setTimestamp(candle.getCloseTime())
+                        .setHigh24H(candle.getHigh().doubleValue())
+                        .setLow24H(candle.getLow().doubleValue())
+                        .build());
+            }
+            response.setCurrent(MarketData.newBuilder()
+                    .setSymbol(request.getSymbol())
+                    .setPrice(exchangeService.getCurrentPrice(request.getSymbol()))
+                    .setTimestamp(System.currentTimeMillis())
+                    .build());
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            logger.error("Error getting market data", e);
+            responseObserver.onNext(GetMarketDataResponse.newBuilder().setError(internalError(e)).build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    /**
+     * Live ticks for one symbol. The {@code interval} field is ignored: this is a tick stream,
+     * not a candle stream.
+     */
+    @Override
+    public void streamMarketData(StreamMarketDataRequest request, StreamObserver<MarketData> responseObserver) {
+        String symbol = request.getSymbol();
+        if (symbol.isBlank()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("symbol is required")
+                    .asRuntimeException());
+            return;
+        }
+
+        Subscriber subscriber = new Subscriber((ServerCallStreamObserver<MarketData>) responseObserver);
+        subscriber.call.setOnCancelHandler(() -> unsubscribe(symbol, subscriber));
+        subscriber.call.setOnReadyHandler(subscriber::drain);
+        subscribe(symbol, subscriber);
+        if (subscriber.call.isCancelled()) {
+            // Cancelled before the handler could see the subscription
+            unsubscribe(symbol, subscriber);
+            return;
+        }
+        logger.debug("gRPC StreamMarketData subscribed to {}", symbol);
+    }
+
+    @Override
+    public void calculateIndicators(CalculateIndicatorsRequest request,
+                                    StreamObserver<CalculateIndicatorsResponse> responseObserver) {
+        logger.debug("gRPC CalculateIndicators called for symbol: {}", request.getSymbol());
+
+        try {
+            int period = request.getPeriod() > 0 ? request.getPeriod() : DEFAULT_INDICATOR_PERIOD;
+            // MACD needs 26 bars plus its 9-bar signal; keep enough history for the longest lookback
+            int bars = Math.max(period, 35) * 3;
+            List<Candle> candles = exchangeService.fetchOhlcv(request.getSymbol(), interval(request.getInterval()), bars);
+            if (candles.isEmpty()) {
+                responseObserver.onError(Status.NOT_FOUND
+                        .withDescription("No candles for symbol: " + request.getSymbol())
+                        .asRuntimeException());
+                return;
+            }
+
+            responseObserver.onNext(CalculateIndicatorsResponse.newBuilder()
+                    .setIndicators(indicators(toSeries(request.getSymbol(), candles), period,
+                            Set.copyOf(request.getIndicatorTypesList().stream().map(String::toUpperCase).toList())))
+                    .setCalculatedAt(System.currentTimeMillis())
+                    .build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            logger.error("Error calculating indicators", e);
+            responseObserver.onNext(CalculateIndicatorsResponse.newBuilder().setError(internalError(e)).build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Stream fan-out
+    // -------------------------------------------------------------------------
+
+    private void subscribe(String symbol, Subscriber subscriber) {
+        while (true) {
+            SymbolFeed feed = feeds.computeIfAbsent(symbol, SymbolFeed::new);
+            if (feed.add(subscriber)) {
+                feed.start();
+                return;
+            }
+            // Lost a race with the last subscriber leaving; that feed is closed, make a new one
+            feeds.remove(symbol, feed);
+        }
+    }
+
+    private void unsubscribe(String symbol, Subscriber subscriber) {
+        SymbolFeed feed = feeds.get(symbol);
+        if (feed != null && feed.remove(subscriber)) {
+            feeds.remove(symbol, feed);
+            logger.debug("Last StreamMarketData subscriber left {}; closing upstream", symbol);
+        }
+    }
+
+    int activeFeeds() {
+        return feeds.size();
+    }
+
+    int subscriberCount(String symbol) {
+        SymbolFeed feed = feeds.get(symbol);
+        return feed != null ? feed.subscribers.size() : 0;
+    }
+
+    long conflatedTicks() {
+        return conflatedTicks.get();
+    }
+
+    /**
+     * One shared upstream per symbol: trades carry price/volume, book tickers carry bid/ask;
+     * both update a running snapshot that is published to every subscriber.
+     */
+    private final class SymbolFeed {
+
+        private final String symbol;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final Object lifecycle = new Object();
+        private boolean closed;
+        private Disposable upstream;
+
+        // Written only from the upstream signal thread (Flux.merge serialises onNext)
+        private MarketData snapshot;
+
+        SymbolFeed(String symbol) {
+            this.symbol = symbol;
+            this.snapshot = MarketData.newBuilder().setSymbol(symbol).build();
+        }
+
+        boolean add(Subscriber subscriber) {
+            synchronized (lifecycle) {
+                if (closed) {
+                    return false;
+                }
+                subscribers.add(subscriber);
+                return true;
+            }
+        }
+
+        /** @return true if this was the last subscriber and the feed is now closed */
+        boolean remove(Subscriber subscriber) {
+            Disposable toDispose;
+            synchronized (lifecycle) {
+                if (!subscribers.remove(subscriber) || !subscribers.isEmpty() || closed) {
+                    return false;
+                }
+                closed = true;
+                toDispose = upstream;
+            }
+            if (toDispose != null) {
+                toDispose.dispose();
+            }
+            return true;
+        }
+
+        void start() {
+            synchronized (lifecycle) {
+                if (upstream != null || closed) {
+                    return;
+                }
+                upstream = Flux.merge(webSocketClient.streamTrades(symbol), webSocketClient.streamBookTicker(symbol))
+                        .subscribe(this::publish, this::onUpstreamError, this::onUpstreamComplete);
+            }
+        }
+
+        private void onUpstreamError(Throwable e) {
+            logger.warn("Market data upstream for {} failed: {}", symbol, e.getMessage());
+            terminate(Status.UNAVAILABLE
+                    .withDescription("Market data upstream for " + symbol + " failed")
+                    .withCause(e));
+        }
+
+        private void onUpstreamComplete() {
+            logger.info("Market data upstream for {} completed", symbol);
+            terminate(Status.OK);
+        }
+
+        /** Closes the feed and hands the upstream's terminal signal to every subscriber. */
+        private void terminate(Status status) {
+            List<Subscriber> toClose;
+            synchronized (lifecycle) {
+                closed = true;
+                toClose = List.copyOf(subscribers);
+                subscribers.clear();
+            }
+            feeds.remove(symbol, this);
+            for (Subscriber subscriber : toClose) {
+                subscriber.close(status);
+            }
+        }
+
+        private void publish(StreamMarketDataEvent event) {
+            MarketData.Builder next = snapshot.toBuilder()
+                    .setTimestamp(event.timestamp().toEpochMilli());
+            if (event.payload() instanceof BookTickerPayload book) {
+                next.setBid(book.bidPrice()).setAsk(book.askPrice());
+            } else {
+                next.setPrice(event.price().doubleValue());
+                if (event.quantity() != null) {
+                    next.setVolume(event.quantity().doubleValue());
+                }
+            }
+            snapshot = next.build();
+            // One immutable message shared by all subscribers
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(snapshot);
+            }
+        }
+    }
+
+    /**
+     * A single gRPC stream with a one-slot conflating buffer. {@link #drain} is
+     * serialised with a work-in-progress counter, so upstream ticks and onReady callbacks
+     * from the transport never call {@code onNext} concurrently.
+     */
+    private final class Subscriber {
+
+        private final ServerCallStreamObserver<MarketData> call;
+        private final AtomicReference<MarketData> latest = new AtomicReference<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        // Set once by the feed; delivered by drain after the pending tick
+        private volatile Status terminal;
+        private boolean finished;
+
+        Subscriber(ServerCallStreamObserver<MarketData> call) {
+            this.call = call;
+        }
+
+        void offer(MarketData data) {
+            if (latest.getAndSet(data) != null) {
+                conflatedTicks.incrementAndGet();
+            }
+            drain();
+        }
+
+        void close(Status status) {
+            terminal = status;
+            drain();
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (!call.isCancelled() && call.isReady()) {
+                    MarketData data = latest.getAndSet(null);
+                    if (data == null) {
+                        break;
+                    }
+                    try {
+                        call.onNext(data);
+                    } catch (RuntimeException e) {
+                        // Call already closed by the transport; the cancel handler unsubscribes
+                        logger.debug("Dropping tick for closed stream: {}", e.getMessage());
+                        latest.set(null);
+                        break;
+                    }
+                }
+                Status status = terminal;
+                if (status != null && !finished && latest.get() == null) {
+                    finished = true;
+                    finish(status);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void finish(Status status) {
+            if (call.isCancelled()) {
+                return;
+            }
+            try {
+                if (status.isOk()) {
+                    call.onCompleted();
+                } else {
+                    call.onError(status.asRuntimeException());
+                }
+            } catch (RuntimeException e) {
+                logger.debug("Stream already closed: {}", e.getMessage());
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Mapping helpers
+    // -------------------------------------------------------------------------
+
+    private IndicatorValues indicators(BarSeries series, int period, Set<String> requested) {
+        int last = series.getEndIndex();
+        ClosePriceIndicator close = new ClosePriceIndicator(series);
+        IndicatorValues.Builder values = IndicatorValues.newBuilder();
+
+        if (wants(requested, "RSI")) {
+            values.setRsi(value(new RSIIndicator(close, period), last));
+        }
+        if (wants(requested, "MACD")) {
+            MACDIndicator macd = new MACDIndicator(close, 12, 26);
+            EMAIndicator signal = new EMAIndicator(macd, 9);
+            double macdValue = value(macd, last);
+            double signalValue = value(signal, last);
+            values.setMacd(macdValue).setMacdSignal(signalValue).setMacdHistogram(macdValue - signalValue);
+        }
+        if (wants(requested, "EMA")) {
+            values.setEmaShort(value(new EMAIndicator(close, 12), last))
+                    .setEmaLong(value(new EMAIndicator(close, 26), last));
+        }
+        if (wants(requested, "SMA")) {
+            values.setSma(value(new SMAIndicator(close, period), last));
+        }
+        if (wants(requested, "BOLLINGER")) {
+            BollingerBandsMiddleIndicator middle = new BollingerBandsMiddleIndicator(new SMAIndicator(close, period));
+            StandardDeviationIndicator std = new StandardDeviationIndicator(close, period);
+            values.setBollingerMiddle(value(middle, last))
+                    .setBollingerUpper(value(new BollingerBandsUpperIndicator(middle, std, DecimalNum.valueOf(2)), last))
+                    .setBollingerLower(value(new BollingerBandsLowerIndicator(middle, std, DecimalNum.valueOf(2)), last));
+        }
+        if (wants(requested, "ATR")) {
+            values.setAtr(value(new ATRIndicator(series, period), last));
+        }
+        if (wants(requested, "ADX")) {
+            values.setAdx(value(new ADXIndicator(series, period), last));
+        }
+        return values.build();
+    }
+
+    private static boolean wants(Set<String> requested, String type) {
+        return requested.isEmpty() || requested.contains(type);
+    }
+
+    private static double value(Indicator<Num> indicator, int index) {
+        return indicator.getValue(index).doubleValue();
+    }
+
+    private static BarSeries toSeries(String symbol, List<Candle> candles) {
+        BarSeries series = new BaseBarSeriesBuilder().withName(symbol).build();
+        for (Candle candle : candles) {
+            Duration barDuration = Duration.ofMillis(Math.max(1, candle.getCloseTime() - candle.getOpenTime() + 1));
+            ZonedDateTime endTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(candle.getCloseTime()), ZoneOffset.UTC);
+            series.addBar(barDuration, endTime,
+                    candle.getOpen().doubleValue(),
+                    candle.getHigh().doubleValue(),
+                    candle.getLow().doubleValue(),
+                    candle.getClose().doubleValue(),
+                    candle.getVolume().doubleValue());
+        }
+        return series;
+    }
+
+    private static Position toProtoPosition(PositionEntity entity) {
+        return Position.newBuilder()
+                .setPositionId(entity.getId())
+                .setBotId(entity.getAgentId())
+                .setSymbol(entity.getSymbol())
+                .setDirection(toProtoDirection(entity.getDirection()))
+                .setEntryPrice(entity.getEntryPrice())
+                .setQuantity(entity.getQuantity())
+                .setUnrealizedPnl(entity.getLastUnrealizedPnl())
+                .setRealizedPnl(orZero(entity.getRealizedPnl()))
+                .setEntryTime(entity.getOpenedAt().toEpochMilli())
+                .setStopLoss(orZero(entity.getStopLoss()))
+                .setTakeProfit(orZero(entity.getTakeProfit()))
+                .setStatus(entity.getStatus().name())
+                .build();
+    }
+
+    private static TradeRecord toTradeRecord(PositionEntity entity) {
+        return TradeRecord.newBuilder()
+                .setTradeId(entity.getId())
+                .setBotId(entity.getAgentId())
+                .setSymbol(entity.getSymbol())
+                .setDirection(toProtoDirection(entity.getDirection()))
+                .setEntryPrice(entity.getEntryPrice())
+                .setExitPrice(orZero(entity.getExitPrice()))
+                .setQuantity(entity.getQuantity())
+                .setRealizedPnl(orZero(entity.getRealizedPnl()))
+                .setEntryTime(entity.getOpenedAt().toEpochMilli())
+                .setExitTime(entity.getClosedAt().toEpochMilli())
+                .setStatus(entity.getStatus().name())
+                .build();
+    }
+
+    private static TradeDirection toProtoDirection(PositionEntity.Direction direction) {
+        return direction == PositionEntity.Direction.SHORT ? TradeDirection.SHORT : TradeDirection.LONG;
+    }
+
+    private static String interval(String interval) {
+        return interval == null || interval.isBlank() ? "1m" : interval;
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private static ErrorResponse internalError(Exception e) {
+        return ErrorResponse.newBuilder()
+                .setCode(500)
+                .setMessage("Internal server error")
+                .setDetails(String.valueOf(e.getMessage()))
+                .setTimestamp(Instant.now().toEpochMilli())
+                .build();
+    }
+}
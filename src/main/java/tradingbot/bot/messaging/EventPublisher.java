@@ -21,6 +21,7 @@ import tradingbot.bot.events.RiskEvent;
 import tradingbot.bot.events.TradeExecutionEvent;
 import tradingbot.bot.events.TradeSignalEvent;
 import tradingbot.bot.events.TradingEvent;
+import tradingbot.config.VirtualThreads;
 
 /**
  * Kafka-based Event Publisher for trading events.
@@ -64,7 +65,7 @@ public class EventPublisher {
                 log.error("Failed to publish trade signal event", ex);
                 throw new EventPublishingException("Event publishing failed", ex);
             }
-        });
+        }, VirtualThreads.executor());
     }
     
     /**
@@ -80,7 +81,7 @@ public class EventPublisher {
                 log.error("Failed to publish trade execution event", ex);
                 throw new EventPublishingException("Event publishing failed", ex);
             }
-        });
+        }, VirtualThreads.executor());
     }
     
     /**
@@ -95,7 +96,7 @@ public class EventPublisher {
                 log.error("Failed to publish risk event", ex);
                 throw new EventPublishingException("Event publishing failed", ex);
             }
-        });
+        }, VirtualThreads.executor());
     }
     
     /**
@@ -110,7 +111,7 @@ public class EventPublisher {
             } catch (Exception ex) {
                 log.error("Failed to publish market data event", ex);
             }
-        });
+        }, VirtualThreads.executor());
     }
     
     /**
@@ -125,7 +126,7 @@ public class EventPublisher {
             } catch (Exception ex) {
                 log.error("Failed to publish bot status event", ex);
             }
-        });
+        }, VirtualThreads.executor());
     }
     
     /**
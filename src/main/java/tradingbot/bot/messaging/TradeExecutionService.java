@@ -12,6 +12,7 @@ import tradingbot.bot.events.RiskEvent;
 import tradingbot.bot.events.TradeExecutionEvent;
 import tradingbot.bot.events.TradeSignalEvent;
 import tradingbot.bot.service.FuturesExchangeService;
+import tradingbot.config.VirtualThreads;
 
 /**
  * Event-driven trade execution service that processes trade signals asynchronously.
@@ -80,7 +81,7 @@ public class TradeExecutionService {
                 log.error("Failed to process trade signal: {}", signalEvent.getEventId(), ex);
                 handleTradeExecutionError(signalEvent, ex);
             }
-        });
+        }, VirtualThreads.executor());
     }
     
     /**
@@ -108,7 +109,7 @@ public class TradeExecutionService {
             } catch (Exception ex) {
                 log.error("Failed to process bot status event: {}", statusEvent.getEventId(), ex);
             }
-        });
+        }, VirtualThreads.executor());
     }
 
     /**
@@ -134,7 +135,7 @@ public class TradeExecutionService {
             } catch (Exception ex) {
                 log.error("Failed to process risk event: {}", riskEvent.getEventId(), ex);
             }
-        });
+        }, VirtualThreads.executor());
     }
     
     /**
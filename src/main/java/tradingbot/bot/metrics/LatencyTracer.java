@@ -0,0 +1,248 @@
+package tradingbot.bot.metrics;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Tick-to-trade latency tracing across the market data → Kafka → agent → order pipeline.
+ *
+ * <p>Each market event carries the {@link System#nanoTime()} at which its WebSocket frame
+ * arrived ({@code receivedNanos}), serialized with the event; the Kafka hop adds the publish stamp
+ * and the JVM clock id as record headers. A {@link Trace} is rebuilt from those on the consumer side and stamped at each
+ * later {@link Stage}. Every hop is recorded in {@code trading.latency.stage{stage}} (time since
+ * the previous stamped stage) and a finished trace in {@code trading.latency.tick_to_trade}
+ * ({@code outcome=order|none}). Paths slower than {@code latency.trace.slow-threshold} are logged
+ * with a per-hop breakdown, at most once per {@code latency.trace.slow-log-interval}.
+ *
+ * <p>{@code nanoTime} is only comparable within one JVM, so stamps from a producer with a
+ * different clock id are dropped and the trace starts at {@link Stage#CONSUMED}.
+ */
+@Component
+public class LatencyTracer {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyTracer.class);
+
+    public static final String HEADER_PUBLISHED_NANOS = "x-trace-published-nanos";
+    public static final String HEADER_CLOCK           = "x-trace-clock";
+
+    /** Identifies this JVM's {@code nanoTime} origin in Kafka headers. */
+    public static final long CLOCK_ID = ThreadLocalRandom.current().nextLong();
+
+    public enum Stage {
+        /** WebSocket frame arrived at the exchange adapter. */
+        RECEIVED,
+        /** Handed to the Kafka producer. */
+        PUBLISHED,
+        /** Delivered to the orchestrator (Kafka listener or reactive stream). */
+        CONSUMED,
+        /** Running on the agent scheduler, bulkhead permit held. */
+        DISPATCHED,
+        /** Agent decision produced. */
+        DECIDED,
+        /** Order returned from the execution gateway. */
+        ORDER_SENT
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final long slowLogIntervalNanos;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Timer withOrder;
+    private final Timer withoutOrder;
+    private final AtomicLong lastSlowLog = new AtomicLong(Long.MIN_VALUE);
+
+    public LatencyTracer(MeterRegistry meterRegistry,
+                         @Value("${latency.trace.enabled:true}") boolean enabled,
+                         @Value("${latency.trace.slow-threshold:250ms}") Duration slowThreshold,
+                         @Value("${latency.trace.slow-log-interval:10s}") Duration slowLogInterval) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.slowLogIntervalNanos = slowLogInterval.toNanos();
+        if (!enabled) {
+            this.withOrder = null;
+            this.withoutOrder = null;
+            return;
+        }
+        for (Stage stage : STAGES) {
+            if (stage != Stage.RECEIVED) {
+                stageTimers.put(stage, latencyTimer("trading.latency.stage", "Latency of one pipeline hop")
+                        .tag("stage", stage.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+        }
+        this.withOrder = latencyTimer("trading.latency.tick_to_trade", "Market data arrival to end of trace")
+                .tag("outcome", "order")
+                .register(meterRegistry);
+        this.withoutOrder = latencyTimer("trading.latency.tick_to_trade", "Market data arrival to end of trace")
+                .tag("outcome", "none")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A tracer that records nothing, for components wired without one.
+     */
+    public static LatencyTracer disabled() {
+        return new LatencyTracer(null, false, Duration.ZERO, Duration.ZERO);
+    }
+
+    /**
+     * Starts a trace for an event stamped in this JVM.
+     *
+     * @param receivedNanos the event's {@code receivedNanos}; 0 when the source did not stamp it
+     */
+    public Trace begin(long receivedNanos) {
+        Trace trace = new Trace();
+        if (enabled && receivedNanos != 0) {
+            trace.stamps[Stage.RECEIVED.ordinal()] = receivedNanos;
+        }
+        return trace;
+    }
+
+    /**
+     * Starts a trace from a Kafka record. Header arguments are the raw header values and may be null.
+     */
+    public Trace beginFromKafka(long receivedNanos, byte[] publishedHeader, byte[] clockHeader) {
+        Trace trace = new Trace();
+        if (!enabled || clockHeader == null || decodeLong(clockHeader) != CLOCK_ID) {
+            return trace;
+        }
+        trace.stamps[Stage.RECEIVED.ordinal()] = receivedNanos;
+        if (publishedHeader != null) {
+            long published = decodeLong(publishedHeader);
+            if (receivedNanos != 0) {
+                record(Stage.PUBLISHED, published - receivedNanos);
+            }
+            trace.stamps[Stage.PUBLISHED.ordinal()] = published;
+        }
+        return trace;
+    }
+
+    public static byte[] encodeLong(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    public static long decodeLong(byte[] bytes) {
+        return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0L;
+    }
+
+    private void record(Stage stage, long nanos) {
+        if (nanos >= 0) {
+            stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer.Builder latencyTimer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                .serviceLevelObjectives(Duration.ofNanos(100_000), Duration.ofMillis(1), Duration.ofMillis(5),
+                        Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100),
+                        Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(5))
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(30));
+    }
+
+    /**
+     * Stamps for one event on one agent. Not thread-safe; a trace follows a single dispatch.
+     */
+    public final class Trace {
+
+        private final long[] stamps = new long[STAGES.length];
+
+        private Trace() {
+        }
+
+        /** Stamps {@code stage} now and records the hop from the latest earlier stamp. */
+        public Trace mark(Stage stage) {
+            return mark(stage, System.nanoTime());
+        }
+
+        Trace mark(Stage stage, long nanos) {
+            if (!enabled) {
+                return this;
+            }
+            stamps[stage.ordinal()] = nanos;
+            for (int i = stage.ordinal() - 1; i >= 0; i--) {
+                if (stamps[i] != 0) {
+                    record(stage, nanos - stamps[i]);
+                    break;
+                }
+            }
+            return this;
+        }
+
+        /** Copy for one of several agents dispatched from the same event. */
+        public Trace fork() {
+            Trace copy = new Trace();
+            System.arraycopy(stamps, 0, copy.stamps, 0, stamps.length);
+            return copy;
+        }
+
+        /** @return the stamp for {@code stage}, or 0 if it was not reached */
+        public long stamp(Stage stage) {
+            return stamps[stage.ordinal()];
+        }
+
+        /**
+         * Records the end-to-end latency (when the arrival stamp is known) and logs slow paths.
+         */
+        public void finish(String symbol) {
+            long start = stamps[Stage.RECEIVED.ordinal()];
+            if (!enabled || start == 0) {
+                return;
+            }
+            long end = 0;
+            for (int i = STAGES.length - 1; i > 0 && end == 0; i--) {
+                end = stamps[i];
+            }
+            if (end == 0) {
+                return;
+            }
+            long total = end - start;
+            boolean ordered = stamps[Stage.ORDER_SENT.ordinal()] != 0;
+            (ordered ? withOrder : withoutOrder).record(total, TimeUnit.NANOSECONDS);
+            if (total >= slowThresholdNanos && shouldLogSlow(end)) {
+                log.warn("[LatencyTrace] slow {} path for {}: {} ms total [{}]",
+                        ordered ? "tick-to-trade" : "tick-to-decision", symbol, total / 1_000_000, breakdown());
+            }
+        }
+
+        private String breakdown() {
+            StringBuilder sb = new StringBuilder();
+            long previous = stamps[Stage.RECEIVED.ordinal()];
+            for (int i = 1; i < STAGES.length; i++) {
+                if (stamps[i] == 0) {
+                    continue;
+                }
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(STAGES[i].name().toLowerCase()).append("=+")
+                  .append(String.format("%.3f", (stamps[i] - previous) / 1e6)).append("ms");
+                previous = stamps[i];
+            }
+            return sb.toString();
+        }
+    }
+
+    private boolean shouldLogSlow(long now) {
+        long last = lastSlowLog.get();
+        return (last == Long.MIN_VALUE || now - last >= slowLogIntervalNanos)
+                && lastSlowLog.compareAndSet(last, now);
+    }
+}
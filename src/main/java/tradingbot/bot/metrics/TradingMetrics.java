@@ -1,12 +1,19 @@
 package tradingbot.bot.metrics;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
-import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
-import tradingbot.agent.manager.AgentManager;
 
 /**
  * Custom Micrometer metrics for the Trading Bot, exposed at {@code /actuator/prometheus}.
@@ -16,9 +23,19 @@ import tradingbot.agent.manager.AgentManager;
  *   <li>{@code trading_orders_exited_total}  – counter per symbol / direction</li>
  *   <li>{@code trading_events_published_total} – counter per Kafka event type</li>
  *   <li>{@code trading_order_placement_seconds} – timer for order-placement latency</li>
- *   <li>{@code trading_bots_registered}  – gauge: total registered bots</li>
+ *   <li>{@code trading_tick_ingest_seconds} – timer: market event fan-out to agents</li>
+ *   <li>{@code trading_indicator_compute_seconds} – timer: indicator evaluation per bar</li>
+ *   <li>{@code trading_agent_decision_seconds} – timer: one agent decision</li>
+ *   <li>{@code trading_persistence_seconds} – timer per persistence operation</li>
+ *   <li>{@code trading_bots_registered}  – gauge: total registered bots, in memory or not</li>
  *   <li>{@code trading_bots_running}     – gauge: currently running bots</li>
  * </ul>
+ *
+ * <p>Meters are registered once and cached by tag values, so recording on a hot path is a
+ * map lookup (no builder, tag or registry work). Latency timers publish percentiles and SLO
+ * buckets sized for their stage. The running gauge reads an atomic counter that {@link
+ * tradingbot.agent.manager.AgentManager} maintains on each lifecycle transition; the registered
+ * gauge reads the counter the manager installs, since most agents are never loaded into memory.
  */
 @Component
 public class TradingMetrics {
@@ -26,37 +43,79 @@ public class TradingMetrics {
     private static final String SYMBOL    = "symbol";
     private static final String DIRECTION = "direction";
     private static final String EVENT_TYPE = "eventType";
+    private static final String OPERATION = "operation";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99, 0.999};
 
     private final MeterRegistry meterRegistry;
 
-    /**
-     * {@code ObjectProvider} is used instead of direct injection to break the
-     * circular dependency:
-     * AgentManager → AgentFactory → EventPublisher → TradingMetrics → AgentManager.
-     * The provider is resolved lazily when the Gauge sampler executes.
-     */
-    public TradingMetrics(MeterRegistry meterRegistry, ObjectProvider<AgentManager> agentManagerProvider) {
+    private volatile LongSupplier registeredBots = () -> 0L;
+    private final AtomicInteger runningBots = new AtomicInteger();
+
+    private final TaggedMeters<Counter> ordersEntered;
+    private final TaggedMeters<Counter> ordersExited;
+    private final Map<String, Counter> eventsPublished = new ConcurrentHashMap<>();
+    private final TaggedMeters<Timer> orderPlacement;
+    private final Map<String, Timer> persistence = new ConcurrentHashMap<>();
+
+    private final Timer tickIngest;
+    private final Timer indicatorCompute;
+    private final Timer agentDecision;
+
+    public TradingMetrics(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
 
-        Gauge.builder("trading.bots.registered",
-                      agentManagerProvider, provider -> {
-                          AgentManager am = provider.getIfAvailable();
-                          return am != null ? am.getAgents().size() : 0;
-                      })
+        Gauge.builder("trading.bots.registered", this, metrics -> metrics.registeredBots.getAsLong())
              .description("Total number of registered trading bots")
              .register(meterRegistry);
 
-        Gauge.builder("trading.bots.running",
-                      agentManagerProvider, provider -> {
-                          AgentManager am = provider.getIfAvailable();
-                          return am != null ? am.getAgents().stream()
-                                               .filter(a -> a.isRunning())
-                                               .count() : 0;
-                      })
+        Gauge.builder("trading.bots.running", runningBots, AtomicInteger::get)
              .description("Number of currently running trading bots")
              .register(meterRegistry);
+
+        ordersEntered = new TaggedMeters<>((symbol, direction) -> Counter.builder("trading.orders.entered")
+               .description("Total trading orders entered by symbol and direction")
+               .tag(SYMBOL, symbol)
+               .tag(DIRECTION, direction)
+               .register(meterRegistry));
+
+        ordersExited = new TaggedMeters<>((symbol, direction) -> Counter.builder("trading.orders.exited")
+               .description("Total trading orders exited by symbol and direction")
+               .tag(SYMBOL, symbol)
+               .tag(DIRECTION, direction)
+               .register(meterRegistry));
+
+        orderPlacement = new TaggedMeters<>((symbol, direction) -> latencyTimer("trading.order.placement",
+                    "Latency of order placement operations",
+                    Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+                    Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2))
+                    .tag(SYMBOL, symbol)
+                    .tag(DIRECTION, direction)
+                    .register(meterRegistry));
+
+        tickIngest = latencyTimer("trading.tick.ingest",
+                    "Latency of fanning one market event out to interested agents",
+                    Duration.ofNanos(10_000), Duration.ofNanos(50_000), Duration.ofNanos(100_000),
+                    Duration.ofNanos(500_000), Duration.ofMillis(1), Duration.ofMillis(5))
+                    .register(meterRegistry);
+
+        indicatorCompute = latencyTimer("trading.indicator.compute",
+                    "Latency of computing technical indicators for one bar",
+                    Duration.ofNanos(100_000), Duration.ofNanos(500_000), Duration.ofMillis(1),
+                    Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(50))
+                    .register(meterRegistry);
+
+        agentDecision = latencyTimer("trading.agent.decision",
+                    "Latency of one agent decision, from market event to action",
+                    Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofMillis(100),
+                    Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(15))
+                    .register(meterRegistry);
     }
 
+    // -------------------------------------------------------------------------
+    // Counters
+    // -------------------------------------------------------------------------
+
     /**
      * Records a trade-entry order (long or short position opened).
      *
@@ -64,12 +123,7 @@ public class TradingMetrics {
      * @param direction {@code LONG} or {@code SHORT}
      */
     public void recordOrderEntered(String symbol, String direction) {
-        Counter.builder("trading.orders.entered")
-               .description("Total trading orders entered by symbol and direction")
-               .tag(SYMBOL, symbol)
-               .tag(DIRECTION, direction)
-               .register(meterRegistry)
-               .increment();
+        ordersEntered.get(symbol, direction).increment();
     }
 
     /**
@@ -79,12 +133,7 @@ public class TradingMetrics {
      * @param direction {@code LONG} or {@code SHORT}
      */
     public void recordOrderExited(String symbol, String direction) {
-        Counter.builder("trading.orders.exited")
-               .description("Total trading orders exited by symbol and direction")
-               .tag(SYMBOL, symbol)
-               .tag(DIRECTION, direction)
-               .register(meterRegistry)
-               .increment();
+        ordersExited.get(symbol, direction).increment();
     }
 
     /**
@@ -93,13 +142,17 @@ public class TradingMetrics {
      * @param eventType simple class name of the event, e.g. {@code TradeSignalEvent}
      */
     public void recordEventPublished(String eventType) {
-        Counter.builder("trading.events.published")
+        eventsPublished.computeIfAbsent(eventType, type -> Counter.builder("trading.events.published")
                .description("Total trading events published to Kafka")
-               .tag(EVENT_TYPE, eventType)
-               .register(meterRegistry)
+               .tag(EVENT_TYPE, type)
+               .register(meterRegistry))
                .increment();
     }
 
+    // -------------------------------------------------------------------------
+    // Latency timers
+    // -------------------------------------------------------------------------
+
     /**
      * Returns a {@link Timer} for measuring order-placement latency.
      *
@@ -112,10 +165,98 @@ public class TradingMetrics {
      * @param direction {@code LONG} or {@code SHORT}
      */
     public Timer orderPlacementTimer(String symbol, String direction) {
-        return Timer.builder("trading.order.placement")
-                    .description("Latency of order placement operations")
-                    .tag(SYMBOL, symbol)
-                    .tag(DIRECTION, direction)
-                    .register(meterRegistry);
+        return orderPlacement.get(symbol, direction);
+    }
+
+    public Timer tickIngestTimer() {
+        return tickIngest;
+    }
+
+    public Timer indicatorComputeTimer() {
+        return indicatorCompute;
+    }
+
+    public Timer agentDecisionTimer() {
+        return agentDecision;
+    }
+
+    /**
+     * @param operation short name of the write, e.g. {@code order.save}
+     */
+    public Timer persistenceTimer(String operation) {
+        return persistence.computeIfAbsent(operation, op -> latencyTimer("trading.persistence",
+                    "Latency of database writes on the trading path",
+                    Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10),
+                    Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(500))
+                    .tag(OPERATION, op)
+                    .register(meterRegistry));
+    }
+
+    /**
+     * Records {@code System.nanoTime()} elapsed since {@code startNanos}. A null timer (e.g. from a
+     * mocked {@code TradingMetrics}) is ignored.
+     */
+    public static void recordSince(Timer timer, long startNanos) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Bot lifecycle gauges
+    // -------------------------------------------------------------------------
+
+    /**
+     * @param count source of the registered bot count, read on every scrape; must be a cheap
+     *              in-memory read, not a query
+     */
+    public void countRegisteredBotsWith(LongSupplier count) {
+        this.registeredBots = count;
+    }
+
+    /**
+     * @param running true on a stopped → running transition, false on running → stopped
+     */
+    public void botRunningChanged(boolean running) {
+        if (running) {
+            runningBots.incrementAndGet();
+        } else {
+            runningBots.decrementAndGet();
+        }
+    }
+
+    private static Timer.Builder latencyTimer(String name, String description, Duration... slos) {
+        return Timer.builder(name)
+                    .description(description)
+                    .publishPercentiles(PERCENTILES)
+                    .serviceLevelObjectives(slos)
+                    .minimumExpectedValue(slos[0])
+                    .maximumExpectedValue(slos[slos.length - 1].multipliedBy(10));
+    }
+
+    /**
+     * Two-tag meter cache: nested maps so a hit allocates nothing.
+     */
+    private static final class TaggedMeters<M> {
+
+        private final Map<String, Map<String, M>> meters = new ConcurrentHashMap<>();
+        private final BiFunction<String, String, M> factory;
+        private final Function<String, Map<String, M>> newInner = k -> new ConcurrentHashMap<>();
+
+        TaggedMeters(BiFunction<String, String, M> factory) {
+            this.factory = factory;
+        }
+
+        M get(String first, String second) {
+            Map<String, M> inner = meters.get(first);
+            if (inner == null) {
+                inner = meters.computeIfAbsent(first, newInner);
+            }
+            M meter = inner.get(second);
+            if (meter == null) {
+                meter = inner.computeIfAbsent(second, k -> factory.apply(first, k));
+            }
+            return meter;
+        }
     }
 }
@@ -0,0 +1,229 @@
+package tradingbot.bot.scheduling;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tradingbot.config.VirtualThreads;
+
+/**
+ * Hashed timer wheel shared by all {@link tradingbot.bot.FuturesTradingBot} instances.
+ *
+ * <p>One daemon thread advances the wheel every {@code tick}; a timeout lands in slot
+ * {@code deadlineTick & (slots - 1)} and waits there for the number of full rotations still
+ * outstanding. Scheduling and cancelling are O(1) and lock-free (new timeouts are queued and moved
+ * into their slot on the next tick), so thousands of bots cost one thread and a few bytes each
+ * instead of one sleeping thread per bot. Expired tasks never run on the wheel thread; they are
+ * handed to {@link VirtualThreads#executor()} (or the executor given to the constructor).
+ *
+ * <p>Precision is the tick: a task fires no earlier than its delay and at most about two ticks late.
+ */
+public final class BotTimerWheel implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BotTimerWheel.class);
+
+    private static final Duration DEFAULT_TICK = Duration.ofSeconds(1);
+    private static final int DEFAULT_SLOTS = 1024;
+
+    private static volatile BotTimerWheel shared;
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] slots;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final Executor dispatcher;
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean closed;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public BotTimerWheel(String name, Duration tick, int slots, Executor dispatcher) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("tick must be positive: " + tick);
+        }
+        if (slots <= 0 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("slots must be a power of two: " + slots);
+        }
+        this.tickNanos = tick.toNanos();
+        this.mask = slots - 1;
+        this.slots = new Queue[slots];
+        for (int i = 0; i < slots; i++) {
+            this.slots[i] = new ArrayDeque<>();
+        }
+        this.dispatcher = dispatcher;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * The process-wide wheel (1 s tick, 1024 slots), started on first use.
+     */
+    public static BotTimerWheel shared() {
+        BotTimerWheel wheel = shared;
+        if (wheel == null) {
+            synchronized (BotTimerWheel.class) {
+                wheel = shared;
+                if (wheel == null) {
+                    wheel = new BotTimerWheel("bot-timer-wheel", DEFAULT_TICK, DEFAULT_SLOTS, VirtualThreads.executor());
+                    shared = wheel;
+                }
+            }
+        }
+        return wheel;
+    }
+
+    /**
+     * Runs {@code task} once after {@code delay}.
+     *
+     * @throws IllegalStateException if the wheel has been closed
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (closed) {
+            throw new IllegalStateException("Timer wheel is closed");
+        }
+        long deadline = System.nanoTime() - startNanos + Math.max(0, delay.toNanos());
+        Timeout timeout = new Timeout(task, deadline);
+        scheduled.incrementAndGet();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * {@code interval} scaled by a uniform random factor in {@code [1 - ratio, 1 + ratio]}, so
+     * bots sharing an interval drift apart instead of firing (and calling the exchange) together.
+     */
+    public static Duration jittered(Duration interval, double ratio) {
+        double factor = 1.0 + ratio * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Duration.ofNanos(Math.max(0, (long) (interval.toNanos() * factor)));
+    }
+
+    /**
+     * A uniform random delay in {@code [0, interval)}, for spreading first runs across the interval.
+     */
+    public static Duration initialDelay(Duration interval) {
+        long nanos = interval.toNanos();
+        return nanos <= 0 ? Duration.ZERO : Duration.ofNanos(ThreadLocalRandom.current().nextLong(nanos));
+    }
+
+    /** @return timeouts scheduled and neither fired nor cancelled */
+    public int pendingCount() {
+        return scheduled.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (!closed) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long wait;
+            while (!closed && (wait = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+            if (closed) {
+                break;
+            }
+            transferPending();
+            expire(slots[(int) (tick & mask)]);
+            tick++;
+        }
+        log.debug("Timer wheel stopped with {} timeouts outstanding", scheduled.get());
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long due = (timeout.deadline + tickNanos - 1) / tickNanos;
+            timeout.rounds = Math.max(0, (due - tick) / slots.length);
+            slots[(int) (Math.max(due, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout> slot) {
+        for (int n = slot.size(); n > 0; n--) {
+            Timeout timeout = slot.poll();
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            if (timeout.rounds > 0) {
+                timeout.rounds--;
+                slot.add(timeout);
+                continue;
+            }
+            if (timeout.fire()) {
+                try {
+                    dispatcher.execute(timeout.task);
+                } catch (RuntimeException e) {
+                    log.error("Failed to dispatch timer task", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Handle for a scheduled task.
+     */
+    public final class Timeout {
+
+        private static final int WAITING = 0;
+        private static final int FIRED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private long rounds;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return true if the task will no longer run, false if it already ran
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                scheduled.decrementAndGet();
+                return true;
+            }
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        /** @return time left until the deadline, negative once due */
+        public long remaining(TimeUnit unit) {
+            return unit.convert(deadline - (System.nanoTime() - startNanos), TimeUnit.NANOSECONDS);
+        }
+
+        private boolean fire() {
+            if (state.compareAndSet(WAITING, FIRED)) {
+                scheduled.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -17,6 +17,7 @@ import tradingbot.bot.service.BinanceFuturesService.Candle;
 import tradingbot.bot.service.FuturesExchangeService;
 import tradingbot.bot.service.OrderResult;
 import tradingbot.bot.service.Ticker24hrStats;
+import tradingbot.domain.market.OrderBook;
 
 public class BacktestExchangeService implements FuturesExchangeService {
     private static final Logger logger = LoggerFactory.getLogger(BacktestExchangeService.class);
@@ -38,6 +39,8 @@ public class BacktestExchangeService implements FuturesExchangeService {
     
     private final AtomicLong orderIdGenerator = new AtomicLong(1);
 
+    private OrderBook orderBook;
+
     private static final String LONG_SUFFIX = ":LONG";
     private static final String SHORT_SUFFIX = ":SHORT";
 
@@ -59,6 +62,14 @@ public class BacktestExchangeService implements FuturesExchangeService {
         processPendingOrders();
     }
 
+    /**
+     * Prices market fills by walking {@code orderBook} (e.g. a recorded or synthetic L2 book)
+     * instead of the random slippage model, whenever it is synced and deep enough for the order.
+     */
+    public void setOrderBook(OrderBook orderBook) {
+        this.orderBook = orderBook;
+    }
+
     private void checkLiquidations() {
         double low = currentCandle.getLow().doubleValue();
         double high = currentCandle.getHigh().doubleValue();
@@ -122,6 +133,14 @@ public class BacktestExchangeService implements FuturesExchangeService {
     }
 
     private double calculateExecutionPrice(PendingOrder order) {
+        if (orderBook != null && orderBook.isSynced()) {
+            OrderBook.Side consumed = order.type == OrderType.BUY ? OrderBook.Side.ASK : OrderBook.Side.BID;
+            double bookFill = orderBook.averageFillPrice(consumed, order.amount);
+            if (!Double.isNaN(bookFill)) {
+                return bookFill;
+            }
+        }
+
         // Use Open price as the base for execution (Simulating 'Next Candle Open' execution)
         double price = currentCandle.getOpen().doubleValue();
         
@@ -0,0 +1,67 @@
+package tradingbot.bot.service.backtest;
+
+import reactor.core.publisher.Mono;
+import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.domain.model.AgentDecision;
+import tradingbot.agent.domain.model.AgentDecision.Action;
+import tradingbot.agent.domain.model.AgentStatus;
+import tradingbot.domain.market.KlineClosedEvent;
+
+/**
+ * Replays signals computed earlier by a real agent over the full history, one per closed bar
+ * starting at a given bar index, so that {@link BacktestAgentExecutionService} can simulate any
+ * window of that history without evaluating the agent's indicators again.
+ *
+ * <p>Valid only for agents whose decisions depend on the bars alone; see
+ * {@link tradingbot.agent.impl.TechnicalTradingAgentFactory}.
+ */
+final class CachedSignalAgent implements ReactiveTradingAgent {
+
+    private final String agentId;
+    private final String symbol;
+    private final Action[] signals;
+    private final String reasoning;
+    private int cursor;
+    private AgentStatus status = AgentStatus.ACTIVE;
+
+    /**
+     * @param signals    one action per bar of the full history
+     * @param startIndex history index of the first bar this agent will be shown
+     * @param reasoning  text attached to every decision, e.g. the candidate's parameters
+     */
+    CachedSignalAgent(String agentId, String symbol, Action[] signals, int startIndex, String reasoning) {
+        this.agentId = agentId;
+        this.symbol = symbol;
+        this.signals = signals;
+        this.cursor = startIndex;
+        this.reasoning = reasoning;
+    }
+
+    @Override
+    public Mono<AgentDecision> onKlineClosed(KlineClosedEvent event) {
+        Action action = signals[cursor++];
+        return Mono.just(AgentDecision.of(agentId, symbol, action, action == Action.HOLD ? 50 : 80, reasoning));
+    }
+
+    @Override public String getId()          { return agentId; }
+    @Override public String getName()        { return "CachedSignalAgent[" + agentId + "]"; }
+    @Override public String getSymbol()      { return symbol; }
+    @Override public String getExchange()    { return "BACKTEST"; }
+    @Override public AgentStatus getStatus() { return status; }
+    @Override public boolean isRunning()     { return status == AgentStatus.ACTIVE; }
+    @Override public void start()            { status = AgentStatus.ACTIVE; }
+    @Override public void stop()             { status = AgentStatus.STOPPED; }
+    @Override public void pause()            { status = AgentStatus.PAUSED; }
+    @Override public void resume()           { status = AgentStatus.ACTIVE; }
+
+    @Override
+    public void onEvent(Object event) {
+        // signals are pulled through onKlineClosed only
+    }
+
+    @Override
+    @Deprecated
+    public void executeTrade() {
+        // agents are event-driven
+    }
+}
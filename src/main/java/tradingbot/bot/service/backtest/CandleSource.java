@@ -0,0 +1,49 @@
+package tradingbot.bot.service.backtest;
+
+import java.util.Iterator;
+import java.util.List;
+
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+
+/**
+ * CandleSource — a forward-only stream of one symbol's candles in chronological order.
+ *
+ * <p>Portfolio backtests merge one source per symbol through {@link MergedCandleStream}, which
+ * only ever holds the next candle of each source, so memory stays flat however long the
+ * history is.
+ */
+public interface CandleSource extends Iterator<Candle>, AutoCloseable {
+
+    /** Trading pair whose candles this source yields. */
+    String symbol();
+
+    /** Releases the underlying reader; never throws. */
+    @Override
+    void close();
+
+    /** An in-memory source, for already loaded histories and tests. */
+    static CandleSource of(String symbol, List<Candle> candles) {
+        Iterator<Candle> iterator = candles.iterator();
+        return new CandleSource() {
+            @Override
+            public String symbol() {
+                return symbol;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Candle next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+                // nothing to release
+            }
+        };
+    }
+}
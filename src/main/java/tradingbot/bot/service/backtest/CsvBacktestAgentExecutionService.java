@@ -140,7 +140,7 @@ public class CsvBacktestAgentExecutionService implements BacktestAgentExecutionS
      * Converts a {@link Candle} (epoch-ms timestamps) into a
      * {@link KlineClosedEvent} (Instant).
      */
-    private KlineClosedEvent toKlineEvent(String symbol, Candle candle, TradingConfig config) {
+    static KlineClosedEvent toKlineEvent(String symbol, Candle candle, TradingConfig config) {
         String exchange = "BACKTEST";
         String interval = String.valueOf(config.getInterval()) + "m";
         Instant openTime  = Instant.ofEpochMilli(candle.getOpenTime());
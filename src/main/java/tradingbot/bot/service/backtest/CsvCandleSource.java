@@ -0,0 +1,80 @@
+package tradingbot.bot.service.backtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tradingbot.bot.controller.exception.BotOperationException;
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+
+/**
+ * Streams candles from a CSV in the {@link HistoricalDataLoader} format, reading one row ahead.
+ */
+class CsvCandleSource implements CandleSource {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvCandleSource.class);
+
+    private final String symbol;
+    private final BufferedReader reader;
+    private Candle next;
+    private boolean headerSkipped;
+
+    CsvCandleSource(String symbol, BufferedReader reader) {
+        this.symbol = symbol;
+        this.reader = reader;
+    }
+
+    @Override
+    public String symbol() {
+        return symbol;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Candle next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException(symbol + " has no more candles");
+        }
+        Candle candle = next;
+        next = null;
+        return candle;
+    }
+
+    private Candle readNext() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!headerSkipped) {
+                    headerSkipped = true;
+                    continue; // Skip header
+                }
+                if (!line.isBlank()) {
+                    return HistoricalDataLoader.parseLine(line);
+                }
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            throw new BotOperationException("load_historical_data",
+                    "Failed to read historical data for " + symbol, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            log.warn("Failed to close candle source for {}: {}", symbol, e.getMessage());
+        }
+    }
+}
@@ -42,18 +42,30 @@ public class HistoricalDataLoader {
                 header = false;
                 continue; // Skip header
             }
-            String[] values = line.split(",");
-            // Assuming CSV format: OpenTime, Open, High, Low, Close, Volume, CloseTime
-            Candle candle = new Candle();
-            candle.setOpenTime(Long.parseLong(values[0]));
-            candle.setOpen(new BigDecimal(values[1]));
-            candle.setHigh(new BigDecimal(values[2]));
-            candle.setLow(new BigDecimal(values[3]));
-            candle.setClose(new BigDecimal(values[4]));
-            candle.setVolume(new BigDecimal(values[5]));
-            candle.setCloseTime(Long.parseLong(values[6]));
-            candles.add(candle);
+            candles.add(parseLine(line));
         }
         return candles;
     }
+
+    /**
+     * Opens a {@link CandleSource} that parses {@code inputStream} one row at a time, so a
+     * portfolio backtest holds a single candle per symbol instead of whole files.
+     */
+    public CandleSource openStream(String symbol, InputStream inputStream) {
+        return new CsvCandleSource(symbol, new BufferedReader(new InputStreamReader(inputStream)));
+    }
+
+    static Candle parseLine(String line) {
+        String[] values = line.split(",");
+        // Assuming CSV format: OpenTime, Open, High, Low, Close, Volume, CloseTime
+        Candle candle = new Candle();
+        candle.setOpenTime(Long.parseLong(values[0]));
+        candle.setOpen(new BigDecimal(values[1]));
+        candle.setHigh(new BigDecimal(values[2]));
+        candle.setLow(new BigDecimal(values[3]));
+        candle.setClose(new BigDecimal(values[4]));
+        candle.setVolume(new BigDecimal(values[5]));
+        candle.setCloseTime(Long.parseLong(values[6]));
+        return candle;
+    }
 }
@@ -0,0 +1,102 @@
+package tradingbot.bot.service.backtest;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import tradingbot.bot.controller.exception.BotOperationException;
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+
+/**
+ * MergedCandleStream — k-way merge of per-symbol {@link CandleSource}s into one chronological
+ * stream.
+ *
+ * <p>A priority queue holds the head candle of each source, ordered by close time and then by
+ * the source's position in the list, so bars closing at the same instant always come out in
+ * the same symbol order. Each {@link #next()} is {@code O(log k)} and the stream never holds more
+ * than {@code k} candles.
+ *
+ * <p>Closing the stream closes every source.
+ */
+public class MergedCandleStream implements Iterator<MergedCandleStream.Bar>, AutoCloseable {
+
+    /**
+     * One candle of the merged stream.
+     *
+     * @param symbol trading pair of the source the candle came from
+     * @param candle the candle itself
+     */
+    public record Bar(String symbol, Candle candle) {
+
+        public long closeTime() {
+            return candle.getCloseTime();
+        }
+    }
+
+    private record Head(int source, Candle candle) { }
+
+    private final List<CandleSource> sources;
+    private final long[] lastCloseTimes;
+    private final PriorityQueue<Head> heads;
+
+    public MergedCandleStream(List<CandleSource> sources) {
+        this.sources = List.copyOf(sources);
+        this.lastCloseTimes = new long[sources.size()];
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparingLong((Head h) -> h.candle().getCloseTime()).thenComparingInt(Head::source));
+        try {
+            for (int i = 0; i < this.sources.size(); i++) {
+                lastCloseTimes[i] = Long.MIN_VALUE;
+                advance(i);
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public Bar next() {
+        Head head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException("All candle sources are exhausted");
+        }
+        advance(head.source());
+        return new Bar(sources.get(head.source()).symbol(), head.candle());
+    }
+
+    /** Close time of the bar {@link #next()} would return; only valid while {@link #hasNext()}. */
+    public long peekCloseTime() {
+        Head head = heads.peek();
+        if (head == null) {
+            throw new NoSuchElementException("All candle sources are exhausted");
+        }
+        return head.candle().getCloseTime();
+    }
+
+    private void advance(int source) {
+        CandleSource candles = sources.get(source);
+        if (!candles.hasNext()) {
+            return;
+        }
+        Candle candle = candles.next();
+        if (candle.getCloseTime() < lastCloseTimes[source]) {
+            throw new BotOperationException("portfolio_backtest", candles.symbol()
+                    + " candles are out of order at closeTime " + candle.getCloseTime());
+        }
+        lastCloseTimes[source] = candle.getCloseTime();
+        heads.add(new Head(source, candle));
+    }
+
+    @Override
+    public void close() {
+        sources.forEach(CandleSource::close);
+    }
+}
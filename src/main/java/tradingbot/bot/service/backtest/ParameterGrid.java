@@ -0,0 +1,86 @@
+package tradingbot.bot.service.backtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import tradingbot.config.TradingConfig;
+
+/**
+ * ParameterGrid — expands a base {@link TradingConfig} and a set of values per agent parameter
+ * into the cartesian product of candidate configs.
+ *
+ * <p>Only the indicator parameters an agent reads from its config can be varied; grids naming
+ * anything else are rejected. Combinations with a MACD fast period not below the slow period
+ * are skipped.
+ */
+public final class ParameterGrid {
+
+    private static final Map<String, BiConsumer<TradingConfig, Double>> SETTERS = new LinkedHashMap<>();
+
+    static {
+        SETTERS.put("lookbackPeriodRsi",      (c, v) -> c.setLookbackPeriodRsi(v.intValue()));
+        SETTERS.put("rsiOversoldThreshold",   TradingConfig::setRsiOversoldThreshold);
+        SETTERS.put("rsiOverboughtThreshold", TradingConfig::setRsiOverboughtThreshold);
+        SETTERS.put("macdFastPeriod",         (c, v) -> c.setMacdFastPeriod(v.intValue()));
+        SETTERS.put("macdSlowPeriod",         (c, v) -> c.setMacdSlowPeriod(v.intValue()));
+        SETTERS.put("macdSignalPeriod",       (c, v) -> c.setMacdSignalPeriod(v.intValue()));
+        SETTERS.put("bbPeriod",               (c, v) -> c.setBbPeriod(v.intValue()));
+        SETTERS.put("bbStandardDeviation",    TradingConfig::setBbStandardDeviation);
+    }
+
+    /**
+     * One point of the grid.
+     *
+     * @param index      position in the expansion order; the tie-break between equal scores
+     * @param config     the base config with this point's values applied
+     * @param parameters the varied parameters and their values, in grid order
+     */
+    public record Candidate(int index, TradingConfig config, Map<String, Double> parameters) { }
+
+    private ParameterGrid() {
+    }
+
+    /**
+     * @param base config every candidate starts from (copied, never modified)
+     * @param grid values per parameter name; an empty grid yields the base config alone
+     * @throws IllegalArgumentException on an unknown parameter or an empty value list
+     */
+    public static List<Candidate> expand(TradingConfig base, Map<String, List<Double>> grid) {
+        for (Map.Entry<String, List<Double>> entry : grid.entrySet()) {
+            if (!SETTERS.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("Unknown parameter '" + entry.getKey()
+                        + "'; supported: " + SETTERS.keySet());
+            }
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                throw new IllegalArgumentException("No values for parameter '" + entry.getKey() + "'");
+            }
+        }
+        List<Map<String, Double>> points = new ArrayList<>();
+        points.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<Double>> entry : grid.entrySet()) {
+            List<Map<String, Double>> next = new ArrayList<>(points.size() * entry.getValue().size());
+            for (Map<String, Double> point : points) {
+                for (Double value : entry.getValue()) {
+                    Map<String, Double> extended = new LinkedHashMap<>(point);
+                    extended.put(entry.getKey(), value);
+                    next.add(extended);
+                }
+            }
+            points = next;
+        }
+
+        List<Candidate> candidates = new ArrayList<>(points.size());
+        for (Map<String, Double> point : points) {
+            TradingConfig config = base.withSymbol(base.getSymbol());
+            point.forEach((name, value) -> SETTERS.get(name).accept(config, value));
+            if (config.getMacdFastPeriod() < config.getMacdSlowPeriod()) {
+                candidates.add(new Candidate(candidates.size(), config, Collections.unmodifiableMap(point)));
+            }
+        }
+        return candidates;
+    }
+}
@@ -0,0 +1,304 @@
+package tradingbot.bot.service.backtest;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.TradingAgentFactory;
+import tradingbot.agent.domain.model.AgentDecision;
+import tradingbot.agent.domain.model.AgentDecision.Action;
+import tradingbot.bot.controller.exception.BotOperationException;
+import tradingbot.bot.service.backtest.BacktestAgentExecutionService.ExecutionResult;
+import tradingbot.bot.service.backtest.BacktestAgentExecutionService.TradeEvent;
+import tradingbot.bot.service.backtest.BacktestMetricsCalculator.BacktestMetrics;
+import tradingbot.bot.service.backtest.PortfolioExchangeService.Fill;
+import tradingbot.config.TradingConfig;
+
+/**
+ * PortfolioBacktestService — replays several symbols through several agents on one
+ * cross-margin account.
+ *
+ * <h3>Pipeline</h3>
+ * <ol>
+ *   <li>One {@link CandleSource} per {@link TradingConfig}; {@link MergedCandleStream} merges
+ *       them by close time, so memory is bounded by one candle per symbol plus the
+ *       {@link PortfolioExchangeService} windows, not by the length of the files.</li>
+ *   <li>One agent per config, created through {@link TradingAgentFactory}, each with its
+ *       config's leverage on the shared {@link PortfolioExchangeService}.</li>
+ *   <li>Bars closing at the same instant form a step: the account advances every symbol of the
+ *       step (liquidation check, fills), then the step's agents evaluate their bars
+ *       concurrently, and their decisions are routed in config order.</li>
+ *   <li>One portfolio {@link EquityCurvePoint} per step, at account equity, feeds the usual
+ *       {@link BacktestMetricsCalculator}; the run is stored in {@link BacktestRunRegistry}
+ *       like a single-symbol run.</li>
+ * </ol>
+ *
+ * <h3>Routing</h3>
+ * Same position model as {@link CsvBacktestAgentExecutionService}: BUY enters long or closes a
+ * short, SELL enters short or closes a long, HOLD is a no-op. A symbol with an order still
+ * waiting for its fill ignores further signals. The quantity is the decision's, falling back
+ * to the config's {@code tradeAmount}.
+ */
+@Service
+public class PortfolioBacktestService {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioBacktestService.class);
+
+    /** Symbol recorded on portfolio-level equity curve points. */
+    public static final String PORTFOLIO_SYMBOL = "PORTFOLIO";
+
+    private static final String HOLD = "HOLD";
+    private static final String LIQUIDATION = "LIQUIDATION";
+
+    private final HistoricalDataLoader dataLoader;
+    private final TradingAgentFactory agentFactory;
+    private final BacktestMetricsCalculator metricsCalculator;
+    private final BacktestRunRegistry runRegistry;
+
+    public PortfolioBacktestService(HistoricalDataLoader dataLoader,
+                                    TradingAgentFactory agentFactory,
+                                    BacktestMetricsCalculator metricsCalculator,
+                                    BacktestRunRegistry runRegistry) {
+        this.dataLoader        = dataLoader;
+        this.agentFactory      = agentFactory;
+        this.metricsCalculator = metricsCalculator;
+        this.runRegistry       = runRegistry;
+    }
+
+    /**
+     * Per-symbol breakdown of a portfolio run.
+     *
+     * @param leverage    leverage the symbol traded at
+     * @param bars        candles replayed
+     * @param fills       fills, liquidations included
+     * @param realizedPnl sum of realized PnL net of exit fees
+     */
+    public record SymbolSummary(int leverage, int bars, int fills, double realizedPnl) { }
+
+    /**
+     * Result of a portfolio run.
+     *
+     * @param metrics      portfolio-level metrics and equity curve, also stored in the registry
+     * @param symbols      per-symbol breakdown in config order
+     * @param liquidations cross-margin liquidations; each one closed every open position
+     */
+    public record PortfolioBacktestResult(BacktestMetrics metrics,
+                                          Map<String, SymbolSummary> symbols,
+                                          int liquidations) { }
+
+    /** Mutable per-symbol replay state. */
+    private static final class Leg {
+        final TradingConfig config;
+        ReactiveTradingAgent agent;
+        String reasoning = "";
+        int bars;
+        int fills;
+        double realizedPnl;
+
+        Leg(TradingConfig config) {
+            this.config = config;
+        }
+    }
+
+    // ── public API ─────────────────────────────────────────────────────────────
+
+    /**
+     * Runs a portfolio backtest over one CSV stream per config, matched by position.
+     * Used by {@code BacktestController} (multipart REST upload).
+     */
+    public PortfolioBacktestResult runPortfolioBacktest(List<InputStream> csvData,
+                                                        List<TradingConfig> configs,
+                                                        double initialCapital, long latencyMs,
+                                                        double slippagePercent, double feeRate) {
+        if (csvData.size() != configs.size()) {
+            throw new IllegalArgumentException("Expected one CSV per config, got "
+                    + csvData.size() + " files for " + configs.size() + " configs");
+        }
+        List<CandleSource> sources = new ArrayList<>(configs.size());
+        for (int i = 0; i < configs.size(); i++) {
+            sources.add(dataLoader.openStream(configs.get(i).getSymbol(), csvData.get(i)));
+        }
+        return run(sources, configs, initialCapital,
+                new PortfolioExchangeService(initialCapital, latencyMs, slippagePercent, feeRate));
+    }
+
+    /**
+     * Runs a portfolio backtest over already opened sources, which are closed when it ends.
+     * {@code sources} and {@code configs} are matched by position.
+     */
+    public PortfolioBacktestResult run(List<CandleSource> sources, List<TradingConfig> configs,
+                                       double initialCapital, PortfolioExchangeService exchange) {
+        try (MergedCandleStream stream = new MergedCandleStream(sources)) {
+            Map<String, Leg> legs = legs(sources, configs);
+            try {
+                for (Leg leg : legs.values()) {
+                    exchange.setLeverage(leg.config.getSymbol(), Math.max(1, leg.config.getLeverage()));
+                    leg.agent = agentFactory.create(leg.config);
+                }
+                log.info("[PortfolioBacktest] starting replay: symbols={} agent={}",
+                        legs.keySet(), agentFactory.describe());
+                return replay(stream, legs, initialCapital, exchange);
+            } finally {
+                for (Leg leg : legs.values()) {
+                    if (leg.agent != null) {
+                        leg.agent.stop(); // release ta4j / scheduler resources
+                    }
+                }
+            }
+        }
+    }
+
+    // ── private pipeline ───────────────────────────────────────────────────────
+
+    private Map<String, Leg> legs(List<CandleSource> sources, List<TradingConfig> configs) {
+        if (configs.isEmpty() || sources.size() != configs.size()) {
+            throw new IllegalArgumentException("Expected one candle source per config, got "
+                    + sources.size() + " sources for " + configs.size() + " configs");
+        }
+        Map<String, Leg> legs = new LinkedHashMap<>();
+        for (int i = 0; i < configs.size(); i++) {
+            String symbol = configs.get(i).getSymbol();
+            if (!symbol.equals(sources.get(i).symbol())) {
+                throw new IllegalArgumentException("Source " + i + " holds " + sources.get(i).symbol()
+                        + ", config expects " + symbol);
+            }
+            if (legs.putIfAbsent(symbol, new Leg(configs.get(i))) != null) {
+                throw new IllegalArgumentException("Duplicate symbol in portfolio: " + symbol);
+            }
+        }
+        return legs;
+    }
+
+    private PortfolioBacktestResult replay(MergedCandleStream stream, Map<String, Leg> legs,
+                                           double initialCapital, PortfolioExchangeService exchange) {
+        List<TradeEvent> trades = new ArrayList<>();
+        List<EquityCurvePoint> equityCurve = new ArrayList<>();
+        List<MergedCandleStream.Bar> step = new ArrayList<>(legs.size());
+        int barsProcessed = 0;
+
+        while (stream.hasNext()) {
+            // 1. Collect every bar closing at the next instant
+            step.clear();
+            long closeTime = stream.peekCloseTime();
+            while (stream.hasNext() && stream.peekCloseTime() == closeTime) {
+                step.add(stream.next());
+            }
+            int stepIndex = equityCurve.size();
+            String stepAction = HOLD;
+
+            // 2. Advance the account: liquidation check + pending fills per symbol
+            for (MergedCandleStream.Bar bar : step) {
+                exchange.onCandle(bar.symbol(), bar.candle());
+                legs.get(bar.symbol()).bars++;
+                if (recordFills(exchange.drainFills(), stepIndex, legs, trades)) {
+                    stepAction = LIQUIDATION;
+                }
+            }
+            barsProcessed += step.size();
+
+            // 3. Agents evaluate the step concurrently; decisions are routed in config order
+            List<Optional<AgentDecision>> decisions = Flux.mergeSequential(
+                    step.stream().map(bar -> decide(legs.get(bar.symbol()), bar)).toList())
+                    .collectList()
+                    .block();
+            for (int i = 0; i < step.size(); i++) {
+                Optional<AgentDecision> decision = decisions.get(i);
+                if (decision.isPresent()) {
+                    String action = route(exchange, legs.get(step.get(i).symbol()), decision.get());
+                    if (!HOLD.equals(action) && HOLD.equals(stepAction)) {
+                        stepAction = action;
+                    }
+                }
+            }
+
+            // 4. One portfolio equity sample per step (drawdownPct filled in by the metrics calculator)
+            equityCurve.add(new EquityCurvePoint(stepIndex, Instant.ofEpochMilli(closeTime),
+                    BigDecimal.valueOf(exchange.getEquity()), 0.0, stepAction, PORTFOLIO_SYMBOL));
+        }
+
+        if (barsProcessed == 0) {
+            throw new BotOperationException("backtest", "No data loaded for " + legs.keySet());
+        }
+        BacktestMetrics metrics = metricsCalculator.calculate(
+                new ExecutionResult(trades, equityCurve, barsProcessed), initialCapital);
+        runRegistry.save(metrics);
+
+        Map<String, SymbolSummary> symbols = new LinkedHashMap<>();
+        legs.forEach((symbol, leg) -> symbols.put(symbol, new SymbolSummary(
+                Math.max(1, leg.config.getLeverage()), leg.bars, leg.fills, leg.realizedPnl)));
+        log.info("[PortfolioBacktest] replay complete: steps={} bars={} trades={} liquidations={} metrics={}",
+                equityCurve.size(), barsProcessed, trades.size(), exchange.getLiquidationCount(), metrics);
+        return new PortfolioBacktestResult(metrics, symbols, exchange.getLiquidationCount());
+    }
+
+    /** Converts fills to trade events; returns true when one of them was a liquidation. */
+    private boolean recordFills(List<Fill> fills, int stepIndex, Map<String, Leg> legs, List<TradeEvent> trades) {
+        boolean liquidated = false;
+        for (Fill fill : fills) {
+            Leg leg = legs.get(fill.symbol());
+            leg.fills++;
+            leg.realizedPnl += fill.realizedPnl();
+            liquidated |= fill.liquidation();
+            trades.add(new TradeEvent(stepIndex, fill.symbol(), fill.side(), fill.price(), fill.quantity(),
+                    fill.realizedPnl(), fill.liquidation() ? "Cross-margin liquidation" : leg.reasoning));
+        }
+        return liquidated;
+    }
+
+    private Mono<Optional<AgentDecision>> decide(Leg leg, MergedCandleStream.Bar bar) {
+        String symbol = bar.symbol();
+        return Mono.defer(() -> leg.agent.onKlineClosed(
+                        CsvBacktestAgentExecutionService.toKlineEvent(symbol, bar.candle(), leg.config)))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(ex -> {
+                    log.warn("[PortfolioBacktest] {} bar {} agent error: {}", symbol, bar.closeTime(), ex.getMessage());
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    /** Places the order a decision calls for; returns the bar action, {@code HOLD} when none. */
+    private String route(PortfolioExchangeService exchange, Leg leg, AgentDecision decision) {
+        String symbol = leg.config.getSymbol();
+        if (decision.action() == Action.HOLD || exchange.hasPendingOrder(symbol)) {
+            return HOLD;
+        }
+        String side = exchange.getPositionSide(symbol);
+        double quantity = decision.quantity() != null && decision.quantity() > 0
+                ? decision.quantity() : leg.config.getTradeAmount();
+
+        if (decision.action() == Action.BUY) {
+            if ("LONG".equals(side)) {
+                return HOLD;
+            }
+            if ("SHORT".equals(side)) {
+                exchange.exitShortPosition(symbol, exchange.getPositionQuantity(symbol));
+            } else {
+                exchange.enterLongPosition(symbol, quantity);
+            }
+        } else {
+            if ("SHORT".equals(side)) {
+                return HOLD;
+            }
+            if ("LONG".equals(side)) {
+                exchange.exitLongPosition(symbol, exchange.getPositionQuantity(symbol));
+            } else {
+                exchange.enterShortPosition(symbol, quantity);
+            }
+        }
+        leg.reasoning = decision.reasoning();
+        return decision.action().name();
+    }
+}
@@ -0,0 +1,480 @@
+package tradingbot.bot.service.backtest;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+import tradingbot.bot.service.FuturesExchangeService;
+import tradingbot.bot.service.OrderResult;
+import tradingbot.bot.service.Ticker24hrStats;
+
+/**
+ * PortfolioExchangeService — a backtest account that trades several symbols on one cross
+ * margin wallet.
+ *
+ * <p>Unlike {@link BacktestExchangeService}, which holds one leverage setting and a single
+ * candle history, every symbol here has its own leverage, mark price and bounded candle window,
+ * while margin is shared: an entry on any symbol draws on the same available balance, and
+ * unrealized losses on one symbol reduce what every other symbol can use.
+ *
+ * <h3>Replay contract</h3>
+ * Feed candles in chronological order through {@link #onCandle(String, Candle)}. For each
+ * candle the account
+ * <ol>
+ *   <li>fills this symbol's pending orders at the bar's open, with slippage against the
+ *       trade;</li>
+ *   <li>checks cross-margin liquidation with this symbol at its adverse extreme of the bar
+ *       (low for longs, high for shorts) and every other symbol at its last close; when equity
+ *       falls to the maintenance margin, <em>all</em> positions are closed together, this
+ *       symbol at the price where equity met maintenance (or at the open if the bar gapped
+ *       through it) and the others at their last close;</li>
+ *   <li>marks the symbol at the bar's close.</li>
+ * </ol>
+ *
+ * <h3>Accounting</h3>
+ * <ul>
+ *   <li>Wallet balance — deposit plus realized PnL minus fees.</li>
+ *   <li>Equity — wallet balance plus unrealized PnL at mark prices.</li>
+ *   <li>Available balance ({@link #getMarginBalance()}) — equity minus the initial margin of
+ *       open positions.</li>
+ * </ul>
+ * Positions are one-way: a symbol is long, short or flat; an entry on the same side adds to
+ * the position at the average price, an entry against it is rejected.
+ *
+ * <p>Not thread-safe; a replay drives it from one thread.
+ */
+public class PortfolioExchangeService implements FuturesExchangeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioExchangeService.class);
+
+    /** Binance's lowest maintenance margin tier. */
+    public static final double DEFAULT_MAINTENANCE_MARGIN_RATE = 0.004;
+
+    /** Candles kept per symbol for {@link #fetchOhlcv} and {@link #get24HourStats}. */
+    public static final int DEFAULT_HISTORY_WINDOW = 500;
+
+    private static final double QUANTITY_STEP = 0.001;
+
+    /**
+     * A fill or a liquidation.
+     *
+     * @param time        close time of the bar the fill happened on (epoch ms)
+     * @param symbol      trading pair
+     * @param side        {@code "BUY"} or {@code "SELL"}
+     * @param price       fill price after slippage
+     * @param quantity    base-asset quantity
+     * @param realizedPnl PnL realized by a closing fill, net of its fee; 0.0 for entries
+     * @param liquidation true when the fill closed the position in a cross-margin liquidation
+     */
+    public record Fill(long time, String symbol, String side, double price, double quantity,
+                       double realizedPnl, boolean liquidation) { }
+
+    private enum Side { LONG, SHORT }
+
+    private static final class Position {
+        final Side side;
+        final int leverage;
+        double quantity;
+        double entryPrice;
+
+        Position(Side side, int leverage, double quantity, double entryPrice) {
+            this.side = side;
+            this.leverage = leverage;
+            this.quantity = quantity;
+            this.entryPrice = entryPrice;
+        }
+
+        double unrealizedPnl(double price) {
+            double move = side == Side.LONG ? price - entryPrice : entryPrice - price;
+            return move * quantity;
+        }
+
+        double initialMargin() {
+            return quantity * entryPrice / leverage;
+        }
+    }
+
+    private record PendingOrder(boolean buy, boolean entry, double quantity, long executionTime) { }
+
+    /** Per-symbol market state: the bounded candle window, mark price and queued orders. */
+    private static final class Market {
+        final Deque<Candle> window = new ArrayDeque<>();
+        final Deque<PendingOrder> pendingOrders = new ArrayDeque<>();
+        Candle lastCandle;
+    }
+
+    private final long latencyMs;
+    private final double slippagePercent;
+    private final double takerFeeRate;
+    private final double maintenanceMarginRate;
+    private final int historyWindow;
+    private final int defaultLeverage;
+
+    private double walletBalance;
+    private long currentTime;
+    private int liquidations;
+    private final Map<String, Integer> leverages = new HashMap<>();
+    private final Map<String, Market> markets = new LinkedHashMap<>();
+    private final Map<String, Position> positions = new LinkedHashMap<>();
+    private final List<Fill> fills = new ArrayList<>();
+
+    private final AtomicLong orderIdGenerator = new AtomicLong(1);
+
+    /**
+     * @param initialBalance        starting wallet balance
+     * @param latencyMs             delay between placing an order and its earliest fill
+     * @param slippagePercent       fraction of the open price a fill moves against the trade
+     * @param takerFeeRate          fee charged on the notional of every fill
+     * @param defaultLeverage       leverage for symbols without {@link #setLeverage}
+     * @param maintenanceMarginRate maintenance margin as a fraction of position notional
+     * @param historyWindow         candles kept per symbol
+     */
+    public PortfolioExchangeService(double initialBalance, long latencyMs, double slippagePercent,
+                                    double takerFeeRate, int defaultLeverage,
+                                    double maintenanceMarginRate, int historyWindow) {
+        if (defaultLeverage < 1) {
+            throw new IllegalArgumentException("Leverage must be at least 1: " + defaultLeverage);
+        }
+        this.walletBalance = initialBalance;
+        this.latencyMs = latencyMs;
+        this.slippagePercent = slippagePercent;
+        this.takerFeeRate = takerFeeRate;
+        this.defaultLeverage = defaultLeverage;
+        this.maintenanceMarginRate = maintenanceMarginRate;
+        this.historyWindow = historyWindow;
+    }
+
+    public PortfolioExchangeService(double initialBalance, long latencyMs, double slippagePercent,
+                                    double takerFeeRate) {
+        this(initialBalance, latencyMs, slippagePercent, takerFeeRate, 1,
+                DEFAULT_MAINTENANCE_MARGIN_RATE, DEFAULT_HISTORY_WINDOW);
+    }
+
+    // ── replay ─────────────────────────────────────────────────────────────────
+
+    /** Advances {@code symbol} to {@code candle}; see the class comment for the order of steps. */
+    public void onCandle(String symbol, Candle candle) {
+        Market market = markets.computeIfAbsent(symbol, s -> new Market());
+        currentTime = candle.getCloseTime();
+
+        processPendingOrders(symbol, market, candle);
+        checkLiquidation(symbol, candle);
+
+        market.lastCandle = candle;
+        market.window.addLast(candle);
+        if (market.window.size() > historyWindow) {
+            market.window.removeFirst();
+        }
+    }
+
+    private void checkLiquidation(String symbol, Candle candle) {
+        if (positions.isEmpty()) {
+            return;
+        }
+        Map<String, Double> worstPrices = new HashMap<>();
+        double equity = walletBalance;
+        double maintenance = 0.0;
+        for (Map.Entry<String, Position> entry : positions.entrySet()) {
+            Position position = entry.getValue();
+            double price;
+            if (entry.getKey().equals(symbol)) {
+                price = (position.side == Side.LONG ? candle.getLow() : candle.getHigh()).doubleValue();
+            } else {
+                price = markPrice(entry.getKey());
+            }
+            worstPrices.put(entry.getKey(), price);
+            equity += position.unrealizedPnl(price);
+            maintenance += position.quantity * price * maintenanceMarginRate;
+        }
+        if (equity > maintenance) {
+            return;
+        }
+
+        Position trigger = positions.get(symbol);
+        if (trigger != null) {
+            worstPrices.put(symbol, liquidationPrice(symbol, trigger, candle, equity, maintenance));
+        }
+
+        liquidations++;
+        logger.info("CROSS LIQUIDATION triggered by {} at {}: equity={} maintenance={} positions={}",
+                symbol, currentTime, equity, maintenance, positions.keySet());
+        for (Iterator<Map.Entry<String, Position>> it = positions.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Position> entry = it.next();
+            Position position = entry.getValue();
+            double price = worstPrices.get(entry.getKey());
+            double pnl = position.unrealizedPnl(price);
+            walletBalance += pnl;
+            fills.add(new Fill(currentTime, entry.getKey(), position.side == Side.LONG ? "SELL" : "BUY",
+                    price, position.quantity, pnl, true));
+            markets.get(entry.getKey()).pendingOrders.clear();
+            it.remove();
+        }
+        // Losses beyond the wallet are absorbed by the exchange's insurance fund
+        walletBalance = Math.max(0.0, walletBalance);
+    }
+
+    /**
+     * Price of {@code symbol} at which cross equity equals the maintenance margin, the other
+     * symbols held at the prices already in {@code equity} and {@code maintenance} (evaluated
+     * at the bar's adverse extreme). Clamped between that extreme and the open.
+     */
+    private double liquidationPrice(String symbol, Position position, Candle candle,
+                                    double equity, double maintenance) {
+        double extreme = (position.side == Side.LONG ? candle.getLow() : candle.getHigh()).doubleValue();
+        double open = candle.getOpen().doubleValue();
+        double direction = position.side == Side.LONG ? 1.0 : -1.0;
+        // Solve  equity + d·q·(p − x) = maintenance + q·m·(p − x)  for p
+        double slope = position.quantity * (direction - maintenanceMarginRate);
+        double price = extreme + (maintenance - equity) / slope;
+        return position.side == Side.LONG
+                ? Math.max(extreme, Math.min(price, open))
+                : Math.min(extreme, Math.max(price, open));
+    }
+
+    private void processPendingOrders(String symbol, Market market, Candle candle) {
+        while (!market.pendingOrders.isEmpty()) {
+            PendingOrder order = market.pendingOrders.peek();
+            if (currentTime < order.executionTime()) {
+                break;
+            }
+            market.pendingOrders.poll();
+            double open = candle.getOpen().doubleValue();
+            double price = order.buy() ? open * (1 + slippagePercent) : open * (1 - slippagePercent);
+            if (order.entry()) {
+                handleEntry(symbol, order, price);
+            } else {
+                handleExit(symbol, order, price);
+            }
+        }
+    }
+
+    private void handleEntry(String symbol, PendingOrder order, double price) {
+        Side side = order.buy() ? Side.LONG : Side.SHORT;
+        Position position = positions.get(symbol);
+        if (position != null && position.side != side) {
+            logger.debug("Rejected {} entry on {}: {} position open", side, symbol, position.side);
+            return;
+        }
+        int leverage = position != null ? position.leverage : leverageFor(symbol);
+        double notional = order.quantity() * price;
+        double fee = notional * takerFeeRate;
+        if (getMarginBalance() < notional / leverage + fee) {
+            logger.debug("Rejected {} entry on {}: insufficient cross margin", side, symbol);
+            return;
+        }
+        walletBalance -= fee;
+        if (position == null) {
+            positions.put(symbol, new Position(side, leverage, order.quantity(), price));
+        } else {
+            double quantity = position.quantity + order.quantity();
+            position.entryPrice = (position.entryPrice * position.quantity + price * order.quantity()) / quantity;
+            position.quantity = quantity;
+        }
+        fills.add(new Fill(currentTime, symbol, order.buy() ? "BUY" : "SELL", price, order.quantity(), 0.0, false));
+    }
+
+    private void handleExit(String symbol, PendingOrder order, double price) {
+        Position position = positions.get(symbol);
+        Side closing = order.buy() ? Side.SHORT : Side.LONG;
+        if (position == null || position.side != closing) {
+            return;
+        }
+        double quantity = Math.min(order.quantity(), position.quantity);
+        double fee = quantity * price * takerFeeRate;
+        double pnl = (closing == Side.LONG ? price - position.entryPrice : position.entryPrice - price) * quantity;
+        walletBalance += pnl - fee;
+        position.quantity -= quantity;
+        if (position.quantity < QUANTITY_STEP / 2) {
+            positions.remove(symbol);
+        }
+        fills.add(new Fill(currentTime, symbol, order.buy() ? "BUY" : "SELL", price, quantity, pnl - fee, false));
+    }
+
+    // ── account state ──────────────────────────────────────────────────────────
+
+    /** Wallet balance plus unrealized PnL of every position at mark price. */
+    public double getEquity() {
+        double equity = walletBalance;
+        for (Map.Entry<String, Position> entry : positions.entrySet()) {
+            equity += entry.getValue().unrealizedPnl(markPrice(entry.getKey()));
+        }
+        return equity;
+    }
+
+    public double getWalletBalance() {
+        return walletBalance;
+    }
+
+    /** Number of cross-margin liquidations so far; each closes every open position. */
+    public int getLiquidationCount() {
+        return liquidations;
+    }
+
+    /** {@code "LONG"}, {@code "SHORT"} or {@code null} when flat. */
+    public String getPositionSide(String symbol) {
+        Position position = positions.get(symbol);
+        return position == null ? null : position.side.name();
+    }
+
+    public double getPositionQuantity(String symbol) {
+        Position position = positions.get(symbol);
+        return position == null ? 0.0 : position.quantity;
+    }
+
+    /** True while an order for {@code symbol} waits for its fill. */
+    public boolean hasPendingOrder(String symbol) {
+        Market market = markets.get(symbol);
+        return market != null && !market.pendingOrders.isEmpty();
+    }
+
+    /** Returns and forgets the fills and liquidations since the previous call. */
+    public List<Fill> drainFills() {
+        List<Fill> drained = List.copyOf(fills);
+        fills.clear();
+        return drained;
+    }
+
+    private int leverageFor(String symbol) {
+        return leverages.getOrDefault(symbol, defaultLeverage);
+    }
+
+    private double markPrice(String symbol) {
+        Market market = markets.get(symbol);
+        if (market == null || market.lastCandle == null) {
+            Position position = positions.get(symbol);
+            return position == null ? 0.0 : position.entryPrice;
+        }
+        return market.lastCandle.getClose().doubleValue();
+    }
+
+    private Market market(String symbol) {
+        Market market = markets.get(symbol);
+        if (market == null || market.lastCandle == null) {
+            throw new IllegalStateException("No candles replayed yet for " + symbol);
+        }
+        return market;
+    }
+
+    // ── FuturesExchangeService ────────────────────────────────────────────────
+
+    @Override
+    public List<Candle> fetchOhlcv(String symbol, String timeframe, int limit) {
+        Deque<Candle> window = market(symbol).window;
+        List<Candle> candles = new ArrayList<>(window);
+        return new ArrayList<>(candles.subList(Math.max(0, candles.size() - limit), candles.size()));
+    }
+
+    @Override
+    public double getCurrentPrice(String symbol) {
+        return market(symbol).lastCandle.getClose().doubleValue();
+    }
+
+    /** Available cross margin: equity minus the initial margin of every open position. */
+    @Override
+    public double getMarginBalance() {
+        double used = 0.0;
+        for (Position position : positions.values()) {
+            used += position.initialMargin();
+        }
+        return getEquity() - used;
+    }
+
+    @Override
+    public Ticker24hrStats get24HourStats(String symbol) {
+        List<Candle> recentCandles = fetchOhlcv(symbol, null, 24);
+
+        double high = recentCandles.stream().mapToDouble(c -> c.getHigh().doubleValue()).max().orElse(0.0);
+        double low = recentCandles.stream().mapToDouble(c -> c.getLow().doubleValue()).min().orElse(0.0);
+        double volume = recentCandles.stream().mapToDouble(c -> c.getVolume().doubleValue()).sum();
+        double open = recentCandles.get(0).getOpen().doubleValue();
+        double last = getCurrentPrice(symbol);
+        double priceChange = last - open;
+
+        return Ticker24hrStats.builder()
+            .symbol(symbol)
+            .volume(volume)
+            .quoteVolume(volume * last)
+            .priceChange(priceChange)
+            .priceChangePercent(priceChange / open * 100)
+            .highPrice(high)
+            .lowPrice(low)
+            .openPrice(open)
+            .lastPrice(last)
+            .build();
+    }
+
+    /** Sets the leverage of later entries on {@code symbol}; open positions keep theirs. */
+    @Override
+    public void setLeverage(String symbol, int leverage) {
+        if (leverage < 1) {
+            throw new IllegalArgumentException("Leverage must be at least 1: " + leverage);
+        }
+        leverages.put(symbol, leverage);
+    }
+
+    @Override
+    public OrderResult enterLongPosition(String symbol, double tradeAmount) {
+        return queue(symbol, tradeAmount, true, true);
+    }
+
+    @Override
+    public OrderResult exitLongPosition(String symbol, double tradeAmount) {
+        return queue(symbol, tradeAmount, false, false);
+    }
+
+    @Override
+    public OrderResult enterShortPosition(String symbol, double tradeAmount) {
+        return queue(symbol, tradeAmount, false, true);
+    }
+
+    @Override
+    public OrderResult exitShortPosition(String symbol, double tradeAmount) {
+        return queue(symbol, tradeAmount, true, false);
+    }
+
+    private OrderResult queue(String symbol, double tradeAmount, boolean buy, boolean entry) {
+        double quantity = Math.floor(tradeAmount / QUANTITY_STEP) * QUANTITY_STEP;
+        markets.computeIfAbsent(symbol, s -> new Market()).pendingOrders
+                .add(new PendingOrder(buy, entry, quantity, currentTime + latencyMs));
+        return newOrder("BT-", symbol, buy ? "BUY" : "SELL", quantity);
+    }
+
+    @Override
+    public OrderResult placeStopLossOrder(String symbol, String side, double quantity, double stopPrice) {
+        // Protective orders are not simulated; agents exit through their own signals
+        return newOrder("BT-SL-", symbol, side, quantity);
+    }
+
+    @Override
+    public OrderResult placeTakeProfitOrder(String symbol, String side, double quantity, double takeProfitPrice) {
+        return newOrder("BT-TP-", symbol, side, quantity);
+    }
+
+    private OrderResult newOrder(String prefix, String symbol, String side, double quantity) {
+        String orderId = prefix + orderIdGenerator.getAndIncrement();
+        return OrderResult.builder()
+            .exchangeOrderId(orderId)
+            .clientOrderId(orderId)
+            .symbol(symbol)
+            .side(side)
+            .status(OrderResult.OrderStatus.NEW)
+            .orderedQuantity(quantity)
+            .filledQuantity(0.0)
+            .avgFillPrice(0.0)
+            .commission(0.0)
+            .createdAt(Instant.now())
+            .updatedAt(Instant.now())
+            .build();
+    }
+}
@@ -0,0 +1,62 @@
+package tradingbot.bot.service.backtest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import tradingbot.bot.service.backtest.BacktestMetricsCalculator.BacktestMetrics;
+
+/**
+ * WalkForwardReport — outcome of a {@link WalkForwardService} run.
+ *
+ * @param mode                  how in-sample ranges moved between windows
+ * @param objective             in-sample score used to pick each window's parameters
+ * @param candidates            parameter combinations evaluated per window
+ * @param windows               per-window choice and results, in time order
+ * @param outOfSample           metrics of the stitched out-of-sample equity curve and trades; stored
+ *                              in {@link BacktestRunRegistry} under its {@code runId}, so the usual
+ *                              equity-curve and trade endpoints serve it
+ * @param walkForwardEfficiency out-of-sample profit per bar divided by in-sample profit per bar of
+ *                              the chosen candidates; near 1 means in-sample results carried over,
+ *                              NaN when in-sample profit was not positive
+ * @param parameterStability    per varied parameter, the fraction of windows that chose its most
+ *                              frequent value (1.0 = the same value every window)
+ */
+public record WalkForwardReport(
+        WalkForwardWindow.Mode mode,
+        WalkForwardService.Objective objective,
+        int candidates,
+        List<WindowResult> windows,
+        BacktestMetrics outOfSample,
+        double walkForwardEfficiency,
+        Map<String, Double> parameterStability) {
+
+    /**
+     * One window of the run.
+     *
+     * @param index              zero-based window position
+     * @param inSampleStart      open time of the first in-sample bar
+     * @param inSampleEnd        close time of the last in-sample bar
+     * @param outOfSampleStart   open time of the first out-of-sample bar
+     * @param outOfSampleEnd     close time of the last out-of-sample bar
+     * @param parameters         the chosen candidate's values of the varied parameters
+     * @param inSampleScore      the chosen candidate's in-sample objective value
+     * @param inSampleProfit     the chosen candidate's in-sample profit
+     * @param outOfSampleProfit  profit of the chosen candidate over the out-of-sample range, starting
+     *                           from the initial capital
+     * @param outOfSampleSharpe  per-bar Sharpe ratio over the out-of-sample range
+     * @param outOfSampleTrades  closed trades in the out-of-sample range
+     */
+    public record WindowResult(
+            int index,
+            Instant inSampleStart,
+            Instant inSampleEnd,
+            Instant outOfSampleStart,
+            Instant outOfSampleEnd,
+            Map<String, Double> parameters,
+            double inSampleScore,
+            double inSampleProfit,
+            double outOfSampleProfit,
+            double outOfSampleSharpe,
+            int outOfSampleTrades) { }
+}
@@ -0,0 +1,355 @@
+package tradingbot.bot.service.backtest;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.TradingAgentFactory;
+import tradingbot.agent.domain.model.AgentDecision;
+import tradingbot.agent.domain.model.AgentDecision.Action;
+import tradingbot.agent.impl.TechnicalTradingAgentFactory;
+import tradingbot.bot.controller.exception.BotOperationException;
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+import tradingbot.bot.service.backtest.BacktestAgentExecutionService.ExecutionResult;
+import tradingbot.bot.service.backtest.BacktestAgentExecutionService.TradeEvent;
+import tradingbot.bot.service.backtest.BacktestMetricsCalculator.BacktestMetrics;
+import tradingbot.bot.service.backtest.ParameterGrid.Candidate;
+import tradingbot.bot.service.backtest.WalkForwardReport.WindowResult;
+import tradingbot.config.TradingConfig;
+
+/**
+ * WalkForwardService — walk-forward optimisation with out-of-sample validation.
+ *
+ * <h3>Pipeline</h3>
+ * <ol>
+ *   <li>The history is split into {@link WalkForwardWindow}s, rolling or anchored, and the
+ *       parameter grid into {@link ParameterGrid.Candidate}s.</li>
+ *   <li><b>Signals</b> — each candidate's agent, from the technical {@link TradingAgentFactory},
+ *       sees the history once, bar by bar, and its action per bar is cached. Windows overlap
+ *       heavily (an anchored run re-reads the whole prefix every window), so warming the
+ *       indicators once per candidate instead of once per window and candidate is what keeps
+ *       the run affordable.</li>
+ *   <li><b>In-sample</b> — every (window, candidate) pair replays its cached signals over the
+ *       window's in-sample bars through {@link BacktestAgentExecutionService} on a fresh
+ *       {@link BacktestExchangeService}; the best {@link Objective} score wins, ties going to
+ *       the earlier candidate.</li>
+ *   <li><b>Out-of-sample</b> — each window's winner is replayed over the bars that follow.</li>
+ *   <li>The out-of-sample curves are stitched into one and stored in
+ *       {@link BacktestRunRegistry}. Each window replays from {@link #INITIAL_CAPITAL} with a
+ *       fixed trade size, so its profit does not depend on the balance; the stitched curve adds
+ *       each window's profit to the balance the previous one ended on, and trade PnL is kept
+ *       as replayed.</li>
+ * </ol>
+ *
+ * <p>All three phases fan out over a fixed pool sized by
+ * {@code backtest.walk-forward.parallelism} (0 = one thread per core), so wall time scales with
+ * windows × candidates divided by the core count. Replays are independent: each has its own
+ * exchange and agent and only reads the shared history.
+ */
+@Service
+public class WalkForwardService {
+
+    private static final Logger log = LoggerFactory.getLogger(WalkForwardService.class);
+
+    /** Starting balance of every replay, as in {@link BacktestService}. */
+    static final double INITIAL_CAPITAL = 10_000.0;
+
+    /** In-sample score a window's parameters are chosen by. */
+    public enum Objective {
+        /** Per-bar Sharpe ratio; runs without a defined ratio rank last. */
+        SHARPE_RATIO,
+        /** Absolute profit. */
+        TOTAL_PROFIT;
+
+        double score(BacktestMetrics metrics) {
+            if (this == TOTAL_PROFIT) {
+                return metrics.totalProfit();
+            }
+            return Double.isNaN(metrics.sharpeRatio()) ? Double.NEGATIVE_INFINITY : metrics.sharpeRatio();
+        }
+    }
+
+    /**
+     * Run settings.
+     *
+     * @param inSampleBars     bars each window optimises over (the first window's, when anchored)
+     * @param outOfSampleBars  bars each window validates over
+     * @param mode             whether the in-sample range rolls forward or keeps its start
+     * @param objective        in-sample score to maximise
+     * @param latencyMs        simulated order latency
+     * @param slippagePercent  simulated slippage
+     * @param feeRate          taker fee rate
+     */
+    public record Settings(int inSampleBars, int outOfSampleBars, WalkForwardWindow.Mode mode,
+                           Objective objective, long latencyMs, double slippagePercent, double feeRate) { }
+
+    /** In-sample outcome of one candidate in one window. */
+    private record Score(double score, double profit) { }
+
+    private final HistoricalDataLoader dataLoader;
+    private final TradingAgentFactory agentFactory;
+    private final BacktestAgentExecutionService executionService;
+    private final BacktestMetricsCalculator metricsCalculator;
+    private final BacktestRunRegistry runRegistry;
+    private final int parallelism;
+    private final int maxCandidates;
+
+    public WalkForwardService(HistoricalDataLoader dataLoader,
+                              @Qualifier(TechnicalTradingAgentFactory.BEAN_NAME) TradingAgentFactory agentFactory,
+                              BacktestAgentExecutionService executionService,
+                              BacktestMetricsCalculator metricsCalculator,
+                              BacktestRunRegistry runRegistry,
+                              @Value("${backtest.walk-forward.parallelism:0}") int parallelism,
+                              @Value("${backtest.walk-forward.max-candidates:256}") int maxCandidates) {
+        this.dataLoader        = dataLoader;
+        this.agentFactory      = agentFactory;
+        this.executionService  = executionService;
+        this.metricsCalculator = metricsCalculator;
+        this.runRegistry       = runRegistry;
+        this.parallelism = parallelism > 0
+                ? parallelism
+                : Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.maxCandidates = Math.max(1, maxCandidates);
+    }
+
+    // ── public API ─────────────────────────────────────────────────────────────
+
+    /**
+     * Runs a walk-forward optimisation over CSV data from an {@link InputStream}.
+     * Used by {@code BacktestController} (multipart REST upload).
+     *
+     * @param grid values per parameter name, see {@link ParameterGrid#expand}
+     */
+    public WalkForwardReport runWalkForward(InputStream csvData, TradingConfig baseConfig,
+                                            Map<String, List<Double>> grid, Settings settings) {
+        List<Candle> history = dataLoader.loadFromStream(csvData);
+        if (history.isEmpty()) {
+            throw new BotOperationException("walk_forward", "No data loaded from stream");
+        }
+        return run(history, baseConfig, grid, settings);
+    }
+
+    /**
+     * Runs a walk-forward optimisation over an in-memory history.
+     *
+     * @throws IllegalArgumentException when the history is too short for one window, or the grid
+     *                                  is invalid, empty after filtering, or too large
+     */
+    public WalkForwardReport run(List<Candle> history, TradingConfig baseConfig,
+                                 Map<String, List<Double>> grid, Settings settings) {
+        List<WalkForwardWindow> windows = WalkForwardWindow.split(history.size(),
+                settings.inSampleBars(), settings.outOfSampleBars(), settings.mode());
+        List<Candidate> candidates = ParameterGrid.expand(baseConfig, grid);
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("Parameter grid has no valid combination");
+        }
+        if (candidates.size() > maxCandidates) {
+            throw new IllegalArgumentException("Parameter grid has " + candidates.size()
+                    + " combinations; the limit is " + maxCandidates);
+        }
+        // Bars past the last out-of-sample range never reach a replay
+        int usedBars = windows.get(windows.size() - 1).outOfSampleEnd();
+
+        log.info("[WalkForward] {} {}: {} windows x {} candidates over {} bars (parallelism={})",
+                baseConfig.getSymbol(), settings.mode(), windows.size(), candidates.size(), usedBars, parallelism);
+        long startNanos = System.nanoTime();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "walk-forward-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            // 1. One pass over the history per candidate
+            List<Action[]> signals = joinAll(candidates.stream()
+                    .map(c -> CompletableFuture.supplyAsync(() -> computeSignals(c, history, usedBars), pool))
+                    .toList());
+
+            // 2. Every candidate on every in-sample range
+            List<CompletableFuture<Score>> scoring = new ArrayList<>(windows.size() * candidates.size());
+            for (WalkForwardWindow window : windows) {
+                for (Candidate candidate : candidates) {
+                    scoring.add(CompletableFuture.supplyAsync(() -> {
+                        BacktestMetrics metrics = metricsCalculator.calculate(
+                                replay(history, candidate, signals.get(candidate.index()),
+                                        window.inSampleStart(), window.inSampleEnd(), settings),
+                                INITIAL_CAPITAL);
+                        return new Score(settings.objective().score(metrics), metrics.totalProfit());
+                    }, pool));
+                }
+            }
+            List<Score> scores = joinAll(scoring);
+            int[] best = new int[windows.size()];
+            for (int w = 0; w < windows.size(); w++) {
+                for (int c = 1; c < candidates.size(); c++) {
+                    if (scores.get(w * candidates.size() + c).score()
+                            > scores.get(w * candidates.size() + best[w]).score()) {
+                        best[w] = c;
+                    }
+                }
+            }
+
+            // 3. Each window's winner on its out-of-sample range
+            List<ExecutionResult> outOfSample = joinAll(windows.stream()
+                    .map(w -> CompletableFuture.supplyAsync(() -> {
+                        Candidate winner = candidates.get(best[w.index()]);
+                        return replay(history, winner, signals.get(winner.index()),
+                                w.outOfSampleStart(), w.outOfSampleEnd(), settings);
+                    }, pool))
+                    .toList());
+
+            WalkForwardReport report = report(history, windows, candidates, best, scores,
+                    outOfSample, settings);
+            runRegistry.save(report.outOfSample());
+            log.info("[WalkForward] completed in {} ms: {} WFE={}",
+                    (System.nanoTime() - startNanos) / 1_000_000, report.outOfSample(),
+                    report.walkForwardEfficiency());
+            return report;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // ── private pipeline ───────────────────────────────────────────────────────
+
+    /**
+     * Feeds the first {@code bars} of {@code history} to a fresh agent for {@code candidate} and
+     * records its action per bar. A missing or failed decision counts as HOLD, as in a replay.
+     */
+    private Action[] computeSignals(Candidate candidate, List<Candle> history, int bars) {
+        TradingConfig config = candidate.config();
+        ReactiveTradingAgent agent = agentFactory.create(config);
+        try {
+            Action[] signals = new Action[bars];
+            for (int i = 0; i < bars; i++) {
+                Action action = Action.HOLD;
+                try {
+                    AgentDecision decision = agent.onKlineClosed(CsvBacktestAgentExecutionService
+                            .toKlineEvent(config.getSymbol(), history.get(i), config)).block();
+                    if (decision != null) {
+                        action = decision.action();
+                    }
+                } catch (Exception e) {
+                    log.warn("[WalkForward] candidate {} failed at bar {}: {}",
+                            candidate.index(), i, e.getMessage());
+                }
+                signals[i] = action;
+            }
+            return signals;
+        } finally {
+            agent.stop();
+        }
+    }
+
+    private ExecutionResult replay(List<Candle> history, Candidate candidate, Action[] signals,
+                                   int start, int end, Settings settings) {
+        CachedSignalAgent agent = new CachedSignalAgent("wf-" + candidate.index(),
+                candidate.config().getSymbol(), signals, start, "walk-forward " + candidate.parameters());
+        return executionService.execute(agent, history.subList(start, end), candidate.config(),
+                new BacktestExchangeService(settings.latencyMs(), settings.slippagePercent(), settings.feeRate()));
+    }
+
+    private WalkForwardReport report(List<Candle> history, List<WalkForwardWindow> windows,
+                                     List<Candidate> candidates, int[] best, List<Score> scores,
+                                     List<ExecutionResult> outOfSample, Settings settings) {
+        List<WindowResult> results = new ArrayList<>(windows.size());
+        List<EquityCurvePoint> curve = new ArrayList<>();
+        List<TradeEvent> trades = new ArrayList<>();
+        double balance = INITIAL_CAPITAL;
+        double inSampleProfit = 0;
+        double outOfSampleProfit = 0;
+        long inSampleBars = 0;
+        long outOfSampleBars = 0;
+
+        for (WalkForwardWindow window : windows) {
+            Candidate winner = candidates.get(best[window.index()]);
+            Score score = scores.get(window.index() * candidates.size() + winner.index());
+            ExecutionResult result = outOfSample.get(window.index());
+            BacktestMetrics metrics = metricsCalculator.calculate(result, INITIAL_CAPITAL);
+
+            // Continue from the previous window's balance by adding this replay's profit to it
+            double carried = balance - INITIAL_CAPITAL;
+            int offset = window.outOfSampleStart();
+            for (EquityCurvePoint p : result.equityCurve()) {
+                curve.add(new EquityCurvePoint(offset + p.barIndex(), p.timestamp(),
+                        BigDecimal.valueOf(p.balance().doubleValue() + carried), 0.0, p.action(), p.symbol()));
+            }
+            for (TradeEvent t : result.trades()) {
+                trades.add(new TradeEvent(offset + t.barIndex(), t.symbol(), t.side(), t.price(),
+                        t.quantity(), t.pnl(), t.reasoning()));
+            }
+            if (!curve.isEmpty()) {
+                balance = curve.get(curve.size() - 1).balance().doubleValue();
+            }
+
+            inSampleProfit += score.profit();
+            outOfSampleProfit += metrics.totalProfit();
+            inSampleBars += window.inSampleBars();
+            outOfSampleBars += window.outOfSampleBars();
+            results.add(new WindowResult(window.index(),
+                    openTime(history, window.inSampleStart()), closeTime(history, window.inSampleEnd() - 1),
+                    openTime(history, window.outOfSampleStart()), closeTime(history, window.outOfSampleEnd() - 1),
+                    winner.parameters(), score.score(), score.profit(),
+                    metrics.totalProfit(), metrics.sharpeRatio(), metrics.totalTrades()));
+        }
+
+        BacktestMetrics stitched = metricsCalculator.calculate(
+                new ExecutionResult(trades, curve, (int) outOfSampleBars), INITIAL_CAPITAL);
+        double inSampleRate = inSampleProfit / inSampleBars;
+        double efficiency = inSampleRate > 0 ? (outOfSampleProfit / outOfSampleBars) / inSampleRate : Double.NaN;
+        return new WalkForwardReport(settings.mode(), settings.objective(), candidates.size(), results,
+                stitched, efficiency, parameterStability(results));
+    }
+
+    /** Per varied parameter, the share of windows that chose its most frequent value. */
+    private static Map<String, Double> parameterStability(List<WindowResult> results) {
+        Map<String, Map<Double, Integer>> counts = new LinkedHashMap<>();
+        for (WindowResult result : results) {
+            result.parameters().forEach((name, value) ->
+                    counts.computeIfAbsent(name, k -> new HashMap<>()).merge(value, 1, Integer::sum));
+        }
+        Map<String, Double> stability = new LinkedHashMap<>();
+        counts.forEach((name, values) -> stability.put(name,
+                values.values().stream().mapToInt(Integer::intValue).max().orElse(0) / (double) results.size()));
+        return stability;
+    }
+
+    /** Waits for every task; a task's own runtime exception is rethrown unwrapped. */
+    private static <T> List<T> joinAll(List<CompletableFuture<T>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static Instant openTime(List<Candle> history, int index) {
+        return Instant.ofEpochMilli(history.get(index).getOpenTime());
+    }
+
+    private static Instant closeTime(List<Candle> history, int index) {
+        return Instant.ofEpochMilli(history.get(index).getCloseTime());
+    }
+}
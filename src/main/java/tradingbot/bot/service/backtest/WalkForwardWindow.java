@@ -0,0 +1,67 @@
+package tradingbot.bot.service.backtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WalkForwardWindow — one in-sample / out-of-sample split of a walk-forward run, as half-open
+ * bar index ranges {@code [start, end)} into the full history.
+ *
+ * <p>Out-of-sample ranges are consecutive and never overlap, so their equity curves stitch into
+ * one continuous out-of-sample track record. The in-sample range always ends where its
+ * out-of-sample range begins.
+ *
+ * @param index                 zero-based position of the window
+ * @param inSampleStart         first in-sample bar
+ * @param inSampleEnd           bar after the last in-sample bar (= {@code outOfSampleStart})
+ * @param outOfSampleStart      first out-of-sample bar
+ * @param outOfSampleEnd        bar after the last out-of-sample bar
+ */
+public record WalkForwardWindow(
+        int index,
+        int inSampleStart,
+        int inSampleEnd,
+        int outOfSampleStart,
+        int outOfSampleEnd) {
+
+    /** How the in-sample range moves from one window to the next. */
+    public enum Mode {
+        /** Fixed-length in-sample range that slides forward with the out-of-sample range. */
+        ROLLING,
+        /** In-sample range always starts at bar 0 and grows with each window. */
+        ANCHORED
+    }
+
+    public int inSampleBars() {
+        return inSampleEnd - inSampleStart;
+    }
+
+    public int outOfSampleBars() {
+        return outOfSampleEnd - outOfSampleStart;
+    }
+
+    /**
+     * Splits {@code totalBars} into windows: the first out-of-sample range starts after
+     * {@code inSampleBars}, each following one {@code outOfSampleBars} later. Trailing bars that
+     * do not fill a whole out-of-sample range are left out.
+     *
+     * @throws IllegalArgumentException when a range length is not positive or the history
+     *                                  cannot hold a single window
+     */
+    public static List<WalkForwardWindow> split(int totalBars, int inSampleBars, int outOfSampleBars, Mode mode) {
+        if (inSampleBars < 1 || outOfSampleBars < 1) {
+            throw new IllegalArgumentException("In-sample and out-of-sample bars must be positive, got "
+                    + inSampleBars + " / " + outOfSampleBars);
+        }
+        if (inSampleBars + outOfSampleBars > totalBars) {
+            throw new IllegalArgumentException("History of " + totalBars + " bars is shorter than one window of "
+                    + inSampleBars + " + " + outOfSampleBars + " bars");
+        }
+        List<WalkForwardWindow> windows = new ArrayList<>();
+        for (int oosStart = inSampleBars; oosStart + outOfSampleBars <= totalBars; oosStart += outOfSampleBars) {
+            int isStart = mode == Mode.ANCHORED ? 0 : oosStart - inSampleBars;
+            windows.add(new WalkForwardWindow(windows.size(), isStart, oosStart, oosStart, oosStart + outOfSampleBars));
+        }
+        return windows;
+    }
+}
@@ -0,0 +1,188 @@
+package tradingbot.bot.service.replay;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a time window of recorded topics straight from Kafka and merges all partitions into one
+ * timestamp-ordered stream.
+ *
+ * <p>The consumer is assigned every partition of every topic matching the pattern (no consumer
+ * group, nothing committed), seeks each to the first offset at or after {@code from} and stops it
+ * at the first offset at or after {@code to}. Records are buffered per partition and the earliest
+ * head is emitted once every unfinished partition has one buffered, so the merge is exact
+ * without reading the window into memory; partitions that run ahead are paused at
+ * {@code maxBufferedPerPartition}.
+ */
+public class KafkaReplaySource implements ReplaySource {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaReplaySource.class);
+
+    static final Comparator<RecordedEvent> REPLAY_ORDER = Comparator
+            .comparingLong(RecordedEvent::timestamp)
+            .thenComparing(RecordedEvent::topic)
+            .thenComparingInt(RecordedEvent::partition)
+            .thenComparingLong(RecordedEvent::offset);
+
+    private final Consumer<String, String> consumer;
+    private final Duration pollTimeout;
+    private final int maxIdlePolls;
+    private final int maxBufferedPerPartition;
+    private final Map<TopicPartition, PartitionStream> streams = new HashMap<>();
+
+    /**
+     * @param consumer                a consumer with String key and value deserializers; owned by
+     *                                this source and closed with it
+     * @param topics                  topics to replay
+     * @param from                    inclusive start of the window
+     * @param to                      exclusive end of the window
+     * @param pollTimeout             timeout of each poll
+     * @param maxIdlePolls            consecutive empty polls after which a partition that has not
+     *                                reached its end is abandoned with a warning
+     * @param maxBufferedPerPartition records buffered per partition before it is paused
+     */
+    public KafkaReplaySource(Consumer<String, String> consumer, Pattern topics, Instant from, Instant to,
+                             Duration pollTimeout, int maxIdlePolls, int maxBufferedPerPartition) {
+        this.consumer = consumer;
+        this.pollTimeout = pollTimeout;
+        this.maxIdlePolls = maxIdlePolls;
+        this.maxBufferedPerPartition = maxBufferedPerPartition;
+
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (Map.Entry<String, List<PartitionInfo>> topic : consumer.listTopics().entrySet()) {
+            if (topics.matcher(topic.getKey()).matches()) {
+                for (PartitionInfo info : topic.getValue()) {
+                    partitions.add(new TopicPartition(info.topic(), info.partition()));
+                }
+            }
+        }
+        consumer.assign(partitions);
+        if (partitions.isEmpty()) {
+            log.warn("No topics match {}; nothing to replay", topics);
+            return;
+        }
+
+        Map<TopicPartition, OffsetAndTimestamp> starts = consumer.offsetsForTimes(timestamps(partitions, from));
+        Map<TopicPartition, OffsetAndTimestamp> ends = consumer.offsetsForTimes(timestamps(partitions, to));
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        for (TopicPartition partition : partitions) {
+            OffsetAndTimestamp start = starts.get(partition);
+            OffsetAndTimestamp end = ends.get(partition);
+            long endOffset = end != null ? end.offset() : endOffsets.getOrDefault(partition, 0L);
+            if (start == null || start.offset() >= endOffset) {
+                continue;
+            }
+            consumer.seek(partition, start.offset());
+            streams.put(partition, new PartitionStream(endOffset));
+        }
+        log.info("Replaying {} of {} partitions matching {} from {} to {}",
+                streams.size(), partitions.size(), topics, from, to);
+    }
+
+    @Override
+    public RecordedEvent next() {
+        int idlePolls = 0;
+        while (true) {
+            boolean waiting = false;
+            PartitionStream earliest = null;
+            for (PartitionStream stream : streams.values()) {
+                if (stream.buffer.isEmpty()) {
+                    if (!stream.finished) {
+                        waiting = true;
+                    }
+                } else if (earliest == null || REPLAY_ORDER.compare(stream.buffer.peek(), earliest.buffer.peek()) < 0) {
+                    earliest = stream;
+                }
+            }
+            if (!waiting) {
+                return earliest != null ? earliest.buffer.poll() : null;
+            }
+            if (poll()) {
+                idlePolls = 0;
+            } else if (++idlePolls >= maxIdlePolls) {
+                abandonStalledPartitions();
+            }
+        }
+    }
+
+    /** Fetches more records for the partitions that need them; returns false when nothing arrived. */
+    private boolean poll() {
+        List<TopicPartition> pause = new ArrayList<>();
+        List<TopicPartition> resume = new ArrayList<>();
+        streams.forEach((partition, stream) -> {
+            if (stream.finished || stream.buffer.size() >= maxBufferedPerPartition) {
+                pause.add(partition);
+            } else {
+                resume.add(partition);
+            }
+        });
+        consumer.pause(pause);
+        consumer.resume(resume);
+
+        boolean received = false;
+        for (ConsumerRecord<String, String> record : consumer.poll(pollTimeout)) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            PartitionStream stream = streams.get(partition);
+            if (stream == null || stream.finished || record.offset() >= stream.endOffset) {
+                continue;
+            }
+            stream.buffer.add(new RecordedEvent(record.topic(), record.partition(), record.offset(),
+                    record.timestamp(), record.key(), record.value()));
+            received = true;
+        }
+        // positions also advance past transaction markers and compacted gaps, which yield no records
+        streams.forEach((partition, stream) -> {
+            if (!stream.finished && consumer.position(partition) >= stream.endOffset) {
+                stream.finished = true;
+            }
+        });
+        return received;
+    }
+
+    private void abandonStalledPartitions() {
+        streams.forEach((partition, stream) -> {
+            if (!stream.finished && stream.buffer.isEmpty()) {
+                log.warn("No records from {} after {} polls; replaying without the rest of it", partition, maxIdlePolls);
+                stream.finished = true;
+            }
+        });
+    }
+
+    private static Map<TopicPartition, Long> timestamps(List<TopicPartition> partitions, Instant instant) {
+        Map<TopicPartition, Long> timestamps = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            timestamps.put(partition, instant.toEpochMilli());
+        }
+        return timestamps;
+    }
+
+    @Override
+    public void close() {
+        consumer.close();
+    }
+
+    private static final class PartitionStream {
+        final long endOffset;
+        final ArrayDeque<RecordedEvent> buffer = new ArrayDeque<>();
+        boolean finished;
+
+        PartitionStream(long endOffset) {
+            this.endOffset = endOffset;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package tradingbot.bot.service.replay;
+
+/**
+ * One record from a recorded session, as it was stored in Kafka.
+ *
+ * @param topic     source topic, e.g. {@code kline-closed.BTCUSDT}
+ * @param partition source partition
+ * @param offset    offset within the partition
+ * @param timestamp record timestamp in epoch milliseconds; replay order and simulated time
+ * @param key       record key, may be {@code null}
+ * @param value     record value as the JSON the producer wrote
+ */
+public record RecordedEvent(String topic, int partition, long offset, long timestamp, String key, String value) {
+}
@@ -0,0 +1,429 @@
+package tradingbot.bot.service.replay;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.TradingAgentFactory;
+import tradingbot.agent.domain.execution.ExecutionResult;
+import tradingbot.agent.domain.model.AgentDecision;
+import tradingbot.agent.domain.model.AgentDecision.Action;
+import tradingbot.agent.domain.model.AgentStatus;
+import tradingbot.agent.impl.TechnicalTradingAgentFactory;
+import tradingbot.agent.impl.execution.BacktestOrderGateway;
+import tradingbot.agent.infrastructure.repository.AgentEntity;
+import tradingbot.agent.infrastructure.repository.JpaAgentRepository;
+import tradingbot.bot.events.TradeSignalEvent;
+import tradingbot.bot.messaging.EventTopic;
+import tradingbot.bot.service.replay.ReplayReport.DecisionDiff;
+import tradingbot.bot.service.simulator.SimulatedFuturesExchangeService;
+import tradingbot.config.ExchangeServiceConfig;
+import tradingbot.config.TradingConfig;
+import tradingbot.domain.market.KlineClosedEvent;
+
+/**
+ * Re-drives agents through a recorded production session and diffs their decisions against
+ * the recorded ones.
+ *
+ * <h3>Replay loop</h3>
+ * Events are consumed in recorded order (see {@link ReplaySource}) and the record timestamp is
+ * the simulated clock:
+ * <ul>
+ *   <li>{@code trading.market-data} ticks move a {@link SimulatedFuturesExchangeService}, so
+ *       replayed orders fill against the prices that were actually seen.</li>
+ *   <li>{@code kline-closed.*} candles go to fresh agents from the
+ *       {@link TechnicalTradingAgentFactory}: one per bot stored for the symbol, built from that
+ *       bot's own {@link TradingConfig}, plus one built from the request config. They are filtered
+ *       on {@code ACTIVE} status as in {@code AgentOrchestrator}, but called synchronously so that
+ *       every run is identical. Entry decisions are executed on one simulated account through a
+ *       {@link BacktestOrderGateway}.</li>
+ *   <li>{@code trading.signals} entries are the recorded decisions, kept per {@code botId}. A
+ *       signal carrying {@link TradeSignalEvent#KLINE_CLOSE_TIME} metadata belongs to that
+ *       candle; older signals are attributed to the latest candle of their symbol. A recorded
+ *       bot is diffed against the agent built from its stored config; bots that are no longer
+ *       stored (and symbols without any recorded signal) are diffed against the request-config
+ *       agent. Stored bots that recorded no signal in the window are not diffed, since they may
+ *       not have been running.</li>
+ *   <li>{@code trading.executions} records are counted.</li>
+ * </ul>
+ *
+ * <p>Live agents and the order gateways are never touched, and the database is only read for
+ * the stored bot configs. With
+ * {@code speed <= 0} events are replayed as fast as the agents decide; otherwise the replay
+ * waits so that simulated time runs {@code speed} times faster than wall time.
+ *
+ * <p>The engine deliberately uses the technical agents rather than the {@code @Primary}
+ * {@code LLMTradingAgentFactory}: an LLM agent calls the model again on every replay, so its
+ * decisions are not deterministic and a diff against the recording would mostly measure model
+ * variance. For bots that ran on the LLM factory in production the diff therefore compares the
+ * technical strategy with the recording, not a reproduction of that bot.
+ */
+@Service
+public class ReplayEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayEngine.class);
+
+    private static final String KLINE_TOPIC_PREFIX = "kline-closed.";
+
+    private final TradingAgentFactory agentFactory;
+    private final Supplier<SimulatedFuturesExchangeService> exchangeFactory;
+    private final JpaAgentRepository agentRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${replay.topics:trading[.]market-data|kline-closed[.].*|trading[.]signals|trading[.]executions}")
+    private String topics;
+
+    @Value("${replay.poll-timeout:500ms}")
+    private Duration pollTimeout = Duration.ofMillis(500);
+
+    @Value("${replay.max-idle-polls:20}")
+    private int maxIdlePolls = 20;
+
+    @Value("${replay.max-buffered-per-partition:10000}")
+    private int maxBufferedPerPartition = 10_000;
+
+    @Value("${replay.max-bots-per-symbol:100}")
+    private int maxBotsPerSymbol = 100;
+
+    @Autowired
+    public ReplayEngine(@Qualifier(TechnicalTradingAgentFactory.BEAN_NAME) TradingAgentFactory agentFactory,
+                        ExchangeServiceConfig exchangeConfig,
+                        JpaAgentRepository agentRepository) {
+        this(agentFactory, exchangeConfig::newSimulator, agentRepository);
+    }
+
+    ReplayEngine(TradingAgentFactory agentFactory, Supplier<SimulatedFuturesExchangeService> exchangeFactory,
+                 JpaAgentRepository agentRepository) {
+        this.agentFactory = agentFactory;
+        this.exchangeFactory = exchangeFactory;
+        this.agentRepository = agentRepository;
+    }
+
+    /**
+     * Replays the recorded topics between {@code from} (inclusive) and {@code to} (exclusive).
+     */
+    public ReplayReport replay(Instant from, Instant to, TradingConfig config, double speed) {
+        try (ReplaySource source = openKafka(from, to)) {
+            return replay(source, config, speed);
+        }
+    }
+
+    /**
+     * Writes the recorded topics between {@code from} and {@code to} as a {@link ReplaySegment}.
+     *
+     * @return number of events exported
+     */
+    public long export(Instant from, Instant to, OutputStream out) throws IOException {
+        try (ReplaySource source = openKafka(from, to)) {
+            long count = ReplaySegment.write(source, out);
+            log.info("[Replay] exported {} events from {} to {}", count, from, to);
+            return count;
+        }
+    }
+
+    /**
+     * Replays {@code source}; stored bots are replayed with their own config and {@code config},
+     * with the symbol of each candle stream, covers everything else. The source is not closed.
+     */
+    public ReplayReport replay(ReplaySource source, TradingConfig config, double speed) {
+        Session session = new Session(config, speed);
+        try {
+            for (RecordedEvent event = source.next(); event != null; event = source.next()) {
+                session.accept(event);
+            }
+            return session.report();
+        } finally {
+            session.stopAgents();
+        }
+    }
+
+    private ReplaySource openKafka(Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Replay window is empty: " + from + " .. " + to);
+        }
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.CLIENT_ID_CONFIG, "replay-" + UUID.randomUUID());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return new KafkaReplaySource(new KafkaConsumer<>(props), Pattern.compile(topics), from, to,
+                pollTimeout, maxIdlePolls, maxBufferedPerPartition);
+    }
+
+    private record CandleKey(String symbol, long closeTime) { }
+
+    private record Replayed(Action action, int confidence, String reasoning) { }
+
+    private record SignalKey(String agentId, CandleKey candle) { }
+
+    /** A replay agent; {@code botId} is the stored bot it was built for, null for the request config. */
+    private record ReplayAgent(String botId, ReactiveTradingAgent agent) { }
+
+    /** State of one replay run. */
+    private final class Session {
+        private final String replayId = UUID.randomUUID().toString();
+        private final TradingConfig config;
+        private final double speed;
+        private final SimulatedFuturesExchangeService exchange = exchangeFactory.get();
+        private final BacktestOrderGateway gateway = new BacktestOrderGateway(exchange, null);
+        private final Map<String, List<ReplayAgent>> agents = new HashMap<>();
+        private final Set<String> storedBots = new HashSet<>();
+        private final Map<String, Long> lastCandle = new HashMap<>();
+        private final Map<SignalKey, Replayed> replayed = new LinkedHashMap<>();
+        private final Map<SignalKey, Action> recorded = new HashMap<>();
+        private final Map<String, Set<String>> recordedAgents = new HashMap<>();
+        private final long wallStart = System.nanoTime();
+        private long firstTimestamp = Long.MIN_VALUE;
+        private long lastTimestamp;
+        private long events;
+        private long marketEvents;
+        private long klines;
+        private long decisions;
+        private long agentErrors;
+        private long fills;
+        private long recordedSignals;
+        private long recordedExecutions;
+
+        Session(TradingConfig config, double speed) {
+            this.config = config;
+            this.speed = speed;
+        }
+
+        void accept(RecordedEvent event) {
+            events++;
+            if (firstTimestamp == Long.MIN_VALUE) {
+                firstTimestamp = event.timestamp();
+            }
+            lastTimestamp = Math.max(lastTimestamp, event.timestamp());
+            pace(event.timestamp());
+
+            String topic = event.topic();
+            try {
+                if (topic.startsWith(KLINE_TOPIC_PREFIX)) {
+                    onKline(objectMapper.readValue(event.value(), KlineClosedEvent.class));
+                } else if (topic.equals(EventTopic.MARKET_DATA.getTopicName())) {
+                    onMarketData(objectMapper.readTree(event.value()), event.timestamp());
+                } else if (topic.equals(EventTopic.TRADE_SIGNALS.getTopicName())) {
+                    onSignal(objectMapper.readTree(event.value()));
+                } else if (topic.equals(EventTopic.TRADE_EXECUTION.getTopicName())) {
+                    recordedExecutions++;
+                }
+            } catch (IOException e) {
+                log.warn("[Replay] skipping unreadable {} record at offset {}: {}",
+                        topic, event.offset(), e.getMessage());
+            }
+        }
+
+        /** Waits until wall time catches up with simulated time at the requested speed. */
+        private void pace(long timestamp) {
+            if (speed <= 0) {
+                return;
+            }
+            long due = wallStart + (long) (TimeUnit.MILLISECONDS.toNanos(timestamp - firstTimestamp) / speed);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+
+        private void onMarketData(JsonNode event, long timestamp) {
+            String type = event.path("type").asText();
+            String symbol = event.path("symbol").asText(null);
+            double price = event.path("price").asDouble();
+            if (symbol == null || !(price > 0) || !("TRADE".equals(type) || "BOOK_TICKER".equals(type))) {
+                return;
+            }
+            double quantity = "TRADE".equals(type) ? event.path("quantity").asDouble() : 0;
+            exchange.onTick(symbol, price, quantity, timestamp);
+            marketEvents++;
+        }
+
+        private void onKline(KlineClosedEvent kline) {
+            String symbol = kline.symbol();
+            long closeTime = kline.closeTime().toEpochMilli();
+            double close = kline.close().doubleValue();
+            exchange.onTick(symbol, close, 0, closeTime);
+            lastCandle.put(symbol, closeTime);
+            klines++;
+
+            CandleKey candle = new CandleKey(symbol, closeTime);
+            for (ReplayAgent agent : agents.computeIfAbsent(symbol, this::startAgents)) {
+                if (agent.agent().getStatus() == AgentStatus.ACTIVE) {
+                    decide(agent, kline, new SignalKey(agent.botId(), candle));
+                }
+            }
+        }
+
+        private void decide(ReplayAgent replayAgent, KlineClosedEvent kline, SignalKey key) {
+            ReactiveTradingAgent agent = replayAgent.agent();
+            String symbol = kline.symbol();
+            double close = kline.close().doubleValue();
+            AgentDecision decision;
+            try {
+                decision = agent.onKlineClosed(kline).block();
+            } catch (Exception e) {
+                agentErrors++;
+                replayed.put(key, new Replayed(null, 0, e.getMessage()));
+                return;
+            }
+            if (decision == null) {
+                agentErrors++;
+                replayed.put(key, new Replayed(null, 0, "no decision"));
+                return;
+            }
+            decisions++;
+            replayed.put(key, new Replayed(decision.action(), decision.confidence(), decision.reasoning()));
+            if (decision.isEntry()) {
+                ExecutionResult result = gateway.execute(decision, symbol, close);
+                if (result.success() && result.action() != ExecutionResult.ExecutionAction.NOOP) {
+                    fills++;
+                }
+            }
+        }
+
+        /**
+         * One agent per bot stored for {@code symbol}, then the request-config agent. Factories
+         * hand agents out already {@code ACTIVE}, so they are not started again.
+         */
+        private List<ReplayAgent> startAgents(String symbol) {
+            List<ReplayAgent> started = new ArrayList<>();
+            for (AgentEntity bot : agentRepository.findByTradingSymbol(symbol, PageRequest.of(0, maxBotsPerSymbol))) {
+                TradingConfig botConfig;
+                try {
+                    botConfig = objectMapper.readValue(bot.getGoalDescription(), TradingConfig.class);
+                } catch (Exception e) {
+                    log.warn("[Replay] {} bot {} has an unreadable config; its signals are diffed against "
+                            + "the request config: {}", replayId, bot.getId(), e.getMessage());
+                    continue;
+                }
+                started.add(new ReplayAgent(bot.getId(), agentFactory.create(botConfig.withSymbol(symbol))));
+                storedBots.add(bot.getId());
+            }
+            started.add(new ReplayAgent(null, agentFactory.create(config.withSymbol(symbol))));
+            log.debug("[Replay] {} started {} agents for {}", replayId, started.size(), symbol);
+            return started;
+        }
+
+        private void onSignal(JsonNode record) {
+            JsonNode signal = record.has("data") ? record.get("data") : record;
+            String direction = signal.path("signal").asText();
+            Action action = "LONG".equals(direction) ? Action.BUY : "SHORT".equals(direction) ? Action.SELL : null;
+            String symbol = signal.path("symbol").asText(null);
+            if (action == null || symbol == null) {
+                return;
+            }
+            recordedSignals++;
+            JsonNode closeTime = signal.path("metadata").path(TradeSignalEvent.KLINE_CLOSE_TIME);
+            Long candle = closeTime.canConvertToLong() ? Long.valueOf(closeTime.asLong()) : lastCandle.get(symbol);
+            if (candle == null) {
+                log.debug("[Replay] {} signal for {} precedes its first candle; not diffed", action, symbol);
+                return;
+            }
+            String agentId = signal.path("botId").asText(null);
+            recordedAgents.computeIfAbsent(symbol, k -> new LinkedHashSet<>()).add(agentId);
+            recorded.put(new SignalKey(agentId, new CandleKey(symbol, candle)), action);
+        }
+
+        ReplayReport report() {
+            List<DecisionDiff> diffs = new ArrayList<>();
+            long matched = 0;
+            for (Map.Entry<SignalKey, Replayed> entry : replayed.entrySet()) {
+                CandleKey key = entry.getKey().candle();
+                Replayed replay = entry.getValue();
+                for (String agentId : comparedWith(entry.getKey().agentId(), key.symbol())) {
+                    Action original = recorded.getOrDefault(new SignalKey(agentId, key), Action.HOLD);
+                    if (original == replay.action()) {
+                        matched++;
+                    } else {
+                        diffs.add(new DecisionDiff(key.symbol(), Instant.ofEpochMilli(key.closeTime()),
+                                original, replay.action(), agentId,
+                                replay.confidence(), replay.reasoning()));
+                    }
+                }
+            }
+            Duration wallTime = Duration.ofNanos(System.nanoTime() - wallStart);
+            long simulatedMillis = events > 0 ? lastTimestamp - firstTimestamp : 0;
+            double speedup = wallTime.toNanos() > 0
+                    ? TimeUnit.MILLISECONDS.toNanos(simulatedMillis) / (double) wallTime.toNanos()
+                    : 0;
+            ReplayReport report = new ReplayReport(replayId,
+                    events > 0 ? Instant.ofEpochMilli(firstTimestamp) : null,
+                    events > 0 ? Instant.ofEpochMilli(lastTimestamp) : null,
+                    events, marketEvents, klines, decisions, agentErrors, fills,
+                    recordedSignals, recordedExecutions, matched, exchange.walletBalance(),
+                    wallTime, speedup, List.copyOf(diffs));
+            log.info("[Replay] {} complete: events={} klines={} matched={} diffs={} errors={} speedup={}x",
+                    replayId, events, klines, matched, diffs.size(), agentErrors,
+                    String.format("%.0f", speedup));
+            return report;
+        }
+
+        /**
+         * Recorded agents a replay agent's decisions are diffed against: a stored bot only against
+         * its own signals, the request-config agent against the recorded bots without a stored
+         * config, or against nothing ({@code null}) when the symbol has no recorded signal.
+         */
+        private Collection<String> comparedWith(String botId, String symbol) {
+            Set<String> recordedForSymbol = recordedAgents.get(symbol);
+            if (botId != null) {
+                return recordedForSymbol != null && recordedForSymbol.contains(botId)
+                        ? List.of(botId)
+                        : List.of();
+            }
+            if (recordedForSymbol == null) {
+                return Collections.singleton(null);
+            }
+            List<String> unstored = new ArrayList<>();
+            for (String agentId : recordedForSymbol) {
+                if (!storedBots.contains(agentId)) {
+                    unstored.add(agentId);
+                }
+            }
+            return unstored;
+        }
+
+        void stopAgents() {
+            agents.values().forEach(started -> started.forEach(agent -> agent.agent().stop()));
+        }
+    }
+}
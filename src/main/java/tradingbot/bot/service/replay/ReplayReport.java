@@ -0,0 +1,80 @@
+package tradingbot.bot.service.replay;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import tradingbot.agent.domain.model.AgentDecision.Action;
+
+/**
+ * Outcome of one replay.
+ *
+ * <p>Replayed decisions come from technical agents built from each stored bot's config (or the
+ * request config), so for bots that decided with an LLM in production the diffs compare the
+ * technical strategy with the recording rather than reproducing the recorded bot.
+ *
+ * @param replayId           identifier of this replay
+ * @param sessionStart       timestamp of the first replayed event
+ * @param sessionEnd         timestamp of the last replayed event
+ * @param events             events read from the source
+ * @param marketEvents       market data ticks fed to the simulated exchange
+ * @param klines             closed candles dispatched to agents
+ * @param decisions          decisions the replayed agents produced
+ * @param agentErrors        candles on which an agent failed instead of deciding
+ * @param fills              replayed decisions that changed a simulated position
+ * @param recordedSignals    entry signals found in the recording
+ * @param recordedExecutions executions found in the recording
+ * @param matched            candle and recorded agent pairs whose replayed action equals the
+ *                           recorded one
+ * @param finalBalance       simulated wallet balance after the replay
+ * @param wallTime           time the replay took
+ * @param speedup            simulated session time per unit of wall time
+ * @param diffs              candle and recorded agent pairs whose replayed action differs from
+ *                           the recorded one
+ */
+public record ReplayReport(
+        String replayId,
+        Instant sessionStart,
+        Instant sessionEnd,
+        long events,
+        long marketEvents,
+        long klines,
+        long decisions,
+        long agentErrors,
+        long fills,
+        long recordedSignals,
+        long recordedExecutions,
+        long matched,
+        double finalBalance,
+        Duration wallTime,
+        double speedup,
+        List<DecisionDiff> diffs) {
+
+    /** True when every replayed candle reproduced the recorded action. */
+    public boolean identical() {
+        return diffs.isEmpty() && agentErrors == 0;
+    }
+
+    /**
+     * A candle on which the replay decided differently from one recorded agent. A candle without
+     * an entry signal from that agent counts as a recorded {@code HOLD}.
+     *
+     * @param symbol          trading pair
+     * @param closeTime       close time of the candle
+     * @param recorded        recorded action
+     * @param replayed        replayed action, {@code null} when the agent failed
+     * @param recordedAgentId recorded agent the replay is compared with, {@code null} when no
+     *                        signal was recorded for the symbol
+     * @param confidence      confidence of the replayed decision
+     * @param reasoning       reasoning of the replayed decision, or the agent's error
+     */
+    public record DecisionDiff(
+            String symbol,
+            Instant closeTime,
+            Action recorded,
+            Action replayed,
+            String recordedAgentId,
+            int confidence,
+            String reasoning) {
+    }
+}
@@ -0,0 +1,78 @@
+package tradingbot.bot.service.replay;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Exported replay segment: gzip-compressed JSON lines, one {@link RecordedEvent} per line in
+ * replay order. A segment is self-contained, so an incident window can be attached to a ticket
+ * and replayed long after the topics' retention has dropped it.
+ */
+public final class ReplaySegment {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ReplaySegment() {
+    }
+
+    /**
+     * Drains {@code source} into {@code out}. Neither is closed.
+     *
+     * @return number of events written
+     */
+    public static long write(ReplaySource source, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 1 << 16);
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+        long count = 0;
+        for (RecordedEvent event = source.next(); event != null; event = source.next()) {
+            writer.write(MAPPER.writeValueAsString(event));
+            writer.newLine();
+            count++;
+        }
+        writer.flush();
+        gzip.finish();
+        return count;
+    }
+
+    /**
+     * Reads a segment written by {@link #write}; closing the returned source closes {@code in}.
+     */
+    public static ReplaySource read(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new GZIPInputStream(in, 1 << 16), StandardCharsets.UTF_8));
+        return new ReplaySource() {
+            @Override
+            public RecordedEvent next() {
+                try {
+                    String line;
+                    do {
+                        line = reader.readLine();
+                    } while (line != null && line.isBlank());
+                    return line != null ? MAPPER.readValue(line, RecordedEvent.class) : null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Corrupt replay segment", e);
+                }
+            }
+
+            @Override
+            public void close() {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package tradingbot.bot.service.replay;
+
+/**
+ * Recorded events in replay order: ascending timestamp, ties broken by topic, partition and
+ * offset so that the order is the same on every run.
+ */
+public interface ReplaySource extends AutoCloseable {
+
+    /**
+     * @return the next event, or {@code null} when the session is exhausted
+     */
+    RecordedEvent next();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,820 @@
+package tradingbot.bot.service.simulator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import tradingbot.bot.service.OrderResult.OrderStatus;
+
+/**
+ * In-process perpetual-futures exchange: a price-time-priority limit order book per symbol plus
+ * the account side (positions, leverage, fees, funding and liquidation) of a USDT-margined venue.
+ *
+ * <p>Prices are held as {@code long} ticks of the symbol's tick size; each price level is a FIFO of
+ * resting orders, so the oldest order at the best price always fills first. Order types:
+ * <ul>
+ *   <li>{@code LIMIT} — matches up to its price, the rest rests (GTC).</li>
+ *   <li>{@code MARKET} — sweeps the book; any unfilled rest is cancelled (IOC).</li>
+ *   <li>{@code STOP_MARKET} / {@code TAKE_PROFIT_MARKET} — held off-book until the mark price
+ *       crosses the trigger, then executed as a market order. An order that would trigger
+ *       immediately is rejected, as on Binance.</li>
+ * </ul>
+ * Reduce-only orders are clamped to the open position when they execute and expire once the
+ * position is flat, so an SL/TP bracket behaves one-cancels-other.
+ *
+ * <p>Accounts are cross-margined in one quote currency. Available balance is wallet balance plus
+ * unrealised PnL minus position and open-order initial margin; orders that would exceed it are
+ * rejected. On every {@link #updateMarkPrice mark price} update, accounts whose equity falls below
+ * maintenance margin are liquidated at the mark and any deficit is charged to the insurance fund.
+ * Accounts opened with {@link #openUnlimitedAccount()} skip all of this and serve as synthetic
+ * liquidity.
+ *
+ * <p>Not thread-safe: like a real matching engine it expects a single sequencing thread; callers
+ * that share it must serialise access.
+ */
+public final class MatchingEngine {
+
+    public enum Side {
+        BUY, SELL;
+
+        public Side opposite() {
+            return this == BUY ? SELL : BUY;
+        }
+    }
+
+    public enum OrderType { LIMIT, MARKET, STOP_MARKET, TAKE_PROFIT_MARKET }
+
+    /** Receives executions as they happen; both hooks are optional. */
+    public interface Listener {
+        default void onFill(Fill fill) { }
+
+        default void onLiquidation(Liquidation liquidation) { }
+    }
+
+    public record Fill(String symbol, long makerOrderId, long takerOrderId, int makerAccountId,
+                       int takerAccountId, Side takerSide, double price, double quantity) { }
+
+    public record Liquidation(int accountId, String symbol, double quantity, double price, double deficit) { }
+
+    private static final double QTY_EPS = 1e-9;
+    private static final int MAX_LEVERAGE = 125;
+    private static final Listener NO_LISTENER = new Listener() { };
+
+    private final double makerFeeRate;
+    private final double takerFeeRate;
+    private final double maintenanceMarginRate;
+
+    private final Map<String, Book> books = new HashMap<>();
+    private final List<Account> accounts = new ArrayList<>();
+    private final Map<Long, Order> liveOrders = new HashMap<>();
+    /** Positions that went flat during the current operation; their reduce-only orders expire. */
+    private final ArrayDeque<Position> flattened = new ArrayDeque<>();
+    private long nextOrderId = 1;
+    private long fillCount;
+    private double insuranceFund;
+    private Listener listener = NO_LISTENER;
+
+    /**
+     * @param makerFeeRate          fee on resting-side notional, e.g. 0.0002
+     * @param takerFeeRate          fee on aggressing-side notional, e.g. 0.0005
+     * @param maintenanceMarginRate maintenance margin as a fraction of position notional
+     */
+    public MatchingEngine(double makerFeeRate, double takerFeeRate, double maintenanceMarginRate) {
+        this.makerFeeRate = makerFeeRate;
+        this.takerFeeRate = takerFeeRate;
+        this.maintenanceMarginRate = maintenanceMarginRate;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener != null ? listener : NO_LISTENER;
+    }
+
+    // -------------------------------------------------------------------------
+    // Symbols and accounts
+    // -------------------------------------------------------------------------
+
+    public void addSymbol(String symbol, double tickSize) {
+        if (!(tickSize > 0)) {
+            throw new IllegalArgumentException("tickSize must be positive: " + tickSize);
+        }
+        books.putIfAbsent(symbol, new Book(symbol, tickSize));
+    }
+
+    public boolean hasSymbol(String symbol) {
+        return books.containsKey(symbol);
+    }
+
+    public int openAccount(double walletBalance) {
+        Account account = new Account(accounts.size(), walletBalance, false);
+        accounts.add(account);
+        return account.id;
+    }
+
+    /** Opens a market-maker account that is never margin-checked, charged or liquidated. */
+    public int openUnlimitedAccount() {
+        Account account = new Account(accounts.size(), 0, true);
+        accounts.add(account);
+        return account.id;
+    }
+
+    public Account account(int accountId) {
+        return accounts.get(accountId);
+    }
+
+    public void setLeverage(int accountId, String symbol, int leverage) {
+        if (leverage < 1 || leverage > MAX_LEVERAGE) {
+            throw new IllegalArgumentException("Leverage must be between 1 and " + MAX_LEVERAGE + ": " + leverage);
+        }
+        accounts.get(accountId).positionFor(book(symbol)).leverage = leverage;
+    }
+
+    // -------------------------------------------------------------------------
+    // Orders
+    // -------------------------------------------------------------------------
+
+    public Order submitLimit(int accountId, String symbol, Side side, double quantity, double price, boolean reduceOnly) {
+        Book book = book(symbol);
+        Order order = newOrder(accountId, book, side, OrderType.LIMIT, quantity, reduceOnly);
+        order.priceTicks = book.toTicks(price);
+        return execute(book, order);
+    }
+
+    public Order submitMarket(int accountId, String symbol, Side side, double quantity, boolean reduceOnly) {
+        Book book = book(symbol);
+        return execute(book, newOrder(accountId, book, side, OrderType.MARKET, quantity, reduceOnly));
+    }
+
+    /**
+     * Places a {@code STOP_MARKET} or {@code TAKE_PROFIT_MARKET} order that waits for the mark
+     * price to reach {@code triggerPrice}.
+     */
+    public Order submitTrigger(int accountId, String symbol, Side side, OrderType type, double quantity,
+                               double triggerPrice, boolean reduceOnly) {
+        if (type != OrderType.STOP_MARKET && type != OrderType.TAKE_PROFIT_MARKET) {
+            throw new IllegalArgumentException("Not a trigger order type: " + type);
+        }
+        Book book = book(symbol);
+        Order order = newOrder(accountId, book, side, type, quantity, reduceOnly);
+        order.triggerTicks = book.toTicks(triggerPrice);
+        if (order.status == OrderStatus.REJECTED) {
+            return order;
+        }
+        boolean firesOnRise = firesOnRise(order);
+        if (!Double.isNaN(book.markPrice)) {
+            long mark = book.toTicks(book.markPrice);
+            if (firesOnRise ? mark >= order.triggerTicks : mark <= order.triggerTicks) {
+                order.status = OrderStatus.REJECTED; // would trigger immediately
+                return order;
+            }
+        }
+        (firesOnRise ? book.triggersAbove : book.triggersBelow)
+                .computeIfAbsent(order.triggerTicks, k -> new ArrayDeque<>())
+                .add(order);
+        liveOrders.put(order.id, order);
+        trackReduceOnly(order);
+        return order;
+    }
+
+    /** @return false when the order is unknown or no longer open */
+    public boolean cancel(long orderId) {
+        Order order = liveOrders.get(orderId);
+        if (order == null) {
+            return false;
+        }
+        cancelOrder(order, OrderStatus.CANCELED);
+        return true;
+    }
+
+    /** Cancels every open order of {@code accountId} on {@code symbol}. */
+    public int cancelAll(int accountId, String symbol) {
+        List<Order> open = openOrders(accountId, symbol);
+        open.forEach(o -> cancelOrder(o, OrderStatus.CANCELED));
+        return open.size();
+    }
+
+    public Order order(long orderId) {
+        return liveOrders.get(orderId);
+    }
+
+    public List<Order> openOrders(int accountId, String symbol) {
+        List<Order> open = new ArrayList<>();
+        for (Order order : liveOrders.values()) {
+            if (order.accountId == accountId && order.book.symbol.equals(symbol)) {
+                open.add(order);
+            }
+        }
+        open.sort(Comparator.comparingLong(Order::id));
+        return open;
+    }
+
+    // -------------------------------------------------------------------------
+    // Market data, funding and liquidation
+    // -------------------------------------------------------------------------
+
+    /**
+     * Sets the mark price, fires stop / take-profit orders it crosses, and liquidates accounts
+     * that fall below maintenance margin.
+     */
+    public void updateMarkPrice(String symbol, double markPrice) {
+        Book book = book(symbol);
+        book.markPrice = markPrice;
+        long mark = book.toTicks(markPrice);
+        fireTriggers(book, mark);
+        expireFlattened();
+        checkLiquidations(book);
+    }
+
+    /**
+     * Settles one funding interval: each position pays {@code rate × position notional at mark};
+     * longs pay shorts when the rate is positive.
+     */
+    public void applyFunding(String symbol, double rate) {
+        Book book = book(symbol);
+        double mark = book.referencePrice();
+        if (Double.isNaN(mark)) {
+            return;
+        }
+        for (Account account : book.holders) {
+            Position position = account.positions.get(symbol);
+            double payment = position.quantity * mark * rate;
+            account.wallet -= payment;
+            position.fundingPaid += payment;
+        }
+        checkLiquidations(book);
+    }
+
+    public double markPrice(String symbol) {
+        return book(symbol).markPrice;
+    }
+
+    public double lastTradePrice(String symbol) {
+        return book(symbol).lastPrice;
+    }
+
+    public double bestBid(String symbol) {
+        Map.Entry<Long, Level> best = book(symbol).bids.firstEntry();
+        return best == null ? Double.NaN : book(symbol).toPrice(best.getKey());
+    }
+
+    public double bestAsk(String symbol) {
+        Map.Entry<Long, Level> best = book(symbol).asks.firstEntry();
+        return best == null ? Double.NaN : book(symbol).toPrice(best.getKey());
+    }
+
+    /** @return resting quantity at {@code price} on {@code side}, 0 when there is no level */
+    public double depthAt(String symbol, Side side, double price) {
+        Book book = book(symbol);
+        Level level = (side == Side.BUY ? book.bids : book.asks).get(book.toTicks(price));
+        return level == null ? 0 : level.quantity;
+    }
+
+    public long fillCount() {
+        return fillCount;
+    }
+
+    /** Cumulative deficits of liquidated accounts, as a negative number. */
+    public double insuranceFund() {
+        return insuranceFund;
+    }
+
+    // -------------------------------------------------------------------------
+    // Matching
+    // -------------------------------------------------------------------------
+
+    private Order newOrder(int accountId, Book book, Side side, OrderType type, double quantity, boolean reduceOnly) {
+        Order order = new Order(nextOrderId++, accountId, book, side, type, quantity, reduceOnly);
+        if (!(quantity > QTY_EPS)) {
+            order.status = OrderStatus.REJECTED;
+        } else if (reduceOnly && reducible(accounts.get(accountId), book, side) <= QTY_EPS) {
+            order.status = OrderStatus.REJECTED; // nothing to reduce
+        }
+        return order;
+    }
+
+    private Order execute(Book book, Order order) {
+        if (order.status == OrderStatus.REJECTED) {
+            return order;
+        }
+        Account account = accounts.get(order.accountId);
+        if (order.reduceOnly) {
+            order.remaining = Math.min(order.remaining, reducible(account, book, order.side));
+        } else if (!account.unlimited && !hasMarginFor(account, book, order)) {
+            order.status = OrderStatus.REJECTED;
+            return order;
+        }
+
+        long limit = order.type == OrderType.LIMIT ? order.priceTicks
+                : order.side == Side.BUY ? Long.MAX_VALUE : Long.MIN_VALUE;
+        match(book, order, limit);
+
+        if (order.remaining > QTY_EPS) {
+            if (order.type == OrderType.LIMIT) {
+                rest(book, order);
+            } else {
+                order.status = order.filled > QTY_EPS ? OrderStatus.PARTIALLY_FILLED : OrderStatus.EXPIRED;
+            }
+        } else {
+            order.remaining = 0;
+            order.status = OrderStatus.FILLED;
+        }
+        expireFlattened();
+        return order;
+    }
+
+    private void match(Book book, Order taker, long limitTicks) {
+        TreeMap<Long, Level> opposite = taker.side == Side.BUY ? book.asks : book.bids;
+        while (taker.remaining > QTY_EPS) {
+            Map.Entry<Long, Level> best = opposite.firstEntry();
+            if (best == null) {
+                return;
+            }
+            long ticks = best.getKey();
+            if (taker.side == Side.BUY ? ticks > limitTicks : ticks < limitTicks) {
+                return;
+            }
+            Level level = best.getValue();
+            double price = book.toPrice(ticks);
+            Order maker = level.head;
+            while (maker != null && taker.remaining > QTY_EPS) {
+                Order next = maker.next;
+                double quantity = Math.min(taker.remaining, maker.remaining);
+                if (maker.reduceOnly) {
+                    quantity = Math.min(quantity, reducible(accounts.get(maker.accountId), book, maker.side));
+                }
+                if (quantity <= QTY_EPS) {
+                    cancelOrder(maker, OrderStatus.EXPIRED);
+                } else {
+                    trade(book, maker, taker, price, quantity);
+                    if (maker.remaining <= QTY_EPS) {
+                        unlink(level, maker);
+                        liveOrders.remove(maker.id);
+                        maker.remaining = 0;
+                        maker.status = OrderStatus.FILLED;
+                    } else {
+                        maker.status = OrderStatus.PARTIALLY_FILLED;
+                    }
+                }
+                maker = next;
+            }
+            if (level.head == null) {
+                opposite.remove(ticks);
+            }
+            if (taker.reduceOnly) {
+                taker.remaining = Math.min(taker.remaining, reducible(accounts.get(taker.accountId), book, taker.side));
+            }
+        }
+    }
+
+    private void trade(Book book, Order maker, Order taker, double price, double quantity) {
+        maker.fill(price, quantity);
+        taker.fill(price, quantity);
+        maker.level.quantity -= quantity;
+        Account makerAccount = accounts.get(maker.accountId);
+        makerAccount.orderMargin -= quantity * maker.marginPerUnit;
+        maker.fees += settle(book, makerAccount, maker.side, price, quantity, makerFeeRate);
+        taker.fees += settle(book, accounts.get(taker.accountId), taker.side, price, quantity, takerFeeRate);
+        book.lastPrice = price;
+        fillCount++;
+        if (listener != NO_LISTENER) {
+            listener.onFill(new Fill(book.symbol, maker.id, taker.id, maker.accountId, taker.accountId,
+                    taker.side, price, quantity));
+        }
+    }
+
+    /** @return the fee charged to {@code account} */
+    private double settle(Book book, Account account, Side side, double price, double quantity, double feeRate) {
+        if (account.unlimited) {
+            return 0;
+        }
+        Position position = account.positionFor(book);
+        double fee = price * quantity * feeRate;
+        account.wallet -= fee;
+        position.feesPaid += fee;
+
+        double signed = side == Side.BUY ? quantity : -quantity;
+        double before = position.quantity;
+        if (before == 0 || (before > 0) == (signed > 0)) {
+            double after = before + signed;
+            position.entryPrice = (position.entryPrice * Math.abs(before) + price * quantity) / Math.abs(after);
+            position.quantity = after;
+        } else {
+            double closing = Math.min(Math.abs(before), quantity);
+            double pnl = closing * (price - position.entryPrice) * Math.signum(before);
+            account.wallet += pnl;
+            position.realizedPnl += pnl;
+            double after = before + signed;
+            if (Math.abs(after) <= QTY_EPS) {
+                position.quantity = 0;
+                position.entryPrice = 0;
+            } else {
+                if ((after > 0) != (before > 0)) {
+                    position.entryPrice = price; // flipped: the excess opens at this price
+                }
+                position.quantity = after;
+            }
+        }
+        if (position.quantity == 0) {
+            if (before != 0) {
+                book.holders.remove(account);
+                flattened.add(position);
+            }
+        } else if (before == 0) {
+            book.holders.add(account);
+        }
+        return fee;
+    }
+
+    private void rest(Book book, Order order) {
+        TreeMap<Long, Level> side = order.side == Side.BUY ? book.bids : book.asks;
+        Level level = side.get(order.priceTicks);
+        if (level == null) {
+            level = new Level();
+            side.put(order.priceTicks, level);
+        }
+        order.level = level;
+        order.prev = level.tail;
+        if (level.tail == null) {
+            level.head = order;
+        } else {
+            level.tail.next = order;
+        }
+        level.tail = order;
+        level.quantity += order.remaining;
+
+        Account account = accounts.get(order.accountId);
+        if (!account.unlimited && !order.reduceOnly) {
+            order.marginPerUnit = book.toPrice(order.priceTicks) / account.positionFor(book).leverage;
+            account.orderMargin += order.remaining * order.marginPerUnit;
+        }
+        order.status = order.filled > QTY_EPS ? OrderStatus.PARTIALLY_FILLED : OrderStatus.NEW;
+        liveOrders.put(order.id, order);
+        trackReduceOnly(order);
+    }
+
+    private void unlink(Level level, Order order) {
+        if (order.prev == null) {
+            level.head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            level.tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        order.prev = null;
+        order.next = null;
+    }
+
+    private void cancelOrder(Order order, OrderStatus status) {
+        liveOrders.remove(order.id);
+        Book book = order.book;
+        if (order.level != null) {
+            Level level = order.level;
+            level.quantity -= order.remaining;
+            accounts.get(order.accountId).orderMargin -= order.remaining * order.marginPerUnit;
+            unlink(level, order);
+            if (level.head == null) {
+                (order.side == Side.BUY ? book.bids : book.asks).remove(order.priceTicks);
+            }
+            order.level = null;
+        } else if (order.triggerTicks != Long.MIN_VALUE) {
+            TreeMap<Long, ArrayDeque<Order>> triggers = firesOnRise(order) ? book.triggersAbove : book.triggersBelow;
+            ArrayDeque<Order> queue = triggers.get(order.triggerTicks);
+            if (queue != null && queue.remove(order) && queue.isEmpty()) {
+                triggers.remove(order.triggerTicks);
+            }
+        }
+        order.status = status;
+    }
+
+    // -------------------------------------------------------------------------
+    // Triggers, margin and liquidation
+    // -------------------------------------------------------------------------
+
+    /** Buy stops and sell take-profits fire on a rise; sell stops and buy take-profits on a fall. */
+    private static boolean firesOnRise(Order order) {
+        return (order.type == OrderType.STOP_MARKET) == (order.side == Side.BUY);
+    }
+
+    private void fireTriggers(Book book, long mark) {
+        Map.Entry<Long, ArrayDeque<Order>> entry;
+        while ((entry = book.triggersAbove.firstEntry()) != null && entry.getKey() <= mark) {
+            book.triggersAbove.remove(entry.getKey());
+            entry.getValue().forEach(order -> fire(book, order));
+        }
+        while ((entry = book.triggersBelow.lastEntry()) != null && entry.getKey() >= mark) {
+            book.triggersBelow.remove(entry.getKey());
+            entry.getValue().forEach(order -> fire(book, order));
+        }
+    }
+
+    private void fire(Book book, Order order) {
+        if (liveOrders.remove(order.id) == null) {
+            return; // expired by an earlier trigger in this batch
+        }
+        if (order.reduceOnly && reducible(accounts.get(order.accountId), book, order.side) <= QTY_EPS) {
+            order.status = OrderStatus.EXPIRED;
+            return;
+        }
+        order.triggered = true;
+        execute(book, order);
+    }
+
+    private double reducible(Account account, Book book, Side side) {
+        Position position = account.positions.get(book.symbol);
+        if (position == null) {
+            return 0;
+        }
+        return side == Side.SELL ? Math.max(0, position.quantity) : Math.max(0, -position.quantity);
+    }
+
+    private boolean hasMarginFor(Account account, Book book, Order order) {
+        double price = order.type == OrderType.LIMIT ? book.toPrice(order.priceTicks) : book.referencePrice();
+        if (Double.isNaN(price)) {
+            price = book.toPrice(order.side == Side.BUY ? firstKey(book.asks) : firstKey(book.bids));
+        }
+        if (Double.isNaN(price)) {
+            return true; // nothing to price it against; an empty book cannot fill it anyway
+        }
+        Position position = account.positionFor(book);
+        double opening = Math.max(0, order.remaining - reducible(account, book, order.side));
+        double required = opening * price / position.leverage + order.remaining * price * takerFeeRate;
+        return availableBalance(account) >= required;
+    }
+
+    private static long firstKey(TreeMap<Long, Level> side) {
+        Map.Entry<Long, Level> first = side.firstEntry();
+        return first == null ? Long.MIN_VALUE : first.getKey();
+    }
+
+    double availableBalance(Account account) {
+        double equity = account.wallet;
+        double positionMargin = 0;
+        for (Position position : account.positions.values()) {
+            if (position.quantity != 0) {
+                double mark = position.book.referencePrice();
+                equity += position.quantity * (mark - position.entryPrice);
+                positionMargin += Math.abs(position.quantity) * mark / position.leverage;
+            }
+        }
+        return equity - positionMargin - account.orderMargin;
+    }
+
+    private void checkLiquidations(Book book) {
+        if (book.holders.isEmpty()) {
+            return;
+        }
+        for (Account account : new ArrayList<>(book.holders)) {
+            double equity = account.wallet;
+            double maintenance = 0;
+            for (Position position : account.positions.values()) {
+                if (position.quantity != 0) {
+                    double mark = position.book.referencePrice();
+                    equity += position.quantity * (mark - position.entryPrice);
+                    maintenance += Math.abs(position.quantity) * mark * maintenanceMarginRate;
+                }
+            }
+            if (equity < maintenance) {
+                liquidate(account);
+            }
+        }
+    }
+
+    /** Closes every position of the account at its mark and cancels all its orders. */
+    private void liquidate(Account account) {
+        for (Order order : new ArrayList<>(liveOrders.values())) {
+            if (order.accountId == account.id) {
+                cancelOrder(order, OrderStatus.CANCELED);
+            }
+        }
+        account.orderMargin = 0;
+        for (Position position : account.positions.values()) {
+            if (position.quantity == 0) {
+                continue;
+            }
+            double mark = position.book.referencePrice();
+            double quantity = position.quantity;
+            double pnl = quantity * (mark - position.entryPrice);
+            account.wallet += pnl;
+            position.realizedPnl += pnl;
+            position.quantity = 0;
+            position.entryPrice = 0;
+            position.book.holders.remove(account);
+            double deficit = 0;
+            if (account.wallet < 0) {
+                deficit = account.wallet;
+                insuranceFund += deficit;
+                account.wallet = 0;
+            }
+            listener.onLiquidation(new Liquidation(account.id, position.book.symbol, quantity, mark, deficit));
+        }
+        flattened.clear();
+    }
+
+    private void trackReduceOnly(Order order) {
+        if (order.reduceOnly) {
+            accounts.get(order.accountId).positionFor(order.book).reduceOnlyOrders.add(order);
+        }
+    }
+
+    /** Expires reduce-only orders of positions that went flat, e.g. the TP leg once the SL filled. */
+    private void expireFlattened() {
+        Position position;
+        while ((position = flattened.poll()) != null) {
+            if (position.quantity != 0) {
+                continue;
+            }
+            for (Iterator<Order> it = position.reduceOnlyOrders.iterator(); it.hasNext(); ) {
+                Order order = it.next();
+                it.remove();
+                if (liveOrders.containsKey(order.id)) {
+                    cancelOrder(order, OrderStatus.EXPIRED);
+                }
+            }
+        }
+    }
+
+    private Book book(String symbol) {
+        Book book = books.get(symbol);
+        if (book == null) {
+            throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        }
+        return book;
+    }
+
+    // -------------------------------------------------------------------------
+    // State
+    // -------------------------------------------------------------------------
+
+    private static final class Book {
+        final String symbol;
+        final double tickSize;
+        final TreeMap<Long, Level> bids = new TreeMap<>(Comparator.reverseOrder());
+        final TreeMap<Long, Level> asks = new TreeMap<>();
+        /** Trigger orders keyed by trigger tick: fire when the mark is at or above the key. */
+        final TreeMap<Long, ArrayDeque<Order>> triggersAbove = new TreeMap<>();
+        /** Trigger orders keyed by trigger tick: fire when the mark is at or below the key. */
+        final TreeMap<Long, ArrayDeque<Order>> triggersBelow = new TreeMap<>();
+        final Set<Account> holders = new LinkedHashSet<>();
+        double markPrice = Double.NaN;
+        double lastPrice = Double.NaN;
+
+        Book(String symbol, double tickSize) {
+            this.symbol = symbol;
+            this.tickSize = tickSize;
+        }
+
+        long toTicks(double price) {
+            return Math.round(price / tickSize);
+        }
+
+        double toPrice(long ticks) {
+            return ticks == Long.MIN_VALUE ? Double.NaN : ticks * tickSize;
+        }
+
+        /** Mark price, or the last trade before the first mark update. */
+        double referencePrice() {
+            return Double.isNaN(markPrice) ? lastPrice : markPrice;
+        }
+    }
+
+    private static final class Level {
+        Order head;
+        Order tail;
+        double quantity;
+    }
+
+    /**
+     * A live or finished order. Read-only outside the engine.
+     */
+    public static final class Order {
+        private final long id;
+        private final int accountId;
+        private final Book book;
+        private final Side side;
+        private final OrderType type;
+        private final double quantity;
+        private final boolean reduceOnly;
+        private long priceTicks = Long.MIN_VALUE;
+        private long triggerTicks = Long.MIN_VALUE;
+        private double remaining;
+        private double filled;
+        private double filledNotional;
+        private double fees;
+        private double marginPerUnit;
+        private boolean triggered;
+        private OrderStatus status = OrderStatus.NEW;
+        private Level level;
+        private Order prev;
+        private Order next;
+
+        private Order(long id, int accountId, Book book, Side side, OrderType type, double quantity, boolean reduceOnly) {
+            this.id = id;
+            this.accountId = accountId;
+            this.book = book;
+            this.side = side;
+            this.type = type;
+            this.quantity = quantity;
+            this.remaining = quantity;
+            this.reduceOnly = reduceOnly;
+        }
+
+        private void fill(double price, double qty) {
+            remaining -= qty;
+            filled += qty;
+            filledNotional += price * qty;
+        }
+
+        public long id() { return id; }
+        public int accountId() { return accountId; }
+        public String symbol() { return book.symbol; }
+        public Side side() { return side; }
+        public OrderType type() { return type; }
+        public double quantity() { return quantity; }
+        public boolean reduceOnly() { return reduceOnly; }
+        public double price() { return book.toPrice(priceTicks); }
+        public double triggerPrice() { return book.toPrice(triggerTicks); }
+        public double filledQuantity() { return filled; }
+        public double avgFillPrice() { return filled > 0 ? filledNotional / filled : 0; }
+        /** Fees charged on this order's fills, at the maker or taker rate of each fill. */
+        public double fees() { return fees; }
+        public OrderStatus status() { return status; }
+        /** True once a stop / take-profit order has been triggered. */
+        public boolean triggered() { return triggered; }
+    }
+
+    /**
+     * Balance and positions of one trader.
+     */
+    public static final class Account {
+        private final int id;
+        private final boolean unlimited;
+        private final Map<String, Position> positions = new LinkedHashMap<>();
+        private double wallet;
+        private double orderMargin;
+
+        private Account(int id, double wallet, boolean unlimited) {
+            this.id = id;
+            this.wallet = wallet;
+            this.unlimited = unlimited;
+        }
+
+        private Position positionFor(Book book) {
+            return positions.computeIfAbsent(book.symbol, s -> new Position(book));
+        }
+
+        public int id() { return id; }
+        public double walletBalance() { return wallet; }
+
+        /** @return the position, or a flat one with leverage 1 when the symbol was never traded */
+        public Position position(String symbol) {
+            Position position = positions.get(symbol);
+            return position != null ? position : Position.FLAT;
+        }
+
+        public Map<String, Position> positions() {
+            return Collections.unmodifiableMap(positions);
+        }
+    }
+
+    /**
+     * One-way-mode position: positive quantity is long, negative short.
+     */
+    public static final class Position {
+        private static final Position FLAT = new Position(null);
+
+        private final Book book;
+        private final List<Order> reduceOnlyOrders = new ArrayList<>(2);
+        private double quantity;
+        private double entryPrice;
+        private int leverage = 1;
+        private double realizedPnl;
+        private double feesPaid;
+        private double fundingPaid;
+
+        private Position(Book book) {
+            this.book = book;
+        }
+
+        public double quantity() { return quantity; }
+        public double entryPrice() { return entryPrice; }
+        public int leverage() { return leverage; }
+        public double realizedPnl() { return realizedPnl; }
+        public double feesPaid() { return feesPaid; }
+        public double fundingPaid() { return fundingPaid; }
+
+        public double unrealizedPnl() {
+            return quantity == 0 ? 0 : quantity * (book.referencePrice() - entryPrice);
+        }
+    }
+}
@@ -0,0 +1,583 @@
+package tradingbot.bot.service.simulator;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tradingbot.bot.controller.exception.BotOperationException;
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+import tradingbot.bot.service.FuturesExchangeService;
+import tradingbot.bot.service.OrderResult;
+import tradingbot.bot.service.Ticker24hrStats;
+import tradingbot.bot.service.simulator.MatchingEngine.Order;
+import tradingbot.bot.service.simulator.MatchingEngine.OrderType;
+import tradingbot.bot.service.simulator.MatchingEngine.Position;
+import tradingbot.bot.service.simulator.MatchingEngine.Side;
+import tradingbot.domain.market.BookTickerPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+
+/**
+ * {@link FuturesExchangeService} backed by an in-process {@link MatchingEngine}, for running the
+ * full stack (including {@code LiveOrderGateway} brackets and liquidation exits) offline.
+ *
+ * <p>Prices come from {@link #onTick} / {@link #onEvent}, fed by replayed or synthetic market
+ * data, or by {@link SimulatorMarketDataFeed} from the live stream when this is the exchange
+ * provider. Each tick re-quotes a market-maker account around the price ({@code quote-depth} on each
+ * side, {@code quote-spread-bps} wide), which fills any resting user limit order the price
+ * crossed; it then sets the mark price, so stop-loss and take-profit orders trigger and fill
+ * against the new quotes, and under-margined positions are liquidated. Funding is settled at
+ * {@code funding-rate} every {@code funding-interval} of tick time (00:00, 08:00 and 16:00 UTC by
+ * default).
+ *
+ * <p>Entries and exits are market orders; exits and SL/TP orders are reduce-only, so the
+ * remaining leg of a bracket expires once the position is closed. Rejections (insufficient
+ * margin, nothing to reduce, a trigger that would fire immediately) throw
+ * {@link BotOperationException}, as the paper exchange does.
+ *
+ * <p>Candles for {@link #fetchOhlcv} are built from the ticks: one-minute bars (the last
+ * {@value #MAX_MINUTE_BARS}), aggregated to the requested timeframe.
+ */
+public class SimulatedFuturesExchangeService implements FuturesExchangeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedFuturesExchangeService.class);
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    /** One week of one-minute bars. */
+    static final int MAX_MINUTE_BARS = 7 * 24 * 60;
+
+    private final MatchingEngine engine;
+    private final int userAccount;
+    private final int marketMaker;
+    private final double tickSize;
+    private final double quoteSpreadBps;
+    private final double quoteDepth;
+    private final double fundingRate;
+    private final long fundingIntervalMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, SymbolState> symbols = new HashMap<>();
+
+    /**
+     * @param walletBalance         starting balance of the trading account, in quote currency
+     * @param tickSize              price increment of every symbol
+     * @param makerFeeRate          fee on resting-side notional
+     * @param takerFeeRate          fee on aggressing-side notional
+     * @param maintenanceMarginRate maintenance margin as a fraction of position notional
+     * @param quoteSpreadBps        width of the synthetic market maker's quote around each tick
+     * @param quoteDepth            quantity the market maker quotes on each side
+     * @param fundingRate           rate settled every {@code fundingIntervalMillis}; longs pay when positive
+     * @param fundingIntervalMillis funding interval in tick time, 0 to disable funding
+     */
+    public SimulatedFuturesExchangeService(double walletBalance, double tickSize, double makerFeeRate,
+                                           double takerFeeRate, double maintenanceMarginRate,
+                                           double quoteSpreadBps, double quoteDepth,
+                                           double fundingRate, long fundingIntervalMillis) {
+        this.engine = new MatchingEngine(makerFeeRate, takerFeeRate, maintenanceMarginRate);
+        this.userAccount = engine.openAccount(walletBalance);
+        this.marketMaker = engine.openUnlimitedAccount();
+        this.tickSize = tickSize;
+        this.quoteSpreadBps = quoteSpreadBps;
+        this.quoteDepth = quoteDepth;
+        this.fundingRate = fundingRate;
+        this.fundingIntervalMillis = fundingIntervalMillis;
+        engine.setListener(new MatchingEngine.Listener() {
+            @Override
+            public void onLiquidation(MatchingEngine.Liquidation liquidation) {
+                logger.warn("LIQUIDATION {} {} at {} (deficit {})", liquidation.symbol(),
+                        liquidation.quantity(), liquidation.price(), liquidation.deficit());
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Market data
+    // -------------------------------------------------------------------------
+
+    /**
+     * Feeds a trade or book-ticker event; other event types are ignored.
+     */
+    public void onEvent(StreamMarketDataEvent event) {
+        double price;
+        double quantity = 0;
+        switch (event.type()) {
+            case TRADE -> {
+                price = event.price().doubleValue();
+                quantity = event.quantity() != null ? event.quantity().doubleValue() : 0;
+            }
+            case BOOK_TICKER -> {
+                if (!(event.payload() instanceof BookTickerPayload btp)) {
+                    return;
+                }
+                price = btp.midPrice();
+            }
+            default -> {
+                return;
+            }
+        }
+        long timestamp = event.timestamp() != null ? event.timestamp().toEpochMilli() : System.currentTimeMillis();
+        onTick(event.symbol(), price, quantity, timestamp);
+    }
+
+    /**
+     * Advances {@code symbol} to {@code price} at {@code timestampMillis}: re-quotes, fires
+     * triggers, liquidates, settles funding when an interval boundary is crossed, and records
+     * {@code quantity} of traded volume into the current bar.
+     */
+    public void onTick(String symbol, double price, double quantity, long timestampMillis) {
+        if (!(price > 0)) {
+            return;
+        }
+        lock.lock();
+        try {
+            SymbolState state = state(symbol);
+            requote(symbol, state, price);
+            engine.updateMarkPrice(symbol, price);
+            settleFunding(symbol, state, timestampMillis);
+            state.record(price, quantity, timestampMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void requote(String symbol, SymbolState state, double price) {
+        if (state.bidQuote != 0) {
+            engine.cancel(state.bidQuote);
+            engine.cancel(state.askQuote);
+        }
+        long center = Math.round(price / tickSize);
+        long halfTicks = Math.max(1, Math.round(price * quoteSpreadBps / 20_000 / tickSize));
+        double bid = (center - halfTicks) * tickSize;
+        double ask = (center + halfTicks) * tickSize;
+        state.bidQuote = engine.submitLimit(marketMaker, symbol, Side.BUY, quoteDepth, bid, false).id();
+        state.askQuote = engine.submitLimit(marketMaker, symbol, Side.SELL, quoteDepth, ask, false).id();
+    }
+
+    private void settleFunding(String symbol, SymbolState state, long timestampMillis) {
+        if (fundingIntervalMillis <= 0) {
+            return;
+        }
+        long interval = Math.floorDiv(timestampMillis, fundingIntervalMillis);
+        if (state.fundingInterval != Long.MIN_VALUE && interval > state.fundingInterval) {
+            engine.applyFunding(symbol, fundingRate);
+        }
+        state.fundingInterval = interval;
+    }
+
+    // -------------------------------------------------------------------------
+    // FuturesExchangeService
+    // -------------------------------------------------------------------------
+
+    @Override
+    public List<Candle> fetchOhlcv(String symbol, String timeframe, int limit) {
+        long intervalMillis = intervalMillis(timeframe);
+        lock.lock();
+        try {
+            SymbolState state = symbols.get(symbol);
+            if (state == null || limit <= 0) {
+                return List.of();
+            }
+            ArrayDeque<Candle> candles = new ArrayDeque<>(Math.min(limit, MAX_MINUTE_BARS));
+            Candle current = null;
+            for (Iterator<Bar> it = state.bars.descendingIterator(); it.hasNext(); ) {
+                Bar bar = it.next();
+                long openTime = Math.floorDiv(bar.openTime, intervalMillis) * intervalMillis;
+                if (current == null || current.getOpenTime() != openTime) {
+                    if (current != null && candles.size() == limit) {
+                        break;
+                    }
+                    current = bar.toCandle(openTime, intervalMillis);
+                    candles.addFirst(current);
+                } else {
+                    bar.mergeInto(current);
+                }
+            }
+            return new ArrayList<>(candles);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public double getCurrentPrice(String symbol) {
+        lock.lock();
+        try {
+            SymbolState state = symbols.get(symbol);
+            if (state == null) {
+                throw new BotOperationException("getCurrentPrice", "No simulated market data for " + symbol);
+            }
+            return state.lastPrice;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Available balance: wallet plus unrealised PnL, less position and open-order margin. */
+    @Override
+    public double getMarginBalance() {
+        lock.lock();
+        try {
+            return engine.availableBalance(engine.account(userAccount));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Ticker24hrStats get24HourStats(String symbol) {
+        lock.lock();
+        try {
+            SymbolState state = symbols.get(symbol);
+            if (state == null || state.bars.isEmpty()) {
+                throw new BotOperationException("get24HourStats", "No simulated market data for " + symbol);
+            }
+            long since = state.bars.getLast().openTime - DAY_MILLIS + MINUTE_MILLIS;
+            double open = Double.NaN;
+            double high = Double.NEGATIVE_INFINITY;
+            double low = Double.POSITIVE_INFINITY;
+            double volume = 0;
+            double quoteVolume = 0;
+            for (Iterator<Bar> it = state.bars.descendingIterator(); it.hasNext(); ) {
+                Bar bar = it.next();
+                if (bar.openTime < since) {
+                    break;
+                }
+                open = bar.open;
+                high = Math.max(high, bar.high);
+                low = Math.min(low, bar.low);
+                volume += bar.volume;
+                quoteVolume += bar.quoteVolume;
+            }
+            double last = state.lastPrice;
+            return Ticker24hrStats.builder()
+                .symbol(symbol)
+                .volume(volume)
+                .quoteVolume(quoteVolume)
+                .priceChange(last - open)
+                .priceChangePercent((last - open) / open * 100)
+                .highPrice(high)
+                .lowPrice(low)
+                .openPrice(open)
+                .lastPrice(last)
+                .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void setLeverage(String symbol, int leverage) {
+        lock.lock();
+        try {
+            state(symbol);
+            engine.setLeverage(userAccount, symbol, leverage);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public OrderResult enterLongPosition(String symbol, double tradeAmount) {
+        return market("enterLongPosition", symbol, Side.BUY, tradeAmount, false);
+    }
+
+    @Override
+    public OrderResult exitLongPosition(String symbol, double tradeAmount) {
+        return market("exitLongPosition", symbol, Side.SELL, tradeAmount, true);
+    }
+
+    @Override
+    public OrderResult enterShortPosition(String symbol, double tradeAmount) {
+        return market("enterShortPosition", symbol, Side.SELL, tradeAmount, false);
+    }
+
+    @Override
+    public OrderResult exitShortPosition(String symbol, double tradeAmount) {
+        return market("exitShortPosition", symbol, Side.BUY, tradeAmount, true);
+    }
+
+    @Override
+    public OrderResult placeStopLossOrder(String symbol, String side, double quantity, double stopPrice) {
+        return trigger("placeStopLossOrder", symbol, side, OrderType.STOP_MARKET, quantity, stopPrice);
+    }
+
+    @Override
+    public OrderResult placeTakeProfitOrder(String symbol, String side, double quantity, double takeProfitPrice) {
+        return trigger("placeTakeProfitOrder", symbol, side, OrderType.TAKE_PROFIT_MARKET, quantity, takeProfitPrice);
+    }
+
+    // -------------------------------------------------------------------------
+    // Simulator-only operations
+    // -------------------------------------------------------------------------
+
+    /**
+     * Places a GTC limit order for the trading account.
+     */
+    public OrderResult placeLimitOrder(String symbol, String side, double quantity, double price, boolean reduceOnly) {
+        lock.lock();
+        try {
+            requireMarket("placeLimitOrder", symbol);
+            Order order = engine.submitLimit(userAccount, symbol, parseSide(side), quantity, price, reduceOnly);
+            return toResult("placeLimitOrder", order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean cancelOrder(String exchangeOrderId) {
+        lock.lock();
+        try {
+            return engine.cancel(parseOrderId(exchangeOrderId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current state of an order placed through this service, or {@code null} once it is no longer
+     * open (filled, cancelled or expired).
+     */
+    public OrderResult openOrder(String exchangeOrderId) {
+        lock.lock();
+        try {
+            Order order = engine.order(parseOrderId(exchangeOrderId));
+            return order != null && order.accountId() == userAccount ? toResult(order) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<OrderResult> openOrders(String symbol) {
+        lock.lock();
+        try {
+            if (!engine.hasSymbol(symbol)) {
+                return List.of();
+            }
+            return engine.openOrders(userAccount, symbol).stream().map(this::toResult).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Signed position size: positive long, negative short, 0 flat. */
+    public double positionQuantity(String symbol) {
+        return position(symbol, Position::quantity);
+    }
+
+    public double positionEntryPrice(String symbol) {
+        return position(symbol, Position::entryPrice);
+    }
+
+    public double walletBalance() {
+        lock.lock();
+        try {
+            return engine.account(userAccount).walletBalance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double position(String symbol, ToDoubleFunction<Position> field) {
+        lock.lock();
+        try {
+            return field.applyAsDouble(engine.account(userAccount).position(symbol));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Internals
+    // -------------------------------------------------------------------------
+
+    private OrderResult market(String operation, String symbol, Side side, double quantity, boolean reduceOnly) {
+        lock.lock();
+        try {
+            requireMarket(operation, symbol);
+            return toResult(operation, engine.submitMarket(userAccount, symbol, side, quantity, reduceOnly));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private OrderResult trigger(String operation, String symbol, String side, OrderType type,
+                                double quantity, double triggerPrice) {
+        lock.lock();
+        try {
+            requireMarket(operation, symbol);
+            Order order = engine.submitTrigger(userAccount, symbol, parseSide(side), type, quantity, triggerPrice, true);
+            return toResult(operation, order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void requireMarket(String operation, String symbol) {
+        if (!symbols.containsKey(symbol)) {
+            throw new BotOperationException(operation, "No simulated market data for " + symbol);
+        }
+    }
+
+    private OrderResult toResult(String operation, Order order) {
+        if (order.status() == OrderResult.OrderStatus.REJECTED) {
+            throw new BotOperationException(operation, order.reduceOnly()
+                    ? "Order rejected: no position to reduce or trigger price already reached"
+                    : "Order rejected: insufficient margin");
+        }
+        return toResult(order);
+    }
+
+    private OrderResult toResult(Order order) {
+        Instant now = Instant.now();
+        double avgPrice = order.filledQuantity() > 0 ? order.avgFillPrice()
+                : order.type() == OrderType.LIMIT ? order.price()
+                : order.type() == OrderType.MARKET ? 0 : order.triggerPrice();
+        return OrderResult.builder()
+            .exchangeOrderId("SIM-" + order.id())
+            .symbol(order.symbol())
+            .side(order.side() == Side.BUY ? "Buy" : "Sell")
+            .status(order.status())
+            .orderedQuantity(order.quantity())
+            .filledQuantity(order.filledQuantity())
+            .avgFillPrice(avgPrice)
+            .commission(order.fees())
+            .createdAt(now)
+            .updatedAt(now)
+            .build();
+    }
+
+    private SymbolState state(String symbol) {
+        SymbolState state = symbols.get(symbol);
+        if (state == null) {
+            engine.addSymbol(symbol, tickSize);
+            state = new SymbolState();
+            symbols.put(symbol, state);
+        }
+        return state;
+    }
+
+    private static Side parseSide(String side) {
+        return switch (side == null ? "" : side.trim().toUpperCase(Locale.ROOT)) {
+            case "BUY" -> Side.BUY;
+            case "SELL" -> Side.SELL;
+            default -> throw new IllegalArgumentException("Unknown order side: " + side);
+        };
+    }
+
+    private static long parseOrderId(String exchangeOrderId) {
+        if (exchangeOrderId == null || !exchangeOrderId.startsWith("SIM-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(exchangeOrderId.substring(4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Binance-style interval ({@code 1m}, {@code 15m}, {@code 4h}, {@code 1d}, {@code 1w}) in millis. */
+    static long intervalMillis(String timeframe) {
+        if (timeframe == null || timeframe.length() < 2) {
+            throw new IllegalArgumentException("Unsupported timeframe: " + timeframe);
+        }
+        long count;
+        try {
+            count = Long.parseLong(timeframe.substring(0, timeframe.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unsupported timeframe: " + timeframe, e);
+        }
+        TimeUnit unit = switch (timeframe.charAt(timeframe.length() - 1)) {
+            case 'm' -> TimeUnit.MINUTES;
+            case 'h' -> TimeUnit.HOURS;
+            case 'd' -> TimeUnit.DAYS;
+            case 'w' -> { count *= 7; yield TimeUnit.DAYS; }
+            default -> throw new IllegalArgumentException("Unsupported timeframe: " + timeframe);
+        };
+        if (count <= 0) {
+            throw new IllegalArgumentException("Unsupported timeframe: " + timeframe);
+        }
+        return unit.toMillis(count);
+    }
+
+    /** Per-symbol quotes, funding clock and one-minute bars. */
+    private static final class SymbolState {
+        final ArrayDeque<Bar> bars = new ArrayDeque<>();
+        long bidQuote;
+        long askQuote;
+        long fundingInterval = Long.MIN_VALUE;
+        double lastPrice;
+
+        void record(double price, double quantity, long timestampMillis) {
+            lastPrice = price;
+            long openTime = Math.floorDiv(timestampMillis, MINUTE_MILLIS) * MINUTE_MILLIS;
+            Bar bar = bars.peekLast();
+            if (bar == null || openTime > bar.openTime) {
+                bar = new Bar(openTime, price);
+                bars.addLast(bar);
+                if (bars.size() > MAX_MINUTE_BARS) {
+                    bars.removeFirst();
+                }
+            }
+            // a late tick for an earlier minute is folded into the current bar
+            bar.high = Math.max(bar.high, price);
+            bar.low = Math.min(bar.low, price);
+            bar.close = price;
+            bar.volume += quantity;
+            bar.quoteVolume += quantity * price;
+        }
+    }
+
+    private static final class Bar {
+        final long openTime;
+        final double open;
+        double high;
+        double low;
+        double close;
+        double volume;
+        double quoteVolume;
+
+        Bar(long openTime, double open) {
+            this.openTime = openTime;
+            this.open = open;
+            this.high = open;
+            this.low = open;
+            this.close = open;
+        }
+
+        Candle toCandle(long candleOpenTime, long intervalMillis) {
+            Candle candle = new Candle();
+            candle.setOpenTime(candleOpenTime);
+            candle.setCloseTime(candleOpenTime + intervalMillis - 1);
+            candle.setOpen(BigDecimal.valueOf(open));
+            candle.setHigh(BigDecimal.valueOf(high));
+            candle.setLow(BigDecimal.valueOf(low));
+            candle.setClose(BigDecimal.valueOf(close));
+            candle.setVolume(BigDecimal.valueOf(volume));
+            return candle;
+        }
+
+        /** Folds this (earlier) bar into a candle built from later bars of the same interval. */
+        void mergeInto(Candle candle) {
+            candle.setOpen(BigDecimal.valueOf(open));
+            if (high > candle.getHigh().doubleValue()) {
+                candle.setHigh(BigDecimal.valueOf(high));
+            }
+            if (low < candle.getLow().doubleValue()) {
+                candle.setLow(BigDecimal.valueOf(low));
+            }
+            candle.setVolume(candle.getVolume().add(BigDecimal.valueOf(volume)));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package tradingbot.bot.service.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import tradingbot.bot.service.FuturesExchangeService;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+/**
+ * Feeds the {@code simulator} exchange provider from the market data stream.
+ *
+ * <p>The simulator only has prices for symbols it has been ticked for, so with
+ * {@code trading.exchange.provider=simulator} this subscribes it to the trades and book tickers of
+ * {@code simulator.symbols} on the {@link ExchangeWebSocketClient} composite, the same sanitized
+ * stream the agents see. Orders then match against quotes around the live price while nothing is
+ * sent to an exchange. Symbols outside the list have no price and their orders are rejected.
+ */
+@Component
+@ConditionalOnProperty(name = "trading.exchange.provider", havingValue = "simulator")
+public class SimulatorMarketDataFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulatorMarketDataFeed.class);
+
+    private final SimulatedFuturesExchangeService simulator;
+    private final ExchangeWebSocketClient webSocketClient;
+    private final List<String> symbols;
+    private final List<Disposable> subscriptions = new ArrayList<>();
+
+    public SimulatorMarketDataFeed(FuturesExchangeService exchangeService,
+                                   ExchangeWebSocketClient webSocketClient,
+                                   @Value("${simulator.symbols:BTCUSDT}") List<String> symbols) {
+        if (!(exchangeService instanceof SimulatedFuturesExchangeService sim)) {
+            throw new IllegalStateException("trading.exchange.provider=simulator but the exchange service is "
+                    + exchangeService.getClass().getSimpleName());
+        }
+        this.simulator = sim;
+        this.webSocketClient = webSocketClient;
+        this.symbols = symbols;
+    }
+
+    @PostConstruct
+    public void start() {
+        for (String symbol : symbols) {
+            subscriptions.add(webSocketClient.streamTrades(symbol).subscribe(simulator::onEvent,
+                    e -> log.error("[SimulatorFeed] trade stream for {} ended: {}", symbol, e.getMessage())));
+            subscriptions.add(webSocketClient.streamBookTicker(symbol).subscribe(simulator::onEvent,
+                    e -> log.error("[SimulatorFeed] book ticker stream for {} ended: {}", symbol, e.getMessage())));
+        }
+        log.info("[SimulatorFeed] simulated exchange following {}", symbols);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(Disposable::dispose);
+        subscriptions.clear();
+    }
+}
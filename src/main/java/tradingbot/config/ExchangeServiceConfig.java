@@ -1,5 +1,6 @@
 package tradingbot.config;
 
+import java.time.Duration;
 import java.util.Locale;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -12,6 +13,7 @@ import tradingbot.bot.service.FuturesExchangeService;
 import tradingbot.bot.service.PaperFuturesExchangeService;
 import tradingbot.bot.service.RateLimitedBinanceFuturesService;
 import tradingbot.bot.service.RateLimitedBybitFuturesService;
+import tradingbot.bot.service.simulator.SimulatedFuturesExchangeService;
 
 /**
  * Configuration for exchange services with rate limiting.
@@ -40,6 +42,33 @@ public class ExchangeServiceConfig {
     @Value("${trading.bybit.domain:TESTNET_DOMAIN}")
     private String bybitDomain;
 
+    @Value("${simulator.initial-balance:10000}")
+    private double simulatorInitialBalance;
+
+    @Value("${simulator.tick-size:0.01}")
+    private double simulatorTickSize;
+
+    @Value("${simulator.maker-fee-rate:${simulator.taker-fee-rate:0.0005}}")
+    private double simulatorMakerFeeRate;
+
+    @Value("${simulator.taker-fee-rate:0.0005}")
+    private double simulatorTakerFeeRate;
+
+    @Value("${simulator.maintenance-margin-rate:0.004}")
+    private double simulatorMaintenanceMarginRate;
+
+    @Value("${simulator.quote-spread-bps:1}")
+    private double simulatorQuoteSpreadBps;
+
+    @Value("${simulator.quote-depth:1000000}")
+    private double simulatorQuoteDepth;
+
+    @Value("${simulator.funding-rate:0.0001}")
+    private double simulatorFundingRate;
+
+    @Value("${simulator.funding-interval:8h}")
+    private Duration simulatorFundingInterval;
+
     private final TradingSafetyService tradingSafetyService;
 
     public ExchangeServiceConfig(TradingSafetyService tradingSafetyService) {
@@ -68,10 +97,22 @@ public class ExchangeServiceConfig {
             }
             case "binance" -> new RateLimitedBinanceFuturesService(
                 binanceApiKey, binanceApiSecret, eventPublisher);
+            case "simulator" -> newSimulator();
             // TODO [Phase 3]: Add dYdX v4, OKX, Gate.io via XChange adapter
             default -> throw new IllegalArgumentException(
                 "Unknown exchange provider: " + provider
-                + ". Valid values: paper, bybit, binance");
+                + ". Valid values: paper, simulator, bybit, binance");
         };
     }
+
+    /**
+     * A fresh simulator with the configured {@code simulator.*} settings, for the exchange
+     * provider and for offline runs such as session replays.
+     */
+    public SimulatedFuturesExchangeService newSimulator() {
+        return new SimulatedFuturesExchangeService(
+            simulatorInitialBalance, simulatorTickSize, simulatorMakerFeeRate, simulatorTakerFeeRate,
+            simulatorMaintenanceMarginRate, simulatorQuoteSpreadBps, simulatorQuoteDepth,
+            simulatorFundingRate, simulatorFundingInterval.toMillis());
+    }
 }
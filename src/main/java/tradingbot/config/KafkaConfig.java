@@ -154,6 +154,8 @@ public class KafkaConfig {
 
         // Configure concurrency (number of consumer threads per topic)
         factory.setConcurrency(3);
+        // Consumer threads block in poll() and in listener I/O; run them on virtual threads
+        factory.getContainerProperties().setListenerTaskExecutor(VirtualThreads.taskExecutor("kafka-listener-"));
 
         // Manual acknowledgement — offset only advances after successful processing.
         // Combined with ENABLE_AUTO_COMMIT_CONFIG=false this prevents data loss on crash.
@@ -119,6 +119,16 @@ public class TradingConfig implements Serializable {
         this.interval = interval;
         this.direction = null;
     }
+
+    /** A copy of this configuration for another symbol. */
+    public TradingConfig withSymbol(String symbol) {
+        TradingConfig copy = new TradingConfig(symbol, tradeAmount, leverage, trailingStopPercent,
+                lookbackPeriodRsi, rsiOversoldThreshold, rsiOverboughtThreshold,
+                macdFastPeriod, macdSlowPeriod, macdSignalPeriod, bbPeriod, bbStandardDeviation, interval);
+        copy.direction = direction;
+        return copy;
+    }
+
     public String getDirection() { return direction; }
     public void setDirection(String direction) { this.direction = direction; }
 
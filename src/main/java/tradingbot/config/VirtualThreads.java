@@ -0,0 +1,61 @@
+package tradingbot.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Shared Java 21 virtual-thread executors for blocking I/O (exchange REST, JDBC, Kafka sends,
+ * blocking LLM providers).
+ *
+ * <p>Every task gets its own virtual thread, so a call parked on a socket holds no carrier thread
+ * and concurrency is limited by the downstream resource (bulkheads, rate limiters, connection
+ * pools) instead of by a thread pool size. Reactor code uses {@link #blockingScheduler()} where it
+ * previously used {@code Schedulers.boundedElastic()}; {@code CompletableFuture} code uses
+ * {@link #executor()} instead of the common pool, which is sized for CPU work.
+ *
+ * <p>Code running here must not block while holding a monitor: on Java 21 that pins the carrier
+ * thread. Guard shared state that is held across I/O with a {@link java.util.concurrent.locks.Lock}
+ * instead of {@code synchronized}.
+ *
+ * <p>Both executors live for the JVM and are never shut down; their threads are daemons.
+ */
+public final class VirtualThreads {
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vt-io-", 0).factory());
+
+    private static final Scheduler SCHEDULER = Schedulers.fromExecutorService(EXECUTOR, "vt-io");
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return the executor that runs each task on a new virtual thread
+     */
+    public static ExecutorService executor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * @return a Reactor scheduler over {@link #executor()}; for {@code subscribeOn} and direct
+     *         {@code schedule} calls. It does not support delayed or periodic scheduling.
+     */
+    public static Scheduler blockingScheduler() {
+        return SCHEDULER;
+    }
+
+    /**
+     * A Spring task executor that starts a named virtual thread per task, for {@code @Async} and
+     * Kafka listener containers.
+     */
+    public static SimpleAsyncTaskExecutor taskExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
@@ -30,10 +30,43 @@ public record BookTickerPayload(BigDecimal bid, BigDecimal ask) implements Marke
         requireNonNull(ask, "ask must not be null");
     }
 
-    /** Convenience: mid-price for signal/indicator use (not for fill simulation). */
+    /**
+     * Exact mid-price for signal/indicator use (not for fill simulation). Allocates; per-tick
+     * code should use {@link #midPrice()}.
+     */
     public BigDecimal mid() {
         int scale = Math.max(bid.scale(), ask.scale()) + 1;
         return bid.add(ask).divide(java.math.BigDecimal.valueOf(2), scale,
                 java.math.RoundingMode.HALF_UP);
     }
+
+    // -------------------------------------------------------------------------
+    // Allocation-free fast path. Exchange prices parse to compact BigDecimals
+    // (unscaled value fits a long), whose doubleValue() is a single division
+    // with no intermediate objects, so these are safe to call on every tick.
+    // -------------------------------------------------------------------------
+
+    public double bidPrice() {
+        return bid.doubleValue();
+    }
+
+    public double askPrice() {
+        return ask.doubleValue();
+    }
+
+    /** Mid-price as a double, without allocating. */
+    public double midPrice() {
+        return (bid.doubleValue() + ask.doubleValue()) * 0.5;
+    }
+
+    /** {@code (ask - bid) / ask} in percent, without allocating; NaN when ask is zero. */
+    public double spreadPercent() {
+        double a = ask.doubleValue();
+        return a == 0 ? Double.NaN : (a - bid.doubleValue()) * 100 / a;
+    }
+
+    /** @return true when bid is above ask (compared exactly) */
+    public boolean isCrossed() {
+        return bid.compareTo(ask) > 0;
+    }
 }
@@ -34,6 +34,7 @@ import java.time.Instant;
  * @param volume     volume traded during the candle
  * @param openTime   candle open timestamp (UTC)
  * @param closeTime  candle close timestamp (UTC)
+ * @param receivedNanos {@link System#nanoTime()} when the closing frame arrived, 0 if not stamped
  */
 public record KlineClosedEvent(
         String exchange,
@@ -45,9 +46,19 @@ public record KlineClosedEvent(
         BigDecimal close,
         BigDecimal volume,
         Instant openTime,
-        Instant closeTime
+        Instant closeTime,
+        long receivedNanos
 ) implements MarketEvent {
 
+    /**
+     * Unstamped event (replay, backtest, tests).
+     */
+    public KlineClosedEvent(String exchange, String symbol, String interval,
+                            BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close,
+                            BigDecimal volume, Instant openTime, Instant closeTime) {
+        this(exchange, symbol, interval, open, high, low, close, volume, openTime, closeTime, 0L);
+    }
+
     @Override
     public BigDecimal price() {
         return close;
@@ -28,4 +28,13 @@ public interface MarketEvent {
     BigDecimal volume();
     
     Instant timestamp();
+
+    /**
+     * {@link System#nanoTime()} at which the exchange frame carrying this event was received,
+     * or 0 when unknown (replayed, synthetic or produced in another JVM). Only used for
+     * latency tracing; never compare it with wall-clock time.
+     */
+    default long receivedNanos() {
+        return 0L;
+    }
 }
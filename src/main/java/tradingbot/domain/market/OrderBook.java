@@ -0,0 +1,408 @@
+package tradingbot.domain.market;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Local L2 order book for one symbol, maintained from an exchange depth stream.
+ *
+ * <p>Each side is a pair of primitive arrays sorted so the best level is last: bids by price,
+ * asks by negated price. Top of book is an index read, and the small shifts caused by updates near
+ * the touch stay cheap. Capacity is fixed at construction; when a side is full the worst level is
+ * dropped.
+ *
+ * <p>One writer (the adapter's sync logic) updates the book under a {@link StampedLock}. Queries
+ * use optimistic reads and allocate nothing, so strategies can call them per tick. A query on an
+ * empty side returns {@link Double#NaN}; callers that need a consistent book should also check
+ * {@link #isSynced()}, which is false while the adapter is resynchronising after a gap.
+ *
+ * <p>Snapshot and diff levels are passed interleaved as {@code [price0, qty0, price1, qty1, ...]};
+ * a diff level with quantity 0 removes the price.
+ */
+public final class OrderBook {
+
+    public enum Side { BID, ASK }
+
+    private final String exchange;
+    private final String symbol;
+    private final StampedLock lock = new StampedLock();
+    private final Levels bids;
+    private final Levels asks;
+    private long lastUpdateId;
+    private volatile long eventTimeMillis;
+    private volatile boolean synced;
+
+    public OrderBook(String exchange, String symbol, int maxLevels) {
+        if (maxLevels <= 0) {
+            throw new IllegalArgumentException("maxLevels must be positive: " + maxLevels);
+        }
+        this.exchange = exchange;
+        this.symbol = symbol;
+        this.bids = new Levels(maxLevels, false);
+        this.asks = new Levels(maxLevels, true);
+    }
+
+    public String exchange() {
+        return exchange;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    /**
+     * Converts exchange JSON levels ({@code [["price", "qty"], ...]}) to the interleaved form.
+     */
+    public static double[] interleave(List<List<String>> levels) {
+        if (levels == null) {
+            return new double[0];
+        }
+        double[] out = new double[levels.size() * 2];
+        int n = 0;
+        for (List<String> level : levels) {
+            if (level != null && level.size() >= 2) {
+                out[n++] = Double.parseDouble(level.get(0));
+                out[n++] = Double.parseDouble(level.get(1));
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    // -------------------------------------------------------------------------
+    // Writer API (single writer)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Replaces the whole book and marks it synced.
+     */
+    public void applySnapshot(long updateId, long eventTimeMillis, double[] bidLevels, double[] askLevels) {
+        long stamp = lock.writeLock();
+        try {
+            bids.clear();
+            asks.clear();
+            bids.applyAll(bidLevels);
+            asks.applyAll(askLevels);
+            this.lastUpdateId = updateId;
+            this.eventTimeMillis = eventTimeMillis;
+            this.synced = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Applies one depth diff. Sequencing is the caller's job; see {@link #lastUpdateId()}.
+     */
+    public void applyDiff(long updateId, long eventTimeMillis, double[] bidLevels, double[] askLevels) {
+        long stamp = lock.writeLock();
+        try {
+            bids.applyAll(bidLevels);
+            asks.applyAll(askLevels);
+            this.lastUpdateId = updateId;
+            this.eventTimeMillis = eventTimeMillis;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Empties the book and marks it unsynced, e.g. after a sequence gap.
+     */
+    public void reset() {
+        long stamp = lock.writeLock();
+        try {
+            synced = false;
+            bids.clear();
+            asks.clear();
+            lastUpdateId = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Queries (allocation-free)
+    // -------------------------------------------------------------------------
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public long lastUpdateId() {
+        long stamp = lock.tryOptimisticRead();
+        long id = lastUpdateId;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                id = lastUpdateId;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return id;
+    }
+
+    public long eventTimeMillis() {
+        return eventTimeMillis;
+    }
+
+    public double bestBid() {
+        return read(BEST_PRICE, Side.BID, 0);
+    }
+
+    public double bestAsk() {
+        return read(BEST_PRICE, Side.ASK, 0);
+    }
+
+    public double bestBidQty() {
+        return read(BEST_QTY, Side.BID, 0);
+    }
+
+    public double bestAskQty() {
+        return read(BEST_QTY, Side.ASK, 0);
+    }
+
+    public double midPrice() {
+        return read(MID, null, 0);
+    }
+
+    /**
+     * Size-weighted mid: leans towards the side with less resting quantity, which is where the
+     * next trade is more likely to move the price.
+     */
+    public double microprice() {
+        return read(MICROPRICE, null, 0);
+    }
+
+    /**
+     * Quantity imbalance over the top {@code levels} levels of each side, in {@code [-1, 1]};
+     * positive when bids outweigh asks.
+     */
+    public double imbalance(int levels) {
+        return read(IMBALANCE, null, levels);
+    }
+
+    /**
+     * Total quantity resting on {@code side} within {@code bps} basis points of the mid.
+     */
+    public double depthWithinBps(Side side, double bps) {
+        return read(DEPTH_WITHIN_BPS, side, bps);
+    }
+
+    /**
+     * Volume-weighted price of a market order for {@code quantity} that consumes {@code side}
+     * ({@link Side#ASK} for a buy), or NaN if the book is not deep enough.
+     */
+    public double averageFillPrice(Side side, double quantity) {
+        return read(AVERAGE_FILL, side, quantity);
+    }
+
+    /**
+     * Expected slippage in basis points of a market order for {@code quantity} consuming
+     * {@code side}, measured from the mid; NaN if the book is not deep enough.
+     */
+    public double slippageBps(Side side, double quantity) {
+        return read(SLIPPAGE_BPS, side, quantity);
+    }
+
+    /** @return number of price levels on {@code side} */
+    public int depth(Side side) {
+        return (int) read(DEPTH, side, 0);
+    }
+
+    // -------------------------------------------------------------------------
+    // Optimistic read plumbing
+    // -------------------------------------------------------------------------
+
+    /** Non-capturing, so each constant is a singleton and calling one allocates nothing. */
+    @FunctionalInterface
+    private interface Query {
+        double compute(OrderBook book, Side side, double arg);
+    }
+
+    private static final Query BEST_PRICE = (b, s, a) -> b.levels(s).bestPrice();
+    private static final Query BEST_QTY = (b, s, a) -> b.levels(s).bestQty();
+    private static final Query MID = (b, s, a) -> b.mid();
+    private static final Query MICROPRICE = (b, s, a) -> b.computeMicroprice();
+    private static final Query IMBALANCE = (b, s, a) -> b.computeImbalance((int) a);
+    private static final Query DEPTH_WITHIN_BPS = (b, s, a) -> b.computeDepthWithinBps(s, a);
+    private static final Query AVERAGE_FILL = (b, s, a) -> b.levels(s).averageFill(a);
+    private static final Query SLIPPAGE_BPS = (b, s, a) -> b.computeSlippageBps(s, a);
+    private static final Query DEPTH = (b, s, a) -> b.levels(s).size;
+
+    private double read(Query query, Side side, double arg) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            double result = query.compute(this, side, arg);
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return query.compute(this, side, arg);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Levels levels(Side side) {
+        return side == Side.BID ? bids : asks;
+    }
+
+    private double mid() {
+        return (bids.bestPrice() + asks.bestPrice()) / 2;
+    }
+
+    private double computeMicroprice() {
+        double bidQty = bids.bestQty();
+        double askQty = asks.bestQty();
+        double total = bidQty + askQty;
+        if (!(total > 0)) {
+            return Double.NaN;
+        }
+        return (bids.bestPrice() * askQty + asks.bestPrice() * bidQty) / total;
+    }
+
+    private double computeImbalance(int levels) {
+        double bidQty = bids.topQty(levels);
+        double askQty = asks.topQty(levels);
+        double total = bidQty + askQty;
+        return total > 0 ? (bidQty - askQty) / total : Double.NaN;
+    }
+
+    private double computeDepthWithinBps(Side side, double bps) {
+        double mid = mid();
+        if (Double.isNaN(mid)) {
+            return Double.NaN;
+        }
+        double limit = side == Side.BID ? mid * (1 - bps / 10_000) : mid * (1 + bps / 10_000);
+        return levels(side).qtyUpTo(limit);
+    }
+
+    private double computeSlippageBps(Side side, double quantity) {
+        double mid = mid();
+        double fill = levels(side).averageFill(quantity);
+        if (Double.isNaN(mid) || Double.isNaN(fill)) {
+            return Double.NaN;
+        }
+        return Math.abs(fill - mid) / mid * 10_000;
+    }
+
+    /**
+     * One side of the book. Stores {@code key = negate ? -price : price} ascending so the best
+     * level is always at {@code size - 1}.
+     */
+    private static final class Levels {
+
+        private final double[] keys;
+        private final double[] qtys;
+        private final boolean negate;
+        private int size;
+
+        Levels(int capacity, boolean negate) {
+            this.keys = new double[capacity];
+            this.qtys = new double[capacity];
+            this.negate = negate;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void applyAll(double[] levels) {
+            if (levels == null) {
+                return;
+            }
+            for (int i = 0; i + 1 < levels.length; i += 2) {
+                set(levels[i], levels[i + 1]);
+            }
+        }
+
+        void set(double price, double qty) {
+            if (!(price > 0) || qty < 0 || Double.isNaN(qty)) {
+                return;
+            }
+            double key = negate ? -price : price;
+            int idx = Arrays.binarySearch(keys, 0, size, key);
+            if (idx >= 0) {
+                if (qty == 0) {
+                    System.arraycopy(keys, idx + 1, keys, idx, size - idx - 1);
+                    System.arraycopy(qtys, idx + 1, qtys, idx, size - idx - 1);
+                    size--;
+                } else {
+                    qtys[idx] = qty;
+                }
+                return;
+            }
+            if (qty == 0) {
+                return;
+            }
+            int ins = -idx - 1;
+            if (size == keys.length) {
+                if (ins == 0) {
+                    return; // worse than every level we keep
+                }
+                // Drop the worst level (index 0) to make room
+                System.arraycopy(keys, 1, keys, 0, ins - 1);
+                System.arraycopy(qtys, 1, qtys, 0, ins - 1);
+                keys[ins - 1] = key;
+                qtys[ins - 1] = qty;
+                return;
+            }
+            System.arraycopy(keys, ins, keys, ins + 1, size - ins);
+            System.arraycopy(qtys, ins, qtys, ins + 1, size - ins);
+            keys[ins] = key;
+            qtys[ins] = qty;
+            size++;
+        }
+
+        double bestPrice() {
+            int n = size;
+            return n == 0 ? Double.NaN : price(n - 1);
+        }
+
+        double bestQty() {
+            int n = size;
+            return n == 0 ? Double.NaN : qtys[n - 1];
+        }
+
+        double topQty(int levels) {
+            int n = size;
+            double total = 0;
+            for (int i = n - 1; i >= 0 && i >= n - levels; i--) {
+                total += qtys[i];
+            }
+            return total;
+        }
+
+        /** Quantity at prices at least as good as {@code limit}. */
+        double qtyUpTo(double limit) {
+            double limitKey = negate ? -limit : limit;
+            double total = 0;
+            for (int i = size - 1; i >= 0 && keys[i] >= limitKey; i--) {
+                total += qtys[i];
+            }
+            return total;
+        }
+
+        double averageFill(double quantity) {
+            if (!(quantity > 0)) {
+                return Double.NaN;
+            }
+            double remaining = quantity;
+            double notional = 0;
+            for (int i = size - 1; i >= 0 && remaining > 0; i--) {
+                double take = Math.min(remaining, qtys[i]);
+                notional += take * price(i);
+                remaining -= take;
+            }
+            return remaining > 0 ? Double.NaN : notional / quantity;
+        }
+
+        private double price(int i) {
+            return negate ? -keys[i] : keys[i];
+        }
+    }
+}
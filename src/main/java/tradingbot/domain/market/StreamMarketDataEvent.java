@@ -6,6 +6,9 @@ import java.time.Instant;
 /**
  * Reliable, immutable market data event for the internal reactive stream.
  * Renamed to StreamMarketDataEvent to avoid conflict with legacy bot events.
+ *
+ * <p>{@code receivedNanos} is the adapter's {@link System#nanoTime()} stamp for latency
+ * tracing (0 when not stamped).
  */
 public record StreamMarketDataEvent(
     String exchange,
@@ -14,7 +17,8 @@ public record StreamMarketDataEvent(
     BigDecimal price,
     BigDecimal quantity,
     Instant timestamp,
-    MarketDataPayload payload // Optional raw payload or specialized data (e.g. OrderBook)
+    MarketDataPayload payload, // Optional raw payload or specialized data (e.g. OrderBook)
+    long receivedNanos
 ) implements MarketEvent {
 
     public StreamMarketDataEvent {
@@ -23,6 +27,14 @@ public record StreamMarketDataEvent(
         }
     }
 
+    /**
+     * Unstamped event (replay, tests, synthetic sources).
+     */
+    public StreamMarketDataEvent(String exchange, String symbol, EventType type, BigDecimal price,
+                                 BigDecimal quantity, Instant timestamp, MarketDataPayload payload) {
+        this(exchange, symbol, type, price, quantity, timestamp, payload, 0L);
+    }
+
     public enum EventType {
         TRADE,
         BOOK_TICKER,
@@ -31,7 +43,7 @@ public record StreamMarketDataEvent(
     }
     
     public StreamMarketDataEvent withPayload(MarketDataPayload newPayload) {
-        return new StreamMarketDataEvent(exchange, symbol, type, price, quantity, timestamp, newPayload);
+        return new StreamMarketDataEvent(exchange, symbol, type, price, quantity, timestamp, newPayload, receivedNanos);
     }
 
     @Override
@@ -0,0 +1,387 @@
+package tradingbot.infrastructure.marketdata;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Packs many exchange streams onto a few combined-stream WebSocket connections.
+ *
+ * <p>Each connection carries up to {@code maxStreamsPerConnection} streams (the exchange limit);
+ * a new stream goes onto the first connection with room and a new connection is opened only when
+ * all are full. Streams are added and removed with live subscribe / unsubscribe frames on the
+ * existing socket, and a connection left without streams is closed. Incoming frames are routed to
+ * the stream's handler by the name the {@link Protocol} extracts, so one socket serves hundreds of
+ * symbols and stream types.
+ *
+ * <p>Subscribe and unsubscribe requests are queued per connection and flushed as one frame per
+ * method, at most one control frame every {@value #CONTROL_FRAME_INTERVAL_MS} ms. Binance drops a
+ * connection that sends more than 10 messages a second (pongs included), so a burst of new
+ * symbols becomes a handful of batched frames instead of one frame per stream.
+ *
+ * <p>A dropped connection is reopened with exponential backoff (1 s to 60 s) and re-subscribes
+ * every stream it carried. Handlers run on the connection's receive thread and must not block.
+ */
+public final class CombinedStreamPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CombinedStreamPool.class);
+
+    private static final long MAX_BACKOFF_SECONDS = 60;
+
+    /** Minimum gap between control frames on one connection: 5 a second, half the exchange limit. */
+    static final long CONTROL_FRAME_INTERVAL_MS = 200;
+
+    /**
+     * Exchange-specific framing for a combined-stream endpoint.
+     */
+    public interface Protocol {
+
+        /** Endpoint that accepts live subscribe / unsubscribe frames. */
+        URI endpoint();
+
+        String subscribeFrame(List<String> streams, long requestId);
+
+        String unsubscribeFrame(List<String> streams, long requestId);
+
+        /** @return the stream a data frame belongs to, or null for acks and other control frames */
+        String streamOf(JsonNode frame);
+
+        /** @return the stream payload inside a data frame */
+        JsonNode payloadOf(JsonNode frame);
+    }
+
+    private final String name;
+    private final Protocol protocol;
+    private final int maxStreamsPerConnection;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Consumer<JsonNode>> handlers = new ConcurrentHashMap<>();
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong requestIds = new AtomicLong();
+    private final AtomicInteger connectionIds = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    public CombinedStreamPool(String name, Protocol protocol, int maxStreamsPerConnection,
+                              HttpClient httpClient, ObjectMapper objectMapper) {
+        if (maxStreamsPerConnection <= 0) {
+            throw new IllegalArgumentException("maxStreamsPerConnection must be positive: " + maxStreamsPerConnection);
+        }
+        this.name = name;
+        this.protocol = protocol;
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-ws-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Routes {@code stream} to {@code handler}, subscribing it on a connection with room. Calling
+     * again for a subscribed stream only replaces the handler.
+     */
+    public void subscribe(String stream, Consumer<JsonNode> handler) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Stream pool " + name + " is closed");
+            }
+            if (handlers.put(stream, handler) != null) {
+                return;
+            }
+            Connection connection = null;
+            for (Connection c : connections) {
+                if (c.streams.size() < maxStreamsPerConnection) {
+                    connection = c;
+                    break;
+                }
+            }
+            if (connection == null) {
+                connection = new Connection(connectionIds.getAndIncrement());
+                connections.add(connection);
+                connection.streams.add(stream);
+                connection.connect(0);
+                return;
+            }
+            connection.streams.add(stream);
+            connection.queue(stream, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops routing {@code stream} and unsubscribes it; closes its connection if that was the last
+     * stream on it.
+     */
+    public void unsubscribe(String stream) {
+        lock.lock();
+        try {
+            if (handlers.remove(stream) == null) {
+                return;
+            }
+            for (Connection c : connections) {
+                if (c.streams.remove(stream)) {
+                    if (c.streams.isEmpty()) {
+                        connections.remove(c);
+                        c.close();
+                    } else {
+                        c.queue(stream, false);
+                    }
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return open or reconnecting connections */
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    /** @return subscribed streams across all connections */
+    public int streamCount() {
+        return handlers.size();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            connections.forEach(Connection::close);
+            connections.clear();
+            handlers.clear();
+        } finally {
+            lock.unlock();
+        }
+        scheduler.shutdownNow();
+    }
+
+    private void dispatch(String text) {
+        try {
+            JsonNode frame = objectMapper.readTree(text);
+            String stream = protocol.streamOf(frame);
+            if (stream == null) {
+                if (frame.hasNonNull("error")) {
+                    log.warn("[{}] Stream request failed: {}", name, text);
+                }
+                return;
+            }
+            Consumer<JsonNode> handler = handlers.get(stream);
+            if (handler != null) {
+                handler.accept(protocol.payloadOf(frame));
+            }
+        } catch (Exception e) {
+            // Never let one bad frame break the socket's receive loop
+            log.error("[{}] Failed to handle frame: {}", name, text, e);
+        }
+    }
+
+    /**
+     * One combined-stream socket and the streams it carries.
+     */
+    private final class Connection implements WebSocket.Listener {
+
+        private final int index;
+        private final Set<String> streams = ConcurrentHashMap.newKeySet();
+        private final StringBuilder partial = new StringBuilder();
+        private final ReentrantLock sendLock = new ReentrantLock();
+        // Guarded by the pool lock: requests not yet sent and when the next control frame may go
+        private final Set<String> pendingSubscribe = new LinkedHashSet<>();
+        private final Set<String> pendingUnsubscribe = new LinkedHashSet<>();
+        private boolean flushScheduled;
+        private long nextControlNanos;
+        private volatile WebSocket socket;
+        private volatile boolean retired;
+        private CompletableFuture<?> sending = CompletableFuture.completedFuture(null);
+
+        Connection(int index) {
+            this.index = index;
+        }
+
+        void connect(int attempt) {
+            if (retired || closed) {
+                return;
+            }
+            httpClient.newWebSocketBuilder()
+                    .buildAsync(protocol.endpoint(), this)
+                    .whenComplete((ws, error) -> {
+                        if (error != null) {
+                            log.warn("[{}] Connection {} failed (attempt {}): {}", name, index, attempt, error.getMessage());
+                            scheduleReconnect(attempt);
+                        }
+                    });
+        }
+
+        private void scheduleReconnect(int attempt) {
+            if (retired || closed) {
+                return;
+            }
+            long delay = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempt, 6));
+            scheduler.schedule(() -> connect(attempt + 1), delay, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            lock.lock();
+            try {
+                socket = webSocket;
+                log.info("[{}] Connection {} open with {} stream(s)", name, index, streams.size());
+                // This frame covers everything queued while the socket was down
+                pendingSubscribe.clear();
+                pendingUnsubscribe.clear();
+                if (!streams.isEmpty()) {
+                    nextControlNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONTROL_FRAME_INTERVAL_MS);
+                    send(protocol.subscribeFrame(new ArrayList<>(new LinkedHashSet<>(streams)), requestIds.incrementAndGet()));
+                }
+            } finally {
+                lock.unlock();
+            }
+            webSocket.request(1);
+        }
+
+        /**
+         * Queues a subscribe or unsubscribe of {@code stream}; a request that cancels a queued
+         * opposite one just drops it. Called with the pool lock held.
+         */
+        void queue(String stream, boolean subscribe) {
+            if (subscribe ? !pendingUnsubscribe.remove(stream) : !pendingSubscribe.remove(stream)) {
+                (subscribe ? pendingSubscribe : pendingUnsubscribe).add(stream);
+            }
+            scheduleFlush();
+        }
+
+        private void scheduleFlush() {
+            if (flushScheduled || (pendingSubscribe.isEmpty() && pendingUnsubscribe.isEmpty())) {
+                return;
+            }
+            flushScheduled = true;
+            long delay = Math.max(0, nextControlNanos - System.nanoTime());
+            scheduler.schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+        }
+
+        /** Sends one batched control frame, unsubscribes first, and schedules the next if needed. */
+        private void flush() {
+            lock.lock();
+            try {
+                flushScheduled = false;
+                if (retired || closed || socket == null) {
+                    // onOpen subscribes every stream the connection still carries
+                    pendingSubscribe.clear();
+                    pendingUnsubscribe.clear();
+                    return;
+                }
+                String frame;
+                if (!pendingUnsubscribe.isEmpty()) {
+                    frame = protocol.unsubscribeFrame(new ArrayList<>(pendingUnsubscribe), requestIds.incrementAndGet());
+                    pendingUnsubscribe.clear();
+                } else if (!pendingSubscribe.isEmpty()) {
+                    frame = protocol.subscribeFrame(new ArrayList<>(pendingSubscribe), requestIds.incrementAndGet());
+                    pendingSubscribe.clear();
+                } else {
+                    return;
+                }
+                nextControlNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONTROL_FRAME_INTERVAL_MS);
+                send(frame);
+                scheduleFlush();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                String text = partial.toString();
+                partial.setLength(0);
+                dispatch(text);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            if (retired) {
+                return null;
+            }
+            log.info("[{}] Connection {} closed by server ({} {})", name, index, statusCode, reason);
+            lost();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            log.warn("[{}] Connection {} error: {}", name, index, error.getMessage());
+            lost();
+        }
+
+        private void lost() {
+            socket = null;
+            partial.setLength(0);
+            scheduleReconnect(0);
+        }
+
+        /**
+         * Sends a text frame once the previous one has gone; frames sent before the socket opens
+         * are dropped, as {@link #onOpen} subscribes every stream anyway. Control frames go
+         * through {@link #queue} so that they are batched and rate limited.
+         */
+        void send(String frame) {
+            WebSocket ws = socket;
+            if (ws == null) {
+                return;
+            }
+            sendLock.lock();
+            try {
+                sending = sending.handle((r, e) -> null)
+                        .thenCompose(ignored -> ws.sendText(frame, true))
+                        .exceptionally(e -> {
+                            log.warn("[{}] Send on connection {} failed: {}", name, index, e.getMessage());
+                            return null;
+                        });
+            } finally {
+                sendLock.unlock();
+            }
+        }
+
+        void close() {
+            retired = true;
+            WebSocket ws = socket;
+            socket = null;
+            if (ws != null) {
+                ws.sendClose(WebSocket.NORMAL_CLOSURE, "unused").exceptionally(e -> null);
+            }
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package tradingbot.infrastructure.marketdata;
 
 import java.time.Duration;
+import java.util.Optional;
 
 import reactor.core.publisher.Flux;
 import reactor.util.retry.Retry;
+import tradingbot.domain.market.OrderBook;
 import tradingbot.domain.market.StreamMarketDataEvent;
 
 /**
@@ -32,6 +34,26 @@ public interface ExchangeWebSocketClient {
      */
     Flux<StreamMarketDataEvent> streamBookTicker(String symbol);
 
+    /**
+     * Opens the depth stream that keeps {@link #orderBook} in sync for {@code symbol}. Idempotent;
+     * called when an agent trading the symbol is registered, never from the order path.
+     *
+     * @return true if this client maintains order books
+     */
+    default boolean subscribeOrderBook(String symbol) {
+        return false;
+    }
+
+    /**
+     * Local L2 order book for {@code symbol}, kept in sync from the depth stream opened by
+     * {@link #subscribeOrderBook}. Never opens a stream itself: empty until the symbol has been
+     * subscribed (or for adapters without depth support), and not {@link OrderBook#isSynced()}
+     * until the exchange snapshot has been applied.
+     */
+    default Optional<OrderBook> orderBook(String symbol) {
+        return Optional.empty();
+    }
+
     /**
      * Standard resilience pattern for WebSocket streams.
      * Retries indefinitely with exponential backoff (1s to 60s).
@@ -0,0 +1,340 @@
+package tradingbot.infrastructure.marketdata;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import tradingbot.domain.market.BookTickerPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.domain.market.StreamMarketDataEvent.EventType;
+
+/**
+ * Streaming health of every (exchange, symbol, stream type) feed, used by
+ * {@link WebSocketMarketDataService} to pick which exchange's events reach consumers. Trade prints
+ * and book-ticker mids are judged in separate windows, since the two series differ by up to half
+ * the spread and tick at different rates.
+ *
+ * <p>{@link #accept} mutates the feed's window, so it must see each tick exactly once: call it on
+ * the shared upstream of a stream, never once per subscriber.
+ *
+ * <p>Three checks, all in-process and per tick:
+ * <ul>
+ *   <li><b>Outliers</b> — {@link #accept} rejects a print whose robust z-score against the
+ *       feed's rolling median (scaled by the median absolute deviation, floored at
+ *       {@code min-mad-bps}) exceeds {@code max-z-score}, unless it agrees with the cross-exchange
+ *       consensus. Without a consensus, a third consecutive outlier is taken as a genuine jump
+ *       and restarts the window.</li>
+ *   <li><b>Staleness</b> — a feed whose last accepted print is older than {@code stale-after-ms}
+ *       is stale, whether the socket went quiet or only sends rejected prints.</li>
+ *   <li><b>Divergence</b> — with at least two other fresh feeds for the symbol, a feed more than
+ *       {@code max-deviation-bps} from their median is diverged. Two feeds cannot outvote each
+ *       other, so this needs three exchanges.</li>
+ * </ul>
+ *
+ * <p>{@link #isActiveSource} picks the first healthy feed in adapter priority order on every
+ * event, so failover happens on the first backup tick after the primary goes stale or diverges,
+ * and failback on the first good primary tick; nothing polls REST.
+ */
+@Component
+public class FeedHealthMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedHealthMonitor.class);
+
+    /** Scales MAD to the standard deviation of a normal distribution. */
+    private static final double MAD_TO_SIGMA = 0.6745;
+    /** Consecutive outliers taken as a genuine price jump when no consensus is available. */
+    private static final int JUMP_CONFIRMATIONS = 3;
+
+    public enum Status { UNKNOWN, HEALTHY, STALE, DIVERGED }
+
+    private final boolean enabled;
+    private final long staleAfterNanos;
+    private final int window;
+    private final int minSamples;
+    private final double maxZScore;
+    private final double minMadBps;
+    private final double maxDeviationBps;
+    private final LongSupplier nanoClock;
+
+    private static final int STREAM_TYPES = EventType.values().length;
+
+    /** Per symbol, the feeds of each stream type, indexed by {@link EventType#ordinal()}. */
+    private final Map<String, SymbolFeeds[]> symbols = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FeedHealthMonitor(@Value("${market.data.health.enabled:true}") boolean enabled,
+                             @Value("${market.data.health.stale-after-ms:2000}") long staleAfterMs,
+                             @Value("${market.data.health.window:50}") int window,
+                             @Value("${market.data.health.max-z-score:8}") double maxZScore,
+                             @Value("${market.data.health.min-mad-bps:5}") double minMadBps,
+                             @Value("${market.data.health.max-deviation-bps:50}") double maxDeviationBps) {
+        this(enabled, staleAfterMs, window, maxZScore, minMadBps, maxDeviationBps, System::nanoTime);
+    }
+
+    FeedHealthMonitor(boolean enabled, long staleAfterMs, int window, double maxZScore,
+                      double minMadBps, double maxDeviationBps, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(staleAfterMs);
+        this.window = Math.max(3, window);
+        this.minSamples = Math.max(3, this.window / 2);
+        this.maxZScore = maxZScore;
+        this.minMadBps = minMadBps;
+        this.maxDeviationBps = maxDeviationBps;
+        this.nanoClock = nanoClock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a tick and decides whether it is a plausible print.
+     *
+     * @return false for an outlier, which must be dropped
+     */
+    public boolean accept(StreamMarketDataEvent event) {
+        double price = priceOf(event);
+        if (!(price > 0)) {
+            return true; // nothing to judge; MarketDataSanitizer owns structural checks
+        }
+        SymbolFeeds feeds = feeds(event.symbol(), event.type(), true);
+        Feed feed = feeds.feed(event.exchange());
+        long now = nanoClock.getAsLong();
+
+        feed.lock.lock();
+        try {
+            if (feed.count >= minSamples) {
+                double median = feed.median();
+                double mad = Math.max(feed.mad(median), median * minMadBps / 10_000);
+                double z = MAD_TO_SIGMA * Math.abs(price - median) / mad;
+                if (z > maxZScore) {
+                    double consensus = consensusExcluding(feeds, feed, now);
+                    if (Double.isNaN(consensus)) {
+                        if (++feed.consecutiveOutliers < JUMP_CONFIRMATIONS) {
+                            log.debug("[{}:{}] Outlier print {} (median {}, z {})",
+                                    feed.exchange, event.symbol(), price, median, z);
+                            return false;
+                        }
+                        log.info("[{}:{}] {} consecutive prints away from median {}; accepting jump to {}",
+                                feed.exchange, event.symbol(), JUMP_CONFIRMATIONS, median, price);
+                        feed.clear();
+                    } else if (deviationBps(price, consensus) > maxDeviationBps) {
+                        log.debug("[{}:{}] Outlier print {} (median {}, consensus {})",
+                                feed.exchange, event.symbol(), price, median, consensus);
+                        return false;
+                    }
+                }
+            }
+            feed.consecutiveOutliers = 0;
+            feed.add(price);
+            feed.lastPrice = price;
+            feed.lastAcceptedNanos = now;
+            feed.hasPrice = true;
+            return true;
+        } finally {
+            feed.lock.unlock();
+        }
+    }
+
+    /**
+     * True when {@code event} comes from the feed consumers should follow: the first healthy feed
+     * for its symbol in {@code priority} order (falling back to any event when none is healthy).
+     */
+    public boolean isActiveSource(StreamMarketDataEvent event, List<String> priority) {
+        SymbolFeeds feeds = feeds(event.symbol(), event.type(), false);
+        if (feeds == null) {
+            return true;
+        }
+        long now = nanoClock.getAsLong();
+        String active = null;
+        for (String exchange : priority) {
+            Feed feed = feeds.byExchange.get(exchange);
+            if (feed != null && status(feeds, feed, now) == Status.HEALTHY) {
+                active = exchange;
+                break;
+            }
+        }
+        String previous = feeds.activeExchange;
+        if (active != null && !active.equals(previous)) {
+            feeds.activeExchange = active;
+            if (previous != null) {
+                log.warn("[{}] Market data source switched {} -> {}", event.symbol(), previous, active);
+            }
+        }
+        return active == null || active.equals(event.exchange());
+    }
+
+    public Status status(String exchange, String symbol, EventType type) {
+        SymbolFeeds feeds = feeds(symbol, type, false);
+        Feed feed = feeds != null ? feeds.byExchange.get(exchange) : null;
+        return feed == null ? Status.UNKNOWN : status(feeds, feed, nanoClock.getAsLong());
+    }
+
+    public boolean isHealthy(String exchange, String symbol, EventType type) {
+        return status(exchange, symbol, type) == Status.HEALTHY;
+    }
+
+    /**
+     * Median of the latest accepted price of every fresh {@code type} feed for {@code symbol}.
+     */
+    public OptionalDouble consensusPrice(String symbol, EventType type) {
+        SymbolFeeds feeds = feeds(symbol, type, false);
+        if (feeds == null) {
+            return OptionalDouble.empty();
+        }
+        double consensus = medianOfFresh(feeds, null, nanoClock.getAsLong(), 1);
+        return Double.isNaN(consensus) ? OptionalDouble.empty() : OptionalDouble.of(consensus);
+    }
+
+    private Status status(SymbolFeeds feeds, Feed feed, long now) {
+        if (!feed.hasPrice) {
+            return Status.UNKNOWN;
+        }
+        if (now - feed.lastAcceptedNanos > staleAfterNanos) {
+            return Status.STALE;
+        }
+        double consensus = consensusExcluding(feeds, feed, now);
+        if (!Double.isNaN(consensus) && deviationBps(feed.lastPrice, consensus) > maxDeviationBps) {
+            return Status.DIVERGED;
+        }
+        return Status.HEALTHY;
+    }
+
+    /** Median of the other fresh feeds, or NaN when fewer than two can vote. */
+    private double consensusExcluding(SymbolFeeds feeds, Feed self, long now) {
+        return medianOfFresh(feeds, self, now, 2);
+    }
+
+    private double medianOfFresh(SymbolFeeds feeds, Feed exclude, long now, int minFeeds) {
+        List<Feed> all = feeds.all;
+        double[] prices = new double[all.size()];
+        int n = 0;
+        for (Feed f : all) {
+            if (f != exclude && f.hasPrice && now - f.lastAcceptedNanos <= staleAfterNanos) {
+                prices[n++] = f.lastPrice;
+            }
+        }
+        if (n < minFeeds) {
+            return Double.NaN;
+        }
+        Arrays.sort(prices, 0, n);
+        return median(prices, n);
+    }
+
+    private SymbolFeeds feeds(String symbol, EventType type, boolean create) {
+        SymbolFeeds[] byType = create
+                ? symbols.computeIfAbsent(symbol, s -> new SymbolFeeds[STREAM_TYPES])
+                : symbols.get(symbol);
+        if (byType == null) {
+            return null;
+        }
+        SymbolFeeds feeds = byType[type.ordinal()];
+        if (feeds == null && create) {
+            synchronized (byType) {
+                feeds = byType[type.ordinal()];
+                if (feeds == null) {
+                    feeds = new SymbolFeeds();
+                    byType[type.ordinal()] = feeds;
+                }
+            }
+        }
+        return feeds;
+    }
+
+    private static double priceOf(StreamMarketDataEvent event) {
+        if (event.payload() instanceof BookTickerPayload btp) {
+            return btp.midPrice();
+        }
+        return event.price() != null ? event.price().doubleValue() : Double.NaN;
+    }
+
+    private static double deviationBps(double price, double reference) {
+        return Math.abs(price - reference) / reference * 10_000;
+    }
+
+    private static double median(double[] sorted, int n) {
+        int mid = n >>> 1;
+        return (n & 1) == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) * 0.5;
+    }
+
+    /** Feeds of one symbol and stream type across exchanges. */
+    private final class SymbolFeeds {
+        final Map<String, Feed> byExchange = new ConcurrentHashMap<>();
+        final List<Feed> all = new CopyOnWriteArrayList<>();
+        volatile String activeExchange;
+
+        Feed feed(String exchange) {
+            Feed feed = byExchange.get(exchange);
+            if (feed == null) {
+                feed = byExchange.computeIfAbsent(exchange, e -> {
+                    Feed created = new Feed(e, window);
+                    all.add(created);
+                    return created;
+                });
+            }
+            return feed;
+        }
+    }
+
+    /**
+     * Rolling price window of one (exchange, symbol, stream type) feed. The window and scratch arrays are only
+     * touched under {@link #lock}; the latest price and time are read lock-free by other feeds.
+     */
+    private static final class Feed {
+        final String exchange;
+        final ReentrantLock lock = new ReentrantLock();
+        final double[] prices;
+        final double[] scratch;
+        int next;
+        int count;
+        int consecutiveOutliers;
+        volatile double lastPrice;
+        volatile long lastAcceptedNanos;
+        volatile boolean hasPrice;
+
+        Feed(String exchange, int window) {
+            this.exchange = exchange;
+            this.prices = new double[window];
+            this.scratch = new double[window];
+        }
+
+        void add(double price) {
+            prices[next] = price;
+            next = (next + 1) % prices.length;
+            if (count < prices.length) {
+                count++;
+            }
+        }
+
+        void clear() {
+            next = 0;
+            count = 0;
+        }
+
+        double median() {
+            System.arraycopy(prices, 0, scratch, 0, count);
+            Arrays.sort(scratch, 0, count);
+            return FeedHealthMonitor.median(scratch, count);
+        }
+
+        double mad(double median) {
+            for (int i = 0; i < count; i++) {
+                scratch[i] = Math.abs(prices[i] - median);
+            }
+            Arrays.sort(scratch, 0, count);
+            return FeedHealthMonitor.median(scratch, count);
+        }
+    }
+}
@@ -1,9 +1,5 @@
 package tradingbot.infrastructure.marketdata;
 
-import static java.math.RoundingMode.*;
-
-import java.math.BigDecimal;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,11 +10,25 @@ import tradingbot.domain.market.EmptyPayload;
 import tradingbot.domain.market.RawPayload;
 import tradingbot.domain.market.StreamMarketDataEvent;
 
+/**
+ * Validates and repairs every market data event before it reaches consumers.
+ *
+ * <p>Runs once per tick, so {@link #isValid} and the no-op path of {@link #sanitize} do no
+ * allocation: field checks use {@code signum()} / {@code compareTo()}, and the spread check runs
+ * on primitive doubles ({@link BookTickerPayload#spreadPercent()}) instead of {@code BigDecimal}
+ * division. Only a crossed book, which is rare, allocates its corrected payload.
+ */
 @Component
 public class MarketDataSanitizer {
 
     private static final Logger log = LoggerFactory.getLogger(MarketDataSanitizer.class);
 
+    /**
+     * Half of the 1e-4 % step the spread used to be rounded to, so spreads exactly at the
+     * threshold are still accepted despite floating-point error.
+     */
+    private static final double SPREAD_TOLERANCE_PERCENT = 5e-5;
+
     @Value("${market.data.max-spread-percent:5.0}")
     private double maxSpreadPercent;
 
@@ -54,7 +64,7 @@ public class MarketDataSanitizer {
     }
 
     private StreamMarketDataEvent sanitizeBookTicker(StreamMarketDataEvent event, BookTickerPayload btp) {
-        if (btp.bid().compareTo(btp.ask()) <= 0) return event;
+        if (!btp.isCrossed()) return event;
 
         log.warn("[{}] Crossed book received bid={} ask={} — correcting",
                 event.exchange(), btp.bid(), btp.ask());
@@ -66,9 +76,6 @@ public class MarketDataSanitizer {
     private boolean isValidSpread(BookTickerPayload btp) {
         if (btp.bid().signum() <= 0 || btp.ask().signum() <= 0) return false;
         // Reject absurdly wide spreads (e.g. stale data from exchange reconnect)
-        BigDecimal spreadPct = btp.ask().subtract(btp.bid())
-                .divide(btp.ask(), 6, HALF_UP)
-                .multiply(BigDecimal.valueOf(100));
-        return spreadPct.doubleValue() <= maxSpreadPercent;
+        return btp.spreadPercent() <= maxSpreadPercent + SPREAD_TOLERANCE_PERCENT;
     }
 }
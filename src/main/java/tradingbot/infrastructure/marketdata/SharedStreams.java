@@ -0,0 +1,121 @@
+package tradingbot.infrastructure.marketdata;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Reference-counted hot streams keyed by exchange stream name.
+ *
+ * <p>The first subscriber to a key opens the upstream (for example a subscribe frame on a shared
+ * socket) and every later subscriber shares its sink; when the last one cancels the upstream is
+ * closed and the sink dropped, so idle symbols hold neither a subscription nor buffered events.
+ *
+ * <p>{@code replayDepth} is how many recent events a late subscriber receives: {@code 0} for none,
+ * {@code 1} for the latest only, which is all a price consumer needs and keeps one event per
+ * stream on the heap instead of a full history.
+ */
+public final class SharedStreams<T> {
+
+    private final int replayDepth;
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public SharedStreams(int replayDepth) {
+        if (replayDepth < 0) {
+            throw new IllegalArgumentException("replayDepth must not be negative: " + replayDepth);
+        }
+        this.replayDepth = replayDepth;
+    }
+
+    /**
+     * Creates the sink a stream with the given replay depth emits into.
+     */
+    public static <T> Sinks.Many<T> newSink(int replayDepth) {
+        if (replayDepth == 0) {
+            return Sinks.many().multicast().directBestEffort();
+        }
+        if (replayDepth == 1) {
+            return Sinks.many().replay().latest();
+        }
+        return Sinks.many().replay().limit(replayDepth);
+    }
+
+    /**
+     * Returns a cold {@link Flux} that joins the shared stream for {@code key} on subscription.
+     *
+     * @param open called with the new sink when the first subscriber arrives; starts feeding the
+     *             sink and returns the action that stops it
+     */
+    public Flux<T> get(String key, Function<Sinks.Many<T>, Runnable> open) {
+        return Flux.defer(() -> {
+            Entry<T> entry = acquire(key, open);
+            return entry.sink.asFlux().doFinally(signal -> release(key, entry));
+        });
+    }
+
+    /** @return keys with at least one subscriber */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes every upstream regardless of subscribers.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.values().forEach(e -> e.close.run());
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry<T> acquire(String key, Function<Sinks.Many<T>, Runnable> open) {
+        lock.lock();
+        try {
+            Entry<T> entry = entries.get(key);
+            if (entry == null) {
+                Sinks.Many<T> sink = newSink(replayDepth);
+                entry = new Entry<>(sink, open.apply(sink));
+                entries.put(key, entry);
+            }
+            entry.subscribers++;
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(String key, Entry<T> entry) {
+        lock.lock();
+        try {
+            if (--entry.subscribers == 0 && entries.remove(key, entry)) {
+                entry.close.run();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Entry<T> {
+        final Sinks.Many<T> sink;
+        final Runnable close;
+        int subscribers;
+
+        Entry(Sinks.Many<T> sink, Runnable close) {
+            this.sink = sink;
+            this.close = close;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package tradingbot.infrastructure.marketdata;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
@@ -13,8 +14,12 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
 import tradingbot.bot.messaging.EventTopic;
+import tradingbot.domain.market.OrderBook;
 import tradingbot.domain.market.StreamMarketDataEvent;
 
 /**
@@ -26,6 +31,18 @@ import tradingbot.domain.market.StreamMarketDataEvent;
  * {@code onErrorResume}.  Adding a new exchange adapter (e.g. dYdX, Kraken)
  * only requires registering a new {@link ExchangeWebSocketClient} bean —
  * no changes to this class are needed.
+ *
+ * <p>When {@link FeedHealthMonitor} is enabled every adapter is subscribed at once
+ * and the merged ticks are filtered twice: outlier prints are dropped, and only
+ * the highest-priority <em>healthy</em> feed passes through. A primary that goes
+ * quiet, sends bad prints or drifts from the cross-exchange consensus is
+ * replaced on the next backup tick, and takes over again on its first good tick
+ * after it recovers. Hard stream errors are retried per adapter.
+ *
+ * <p>Each (stream type, symbol) pipeline runs once however many consumers subscribe: the first
+ * subscriber opens it through {@link SharedStreams} and later ones join the same sink. Health
+ * scoring and Kafka publishing therefore see every tick exactly once, and all consumers see the
+ * same filtered stream.
  */
 @Service
 @Primary
@@ -35,6 +52,9 @@ public class WebSocketMarketDataService implements ExchangeWebSocketClient {
     private final List<ExchangeWebSocketClient> adapters;
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final MarketDataSanitizer sanitizer;
+    private final FeedHealthMonitor healthMonitor;
+    /** Exchange names in adapter priority order. */
+    private final List<String> priority;
 
     @Value("${market.data.kafka-publish-interval-ms:500}")
     private long kafkaPublishIntervalMs;
@@ -42,6 +62,9 @@ public class WebSocketMarketDataService implements ExchangeWebSocketClient {
     /** Per exchange:symbol timestamp gate to throttle Kafka publishes without affecting the Flux pipeline. */
     private final Map<String, Long> lastPublishTime = new ConcurrentHashMap<>();
 
+    /** One running pipeline per stream type and symbol, shared by all subscribers. */
+    private final SharedStreams<StreamMarketDataEvent> streams;
+
     /**
      * Spring injects all {@link ExchangeWebSocketClient} beans except this
      * composite service itself (excluded because this class is {@code @Primary}
@@ -51,13 +74,20 @@ public class WebSocketMarketDataService implements ExchangeWebSocketClient {
     public WebSocketMarketDataService(
             List<ExchangeWebSocketClient> adapters,
             KafkaTemplate<String, Object> kafkaTemplate,
-            MarketDataSanitizer sanitizer) {
+            MarketDataSanitizer sanitizer,
+            FeedHealthMonitor healthMonitor,
+            @Value("${market.data.stream.replay-depth:1}") int replayDepth) {
         // Filter out this composite service in case Spring includes it
         this.adapters = adapters.stream()
                 .filter(a -> !(a instanceof WebSocketMarketDataService))
                 .collect(Collectors.toList());
         this.kafkaTemplate = kafkaTemplate;
         this.sanitizer = sanitizer;
+        this.healthMonitor = healthMonitor;
+        this.streams = new SharedStreams<>(replayDepth);
+        this.priority = this.adapters.stream()
+                .map(ExchangeWebSocketClient::getExchangeName)
+                .toList();
 
         log.info("WebSocketMarketDataService initialized with {} exchange adapter(s): {}",
                 this.adapters.size(),
@@ -73,17 +103,87 @@ public class WebSocketMarketDataService implements ExchangeWebSocketClient {
 
     @Override
     public Flux<StreamMarketDataEvent> streamTrades(String symbol) {
-        return resilient(buildFallbackChain(symbol, ExchangeWebSocketClient::streamTrades))
-                .filter(sanitizer::isValid)
-                .doOnNext(this::publishToKafka);
+        return streams.get("trade:" + symbol, sink -> open(sink, healthMonitor.isEnabled()
+                ? healthRouted(symbol, ExchangeWebSocketClient::streamTrades)
+                : resilient(buildFallbackChain(symbol, ExchangeWebSocketClient::streamTrades))
+                        .filter(sanitizer::isValid)));
     }
 
     @Override
     public Flux<StreamMarketDataEvent> streamBookTicker(String symbol) {
-        return resilient(buildFallbackChain(symbol, ExchangeWebSocketClient::streamBookTicker))
-                .filter(sanitizer::isValid)
-                .map(sanitizer::sanitize)
-                .doOnNext(this::publishToKafka);
+        return streams.get("bookTicker:" + symbol, sink -> open(sink, healthMonitor.isEnabled()
+                ? healthRouted(symbol, ExchangeWebSocketClient::streamBookTicker)
+                : resilient(buildFallbackChain(symbol, ExchangeWebSocketClient::streamBookTicker))
+                        .filter(sanitizer::isValid)
+                        .map(sanitizer::sanitize)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.clear();
+    }
+
+    /**
+     * Subscribes the book on the highest-priority adapter that maintains one; lower-priority
+     * adapters only open a depth stream when those before them have no depth support.
+     */
+    @Override
+    public boolean subscribeOrderBook(String symbol) {
+        for (ExchangeWebSocketClient adapter : adapters) {
+            if (adapter.subscribeOrderBook(symbol)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The book of the first adapter that has one subscribed for {@code symbol}.
+     */
+    @Override
+    public Optional<OrderBook> orderBook(String symbol) {
+        for (ExchangeWebSocketClient adapter : adapters) {
+            Optional<OrderBook> book = adapter.orderBook(symbol);
+            if (book.isPresent()) {
+                return book;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Merges every adapter's stream and passes only plausible ticks from the feed
+     * {@link FeedHealthMonitor} currently selects. Each adapter retries on its own,
+     * so one failing exchange never interrupts the others.
+     */
+    private Flux<StreamMarketDataEvent> healthRouted(
+            String symbol,
+            BiFunction<ExchangeWebSocketClient, String, Flux<StreamMarketDataEvent>> streamSelector) {
+
+        if (adapters.isEmpty()) {
+            return Flux.error(new IllegalStateException("No exchange WebSocket adapters available"));
+        }
+
+        List<Flux<StreamMarketDataEvent>> feeds = adapters.stream()
+                .map(adapter -> resilient(streamSelector.apply(adapter, symbol))
+                        .filter(sanitizer::isValid)
+                        .map(sanitizer::sanitize))
+                .toList();
+
+        return Flux.merge(feeds)
+                .filter(healthMonitor::accept)
+                .filter(event -> healthMonitor.isActiveSource(event, priority));
+    }
+
+    /**
+     * Runs {@code pipeline} into the shared {@code sink}, publishing each event to Kafka on the
+     * way; returns the action {@link SharedStreams} calls when the last subscriber leaves.
+     */
+    private Runnable open(Sinks.Many<StreamMarketDataEvent> sink, Flux<StreamMarketDataEvent> pipeline) {
+        Disposable upstream = pipeline
+                .doOnNext(this::publishToKafka)
+                .subscribe(sink::tryEmitNext, sink::tryEmitError, sink::tryEmitComplete);
+        return upstream::dispose;
     }
 
     /**
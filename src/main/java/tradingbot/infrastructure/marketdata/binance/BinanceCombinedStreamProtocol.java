@@ -0,0 +1,61 @@
+package tradingbot.infrastructure.marketdata.binance;
+
+import java.net.URI;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import tradingbot.infrastructure.marketdata.CombinedStreamPool;
+
+/**
+ * Binance Futures combined-stream framing: connect to {@code /stream}, add and remove streams with
+ * {@code {"method":"SUBSCRIBE","params":[...],"id":n}}, and receive data wrapped as
+ * {@code {"stream":"btcusdt@aggTrade","data":{...}}}. Acks are {@code {"result":null,"id":n}}.
+ * Binance allows at most 200 streams per connection.
+ */
+final class BinanceCombinedStreamProtocol implements CombinedStreamPool.Protocol {
+
+    private final URI endpoint;
+    private final ObjectMapper objectMapper;
+
+    BinanceCombinedStreamProtocol(String baseUrl, ObjectMapper objectMapper) {
+        this.endpoint = URI.create(baseUrl + "/stream");
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public URI endpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public String subscribeFrame(List<String> streams, long requestId) {
+        return frame("SUBSCRIBE", streams, requestId);
+    }
+
+    @Override
+    public String unsubscribeFrame(List<String> streams, long requestId) {
+        return frame("UNSUBSCRIBE", streams, requestId);
+    }
+
+    @Override
+    public String streamOf(JsonNode frame) {
+        JsonNode stream = frame.get("stream");
+        return stream != null && stream.isTextual() ? stream.asText() : null;
+    }
+
+    @Override
+    public JsonNode payloadOf(JsonNode frame) {
+        return frame.get("data");
+    }
+
+    private String frame(String method, List<String> streams, long requestId) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("method", method);
+        streams.forEach(node.putArray("params")::add);
+        node.put("id", requestId);
+        return node.toString();
+    }
+}
@@ -0,0 +1,171 @@
+package tradingbot.infrastructure.marketdata.binance;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tradingbot.domain.market.OrderBook;
+
+/**
+ * Keeps one {@link OrderBook} in sync with a Binance Futures {@code <symbol>@depth} diff stream,
+ * following Binance's documented procedure:
+ *
+ * <ol>
+ *   <li>buffer diffs and fetch a REST depth snapshot;</li>
+ *   <li>drop buffered diffs with {@code u < lastUpdateId};</li>
+ *   <li>the first applied diff must straddle the snapshot ({@code U <= lastUpdateId <= u}),
+ *       whether it was buffered or arrives after the snapshot;</li>
+ *   <li>afterwards each diff's {@code pu} must equal the previous diff's {@code u}.</li>
+ * </ol>
+ *
+ * A break in step 4 is a sequence gap: the book is reset and the procedure starts again. While
+ * resyncing, {@link OrderBook#isSynced()} is false.
+ */
+final class BinanceDepthSync {
+
+    private static final Logger log = LoggerFactory.getLogger(BinanceDepthSync.class);
+
+    /** Diffs kept while a snapshot is in flight; a longer wait means the snapshot is useless anyway. */
+    private static final int MAX_BUFFERED = 10_000;
+
+    /** One {@code depthUpdate} frame; levels interleaved as {@code [price, qty, ...]}. */
+    record Diff(long firstUpdateId, long finalUpdateId, long previousFinalUpdateId, long eventTime,
+                double[] bids, double[] asks) {}
+
+    /** REST {@code /fapi/v1/depth} response. */
+    record Snapshot(long lastUpdateId, long eventTime, double[] bids, double[] asks) {}
+
+    private final OrderBook book;
+    private final Supplier<Snapshot> snapshotLoader;
+    private final Executor executor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Diff> buffer = new ArrayDeque<>();
+    private boolean live;
+    /** Live on a snapshot, but no diff applied yet: the next one is checked by step 3, not 4. */
+    private boolean awaitingFirstDiff;
+    private boolean snapshotPending;
+    private long resyncs;
+
+    BinanceDepthSync(OrderBook book, Supplier<Snapshot> snapshotLoader, Executor executor) {
+        this.book = book;
+        this.snapshotLoader = snapshotLoader;
+        this.executor = executor;
+    }
+
+    OrderBook book() {
+        return book;
+    }
+
+    /** @return number of times the book was rebuilt after a gap or failed snapshot */
+    long resyncs() {
+        return resyncs;
+    }
+
+    void onDiff(Diff diff) {
+        lock.lock();
+        try {
+            if (live && awaitingFirstDiff) {
+                if (diff.finalUpdateId() < book.lastUpdateId()) {
+                    return; // older than the snapshot
+                }
+                if (diff.firstUpdateId() <= book.lastUpdateId()) {
+                    book.applyDiff(diff.finalUpdateId(), diff.eventTime(), diff.bids(), diff.asks());
+                    awaitingFirstDiff = false;
+                    return;
+                }
+                log.warn("Depth gap on {}: first diff U={} is past snapshot lastUpdateId={}; resyncing",
+                        book.symbol(), diff.firstUpdateId(), book.lastUpdateId());
+                resync();
+            } else if (live) {
+                if (diff.previousFinalUpdateId() == book.lastUpdateId()) {
+                    book.applyDiff(diff.finalUpdateId(), diff.eventTime(), diff.bids(), diff.asks());
+                    return;
+                }
+                if (diff.finalUpdateId() <= book.lastUpdateId()) {
+                    return; // duplicate after reconnect
+                }
+                log.warn("Depth gap on {}: pu={} but last applied u={}; resyncing",
+                        book.symbol(), diff.previousFinalUpdateId(), book.lastUpdateId());
+                resync();
+            }
+            if (buffer.size() == MAX_BUFFERED) {
+                buffer.pollFirst();
+            }
+            buffer.addLast(diff);
+            requestSnapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void resync() {
+        live = false;
+        resyncs++;
+        buffer.clear();
+        book.reset();
+    }
+
+    private void requestSnapshot() {
+        if (snapshotPending) {
+            return;
+        }
+        snapshotPending = true;
+        executor.execute(() -> {
+            Snapshot snapshot = null;
+            try {
+                snapshot = snapshotLoader.get();
+            } catch (RuntimeException e) {
+                log.warn("Depth snapshot for {} failed: {}", book.symbol(), e.getMessage());
+            }
+            onSnapshot(snapshot);
+        });
+    }
+
+    void onSnapshot(Snapshot snapshot) {
+        lock.lock();
+        try {
+            snapshotPending = false;
+            if (snapshot == null) {
+                // Retried on the next diff
+                return;
+            }
+            long lastUpdateId = snapshot.lastUpdateId();
+            while (!buffer.isEmpty() && buffer.peekFirst().finalUpdateId() < lastUpdateId) {
+                buffer.pollFirst();
+            }
+            Diff first = buffer.peekFirst();
+            if (first != null && first.firstUpdateId() > lastUpdateId) {
+                log.debug("Depth snapshot for {} is older than the stream (lastUpdateId={}, U={}); refetching",
+                        book.symbol(), lastUpdateId, first.firstUpdateId());
+                requestSnapshot();
+                return;
+            }
+            book.applySnapshot(lastUpdateId, snapshot.eventTime(), snapshot.bids(), snapshot.asks());
+            live = true;
+            awaitingFirstDiff = true;
+            Diff diff;
+            while ((diff = buffer.pollFirst()) != null) {
+                if (!awaitingFirstDiff && diff.previousFinalUpdateId() != book.lastUpdateId()) {
+                    log.warn("Depth gap on {} while replaying buffer; resyncing", book.symbol());
+                    // Keep the rest of the buffer: it is still ahead of the next snapshot
+                    buffer.addFirst(diff);
+                    live = false;
+                    resyncs++;
+                    book.reset();
+                    requestSnapshot();
+                    return;
+                }
+                book.applyDiff(diff.finalUpdateId(), diff.eventTime(), diff.bids(), diff.asks());
+                awaitingFirstDiff = false;
+            }
+            log.info("Order book for {} synced at update {}", book.symbol(), book.lastUpdateId());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
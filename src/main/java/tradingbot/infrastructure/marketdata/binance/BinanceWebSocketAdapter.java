@@ -1,8 +1,12 @@
 package tradingbot.infrastructure.marketdata.binance;
 
 import java.math.BigDecimal;
+import java.net.http.HttpClient;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
@@ -10,25 +14,42 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.binance.connector.futures.client.impl.UMWebsocketClientImpl;
+import com.binance.connector.futures.client.impl.UMFuturesClientImpl;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
+import tradingbot.config.VirtualThreads;
 import tradingbot.domain.market.BookTickerPayload;
+import tradingbot.domain.market.EmptyPayload;
+import tradingbot.domain.market.OrderBook;
 import tradingbot.domain.market.RawPayload;
 import tradingbot.domain.market.StreamMarketDataEvent;
 import tradingbot.domain.market.StreamMarketDataEvent.EventType;
+import tradingbot.infrastructure.marketdata.CombinedStreamPool;
 import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+import tradingbot.infrastructure.marketdata.SharedStreams;
 
 /**
- * Reactive wrapper around Binance Futures WebSocket client.
+ * Reactive wrapper around Binance Futures WebSocket streams.
  * Fully aligned with Phase 1 upgrade plan.
- * Uses Sinks.many().replay().limit(1000) for hot observable sharing.
+ *
+ * <p>All symbols and stream types share a {@link CombinedStreamPool}: streams are packed onto
+ * combined-stream sockets up to {@code exchange.binance.ws.max-streams-per-connection} and added
+ * or removed with live SUBSCRIBE / UNSUBSCRIBE frames, so the connection count grows with
+ * {@code streams / 200} rather than with every symbol. Trade and book-ticker fluxes are
+ * reference-counted ({@link SharedStreams}): the stream is unsubscribed when its last subscriber
+ * leaves, and late subscribers replay only the last {@code market.data.stream.replay-depth} events.
+ *
+ * <p>{@link #subscribeOrderBook(String)} maintains a local L2 book, read by {@link #orderBook(String)},
+ * from the {@code @depth} diff stream, bootstrapped from the REST depth snapshot (see
+ * {@link BinanceDepthSync}).
  */
 @Service
 public class BinanceWebSocketAdapter implements ExchangeWebSocketClient {
@@ -49,25 +70,62 @@ public class BinanceWebSocketAdapter implements ExchangeWebSocketClient {
         @JsonProperty("T") Long time
     ) {}
 
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record DepthUpdateEvent(
+        @JsonProperty("U") Long firstUpdateId,
+        @JsonProperty("u") Long finalUpdateId,
+        @JsonProperty("pu") Long previousFinalUpdateId,
+        @JsonProperty("E") Long time,
+        @JsonProperty("b") List<List<String>> bids,
+        @JsonProperty("a") List<List<String>> asks
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record DepthSnapshotResponse(
+        @JsonProperty("lastUpdateId") Long lastUpdateId,
+        @JsonProperty("E") Long time,
+        @JsonProperty("bids") List<List<String>> bids,
+        @JsonProperty("asks") List<List<String>> asks
+    ) {}
+
     @Override
     public String getExchangeName() {
         return "BINANCE_FUTURES";
     }
-    private UMWebsocketClientImpl wsClient; 
+    private CombinedStreamPool streamPool;
+    private UMFuturesClientImpl restClient;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
-    // Cache of active streams to avoid multiple WS connections for same symbol
-    private final Map<String, Sinks.Many<StreamMarketDataEvent>> tradeStreams = new ConcurrentHashMap<>();
-    private final Map<String, Sinks.Many<StreamMarketDataEvent>> tickerStreams = new ConcurrentHashMap<>();
-    // Keep track of open stream IDs to close them properly
-    private final Map<String, Integer> streamIds = new ConcurrentHashMap<>();
+    // Shared per stream name, so repeated subscriptions to one symbol reuse a single stream
+    private SharedStreams<StreamMarketDataEvent> streams;
+    private final Map<String, BinanceDepthSync> depthBooks = new ConcurrentHashMap<>();
 
     @Value("${exchange.binance.use-testnet:false}")
     private boolean useTestnet;
 
+    /** Overrides the production/testnet stream host, e.g. to point at a local synthetic exchange. */
+    @Value("${exchange.binance.ws.base-url:}")
+    private String wsBaseUrl;
+
+    @Value("${exchange.binance.ws.max-streams-per-connection:200}")
+    private int maxStreamsPerConnection;
+
+    @Value("${market.data.stream.replay-depth:1}")
+    private int replayDepth;
+
+    @Value("${orderbook.max-levels:1000}")
+    private int orderBookMaxLevels;
+
+    @Value("${orderbook.binance.update-speed-ms:100}")
+    private int depthUpdateSpeedMs;
+
     // Standard Binance Futures WebSocket Base URLs
     private static final String PROD_URL = "wss://fstream.binance.com";
     private static final String TESTNET_URL = "wss://stream.binancefuture.com";
+    private static final String PROD_REST_URL = "https://fapi.binance.com";
+    private static final String TESTNET_REST_URL = "https://testnet.binancefuture.com";
+    /** Largest snapshot {@code /fapi/v1/depth} serves. */
+    private static final int SNAPSHOT_LIMIT = 1000;
 
     public BinanceWebSocketAdapter() {
         // Init deferred to @PostConstruct to allow @Value injection
@@ -75,103 +133,167 @@ public class BinanceWebSocketAdapter implements ExchangeWebSocketClient {
 
     @PostConstruct
     public void init() {
-        String baseUrl = useTestnet ? TESTNET_URL : PROD_URL;
-        log.info("Connecting to Binance Futures WebSocket [url={}, testnet={}]", baseUrl, useTestnet);
-        if (useTestnet) {
-             this.wsClient = new UMWebsocketClientImpl(TESTNET_URL);
-        } else {
-             this.wsClient = new UMWebsocketClientImpl(PROD_URL);
-        }
+        String baseUrl = wsBaseUrl != null && !wsBaseUrl.isBlank() ? wsBaseUrl
+                : useTestnet ? TESTNET_URL : PROD_URL;
+        log.info("Connecting to Binance Futures WebSocket [url={}, testnet={}, maxStreamsPerConnection={}]",
+                baseUrl, useTestnet, maxStreamsPerConnection);
+        this.streamPool = new CombinedStreamPool("binance-futures",
+                new BinanceCombinedStreamProtocol(baseUrl, objectMapper), maxStreamsPerConnection,
+                HttpClient.newHttpClient(), objectMapper);
+        this.streams = new SharedStreams<>(replayDepth);
+        this.restClient = new UMFuturesClientImpl(useTestnet ? TESTNET_REST_URL : PROD_REST_URL);
     }
 
     @Override
     public Flux<StreamMarketDataEvent> streamTrades(String symbol) {
-        return tradeStreams.computeIfAbsent(symbol, s -> {
-            Sinks.Many<StreamMarketDataEvent> sink = Sinks.many().replay().limit(1000);
-            
-            Integer streamId = wsClient.aggTradeStream(s.toLowerCase(), event -> {
-                try {
-                    AggTradeEvent trade = objectMapper.readValue(event, AggTradeEvent.class);
-                    if (trade.price() == null || trade.qty() == null || trade.time() == null) {
-                        return; 
-                    }
-                    
-                    StreamMarketDataEvent marketEvent = new StreamMarketDataEvent(
-                        "BINANCE_FUTURES",
-                        s,
-                        EventType.TRADE,
-                        trade.price(),
-                        trade.qty(),
-                        Instant.ofEpochMilli(trade.time()),
-                        new RawPayload(event)
-                    );
-                    
-                    sink.tryEmitNext(marketEvent);
-                } catch (Exception e) {
-                    log.error("Failed to parse trade event: {}", event, e);
-                    // Do NOT emit error — that would terminate the shared Sink permanently.
-                    // Simply skip this malformed message.
-                }
-            });
-            
-            streamIds.put("trade-" + s, streamId);
-            return sink;
-        }).asFlux();
+        return shared(symbol.toLowerCase() + "@aggTrade", (sink, event) -> onAggTrade(symbol, sink, event));
     }
 
     @Override
     public Flux<StreamMarketDataEvent> streamBookTicker(String symbol) {
-        return tickerStreams.computeIfAbsent(symbol, s -> {
-            Sinks.Many<StreamMarketDataEvent> sink = Sinks.many().replay().limit(1000);
+        return shared(symbol.toLowerCase() + "@bookTicker", (sink, event) -> onBookTicker(symbol, sink, event));
+    }
+
+    private Flux<StreamMarketDataEvent> shared(String stream, StreamHandler handler) {
+        return streams.get(stream, sink -> {
+            streamPool.subscribe(stream, event -> handler.handle(sink, event));
+            return () -> streamPool.unsubscribe(stream);
+        });
+    }
+
+    @FunctionalInterface
+    private interface StreamHandler {
+        void handle(Sinks.Many<StreamMarketDataEvent> sink, JsonNode event);
+    }
+
+    private void onAggTrade(String s, Sinks.Many<StreamMarketDataEvent> sink, JsonNode event) {
+        long receivedNanos = System.nanoTime();
+        try {
+            AggTradeEvent trade = objectMapper.treeToValue(event, AggTradeEvent.class);
+            if (trade.price() == null || trade.qty() == null || trade.time() == null) {
+                return; 
+            }
             
-            Integer streamId = wsClient.bookTicker(s.toLowerCase(), event -> {
-                try {
-                    BookTickerEvent ticker = objectMapper.readValue(event, BookTickerEvent.class);
-                    if (ticker.bidPrice() == null || ticker.askPrice() == null) {
-                        return; 
-                    }
-                    
-                    BigDecimal askPrice = ticker.askPrice();
-                    BigDecimal bidPrice = ticker.bidPrice();
-
-                    if (askPrice.signum() <= 0 || bidPrice.signum() <= 0) {
-                        log.warn("Non-positive price in Binance bookTicker for {}: bid={}, ask={}", s, bidPrice, askPrice);
-                        return;
-                    }
-
-                    long time = ticker.time() != null ? ticker.time() : System.currentTimeMillis();
-
-                    // price = ask (conservative entry cost for LONG).
-                    // Both sides preserved in payload so OrderPlacementService can
-                    // choose ask for BUY fills and bid for SELL fills.
-                    StreamMarketDataEvent marketEvent = new StreamMarketDataEvent(
-                        "BINANCE_FUTURES",
-                        s,
-                        EventType.BOOK_TICKER,
-                        askPrice,
-                        BigDecimal.ZERO,
-                        Instant.ofEpochMilli(time),
-                        new BookTickerPayload(bidPrice, askPrice)
-                    );
-                    
-                    sink.tryEmitNext(marketEvent);
-                } catch (Exception e) {
-                    log.error("Failed to parse bookTicker event: {}", event, e);
-                    // Do NOT emit error — skip malformed message.
-                }
-            });
+            StreamMarketDataEvent marketEvent = new StreamMarketDataEvent(
+                "BINANCE_FUTURES",
+                s,
+                EventType.TRADE,
+                trade.price(),
+                trade.qty(),
+                Instant.ofEpochMilli(trade.time()),
+                // Re-serializing every aggTrade is not free; keep the frame only when debugging
+                log.isDebugEnabled() ? new RawPayload(event) : new EmptyPayload(),
+                receivedNanos
+            );
+            
+            sink.tryEmitNext(marketEvent);
+        } catch (Exception e) {
+            log.error("Failed to parse trade event: {}", event, e);
+            // Do NOT emit error — that would terminate the shared Sink permanently.
+            // Simply skip this malformed message.
+        }
+    }
+
+    private void onBookTicker(String s, Sinks.Many<StreamMarketDataEvent> sink, JsonNode event) {
+        long receivedNanos = System.nanoTime();
+        try {
+            BookTickerEvent ticker = objectMapper.treeToValue(event, BookTickerEvent.class);
+            if (ticker.bidPrice() == null || ticker.askPrice() == null) {
+                return; 
+            }
+            
+            BigDecimal askPrice = ticker.askPrice();
+            BigDecimal bidPrice = ticker.bidPrice();
+
+            if (askPrice.signum() <= 0 || bidPrice.signum() <= 0) {
+                log.warn("Non-positive price in Binance bookTicker for {}: bid={}, ask={}", s, bidPrice, askPrice);
+                return;
+            }
 
-            streamIds.put("ticker-" + s, streamId);
-            return sink;
-        }).asFlux();
+            long time = ticker.time() != null ? ticker.time() : System.currentTimeMillis();
+
+            // price = ask (conservative entry cost for LONG).
+            // Both sides preserved in payload so OrderPlacementService can
+            // choose ask for BUY fills and bid for SELL fills.
+            StreamMarketDataEvent marketEvent = new StreamMarketDataEvent(
+                "BINANCE_FUTURES",
+                s,
+                EventType.BOOK_TICKER,
+                askPrice,
+                BigDecimal.ZERO,
+                Instant.ofEpochMilli(time),
+                new BookTickerPayload(bidPrice, askPrice),
+                receivedNanos
+            );
+            
+            sink.tryEmitNext(marketEvent);
+        } catch (Exception e) {
+            log.error("Failed to parse bookTicker event: {}", event, e);
+            // Do NOT emit error — skip malformed message.
+        }
     }
     
+    @Override
+    public boolean subscribeOrderBook(String symbol) {
+        depthBooks.computeIfAbsent(symbol, this::openDepthStream);
+        return true;
+    }
+
+    @Override
+    public Optional<OrderBook> orderBook(String symbol) {
+        return Optional.ofNullable(depthBooks.get(symbol)).map(BinanceDepthSync::book);
+    }
+
+    private BinanceDepthSync openDepthStream(String s) {
+        OrderBook book = new OrderBook("BINANCE_FUTURES", s, orderBookMaxLevels);
+        BinanceDepthSync sync = new BinanceDepthSync(book, () -> fetchDepthSnapshot(s), VirtualThreads.executor());
+
+        // Binance names the default 250 ms diff stream plain "@depth"
+        String stream = s.toLowerCase() + (depthUpdateSpeedMs == 250 ? "@depth" : "@depth@" + depthUpdateSpeedMs + "ms");
+        streamPool.subscribe(stream, event -> {
+            try {
+                DepthUpdateEvent update = objectMapper.treeToValue(event, DepthUpdateEvent.class);
+                if (update.firstUpdateId() == null || update.finalUpdateId() == null) {
+                    return;
+                }
+                sync.onDiff(new BinanceDepthSync.Diff(
+                    update.firstUpdateId(),
+                    update.finalUpdateId(),
+                    update.previousFinalUpdateId() != null ? update.previousFinalUpdateId() : -1L,
+                    update.time() != null ? update.time() : System.currentTimeMillis(),
+                    OrderBook.interleave(update.bids()),
+                    OrderBook.interleave(update.asks())
+                ));
+            } catch (Exception e) {
+                log.error("Failed to parse depthUpdate event: {}", event, e);
+            }
+        });
+        return sync;
+    }
+
+    private BinanceDepthSync.Snapshot fetchDepthSnapshot(String symbol) {
+        LinkedHashMap<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("symbol", symbol.toUpperCase());
+        parameters.put("limit", SNAPSHOT_LIMIT);
+        try {
+            DepthSnapshotResponse response = objectMapper.readValue(
+                    restClient.market().depth(parameters), DepthSnapshotResponse.class);
+            return new BinanceDepthSync.Snapshot(
+                response.lastUpdateId(),
+                response.time() != null ? response.time() : System.currentTimeMillis(),
+                OrderBook.interleave(response.bids()),
+                OrderBook.interleave(response.asks())
+            );
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed depth snapshot for " + symbol, e);
+        }
+    }
+
     @PreDestroy
     public void cleanup() {
         log.info("Closing all Binance streams");
-        streamIds.values().forEach(id -> wsClient.closeConnection(id));
-        streamIds.clear();
-        tradeStreams.clear();
-        tickerStreams.clear();
+        streams.clear();
+        streamPool.close();
+        depthBooks.clear();
     }
 }
@@ -9,6 +9,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,6 +25,7 @@ import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import tradingbot.bot.metrics.LatencyTracer;
 import tradingbot.domain.market.KlineClosedEvent;
 
 /**
@@ -130,8 +132,9 @@ public class BinanceWebSocketClient {
                     symbol.toLowerCase(),
                     interval,
                     event -> {
+                        long receivedNanos = System.nanoTime();
                         try {
-                            handleKlineMessage(event, symbol, interval);
+                            handleKlineMessage(event, symbol, interval, receivedNanos);
                             circuitBreaker.onSuccess(0, TimeUnit.MILLISECONDS);
                         } catch (Exception e) {
                             log.error("Error processing kline message for {}/{}", symbol, interval, e);
@@ -164,6 +167,14 @@ public class BinanceWebSocketClient {
     // -------------------------------------------------------------------------
 
     void handleKlineMessage(String rawMessage, String symbol, String interval) throws Exception {
+        handleKlineMessage(rawMessage, symbol, interval, System.nanoTime());
+    }
+
+    /**
+     * @param receivedNanos {@link System#nanoTime()} when the frame arrived, carried in the event
+     *                      and as Kafka headers for tick-to-trade tracing
+     */
+    void handleKlineMessage(String rawMessage, String symbol, String interval, long receivedNanos) throws Exception {
         KlineStreamPayload payload = objectMapper.readValue(rawMessage, KlineStreamPayload.class);
         KlineData k = payload.k();
         if (k == null || !k.closed()) {
@@ -181,10 +192,15 @@ public class BinanceWebSocketClient {
                 new BigDecimal(k.close()),
                 new BigDecimal(k.volume()),
                 Instant.ofEpochMilli(k.openTime()),
-                Instant.ofEpochMilli(k.closeTime()));
+                Instant.ofEpochMilli(k.closeTime()),
+                receivedNanos);
 
         String topic = "kline-closed." + symbol.toUpperCase();
-        kafkaTemplate.send(topic, symbol.toUpperCase(), event);
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, symbol.toUpperCase(), event);
+        record.headers()
+              .add(LatencyTracer.HEADER_PUBLISHED_NANOS, LatencyTracer.encodeLong(System.nanoTime()))
+              .add(LatencyTracer.HEADER_CLOCK, LatencyTracer.encodeLong(LatencyTracer.CLOCK_ID));
+        kafkaTemplate.send(record);
         log.debug("Published KlineClosedEvent to {} [close={}]", topic, event.close());
     }
 
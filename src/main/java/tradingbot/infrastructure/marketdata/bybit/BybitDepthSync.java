@@ -0,0 +1,66 @@
+package tradingbot.infrastructure.marketdata.bybit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tradingbot.domain.market.OrderBook;
+
+/**
+ * Keeps one {@link OrderBook} in sync with a Bybit V5 {@code orderbook.<depth>.<symbol>} topic.
+ *
+ * <p>Bybit bootstraps the book itself: the first message after subscribing is a {@code snapshot}
+ * (also re-sent with {@code u=1} after a service restart), followed by {@code delta}s whose update
+ * id {@code u} increases by one. A delta that does not follow the last applied id is a gap; the
+ * book is reset and the topic re-subscribed, which makes Bybit send a fresh snapshot. Deltas that
+ * arrive before the snapshot are ignored.
+ *
+ * <p>Called only from the adapter's WebSocket message thread.
+ */
+final class BybitDepthSync {
+
+    private static final Logger log = LoggerFactory.getLogger(BybitDepthSync.class);
+
+    private final OrderBook book;
+    private final Runnable resubscribe;
+    private long resyncs;
+
+    BybitDepthSync(OrderBook book, Runnable resubscribe) {
+        this.book = book;
+        this.resubscribe = resubscribe;
+    }
+
+    OrderBook book() {
+        return book;
+    }
+
+    /** @return number of times the book was rebuilt after a gap */
+    long resyncs() {
+        return resyncs;
+    }
+
+    void onSnapshot(long updateId, long eventTime, double[] bids, double[] asks) {
+        boolean wasSynced = book.isSynced();
+        book.applySnapshot(updateId, eventTime, bids, asks);
+        if (!wasSynced) {
+            log.info("Order book for {} synced at update {}", book.symbol(), updateId);
+        }
+    }
+
+    void onDelta(long updateId, long eventTime, double[] bids, double[] asks) {
+        if (!book.isSynced()) {
+            return;
+        }
+        long expected = book.lastUpdateId() + 1;
+        if (updateId == expected) {
+            book.applyDiff(updateId, eventTime, bids, asks);
+            return;
+        }
+        if (updateId < expected) {
+            return; // duplicate
+        }
+        log.warn("Depth gap on {}: u={} but expected {}; resubscribing", book.symbol(), updateId, expected);
+        resyncs++;
+        book.reset();
+        resubscribe.run();
+    }
+}
@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
@@ -23,18 +24,25 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 import tradingbot.domain.market.BookTickerPayload;
 import tradingbot.domain.market.EmptyPayload;
+import tradingbot.domain.market.OrderBook;
 import tradingbot.domain.market.RawPayload;
 import tradingbot.domain.market.StreamMarketDataEvent;
 import tradingbot.domain.market.StreamMarketDataEvent.EventType;
 import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+import tradingbot.infrastructure.marketdata.SharedStreams;
 
 /**
  * Reactive WebSocket client for Bybit V5 (Linear) using official SDK wrapper.
- * Uses Sinks.many().replay().limit(1000) for hot observable sharing.
+ * Trade and ticker sinks replay the last {@code market.data.stream.replay-depth}
+ * events to late subscribers (latest only by default).
  *
  * <p>Message parsing uses Jackson data-binding ({@link BybitEnvelope},
  * {@link BybitTrade}, {@link BybitOrderBook}) to eliminate manual JsonNode
  * traversal. Control frames (op=subscribe/pong/auth) are logged and discarded.
+ *
+ * <p>{@link #subscribeOrderBook(String)} maintains a local L2 book, read by
+ * {@link #orderBook(String)}, from the {@code orderbook.<depth>.<symbol>} topic (see {@link BybitDepthSync}); the
+ * {@code orderbook.1} topic keeps feeding {@link #streamBookTicker}.
  */
 @Service
 public class BybitWebSocketAdapter implements ExchangeWebSocketClient {
@@ -48,25 +56,40 @@ public class BybitWebSocketAdapter implements ExchangeWebSocketClient {
 
     private final Map<String, Sinks.Many<StreamMarketDataEvent>> tradeStreams  = new ConcurrentHashMap<>();
     private final Map<String, Sinks.Many<StreamMarketDataEvent>> tickerStreams = new ConcurrentHashMap<>();
+    private final Map<String, BybitDepthSync> depthBooks = new ConcurrentHashMap<>();
 
     private WebsocketStreamClient wsClient;
 
     /** Spring-managed ObjectMapper — includes JavaTimeModule and custom modules. */
     private final ObjectMapper objectMapper;
     private final boolean useTestnet;
+    private final String wsBaseUrl;
+    private final int orderBookDepth;
+    private final int orderBookMaxLevels;
+    private final int replayDepth;
 
     public BybitWebSocketAdapter(
             ObjectMapper objectMapper,
-            @Value("${exchange.bybit.use-testnet:false}") boolean useTestnet) {
-        this.objectMapper = objectMapper;
-        this.useTestnet   = useTestnet;
+            @Value("${exchange.bybit.use-testnet:false}") boolean useTestnet,
+            @Value("${exchange.bybit.ws.base-url:}") String wsBaseUrl,
+            @Value("${orderbook.bybit.depth:50}") int orderBookDepth,
+            @Value("${orderbook.max-levels:1000}") int orderBookMaxLevels,
+            @Value("${market.data.stream.replay-depth:1}") int replayDepth) {
+        this.objectMapper       = objectMapper;
+        this.useTestnet         = useTestnet;
+        this.wsBaseUrl          = wsBaseUrl;
+        this.orderBookDepth     = orderBookDepth;
+        this.orderBookMaxLevels = orderBookMaxLevels;
+        this.replayDepth        = replayDepth;
     }
 
     @PostConstruct
     public void init() {
-        log.info("Initializing Bybit WebSocket Client [testnet={}]", useTestnet);
+        boolean overridden = wsBaseUrl != null && !wsBaseUrl.isBlank();
+        log.info("Initializing Bybit WebSocket Client [testnet={}, baseUrl={}]",
+                useTestnet, overridden ? wsBaseUrl : "default");
         this.wsClient = BybitApiClientFactory
-                .newInstance("BybitLinear", useTestnet)
+                .newInstance(overridden ? wsBaseUrl : "BybitLinear", useTestnet)
                 .newWebsocketClient();
         this.wsClient.setMessageHandler(this::handleMessage);
     }
@@ -112,6 +135,12 @@ public class BybitWebSocketAdapter implements ExchangeWebSocketClient {
                     BybitTrade[] trades = objectMapper.treeToValue(envelope.data(), BybitTrade[].class);
                     parseTrades(trades, symbol, ts, sink);
                 }
+            } else if (envelope.topic().startsWith("orderbook.") && !"1".equals(parts[1])) {
+                BybitDepthSync sync = depthBooks.get(symbol);
+                if (sync != null) {
+                    BybitOrderBook book = objectMapper.treeToValue(envelope.data(), BybitOrderBook.class);
+                    applyDepth(sync, envelope.type(), book, ts);
+                }
             } else if (envelope.topic().startsWith("orderbook.")) {
                 Sinks.Many<StreamMarketDataEvent> sink = tickerStreams.get(symbol);
                 if (sink != null) {
@@ -161,6 +190,19 @@ public class BybitWebSocketAdapter implements ExchangeWebSocketClient {
         }
     }
 
+    private void applyDepth(BybitDepthSync sync, String type, BybitOrderBook book, long ts) {
+        if (book.updateId() == null) {
+            return;
+        }
+        double[] bids = OrderBook.interleave(book.bids());
+        double[] asks = OrderBook.interleave(book.asks());
+        if ("snapshot".equals(type)) {
+            sync.onSnapshot(book.updateId(), ts, bids, asks);
+        } else {
+            sync.onDelta(book.updateId(), ts, bids, asks);
+        }
+    }
+
     /**
      * Emits an event and logs a warning if the sink is in a terminal/full state.
      * Removes the sink from the map on terminal failure so the next
@@ -197,7 +239,7 @@ public class BybitWebSocketAdapter implements ExchangeWebSocketClient {
     @Override
     public Flux<StreamMarketDataEvent> streamTrades(String symbol) {
         return tradeStreams.computeIfAbsent(symbol, s -> {
-            Sinks.Many<StreamMarketDataEvent> sink = Sinks.many().replay().limit(1000);
+            Sinks.Many<StreamMarketDataEvent> sink = SharedStreams.newSink(replayDepth);
             wsClient.getPublicChannelStream(List.of("publicTrade." + s), "subscribe");
             return sink;
         }).asFlux();
@@ -206,12 +248,29 @@ public class BybitWebSocketAdapter implements ExchangeWebSocketClient {
     @Override
     public Flux<StreamMarketDataEvent> streamBookTicker(String symbol) {
         return tickerStreams.computeIfAbsent(symbol, s -> {
-            Sinks.Many<StreamMarketDataEvent> sink = Sinks.many().replay().limit(1000);
+            Sinks.Many<StreamMarketDataEvent> sink = SharedStreams.newSink(replayDepth);
             wsClient.getPublicChannelStream(List.of("orderbook.1." + s), "subscribe");
             return sink;
         }).asFlux();
     }
 
+    @Override
+    public boolean subscribeOrderBook(String symbol) {
+        depthBooks.computeIfAbsent(symbol, s -> {
+            String topic = "orderbook." + orderBookDepth + "." + s;
+            BybitDepthSync sync = new BybitDepthSync(new OrderBook("BYBIT_LINEAR", s, orderBookMaxLevels),
+                    () -> wsClient.getPublicChannelStream(List.of(topic), "subscribe"));
+            wsClient.getPublicChannelStream(List.of(topic), "subscribe");
+            return sync;
+        });
+        return true;
+    }
+
+    @Override
+    public Optional<OrderBook> orderBook(String symbol) {
+        return Optional.ofNullable(depthBooks.get(symbol)).map(BybitDepthSync::book);
+    }
+
     @PreDestroy
     public void cleanup() {
         log.info("BybitWebSocketAdapter shutting down");
@@ -227,6 +286,7 @@ public class BybitWebSocketAdapter implements ExchangeWebSocketClient {
     private record BybitEnvelope(
             String   topic,
             String   op,
+            String   type,       // snapshot | delta for orderbook topics
             Boolean  success,
             Long     ts,
             JsonNode data        // kept as JsonNode for topic-specific routing
@@ -248,6 +308,7 @@ public class BybitWebSocketAdapter implements ExchangeWebSocketClient {
      */
     private record BybitOrderBook(
             @JsonProperty("a") List<List<String>> asks,
-            @JsonProperty("b") List<List<String>> bids
+            @JsonProperty("b") List<List<String>> bids,
+            @JsonProperty("u") Long               updateId
     ) {}
 }
@@ -0,0 +1,17 @@
+package tradingbot.infrastructure.marketdata.journal;
+
+/**
+ * Receives journal records as primitives, so replaying a journal allocates nothing per tick.
+ */
+@FunctionalInterface
+public interface TickHandler {
+
+    /**
+     * @param timestampMillis exchange event time, epoch milliseconds
+     * @param price           trade or quote price
+     * @param quantity        trade quantity, 0 for quotes
+     * @param side            record kind
+     * @param exchange        normalized exchange name, e.g. {@code "BINANCE_FUTURES"}
+     */
+    void onTick(long timestampMillis, double price, double quantity, TickSide side, String exchange);
+}
@@ -0,0 +1,406 @@
+package tradingbot.infrastructure.marketdata.journal;
+
+import static tradingbot.infrastructure.marketdata.journal.TickJournalFormat.*;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import tradingbot.domain.market.BookTickerPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+/**
+ * Append-only tick journal: every trade and top-of-book quote of the configured symbols, as
+ * fixed 32-byte records in one memory-mapped file per symbol and UTC day
+ * ({@code <dir>/<SYMBOL>/<yyyy-MM-dd>.<part>.tj}, see {@link TickJournalFormat}).
+ *
+ * <p>The journal subscribes to the {@link ExchangeWebSocketClient} composite like any other
+ * consumer, so it records the sanitized, health-routed stream that agents see, once per tick
+ * however many other subscribers a symbol has. Each symbol has a single writer; the trade and
+ * book-ticker streams of a symbol only meet on its uncontended lock. Capturing a tick is a few
+ * stores into the page cache, with no system call and no allocation.
+ *
+ * <p>A file is rolled when a tick of a later day arrives or when it is full. The rolled file is
+ * sealed, which tells tailing {@link TickJournalReader}s to move on, and gzip-compressed in the
+ * background to {@code .tj.gz}. Restarting continues today's file where it stopped; files of
+ * earlier days left open by a crash are sealed and compressed at startup.
+ */
+@Component
+@ConditionalOnProperty(name = "market.data.journal.enabled", havingValue = "true")
+public class TickJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(TickJournal.class);
+
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long RETRY_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final Pattern FILE_NAME = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)(\\.tj(?:\\.gz)?)");
+
+    private final ExchangeWebSocketClient webSocketClient;
+    private final Path directory;
+    private final List<String> symbols;
+    private final long recordsPerFile;
+    private final boolean journalBookTicker;
+    private final boolean compress;
+    private final ExecutorService compressor;
+
+    private final Map<String, SymbolJournal> journals = new ConcurrentHashMap<>();
+    private final List<Disposable> subscriptions = new ArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Autowired
+    public TickJournal(ExchangeWebSocketClient webSocketClient,
+                       @Value("${market.data.journal.dir:data/journal}") String directory,
+                       @Value("${market.data.journal.symbols:BTCUSDT}") List<String> symbols,
+                       @Value("${market.data.journal.max-file-size:1GB}") DataSize maxFileSize,
+                       @Value("${market.data.journal.book-ticker:true}") boolean journalBookTicker,
+                       @Value("${market.data.journal.compress:true}") boolean compress) {
+        this(webSocketClient, Path.of(directory), symbols,
+                Math.min(MAX_RECORDS, (maxFileSize.toBytes() - HEADER_SIZE) / RECORD_SIZE),
+                journalBookTicker, compress,
+                Executors.newSingleThreadExecutor(Thread.ofPlatform().name("tick-journal-compressor").daemon().factory()));
+    }
+
+    TickJournal(ExchangeWebSocketClient webSocketClient, Path directory, List<String> symbols,
+                long recordsPerFile, boolean journalBookTicker, boolean compress, ExecutorService compressor) {
+        this.webSocketClient = webSocketClient;
+        this.directory = directory;
+        this.symbols = symbols;
+        this.recordsPerFile = recordsPerFile;
+        this.journalBookTicker = journalBookTicker;
+        this.compress = compress;
+        this.compressor = compressor;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        closeStaleFiles(LocalDate.now(ZoneOffset.UTC).toEpochDay());
+        for (String symbol : symbols) {
+            subscriptions.add(webSocketClient.streamTrades(symbol).subscribe(this::append,
+                    e -> log.error("[TickJournal] trade stream for {} ended: {}", symbol, e.getMessage())));
+            if (journalBookTicker) {
+                subscriptions.add(webSocketClient.streamBookTicker(symbol).subscribe(this::append,
+                        e -> log.error("[TickJournal] book ticker stream for {} ended: {}", symbol, e.getMessage())));
+            }
+        }
+        log.info("[TickJournal] journaling {} to {} ({} records per file)", symbols, directory.toAbsolutePath(),
+                recordsPerFile);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        subscriptions.forEach(Disposable::dispose);
+        subscriptions.clear();
+        journals.values().forEach(SymbolJournal::close);
+        compressor.shutdown();
+        if (!compressor.awaitTermination(1, TimeUnit.MINUTES)) {
+            log.warn("[TickJournal] compression still running at shutdown; it resumes on next start");
+        }
+    }
+
+    /**
+     * Journals a trade, or a book ticker as its bid and ask. Other event types are ignored.
+     * Never throws, so a failing disk cannot cancel the market data subscription.
+     */
+    public void append(StreamMarketDataEvent event) {
+        try {
+            switch (event.type()) {
+                case TRADE -> journal(event.symbol()).append(event.timestamp().toEpochMilli(),
+                        event.price().doubleValue(), event.quantity().doubleValue(), event.exchange());
+                case BOOK_TICKER -> {
+                    if (event.payload() instanceof BookTickerPayload book) {
+                        journal(event.symbol()).appendQuote(event.timestamp().toEpochMilli(),
+                                book.bidPrice(), book.askPrice(), event.exchange());
+                    }
+                }
+                default -> { }
+            }
+        } catch (RuntimeException e) {
+            if (dropped.getAndIncrement() % 10_000 == 0) {
+                log.error("[TickJournal] failed to journal {} tick ({} dropped so far)",
+                        event.symbol(), dropped.get(), e);
+            }
+        }
+    }
+
+    /** @return ticks that could not be journaled */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Delivers every journaled tick of {@code symbol} from {@code from} to {@code to} (inclusive,
+     * UTC days) in recorded order, reading today's live file up to its last committed record.
+     *
+     * @return ticks delivered
+     */
+    public long replay(String symbol, LocalDate from, LocalDate to, TickHandler handler) throws IOException {
+        long total = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            for (Path file : files(symbol, day)) {
+                try (TickJournalReader reader = openPart(file)) {
+                    total += reader.readAll(handler);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Journal files of one symbol and day in part order; a part that is both live and compressed
+     * (compression finished, live file not yet deleted) is listed once, compressed.
+     */
+    public List<Path> files(String symbol, LocalDate day) throws IOException {
+        Path symbolDir = directory.resolve(symbol);
+        if (!Files.isDirectory(symbolDir)) {
+            return List.of();
+        }
+        TreeMap<Integer, Path> parts = new TreeMap<>();
+        try (Stream<Path> entries = Files.list(symbolDir)) {
+            entries.forEach(path -> {
+                Matcher m = FILE_NAME.matcher(path.getFileName().toString());
+                if (m.matches() && m.group(1).equals(day.toString())) {
+                    parts.merge(Integer.parseInt(m.group(2)), path,
+                            (a, b) -> a.toString().endsWith(COMPRESSED_SUFFIX) ? a : b);
+                }
+            });
+        }
+        return List.copyOf(parts.values());
+    }
+
+    /**
+     * Opens a part listed by {@link #files}. A live file that the compressor replaced since it
+     * was listed is read from its {@code .tj.gz} sibling instead.
+     */
+    static TickJournalReader openPart(Path file) throws IOException {
+        try {
+            return TickJournalReader.open(file);
+        } catch (NoSuchFileException e) {
+            String name = file.getFileName().toString();
+            if (!name.endsWith(SUFFIX)) {
+                throw e;
+            }
+            return TickJournalReader.open(file.resolveSibling(
+                    name.substring(0, name.length() - SUFFIX.length()) + COMPRESSED_SUFFIX));
+        }
+    }
+
+    private SymbolJournal journal(String symbol) {
+        return journals.computeIfAbsent(symbol, SymbolJournal::new);
+    }
+
+    /**
+     * Seals and compresses files left open by an unclean stop, except today's, which the writer
+     * reopens and continues.
+     */
+    private void closeStaleFiles(long today) throws IOException {
+        try (Stream<Path> symbolDirs = Files.list(directory)) {
+            for (Path symbolDir : symbolDirs.filter(Files::isDirectory).toList()) {
+                try (Stream<Path> entries = Files.list(symbolDir)) {
+                    for (Path file : entries.filter(p -> p.toString().endsWith(SUFFIX)).toList()) {
+                        try {
+                            closeStaleFile(file, today);
+                        } catch (IOException | RuntimeException e) {
+                            log.warn("[TickJournal] could not recover {}: {}", file, e.getMessage());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void closeStaleFile(Path file, long today) throws IOException {
+        String symbol;
+        long epochDay;
+        try (TickJournalReader reader = TickJournalReader.open(file)) {
+            symbol = reader.symbol();
+            epochDay = reader.epochDay();
+        }
+        boolean sealed = isSealed(file);
+        if (!sealed && epochDay >= today) {
+            return;
+        }
+        if (!sealed) {
+            try (TickJournalWriter writer = TickJournalWriter.open(file, symbol, epochDay, 0)) {
+                writer.seal();
+            }
+        }
+        scheduleCompression(file);
+    }
+
+    private static boolean isSealed(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            return (header.getInt(FLAGS_OFFSET) & FLAG_SEALED) != 0;
+        }
+    }
+
+    private void scheduleCompression(Path file) {
+        if (!compress) {
+            return;
+        }
+        compressor.execute(() -> {
+            try {
+                Path target = TickJournalWriter.compress(file);
+                log.info("[TickJournal] compressed {} to {}", file.getFileName(), target.getFileName());
+            } catch (IOException | RuntimeException e) {
+                log.error("[TickJournal] failed to compress {}", file, e);
+            }
+        });
+    }
+
+    /** Journal of one symbol: the current file and the lock that makes its writer single. */
+    private final class SymbolJournal {
+        private final String symbol;
+        private final ReentrantLock lock = new ReentrantLock();
+        private TickJournalWriter writer;
+        private long retryAtMillis;
+
+        SymbolJournal(String symbol) {
+            this.symbol = symbol;
+        }
+
+        void append(long timestampMillis, double price, double quantity, String exchange) {
+            lock.lock();
+            try {
+                if (writable(timestampMillis)) {
+                    write(timestampMillis, price, quantity, TickSide.TRADE, exchange);
+                } else {
+                    dropped.incrementAndGet();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void appendQuote(long timestampMillis, double bid, double ask, String exchange) {
+            lock.lock();
+            try {
+                if (writable(timestampMillis)) {
+                    write(timestampMillis, bid, 0, TickSide.BID, exchange);
+                    write(timestampMillis, ask, 0, TickSide.ASK, exchange);
+                } else {
+                    dropped.incrementAndGet();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void write(long timestampMillis, double price, double quantity, TickSide side, String exchange) {
+            if (!writer.append(timestampMillis, price, quantity, side, exchange)) {
+                roll(writer.epochDay());
+                if (writer == null || !writer.append(timestampMillis, price, quantity, side, exchange)) {
+                    throw new IllegalStateException("No journal file available for " + symbol);
+                }
+            }
+        }
+
+        /** Rolls to the tick's day if it is later than the current file's; late ticks stay in the current file. */
+        private boolean writable(long timestampMillis) {
+            long day = Math.floorDiv(timestampMillis, MILLIS_PER_DAY);
+            if (writer != null && day <= writer.epochDay()) {
+                return true;
+            }
+            if (writer == null && timestampMillis < retryAtMillis) {
+                return false;
+            }
+            roll(day);
+            if (writer == null) {
+                retryAtMillis = timestampMillis + RETRY_AFTER_MILLIS;
+                return false;
+            }
+            return true;
+        }
+
+        private void roll(long day) {
+            if (writer != null) {
+                Path rolled = writer.path();
+                try {
+                    writer.seal();
+                    writer.close();
+                } catch (IOException e) {
+                    log.warn("[TickJournal] failed to close {}: {}", rolled, e.getMessage());
+                }
+                writer = null;
+                scheduleCompression(rolled);
+            }
+            try {
+                writer = openLatest(day);
+                log.info("[TickJournal] {} writing {} from record {}", symbol, writer.path().getFileName(),
+                        writer.count());
+            } catch (IOException | RuntimeException e) {
+                log.error("[TickJournal] cannot open a journal file for {} day {}; ticks are dropped for {}s",
+                        symbol, LocalDate.ofEpochDay(day), TimeUnit.MILLISECONDS.toSeconds(RETRY_AFTER_MILLIS), e);
+            }
+        }
+
+        /** Continues the last part of the day if it is still live, otherwise starts the next part. */
+        private TickJournalWriter openLatest(long day) throws IOException {
+            Path symbolDir = directory.resolve(symbol);
+            Files.createDirectories(symbolDir);
+            List<Path> parts = files(symbol, LocalDate.ofEpochDay(day));
+            int next = 0;
+            if (!parts.isEmpty()) {
+                Path last = parts.get(parts.size() - 1);
+                Matcher m = FILE_NAME.matcher(last.getFileName().toString());
+                if (!m.matches()) {
+                    throw new IllegalStateException("Unexpected journal file " + last);
+                }
+                next = Integer.parseInt(m.group(2)) + 1;
+                if (m.group(3).equals(SUFFIX) && !isSealed(last)) {
+                    return TickJournalWriter.open(last, symbol, day, recordsPerFile);
+                }
+            }
+            return TickJournalWriter.open(symbolDir.resolve(LocalDate.ofEpochDay(day) + "." + next + SUFFIX),
+                    symbol, day, recordsPerFile);
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                if (writer != null) {
+                    writer.close();
+                    writer = null;
+                }
+            } catch (IOException e) {
+                log.warn("[TickJournal] failed to close journal of {}: {}", symbol, e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
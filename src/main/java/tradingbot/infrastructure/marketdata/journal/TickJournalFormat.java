@@ -0,0 +1,120 @@
+package tradingbot.infrastructure.marketdata.journal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * On-disk layout of a tick journal file. All values are little-endian.
+ *
+ * <pre>
+ * header (4096 bytes)
+ *   0  int   magic "TJNL"
+ *   4  int   version
+ *   8  int   record size
+ *  12  int   header size
+ *  16  long  committed record count   written with release, read with acquire
+ *  24  int   flags (bit 0: sealed)     written with release, read with acquire
+ *  28  int   exchange dictionary size
+ *  32  long  epoch day (UTC)
+ *  40  byte  symbol length, then up to 31 ASCII bytes
+ * 128  64 x (byte length, up to 31 ASCII bytes) exchange dictionary
+ *
+ * record (32 bytes), from offset 4096
+ *   0  long   timestamp, epoch milliseconds
+ *   8  double price
+ *  16  double quantity
+ *  24  byte   {@link TickSide} code
+ *  25  byte   exchange dictionary index
+ *  26  6 bytes reserved
+ * </pre>
+ *
+ * <p>A record (and any dictionary entry it introduces) is fully written before the committed
+ * count that covers it is released, so a reader that acquires the count may read every record
+ * below it, from any thread or process mapping the same file.
+ */
+final class TickJournalFormat {
+
+    static final int MAGIC = 0x4C4E4A54;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4096;
+    static final int RECORD_SIZE = 32;
+
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_SIZE_OFFSET = 8;
+    static final int HEADER_SIZE_OFFSET = 12;
+    static final int COUNT_OFFSET = 16;
+    static final int FLAGS_OFFSET = 24;
+    static final int EXCHANGE_COUNT_OFFSET = 28;
+    static final int EPOCH_DAY_OFFSET = 32;
+    static final int SYMBOL_OFFSET = 40;
+    static final int DICTIONARY_OFFSET = 128;
+
+    static final int NAME_SLOT = 32;
+    static final int MAX_EXCHANGES = 64;
+    static final int FLAG_SEALED = 1;
+
+    static final int TIMESTAMP = 0;
+    static final int PRICE = 8;
+    static final int QUANTITY = 16;
+    static final int SIDE = 24;
+    static final int EXCHANGE = 25;
+
+    /** Largest record count a single mapping (at most 2 GB) can hold. */
+    static final long MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    static final String SUFFIX = ".tj";
+    static final String COMPRESSED_SUFFIX = ".tj.gz";
+
+    static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private TickJournalFormat() {
+    }
+
+    static int recordOffset(long index) {
+        return HEADER_SIZE + (int) index * RECORD_SIZE;
+    }
+
+    static void writeName(ByteBuffer buffer, int offset, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length >= NAME_SLOT) {
+            throw new IllegalArgumentException("Name longer than " + (NAME_SLOT - 1) + " bytes: " + name);
+        }
+        buffer.put(offset, (byte) bytes.length);
+        buffer.put(offset + 1, bytes);
+    }
+
+    static String readName(ByteBuffer buffer, int offset) {
+        int length = buffer.get(offset);
+        if (length < 0 || length >= NAME_SLOT) {
+            throw new IllegalStateException("Corrupt name at header offset " + offset);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    static int dictionaryOffset(int index) {
+        return DICTIONARY_OFFSET + index * NAME_SLOT;
+    }
+
+    /**
+     * Checks that {@code header} starts a journal this code can read.
+     *
+     * @throws IllegalStateException naming {@code source} when it does not
+     */
+    static void validate(ByteBuffer header, Object source) {
+        if (header.getInt(0) != MAGIC) {
+            throw new IllegalStateException(source + " is not a tick journal");
+        }
+        if (header.getInt(VERSION_OFFSET) != VERSION
+                || header.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE
+                || header.getInt(HEADER_SIZE_OFFSET) != HEADER_SIZE) {
+            throw new IllegalStateException(source + " has unsupported journal version "
+                    + header.getInt(VERSION_OFFSET));
+        }
+    }
+}
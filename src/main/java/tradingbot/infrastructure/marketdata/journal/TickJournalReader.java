@@ -0,0 +1,229 @@
+package tradingbot.infrastructure.marketdata.journal;
+
+import static tradingbot.infrastructure.marketdata.journal.TickJournalFormat.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Sequential reader of one journal file, live ({@code .tj}) or compressed ({@code .tj.gz}).
+ *
+ * <p>A live file is mapped read-only and may be tailed while its writer appends: {@link #read}
+ * delivers whatever has been committed since the last call and returns 0 when caught up, and
+ * {@link #isFinished()} turns true once the writer has sealed the file and every record has been
+ * read. A compressed file is streamed through a fixed buffer, never inflated into memory.
+ *
+ * <p>Not thread-safe; each tailing thread opens its own reader.
+ */
+public abstract sealed class TickJournalReader implements AutoCloseable {
+
+    protected final String[] exchanges = new String[MAX_EXCHANGES];
+    protected String symbol;
+    protected long epochDay;
+    protected long position;
+
+    private TickJournalReader() {
+    }
+
+    /**
+     * Opens a journal file, choosing the format by its name.
+     */
+    public static TickJournalReader open(Path path) throws IOException {
+        return path.getFileName().toString().endsWith(COMPRESSED_SUFFIX)
+                ? new Compressed(path)
+                : new Mapped(path);
+    }
+
+    /**
+     * Delivers up to {@code maxRecords} records to {@code handler}.
+     *
+     * @return records delivered; 0 when nothing new is committed (or, for a compressed file,
+     *         at its end)
+     */
+    public abstract int read(TickHandler handler, int maxRecords);
+
+    /**
+     * @return true when the file is sealed and every record has been read
+     */
+    public abstract boolean isFinished();
+
+    /** Delivers every remaining record (of a live file: every record committed so far). */
+    public long readAll(TickHandler handler) {
+        long total = 0;
+        for (int n; (n = read(handler, 1 << 16)) > 0; ) {
+            total += n;
+        }
+        return total;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public long epochDay() {
+        return epochDay;
+    }
+
+    /** @return records read so far */
+    public long position() {
+        return position;
+    }
+
+    protected void readHeader(ByteBuffer header, Object source) {
+        validate(header, source);
+        symbol = readName(header, SYMBOL_OFFSET);
+        epochDay = header.getLong(EPOCH_DAY_OFFSET);
+    }
+
+    protected final String exchange(ByteBuffer header, int code) {
+        String name = exchanges[code];
+        if (name == null) {
+            name = readName(header, dictionaryOffset(code));
+            exchanges[code] = name;
+        }
+        return name;
+    }
+
+    @Override
+    public abstract void close();
+
+    /** A live or sealed file, read through a read-only mapping. */
+    private static final class Mapped extends TickJournalReader {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        Mapped(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                readHeader(buffer, path);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(TickHandler handler, int maxRecords) {
+            long committed = (long) LONG.getAcquire(buffer, COUNT_OFFSET);
+            long end = Math.min(committed, position + maxRecords);
+            long start = position;
+            for (; position < end; position++) {
+                int offset = recordOffset(position);
+                handler.onTick(
+                        buffer.getLong(offset + TIMESTAMP),
+                        buffer.getDouble(offset + PRICE),
+                        buffer.getDouble(offset + QUANTITY),
+                        TickSide.ofCode(buffer.get(offset + SIDE)),
+                        exchange(buffer, buffer.get(offset + EXCHANGE)));
+            }
+            return (int) (end - start);
+        }
+
+        @Override
+        public boolean isFinished() {
+            // flags first: the count read after observing the seal is final
+            boolean sealed = ((int) INT.getAcquire(buffer, FLAGS_OFFSET) & FLAG_SEALED) != 0;
+            return sealed && position >= (long) LONG.getAcquire(buffer, COUNT_OFFSET);
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** A rolled file: header plus committed records, gzip-compressed. */
+    private static final class Compressed extends TickJournalReader {
+        private static final int CHUNK_RECORDS = 2048;
+
+        private final InputStream in;
+        private final ByteBuffer header;
+        private final byte[] chunk = new byte[CHUNK_RECORDS * RECORD_SIZE];
+        private final ByteBuffer records = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN);
+        private final long count;
+        private int chunkRecords;
+        private int chunkIndex;
+
+        Compressed(Path path) throws IOException {
+            in = new GZIPInputStream(Files.newInputStream(path), 1 << 16);
+            try {
+                byte[] bytes = in.readNBytes(HEADER_SIZE);
+                if (bytes.length < HEADER_SIZE) {
+                    throw new IllegalStateException(path + " is truncated");
+                }
+                header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+                readHeader(header, path);
+                count = header.getLong(COUNT_OFFSET);
+            } catch (IOException | RuntimeException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(TickHandler handler, int maxRecords) {
+            int delivered = 0;
+            while (delivered < maxRecords && position < count) {
+                if (chunkIndex == chunkRecords && !fill()) {
+                    break;
+                }
+                int offset = chunkIndex * RECORD_SIZE;
+                handler.onTick(
+                        records.getLong(offset + TIMESTAMP),
+                        records.getDouble(offset + PRICE),
+                        records.getDouble(offset + QUANTITY),
+                        TickSide.ofCode(records.get(offset + SIDE)),
+                        exchange(header, records.get(offset + EXCHANGE)));
+                chunkIndex++;
+                position++;
+                delivered++;
+            }
+            return delivered;
+        }
+
+        private boolean fill() {
+            int wanted = (int) Math.min(CHUNK_RECORDS, count - position) * RECORD_SIZE;
+            try {
+                int read = in.readNBytes(chunk, 0, wanted);
+                if (read < wanted) {
+                    throw new IllegalStateException("Compressed journal " + symbol + " day " + epochDay
+                            + " ends after " + (position + read / RECORD_SIZE) + " of " + count + " records");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            chunkRecords = wanted / RECORD_SIZE;
+            chunkIndex = 0;
+            return chunkRecords > 0;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return position >= count;
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
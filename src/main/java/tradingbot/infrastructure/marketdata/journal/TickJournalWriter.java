@@ -0,0 +1,232 @@
+package tradingbot.infrastructure.marketdata.journal;
+
+import static tradingbot.infrastructure.marketdata.journal.TickJournalFormat.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends fixed-size records to one memory-mapped journal file.
+ *
+ * <p>The file is created at its full capacity (sparse on Linux, so only written pages take
+ * disk space) and mapped once; an append is a handful of stores into the page cache followed by
+ * a release store of the committed count, with no system call and no allocation. Durability
+ * follows the page cache: a process crash loses nothing, a power loss anything not yet
+ * {@link #force() forced}.
+ *
+ * <p>Not thread-safe: a file has exactly one writer. Any number of {@link TickJournalReader}s,
+ * in this or another process, may tail it concurrently.
+ */
+public final class TickJournalWriter implements AutoCloseable {
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final String symbol;
+    private final long epochDay;
+    private final long capacity;
+    private final String[] exchanges = new String[MAX_EXCHANGES];
+    private int exchangeCount;
+    private long count;
+    private boolean sealed;
+
+    private TickJournalWriter(Path path, FileChannel channel, MappedByteBuffer buffer,
+                              String symbol, long epochDay) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.symbol = symbol;
+        this.epochDay = epochDay;
+        this.capacity = (buffer.capacity() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    /**
+     * Creates {@code path} with room for {@code capacity} records, or reopens it to continue
+     * appending after its last committed record (for example after a restart).
+     *
+     * @throws IllegalStateException if an existing file belongs to another symbol or day, or
+     *                               is sealed
+     */
+    public static TickJournalWriter open(Path path, String symbol, long epochDay, long capacity)
+            throws IOException {
+        boolean exists = Files.exists(path);
+        if (!exists && (capacity < 1 || capacity > MAX_RECORDS)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_RECORDS + ": " + capacity);
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = exists ? channel.size() : HEADER_SIZE + capacity * RECORD_SIZE;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            TickJournalWriter writer = new TickJournalWriter(path, channel, buffer, symbol, epochDay);
+            if (exists) {
+                writer.recover();
+            } else {
+                writer.writeHeader();
+            }
+            return writer;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+        buffer.putInt(HEADER_SIZE_OFFSET, HEADER_SIZE);
+        buffer.putLong(EPOCH_DAY_OFFSET, epochDay);
+        writeName(buffer, SYMBOL_OFFSET, symbol);
+        LONG.setRelease(buffer, COUNT_OFFSET, 0L);
+    }
+
+    private void recover() {
+        validate(buffer, path);
+        String fileSymbol = readName(buffer, SYMBOL_OFFSET);
+        long fileDay = buffer.getLong(EPOCH_DAY_OFFSET);
+        if (!fileSymbol.equals(symbol) || fileDay != epochDay) {
+            throw new IllegalStateException(path + " holds " + fileSymbol + " day " + fileDay
+                    + ", not " + symbol + " day " + epochDay);
+        }
+        if ((buffer.getInt(FLAGS_OFFSET) & FLAG_SEALED) != 0) {
+            throw new IllegalStateException(path + " is sealed");
+        }
+        exchangeCount = buffer.getInt(EXCHANGE_COUNT_OFFSET);
+        for (int i = 0; i < exchangeCount; i++) {
+            exchanges[i] = readName(buffer, dictionaryOffset(i));
+        }
+        count = buffer.getLong(COUNT_OFFSET);
+    }
+
+    /**
+     * Appends one record.
+     *
+     * @return false, writing nothing, when the file is full
+     */
+    public boolean append(long timestampMillis, double price, double quantity, TickSide side, String exchange) {
+        if (sealed) {
+            throw new IllegalStateException(path + " is sealed");
+        }
+        if (count >= capacity) {
+            return false;
+        }
+        int exchangeCode = exchangeCode(exchange);
+        int offset = recordOffset(count);
+        buffer.putLong(offset + TIMESTAMP, timestampMillis);
+        buffer.putDouble(offset + PRICE, price);
+        buffer.putDouble(offset + QUANTITY, quantity);
+        buffer.put(offset + SIDE, side.code());
+        buffer.put(offset + EXCHANGE, (byte) exchangeCode);
+        LONG.setRelease(buffer, COUNT_OFFSET, ++count);
+        return true;
+    }
+
+    private int exchangeCode(String exchange) {
+        for (int i = 0; i < exchangeCount; i++) {
+            String known = exchanges[i];
+            if (known == exchange || known.equals(exchange)) {
+                return i;
+            }
+        }
+        if (exchangeCount == MAX_EXCHANGES) {
+            throw new IllegalStateException(path + " already holds " + MAX_EXCHANGES + " exchanges");
+        }
+        writeName(buffer, dictionaryOffset(exchangeCount), exchange);
+        exchanges[exchangeCount] = exchange;
+        INT.setRelease(buffer, EXCHANGE_COUNT_OFFSET, exchangeCount + 1);
+        return exchangeCount++;
+    }
+
+    /**
+     * Marks the file complete: readers that have consumed every record can move on, and the
+     * file may be compressed. Nothing can be appended afterwards.
+     */
+    public void seal() {
+        if (!sealed) {
+            sealed = true;
+            INT.setRelease(buffer, FLAGS_OFFSET, buffer.getInt(FLAGS_OFFSET) | FLAG_SEALED);
+            buffer.force();
+        }
+    }
+
+    /** Flushes written records to the storage device. */
+    public void force() {
+        buffer.force();
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public long epochDay() {
+        return epochDay;
+    }
+
+    /** @return committed records */
+    public long count() {
+        return count;
+    }
+
+    /** @return records the file can hold */
+    public long capacity() {
+        return capacity;
+    }
+
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * Flushes and closes the file without sealing it, so it can be reopened for appending. The
+     * mapping itself is released when the buffer is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Writes the header and committed records of a sealed {@code .tj} file to {@code .tj.gz},
+     * then deletes the live file. Readers that still have it mapped keep reading it.
+     *
+     * @return the compressed file
+     */
+    public static Path compress(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        Path target = file.resolveSibling(name.substring(0, name.length() - SUFFIX.length()) + COMPRESSED_SUFFIX);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            validate(buffer, file);
+            long length = HEADER_SIZE + buffer.getLong(COUNT_OFFSET) * RECORD_SIZE;
+            byte[] chunk = new byte[1 << 16];
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+                for (int position = 0; position < length; ) {
+                    int n = (int) Math.min(chunk.length, length - position);
+                    buffer.get(position, chunk, 0, n);
+                    out.write(chunk, 0, n);
+                    position += n;
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(file);
+        return target;
+    }
+}
@@ -0,0 +1,34 @@
+package tradingbot.infrastructure.marketdata.journal;
+
+/**
+ * What a journal record is: a trade or one side of a top-of-book quote.
+ *
+ * <p>{@link #BUY} and {@link #SELL} are trades whose aggressor the feed reported; {@link #TRADE}
+ * is a trade without aggressor information, which is what the current adapters produce.
+ * A book-ticker update is journaled as one {@link #BID} and one {@link #ASK} record.
+ */
+public enum TickSide {
+    TRADE,
+    BUY,
+    SELL,
+    BID,
+    ASK;
+
+    private static final TickSide[] BY_CODE = values();
+
+    /** @return the byte stored in a journal record */
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public static TickSide ofCode(byte code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown tick side code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    public boolean isTrade() {
+        return this == TRADE || this == BUY || this == SELL;
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -47,19 +48,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         try {
             String token = extractTokenFromRequest(request);
+            // Verify once; every claim below comes from this single parse
+            Claims claims = token != null ? jwtService.verifiedClaims(token) : null;
             
-            if (token != null && jwtService.isTokenValid(token)) {
+            if (claims != null) {
                 // Only process access tokens (not refresh tokens)
-                if (!jwtService.isAccessToken(token)) {
+                if (!"access".equals(claims.get("type", String.class))) {
                     logger.warn("Attempted to use non-access token for authentication");
                     filterChain.doFilter(request, response);
                     return;
                 }
                 
                 // Extract user information from token
-                String userId = jwtService.extractUserId(token);
-                String username = jwtService.extractUsername(token);
-                Set<String> roles = jwtService.extractRoles(token);
+                String userId = claims.getSubject();
+                String username = claims.get("username", String.class);
+                Set<String> roles = JwtService.rolesOf(claims);
                 
                 if (userId != null && username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                     // Convert roles to Spring Security authorities
@@ -79,6 +82,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     // Add user ID to request attributes for easy access in controllers
                     request.setAttribute("userId", userId);
                     request.setAttribute("username", username);
+                    request.setAttribute("jwtClaims", claims);
                     
                     logger.debug("Authentication set for user: {} (ID: {})", username, userId);
                 }
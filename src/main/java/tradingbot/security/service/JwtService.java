@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
@@ -21,15 +22,22 @@ import jakarta.annotation.PostConstruct;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 
 /**
  * JWT Token Service
  * 
  * Handles JWT token generation, validation, and extraction.
  * Uses HMAC-SHA256 for signing tokens.
+ *
+ * The signing key and parsers are derived once per secret and reused. Secrets listed in
+ * jwt.previous-secrets are still accepted for verification during a key rotation.
+ * Per-request callers should use {@link #verifiedClaims} once and read every claim from
+ * the result rather than calling the individual extract methods, each of which re-verifies.
  */
 @Service
 public class JwtService {
@@ -73,12 +81,28 @@ public class JwtService {
     @Value("${jwt.issuer:tradepilot}")
     private String issuer;
     
+    @Value("${jwt.previous-secrets:}")
+    private String previousSecrets;
+    
+    private volatile KeyRing keyRing;
+    
     /**
      * Get signing key from secret
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return keyRing().signingKey();
+    }
+    
+    /**
+     * Keys and parsers for the configured secrets, rebuilt only if the secrets change.
+     */
+    private KeyRing keyRing() {
+        KeyRing ring = keyRing;
+        if (ring == null || !ring.isFor(jwtSecret, previousSecrets)) {
+            ring = KeyRing.of(jwtSecret, previousSecrets);
+            keyRing = ring;
+        }
+        return ring;
     }
     
     /**
@@ -146,12 +170,9 @@ public class JwtService {
     /**
      * Extract roles from token
      */
-    @SuppressWarnings("unchecked")
     public Set<String> extractRoles(String token) {
         try {
-            Claims claims = extractAllClaims(token);
-            List<String> rolesList = claims.get("roles", List.class);
-            return new HashSet<>(rolesList != null ? rolesList : Collections.emptyList());
+            return rolesOf(extractAllClaims(token));
         } catch (JwtException e) {
             logger.error("Failed to extract roles from token: {}", e.getMessage());
             return Collections.emptySet();
@@ -186,24 +207,39 @@ public class JwtService {
      * Validate token
      */
     public boolean isTokenValid(String token) {
+        return verifiedClaims(token) != null;
+    }
+    
+    /**
+     * Verify the token once and return its claims, or null if it is invalid or expired
+     */
+    public Claims verifiedClaims(String token) {
         try {
-            extractAllClaims(token);
-            return true;
+            return extractAllClaims(token);
         } catch (ExpiredJwtException e) {
             logger.debug("Token is expired: {}", e.getMessage());
-            return false;
+            return null;
         } catch (MalformedJwtException e) {
             logger.warn("Token is malformed: {}", e.getMessage());
-            return false;
-        } catch (io.jsonwebtoken.security.SignatureException e) {
+            return null;
+        } catch (SignatureException e) {
             logger.warn("Invalid token signature: {}", e.getMessage());
-            return false;
+            return null;
         } catch (JwtException | IllegalArgumentException e) {
             logger.error("Token validation failed: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
     
+    /**
+     * Roles claim of already-verified claims
+     */
+    @SuppressWarnings("unchecked")
+    public static Set<String> rolesOf(Claims claims) {
+        List<String> rolesList = claims.get("roles", List.class);
+        return new HashSet<>(rolesList != null ? rolesList : Collections.emptyList());
+    }
+    
     /**
      * Check if token is expired
      */
@@ -238,11 +274,17 @@ public class JwtService {
      * Extract all claims from token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        List<JwtParser> parsers = keyRing().parsers();
+        for (int i = 0; ; i++) {
+            try {
+                return parsers.get(i).parseSignedClaims(token).getPayload();
+            } catch (SignatureException e) {
+                // Signed with a different key; try the retired keys during rotation
+                if (i == parsers.size() - 1) {
+                    throw e;
+                }
+            }
+        }
     }
     
     /**
@@ -258,4 +300,29 @@ public class JwtService {
     public long getRefreshTokenExpirationSeconds() {
         return refreshTokenExpiration / 1000;
     }
+    
+    /**
+     * Signing key plus one parser per accepted secret, current secret first
+     */
+    private record KeyRing(String secret, String previousSecrets, SecretKey signingKey, List<JwtParser> parsers) {
+        
+        static KeyRing of(String secret, String previousSecrets) {
+            SecretKey signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            List<JwtParser> parsers = new ArrayList<>();
+            parsers.add(Jwts.parser().verifyWith(signingKey).build());
+            if (previousSecrets != null) {
+                for (String previous : previousSecrets.split(",")) {
+                    if (!previous.isBlank()) {
+                        SecretKey key = Keys.hmacShaKeyFor(previous.trim().getBytes(StandardCharsets.UTF_8));
+                        parsers.add(Jwts.parser().verifyWith(key).build());
+                    }
+                }
+            }
+            return new KeyRing(secret, previousSecrets, signingKey, List.copyOf(parsers));
+        }
+        
+        boolean isFor(String secret, String previousSecrets) {
+            return Objects.equals(this.secret, secret) && Objects.equals(this.previousSecrets, previousSecrets);
+        }
+    }
 }
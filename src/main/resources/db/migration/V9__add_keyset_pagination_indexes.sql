@@ -0,0 +1,13 @@
+-- Composite indexes for keyset (seek) pagination, newest first by (timestamp, id).
+-- Each page becomes an index range scan from the cursor instead of an offset scan.
+CREATE INDEX IF NOT EXISTS idx_positions_agent_closed_at ON positions(agent_id, closed_at DESC, id DESC);
+
+-- orders is created by Hibernate (ddl-auto) rather than Flyway, so on a fresh database it does
+-- not exist yet; the entity @Index annotations cover that case.
+DO $$
+BEGIN
+    IF to_regclass('orders') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_orders_agent_created_at ON orders(agent_id, created_at DESC, id DESC);
+        CREATE INDEX IF NOT EXISTS idx_orders_created_at_id    ON orders(created_at DESC, id DESC);
+    END IF;
+END $$;
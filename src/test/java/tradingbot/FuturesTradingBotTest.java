@@ -5,6 +5,8 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static tradingbot.util.FuturesTradingBotTestUtils.*;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 
@@ -25,6 +27,8 @@ import tradingbot.bot.strategy.calculator.IndicatorCalculator;
 import tradingbot.bot.strategy.calculator.IndicatorValues;
 import tradingbot.bot.strategy.exit.PositionExitCondition;
 import tradingbot.bot.strategy.tracker.TrailingStopTracker;
+import tradingbot.domain.market.KlineClosedEvent;
+import tradingbot.domain.market.StreamMarketDataEvent;
 
 class FuturesTradingBotTest {
     @Mock
@@ -262,6 +266,56 @@ class FuturesTradingBotTest {
         }
     }
 
+    @Test
+    @DisplayName("A trade tick that hits the trailing stop exits without waiting for the next step")
+    void tradeTickHittingTrailingStopExitsPosition() {
+        when(exchangeService.getCurrentPrice(SYMBOL)).thenReturn(50000.0);
+        when(exchangeService.getMarginBalance()).thenReturn(1000.0);
+        when(trailingStopTracker.checkTrailingStop(49000.0)).thenReturn(true);
+        longBot.start();
+        try {
+            longBot.onEvent(trade(SYMBOL, 49000.0));
+            verify(trailingStopTracker, never()).updateTrailingStop(anyDouble());
+
+            invokePrivateMethod(longBot, "enterPosition");
+            longBot.onEvent(trade("ETHUSDT", 49000.0));
+            verify(exchangeService, never()).exitLongPosition(anyString(), anyDouble());
+
+            longBot.onEvent(trade(SYMBOL, 49000.0));
+            verify(trailingStopTracker).updateTrailingStop(49000.0);
+            verify(exchangeService).exitLongPosition(SYMBOL, TRADE_AMOUNT);
+            assertNull(getFieldValue(longBot, "positionStatus"));
+            verifyNoInteractions(rsiExit, macdExit, liquidationRiskExit);
+        } finally {
+            longBot.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("A closed kline re-evaluates the exit conditions of an open position")
+    void closedKlineEvaluatesExitConditions() {
+        when(exchangeService.getCurrentPrice(SYMBOL)).thenReturn(50000.0);
+        when(exchangeService.getMarginBalance()).thenReturn(1000.0);
+        when(macdExit.shouldExit()).thenReturn(true);
+        invokePrivateMethod(shortBot, "enterPosition");
+        shortBot.start();
+        try {
+            BigDecimal close = BigDecimal.valueOf(50500.0);
+            shortBot.onEvent(new KlineClosedEvent("BINANCE", SYMBOL, "1m", close, close, close, close,
+                    BigDecimal.ONE, Instant.now().minusSeconds(60), Instant.now()));
+
+            verify(exchangeService).exitShortPosition(SYMBOL, TRADE_AMOUNT);
+            assertNull(getFieldValue(shortBot, "positionStatus"));
+        } finally {
+            shortBot.stop();
+        }
+    }
+
+    private static StreamMarketDataEvent trade(String symbol, double price) {
+        return new StreamMarketDataEvent("BINANCE", symbol, StreamMarketDataEvent.EventType.TRADE,
+                BigDecimal.valueOf(price), BigDecimal.ONE, Instant.now(), null);
+    }
+
     // --- Integration Tests ---
     /**
     void shouldSimulateLongAndShortPaperTradingIntegration() {
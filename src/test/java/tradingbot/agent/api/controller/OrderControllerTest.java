@@ -9,6 +9,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.ResponseEntity;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import tradingbot.agent.api.dto.OrderResponse;
 import tradingbot.agent.application.OrderService;
 import tradingbot.agent.infrastructure.persistence.OrderEntity;
@@ -20,7 +22,7 @@ public class OrderControllerTest {
     @BeforeEach
     void setUp() {
         orderService = Mockito.mock(OrderService.class);
-        orderController = new OrderController(orderService);
+        orderController = new OrderController(orderService, new ObjectMapper());
     }
 
     @Test
@@ -3,12 +3,18 @@ package tradingbot.agent.application;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
 
+import jakarta.persistence.EntityManager;
+import tradingbot.agent.api.dto.CursorPage;
 import tradingbot.agent.api.dto.OrderResponse;
+import tradingbot.agent.api.dto.PageCursor;
 import tradingbot.agent.infrastructure.persistence.OrderEntity;
 import tradingbot.agent.infrastructure.repository.OrderRepository;
 
@@ -19,7 +25,7 @@ public class OrderServiceTest {
     @BeforeEach
     void setUp() {
         orderRepository = Mockito.mock(OrderRepository.class);
-        orderService = new OrderService(orderRepository);
+        orderService = new OrderService(orderRepository, Mockito.mock(EntityManager.class));
     }
 
     @Test
@@ -42,4 +48,50 @@ public class OrderServiceTest {
         assertTrue(response.id.startsWith("AGENT1234-"));
         assertTrue(response.id.length() > "AGENT1234-".length());
     }
+
+    @Test
+    void testGetOrdersReturnsCursorWhenMoreRowsExist() {
+        Instant now = Instant.now();
+        List<OrderEntity> rows = IntStream.range(0, 3)
+            .mapToObj(i -> order("AGENT1234-" + i, now.minusSeconds(i)))
+            .toList();
+        Mockito.when(orderRepository.findFirstPageByAgent("AGENT1234", PageRequest.of(0, 3))).thenReturn(rows);
+
+        CursorPage<OrderResponse> page = orderService.getOrders("AGENT1234", null, 2);
+
+        assertEquals(2, page.content().size());
+        assertEquals(new PageCursor(now.minusSeconds(1), "AGENT1234-1"), PageCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void testGetOrdersSeeksFromCursorAndEndsOnLastPage() {
+        Instant at = Instant.parse("2026-01-01T00:00:00.123456Z");
+        String cursor = new PageCursor(at, "AGENT1234-1").encode();
+        Mockito.when(orderRepository.findPageByAgentBefore("AGENT1234", at, "AGENT1234-1", PageRequest.of(0, 3)))
+            .thenReturn(List.of(order("AGENT1234-2", at.minusSeconds(1))));
+
+        CursorPage<OrderResponse> page = orderService.getOrders("AGENT1234", cursor, 2);
+
+        assertEquals(1, page.content().size());
+        assertNull(page.nextCursor());
+        Mockito.verify(orderRepository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void testGetOrdersRejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrders("AGENT1234", "not-a-cursor", 10));
+    }
+
+    private static OrderEntity order(String id, Instant createdAt) {
+        return OrderEntity.builder()
+            .id(id)
+            .agentId("AGENT1234")
+            .symbol("BTCUSDT")
+            .direction(OrderEntity.Direction.LONG)
+            .price(50000.0)
+            .quantity(0.1)
+            .status(OrderEntity.Status.PENDING)
+            .createdAt(createdAt)
+            .build();
+    }
 }
@@ -6,6 +6,7 @@ import static org.mockito.Mockito.*;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,7 @@ import tradingbot.agent.domain.model.TradeMemory;
 import tradingbot.agent.domain.model.TradeOutcome;
 import tradingbot.agent.config.AgentExecutionContext;
 import tradingbot.agent.config.ExchangeServiceRegistry;
+import tradingbot.agent.infrastructure.llm.LlmCallScheduler;
 import tradingbot.agent.service.RAGService;
 import tradingbot.agent.service.TradingAgentService;
 
@@ -50,6 +52,9 @@ class LangChain4jStrategyTest {
     @Mock
     private AgentExecutionContext executionContext;
 
+    @Mock
+    private LlmCallScheduler llmCallScheduler;
+
     @InjectMocks
     private LangChain4jStrategy strategy;
     
@@ -63,6 +68,10 @@ class LangChain4jStrategyTest {
         // Set RAG enabled by default
         ReflectionTestUtils.setField(strategy, "ragEnabled", true);
         ReflectionTestUtils.setField(strategy, "ragContextLimit", 3);
+
+        // Admit every call immediately
+        lenient().when(llmCallScheduler.execute(any(), anyInt(), any()))
+            .thenAnswer(inv -> inv.<Supplier<?>>getArgument(2).get());
     }
     
     @Test
@@ -0,0 +1,76 @@
+package tradingbot.agent.domain.indicator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BaseBarSeries;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+@DisplayName("RollingBarSeries Tests")
+class RollingBarSeriesTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("Capacity follows the longest lookback with a floor")
+    void capacityFollowsLongestLookback() {
+        assertEquals(350, RollingBarSeries.capacityFor(26 + 9, 14, 20));
+        assertEquals(RollingBarSeries.MIN_CAPACITY, RollingBarSeries.capacityFor(5));
+        assertEquals(RollingBarSeries.MIN_CAPACITY, RollingBarSeries.capacityFor());
+    }
+
+    @Test
+    @DisplayName("Series stays at capacity while indices keep growing")
+    void evictsOldestBars() {
+        BaseBarSeries series = RollingBarSeries.create("rolling", 200);
+
+        for (int i = 0; i < 5_000; i++) {
+            addBar(series, i);
+        }
+
+        assertEquals(200, series.getBarCount());
+        assertEquals(4_999, series.getEndIndex());
+        assertEquals(4_800, series.getBeginIndex());
+        assertEquals(close(4_999), series.getLastBar().getClosePrice().doubleValue());
+    }
+
+    @Test
+    @DisplayName("Indicators evaluated every bar match an unbounded series after eviction")
+    void indicatorsMatchUnboundedSeries() {
+        BaseBarSeries bounded = RollingBarSeries.create("bounded", RollingBarSeries.capacityFor(35, 14));
+        BaseBarSeries unbounded = RollingBarSeries.create("unbounded", Integer.MAX_VALUE);
+        ClosePriceIndicator boundedClose = new ClosePriceIndicator(bounded);
+        ClosePriceIndicator unboundedClose = new ClosePriceIndicator(unbounded);
+        EMAIndicator boundedSignal = new EMAIndicator(new MACDIndicator(boundedClose, 12, 26), 9);
+        EMAIndicator unboundedSignal = new EMAIndicator(new MACDIndicator(unboundedClose, 12, 26), 9);
+        RSIIndicator boundedRsi = new RSIIndicator(boundedClose, 14);
+        RSIIndicator unboundedRsi = new RSIIndicator(unboundedClose, 14);
+
+        for (int i = 0; i < 3_000; i++) {
+            addBar(bounded, i);
+            addBar(unbounded, i);
+            int idx = bounded.getEndIndex();
+            assertEquals(unboundedSignal.getValue(idx).doubleValue(), boundedSignal.getValue(idx).doubleValue(), 1e-9);
+            assertEquals(unboundedRsi.getValue(idx).doubleValue(), boundedRsi.getValue(idx).doubleValue(), 1e-9);
+        }
+        assertEquals(350, bounded.getBarCount());
+    }
+
+    private static void addBar(BaseBarSeries series, int i) {
+        double close = close(i);
+        series.addBar(Duration.ofMinutes(1), START.plusMinutes(i + 1),
+                close - 1, close + 2, close - 2, close, 10);
+    }
+
+    private static double close(int i) {
+        return 30_000 + 500 * Math.sin(i / 17.0) + 120 * Math.cos(i / 5.0);
+    }
+}
@@ -0,0 +1,153 @@
+package tradingbot.agent.infrastructure.llm;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import tradingbot.agent.domain.model.AgentGoal;
+import tradingbot.agent.domain.model.Perception;
+import tradingbot.agent.domain.model.Reasoning;
+import tradingbot.agent.domain.model.ReasoningContext;
+import tradingbot.agent.service.EmbeddingService;
+import tradingbot.agent.service.LocalEmbeddingService;
+
+/**
+ * Unit tests for CachedGrokService key bucketing, miss coalescing and semantic lookup.
+ */
+class CachedGrokServiceTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private GrokClient grokClient;
+    private RedisTemplate<String, String> redisTemplate;
+    private final Map<String, String> redisStore = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        grokClient = mock(GrokClient.class);
+        when(grokClient.isEnabled()).thenReturn(true);
+
+        redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(ops);
+        when(ops.get(anyString())).thenAnswer(inv -> redisStore.get(inv.<String>getArgument(0)));
+        doAnswer(inv -> redisStore.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(ops).set(anyString(), anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    private CachedGrokService service(Optional<EmbeddingService> embeddings, boolean semantic) {
+        return new CachedGrokService(Optional.of(grokClient), redisTemplate, embeddings,
+                cacheDir.toString(), 1, 1, 64, 0.5, 10, 2, semantic, 0.9, 16, 60);
+    }
+
+    private ReasoningContext context(double price, double volume, String trend) {
+        AgentGoal goal = new AgentGoal(AgentGoal.GoalType.MAXIMIZE_PROFIT, "Test");
+        Perception perception = new Perception("BTCUSDT", price, trend, "NEUTRAL", volume, Instant.now());
+        return new ReasoningContext(goal, perception, "BTCUSDT", 10000.0, 1);
+    }
+
+    private Reasoning reasoning(String recommendation) {
+        return new Reasoning("obs", "analysis", "risk", recommendation, 80, Instant.now());
+    }
+
+    @Test
+    void nearbyPricesAndVolumesShareCacheKey() {
+        CachedGrokService service = service(Optional.empty(), false);
+
+        assertEquals(service.buildCacheKey(context(60000.0, 1500.0, "UPTREND")),
+                service.buildCacheKey(context(60001.5, 1600.0, "UPTREND")));
+        assertNotEquals(service.buildCacheKey(context(60000.0, 1500.0, "UPTREND")),
+                service.buildCacheKey(context(61000.0, 1500.0, "UPTREND")));
+        assertNotEquals(service.buildCacheKey(context(60000.0, 1500.0, "UPTREND")),
+                service.buildCacheKey(context(60000.0, 1500.0, "DOWNTREND")));
+    }
+
+    @Test
+    void secondCallInSameBandIsServedFromCache() {
+        when(grokClient.generateReasoning(any())).thenReturn(reasoning("BUY"));
+        CachedGrokService service = service(Optional.empty(), false);
+
+        service.generateReasoning(context(60000.0, 1500.0, "UPTREND"));
+        Reasoning second = service.generateReasoning(context(60002.0, 1500.0, "UPTREND"));
+
+        assertEquals("BUY", second.getRecommendation());
+        verify(grokClient, times(1)).generateReasoning(any());
+    }
+
+    @Test
+    void concurrentIdenticalMissesTriggerSingleLlmCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(grokClient.generateReasoning(any())).thenAnswer(inv -> {
+            calls.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return reasoning("SELL");
+        });
+        CachedGrokService service = service(Optional.empty(), false);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Reasoning>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> service.generateReasoning(context(60000.0, 1500.0, "DOWNTREND"))));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<Reasoning> result : results) {
+                assertEquals("SELL", result.get(5, TimeUnit.SECONDS).getRecommendation());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void semanticLookupReusesSimilarRecentResponse() {
+        EmbeddingService embeddings = mock(EmbeddingService.class);
+        when(embeddings.embed(anyString())).thenReturn(new double[] {1.0, 0.0});
+        when(embeddings.cosineSimilarity(any(), any())).thenCallRealMethod();
+        when(grokClient.generateReasoning(any())).thenReturn(reasoning("BUY"));
+        CachedGrokService service = service(Optional.of(embeddings), true);
+
+        service.generateReasoning(context(60000.0, 1500.0, "UPTREND"));
+        // Different price band, but the (mocked) embedding is identical → semantic hit
+        Reasoning second = service.generateReasoning(context(62000.0, 1500.0, "UPTREND"));
+
+        assertEquals("BUY", second.getRecommendation());
+        verify(grokClient, times(1)).generateReasoning(any());
+    }
+
+    @Test
+    void semanticLookupMissesBelowThreshold() {
+        CachedGrokService service = service(Optional.of(new LocalEmbeddingService()), true);
+        when(grokClient.generateReasoning(any())).thenReturn(reasoning("HOLD"));
+
+        service.generateReasoning(context(60000.0, 1500.0, "UPTREND"));
+        service.generateReasoning(context(62000.0, 1500.0, "SIDEWAYS"));
+
+        verify(grokClient, times(2)).generateReasoning(any());
+    }
+}
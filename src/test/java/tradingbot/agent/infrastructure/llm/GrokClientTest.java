@@ -0,0 +1,191 @@
+package tradingbot.agent.infrastructure.llm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import tradingbot.agent.domain.model.AgentGoal;
+import tradingbot.agent.domain.model.Perception;
+import tradingbot.agent.domain.model.Reasoning;
+import tradingbot.agent.domain.model.ReasoningContext;
+
+/**
+ * Tests GrokClient against a local mock LLM server (JDK HttpServer).
+ */
+class GrokClientTest {
+
+    private static final String LLM_OUTPUT = """
+            OBSERVATION: BTC holding above support
+
+            ANALYSIS: Momentum is turning positive
+
+            RISK ASSESSMENT: Moderate
+
+            RECOMMENDATION: BUY
+
+            CONFIDENCE: 72%
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private GrokClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (client != null) {
+            client.shutdown();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private GrokClient client(boolean streaming) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+        // Generous budgets so the scheduler never throttles these tests
+        LlmCallScheduler scheduler = new LlmCallScheduler(new SimpleMeterRegistry(), 0, 0, 512, 1, 512,
+                Duration.ofSeconds(30), 0.7, Duration.ofSeconds(30), Duration.ofSeconds(30),
+                Duration.ofSeconds(30), Duration.ofSeconds(30));
+        client = new GrokClient(scheduler, "test-key", url, "grok-test", 0.2, 200, true,
+                Duration.ofSeconds(5), streaming, 2);
+        return client;
+    }
+
+    private ReasoningContext context() {
+        AgentGoal goal = new AgentGoal(AgentGoal.GoalType.MAXIMIZE_PROFIT, "Test");
+        Perception perception = new Perception("BTCUSDT", 60000.0, "UPTREND", "NEUTRAL", 1000.0, Instant.now());
+        return new ReasoningContext(goal, perception, "BTCUSDT", 10000.0, 1);
+    }
+
+    @Test
+    void parsesNonStreamingCompletion() {
+        server.createContext("/v1/chat/completions", exchange -> respondJson(exchange, completionJson(LLM_OUTPUT)));
+
+        Reasoning reasoning = client(false).generateReasoning(context());
+
+        assertEquals("BUY", reasoning.getRecommendation());
+        assertEquals(72, reasoning.getConfidence());
+    }
+
+    @Test
+    void parsesStreamedDeltasIncrementally() {
+        server.createContext("/v1/chat/completions", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                // Split on odd boundaries so sections straddle chunks
+                String text = LLM_OUTPUT + "\nTrailing commentary that should never be needed.";
+                for (int i = 0; i < text.length(); i += 7) {
+                    String token = text.substring(i, Math.min(text.length(), i + 7));
+                    out.write(("data: " + deltaJson(token) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // Client cancels once CONFIDENCE is complete; a broken pipe here is expected
+            }
+        });
+
+        Reasoning reasoning = client(true).generateReasoningAsync(context()).block(Duration.ofSeconds(5));
+
+        assertNotNull(reasoning);
+        assertEquals("BUY", reasoning.getRecommendation());
+        assertEquals(72, reasoning.getConfidence());
+        assertTrue(reasoning.getAnalysis().contains("Momentum"));
+    }
+
+    @Test
+    void fallsBackToHoldOnRateLimit() {
+        server.createContext("/v1/chat/completions", exchange -> {
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+        });
+
+        Reasoning reasoning = client(true).generateReasoning(context());
+
+        assertEquals("HOLD", reasoning.getRecommendation());
+        assertEquals(0, reasoning.getConfidence());
+    }
+
+    @Test
+    void hundredsOfConcurrentCallsRunOnTwoIoThreads() {
+        server.createContext("/v1/chat/completions", exchange -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respondJson(exchange, completionJson(LLM_OUTPUT));
+        });
+        GrokClient grok = client(false);
+        ReasoningContext ctx = context();
+
+        long start = System.nanoTime();
+        List<Reasoning> results = Flux.merge(IntStream.range(0, 300)
+                        .mapToObj(i -> grok.generateReasoningAsync(ctx))
+                        .toList())
+                .collectList()
+                .block(Duration.ofSeconds(30));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertNotNull(results);
+        assertEquals(300, results.size());
+        assertTrue(results.stream().allMatch(r -> "BUY".equals(r.getRecommendation())));
+        // 300 sequential calls would take 90s; concurrent calls overlap on the shared client
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(20)) < 0, "took " + elapsed);
+        long ioThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().startsWith("grok-http-"))
+                .count();
+        assertTrue(ioThreads <= 2, "expected at most 2 I/O threads but found " + ioThreads);
+    }
+
+    private void respondJson(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String completionJson(String content) throws IOException {
+        return objectMapper.writeValueAsString(Map.of(
+                "id", "cmpl-1",
+                "object", "chat.completion",
+                "choices", List.of(Map.of("index", 0, "message", Map.of("role", "assistant", "content", content)))));
+    }
+
+    private String deltaJson(String token) throws IOException {
+        return objectMapper.writeValueAsString(Map.of(
+                "object", "chat.completion.chunk",
+                "choices", List.of(Map.of("index", 0, "delta", Map.of("content", token)))));
+    }
+}
@@ -0,0 +1,130 @@
+package tradingbot.agent.infrastructure.llm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Unit tests for LlmCallScheduler priority ordering, deadlines, budgets and AIMD limits.
+ */
+class LlmCallSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LlmCallScheduler scheduler(long requestsPerMinute, int initial, int max, Duration liveDeadline) {
+        return new LlmCallScheduler(meterRegistry, requestsPerMinute, 0, initial, 1, max,
+                Duration.ofSeconds(10), 0.5, liveDeadline, Duration.ofSeconds(30),
+                Duration.ofSeconds(30), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void higherPriorityIsDispatchedFirst() {
+        LlmCallScheduler scheduler = scheduler(0, 1, 1, Duration.ofSeconds(30));
+        Sinks.One<String> blocker = Sinks.one();
+        List<String> dispatched = new CopyOnWriteArrayList<>();
+
+        scheduler.submit(LlmPriority.BACKFILL, 10, blocker::asMono).subscribe();
+        Mono<String> backfill = scheduler.submit(LlmPriority.BACKFILL, 10, () -> record(dispatched, "backfill"));
+        Mono<String> reflection = scheduler.submit(LlmPriority.REFLECTION, 10, () -> record(dispatched, "reflection"));
+        Mono<String> decision = scheduler.submit(LlmPriority.LIVE_DECISION, 10, () -> record(dispatched, "decision"));
+        backfill.subscribe();
+        reflection.subscribe();
+        decision.subscribe();
+        assertEquals(3, scheduler.queuedCount());
+
+        blocker.tryEmitValue("done");
+
+        assertEquals(List.of("decision", "reflection", "backfill"), dispatched);
+        assertEquals(0, scheduler.queuedCount());
+        assertEquals(0, scheduler.inFlightCount());
+    }
+
+    @Test
+    void staleDecisionIsDroppedAtDeadline() {
+        LlmCallScheduler scheduler = scheduler(0, 1, 1, Duration.ofMillis(100));
+        scheduler.submit(LlmPriority.BACKFILL, 10, () -> Sinks.<String>one().asMono()).subscribe();
+
+        Mono<String> decision = scheduler.submit(LlmPriority.LIVE_DECISION, 10, () -> Mono.just("late"));
+
+        assertThrows(LlmCallRejectedException.class, () -> decision.block(Duration.ofSeconds(5)));
+        assertEquals(0, scheduler.queuedCount());
+        assertEquals(1.0, meterRegistry.get("llm.scheduler.dropped").tag("priority", "live_decision").counter().count());
+    }
+
+    @Test
+    void requestBudgetHoldsBackExcessCalls() {
+        LlmCallScheduler scheduler = scheduler(2, 8, 8, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit(LlmPriority.REFLECTION, 10, () -> Mono.just("ok")).subscribe();
+        }
+
+        assertEquals(1, scheduler.queuedCount());
+    }
+
+    @Test
+    void rateLimitHalvesLimitAndSuccessGrowsItBack() {
+        LlmCallScheduler scheduler = scheduler(0, 8, 16, Duration.ofSeconds(30));
+
+        Mono<String> limited = scheduler.submit(LlmPriority.LIVE_DECISION, 10,
+                () -> Mono.error(new GrokClient.GrokApiException(429)));
+        assertThrows(GrokClient.GrokApiException.class, limited::block);
+        assertEquals(4.0, scheduler.concurrencyLimit(), 1e-9);
+
+        scheduler.submit(LlmPriority.LIVE_DECISION, 10, () -> Mono.just("ok")).block();
+        assertEquals(4.25, scheduler.concurrencyLimit(), 1e-9);
+        assertEquals(1.0, meterRegistry.get("llm.scheduler.rate.limited").counter().count());
+    }
+
+    @Test
+    void rateLimitIsDetectedFromStatusCodesOnly() {
+        assertTrue(LlmCallScheduler.isRateLimited(new GrokClient.GrokApiException(429)));
+        assertTrue(LlmCallScheduler.isRateLimited(new IllegalStateException("wrapped",
+                WebClientResponseException.create(429, "Too Many Requests", null, null, null))));
+        assertTrue(LlmCallScheduler.isRateLimited(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS)));
+
+        assertFalse(LlmCallScheduler.isRateLimited(new GrokClient.GrokApiException(500)));
+        assertFalse(LlmCallScheduler.isRateLimited(new IllegalStateException("timed out after 4290 ms")));
+        assertFalse(LlmCallScheduler.isRateLimited(new RuntimeException("rate limit mentioned in a prompt")));
+    }
+
+    @Test
+    void cancellingQueuedCallFreesItsPlace() {
+        LlmCallScheduler scheduler = scheduler(0, 1, 1, Duration.ofSeconds(30));
+        Sinks.One<String> blocker = Sinks.one();
+        scheduler.submit(LlmPriority.BACKFILL, 10, blocker::asMono).subscribe();
+
+        scheduler.submit(LlmPriority.REFLECTION, 10, () -> Mono.just("never")).subscribe().dispose();
+
+        assertEquals(0, scheduler.queuedCount());
+        blocker.tryEmitValue("done");
+        assertEquals(0, scheduler.inFlightCount());
+    }
+
+    @Test
+    void blockingExecuteRunsOnCallerThread() {
+        LlmCallScheduler scheduler = scheduler(0, 1, 1, Duration.ofSeconds(30));
+        Thread caller = Thread.currentThread();
+
+        Thread ran = scheduler.execute(LlmPriority.REFLECTION, 10, Thread::currentThread);
+
+        assertSame(caller, ran);
+        assertEquals(0, scheduler.inFlightCount());
+    }
+
+    private static Mono<String> record(List<String> dispatched, String name) {
+        dispatched.add(name);
+        return Mono.just(name);
+    }
+}
@@ -144,4 +144,38 @@ class ReasoningParserTest {
         // Then - should default to 50%
         assertEquals(50, result.getConfidence());
     }
+    
+    @Test
+    void testIncrementalParseDetectsCompletion() {
+        // Given - a response streamed in small tokens
+        String llmOutput = """
+            OBSERVATION: Test observation
+            
+            ANALYSIS: Test analysis
+            
+            RISK ASSESSMENT: Test risk
+            
+            RECOMMENDATION: SELL
+            
+            CONFIDENCE: 85%
+            """;
+        
+        AgentGoal goal = new AgentGoal(AgentGoal.GoalType.MAXIMIZE_PROFIT, "Test");
+        Perception perception = new Perception("BTCUSDT", 45000.0, "DOWNTREND", "BEARISH", 1000000.0, Instant.now());
+        ReasoningContext context = new ReasoningContext(goal, perception, "BTCUSDT", 10000.0, 1);
+        
+        ReasoningParser.Incremental incremental = ReasoningParser.incremental();
+        int cut = llmOutput.indexOf("85") + 1;
+        
+        // When - "CONFIDENCE: 8" has arrived but the number is not terminated yet
+        incremental.append(llmOutput.substring(0, cut));
+        assertFalse(incremental.isComplete());
+        incremental.append(llmOutput.substring(cut));
+        
+        // Then
+        assertTrue(incremental.isComplete());
+        Reasoning result = incremental.toReasoning(context);
+        assertEquals("SELL", result.getRecommendation());
+        assertEquals(85, result.getConfidence());
+    }
 }
@@ -0,0 +1,156 @@
+package tradingbot.agent.infrastructure.llm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the segmented append-only L2 LLM cache.
+ */
+class SegmentedLogCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void putThenGetReturnsLatestValue() throws IOException {
+        try (SegmentedLogCache cache = new SegmentedLogCache(dir, 1024 * 1024, 0.5, clock)) {
+            cache.put("k1", "v1", 0);
+            cache.put("k1", "v2", 0);
+            cache.put("k2", "other", 0);
+
+            assertEquals("v2", cache.get("k1"));
+            assertEquals("other", cache.get("k2"));
+            assertNull(cache.get("missing"));
+        }
+    }
+
+    @Test
+    void indexIsRebuiltAfterReopenFromFootersAndActiveSegment() throws IOException {
+        try (SegmentedLogCache cache = new SegmentedLogCache(dir, 256, 0.5, clock)) {
+            for (int i = 0; i < 50; i++) {
+                cache.put("key-" + i, "value-" + i, 0);
+            }
+            assertTrue(cache.segmentCount() > 1, "small segment size should force rolling");
+        }
+
+        try (SegmentedLogCache reopened = new SegmentedLogCache(dir, 256, 0.5, clock)) {
+            assertEquals(50, reopened.size());
+            for (int i = 0; i < 50; i++) {
+                assertEquals("value-" + i, reopened.get("key-" + i));
+            }
+        }
+    }
+
+    @Test
+    void corruptedRecordFailsChecksum() throws IOException {
+        try (SegmentedLogCache cache = new SegmentedLogCache(dir, 1024 * 1024, 0.5, clock)) {
+            cache.put("k1", "payload", 0);
+            flipLastByte(onlySegment());
+
+            assertNull(cache.get("k1"));
+        }
+    }
+
+    @Test
+    void tornTailIsTruncatedOnRecovery() throws IOException {
+        try (SegmentedLogCache cache = new SegmentedLogCache(dir, 1024 * 1024, 0.5, clock)) {
+            cache.put("k1", "first", 0);
+            cache.put("k2", "second", 0);
+        }
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (SegmentedLogCache reopened = new SegmentedLogCache(dir, 1024 * 1024, 0.5, clock)) {
+            assertEquals("first", reopened.get("k1"));
+            assertNull(reopened.get("k2"));
+            reopened.put("k3", "third", 0);
+            assertEquals("third", reopened.get("k3"));
+        }
+    }
+
+    @Test
+    void compactionDropsExpiredEntriesAndDeletesSegments() throws IOException {
+        try (SegmentedLogCache cache = new SegmentedLogCache(dir, 256, 0.5, clock)) {
+            long expiresAt = clock.millis() + 1_000;
+            for (int i = 0; i < 40; i++) {
+                cache.put("expiring-" + i, "value-" + i, expiresAt);
+            }
+            cache.put("forever", "kept", 0);
+            int segmentsBefore = cache.segmentCount();
+
+            clock.advance(2_000);
+            assertNull(cache.get("expiring-0"));
+            int deleted = cache.compact();
+
+            assertTrue(deleted > 0);
+            assertTrue(cache.segmentCount() < segmentsBefore);
+            assertEquals(1, cache.size());
+            assertEquals("kept", cache.get("forever"));
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(cache.segmentCount(), files.count());
+            }
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    private void flipLastByte(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, channel.size() - 1);
+            b.put(0, (byte) (b.get(0) ^ 0xFF));
+            b.rewind();
+            channel.write(b, channel.size() - 1);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(long deltaMillis) {
+            millis += deltaMillis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
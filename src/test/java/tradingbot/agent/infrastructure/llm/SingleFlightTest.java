@@ -0,0 +1,74 @@
+package tradingbot.agent.infrastructure.llm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for SingleFlight coalescing and failure propagation.
+ */
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void returnsTheResultAndReleasesTheKey() {
+        assertEquals("v", singleFlight.execute("k", () -> "v"));
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void errorInTheLeaderReleasesWaitersAndTheKey() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> leaderFailure = new AtomicReference<>();
+        AtomicReference<Throwable> followerFailure = new AtomicReference<>();
+
+        Thread leader = new Thread(() -> {
+            try {
+                singleFlight.execute("k", () -> {
+                    started.countDown();
+                    awaitQuietly(release);
+                    throw new StackOverflowError("boom");
+                });
+            } catch (Throwable t) {
+                leaderFailure.set(t);
+            }
+        });
+        leader.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Thread follower = new Thread(() -> {
+            try {
+                singleFlight.execute("k", () -> "never");
+            } catch (Throwable t) {
+                followerFailure.set(t);
+            }
+        });
+        follower.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (follower.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        leader.join(5_000);
+        follower.join(5_000);
+
+        assertInstanceOf(StackOverflowError.class, leaderFailure.get());
+        assertInstanceOf(StackOverflowError.class, followerFailure.get());
+        assertEquals(0, singleFlight.inFlightCount());
+        assertEquals("next", singleFlight.execute("k", () -> "next"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package tradingbot.agent.infrastructure.snapshot;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tradingbot.agent.domain.model.SeriesBar;
+
+/**
+ * Unit tests for the agent snapshot file format and store.
+ */
+class AgentSnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void savedSnapshotIsLoadedBack() throws IOException {
+        AgentSnapshotStore store = new AgentSnapshotStore(dir.toString());
+        AgentSnapshot snapshot = snapshot("agent-1", 300);
+
+        store.save(snapshot);
+
+        assertEquals(snapshot, store.load("agent-1").orElseThrow());
+        assertTrue(store.load("agent-2").isEmpty());
+    }
+
+    @Test
+    void encodedBarIsFiftySixBytes() {
+        int empty = AgentSnapshotCodec.encode(snapshot("a", 0)).length;
+        int hundred = AgentSnapshotCodec.encode(snapshot("a", 100)).length;
+
+        assertEquals(100 * 56, hundred - empty);
+    }
+
+    @Test
+    void corruptSnapshotIsIgnored() throws IOException {
+        AgentSnapshotStore store = new AgentSnapshotStore(dir.toString());
+        store.save(snapshot("agent-1", 50));
+        Path file = dir.resolve("agent-1.snap");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x40;
+        Files.write(file, bytes);
+
+        assertTrue(store.load("agent-1").isEmpty());
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        byte[] bytes = AgentSnapshotCodec.encode(snapshot("a", 3));
+        bytes[5] = 9; // low byte of the version
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length - 4);
+        ByteBuffer.wrap(bytes, bytes.length - 4, 4).putInt((int) crc.getValue());
+
+        IOException e = assertThrows(IOException.class, () -> AgentSnapshotCodec.decode(bytes));
+        assertTrue(e.getMessage().contains("version"));
+    }
+
+    @Test
+    void truncatedSnapshotIsRejected() {
+        byte[] bytes = AgentSnapshotCodec.encode(snapshot("a", 3));
+
+        assertThrows(IOException.class, () -> AgentSnapshotCodec.decode(Arrays.copyOf(bytes, bytes.length - 10)));
+        assertThrows(IOException.class, () -> AgentSnapshotCodec.decode(new byte[3]));
+    }
+
+    @Test
+    void deleteRemovesSnapshot() throws IOException {
+        AgentSnapshotStore store = new AgentSnapshotStore(dir.toString());
+        store.save(snapshot("agent/1", 5));
+
+        assertTrue(store.load("agent/1").isPresent());
+        store.delete("agent/1");
+        assertTrue(store.load("agent/1").isEmpty());
+    }
+
+    private static AgentSnapshot snapshot(String agentId, int bars) {
+        Instant start = Instant.parse("2024-01-01T00:00:59.999Z");
+        List<SeriesBar> series = IntStream.range(0, bars)
+                .mapToObj(i -> new SeriesBar(start.plusSeconds(60L * i), Duration.ofMinutes(1),
+                        100 + i, 101 + i, 99 + i, 100.5 + i, 10 * i))
+                .toList();
+        return new AgentSnapshot(agentId, "BTCUSDT", Instant.parse("2024-01-02T00:00:00Z"), series);
+    }
+}
@@ -0,0 +1,143 @@
+package tradingbot.agent.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import tradingbot.agent.TradingAgent;
+import tradingbot.agent.application.AgentOrchestrator;
+import tradingbot.agent.factory.AgentFactory;
+import tradingbot.agent.infrastructure.repository.AgentEntity;
+import tradingbot.agent.infrastructure.repository.JpaAgentRepository;
+
+@DisplayName("AgentManager Tests")
+class AgentManagerTest {
+
+    private static final int ACTIVE_AGENTS = 1000;
+    private static final int PAGE_SIZE = 100;
+
+    private final JpaAgentRepository agentRepository = mock(JpaAgentRepository.class);
+    private final AgentFactory agentFactory = mock(AgentFactory.class);
+    private final AgentOrchestrator agentOrchestrator = mock(AgentOrchestrator.class);
+    private final Set<String> buildThreads = ConcurrentHashMap.newKeySet();
+
+    private AgentManager manager;
+
+    @BeforeEach
+    void setUp() {
+        List<AgentEntity> active = IntStream.range(0, ACTIVE_AGENTS)
+                .mapToObj(i -> entity("agent-%04d".formatted(i), AgentEntity.AgentStatus.ACTIVE))
+                .toList();
+        when(agentRepository.findAllActive(any(Pageable.class))).thenAnswer(inv -> {
+            Pageable pageable = inv.getArgument(0);
+            int from = (int) pageable.getOffset();
+            int to = Math.min(from + pageable.getPageSize(), active.size());
+            return new SliceImpl<>(active.subList(from, to), pageable, to < active.size());
+        });
+        when(agentFactory.createAgent(any(AgentEntity.class))).thenAnswer(inv -> {
+            buildThreads.add(Thread.currentThread().getName());
+            return new StubAgent(inv.<AgentEntity>getArgument(0).getId());
+        });
+        manager = new AgentManager(agentRepository, agentFactory, agentOrchestrator, 8, PAGE_SIZE);
+    }
+
+    @Test
+    @DisplayName("Active agents are loaded page by page on the loader pool and started")
+    void loadsActiveAgentsInParallel() {
+        manager.loadAgents();
+
+        assertEquals(ACTIVE_AGENTS, manager.getAgents().size());
+        assertTrue(manager.getAgents().stream().allMatch(TradingAgent::isRunning));
+        verify(agentRepository, times(ACTIVE_AGENTS / PAGE_SIZE)).findAllActive(any(Pageable.class));
+        verify(agentRepository, never()).findAll();
+        verify(agentRepository).findAllActive(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+        assertTrue(buildThreads.stream().allMatch(name -> name.startsWith("agent-loader-")));
+    }
+
+    @Test
+    @DisplayName("Inactive agents are hydrated on first access and not started")
+    void hydratesInactiveAgentLazily() {
+        manager.loadAgents();
+        when(agentRepository.findById("paused-1"))
+                .thenReturn(Optional.of(entity("paused-1", AgentEntity.AgentStatus.PAUSED)));
+
+        TradingAgent first = manager.getAgent("paused-1");
+        TradingAgent second = manager.getAgent("paused-1");
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertFalse(first.isRunning());
+        assertEquals(ACTIVE_AGENTS + 1, manager.getAgents().size());
+        verify(agentRepository, times(1)).findById("paused-1");
+    }
+
+    @Test
+    @DisplayName("Registered agents are counted once at load and then tracked on create and delete")
+    void countsAgentsNotLoadedIntoMemory() {
+        when(agentRepository.count()).thenReturn(ACTIVE_AGENTS + 500L);
+        manager.loadAgents();
+
+        assertEquals(ACTIVE_AGENTS, manager.getAgents().size());
+        assertEquals(ACTIVE_AGENTS + 500L, manager.countAgents());
+
+        manager.createAgent(entity("new-1", AgentEntity.AgentStatus.STOPPED));
+        assertEquals(ACTIVE_AGENTS + 501L, manager.countAgents());
+
+        when(agentRepository.existsById("new-1")).thenReturn(true);
+        manager.deleteAgent("new-1");
+        manager.deleteAgent("never-registered");
+        assertEquals(ACTIVE_AGENTS + 500L, manager.countAgents());
+        verify(agentRepository, times(1)).count();
+    }
+
+    @Test
+    @DisplayName("Unknown agents are not cached")
+    void unknownAgentReturnsNull() {
+        when(agentRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertNull(manager.getAgent("missing"));
+        assertTrue(manager.getAgents().isEmpty());
+    }
+
+    private static AgentEntity entity(String id, AgentEntity.AgentStatus status) {
+        return new AgentEntity.Builder()
+                .id(id)
+                .name(id)
+                .tradingSymbol("BTCUSDT")
+                .status(status)
+                .build();
+    }
+
+    private static final class StubAgent implements TradingAgent {
+
+        private final String id;
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        StubAgent(String id) {
+            this.id = id;
+        }
+
+        @Override public String getId()      { return id; }
+        @Override public String getName()    { return "stub-" + id; }
+        @Override public boolean isRunning() { return running.get(); }
+        @Override public void start()        { running.set(true); }
+        @Override public void stop()         { running.set(false); }
+        @Override public void onEvent(Object event) { }
+        @Override public void executeTrade() { }
+    }
+}
@@ -0,0 +1,158 @@
+package tradingbot.agent.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tradingbot.agent.config.ExchangeServiceRegistry;
+import tradingbot.agent.domain.model.SeriesBar;
+import tradingbot.agent.impl.TechnicalTradingAgent;
+import tradingbot.agent.infrastructure.snapshot.AgentSnapshotStore;
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+import tradingbot.bot.service.FuturesExchangeService;
+
+@DisplayName("AgentSnapshotService Tests")
+class AgentSnapshotServiceTest {
+
+    private static final Instant LAST_BAR = Instant.parse("2024-03-01T12:00:59.999Z");
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    @TempDir
+    Path dir;
+
+    private final ExchangeServiceRegistry registry = mock(ExchangeServiceRegistry.class);
+    private final FuturesExchangeService exchange = mock(FuturesExchangeService.class);
+
+    @Test
+    @DisplayName("Restart restores the snapshot and fetches only the missed candles")
+    void warmStartRestoresSnapshotAndFillsGap() {
+        AgentSnapshotStore store = new AgentSnapshotStore(dir.toString());
+        TechnicalTradingAgent before = agent();
+        before.restoreBars(bars(100));
+        AgentSnapshotService first = service(store, LAST_BAR.plusSeconds(1));
+        assertEquals(0, first.warmStart(before));
+        first.flush();
+
+        // Ten bars closed while the process was down; the eleventh is still forming
+        Instant now = LAST_BAR.plus(MINUTE.multipliedBy(10)).plusSeconds(30);
+        when(registry.resolve("BINANCE")).thenReturn(exchange);
+        when(exchange.fetchOhlcv("BTCUSDT", "1m", 11)).thenReturn(candles(-1, 11));
+        TechnicalTradingAgent after = agent();
+
+        assertEquals(110, service(store, now).warmStart(after));
+
+        List<SeriesBar> restored = after.recentBars(500);
+        assertEquals(110, restored.size());
+        assertEquals(before.recentBars(100), restored.subList(0, 100));
+        assertEquals(LAST_BAR.plus(MINUTE.multipliedBy(10)), restored.get(109).endTime());
+        verify(exchange, times(1)).fetchOhlcv(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("A gap longer than max-bars drops the snapshot instead of leaving a hole in the series")
+    void longOutageStartsFromFreshCandles() {
+        AgentSnapshotStore store = new AgentSnapshotStore(dir.toString());
+        TechnicalTradingAgent before = agent();
+        before.restoreBars(bars(100));
+        AgentSnapshotService first = service(store, LAST_BAR.plusSeconds(1));
+        first.warmStart(before);
+        first.flush();
+
+        // 600 bars closed while down, more than the 500 max-bars; the 601st is still forming
+        Instant now = LAST_BAR.plus(MINUTE.multipliedBy(600)).plusSeconds(30);
+        when(registry.resolve("BINANCE")).thenReturn(exchange);
+        when(exchange.fetchOhlcv("BTCUSDT", "1m", 501)).thenReturn(candles(101, 601));
+        TechnicalTradingAgent after = agent();
+
+        assertEquals(500, service(store, now).warmStart(after));
+
+        // The series keeps its 350-bar capacity, all of it from the fresh fetch
+        List<SeriesBar> restored = after.recentBars(1000);
+        assertEquals(350, restored.size());
+        assertEquals(LAST_BAR.plus(MINUTE.multipliedBy(251)), restored.get(0).endTime());
+        assertEquals(LAST_BAR.plus(MINUTE.multipliedBy(600)), restored.get(349).endTime());
+        for (int i = 1; i < restored.size(); i++) {
+            assertEquals(MINUTE, Duration.between(restored.get(i - 1).endTime(), restored.get(i).endTime()));
+        }
+        verify(exchange, times(1)).fetchOhlcv(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Agents without a snapshot make no REST call and are snapshotted once per new bar")
+    void noSnapshotMeansNoRestTraffic() throws Exception {
+        AgentSnapshotStore store = spy(new AgentSnapshotStore(dir.toString()));
+        AgentSnapshotService service = service(store, LAST_BAR);
+        TechnicalTradingAgent agent = agent();
+
+        assertEquals(0, service.warmStart(agent));
+        service.snapshotAll();
+        agent.restoreBars(bars(5));
+        service.snapshotAll();
+        service.snapshotAll();
+
+        verifyNoInteractions(registry);
+        verify(store, times(1)).save(any());
+        assertEquals(5, store.load("agent-1").orElseThrow().bars().size());
+    }
+
+    @Test
+    @DisplayName("Bar spacing maps to exchange timeframes")
+    void mapsTimeframes() {
+        assertEquals("1m", AgentSnapshotService.timeframe(Duration.ofMillis(59_999)));
+        assertEquals("4h", AgentSnapshotService.timeframe(Duration.ofHours(4)));
+        assertNull(AgentSnapshotService.timeframe(Duration.ofSeconds(42)));
+    }
+
+    private AgentSnapshotService service(AgentSnapshotStore store, Instant now) {
+        return new AgentSnapshotService(store, registry, true, 500, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static TechnicalTradingAgent agent() {
+        TechnicalTradingAgent agent = new TechnicalTradingAgent("agent-1", "BTCUSDT", "BINANCE", null, null,
+                12, 26, 9, 14, 30.0, 70.0, 20, 2.0, null);
+        agent.start();
+        return agent;
+    }
+
+    /** {@code count} one-minute bars, the last closing at {@link #LAST_BAR}. */
+    private static List<SeriesBar> bars(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    Instant end = LAST_BAR.minus(MINUTE.multipliedBy(count - 1 - i));
+                    return new SeriesBar(end, MINUTE, 100 + i, 102 + i, 99 + i, 101 + i, 5);
+                })
+                .toList();
+    }
+
+    /** Candles closing {@code from}..{@code to} minutes after {@link #LAST_BAR}, inclusive. */
+    private static List<Candle> candles(int from, int to) {
+        return IntStream.rangeClosed(from, to)
+                .mapToObj(i -> {
+                    Candle candle = new Candle();
+                    long close = LAST_BAR.plus(MINUTE.multipliedBy(i)).toEpochMilli();
+                    candle.setCloseTime(close);
+                    candle.setOpenTime(close - MINUTE.toMillis() + 1);
+                    candle.setOpen(BigDecimal.valueOf(200 + i));
+                    candle.setHigh(BigDecimal.valueOf(202 + i));
+                    candle.setLow(BigDecimal.valueOf(199 + i));
+                    candle.setClose(BigDecimal.valueOf(201 + i));
+                    candle.setVolume(BigDecimal.valueOf(7));
+                    return candle;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,125 @@
+package tradingbot.agent.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Sinks;
+import tradingbot.agent.domain.model.Position;
+import tradingbot.agent.infrastructure.persistence.PositionEntity;
+import tradingbot.agent.infrastructure.repository.PositionRepository;
+import tradingbot.bot.messaging.EventPublisher;
+import tradingbot.bot.service.FuturesExchangeService;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+/**
+ * Unit tests for PositionTriggerEngine tick-driven exits.
+ */
+class PositionTriggerEngineTest {
+
+    private PositionRepository positionRepository;
+    private FuturesExchangeService exchangeService;
+    private ExchangeWebSocketClient webSocketClient;
+    private EventPublisher eventPublisher;
+    private final Sinks.Many<StreamMarketDataEvent> trades = Sinks.many().multicast().directBestEffort();
+    private PositionTriggerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        positionRepository = mock(PositionRepository.class);
+        exchangeService = mock(FuturesExchangeService.class);
+        webSocketClient = mock(ExchangeWebSocketClient.class);
+        eventPublisher = mock(EventPublisher.class);
+        when(webSocketClient.streamTrades("BTCUSDT")).thenReturn(trades.asFlux());
+        when(eventPublisher.publishRiskEvent(any())).thenReturn(CompletableFuture.completedFuture(null));
+        engine = new PositionTriggerEngine(positionRepository, exchangeService, webSocketClient,
+                eventPublisher, true, 0, 250);
+    }
+
+    private PositionEntity position(String id, PositionEntity.Direction direction, Double stopLoss, Double takeProfit) {
+        PositionEntity entity = new PositionEntity(id, "agent-1", "BTCUSDT", direction, 100.0, 2.0,
+                stopLoss, takeProfit, "order-" + id, PositionEntity.Status.OPEN, Instant.now());
+        when(positionRepository.findById(id)).thenReturn(Optional.of(entity));
+        when(positionRepository.closeIfOpen(eq(id), any(), anyDouble(), anyDouble(), any())).thenReturn(1);
+        return entity;
+    }
+
+    private void tick(double price) {
+        trades.tryEmitNext(new StreamMarketDataEvent("BINANCE", "BTCUSDT", StreamMarketDataEvent.EventType.TRADE,
+                BigDecimal.valueOf(price), BigDecimal.ONE, Instant.now(), null));
+    }
+
+    @Test
+    void crossingStopClosesLongFromTheStream() {
+        PositionEntity position = position("p1", PositionEntity.Direction.LONG, 95.0, 110.0);
+        engine.arm(position);
+
+        tick(99.0);
+        tick(94.5);
+
+        verify(exchangeService, timeout(2000)).exitLongPosition("BTCUSDT", 2.0);
+        verify(positionRepository, timeout(2000)).closeIfOpen(eq("p1"), eq(PositionEntity.Status.STOPPED_OUT),
+                eq(94.5), eq(-11.0), any());
+        assertEquals(PositionEntity.Status.STOPPED_OUT, position.getStatus());
+        assertEquals(94.5, position.getExitPrice(), 1e-9);
+        verify(exchangeService, never()).getCurrentPrice(anyString());
+    }
+
+    @Test
+    void takeProfitClosesShortAndUnsubscribesWhenBookEmpties() {
+        PositionEntity position = position("p2", PositionEntity.Direction.SHORT, 105.0, 90.0);
+        engine.arm(position);
+        assertEquals(1, trades.currentSubscriberCount());
+
+        tick(89.0);
+
+        verify(exchangeService, timeout(2000)).exitShortPosition("BTCUSDT", 2.0);
+        assertEquals(0, trades.currentSubscriberCount());
+        assertNull(engine.lastPrice("BTCUSDT"));
+    }
+
+    @Test
+    void positionClosedByTheMonitorIsNotExitedAgain() {
+        PositionEntity position = position("p4", PositionEntity.Direction.LONG, 95.0, null);
+        when(positionRepository.closeIfOpen(eq("p4"), any(), anyDouble(), anyDouble(), any())).thenReturn(0);
+        engine.arm(position);
+
+        tick(94.0);
+
+        verify(positionRepository, timeout(2000)).closeIfOpen(eq("p4"), any(), anyDouble(), anyDouble(), any());
+        verify(exchangeService, after(300).never()).exitLongPosition(anyString(), anyDouble());
+        verify(eventPublisher, never()).publishRiskEvent(any());
+    }
+
+    @Test
+    void failedExitOrderReopensThePosition() {
+        PositionEntity position = position("p5", PositionEntity.Direction.LONG, 95.0, null);
+        when(exchangeService.exitLongPosition("BTCUSDT", 2.0)).thenThrow(new IllegalStateException("rejected"));
+
+        assertFalse(engine.closePosition(position, 94.0, Position.PositionStatus.STOPPED_OUT));
+
+        verify(positionRepository).reopen("p5", PositionEntity.Status.STOPPED_OUT);
+        assertEquals(PositionEntity.Status.OPEN, position.getStatus());
+    }
+
+    @Test
+    void reconcileDisarmsPositionsClosedElsewhere() {
+        PositionEntity position = position("p3", PositionEntity.Direction.LONG, 95.0, null);
+        engine.arm(position);
+
+        engine.reconcile(List.of());
+        tick(90.0);
+
+        verify(exchangeService, after(300).never()).exitLongPosition(anyString(), anyDouble());
+    }
+}
@@ -0,0 +1,101 @@
+package tradingbot.agent.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the price-indexed TriggerBook.
+ */
+class TriggerBookTest {
+
+    private final TriggerBook book = new TriggerBook();
+
+    @Test
+    void onlyCrossedLevelsFire() {
+        book.add("long-1", TriggerBook.Side.LONG, 95.0, 110.0, 0, 100.0);
+        book.add("long-2", TriggerBook.Side.LONG, 90.0, 120.0, 0, 100.0);
+        book.add("short-1", TriggerBook.Side.SHORT, 105.0, 92.0, 0, 100.0);
+
+        assertTrue(book.evaluate(100.0).isEmpty());
+
+        List<TriggerBook.Fired> fired = book.evaluate(94.0);
+
+        assertEquals(1, fired.size());
+        assertEquals("long-1", fired.get(0).positionId());
+        assertEquals(TriggerBook.Kind.STOP_LOSS, fired.get(0).kind());
+        assertFalse(book.contains("long-1"));
+        assertEquals(2, book.size());
+    }
+
+    @Test
+    void shortStopAndTakeProfitFireInOppositeDirections() {
+        book.add("short-1", TriggerBook.Side.SHORT, 105.0, 92.0, 0, 100.0);
+        book.add("short-2", TriggerBook.Side.SHORT, 108.0, 95.0, 0, 100.0);
+
+        List<TriggerBook.Fired> takeProfit = book.evaluate(94.0);
+        assertEquals(1, takeProfit.size());
+        assertEquals("short-2", takeProfit.get(0).positionId());
+        assertEquals(TriggerBook.Kind.TAKE_PROFIT, takeProfit.get(0).kind());
+
+        List<TriggerBook.Fired> stop = book.evaluate(106.0);
+        assertEquals(1, stop.size());
+        assertEquals("short-1", stop.get(0).positionId());
+        assertEquals(TriggerBook.Kind.STOP_LOSS, stop.get(0).kind());
+        assertTrue(book.isEmpty());
+    }
+
+    @Test
+    void trailingStopsRatchetOncePerBatchFromExtremes() {
+        book.add("long", TriggerBook.Side.LONG, null, null, 2.0, 100.0);
+        book.add("short", TriggerBook.Side.SHORT, null, null, 2.0, 100.0);
+        assertEquals(98.0, book.stopLevel("long"), 1e-9);
+        assertEquals(102.0, book.stopLevel("short"), 1e-9);
+
+        book.observe(101.0);
+        book.observe(105.0);
+        book.observe(99.0);
+        List<TriggerBook.Adjustment> adjustments = book.applyTrailing();
+
+        assertEquals(2, adjustments.size());
+        assertEquals(102.9, book.stopLevel("long"), 1e-9);
+        assertEquals(100.98, book.stopLevel("short"), 1e-9);
+
+        // A lower high does not loosen the long stop
+        book.observe(103.0);
+        assertTrue(book.applyTrailing().isEmpty());
+        assertEquals(102.9, book.stopLevel("long"), 1e-9);
+
+        List<TriggerBook.Fired> fired = book.evaluate(102.5);
+        assertEquals(2, fired.size());
+        assertTrue(fired.stream().allMatch(f -> f.kind() == TriggerBook.Kind.TRAILING_STOP));
+    }
+
+    @Test
+    void fixedStopKeptWhileTighterThanTrail() {
+        book.add("long", TriggerBook.Side.LONG, 99.0, null, 2.0, 100.0);
+        assertEquals(99.0, book.stopLevel("long"), 1e-9);
+
+        book.observe(100.5);
+        assertTrue(book.applyTrailing().isEmpty());
+        assertEquals(99.0, book.stopLevel("long"), 1e-9);
+
+        book.observe(102.0);
+        assertEquals(1, book.applyTrailing().size());
+        assertEquals(99.96, book.stopLevel("long"), 1e-9);
+    }
+
+    @Test
+    void removeDropsAllLevels() {
+        book.add("long", TriggerBook.Side.LONG, 95.0, 110.0, 1.0, 100.0);
+
+        assertTrue(book.remove("long"));
+
+        assertTrue(book.evaluate(50.0).isEmpty());
+        assertTrue(book.evaluate(500.0).isEmpty());
+        book.observe(200.0);
+        assertTrue(book.applyTrailing().isEmpty());
+    }
+}
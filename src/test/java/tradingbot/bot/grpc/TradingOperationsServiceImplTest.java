@@ -0,0 +1,282 @@
+package tradingbot.bot.grpc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import tradingbot.agent.infrastructure.persistence.PositionEntity;
+import tradingbot.agent.infrastructure.repository.PositionRepository;
+import tradingbot.bot.service.FuturesExchangeService;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.grpc.common.MarketData;
+import tradingbot.grpc.trading.GetTradeHistoryRequest;
+import tradingbot.grpc.trading.GetTradeHistoryResponse;
+import tradingbot.grpc.trading.StreamMarketDataRequest;
+import tradingbot.grpc.trading.TradingServiceGrpc;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+/**
+ * In-process gRPC tests for TradingOperationsServiceImpl: many subscribers multiplexed on one
+ * channel, shared upstream, conflation for slow consumers and upstream teardown.
+ */
+@DisplayName("TradingOperationsServiceImpl gRPC Tests")
+class TradingOperationsServiceImplTest {
+
+    private static final int SUBSCRIBERS = 2000;
+
+    private final ExchangeWebSocketClient webSocketClient = mock(ExchangeWebSocketClient.class);
+    private final FuturesExchangeService exchangeService = mock(FuturesExchangeService.class);
+    private final PositionRepository positionRepository = mock(PositionRepository.class);
+    private final Sinks.Many<StreamMarketDataEvent> trades = Sinks.many().multicast().directBestEffort();
+
+    private TradingOperationsServiceImpl service;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(webSocketClient.streamTrades("BTCUSDT")).thenReturn(trades.asFlux());
+        when(webSocketClient.streamBookTicker("BTCUSDT")).thenReturn(Flux.never());
+        service = new TradingOperationsServiceImpl(webSocketClient, exchangeService, positionRepository);
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Thousands of subscribers share one upstream and all see the latest tick")
+    void manySubscribersShareOneUpstream() {
+        TradingServiceGrpc.TradingServiceStub stub = TradingServiceGrpc.newStub(channel);
+        List<TickObserver> observers = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            TickObserver observer = new TickObserver(Integer.MAX_VALUE);
+            stub.streamMarketData(request(), observer);
+            observers.add(observer);
+        }
+        awaitTrue(() -> service.subscriberCount("BTCUSDT") == SUBSCRIBERS);
+
+        for (int i = 1; i <= 50; i++) {
+            emitTrade(i);
+        }
+
+        awaitTrue(() -> observers.stream().allMatch(o -> o.lastPrice() == 50.0));
+        verify(webSocketClient, times(1)).streamTrades("BTCUSDT");
+        assertEquals(1, service.activeFeeds());
+
+        observers.forEach(TickObserver::cancel);
+        awaitTrue(() -> service.activeFeeds() == 0);
+        assertEquals(0, trades.currentSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Slow consumer is conflated to the latest tick while fast consumers get every tick")
+    void slowConsumerIsConflated() {
+        TradingServiceGrpc.TradingServiceStub stub = TradingServiceGrpc.newStub(channel);
+        TickObserver slow = new TickObserver(0);
+        TickObserver fast = new TickObserver(Integer.MAX_VALUE);
+        stub.streamMarketData(request(), slow);
+        stub.streamMarketData(request(), fast);
+        awaitTrue(() -> service.subscriberCount("BTCUSDT") == 2);
+
+        for (int i = 1; i <= 1000; i++) {
+            emitTrade(i);
+        }
+
+        assertEquals(1000, fast.received.get());
+        assertEquals(0, slow.received.get());
+        // The slow stream held one pending tick at a time, never a backlog
+        assertEquals(999, service.conflatedTicks());
+
+        slow.request(1);
+        awaitTrue(() -> slow.received.get() == 1);
+        assertEquals(1000.0, slow.lastPrice());
+
+        slow.request(1);
+        assertEquals(1, slow.received.get(), "nothing new to deliver until the next tick");
+        emitTrade(1001);
+        awaitTrue(() -> slow.received.get() == 2);
+        assertEquals(1001.0, slow.lastPrice());
+    }
+
+    @Test
+    @DisplayName("An upstream error closes every subscriber and the next subscription reopens the feed")
+    void upstreamErrorIsPropagated() {
+        TradingServiceGrpc.TradingServiceStub stub = TradingServiceGrpc.newStub(channel);
+        TickObserver first = new TickObserver(Integer.MAX_VALUE);
+        TickObserver second = new TickObserver(Integer.MAX_VALUE);
+        stub.streamMarketData(request(), first);
+        stub.streamMarketData(request(), second);
+        awaitTrue(() -> service.subscriberCount("BTCUSDT") == 2);
+
+        emitTrade(100);
+        trades.tryEmitError(new IllegalStateException("socket closed"));
+
+        awaitTrue(() -> first.error.get() != null && second.error.get() != null);
+        assertEquals(Status.Code.UNAVAILABLE, Status.fromThrowable(first.error.get()).getCode());
+        assertEquals(Status.Code.UNAVAILABLE, Status.fromThrowable(second.error.get()).getCode());
+        assertEquals(100.0, first.lastPrice());
+        assertEquals(0, service.activeFeeds());
+
+        when(webSocketClient.streamTrades("BTCUSDT")).thenReturn(Flux.never());
+        TickObserver late = new TickObserver(Integer.MAX_VALUE);
+        stub.streamMarketData(request(), late);
+        awaitTrue(() -> service.subscriberCount("BTCUSDT") == 1);
+        verify(webSocketClient, times(2)).streamTrades("BTCUSDT");
+        assertNull(late.error.get());
+        late.cancel();
+    }
+
+    @Test
+    @DisplayName("Trade history pages by cursor and aggregates in the database")
+    void tradeHistoryIsCursorPaged() {
+        Instant closedAt = Instant.parse("2026-01-01T00:00:00Z");
+        List<PositionEntity> firstPage = List.of(
+                closedPosition("p4", closedAt.plusSeconds(4), 10.0),
+                closedPosition("p3", closedAt.plusSeconds(3), 10.0),
+                closedPosition("p2", closedAt.plusSeconds(2), 10.0));
+        when(positionRepository.findClosedFirstPage(eq("bot-1"), any(), any(), eq(PageRequest.of(0, 3))))
+                .thenReturn(firstPage);
+        when(positionRepository.findClosedPageBefore(eq("bot-1"), any(), any(), eq(closedAt.plusSeconds(3)),
+                eq("p3"), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(closedPosition("p2", closedAt.plusSeconds(2), 10.0)));
+        when(positionRepository.countClosed(eq("bot-1"), any(), any())).thenReturn(3L);
+        when(positionRepository.sumClosedRealizedPnl(eq("bot-1"), any(), any())).thenReturn(30.0);
+        TradingServiceGrpc.TradingServiceBlockingStub stub = TradingServiceGrpc.newBlockingStub(channel);
+
+        GetTradeHistoryResponse first = stub.getTradeHistory(GetTradeHistoryRequest.newBuilder()
+                .setBotId("bot-1").setPageSize(2).build());
+        GetTradeHistoryResponse second = stub.getTradeHistory(GetTradeHistoryRequest.newBuilder()
+                .setBotId("bot-1").setPageSize(2).setCursor(first.getNextCursor()).build());
+
+        assertEquals(3, first.getTotalCount());
+        assertEquals(30.0, first.getTotalPnl(), 1e-9);
+        assertEquals(List.of("p4", "p3"), first.getTradesList().stream().map(t -> t.getTradeId()).toList());
+        assertEquals(List.of("p2"), second.getTradesList().stream().map(t -> t.getTradeId()).toList());
+        assertTrue(second.getNextCursor().isEmpty());
+        verify(positionRepository, never()).findByAgentId(any(), any());
+    }
+
+    @Test
+    @DisplayName("Malformed trade history cursor is rejected")
+    void malformedCursorIsRejected() {
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class,
+                () -> TradingServiceGrpc.newBlockingStub(channel).getTradeHistory(GetTradeHistoryRequest.newBuilder()
+                        .setBotId("bot-1").setCursor("garbage").build()));
+        assertEquals(Status.Code.INVALID_ARGUMENT, e.getStatus().getCode());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static StreamMarketDataRequest request() {
+        return StreamMarketDataRequest.newBuilder().setSymbol("BTCUSDT").build();
+    }
+
+    private void emitTrade(double price) {
+        trades.tryEmitNext(new StreamMarketDataEvent("BINANCE", "BTCUSDT", StreamMarketDataEvent.EventType.TRADE,
+                BigDecimal.valueOf(price), BigDecimal.ONE, Instant.now(), null));
+    }
+
+    private static PositionEntity closedPosition(String id, Instant closedAt, double pnl) {
+        PositionEntity entity = new PositionEntity(id, "bot-1", "BTCUSDT", PositionEntity.Direction.LONG,
+                100.0, 1.0, null, null, "o-" + id, PositionEntity.Status.CLOSED, closedAt.minusSeconds(60));
+        entity.setClosedAt(closedAt);
+        entity.setExitPrice(110.0);
+        entity.setRealizedPnl(pnl);
+        return entity;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("condition not met within 10s");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Client observer with manual flow control; {@code initialRequest} of MAX_VALUE means auto. */
+    private static final class TickObserver implements ClientResponseObserver<StreamMarketDataRequest, MarketData> {
+
+        private final int initialRequest;
+        private final AtomicInteger received = new AtomicInteger();
+        private final AtomicReference<MarketData> last = new AtomicReference<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile ClientCallStreamObserver<StreamMarketDataRequest> call;
+
+        TickObserver(int initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<StreamMarketDataRequest> requestStream) {
+            this.call = requestStream;
+            if (initialRequest != Integer.MAX_VALUE) {
+                requestStream.disableAutoRequestWithInitial(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(MarketData value) {
+            last.set(value);
+            received.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // Cancellation surfaces here as CANCELLED
+            error.set(t);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+
+        void request(int count) {
+            call.request(count);
+        }
+
+        void cancel() {
+            call.cancel("test done", null);
+        }
+
+        double lastPrice() {
+            MarketData data = last.get();
+            return data != null ? data.getPrice() : Double.NaN;
+        }
+    }
+}
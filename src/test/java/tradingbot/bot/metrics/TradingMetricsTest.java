@@ -0,0 +1,87 @@
+package tradingbot.bot.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("TradingMetrics Tests")
+class TradingMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private TradingMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new TradingMetrics(registry);
+    }
+
+    @Test
+    @DisplayName("Counters are registered once per tag tuple and reused")
+    void countersAreCached() {
+        metrics.recordOrderEntered("BTCUSDT", "LONG");
+        metrics.recordOrderEntered("BTCUSDT", "LONG");
+        metrics.recordOrderEntered("BTCUSDT", "SHORT");
+        metrics.recordOrderExited("ETHUSDT", "LONG");
+        metrics.recordEventPublished("TradeSignalEvent");
+        metrics.recordEventPublished("TradeSignalEvent");
+
+        assertEquals(2.0, registry.get("trading.orders.entered")
+                .tags("symbol", "BTCUSDT", "direction", "LONG").counter().count());
+        assertEquals(1.0, registry.get("trading.orders.entered")
+                .tags("symbol", "BTCUSDT", "direction", "SHORT").counter().count());
+        assertEquals(1.0, registry.get("trading.orders.exited").counter().count());
+        assertEquals(2.0, registry.get("trading.events.published")
+                .tag("eventType", "TradeSignalEvent").counter().count());
+        assertSame(metrics.orderPlacementTimer("BTCUSDT", "LONG"), metrics.orderPlacementTimer("BTCUSDT", "LONG"));
+        assertSame(metrics.persistenceTimer("order.save"), metrics.persistenceTimer("order.save"));
+    }
+
+    @Test
+    @DisplayName("Latency timers expose SLO buckets")
+    void timersHaveSloBuckets() {
+        Timer tick = metrics.tickIngestTimer();
+        tick.record(20, TimeUnit.MICROSECONDS);
+        tick.record(2, TimeUnit.MILLISECONDS);
+
+        CountAtBucket[] buckets = tick.takeSnapshot().histogramCounts();
+        assertTrue(buckets.length >= 6);
+        assertEquals(0.0, countAt(buckets, 10_000));
+        assertEquals(1.0, countAt(buckets, 50_000));
+        assertEquals(2.0, countAt(buckets, 5_000_000));
+    }
+
+    @Test
+    @DisplayName("Bot gauges follow lifecycle transitions and the registered count source")
+    void gaugesFollowTransitions() {
+        assertEquals(0.0, registry.get("trading.bots.registered").gauge().value());
+        AtomicLong registered = new AtomicLong(2);
+        metrics.countRegisteredBotsWith(registered::get);
+        metrics.botRunningChanged(true);
+        metrics.botRunningChanged(true);
+        metrics.botRunningChanged(false);
+        registered.decrementAndGet();
+
+        assertEquals(1.0, registry.get("trading.bots.registered").gauge().value());
+        assertEquals(1.0, registry.get("trading.bots.running").gauge().value());
+    }
+
+    private static double countAt(CountAtBucket[] buckets, double nanos) {
+        for (CountAtBucket bucket : buckets) {
+            if (bucket.bucket(TimeUnit.NANOSECONDS) == nanos) {
+                return bucket.count();
+            }
+        }
+        fail("no bucket at " + nanos + "ns");
+        return -1;
+    }
+}
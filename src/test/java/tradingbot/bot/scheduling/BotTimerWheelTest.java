@@ -0,0 +1,103 @@
+package tradingbot.bot.scheduling;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("BotTimerWheel Tests")
+class BotTimerWheelTest {
+
+    private static final Duration TICK = Duration.ofMillis(10);
+
+    private final BotTimerWheel wheel = new BotTimerWheel("test-wheel", TICK, 8, Runnable::run);
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    @Test
+    @DisplayName("Tasks fire no earlier than their delay, including delays spanning several rotations")
+    void firesAfterDelay() throws InterruptedException {
+        int tasks = 1_000;
+        CountDownLatch done = new CountDownLatch(tasks);
+        AtomicInteger early = new AtomicInteger();
+        for (int i = 0; i < tasks; i++) {
+            // 0-490 ms: up to six rotations of an 8-slot, 10 ms wheel
+            long delayNanos = TimeUnit.MILLISECONDS.toNanos((i % 50) * 10L);
+            long scheduledAt = System.nanoTime();
+            wheel.schedule(() -> {
+                if (System.nanoTime() - scheduledAt < delayNanos) {
+                    early.incrementAndGet();
+                }
+                done.countDown();
+            }, Duration.ofNanos(delayNanos));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, early.get());
+        assertEquals(0, wheel.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Cancelled tasks never run")
+    void cancelledTasksDoNotRun() throws InterruptedException {
+        List<String> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch kept = new CountDownLatch(1);
+        BotTimerWheel.Timeout cancelled = wheel.schedule(() -> ran.add("cancelled"), Duration.ofMillis(30));
+        wheel.schedule(() -> {
+            ran.add("kept");
+            kept.countDown();
+        }, Duration.ofMillis(60));
+
+        assertTrue(cancelled.cancel());
+        assertTrue(cancelled.isCancelled());
+        assertTrue(kept.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("kept"), ran);
+    }
+
+    @Test
+    @DisplayName("A fired task can no longer be cancelled")
+    void firedTaskCannotBeCancelled() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        BotTimerWheel.Timeout timeout = wheel.schedule(fired::countDown, Duration.ZERO);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertFalse(timeout.cancel());
+        assertFalse(timeout.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Jitter stays within the ratio and initial delays spread over the interval")
+    void jitterIsBounded() {
+        Duration interval = Duration.ofMinutes(15);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 10_000; i++) {
+            long jittered = BotTimerWheel.jittered(interval, 0.1).toMillis();
+            assertTrue(jittered >= 810_000 && jittered <= 990_000, "out of range: " + jittered);
+            long initial = BotTimerWheel.initialDelay(interval).toMillis();
+            assertTrue(initial >= 0 && initial < 900_000);
+            min = Math.min(min, initial);
+            max = Math.max(max, initial);
+        }
+        assertTrue(min < 90_000 && max > 810_000, "initial delays not spread: " + min + ".." + max);
+    }
+
+    @Test
+    @DisplayName("Scheduling on a closed wheel fails")
+    void closedWheelRejectsTasks() {
+        wheel.close();
+
+        assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> { }, Duration.ZERO));
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import tradingbot.bot.service.BinanceFuturesService.Candle;
+import tradingbot.domain.market.OrderBook;
 
 class BacktestExchangeServiceTest {
 
@@ -61,6 +62,21 @@ class BacktestExchangeServiceTest {
         assertTrue(exchangeService.getMarginBalance() >= 4992.0 && exchangeService.getMarginBalance() <= 4998.0);
     }
 
+    @Test
+    void shouldPriceFillFromOrderBookWhenSet() {
+        OrderBook book = new OrderBook("BACKTEST", "BTCUSDT", 10);
+        book.applySnapshot(1, 0, new double[] {49990.0, 1.0}, new double[] {50010.0, 0.05, 50030.0, 1.0});
+        exchangeService.setOrderBook(book);
+        exchangeService.setMarketContext(history, 0);
+        exchangeService.enterLongPosition("BTCUSDT", 0.1);
+
+        exchangeService.processPendingOrders();
+
+        // Walks the asks: 0.05 @ 50010 + 0.05 @ 50030 = 50020 average
+        double margin = 0.1 * 50020.0;
+        assertEquals(10000.0 - margin - margin * 0.0004, exchangeService.getMarginBalance(), 1e-6);
+    }
+
     @Test
     void shouldExecuteShortOrderWithLatency() {
         exchangeService = new BacktestExchangeService(1000, 0.0, 0.0004); // 1000ms latency, 0.04% fee
@@ -0,0 +1,161 @@
+package tradingbot.bot.service.backtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import reactor.core.publisher.Mono;
+import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.TradingAgentFactory;
+import tradingbot.agent.domain.model.AgentDecision;
+import tradingbot.agent.domain.model.AgentDecision.Action;
+import tradingbot.bot.controller.exception.BotOperationException;
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+import tradingbot.bot.service.backtest.BacktestAgentExecutionService.TradeEvent;
+import tradingbot.bot.service.backtest.PortfolioBacktestService.PortfolioBacktestResult;
+import tradingbot.config.TradingConfig;
+import tradingbot.domain.market.KlineClosedEvent;
+
+class PortfolioBacktestServiceTest {
+
+    private static final String BTC = "BTCUSDT";
+    private static final String ETH = "ETHUSDT";
+
+    @Mock private TradingAgentFactory agentFactory;
+    @Mock private ReactiveTradingAgent btcAgent;
+    @Mock private ReactiveTradingAgent ethAgent;
+
+    private BacktestRunRegistry runRegistry;
+    private PortfolioBacktestService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        runRegistry = new BacktestRunRegistry();
+        service = new PortfolioBacktestService(new HistoricalDataLoader(), agentFactory,
+                new StandardBacktestMetricsCalculator(), runRegistry);
+        when(agentFactory.create(argThat(c -> c != null && BTC.equals(c.getSymbol())))).thenReturn(btcAgent);
+        when(agentFactory.create(argThat(c -> c != null && ETH.equals(c.getSymbol())))).thenReturn(ethAgent);
+        when(btcAgent.onKlineClosed(any())).thenReturn(Mono.just(decision(BTC, Action.HOLD)));
+        when(ethAgent.onKlineClosed(any())).thenReturn(Mono.just(decision(ETH, Action.HOLD)));
+    }
+
+    @Test
+    void shouldMergeSymbolsByCloseTimeIntoOnePortfolioCurve() {
+        // BTC closes every minute, ETH every two minutes
+        InputStream btcCsv = csv(60_000, 100, 101, 102, 103);
+        InputStream ethCsv = csv(120_000, 10, 12);
+        when(btcAgent.onKlineClosed(any())).thenReturn(
+                Mono.just(decision(BTC, Action.BUY)), Mono.just(decision(BTC, Action.HOLD)),
+                Mono.just(decision(BTC, Action.SELL)), Mono.just(decision(BTC, Action.HOLD)));
+        when(ethAgent.onKlineClosed(any())).thenReturn(
+                Mono.error(new IllegalStateException("LLM timeout")), Mono.just(decision(ETH, Action.SELL)));
+
+        PortfolioBacktestResult result = service.runPortfolioBacktest(List.of(btcCsv, ethCsv),
+                List.of(config(BTC, 1.0, 5), config(ETH, 10.0, 2)), 10_000.0, 0, 0.0, 0.0);
+
+        List<EquityCurvePoint> curve = result.metrics().equityCurve();
+        assertEquals(List.of(60_000L, 120_000L, 180_000L, 240_000L),
+                curve.stream().map(p -> p.timestamp().toEpochMilli()).toList());
+        assertTrue(curve.stream().allMatch(p -> PortfolioBacktestService.PORTFOLIO_SYMBOL.equals(p.symbol())));
+        assertEquals(List.of("BUY", "HOLD", "SELL", "SELL"), curve.stream().map(EquityCurvePoint::action).toList());
+
+        // BTC: long at 101 (open of bar 2), closed at 103 (open of bar 4); ETH: short placed at bar 4, unfilled
+        List<TradeEvent> trades = result.metrics().trades();
+        assertEquals(2, trades.size());
+        assertEquals(new TradeEvent(1, BTC, "BUY", 101.0, 1.0, 0.0, "test"), trades.get(0));
+        assertEquals(new TradeEvent(3, BTC, "SELL", 103.0, 1.0, 2.0, "test"), trades.get(1));
+        assertEquals(10_002.0, result.metrics().finalBalance(), 1e-9);
+
+        assertEquals(4, result.symbols().get(BTC).bars());
+        assertEquals(2, result.symbols().get(ETH).bars());
+        assertEquals(5, result.symbols().get(BTC).leverage());
+        assertEquals(2.0, result.symbols().get(BTC).realizedPnl(), 1e-9);
+        assertEquals(0, result.liquidations());
+        assertTrue(runRegistry.find(result.metrics().runId()).isPresent());
+        verify(btcAgent).stop();
+        verify(ethAgent).stop();
+    }
+
+    @Test
+    void shouldPassEachAgentOnlyItsOwnSymbol() {
+        service.runPortfolioBacktest(List.of(csv(60_000, 100, 101), csv(60_000, 10, 11)),
+                List.of(config(BTC, 1.0, 1), config(ETH, 1.0, 1)), 10_000.0, 0, 0.0, 0.0);
+
+        verify(btcAgent, times(2)).onKlineClosed(argThat((KlineClosedEvent e) -> BTC.equals(e.symbol())));
+        verify(ethAgent, times(2)).onKlineClosed(argThat((KlineClosedEvent e) -> ETH.equals(e.symbol())));
+    }
+
+    @Test
+    void shouldRejectOutOfOrderCandlesAndStopAgents() {
+        Candle later = candle(120_000, 100);
+        Candle earlier = candle(60_000, 100);
+        List<CandleSource> sources = List.of(
+                CandleSource.of(BTC, List.of(later, earlier)), CandleSource.of(ETH, List.of(candle(60_000, 10))));
+
+        assertThrows(BotOperationException.class, () -> service.run(sources,
+                List.of(config(BTC, 1.0, 1), config(ETH, 1.0, 1)), 10_000.0,
+                new PortfolioExchangeService(10_000.0, 0, 0.0, 0.0)));
+        verify(btcAgent).stop();
+        verify(ethAgent).stop();
+    }
+
+    @Test
+    void shouldRejectMismatchedFilesAndConfigs() {
+        assertThrows(IllegalArgumentException.class, () -> service.runPortfolioBacktest(
+                List.of(csv(60_000, 100)), List.of(config(BTC, 1.0, 1), config(ETH, 1.0, 1)),
+                10_000.0, 0, 0.0, 0.0));
+        verifyNoInteractions(agentFactory);
+    }
+
+    // ── helpers ────────────────────────────────────────────────────────────────
+
+    /** A CSV with one flat candle per price, {@code interval} ms apart. */
+    private static InputStream csv(long interval, double... prices) {
+        StringBuilder csv = new StringBuilder("openTime,open,high,low,close,volume,closeTime\n");
+        for (int i = 0; i < prices.length; i++) {
+            long closeTime = (i + 1) * interval;
+            csv.append(closeTime - interval).append(',')
+               .append(prices[i]).append(',').append(prices[i]).append(',')
+               .append(prices[i]).append(',').append(prices[i]).append(",1,")
+               .append(closeTime).append('\n');
+        }
+        return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Candle candle(long closeTime, double price) {
+        Candle c = new Candle();
+        c.setOpenTime(closeTime - 60_000);
+        c.setCloseTime(closeTime);
+        c.setOpen(BigDecimal.valueOf(price));
+        c.setHigh(BigDecimal.valueOf(price));
+        c.setLow(BigDecimal.valueOf(price));
+        c.setClose(BigDecimal.valueOf(price));
+        c.setVolume(BigDecimal.ONE);
+        return c;
+    }
+
+    private static AgentDecision decision(String symbol, Action action) {
+        return AgentDecision.of("agent-" + symbol, symbol, action, 80, "test");
+    }
+
+    private static TradingConfig config(String symbol, double tradeAmount, int leverage) {
+        TradingConfig config = new TradingConfig();
+        config.setSymbol(symbol);
+        config.setTradeAmount(tradeAmount);
+        config.setLeverage(leverage);
+        config.setInterval(1);
+        return config;
+    }
+}
@@ -0,0 +1,155 @@
+package tradingbot.bot.service.backtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+import tradingbot.bot.service.backtest.PortfolioExchangeService.Fill;
+
+class PortfolioExchangeServiceTest {
+
+    private static final String BTC = "BTCUSDT";
+    private static final String ETH = "ETHUSDT";
+
+    private PortfolioExchangeService exchange;
+
+    @BeforeEach
+    void setUp() {
+        // 1000 wallet, no latency, no slippage, no fee, 0.4% maintenance margin
+        exchange = new PortfolioExchangeService(1000.0, 0, 0.0, 0.0, 1,
+                PortfolioExchangeService.DEFAULT_MAINTENANCE_MARGIN_RATE, 100);
+    }
+
+    @Test
+    void shouldShareMarginAcrossSymbolsWithPerSymbolLeverage() {
+        exchange.setLeverage(BTC, 10);
+        exchange.setLeverage(ETH, 2);
+        exchange.onCandle(BTC, candle(1, 100, 100, 100, 100));
+        exchange.onCandle(ETH, candle(1, 100, 100, 100, 100));
+        exchange.enterLongPosition(BTC, 50);   // 5000 notional / 10x = 500 margin
+        exchange.enterLongPosition(ETH, 5);    //  500 notional /  2x = 250 margin
+
+        exchange.onCandle(BTC, candle(2, 100, 100, 100, 100));
+        exchange.onCandle(ETH, candle(2, 100, 100, 100, 100));
+        assertEquals(250.0, exchange.getMarginBalance(), 1e-6);
+
+        // 10 more ETH needs 500 margin: only 250 is left on the shared wallet
+        exchange.enterLongPosition(ETH, 10);
+        exchange.onCandle(BTC, candle(3, 100, 100, 100, 100));
+        exchange.onCandle(ETH, candle(3, 100, 100, 100, 100));
+        assertEquals(5.0, exchange.getPositionQuantity(ETH), 1e-6);
+
+        // BTC's unrealized gain frees margin for the ETH entry
+        exchange.onCandle(BTC, candle(4, 100, 110, 100, 110));
+        exchange.enterLongPosition(ETH, 10);
+        exchange.onCandle(ETH, candle(5, 100, 100, 100, 100));
+
+        assertEquals(15.0, exchange.getPositionQuantity(ETH), 1e-6);
+        assertEquals(1500.0, exchange.getEquity(), 1e-6);
+        assertEquals(1500.0 - 500.0 - 750.0, exchange.getMarginBalance(), 1e-6);
+    }
+
+    @Test
+    void shouldLiquidateAllPositionsTogetherWhenCrossEquityHitsMaintenance() {
+        exchange.setLeverage(BTC, 10);
+        exchange.setLeverage(ETH, 10);
+        exchange.onCandle(BTC, candle(1, 100, 100, 100, 100));
+        exchange.onCandle(ETH, candle(1, 100, 100, 100, 100));
+        exchange.enterLongPosition(BTC, 50);
+        exchange.enterShortPosition(ETH, 20);
+        exchange.onCandle(BTC, candle(2, 100, 100, 100, 100));
+        exchange.onCandle(ETH, candle(2, 100, 100, 100, 100));
+        assertEquals(2, exchange.drainFills().size());
+
+        // ETH rallies: -740 unrealized, but equity (260) stays above maintenance
+        exchange.onCandle(ETH, candle(3, 100, 137, 100, 137));
+        assertEquals("SHORT", exchange.getPositionSide(ETH));
+
+        // A 5% BTC dip (-250) would be harmless on its own; with ETH's loss it wipes the account
+        exchange.onCandle(BTC, candle(3, 100, 100, 95, 98));
+
+        assertNull(exchange.getPositionSide(BTC));
+        assertNull(exchange.getPositionSide(ETH));
+        assertEquals(1, exchange.getLiquidationCount());
+        // BTC is closed where equity meets maintenance on the way down, not at the bar's low
+        double ethMaintenance = 20 * 137 * 0.004;
+        double btcPrice = (ethMaintenance - 1000 + 740 + 50 * 100) / (50 * (1 - 0.004));
+        assertEquals(95.4008, btcPrice, 1e-4);
+        List<Fill> fills = exchange.drainFills();
+        assertEquals(2, fills.size());
+        assertEquals(BTC, fills.get(0).symbol());
+        assertEquals(btcPrice, fills.get(0).price(), 1e-9);
+        assertEquals(50 * (btcPrice - 100), fills.get(0).realizedPnl(), 1e-9);
+        assertTrue(fills.get(0).liquidation());
+        assertEquals(new Fill(3, ETH, "BUY", 137.0, 20.0, -740.0, true), fills.get(1));
+        double maintenance = ethMaintenance + 50 * btcPrice * 0.004;
+        assertEquals(maintenance, exchange.getWalletBalance(), 1e-6);
+        assertEquals(maintenance, exchange.getEquity(), 1e-6);
+    }
+
+    @Test
+    void shouldFillPendingExitsAtTheOpenBeforeCheckingLiquidation() {
+        exchange.setLeverage(BTC, 10);
+        exchange.setLeverage(ETH, 10);
+        exchange.onCandle(BTC, candle(1, 100, 100, 100, 100));
+        exchange.onCandle(ETH, candle(1, 100, 100, 100, 100));
+        exchange.enterLongPosition(BTC, 50);
+        exchange.enterShortPosition(ETH, 20);
+        exchange.onCandle(BTC, candle(2, 100, 100, 100, 100));
+        exchange.onCandle(ETH, candle(2, 100, 100, 100, 100));
+        exchange.onCandle(ETH, candle(3, 100, 137, 100, 137));
+        exchange.drainFills();
+
+        // The exit fills at the open, so the later dip to 95 no longer touches the account
+        exchange.exitLongPosition(BTC, 50);
+        exchange.onCandle(BTC, candle(3, 100, 100, 95, 98));
+
+        assertEquals(0, exchange.getLiquidationCount());
+        assertNull(exchange.getPositionSide(BTC));
+        assertEquals("SHORT", exchange.getPositionSide(ETH));
+        assertEquals(List.of(new Fill(3, BTC, "SELL", 100.0, 50.0, 0.0, false)), exchange.drainFills());
+        assertEquals(260.0, exchange.getEquity(), 1e-6);
+    }
+
+    @Test
+    void shouldFillAtNextOpenWithSlippageAndKeepABoundedWindow() {
+        exchange = new PortfolioExchangeService(10_000.0, 0, 0.001, 0.0004, 1,
+                PortfolioExchangeService.DEFAULT_MAINTENANCE_MARGIN_RATE, 3);
+        for (int i = 0; i < 4; i++) {
+            exchange.onCandle(BTC, candle(i, 100 + i, 100 + i, 100 + i, 100 + i));
+        }
+        exchange.enterLongPosition(BTC, 1.0);
+        assertTrue(exchange.hasPendingOrder(BTC));
+
+        exchange.onCandle(BTC, candle(4, 104, 104, 104, 104));
+
+        double fillPrice = 104 * 1.001;
+        double fee = fillPrice * 0.0004;
+        assertFalse(exchange.hasPendingOrder(BTC));
+        assertEquals(List.of(new Fill(4, BTC, "BUY", fillPrice, 1.0, 0.0, false)), exchange.drainFills());
+        assertEquals(10_000.0 - fee, exchange.getWalletBalance(), 1e-9);
+        assertEquals(10_000.0 - fee + (104 - fillPrice), exchange.getEquity(), 1e-9);
+        assertEquals(List.of(102L, 103L, 104L), exchange.fetchOhlcv(BTC, "1m", 10).stream()
+                .map(c -> c.getClose().longValue()).toList());
+        assertEquals(104.0, exchange.getCurrentPrice(BTC));
+    }
+
+    // ── helpers ────────────────────────────────────────────────────────────────
+
+    private static Candle candle(long closeTime, double open, double high, double low, double close) {
+        Candle c = new Candle();
+        c.setOpenTime(closeTime - 1);
+        c.setCloseTime(closeTime);
+        c.setOpen(BigDecimal.valueOf(open));
+        c.setHigh(BigDecimal.valueOf(high));
+        c.setLow(BigDecimal.valueOf(low));
+        c.setClose(BigDecimal.valueOf(close));
+        c.setVolume(BigDecimal.ONE);
+        return c;
+    }
+}
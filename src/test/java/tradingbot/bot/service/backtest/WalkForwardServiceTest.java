@@ -0,0 +1,150 @@
+package tradingbot.bot.service.backtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import reactor.core.publisher.Mono;
+import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.TradingAgentFactory;
+import tradingbot.agent.domain.model.AgentDecision;
+import tradingbot.agent.domain.model.AgentDecision.Action;
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+import tradingbot.bot.service.backtest.BacktestAgentExecutionService.TradeEvent;
+import tradingbot.bot.service.backtest.WalkForwardReport.WindowResult;
+import tradingbot.config.TradingConfig;
+import tradingbot.domain.market.KlineClosedEvent;
+
+class WalkForwardServiceTest {
+
+    private static final String BTC = "BTCUSDT";
+    private static final Map<String, List<Double>> GRID = Map.of("lookbackPeriodRsi", List.of(10.0, 20.0));
+
+    @Mock private TradingAgentFactory agentFactory;
+    @Mock private ReactiveTradingAgent idleAgent;
+    @Mock private ReactiveTradingAgent swingAgent;
+
+    private BacktestRunRegistry runRegistry;
+    private WalkForwardService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        runRegistry = new BacktestRunRegistry();
+        service = newService(16);
+        // Candidate 0 (RSI 10) never trades; candidate 1 (RSI 20) buys on every 4th bar and sells on the next
+        when(agentFactory.create(argThat(c -> c != null && c.getLookbackPeriodRsi() == 10))).thenReturn(idleAgent);
+        when(agentFactory.create(argThat(c -> c != null && c.getLookbackPeriodRsi() == 20))).thenReturn(swingAgent);
+        when(idleAgent.onKlineClosed(any())).thenReturn(Mono.just(decision(Action.HOLD)));
+        when(swingAgent.onKlineClosed(any())).thenAnswer(inv -> {
+            int bar = barIndex(inv.getArgument(0));
+            return Mono.just(decision(bar % 4 == 0 ? Action.BUY : bar % 4 == 1 ? Action.SELL : Action.HOLD));
+        });
+    }
+
+    @Test
+    void shouldPickTheBestCandidatePerWindowAndStitchOutOfSampleRanges() {
+        WalkForwardReport report = service.run(rising(12), config(), GRID, settings(4, 4, WalkForwardWindow.Mode.ROLLING));
+
+        assertEquals(2, report.candidates());
+        assertEquals(2, report.windows().size());
+        for (WindowResult window : report.windows()) {
+            assertEquals(Map.of("lookbackPeriodRsi", 20.0), window.parameters());
+            assertEquals(10.0, window.inSampleProfit(), 1.0);
+            assertEquals(10.0, window.outOfSampleProfit(), 1.0);
+        }
+        assertEquals(240_000L, report.windows().get(0).outOfSampleStart().toEpochMilli());
+        assertEquals(480_000L, report.windows().get(0).outOfSampleEnd().toEpochMilli());
+
+        // One curve over bars 4..11, the second window continuing from the first one's balance
+        assertEquals(List.of(4, 5, 6, 7, 8, 9, 10, 11),
+                report.outOfSample().equityCurve().stream().map(EquityCurvePoint::barIndex).toList());
+        assertEquals(List.of(4, 5, 8, 9), report.outOfSample().trades().stream().map(TradeEvent::barIndex).toList());
+        assertEquals(10_020.0, report.outOfSample().finalBalance(), 1.0);
+        // Stitching is additive: the stitched profit is the sum of the windows' own profits
+        assertEquals(report.outOfSample().finalBalance() - 10_000.0,
+                report.windows().stream().mapToDouble(WindowResult::outOfSampleProfit).sum(), 0.01);
+        assertEquals(1.0, report.walkForwardEfficiency(), 0.05);
+        assertEquals(Map.of("lookbackPeriodRsi", 1.0), report.parameterStability());
+        assertTrue(runRegistry.find(report.outOfSample().runId()).isPresent());
+    }
+
+    @Test
+    void shouldEvaluateEachCandidateOnceAcrossOverlappingWindows() {
+        WalkForwardReport report = service.run(rising(12), config(), GRID, settings(4, 2, WalkForwardWindow.Mode.ANCHORED));
+
+        assertEquals(4, report.windows().size());
+        verify(agentFactory, times(2)).create(any());
+        verify(idleAgent, times(12)).onKlineClosed(any(KlineClosedEvent.class));
+        verify(swingAgent, times(12)).onKlineClosed(any(KlineClosedEvent.class));
+        verify(idleAgent).stop();
+        verify(swingAgent).stop();
+    }
+
+    @Test
+    void shouldRejectGridsAboveTheCandidateLimit() {
+        service = newService(2);
+
+        assertThrows(IllegalArgumentException.class, () -> service.run(rising(12), config(),
+                Map.of("lookbackPeriodRsi", List.of(10.0, 14.0, 20.0)), settings(4, 4, WalkForwardWindow.Mode.ROLLING)));
+        verifyNoInteractions(agentFactory);
+    }
+
+    // ── helpers ────────────────────────────────────────────────────────────────
+
+    private WalkForwardService newService(int maxCandidates) {
+        return new WalkForwardService(new HistoricalDataLoader(), agentFactory,
+                new CsvBacktestAgentExecutionService(), new StandardBacktestMetricsCalculator(),
+                runRegistry, 2, maxCandidates);
+    }
+
+    private static WalkForwardService.Settings settings(int inSample, int outOfSample, WalkForwardWindow.Mode mode) {
+        return new WalkForwardService.Settings(inSample, outOfSample, mode,
+                WalkForwardService.Objective.TOTAL_PROFIT, 0, 0.0, 0.0);
+    }
+
+    /** One-minute flat candles rising by 10 per bar from 100. */
+    private static List<Candle> rising(int bars) {
+        List<Candle> history = new ArrayList<>(bars);
+        for (int i = 0; i < bars; i++) {
+            BigDecimal price = BigDecimal.valueOf(100 + 10 * i);
+            Candle c = new Candle();
+            c.setOpenTime(i * 60_000L);
+            c.setCloseTime((i + 1) * 60_000L);
+            c.setOpen(price);
+            c.setHigh(price);
+            c.setLow(price);
+            c.setClose(price);
+            c.setVolume(BigDecimal.ONE);
+            history.add(c);
+        }
+        return history;
+    }
+
+    private static int barIndex(KlineClosedEvent event) {
+        return (int) (event.closeTime().toEpochMilli() / 60_000) - 1;
+    }
+
+    private static AgentDecision decision(Action action) {
+        return AgentDecision.of("agent-" + BTC, BTC, action, 80, "test");
+    }
+
+    private static TradingConfig config() {
+        TradingConfig config = new TradingConfig();
+        config.setSymbol(BTC);
+        config.setTradeAmount(1.0);
+        config.setLeverage(1);
+        config.setInterval(1);
+        return config;
+    }
+}
@@ -0,0 +1,57 @@
+package tradingbot.bot.service.backtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import tradingbot.bot.service.backtest.ParameterGrid.Candidate;
+import tradingbot.bot.service.backtest.WalkForwardWindow.Mode;
+import tradingbot.config.TradingConfig;
+
+class WalkForwardWindowTest {
+
+    @Test
+    void shouldRollTheInSampleRangeAndDropAPartialTrailingWindow() {
+        List<WalkForwardWindow> windows = WalkForwardWindow.split(23, 10, 5, Mode.ROLLING);
+
+        assertEquals(List.of(
+                new WalkForwardWindow(0, 0, 10, 10, 15),
+                new WalkForwardWindow(1, 5, 15, 15, 20)), windows);
+    }
+
+    @Test
+    void shouldAnchorTheInSampleRangeAtTheFirstBar() {
+        List<WalkForwardWindow> windows = WalkForwardWindow.split(20, 10, 5, Mode.ANCHORED);
+
+        assertEquals(List.of(
+                new WalkForwardWindow(0, 0, 10, 10, 15),
+                new WalkForwardWindow(1, 0, 15, 15, 20)), windows);
+        assertEquals(15, windows.get(1).inSampleBars());
+        assertEquals(5, windows.get(1).outOfSampleBars());
+    }
+
+    @Test
+    void shouldRejectHistoriesShorterThanOneWindow() {
+        assertThrows(IllegalArgumentException.class, () -> WalkForwardWindow.split(14, 10, 5, Mode.ROLLING));
+        assertThrows(IllegalArgumentException.class, () -> WalkForwardWindow.split(100, 10, 0, Mode.ROLLING));
+    }
+
+    @Test
+    void shouldExpandTheGridAndSkipInvalidMacdCombinations() {
+        TradingConfig base = new TradingConfig();
+        base.setSymbol("BTCUSDT");
+
+        List<Candidate> candidates = ParameterGrid.expand(base, Map.of(
+                "macdFastPeriod", List.of(12.0, 26.0),
+                "macdSlowPeriod", List.of(26.0)));
+
+        assertEquals(1, candidates.size());
+        assertEquals(12, candidates.get(0).config().getMacdFastPeriod());
+        assertEquals(26, candidates.get(0).config().getMacdSlowPeriod());
+        assertThrows(IllegalArgumentException.class,
+                () -> ParameterGrid.expand(base, Map.of("leverage", List.of(5.0))));
+    }
+}
@@ -0,0 +1,184 @@
+package tradingbot.bot.service.replay;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("KafkaReplaySource Tests")
+class KafkaReplaySourceTest {
+
+    private static final Pattern TOPICS = Pattern.compile("trading[.]market-data|kline-closed[.].*");
+    private static final long T0 = 1_700_000_000_000L;
+
+    private RecordingConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new RecordingConsumer();
+        consumer.topic("trading.market-data", 2);
+        consumer.topic("kline-closed.BTCUSDT", 1);
+        consumer.topic("trading.notifications", 1);
+    }
+
+    @Test
+    @DisplayName("Partitions are merged into one timestamp-ordered stream")
+    void mergesPartitionsByTimestamp() {
+        consumer.record("trading.market-data", 0, T0 + 10, "a");
+        consumer.record("trading.market-data", 0, T0 + 40, "d");
+        consumer.record("trading.market-data", 1, T0 + 20, "b");
+        consumer.record("trading.market-data", 1, T0 + 50, "e");
+        consumer.record("kline-closed.BTCUSDT", 0, T0 + 30, "c");
+        consumer.record("trading.notifications", 0, T0 + 25, "ignored");
+
+        List<String> values = drain(source(T0, T0 + 1_000));
+
+        assertEquals(List.of("a", "b", "c", "d", "e"), values);
+    }
+
+    @Test
+    @DisplayName("Only records inside [from, to) are replayed")
+    void honoursWindow() {
+        for (int i = 0; i < 10; i++) {
+            consumer.record("trading.market-data", i % 2, T0 + i * 100L, "v" + i);
+        }
+
+        List<String> values = drain(source(T0 + 200, T0 + 700));
+
+        assertEquals(List.of("v2", "v3", "v4", "v5", "v6"), values);
+    }
+
+    @Test
+    @DisplayName("Equal timestamps are ordered by topic, partition and offset")
+    void breaksTiesDeterministically() {
+        consumer.record("trading.market-data", 1, T0, "md-1");
+        consumer.record("trading.market-data", 0, T0, "md-0");
+        consumer.record("kline-closed.BTCUSDT", 0, T0, "kline");
+
+        List<String> values = drain(source(T0, T0 + 1));
+
+        assertEquals(List.of("kline", "md-0", "md-1"), values);
+    }
+
+    @Test
+    @DisplayName("Paused partitions still replay fully in order")
+    void smallBuffersStillMerge() {
+        for (int i = 0; i < 50; i++) {
+            consumer.record("trading.market-data", 0, T0 + 2L * i, "p0-" + i);
+            consumer.record("trading.market-data", 1, T0 + 2L * i + 1, "p1-" + i);
+        }
+
+        KafkaReplaySource source = new KafkaReplaySource(consumer, TOPICS,
+                Instant.ofEpochMilli(T0), Instant.ofEpochMilli(T0 + 1_000), Duration.ZERO, 3, 2);
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event = source.next(); event != null; event = source.next()) {
+            events.add(event);
+        }
+
+        assertEquals(100, events.size());
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.get(i - 1).timestamp() < events.get(i).timestamp());
+        }
+    }
+
+    @Test
+    @DisplayName("An empty window yields nothing")
+    void emptyWindow() {
+        consumer.record("trading.market-data", 0, T0, "a");
+
+        assertTrue(drain(source(T0 + 1, T0 + 2)).isEmpty());
+    }
+
+    private KafkaReplaySource source(long from, long to) {
+        return new KafkaReplaySource(consumer, TOPICS, Instant.ofEpochMilli(from), Instant.ofEpochMilli(to),
+                Duration.ZERO, 3, 1_000);
+    }
+
+    private static List<String> drain(ReplaySource source) {
+        List<String> values = new ArrayList<>();
+        for (RecordedEvent event = source.next(); event != null; event = source.next()) {
+            values.add(event.value());
+        }
+        source.close();
+        return values;
+    }
+
+    /**
+     * MockConsumer holding a fixed log per partition: records are handed to the mock once the
+     * partitions are assigned, and offsetsForTimes is answered from the log.
+     */
+    private static final class RecordingConsumer extends MockConsumer<String, String> {
+        private final Map<TopicPartition, List<ConsumerRecord<String, String>>> log = new HashMap<>();
+
+        RecordingConsumer() {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        void topic(String topic, int partitions) {
+            List<PartitionInfo> infos = new ArrayList<>();
+            Map<TopicPartition, Long> offsets = new HashMap<>();
+            for (int p = 0; p < partitions; p++) {
+                infos.add(new PartitionInfo(topic, p, Node.noNode(), new Node[0], new Node[0]));
+                log.put(new TopicPartition(topic, p), new ArrayList<>());
+                offsets.put(new TopicPartition(topic, p), 0L);
+            }
+            updatePartitions(topic, infos);
+            updateBeginningOffsets(offsets);
+            updateEndOffsets(offsets);
+        }
+
+        void record(String topic, int partition, long timestamp, String value) {
+            TopicPartition tp = new TopicPartition(topic, partition);
+            List<ConsumerRecord<String, String>> records = log.get(tp);
+            records.add(new ConsumerRecord<>(topic, partition, records.size(), timestamp,
+                    TimestampType.CREATE_TIME, 0, value.length(),
+                    null, value, new RecordHeaders(),
+                    Optional.empty()));
+            updateEndOffsets(Map.of(tp, (long) records.size()));
+        }
+
+        @Override
+        public synchronized void assign(Collection<TopicPartition> partitions) {
+            super.assign(partitions);
+            for (TopicPartition tp : partitions) {
+                log.get(tp).forEach(this::addRecord);
+            }
+        }
+
+        @Override
+        public synchronized Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes(
+                Map<TopicPartition, Long> timestampsToSearch) {
+            Map<TopicPartition, OffsetAndTimestamp> result = new HashMap<>();
+            timestampsToSearch.forEach((tp, timestamp) -> {
+                for (ConsumerRecord<String, String> record : log.get(tp)) {
+                    if (record.timestamp() >= timestamp) {
+                        result.put(tp, new OffsetAndTimestamp(record.offset(), record.timestamp()));
+                        return;
+                    }
+                }
+                result.put(tp, null);
+            });
+            return result;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package tradingbot.bot.service.replay;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.TradingAgentFactory;
+import tradingbot.agent.domain.model.AgentDecision;
+import tradingbot.agent.domain.model.AgentDecision.Action;
+import tradingbot.agent.domain.model.AgentStatus;
+import tradingbot.agent.infrastructure.repository.AgentEntity;
+import tradingbot.agent.infrastructure.repository.JpaAgentRepository;
+import tradingbot.bot.events.TradeSignalEvent;
+import tradingbot.bot.service.replay.ReplayReport.DecisionDiff;
+import tradingbot.bot.service.simulator.SimulatedFuturesExchangeService;
+import tradingbot.config.TradingConfig;
+import tradingbot.domain.market.KlineClosedEvent;
+
+@DisplayName("ReplayEngine Tests")
+class ReplayEngineTest {
+
+    private static final String SYMBOL = "BTCUSDT";
+    private static final long T0 = 1_700_000_000_000L;
+    private static final long MINUTE = 60_000L;
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock private TradingAgentFactory agentFactory;
+    @Mock private ReactiveTradingAgent agent;
+    @Mock private ReactiveTradingAgent botAgent;
+    @Mock private JpaAgentRepository agentRepository;
+
+    private ReplayEngine engine;
+    private final List<RecordedEvent> events = new ArrayList<>();
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(agentFactory.create(any())).thenReturn(agent);
+        when(agent.getId()).thenReturn("replay-agent");
+        when(agent.getStatus()).thenReturn(AgentStatus.ACTIVE);
+        engine = new ReplayEngine(agentFactory,
+                () -> new SimulatedFuturesExchangeService(10_000, 0.01, 0, 0, 0.005, 2, 1_000_000, 0, 0),
+                agentRepository);
+    }
+
+    @Test
+    @DisplayName("Reproduced decisions match and divergent ones are reported")
+    void diffsDecisions() {
+        tick(T0 + 10, 100.0);
+        kline(T0 + MINUTE, 100.0);
+        signal(T0 + MINUTE + 5, "LONG", T0 + MINUTE);
+        kline(T0 + 2 * MINUTE, 101.0);
+        kline(T0 + 3 * MINUTE, 102.0);
+        signal(T0 + 3 * MINUTE + 5, "SHORT", T0 + 3 * MINUTE);
+        when(agent.onKlineClosed(any())).thenReturn(
+                decision(Action.BUY), decision(Action.SELL), decision(Action.HOLD));
+
+        ReplayReport report = engine.replay(source(), new TradingConfig(), 0);
+
+        assertEquals(6, report.events());
+        assertEquals(1, report.marketEvents());
+        assertEquals(3, report.klines());
+        assertEquals(2, report.recordedSignals());
+        assertEquals(1, report.matched());
+        assertEquals(2, report.fills());
+        assertFalse(report.identical());
+
+        List<DecisionDiff> diffs = report.diffs();
+        assertEquals(2, diffs.size());
+        assertEquals(Instant.ofEpochMilli(T0 + 2 * MINUTE), diffs.get(0).closeTime());
+        assertEquals(Action.HOLD, diffs.get(0).recorded());
+        assertEquals(Action.SELL, diffs.get(0).replayed());
+        assertEquals(Action.SELL, diffs.get(1).recorded());
+        assertEquals(Action.HOLD, diffs.get(1).replayed());
+        assertEquals("agent-1", diffs.get(1).recordedAgentId());
+    }
+
+    @Test
+    @DisplayName("Signals without candle metadata belong to the latest candle of their symbol")
+    void attributesLegacySignalsToLatestCandle() {
+        kline(T0 + MINUTE, 100.0);
+        signal(T0 + MINUTE + 5, "LONG", null);
+        when(agent.onKlineClosed(any())).thenReturn(decision(Action.BUY));
+
+        ReplayReport report = engine.replay(source(), new TradingConfig(), 0);
+
+        assertTrue(report.identical());
+        assertEquals(1, report.matched());
+    }
+
+    @Test
+    @DisplayName("Signals from several recorded agents on one candle are diffed per agent")
+    void diffsPerRecordedAgent() {
+        kline(T0 + MINUTE, 100.0);
+        signal(T0 + MINUTE + 5, "agent-1", "LONG", T0 + MINUTE);
+        signal(T0 + MINUTE + 6, "agent-2", "SHORT", T0 + MINUTE);
+        kline(T0 + 2 * MINUTE, 101.0);
+        when(agent.onKlineClosed(any())).thenReturn(decision(Action.BUY), decision(Action.HOLD));
+
+        ReplayReport report = engine.replay(source(), new TradingConfig(), 0);
+
+        assertEquals(2, report.recordedSignals());
+        assertEquals(3, report.matched());
+        List<DecisionDiff> diffs = report.diffs();
+        assertEquals(1, diffs.size());
+        assertEquals("agent-2", diffs.get(0).recordedAgentId());
+        assertEquals(Action.SELL, diffs.get(0).recorded());
+        assertEquals(Action.BUY, diffs.get(0).replayed());
+    }
+
+    @Test
+    @DisplayName("A stored bot is replayed with its own config and diffed against its own signals")
+    void replaysStoredBotsWithTheirOwnConfig() throws Exception {
+        TradingConfig stored = new TradingConfig();
+        stored.setMacdFastPeriod(5);
+        when(agentRepository.findByTradingSymbol(eq(SYMBOL), any())).thenReturn(List.of(
+                new AgentEntity.Builder().id("agent-1").tradingSymbol(SYMBOL)
+                        .goalDescription(mapper.writeValueAsString(stored)).build()));
+        when(agentFactory.create(argThat(config -> config != null && config.getMacdFastPeriod() == 5)))
+                .thenReturn(botAgent);
+        when(botAgent.getStatus()).thenReturn(AgentStatus.ACTIVE);
+        kline(T0 + MINUTE, 100.0);
+        signal(T0 + MINUTE + 5, "agent-1", "LONG", T0 + MINUTE);
+        signal(T0 + MINUTE + 6, "agent-2", "SHORT", T0 + MINUTE);
+        when(botAgent.onKlineClosed(any())).thenReturn(decision(Action.BUY));
+        when(agent.onKlineClosed(any())).thenReturn(decision(Action.HOLD));
+
+        ReplayReport report = engine.replay(source(), new TradingConfig(), 0);
+
+        // agent-1 matches through its own agent; agent-2 is not stored, so the request config stands in
+        assertEquals(1, report.klines());
+        assertEquals(2, report.decisions());
+        assertEquals(1, report.matched());
+        List<DecisionDiff> diffs = report.diffs();
+        assertEquals(1, diffs.size());
+        assertEquals("agent-2", diffs.get(0).recordedAgentId());
+        assertEquals(Action.HOLD, diffs.get(0).replayed());
+        verify(botAgent).stop();
+        verify(agentRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Agent failures are counted and reported as diffs")
+    void countsAgentErrors() {
+        kline(T0 + MINUTE, 100.0);
+        when(agent.onKlineClosed(any())).thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        ReplayReport report = engine.replay(source(), new TradingConfig(), 0);
+
+        assertEquals(1, report.agentErrors());
+        assertNull(report.diffs().get(0).replayed());
+        assertFalse(report.identical());
+    }
+
+    @Test
+    @DisplayName("One agent is created per symbol with that symbol, not restarted, and stopped afterwards")
+    void createsAgentPerSymbol() {
+        kline(T0 + MINUTE, 100.0);
+        kline(T0 + 2 * MINUTE, 101.0);
+        when(agent.onKlineClosed(any())).thenReturn(decision(Action.HOLD));
+
+        engine.replay(source(), new TradingConfig(), 0);
+
+        verify(agentFactory, times(1)).create(argThat(config -> SYMBOL.equals(config.getSymbol())));
+        verify(agent, never()).start();
+        verify(agent).stop();
+    }
+
+    @Test
+    @DisplayName("An exported segment reads back the same events")
+    void segmentRoundTrip() throws Exception {
+        tick(T0 + 10, 100.0);
+        kline(T0 + MINUTE, 100.0);
+        signal(T0 + MINUTE + 5, "LONG", T0 + MINUTE);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3, ReplaySegment.write(source(), out));
+
+        List<RecordedEvent> read = new ArrayList<>();
+        try (ReplaySource segment = ReplaySegment.read(new ByteArrayInputStream(out.toByteArray()))) {
+            for (RecordedEvent event = segment.next(); event != null; event = segment.next()) {
+                read.add(event);
+            }
+        }
+        assertEquals(events, read);
+    }
+
+    // ── helpers ────────────────────────────────────────────────────────────────
+
+    private ReplaySource source() {
+        Iterator<RecordedEvent> iterator = List.copyOf(events).iterator();
+        return new ReplaySource() {
+            @Override
+            public RecordedEvent next() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private void tick(long timestamp, double price) {
+        add("trading.market-data", timestamp, Map.of(
+                "exchange", "BINANCE", "symbol", SYMBOL, "type", "TRADE",
+                "price", price, "quantity", 1.0, "timestamp", timestamp));
+    }
+
+    private void kline(long closeTime, double close) {
+        BigDecimal price = BigDecimal.valueOf(close);
+        add("kline-closed." + SYMBOL, closeTime, new KlineClosedEvent("BINANCE", SYMBOL, "1m",
+                price, price, price, price, BigDecimal.ONE,
+                Instant.ofEpochMilli(closeTime - MINUTE), Instant.ofEpochMilli(closeTime)));
+    }
+
+    private void signal(long timestamp, String direction, Long klineCloseTime) {
+        signal(timestamp, "agent-1", direction, klineCloseTime);
+    }
+
+    private void signal(long timestamp, String botId, String direction, Long klineCloseTime) {
+        Map<String, Object> metadata = klineCloseTime != null
+                ? Map.of(TradeSignalEvent.KLINE_CLOSE_TIME, klineCloseTime)
+                : Map.of();
+        add("trading.signals", timestamp, Map.of(
+                "eventType", "TradeSignalEvent",
+                "data", Map.of("type", "TRADE_SIGNAL", "botId", botId, "symbol", SYMBOL,
+                        "signal", direction, "strength", 0.8, "metadata", metadata)));
+    }
+
+    private void add(String topic, long timestamp, Object value) {
+        try {
+            events.add(new RecordedEvent(topic, 0, offset++, timestamp, SYMBOL, mapper.writeValueAsString(value)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Mono<AgentDecision> decision(Action action) {
+        return Mono.just(new AgentDecision("replay-agent", SYMBOL, action, 70, action + " test",
+                Instant.EPOCH, null, null, null));
+    }
+}
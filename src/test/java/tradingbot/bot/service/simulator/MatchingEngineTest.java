@@ -0,0 +1,230 @@
+package tradingbot.bot.service.simulator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import tradingbot.bot.service.OrderResult.OrderStatus;
+import tradingbot.bot.service.simulator.MatchingEngine.Fill;
+import tradingbot.bot.service.simulator.MatchingEngine.Liquidation;
+import tradingbot.bot.service.simulator.MatchingEngine.Order;
+import tradingbot.bot.service.simulator.MatchingEngine.OrderType;
+import tradingbot.bot.service.simulator.MatchingEngine.Side;
+
+@DisplayName("MatchingEngine Tests")
+class MatchingEngineTest {
+
+    private static final String SYMBOL = "BTCUSDT";
+    private static final double EPS = 1e-6;
+
+    private MatchingEngine engine;
+    private int maker;
+    private int trader;
+    private final List<Fill> fills = new ArrayList<>();
+    private final List<Liquidation> liquidations = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        engine = new MatchingEngine(0, 0, 0.005);
+        engine.addSymbol(SYMBOL, 0.1);
+        maker = engine.openUnlimitedAccount();
+        trader = engine.openAccount(10_000);
+        engine.setListener(new MatchingEngine.Listener() {
+            @Override
+            public void onFill(Fill fill) {
+                fills.add(fill);
+            }
+
+            @Override
+            public void onLiquidation(Liquidation liquidation) {
+                liquidations.add(liquidation);
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Better price fills first, then the oldest order at the same price")
+    void priceTimePriority() {
+        Order first = engine.submitLimit(maker, SYMBOL, Side.SELL, 1, 100.0, false);
+        Order second = engine.submitLimit(maker, SYMBOL, Side.SELL, 1, 100.0, false);
+        Order better = engine.submitLimit(maker, SYMBOL, Side.SELL, 1, 99.9, false);
+
+        Order taker = engine.submitMarket(trader, SYMBOL, Side.BUY, 2.5, false);
+
+        assertEquals(OrderStatus.FILLED, taker.status());
+        assertEquals(List.of(better.id(), first.id(), second.id()),
+                fills.stream().map(Fill::makerOrderId).toList());
+        assertEquals(OrderStatus.FILLED, first.status());
+        assertEquals(OrderStatus.PARTIALLY_FILLED, second.status());
+        assertEquals(0.5, engine.depthAt(SYMBOL, Side.SELL, 100.0), EPS);
+        assertEquals((99.9 + 100.0 + 50.0) / 2.5, taker.avgFillPrice(), EPS);
+    }
+
+    @Test
+    @DisplayName("A limit order fills up to its price and rests the remainder")
+    void limitRestsRemainder() {
+        engine.submitLimit(maker, SYMBOL, Side.SELL, 1, 100.0, false);
+        engine.submitLimit(maker, SYMBOL, Side.SELL, 1, 100.5, false);
+
+        Order bid = engine.submitLimit(trader, SYMBOL, Side.BUY, 3, 100.2, false);
+
+        assertEquals(OrderStatus.PARTIALLY_FILLED, bid.status());
+        assertEquals(1, bid.filledQuantity(), EPS);
+        assertEquals(100.2, engine.bestBid(SYMBOL), EPS);
+        assertEquals(100.5, engine.bestAsk(SYMBOL), EPS);
+        assertTrue(engine.cancel(bid.id()));
+        assertEquals(OrderStatus.CANCELED, bid.status());
+        assertTrue(Double.isNaN(engine.bestBid(SYMBOL)));
+    }
+
+    @Test
+    @DisplayName("Unfilled market quantity is cancelled rather than resting")
+    void marketOrderIsImmediateOrCancel() {
+        engine.submitLimit(maker, SYMBOL, Side.BUY, 1, 99.0, false);
+
+        Order taker = engine.submitMarket(trader, SYMBOL, Side.SELL, 2, false);
+
+        assertEquals(OrderStatus.PARTIALLY_FILLED, taker.status());
+        assertEquals(1, taker.filledQuantity(), EPS);
+        assertNull(engine.order(taker.id()));
+        assertEquals(-1, engine.account(trader).position(SYMBOL).quantity(), EPS);
+    }
+
+    @Test
+    @DisplayName("Stop-loss fires on the mark and the take-profit leg expires with the position")
+    void bracketIsOneCancelsOther() {
+        quote(100.0);
+        engine.submitMarket(trader, SYMBOL, Side.BUY, 1, false);
+        Order stop = engine.submitTrigger(trader, SYMBOL, Side.SELL, OrderType.STOP_MARKET, 1, 95.0, true);
+        Order takeProfit = engine.submitTrigger(trader, SYMBOL, Side.SELL, OrderType.TAKE_PROFIT_MARKET, 1, 110.0, true);
+
+        quote(96.0);
+        assertEquals(OrderStatus.NEW, stop.status());
+        quote(94.5);
+
+        assertTrue(stop.triggered());
+        assertEquals(OrderStatus.FILLED, stop.status());
+        assertEquals(OrderStatus.EXPIRED, takeProfit.status());
+        assertEquals(0, engine.account(trader).position(SYMBOL).quantity(), EPS);
+        assertTrue(engine.openOrders(trader, SYMBOL).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A trigger already through the mark is rejected")
+    void rejectsTriggerThatWouldFireImmediately() {
+        quote(100.0);
+        engine.submitMarket(trader, SYMBOL, Side.BUY, 1, false);
+
+        Order stop = engine.submitTrigger(trader, SYMBOL, Side.SELL, OrderType.STOP_MARKET, 1, 101.0, true);
+
+        assertEquals(OrderStatus.REJECTED, stop.status());
+    }
+
+    @Test
+    @DisplayName("Reduce-only never opens or flips a position")
+    void reduceOnlyIsClampedToPosition() {
+        quote(100.0);
+        assertEquals(OrderStatus.REJECTED, engine.submitMarket(trader, SYMBOL, Side.SELL, 1, true).status());
+
+        engine.submitMarket(trader, SYMBOL, Side.BUY, 1, false);
+        Order exit = engine.submitMarket(trader, SYMBOL, Side.SELL, 3, true);
+
+        assertEquals(1, exit.filledQuantity(), EPS);
+        assertEquals(0, engine.account(trader).position(SYMBOL).quantity(), EPS);
+    }
+
+    @Test
+    @DisplayName("Orders beyond available margin at the symbol's leverage are rejected")
+    void marginCheckUsesLeverage() {
+        quote(100.0);
+
+        assertEquals(OrderStatus.REJECTED, engine.submitMarket(trader, SYMBOL, Side.BUY, 150, false).status());
+
+        engine.setLeverage(trader, SYMBOL, 10);
+        assertEquals(OrderStatus.FILLED, engine.submitMarket(trader, SYMBOL, Side.BUY, 150, false).status());
+        // filled at the 100.1 ask: 15,000 notional at 10x ties up 1,500, and the mark is 15 below entry
+        assertEquals(10_000 - 15 - 1_500, engine.availableBalance(engine.account(trader)), EPS);
+    }
+
+    @Test
+    @DisplayName("Realised PnL, fees and funding settle into the wallet")
+    void pnlFeesAndFunding() {
+        engine = new MatchingEngine(0.0002, 0.0005, 0.005);
+        engine.addSymbol(SYMBOL, 0.1);
+        maker = engine.openUnlimitedAccount();
+        trader = engine.openAccount(10_000);
+
+        quote(100.0);
+        engine.submitMarket(trader, SYMBOL, Side.BUY, 10, false);     // at 100.1, fee 0.5005
+        engine.applyFunding(SYMBOL, 0.001);                             // 10 * 100 (mark) * 0.001 = 1
+        quote(110.0);
+        engine.submitMarket(trader, SYMBOL, Side.SELL, 10, true);     // at 109.9: +98 PnL, fee 0.5495
+
+        var position = engine.account(trader).position(SYMBOL);
+        assertEquals(98, position.realizedPnl(), EPS);
+        assertEquals(1.05, position.feesPaid(), EPS);
+        assertEquals(1, position.fundingPaid(), EPS);
+        assertEquals(10_000 + 98 - 1.05 - 1, engine.account(trader).walletBalance(), EPS);
+    }
+
+    @Test
+    @DisplayName("Resting fills pay the maker rate and aggressing fills the taker rate")
+    void chargesMakerAndTakerRates() {
+        engine = new MatchingEngine(0.0002, 0.0005, 0.005);
+        engine.addSymbol(SYMBOL, 0.1);
+        maker = engine.openUnlimitedAccount();
+        trader = engine.openAccount(10_000);
+
+        Order resting = engine.submitLimit(trader, SYMBOL, Side.BUY, 10, 100.0, false);
+        engine.submitMarket(maker, SYMBOL, Side.SELL, 10, false);      // maker fill: 1,000 * 0.0002
+        quote(110.0);
+        Order taker = engine.submitMarket(trader, SYMBOL, Side.SELL, 10, true); // at 109.9: 1,099 * 0.0005
+
+        assertEquals(0.2, resting.fees(), EPS);
+        assertEquals(0.5495, taker.fees(), EPS);
+        assertEquals(0.7495, engine.account(trader).position(SYMBOL).feesPaid(), EPS);
+    }
+
+    @Test
+    @DisplayName("Equity below maintenance margin liquidates at the mark")
+    void liquidatesUnderMaintenanceMargin() {
+        quote(100.0);
+        engine.setLeverage(trader, SYMBOL, 20);
+        engine.submitMarket(trader, SYMBOL, Side.BUY, 1_900, false); // ~190,000 notional at 100.1
+
+        quote(95.5); // equity 1,260 vs maintenance 907
+        assertTrue(liquidations.isEmpty());
+        quote(95.2); // equity 690 vs maintenance 904
+
+        assertEquals(1, liquidations.size());
+        assertEquals(1_900, liquidations.get(0).quantity(), EPS);
+        assertEquals(0, engine.account(trader).position(SYMBOL).quantity(), EPS);
+        assertEquals(10_000 - 1_900 * 4.9, engine.account(trader).walletBalance(), 1e-3);
+    }
+
+    @Test
+    @DisplayName("A loss beyond the wallet is absorbed by the insurance fund")
+    void insuranceFundAbsorbsDeficit() {
+        quote(100.0);
+        engine.setLeverage(trader, SYMBOL, 50);
+        engine.submitMarket(trader, SYMBOL, Side.BUY, 4_000, false);
+
+        quote(90.0); // gap straight through the liquidation price: loss 40,400 on 10,000
+
+        assertEquals(0, engine.account(trader).walletBalance(), EPS);
+        assertEquals(-30_400, engine.insuranceFund(), 1e-3);
+    }
+
+    /** Re-quotes a deep one-tick market around {@code price} and moves the mark there. */
+    private void quote(double price) {
+        engine.cancelAll(maker, SYMBOL);
+        engine.submitLimit(maker, SYMBOL, Side.BUY, 1_000_000, price - 0.1, false);
+        engine.submitLimit(maker, SYMBOL, Side.SELL, 1_000_000, price + 0.1, false);
+        engine.updateMarkPrice(SYMBOL, price);
+    }
+}
@@ -0,0 +1,180 @@
+package tradingbot.bot.service.simulator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import tradingbot.bot.controller.exception.BotOperationException;
+import tradingbot.bot.service.BinanceFuturesService.Candle;
+import tradingbot.bot.service.OrderResult;
+import tradingbot.domain.market.RawPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.domain.market.StreamMarketDataEvent.EventType;
+
+@DisplayName("SimulatedFuturesExchangeService Tests")
+class SimulatedFuturesExchangeServiceTest {
+
+    private static final String SYMBOL = "BTCUSDT";
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long T0 = 1_700_000_040_000L - 1_700_000_040_000L % TimeUnit.HOURS.toMillis(8);
+    private static final double EPS = 1e-6;
+
+    private SimulatedFuturesExchangeService exchange;
+
+    @BeforeEach
+    void setUp() {
+        // no fees, 2 bps quote (one 0.01 tick each side of 100), 0.5% maintenance, 0.01% funding every 8h
+        exchange = new SimulatedFuturesExchangeService(10_000, 0.01, 0, 0, 0.005, 2, 1_000_000,
+                0.0001, TimeUnit.HOURS.toMillis(8));
+    }
+
+    @Test
+    @DisplayName("Orders are refused until the symbol has a price")
+    void requiresMarketData() {
+        assertThrows(BotOperationException.class, () -> exchange.enterLongPosition(SYMBOL, 1));
+        assertThrows(BotOperationException.class, () -> exchange.getCurrentPrice(SYMBOL));
+    }
+
+    @Test
+    @DisplayName("Market entries fill at the quote and exits close the position")
+    void entersAndExits() {
+        exchange.onTick(SYMBOL, 100.0, 1, T0);
+
+        OrderResult entry = exchange.enterLongPosition(SYMBOL, 10);
+        assertEquals(OrderResult.OrderStatus.FILLED, entry.getStatus());
+        assertEquals(100.01, entry.getAvgFillPrice(), EPS);
+        assertEquals(10, exchange.positionQuantity(SYMBOL), EPS);
+
+        exchange.onTick(SYMBOL, 105.0, 1, T0 + 1_000);
+        OrderResult exit = exchange.exitLongPosition(SYMBOL, 10);
+
+        assertEquals(104.99, exit.getAvgFillPrice(), EPS);
+        assertEquals(0, exchange.positionQuantity(SYMBOL), EPS);
+        assertEquals(10_000 + 10 * (104.99 - 100.01), exchange.walletBalance(), EPS);
+        assertThrows(BotOperationException.class, () -> exchange.exitLongPosition(SYMBOL, 10));
+    }
+
+    @Test
+    @DisplayName("A bracket's take-profit fills on a later tick and its stop-loss expires")
+    void bracketFromTicks() {
+        exchange.onTick(SYMBOL, 100.0, 1, T0);
+        exchange.enterShortPosition(SYMBOL, 5);
+        OrderResult stop = exchange.placeStopLossOrder(SYMBOL, "Buy", 5, 102.0);
+        OrderResult takeProfit = exchange.placeTakeProfitOrder(SYMBOL, "Buy", 5, 97.0);
+        assertEquals(2, exchange.openOrders(SYMBOL).size());
+
+        exchange.onTick(SYMBOL, 98.0, 1, T0 + 1_000);
+        exchange.onTick(SYMBOL, 96.9, 1, T0 + 2_000);
+
+        assertEquals(0, exchange.positionQuantity(SYMBOL), EPS);
+        assertNull(exchange.openOrder(stop.getExchangeOrderId()));
+        assertNull(exchange.openOrder(takeProfit.getExchangeOrderId()));
+        assertTrue(exchange.openOrders(SYMBOL).isEmpty());
+        assertEquals(10_000 + 5 * (99.99 - 96.91), exchange.walletBalance(), EPS);
+    }
+
+    @Test
+    @DisplayName("A stop that the price is already through is rejected")
+    void rejectsStopThroughMarket() {
+        exchange.onTick(SYMBOL, 100.0, 1, T0);
+        exchange.enterLongPosition(SYMBOL, 1);
+
+        assertThrows(BotOperationException.class, () -> exchange.placeStopLossOrder(SYMBOL, "Sell", 1, 100.5));
+    }
+
+    @Test
+    @DisplayName("A resting limit fills when a tick trades through it")
+    void restingLimitFillsOnTick() {
+        exchange.onTick(SYMBOL, 100.0, 1, T0);
+        OrderResult bid = exchange.placeLimitOrder(SYMBOL, "Buy", 2, 99.0, false);
+        assertEquals(OrderResult.OrderStatus.NEW, bid.getStatus());
+        assertEquals(10_000 - 2 * 99.0, exchange.getMarginBalance(), EPS);
+
+        exchange.onTick(SYMBOL, 98.5, 1, T0 + 1_000);
+
+        assertNull(exchange.openOrder(bid.getExchangeOrderId()));
+        assertEquals(2, exchange.positionQuantity(SYMBOL), EPS);
+        assertEquals(99.0, exchange.positionEntryPrice(SYMBOL), EPS);
+    }
+
+    @Test
+    @DisplayName("Leverage is per symbol and a leveraged position is liquidated on a deep drop")
+    void leverageAndLiquidation() {
+        exchange.onTick(SYMBOL, 100.0, 1, T0);
+        exchange.onTick("ETHUSDT", 10.0, 1, T0);
+        exchange.setLeverage(SYMBOL, 20);
+
+        assertThrows(BotOperationException.class, () -> exchange.enterLongPosition("ETHUSDT", 2_000));
+        exchange.enterLongPosition(SYMBOL, 1_900);
+
+        exchange.onTick(SYMBOL, 95.0, 1, T0 + 1_000);
+
+        assertEquals(0, exchange.positionQuantity(SYMBOL), EPS);
+        assertTrue(exchange.walletBalance() < 1_000);
+    }
+
+    @Test
+    @DisplayName("Funding is charged when tick time crosses a funding boundary")
+    void settlesFunding() {
+        exchange.onTick(SYMBOL, 100.0, 1, T0 + MINUTE);
+        exchange.enterLongPosition(SYMBOL, 10);
+        double afterEntry = exchange.walletBalance();
+
+        exchange.onTick(SYMBOL, 100.0, 1, T0 + TimeUnit.HOURS.toMillis(4));
+        assertEquals(afterEntry, exchange.walletBalance(), EPS);
+        exchange.onTick(SYMBOL, 100.0, 1, T0 + TimeUnit.HOURS.toMillis(8));
+
+        assertEquals(afterEntry - 10 * 100.0 * 0.0001, exchange.walletBalance(), EPS);
+    }
+
+    @Test
+    @DisplayName("Ticks are aggregated into candles of the requested timeframe")
+    void buildsCandlesFromTicks() {
+        double[] prices = {100, 103, 99, 101, 102, 104, 98, 100, 101, 105};
+        for (int i = 0; i < prices.length; i++) {
+            exchange.onTick(SYMBOL, prices[i], 1, T0 + i * MINUTE + 500);
+        }
+
+        List<Candle> fiveMinute = exchange.fetchOhlcv(SYMBOL, "5m", 10);
+        assertEquals(2, fiveMinute.size());
+        Candle first = fiveMinute.get(0);
+        assertEquals(T0, first.getOpenTime());
+        assertEquals(0, new BigDecimal("100.0").compareTo(first.getOpen()));
+        assertEquals(0, new BigDecimal("103.0").compareTo(first.getHigh()));
+        assertEquals(0, new BigDecimal("99.0").compareTo(first.getLow()));
+        assertEquals(0, new BigDecimal("102.0").compareTo(first.getClose()));
+        assertEquals(0, new BigDecimal("5.0").compareTo(first.getVolume()));
+
+        List<Candle> lastThree = exchange.fetchOhlcv(SYMBOL, "1m", 3);
+        assertEquals(3, lastThree.size());
+        assertEquals(T0 + 7 * MINUTE, lastThree.get(0).getOpenTime());
+
+        assertEquals(105.0, exchange.get24HourStats(SYMBOL).getLastPrice(), EPS);
+        assertEquals(98.0, exchange.get24HourStats(SYMBOL).getLowPrice(), EPS);
+    }
+
+    @Test
+    @DisplayName("Trade events drive the simulator like ticks")
+    void acceptsMarketDataEvents() {
+        exchange.onEvent(new StreamMarketDataEvent("BINANCE_FUTURES", SYMBOL, EventType.TRADE,
+                new BigDecimal("250.5"), new BigDecimal("0.2"), Instant.ofEpochMilli(T0), new RawPayload("{}")));
+
+        assertEquals(250.5, exchange.getCurrentPrice(SYMBOL), EPS);
+    }
+
+    @Test
+    @DisplayName("Timeframes map to their length in milliseconds")
+    void parsesTimeframes() {
+        assertEquals(MINUTE, SimulatedFuturesExchangeService.intervalMillis("1m"));
+        assertEquals(TimeUnit.HOURS.toMillis(4), SimulatedFuturesExchangeService.intervalMillis("4h"));
+        assertEquals(TimeUnit.DAYS.toMillis(7), SimulatedFuturesExchangeService.intervalMillis("1w"));
+        assertThrows(IllegalArgumentException.class, () -> SimulatedFuturesExchangeService.intervalMillis("1x"));
+    }
+}
@@ -0,0 +1,81 @@
+package tradingbot.bot.service.simulator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import reactor.core.publisher.Flux;
+import tradingbot.bot.messaging.EventPublisher;
+import tradingbot.bot.service.FuturesExchangeService;
+import tradingbot.bot.service.OrderResult;
+import tradingbot.config.ExchangeServiceConfig;
+import tradingbot.config.TradingSafetyService;
+import tradingbot.domain.market.RawPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.domain.market.StreamMarketDataEvent.EventType;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+@DisplayName("Simulator exchange provider Tests")
+class SimulatorProviderContextTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withUserConfiguration(ExchangeServiceConfig.class, TradingSafetyService.class,
+                    SimulatorMarketDataFeed.class)
+            .withBean(EventPublisher.class, () -> mock(EventPublisher.class))
+            .withBean(ExchangeWebSocketClient.class, StubMarketData::new)
+            .withPropertyValues(
+                    "trading.exchange.provider=simulator",
+                    "simulator.symbols=BTCUSDT",
+                    "simulator.taker-fee-rate=0");
+
+    @Test
+    @DisplayName("The simulator provider is fed by the market data stream and fills orders")
+    void placesOrderThroughProvider() {
+        contextRunner.run(context -> {
+            assertNull(context.getStartupFailure());
+            FuturesExchangeService exchange = context.getBean(FuturesExchangeService.class);
+            assertInstanceOf(SimulatedFuturesExchangeService.class, exchange);
+            assertEquals(100.0, exchange.getCurrentPrice("BTCUSDT"), 1e-9);
+
+            OrderResult entry = exchange.enterLongPosition("BTCUSDT", 0.5);
+
+            assertEquals(OrderResult.OrderStatus.FILLED, entry.getStatus());
+            assertEquals(100.0, entry.getAvgFillPrice(), 0.05);
+            assertEquals(0.5, ((SimulatedFuturesExchangeService) exchange).positionQuantity("BTCUSDT"), 1e-9);
+        });
+    }
+
+    @Test
+    @DisplayName("The feed is not created for other providers")
+    void feedOnlyForSimulator() {
+        contextRunner.withPropertyValues("trading.exchange.provider=paper").run(context -> {
+            assertNull(context.getStartupFailure());
+            assertTrue(context.getBeansOfType(SimulatorMarketDataFeed.class).isEmpty());
+        });
+    }
+
+    /** One trade at 100 per subscription, then silence. */
+    static final class StubMarketData implements ExchangeWebSocketClient {
+
+        @Override
+        public Flux<StreamMarketDataEvent> streamTrades(String symbol) {
+            return Flux.just(new StreamMarketDataEvent("BINANCE_FUTURES", symbol, EventType.TRADE,
+                    BigDecimal.valueOf(100), BigDecimal.ONE, Instant.now(), new RawPayload("{}")))
+                    .concatWith(Flux.never());
+        }
+
+        @Override
+        public Flux<StreamMarketDataEvent> streamBookTicker(String symbol) {
+            return Flux.never();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package tradingbot.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Load test for the shared virtual-thread executors: 10k blocking operations are parked at the
+ * same time, and the number of distinct carrier threads that ran them stays at the size of the
+ * virtual-thread scheduler (one per CPU), not one per operation.
+ */
+@DisplayName("VirtualThreads Tests")
+class VirtualThreadsTest {
+
+    private static final int OPERATIONS = 10_000;
+
+    @Test
+    @DisplayName("10k concurrent blocking calls on the Reactor scheduler use a handful of carriers")
+    void schedulerParksTenThousandBlockingCalls() throws Exception {
+        CountDownLatch allBlocked = new CountDownLatch(OPERATIONS);
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> carriers = ConcurrentHashMap.newKeySet();
+
+        Mono<Long> all = Flux.range(0, OPERATIONS)
+                .flatMap(i -> Mono.fromCallable(() -> {
+                            carriers.add(carrier());
+                            allBlocked.countDown();
+                            release.await(); // stands in for a blocking socket read
+                            return i;
+                        }).subscribeOn(VirtualThreads.blockingScheduler()), OPERATIONS)
+                .count();
+        CompletableFuture<Long> done = all.toFuture();
+
+        assertTrue(allBlocked.await(30, TimeUnit.SECONDS), "all operations should be blocked at once");
+        release.countDown();
+
+        assertEquals(OPERATIONS, done.get(30, TimeUnit.SECONDS));
+        assertCarriersBounded(carriers);
+    }
+
+    @Test
+    @DisplayName("10k concurrent blocking futures on the executor complete in about one sleep")
+    void executorRunsTenThousandSleepsConcurrently() {
+        Set<String> carriers = ConcurrentHashMap.newKeySet();
+        long start = System.nanoTime();
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            futures[i] = CompletableFuture.runAsync(() -> {
+                carriers.add(carrier());
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, VirtualThreads.executor());
+        }
+        CompletableFuture.allOf(futures).join();
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(10)) < 0,
+                "10k x 200 ms sleeps took " + elapsed.toMillis() + " ms; they are not running concurrently");
+        assertCarriersBounded(carriers);
+    }
+
+    @Test
+    @DisplayName("Spring task executor starts named virtual threads")
+    void taskExecutorUsesVirtualThreads() throws Exception {
+        CompletableFuture<Thread> thread = VirtualThreads.taskExecutor("test-vt-")
+                .submitCompletable(Thread::currentThread);
+
+        Thread t = thread.get(5, TimeUnit.SECONDS);
+        assertTrue(t.isVirtual());
+        assertTrue(t.getName().startsWith("test-vt-"));
+    }
+
+    /** Name of the platform thread carrying the current virtual thread. */
+    private static String carrier() {
+        Thread current = Thread.currentThread();
+        assertTrue(current.isVirtual(), "expected a virtual thread, got " + current);
+        String description = current.toString(); // VirtualThread[#42,vt-io-7]/runnable@ForkJoinPool-1-worker-3
+        return description.substring(description.indexOf('@') + 1);
+    }
+
+    private static void assertCarriersBounded(Set<String> carriers) {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        assertFalse(carriers.isEmpty());
+        assertTrue(carriers.size() <= Math.max(cpus, 1) * 2,
+                "expected at most ~" + cpus + " carrier threads, saw " + carriers.size());
+    }
+}
@@ -0,0 +1,39 @@
+package tradingbot.domain.market;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("BookTickerPayload Tests")
+class BookTickerPayloadTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    @DisplayName("Primitive mid and spread agree with the exact BigDecimal values")
+    void primitivesMatchDecimals() {
+        var payload = new BookTickerPayload(new BigDecimal("45000.10"), new BigDecimal("45000.35"));
+
+        assertEquals(45000.10, payload.bidPrice());
+        assertEquals(45000.35, payload.askPrice());
+        assertEquals(payload.mid().doubleValue(), payload.midPrice(), EPS);
+        assertEquals(0.25 * 100 / 45000.35, payload.spreadPercent(), EPS);
+        assertFalse(payload.isCrossed());
+    }
+
+    @Test
+    @DisplayName("Crossed books are detected exactly, whatever the scales")
+    void crossedDetection() {
+        assertTrue(new BookTickerPayload(new BigDecimal("100.01"), new BigDecimal("100.0")).isCrossed());
+        assertFalse(new BookTickerPayload(new BigDecimal("100.00"), new BigDecimal("100.0")).isCrossed());
+    }
+
+    @Test
+    @DisplayName("Spread of a zero ask is NaN rather than infinite")
+    void zeroAskSpreadIsNaN() {
+        assertTrue(Double.isNaN(new BookTickerPayload(BigDecimal.ONE, BigDecimal.ZERO).spreadPercent()));
+    }
+}
@@ -0,0 +1,118 @@
+package tradingbot.domain.market;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import tradingbot.domain.market.OrderBook.Side;
+
+@DisplayName("OrderBook Tests")
+class OrderBookTest {
+
+    private static final double EPS = 1e-9;
+
+    private OrderBook book;
+
+    @BeforeEach
+    void setUp() {
+        book = new OrderBook("BINANCE_FUTURES", "BTCUSDT", 5);
+        book.applySnapshot(100, 0,
+                new double[] {99.0, 2.0, 100.0, 1.0, 98.0, 3.0},
+                new double[] {101.0, 1.0, 102.0, 2.0, 103.0, 4.0});
+    }
+
+    @Test
+    @DisplayName("Top of book is the highest bid and lowest ask")
+    void topOfBook() {
+        assertTrue(book.isSynced());
+        assertEquals(100.0, book.bestBid());
+        assertEquals(1.0, book.bestBidQty());
+        assertEquals(101.0, book.bestAsk());
+        assertEquals(1.0, book.bestAskQty());
+        assertEquals(100.5, book.midPrice(), EPS);
+        assertEquals(100, book.lastUpdateId());
+    }
+
+    @Test
+    @DisplayName("Diffs insert, update and remove levels; zero quantity deletes")
+    void diffsUpdateLevels() {
+        book.applyDiff(101, 0,
+                new double[] {100.0, 0.0, 100.5, 4.0, 99.0, 5.0},
+                new double[] {101.0, 0.0, 100.8, 0.5});
+
+        assertEquals(100.5, book.bestBid());
+        assertEquals(4.0, book.bestBidQty());
+        assertEquals(100.8, book.bestAsk());
+        assertEquals(3, book.depth(Side.BID));
+        assertEquals(3, book.depth(Side.ASK));
+        assertEquals(101, book.lastUpdateId());
+    }
+
+    @Test
+    @DisplayName("A full side drops its worst level and ignores levels beyond it")
+    void capacityDropsWorstLevel() {
+        book.applyDiff(101, 0, new double[] {97.0, 1.0, 96.0, 1.0}, null);
+        assertEquals(5, book.depth(Side.BID));
+
+        book.applyDiff(102, 0, new double[] {100.2, 1.0, 90.0, 9.0}, null);
+
+        assertEquals(5, book.depth(Side.BID));
+        assertEquals(100.2, book.bestBid());
+        assertEquals(1.0 + 1.0 + 2.0 + 3.0 + 1.0, book.depthWithinBps(Side.BID, 10_000), EPS);
+    }
+
+    @Test
+    @DisplayName("Microprice leans towards the thinner side")
+    void microprice() {
+        book.applyDiff(101, 0, new double[] {100.0, 3.0}, null);
+
+        // (100 * 1 + 101 * 3) / 4
+        assertEquals(100.75, book.microprice(), EPS);
+    }
+
+    @Test
+    @DisplayName("Imbalance compares the top levels of each side")
+    void imbalance() {
+        assertEquals(0.0, book.imbalance(1), EPS);
+        // bids 1+2 = 3, asks 1+2 = 3
+        assertEquals(0.0, book.imbalance(2), EPS);
+        // bids 6, asks 7
+        assertEquals(-1.0 / 13, book.imbalance(3), EPS);
+    }
+
+    @Test
+    @DisplayName("Fill price walks the consumed side and reports slippage from the mid")
+    void averageFillAndSlippage() {
+        // 1 @ 101 + 2 @ 102
+        assertEquals(305.0 / 3, book.averageFillPrice(Side.ASK, 3.0), EPS);
+        assertEquals(99.5, book.averageFillPrice(Side.BID, 2.0), EPS);
+        assertTrue(Double.isNaN(book.averageFillPrice(Side.ASK, 100.0)));
+        assertEquals((305.0 / 3 - 100.5) / 100.5 * 10_000, book.slippageBps(Side.ASK, 3.0), EPS);
+        // asks within 2% of 100.5 (up to 102.51): 101 and 102, not 103
+        assertEquals(3.0, book.depthWithinBps(Side.ASK, 200), EPS);
+    }
+
+    @Test
+    @DisplayName("Reset empties the book and marks it unsynced")
+    void resetEmptiesBook() {
+        book.reset();
+
+        assertFalse(book.isSynced());
+        assertTrue(Double.isNaN(book.bestBid()));
+        assertTrue(Double.isNaN(book.microprice()));
+        assertEquals(0, book.lastUpdateId());
+    }
+
+    @Test
+    @DisplayName("Exchange JSON levels are interleaved as price, quantity pairs")
+    void interleave() {
+        double[] levels = OrderBook.interleave(List.of(List.of("100.5", "2"), List.of("bad"), List.of("99", "0.25")));
+
+        assertArrayEquals(new double[] {100.5, 2.0, 99.0, 0.25}, levels);
+        assertEquals(0, OrderBook.interleave(null).length);
+    }
+}
@@ -0,0 +1,243 @@
+package tradingbot.infrastructure.marketdata;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Tests {@link CombinedStreamPool} against a local combined-stream WebSocket server (reactor-netty)
+ * that speaks the Binance SUBSCRIBE / UNSUBSCRIBE protocol.
+ */
+@DisplayName("CombinedStreamPool Tests")
+class CombinedStreamPoolTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<ServerConnection> serverConnections = new CopyOnWriteArrayList<>();
+    private DisposableServer server;
+    private CombinedStreamPool pool;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.ws("/stream", (in, out) -> {
+                    ServerConnection connection = new ServerConnection();
+                    serverConnections.add(connection);
+                    in.aggregateFrames()
+                            .receive()
+                            .asString()
+                            .subscribe(connection::onFrame, e -> connection.open = false, () -> connection.open = false);
+                    return out.sendString(connection.outbound.asFlux());
+                }))
+                .bindNow();
+        pool = new CombinedStreamPool("test", new TestProtocol(URI.create("ws://127.0.0.1:" + server.port() + "/stream")),
+                200, HttpClient.newHttpClient(), mapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+        server.disposeNow();
+    }
+
+    @Test
+    @DisplayName("Streams are packed onto as few sockets as the per-connection limit allows")
+    void packsStreamsPerConnection() {
+        for (int i = 0; i < 450; i++) {
+            pool.subscribe("sym" + i + "@aggTrade", event -> { });
+        }
+
+        assertEquals(3, pool.connectionCount());
+        assertEquals(450, pool.streamCount());
+        await(() -> openConnections() == 3
+                && serverConnections.stream().mapToInt(c -> c.streams.size()).sum() == 450);
+        assertTrue(serverConnections.stream().allMatch(c -> c.streams.size() <= 200));
+    }
+
+    @Test
+    @DisplayName("Frames are routed to the handler of the stream they carry")
+    void routesFramesByStream() {
+        List<JsonNode> btc = new CopyOnWriteArrayList<>();
+        List<JsonNode> eth = new CopyOnWriteArrayList<>();
+        pool.subscribe("btcusdt@aggTrade", btc::add);
+        pool.subscribe("ethusdt@aggTrade", eth::add);
+        await(() -> subscribedOnServer("ethusdt@aggTrade"));
+
+        publish("btcusdt@aggTrade", 1);
+        publish("ethusdt@aggTrade", 2);
+        publish("xrpusdt@aggTrade", 3);
+
+        await(() -> btc.size() == 1 && eth.size() == 1);
+        assertEquals(1, btc.get(0).get("p").asInt());
+        assertEquals(2, eth.get(0).get("p").asInt());
+        assertEquals(1, serverConnections.size(), "both streams share one socket");
+    }
+
+    @Test
+    @DisplayName("Unsubscribe sends UNSUBSCRIBE and closes a connection left without streams")
+    void unsubscribeClosesEmptyConnection() {
+        pool.subscribe("btcusdt@aggTrade", event -> { });
+        pool.subscribe("btcusdt@bookTicker", event -> { });
+        await(() -> subscribedOnServer("btcusdt@bookTicker"));
+
+        pool.unsubscribe("btcusdt@aggTrade");
+        await(() -> !subscribedOnServer("btcusdt@aggTrade"));
+        assertEquals(1, pool.connectionCount());
+
+        pool.unsubscribe("btcusdt@bookTicker");
+        assertEquals(0, pool.connectionCount());
+        await(() -> openConnections() == 0);
+    }
+
+    @Test
+    @DisplayName("A burst of subscriptions is batched into rate-limited SUBSCRIBE frames")
+    void batchesAndRateLimitsControlFrames() {
+        pool.subscribe("btcusdt@aggTrade", event -> { });
+        await(() -> subscribedOnServer("btcusdt@aggTrade"));
+        ServerConnection connection = serverConnections.get(0);
+
+        for (int i = 0; i < 100; i++) {
+            pool.subscribe("sym" + i + "@aggTrade", event -> { });
+        }
+        pool.unsubscribe("sym99@aggTrade");
+
+        await(() -> connection.streams.size() == 100);
+        assertFalse(connection.streams.contains("sym99@aggTrade"), "cancelled before it was sent");
+        List<Long> frames = connection.requestNanos;
+        assertTrue(frames.size() <= 4, "expected a few batched frames, got " + frames.size());
+        for (int i = 1; i < frames.size(); i++) {
+            long gapMillis = (frames.get(i) - frames.get(i - 1)) / 1_000_000;
+            assertTrue(gapMillis >= CombinedStreamPool.CONTROL_FRAME_INTERVAL_MS - 20,
+                    "control frames " + gapMillis + " ms apart");
+        }
+    }
+
+    @Test
+    @DisplayName("A dropped socket reconnects and resubscribes its streams")
+    void reconnectResubscribes() {
+        List<JsonNode> received = new CopyOnWriteArrayList<>();
+        pool.subscribe("btcusdt@aggTrade", received::add);
+        await(() -> subscribedOnServer("btcusdt@aggTrade"));
+
+        serverConnections.get(0).outbound.tryEmitComplete();
+
+        await(() -> serverConnections.size() == 2 && serverConnections.get(1).streams.contains("btcusdt@aggTrade"));
+        publish("btcusdt@aggTrade", 7);
+        await(() -> received.size() == 1);
+        assertEquals(1, pool.connectionCount());
+    }
+
+    private void publish(String stream, int value) {
+        ObjectNode frame = mapper.createObjectNode();
+        frame.put("stream", stream);
+        frame.putObject("data").put("p", value);
+        serverConnections.stream()
+                .filter(c -> c.open && c.streams.contains(stream))
+                .forEach(c -> c.outbound.tryEmitNext(frame.toString()));
+    }
+
+    private boolean subscribedOnServer(String stream) {
+        return serverConnections.stream().anyMatch(c -> c.open && c.streams.contains(stream));
+    }
+
+    private long openConnections() {
+        return serverConnections.stream().filter(c -> c.open).count();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within " + TIMEOUT);
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+
+    /** Server side of one socket: tracks its streams and acks requests like Binance. */
+    private final class ServerConnection {
+        final Set<String> streams = ConcurrentHashMap.newKeySet();
+        final Sinks.Many<String> outbound = Sinks.many().unicast().onBackpressureBuffer();
+        final List<Long> requestNanos = new CopyOnWriteArrayList<>();
+        volatile boolean open = true;
+
+        void onFrame(String text) {
+            requestNanos.add(System.nanoTime());
+            try {
+                JsonNode request = mapper.readTree(text);
+                String method = request.path("method").asText();
+                request.path("params").forEach(p -> {
+                    if ("SUBSCRIBE".equals(method)) {
+                        streams.add(p.asText());
+                    } else if ("UNSUBSCRIBE".equals(method)) {
+                        streams.remove(p.asText());
+                    }
+                });
+                outbound.tryEmitNext("{\"result\":null,\"id\":" + request.path("id").asLong() + "}");
+            } catch (Exception e) {
+                outbound.tryEmitNext("{\"error\":{\"code\":2,\"msg\":\"bad request\"}}");
+            }
+        }
+    }
+
+    private record TestProtocol(URI endpoint) implements CombinedStreamPool.Protocol {
+
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        @Override
+        public String subscribeFrame(List<String> streams, long requestId) {
+            return frame("SUBSCRIBE", streams, requestId);
+        }
+
+        @Override
+        public String unsubscribeFrame(List<String> streams, long requestId) {
+            return frame("UNSUBSCRIBE", streams, requestId);
+        }
+
+        @Override
+        public String streamOf(JsonNode frame) {
+            return frame.hasNonNull("stream") ? frame.get("stream").asText() : null;
+        }
+
+        @Override
+        public JsonNode payloadOf(JsonNode frame) {
+            return frame.get("data");
+        }
+
+        private static String frame(String method, List<String> streams, long requestId) {
+            ObjectNode node = MAPPER.createObjectNode();
+            node.put("method", method);
+            streams.forEach(node.putArray("params")::add);
+            node.put("id", requestId);
+            return node.toString();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package tradingbot.infrastructure.marketdata;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import tradingbot.domain.market.BookTickerPayload;
+import tradingbot.domain.market.RawPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.domain.market.StreamMarketDataEvent.EventType;
+import tradingbot.infrastructure.marketdata.FeedHealthMonitor.Status;
+
+@DisplayName("FeedHealthMonitor Tests")
+class FeedHealthMonitorTest {
+
+    private static final String BINANCE = "BINANCE_FUTURES";
+    private static final String BYBIT = "BYBIT_LINEAR";
+    private static final String DYDX = "DYDX";
+    private static final List<String> PRIORITY = List.of(BINANCE, BYBIT, DYDX);
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+    private FeedHealthMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        // 2 s staleness, 20-print window, z > 8, MAD floor 5 bps, 50 bps consensus band
+        monitor = new FeedHealthMonitor(true, 2000, 20, 8, 5, 50, nanos::get);
+    }
+
+    @Test
+    @DisplayName("A bad print far from the rolling median is dropped, normal prints pass")
+    void rejectsOutlierPrint() {
+        warmUp(BINANCE, 100.0);
+
+        assertTrue(monitor.accept(trade(BINANCE, 100.05)));
+        assertFalse(monitor.accept(trade(BINANCE, 110.0)));
+        assertTrue(monitor.accept(trade(BINANCE, 99.98)));
+    }
+
+    @Test
+    @DisplayName("Without a consensus, repeated prints at a new level are accepted as a real jump")
+    void confirmsJumpAfterConsecutiveOutliers() {
+        warmUp(BINANCE, 100.0);
+
+        assertFalse(monitor.accept(trade(BINANCE, 104.0)));
+        assertFalse(monitor.accept(trade(BINANCE, 104.1)));
+        assertTrue(monitor.accept(trade(BINANCE, 104.0)));
+        assertTrue(monitor.accept(trade(BINANCE, 104.05)));
+    }
+
+    @Test
+    @DisplayName("A print far from its own median is kept when the other exchanges agree with it")
+    void consensusVouchesForJump() {
+        warmUp(BINANCE, 100.0);
+        monitor.accept(trade(BYBIT, 104.0));
+        monitor.accept(trade(DYDX, 104.1));
+
+        assertTrue(monitor.accept(trade(BINANCE, 104.05)));
+        assertFalse(monitor.accept(trade(BINANCE, 90.0)));
+    }
+
+    @Test
+    @DisplayName("Backup takes over when the primary goes quiet and hands back on its next tick")
+    void failsOverOnStaleFeedAndFailsBack() {
+        warmUp(BINANCE, 100.0);
+        StreamMarketDataEvent backupTick = trade(BYBIT, 100.01);
+        monitor.accept(backupTick);
+        assertFalse(monitor.isActiveSource(backupTick, PRIORITY), "primary healthy: backup muted");
+
+        advanceMillis(2500);
+        backupTick = trade(BYBIT, 100.02);
+        monitor.accept(backupTick);
+
+        assertEquals(Status.STALE, monitor.status(BINANCE, "BTCUSDT", EventType.TRADE));
+        assertTrue(monitor.isActiveSource(backupTick, PRIORITY));
+
+        advanceMillis(1);
+        StreamMarketDataEvent primaryTick = trade(BINANCE, 100.03);
+        assertTrue(monitor.accept(primaryTick));
+        assertTrue(monitor.isActiveSource(primaryTick, PRIORITY));
+        assertFalse(monitor.isActiveSource(trade(BYBIT, 100.02), PRIORITY));
+    }
+
+    @Test
+    @DisplayName("A feed drifting from the median of the others is diverged and skipped")
+    void divergedFeedLosesPriority() {
+        // Binance frozen at a level the other two no longer agree with
+        warmUp(BINANCE, 100.0);
+        monitor.accept(trade(BYBIT, 101.0));
+        StreamMarketDataEvent dydxTick = trade(DYDX, 101.02);
+        monitor.accept(dydxTick);
+
+        assertEquals(Status.DIVERGED, monitor.status(BINANCE, "BTCUSDT", EventType.TRADE));
+        assertEquals(Status.HEALTHY, monitor.status(BYBIT, "BTCUSDT", EventType.TRADE));
+        assertTrue(monitor.isActiveSource(trade(BYBIT, 101.0), PRIORITY));
+        assertFalse(monitor.isActiveSource(dydxTick, PRIORITY));
+        assertEquals(101.0, monitor.consensusPrice("BTCUSDT", EventType.TRADE).getAsDouble(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Book tickers are judged by their mid price, in a window of their own")
+    void bookTickerUsesMid() {
+        warmUp(BINANCE, 100.0);
+
+        assertTrue(monitor.accept(bookTicker(BINANCE, 99.98, 100.02)));
+        assertEquals(100.0, monitor.consensusPrice("BTCUSDT", EventType.BOOK_TICKER).getAsDouble(), 1e-9);
+        assertEquals(Status.UNKNOWN, monitor.status(BYBIT, "BTCUSDT", EventType.BOOK_TICKER));
+
+        // Mids never enter the trade window: a far-off book does not move the trade median
+        for (int i = 0; i < 20; i++) {
+            assertTrue(monitor.accept(bookTicker(BINANCE, 109.99, 110.01)));
+        }
+        assertFalse(monitor.accept(trade(BINANCE, 110.0)));
+        assertTrue(monitor.accept(trade(BINANCE, 100.01)));
+    }
+
+    private void warmUp(String exchange, double around) {
+        for (int i = 0; i < 20; i++) {
+            assertTrue(monitor.accept(trade(exchange, around + (i % 5 - 2) * 0.01)));
+        }
+    }
+
+    private void advanceMillis(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static StreamMarketDataEvent bookTicker(String exchange, double bid, double ask) {
+        return new StreamMarketDataEvent(exchange, "BTCUSDT", EventType.BOOK_TICKER,
+                BigDecimal.valueOf(ask), BigDecimal.ZERO, Instant.now(),
+                new BookTickerPayload(BigDecimal.valueOf(bid), BigDecimal.valueOf(ask)));
+    }
+
+    private static StreamMarketDataEvent trade(String exchange, double price) {
+        return new StreamMarketDataEvent(exchange, "BTCUSDT", EventType.TRADE,
+                BigDecimal.valueOf(price), BigDecimal.ONE, Instant.now(), new RawPayload("{}"));
+    }
+}
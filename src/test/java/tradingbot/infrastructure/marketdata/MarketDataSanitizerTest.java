@@ -2,9 +2,11 @@ package tradingbot.infrastructure.marketdata;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
 import java.time.Instant;
 
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -303,4 +305,45 @@ class MarketDataSanitizerTest {
             assertTrue(sanitizer.isValid(event));
         }
     }
+
+    // =======================================================================
+    // hot path allocation
+    // =======================================================================
+
+    @Nested
+    class Allocation {
+
+        @Test
+        void validatingAndSanitizingTicksAllocatesNothing() {
+            var threads = ManagementFactory.getThreadMXBean();
+            Assumptions.assumeTrue(threads instanceof com.sun.management.ThreadMXBean,
+                    "per-thread allocation counters not available");
+            var mx = (com.sun.management.ThreadMXBean) threads;
+            long threadId = Thread.currentThread().threadId();
+
+            var ticker = bookTickerEvent(new BigDecimal("45000.0"), new BigDecimal("45000.10"));
+            var trade = tradeEvent(new BigDecimal("45000.10"), new BigDecimal("0.003"));
+            var payload = (BookTickerPayload) ticker.payload();
+
+            double checksum = runTicks(ticker, trade, payload, 200_000); // warm-up: links the type switches
+            long before = mx.getThreadAllocatedBytes(threadId);
+            checksum += runTicks(ticker, trade, payload, 100_000);
+            long allocated = mx.getThreadAllocatedBytes(threadId) - before;
+
+            assertTrue(checksum > 0);
+            // BigDecimal spread and mid math used to allocate ~160 bytes per tick
+            assertTrue(allocated < 1024, "allocated " + allocated + " bytes over 100k ticks");
+        }
+
+        private double runTicks(StreamMarketDataEvent ticker, StreamMarketDataEvent trade,
+                                BookTickerPayload payload, int iterations) {
+            double checksum = 0;
+            for (int i = 0; i < iterations; i++) {
+                if (sanitizer.isValid(ticker) && sanitizer.isValid(trade) && sanitizer.sanitize(ticker) == ticker) {
+                    checksum += payload.midPrice() + payload.spreadPercent();
+                }
+            }
+            return checksum;
+        }
+    }
 }
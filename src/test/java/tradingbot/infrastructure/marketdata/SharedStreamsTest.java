@@ -0,0 +1,83 @@
+package tradingbot.infrastructure.marketdata;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+@DisplayName("SharedStreams Tests")
+class SharedStreamsTest {
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+    private final AtomicReference<Sinks.Many<Integer>> upstream = new AtomicReference<>();
+
+    @Test
+    @DisplayName("Subscribers share one upstream, closed when the last one cancels")
+    void refCountsUpstream() {
+        SharedStreams<Integer> streams = new SharedStreams<>(1);
+        Flux<Integer> flux = streams.get("btcusdt@aggTrade", this::open);
+
+        Disposable first = flux.subscribe();
+        Disposable second = streams.get("btcusdt@aggTrade", this::open).subscribe();
+        assertEquals(1, opened.get());
+        assertEquals(1, streams.size());
+
+        first.dispose();
+        assertEquals(0, closed.get());
+        second.dispose();
+        assertEquals(1, closed.get());
+        assertEquals(0, streams.size());
+
+        flux.subscribe();
+        assertEquals(2, opened.get(), "resubscribing reopens the upstream");
+    }
+
+    @Test
+    @DisplayName("A late subscriber replays only the configured number of events")
+    void lateSubscriberReplaysLatestOnly() {
+        SharedStreams<Integer> streams = new SharedStreams<>(1);
+        Flux<Integer> flux = streams.get("btcusdt@bookTicker", this::open);
+        Disposable early = flux.subscribe();
+        for (int i = 1; i <= 1000; i++) {
+            upstream.get().tryEmitNext(i);
+        }
+
+        List<Integer> late = new CopyOnWriteArrayList<>();
+        flux.subscribe(late::add);
+
+        assertEquals(List.of(1000), late);
+        early.dispose();
+    }
+
+    @Test
+    @DisplayName("Replay depth zero delivers only live events")
+    void depthZeroReplaysNothing() {
+        SharedStreams<Integer> streams = new SharedStreams<>(0);
+        Flux<Integer> flux = streams.get("btcusdt@aggTrade", this::open);
+        Disposable early = flux.subscribe();
+        upstream.get().tryEmitNext(1);
+
+        List<Integer> late = new CopyOnWriteArrayList<>();
+        flux.subscribe(late::add);
+        upstream.get().tryEmitNext(2);
+
+        assertEquals(List.of(2), late);
+        early.dispose();
+    }
+
+    private Runnable open(Sinks.Many<Integer> sink) {
+        opened.incrementAndGet();
+        upstream.set(sink);
+        return closed::incrementAndGet;
+    }
+}
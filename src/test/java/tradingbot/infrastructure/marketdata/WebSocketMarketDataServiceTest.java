@@ -0,0 +1,109 @@
+package tradingbot.infrastructure.marketdata;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import tradingbot.domain.market.RawPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.domain.market.StreamMarketDataEvent.EventType;
+
+@DisplayName("WebSocketMarketDataService Tests")
+class WebSocketMarketDataServiceTest {
+
+    private static final String BINANCE = "BINANCE_FUTURES";
+
+    private final Sinks.Many<StreamMarketDataEvent> trades = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger opened = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+
+    private WebSocketMarketDataService service;
+
+    @BeforeEach
+    void setUp() {
+        ExchangeWebSocketClient adapter = new ExchangeWebSocketClient() {
+            @Override
+            public String getExchangeName() {
+                return BINANCE;
+            }
+
+            @Override
+            public Flux<StreamMarketDataEvent> streamTrades(String symbol) {
+                return Flux.defer(() -> {
+                    opened.incrementAndGet();
+                    return trades.asFlux();
+                });
+            }
+
+            @Override
+            public Flux<StreamMarketDataEvent> streamBookTicker(String symbol) {
+                return Flux.never();
+            }
+        };
+        // 20-print window: outliers are judged from the 10th accepted print on
+        FeedHealthMonitor healthMonitor = new FeedHealthMonitor(true, 2000, 20, 8, 5, 50, System::nanoTime);
+        service = new WebSocketMarketDataService(List.of(adapter), kafkaTemplate, new MarketDataSanitizer(),
+                healthMonitor, 0);
+    }
+
+    @Test
+    @DisplayName("Concurrent subscribers share one scored pipeline and see the same ticks")
+    void scoresEachTickOnceForAllSubscribers() {
+        List<Double> first = new CopyOnWriteArrayList<>();
+        List<Double> second = new CopyOnWriteArrayList<>();
+        Disposable a = service.streamTrades("BTCUSDT").subscribe(e -> first.add(e.price().doubleValue()));
+        Disposable b = service.streamTrades("BTCUSDT").subscribe(e -> second.add(e.price().doubleValue()));
+
+        for (int i = 0; i < 20; i++) {
+            emit(100.0 + (i % 5 - 2) * 0.01);
+        }
+        // A jump is confirmed on its third consecutive print, however many subscribers there are
+        emit(104.0);
+        emit(104.1);
+        emit(104.0);
+
+        assertEquals(1, opened.get(), "one adapter subscription for both consumers");
+        assertEquals(21, first.size());
+        assertEquals(104.0, first.get(20));
+        assertEquals(first, second);
+        verify(kafkaTemplate, times(21)).send(anyString(), eq("BTCUSDT"), any());
+
+        a.dispose();
+        b.dispose();
+    }
+
+    @Test
+    @DisplayName("The shared pipeline closes with its last subscriber and reopens on the next one")
+    void closesUpstreamWithLastSubscriber() {
+        Disposable a = service.streamTrades("BTCUSDT").subscribe();
+        Disposable b = service.streamTrades("BTCUSDT").subscribe();
+        a.dispose();
+        b.dispose();
+        assertEquals(0, trades.currentSubscriberCount());
+
+        Disposable c = service.streamTrades("BTCUSDT").subscribe();
+        assertEquals(2, opened.get());
+        c.dispose();
+    }
+
+    private void emit(double price) {
+        trades.tryEmitNext(new StreamMarketDataEvent(BINANCE, "BTCUSDT", EventType.TRADE,
+                BigDecimal.valueOf(price), BigDecimal.ONE, Instant.now(), new RawPayload("{}")));
+    }
+}
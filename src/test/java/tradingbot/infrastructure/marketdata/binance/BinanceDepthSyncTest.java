@@ -0,0 +1,130 @@
+package tradingbot.infrastructure.marketdata.binance;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import tradingbot.domain.market.OrderBook;
+import tradingbot.infrastructure.marketdata.binance.BinanceDepthSync.Diff;
+import tradingbot.infrastructure.marketdata.binance.BinanceDepthSync.Snapshot;
+
+@DisplayName("BinanceDepthSync Tests")
+class BinanceDepthSyncTest {
+
+    private final Deque<Runnable> snapshotRequests = new ArrayDeque<>();
+    private final AtomicInteger snapshotCalls = new AtomicInteger();
+    private Snapshot nextSnapshot;
+
+    private OrderBook book;
+    private BinanceDepthSync sync;
+
+    @BeforeEach
+    void setUp() {
+        book = new OrderBook("BINANCE_FUTURES", "BTCUSDT", 100);
+        sync = new BinanceDepthSync(book, () -> {
+            snapshotCalls.incrementAndGet();
+            return nextSnapshot;
+        }, snapshotRequests::add);
+    }
+
+    @Test
+    @DisplayName("Buffered diffs older than the snapshot are dropped and the rest replayed")
+    void bootstrapsFromSnapshot() {
+        sync.onDiff(diff(90, 95, 89, 100.0, 1.0));
+        sync.onDiff(diff(96, 105, 95, 100.0, 2.0));
+        sync.onDiff(diff(106, 110, 105, 100.5, 1.0));
+        assertFalse(book.isSynced());
+        assertEquals(1, snapshotRequests.size(), "one snapshot in flight at a time");
+
+        nextSnapshot = new Snapshot(100, 0, new double[] {99.0, 5.0}, new double[] {101.0, 5.0});
+        snapshotRequests.poll().run();
+
+        assertTrue(book.isSynced());
+        assertEquals(110, book.lastUpdateId());
+        assertEquals(100.5, book.bestBid());
+        assertEquals(3, book.depth(OrderBook.Side.BID));
+    }
+
+    @Test
+    @DisplayName("The first diff after a snapshot that drained the buffer is matched on U..u, not pu")
+    void firstLiveDiffStraddlesSnapshot() {
+        sync.onDiff(diff(90, 95, 89, 100.0, 1.0));
+        nextSnapshot = new Snapshot(100, 0, new double[] {99.0, 5.0}, new double[] {101.0, 5.0});
+        snapshotRequests.poll().run();
+        assertTrue(book.isSynced());
+        assertEquals(100, book.lastUpdateId());
+
+        sync.onDiff(diff(96, 99, 95, 100.0, 1.0));
+        sync.onDiff(diff(98, 102, 99, 100.0, 2.0));
+        sync.onDiff(diff(103, 104, 102, 100.5, 1.0));
+
+        assertTrue(book.isSynced());
+        assertEquals(0, sync.resyncs());
+        assertTrue(snapshotRequests.isEmpty());
+        assertEquals(104, book.lastUpdateId());
+        assertEquals(100.5, book.bestBid());
+    }
+
+    @Test
+    @DisplayName("A broken pu chain resets the book and fetches a new snapshot")
+    void gapTriggersResync() {
+        nextSnapshot = new Snapshot(100, 0, new double[] {99.0, 5.0}, new double[] {101.0, 5.0});
+        sync.onDiff(diff(98, 102, 97, 100.0, 1.0));
+        snapshotRequests.poll().run();
+        sync.onDiff(diff(103, 104, 102, 100.0, 2.0));
+        assertEquals(104, book.lastUpdateId());
+
+        sync.onDiff(diff(110, 112, 108, 100.2, 1.0));
+
+        assertFalse(book.isSynced());
+        assertTrue(Double.isNaN(book.bestBid()));
+        assertEquals(1, sync.resyncs());
+        assertEquals(1, snapshotRequests.size());
+
+        nextSnapshot = new Snapshot(111, 0, new double[] {99.0, 5.0}, new double[] {101.0, 5.0});
+        snapshotRequests.poll().run();
+
+        assertTrue(book.isSynced());
+        assertEquals(112, book.lastUpdateId());
+        assertEquals(100.2, book.bestBid());
+    }
+
+    @Test
+    @DisplayName("A snapshot older than every buffered diff is fetched again")
+    void staleSnapshotIsRefetched() {
+        sync.onDiff(diff(120, 125, 119, 100.0, 1.0));
+        nextSnapshot = new Snapshot(100, 0, new double[0], new double[0]);
+
+        snapshotRequests.poll().run();
+
+        assertFalse(book.isSynced());
+        assertEquals(1, snapshotRequests.size());
+        nextSnapshot = new Snapshot(122, 0, new double[] {99.0, 1.0}, new double[] {101.0, 1.0});
+        snapshotRequests.poll().run();
+        assertTrue(book.isSynced());
+        assertEquals(125, book.lastUpdateId());
+        assertEquals(2, snapshotCalls.get());
+    }
+
+    @Test
+    @DisplayName("A failed snapshot is retried on the next diff")
+    void failedSnapshotIsRetried() {
+        sync.onDiff(diff(98, 102, 97, 100.0, 1.0));
+        snapshotRequests.poll().run(); // nextSnapshot is null: the load failed
+        assertTrue(snapshotRequests.isEmpty());
+
+        sync.onDiff(diff(103, 104, 102, 100.0, 2.0));
+
+        assertEquals(1, snapshotRequests.size());
+    }
+
+    private static Diff diff(long first, long last, long previous, double bidPrice, double bidQty) {
+        return new Diff(first, last, previous, 0, new double[] {bidPrice, bidQty}, new double[0]);
+    }
+}
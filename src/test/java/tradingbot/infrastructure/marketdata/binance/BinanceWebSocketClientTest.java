@@ -2,13 +2,13 @@ package tradingbot.infrastructure.marketdata.binance;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import java.math.BigDecimal;
 
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,6 +20,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import tradingbot.bot.metrics.LatencyTracer;
 import tradingbot.domain.market.KlineClosedEvent;
 
 /**
@@ -55,10 +56,11 @@ class BinanceWebSocketClientTest {
 
         client.handleKlineMessage(raw, "BTCUSDT", "1m");
 
-        ArgumentCaptor<Object> payloadCaptor = ArgumentCaptor.forClass(Object.class);
-        verify(kafkaTemplate).send(eq("kline-closed.BTCUSDT"), eq("BTCUSDT"), payloadCaptor.capture());
+        ProducerRecord<String, Object> record = capturePublished();
+        assertThat(record.topic()).isEqualTo("kline-closed.BTCUSDT");
+        assertThat(record.key()).isEqualTo("BTCUSDT");
 
-        KlineClosedEvent event = (KlineClosedEvent) payloadCaptor.getValue();
+        KlineClosedEvent event = (KlineClosedEvent) record.value();
         assertThat(event.exchange()).isEqualTo("BINANCE");
         assertThat(event.symbol()).isEqualTo("BTCUSDT");
         assertThat(event.interval()).isEqualTo("1m");
@@ -76,7 +78,7 @@ class BinanceWebSocketClientTest {
 
         client.handleKlineMessage(raw, "BTCUSDT", "1m");
 
-        verify(kafkaTemplate, never()).send(any(), any(), any());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
     }
 
     @Test
@@ -86,7 +88,7 @@ class BinanceWebSocketClientTest {
 
         client.handleKlineMessage(raw, "BTCUSDT", "1m");
 
-        verify(kafkaTemplate, never()).send(any(), any(), any());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
     }
 
     @Test
@@ -96,12 +98,25 @@ class BinanceWebSocketClientTest {
 
         client.handleKlineMessage(raw, "btcusdt", "1m");
 
-        ArgumentCaptor<Object> payloadCaptor = ArgumentCaptor.forClass(Object.class);
-        verify(kafkaTemplate).send(eq("kline-closed.BTCUSDT"), eq("BTCUSDT"), payloadCaptor.capture());
-        KlineClosedEvent event = (KlineClosedEvent) payloadCaptor.getValue();
+        ProducerRecord<String, Object> record = capturePublished();
+        assertThat(record.topic()).isEqualTo("kline-closed.BTCUSDT");
+        assertThat(record.key()).isEqualTo("BTCUSDT");
+        KlineClosedEvent event = (KlineClosedEvent) record.value();
         assertThat(event.symbol()).isEqualTo("BTCUSDT");
     }
 
+    @Test
+    @DisplayName("Carries the arrival stamp in the event and the publish stamp as trace headers")
+    void handleKlineMessage_carriesTraceStamps() throws Exception {
+        client.handleKlineMessage(closedKlineJson("BTCUSDT", "1m"), "BTCUSDT", "1m", 42L);
+
+        ProducerRecord<String, Object> record = capturePublished();
+        assertThat(((KlineClosedEvent) record.value()).receivedNanos()).isEqualTo(42L);
+        assertThat(LatencyTracer.decodeLong(
+                record.headers().lastHeader(LatencyTracer.HEADER_CLOCK).value())).isEqualTo(LatencyTracer.CLOCK_ID);
+        assertThat(record.headers().lastHeader(LatencyTracer.HEADER_PUBLISHED_NANOS)).isNotNull();
+    }
+
     // -------------------------------------------------------------------------
     // subscribeKlineStream — idempotency
     // -------------------------------------------------------------------------
@@ -130,6 +145,13 @@ class BinanceWebSocketClientTest {
     // Helpers
     // -------------------------------------------------------------------------
 
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, Object> capturePublished() {
+        ArgumentCaptor<ProducerRecord<String, Object>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        return captor.getValue();
+    }
+
     private static String closedKlineJson(String symbol, String interval) {
         return """
                 {
@@ -112,7 +112,7 @@ class KlineClosedEventKafkaIntegrationTest {
         kafkaTemplate.send("kline-closed.BTCUSDT", "BTCUSDT", event);
 
         // Wait up to 10 s for the @KafkaListener to be invoked
-        verify(agentOrchestrator, timeout(10_000)).onKlineClosedEvent(any(KlineClosedEvent.class));
+        verify(agentOrchestrator, timeout(10_000)).onKlineClosedEvent(any(KlineClosedEvent.class), any(), any());
     }
 
     // -------------------------------------------------------------------------
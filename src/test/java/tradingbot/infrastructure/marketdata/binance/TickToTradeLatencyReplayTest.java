@@ -0,0 +1,180 @@
+package tradingbot.infrastructure.marketdata.binance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import tradingbot.agent.ReactiveTradingAgent;
+import tradingbot.agent.application.AgentOrchestrator;
+import tradingbot.agent.application.PerformanceTrackingService;
+import tradingbot.agent.application.strategy.LangChain4jStrategy;
+import tradingbot.agent.config.OrderExecutionGatewayRegistry;
+import tradingbot.agent.domain.execution.ExecutionResult;
+import tradingbot.agent.domain.execution.OrderExecutionGateway;
+import tradingbot.agent.domain.model.AgentDecision;
+import tradingbot.agent.domain.model.AgentDecision.Action;
+import tradingbot.agent.domain.model.AgentStatus;
+import tradingbot.agent.domain.repository.AgentRepository;
+import tradingbot.agent.infrastructure.repository.OrderRepository;
+import tradingbot.bot.metrics.LatencyTracer;
+import tradingbot.bot.metrics.LatencyTracer.Stage;
+import tradingbot.domain.market.KlineClosedEvent;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+/**
+ * Replays recorded kline frames through the kline client, the Kafka record (headers included),
+ * the real {@link AgentOrchestrator} listener and dispatch path, a stub agent that always enters
+ * and a stub gateway, then checks that every hop is traced and that the hops chain in stage order.
+ * Wall-clock budgets are deliberately not asserted: they only measure the CI machine.
+ */
+@DisplayName("Tick-to-trade latency replay")
+class TickToTradeLatencyReplayTest {
+
+    private static final int BARS = 120;
+    private static final String[] HOPS = {"published", "consumed", "dispatched", "decided", "order_sent"};
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final OrderExecutionGateway gateway = mock(OrderExecutionGateway.class);
+    private final ReactiveTradingAgent agent = mock(ReactiveTradingAgent.class);
+
+    private LatencyTracer tracer;
+    private BinanceWebSocketClient client;
+    private AgentOrchestrator orchestrator;
+
+    @BeforeEach
+    void setUp() {
+        tracer = new LatencyTracer(registry, true, Duration.ofSeconds(1), Duration.ofSeconds(10));
+        client = new BinanceWebSocketClient(kafkaTemplate, mock(CircuitBreakerRegistry.class));
+
+        when(agent.getId()).thenReturn("replay-agent");
+        when(agent.getSymbol()).thenReturn("BTCUSDT");
+        when(agent.getExchange()).thenReturn("BINANCE");
+        when(agent.getStatus()).thenReturn(AgentStatus.ACTIVE);
+        when(agent.onKlineClosed(any())).thenAnswer(inv -> Mono.fromSupplier(
+                () -> AgentDecision.of("replay-agent", "BTCUSDT", Action.BUY, 80, "replay")));
+        when(gateway.execute(any(), anyString(), anyDouble()))
+                .thenAnswer(inv -> ExecutionResult.noop(inv.getArgument(1), "replay"));
+        OrderExecutionGatewayRegistry gatewayRegistry = mock(OrderExecutionGatewayRegistry.class);
+        when(gatewayRegistry.resolve(anyString(), anyString())).thenReturn(gateway);
+
+        orchestrator = new AgentOrchestrator(
+                mock(AgentRepository.class),
+                mock(LangChain4jStrategy.class),
+                mock(ExchangeWebSocketClient.class),
+                List.of(agent),
+                BulkheadRegistry.ofDefaults(),
+                null,
+                gatewayRegistry,
+                mock(OrderRepository.class),
+                mock(PerformanceTrackingService.class),
+                mock(ApplicationEventPublisher.class),
+                null,
+                "langchain4j");
+        ReflectionTestUtils.setField(orchestrator, "latencyTracer", tracer);
+    }
+
+    @Test
+    @DisplayName("Every hop of a replayed kline is traced, in stage order")
+    void replayedKlinesTraceEveryHopInOrder() throws Exception {
+        // Deliver each record to the listener as the partition consumer would: one at a time
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+            ProducerRecord<String, Object> record = inv.getArgument(0);
+            long finished = tickToTrade().count();
+            orchestrator.onKlineClosedEvent((KlineClosedEvent) record.value(),
+                    headerValue(record, LatencyTracer.HEADER_PUBLISHED_NANOS),
+                    headerValue(record, LatencyTracer.HEADER_CLOCK));
+            awaitTradeCount(finished + 1);
+            return null;
+        });
+
+        for (int i = 0; i < BARS; i++) {
+            client.handleKlineMessage(klineFrame(i), "BTCUSDT", "1m", System.nanoTime());
+        }
+        verify(kafkaTemplate, times(BARS)).send(any(ProducerRecord.class));
+        verify(gateway, times(BARS)).execute(any(), anyString(), anyDouble());
+
+        double hopTotal = 0;
+        for (String hop : HOPS) {
+            assertThat(timer("stage", hop).count()).as("traces through stage %s", hop).isEqualTo(BARS);
+            hopTotal += timer("stage", hop).totalTime(TimeUnit.NANOSECONDS);
+        }
+        // Negative hops are dropped by the timers, so the hops only add up to the end-to-end
+        // latency when every stage was stamped after the one before it
+        assertThat(tickToTrade().count()).isEqualTo(BARS);
+        assertThat(hopTotal).isCloseTo(tickToTrade().totalTime(TimeUnit.NANOSECONDS), within(1.0));
+        assertThat(registry.get("trading.latency.tick_to_trade").tag("outcome", "none").timer().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Records from another JVM are traced from consumption only")
+    void foreignClockIsNotTrustedAcrossProcesses() {
+        LatencyTracer.Trace trace = tracer.beginFromKafka(123L,
+                LatencyTracer.encodeLong(456L), LatencyTracer.encodeLong(LatencyTracer.CLOCK_ID + 1));
+
+        assertThat(trace.stamp(Stage.RECEIVED)).isZero();
+        trace.mark(Stage.CONSUMED).mark(Stage.DISPATCHED).finish("BTCUSDT");
+
+        assertThat(timer("stage", "published").count()).isZero();
+        assertThat(timer("stage", "dispatched").count()).isEqualTo(1);
+        assertThat(registry.get("trading.latency.tick_to_trade").tag("outcome", "none").timer().count()).isZero();
+    }
+
+    private Timer timer(String tagKey, String tagValue) {
+        return registry.get("trading.latency.stage").tag(tagKey, tagValue).timer();
+    }
+
+    private static byte[] headerValue(ProducerRecord<String, Object> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? header.value() : null;
+    }
+
+    /** Dispatch is asynchronous; waits for the orchestrator to finish the trace of the given bar. */
+    private void awaitTradeCount(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (tickToTrade().count() < expected) {
+            assertThat(System.nanoTime()).as("trace %d finished", expected).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private Timer tickToTrade() {
+        return registry.get("trading.latency.tick_to_trade").tag("outcome", "order").timer();
+    }
+
+    private static String klineFrame(int i) {
+        long open = 1_700_000_000_000L + i * 60_000L;
+        double close = 29_000 + 400 * Math.sin(i / 6.0);
+        return String.format(Locale.ROOT, """
+                {"e":"kline","E":%d,"s":"BTCUSDT","k":{"t":%d,"T":%d,"s":"BTCUSDT","i":"1m",
+                 "o":"%.2f","h":"%.2f","l":"%.2f","c":"%.2f","v":"12.5","x":true}}
+                """, open + 60_000, open, open + 59_999,
+                close - 5, close + 20, close - 20, close);
+    }
+}
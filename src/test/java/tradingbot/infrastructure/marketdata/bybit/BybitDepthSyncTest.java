@@ -0,0 +1,51 @@
+package tradingbot.infrastructure.marketdata.bybit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import tradingbot.domain.market.OrderBook;
+
+@DisplayName("BybitDepthSync Tests")
+class BybitDepthSyncTest {
+
+    private final AtomicInteger resubscribes = new AtomicInteger();
+    private final OrderBook book = new OrderBook("BYBIT_LINEAR", "BTCUSDT", 50);
+    private final BybitDepthSync sync = new BybitDepthSync(book, resubscribes::incrementAndGet);
+
+    @Test
+    @DisplayName("Deltas before the snapshot are ignored, consecutive deltas applied")
+    void appliesConsecutiveDeltas() {
+        sync.onDelta(9, 0, new double[] {100.0, 1.0}, null);
+        assertFalse(book.isSynced());
+
+        sync.onSnapshot(10, 0, new double[] {99.0, 1.0}, new double[] {101.0, 1.0});
+        sync.onDelta(11, 0, new double[] {100.0, 2.0}, null);
+        sync.onDelta(11, 0, new double[] {100.0, 7.0}, null);
+
+        assertTrue(book.isSynced());
+        assertEquals(11, book.lastUpdateId());
+        assertEquals(100.0, book.bestBid());
+        assertEquals(2.0, book.bestBidQty());
+        assertEquals(0, resubscribes.get());
+    }
+
+    @Test
+    @DisplayName("A skipped update id resets the book and resubscribes for a fresh snapshot")
+    void gapResubscribes() {
+        sync.onSnapshot(10, 0, new double[] {99.0, 1.0}, new double[] {101.0, 1.0});
+
+        sync.onDelta(13, 0, new double[] {100.0, 2.0}, null);
+
+        assertFalse(book.isSynced());
+        assertEquals(1, resubscribes.get());
+        assertEquals(1, sync.resyncs());
+
+        sync.onSnapshot(1, 0, new double[] {99.5, 1.0}, new double[] {101.0, 1.0});
+        assertTrue(book.isSynced());
+        assertEquals(99.5, book.bestBid());
+    }
+}
@@ -0,0 +1,194 @@
+package tradingbot.infrastructure.marketdata.journal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import reactor.core.publisher.Flux;
+import tradingbot.domain.market.BookTickerPayload;
+import tradingbot.domain.market.EmptyPayload;
+import tradingbot.domain.market.StreamMarketDataEvent;
+import tradingbot.domain.market.StreamMarketDataEvent.EventType;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+
+@DisplayName("TickJournal Tests")
+class TickJournalTest {
+
+    private static final String SYMBOL = "BTCUSDT";
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    @TempDir
+    Path dir;
+
+    private ExchangeWebSocketClient webSocketClient;
+    private final List<TickSide> sides = new ArrayList<>();
+    private final List<Double> prices = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        webSocketClient = mock(ExchangeWebSocketClient.class);
+        when(webSocketClient.streamTrades(SYMBOL)).thenReturn(Flux.empty());
+        when(webSocketClient.streamBookTicker(SYMBOL)).thenReturn(Flux.empty());
+    }
+
+    @Test
+    @DisplayName("Trades and both sides of each book ticker from the composite stream are journaled")
+    void journalsSubscribedStreams() throws Exception {
+        long now = System.currentTimeMillis();
+        when(webSocketClient.streamTrades(SYMBOL)).thenReturn(Flux.just(trade(now, "45000.1")));
+        when(webSocketClient.streamBookTicker(SYMBOL)).thenReturn(Flux.just(
+                bookTicker(now + 1, "45000.0", "45000.2"),
+                new StreamMarketDataEvent("BINANCE_FUTURES", SYMBOL, EventType.BOOK_TICKER,
+                        new BigDecimal("1"), BigDecimal.ZERO, Instant.ofEpochMilli(now + 2), new EmptyPayload())));
+
+        TickJournal journal = journal(1_000);
+        journal.start();
+        journal.shutdown();
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        assertEquals(3, journal.replay(SYMBOL, today, today, this::collect));
+        assertEquals(List.of(TickSide.TRADE, TickSide.BID, TickSide.ASK), sides);
+        assertEquals(List.of(45000.1, 45000.0, 45000.2), prices);
+    }
+
+    @Test
+    @DisplayName("A tick of a later day seals, compresses and replaces the current file")
+    void rollsDaily() throws Exception {
+        long day = LocalDate.now(ZoneOffset.UTC).toEpochDay() - 2;
+        TickJournal journal = journal(1_000);
+        journal.start();
+        journal.append(trade(day * DAY_MILLIS + 10, "100"));
+        journal.append(trade(day * DAY_MILLIS + 20, "101"));
+        journal.append(trade((day + 1) * DAY_MILLIS + 5, "102"));
+        journal.append(trade(day * DAY_MILLIS + 30, "99")); // late tick stays in the current file
+        journal.shutdown();
+
+        LocalDate first = LocalDate.ofEpochDay(day);
+        assertEquals(List.of(dir.resolve(SYMBOL).resolve(first + ".0.tj.gz")), journal.files(SYMBOL, first));
+        assertEquals(List.of(dir.resolve(SYMBOL).resolve(first.plusDays(1) + ".0.tj")),
+                journal.files(SYMBOL, first.plusDays(1)));
+        assertEquals(4, journal.replay(SYMBOL, first, first.plusDays(1), this::collect));
+        assertEquals(List.of(100.0, 101.0, 102.0, 99.0), prices);
+    }
+
+    @Test
+    @DisplayName("A full file rolls to the next part of the same day")
+    void rollsWhenFull() throws Exception {
+        long now = System.currentTimeMillis();
+        TickJournal journal = journal(3);
+        journal.start();
+        for (int i = 0; i < 7; i++) {
+            journal.append(trade(now, String.valueOf(100 + i)));
+        }
+        journal.shutdown();
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<Path> files = journal.files(SYMBOL, today);
+        assertEquals(List.of(today + ".0.tj.gz", today + ".1.tj.gz", today + ".2.tj"),
+                files.stream().map(p -> p.getFileName().toString()).toList());
+        assertEquals(7, journal.replay(SYMBOL, today, today, this::collect));
+        assertEquals(List.of(100.0, 101.0, 102.0, 103.0, 104.0, 105.0, 106.0), prices);
+        assertEquals(0, journal.dropped());
+    }
+
+    @Test
+    @DisplayName("A part compressed after it was listed is read from its .tj.gz sibling")
+    void readsPartCompressedAfterListing() throws Exception {
+        long now = System.currentTimeMillis();
+        TickJournal journal = new TickJournal(webSocketClient, dir, List.of(SYMBOL), 3, true, false,
+                Executors.newSingleThreadExecutor());
+        journal.start();
+        for (int i = 0; i < 4; i++) {
+            journal.append(trade(now, String.valueOf(100 + i)));
+        }
+        journal.shutdown();
+
+        List<Path> files = journal.files(SYMBOL, LocalDate.now(ZoneOffset.UTC));
+        assertTrue(files.get(0).toString().endsWith(".0.tj"));
+        TickJournalWriter.compress(files.get(0));
+
+        try (TickJournalReader reader = TickJournal.openPart(files.get(0))) {
+            assertEquals(3, reader.readAll(this::collect));
+        }
+        assertEquals(List.of(100.0, 101.0, 102.0), prices);
+    }
+
+    @Test
+    @DisplayName("A restart continues today's file and closes files left open on earlier days")
+    void recoversAfterRestart() throws Exception {
+        long now = System.currentTimeMillis();
+        long yesterday = now - DAY_MILLIS;
+        TickJournal first = journal(1_000);
+        first.start();
+        first.append(trade(yesterday, "1"));
+        first.shutdown();
+        TickJournal second = journal(1_000);
+        second.start();
+        second.append(trade(now, "2"));
+        second.shutdown();
+
+        TickJournal third = journal(1_000);
+        third.start();
+        third.append(trade(now + 1, "3"));
+        third.shutdown();
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate previous = today.minusDays(1);
+        assertTrue(journal(1_000).files(SYMBOL, previous).get(0).toString().endsWith(".tj.gz"));
+        assertEquals(List.of(dir.resolve(SYMBOL).resolve(today + ".0.tj")), third.files(SYMBOL, today));
+        assertEquals(3, third.replay(SYMBOL, previous, today, this::collect));
+        assertEquals(List.of(1.0, 2.0, 3.0), prices);
+    }
+
+    @Test
+    @DisplayName("An unwritable directory drops ticks without failing the stream")
+    void dropsWhenUnwritable() throws Exception {
+        TickJournal journal = journal(10);
+        journal.start();
+        Files.writeString(dir.resolve(SYMBOL), "not a directory");
+
+        journal.append(trade(System.currentTimeMillis(), "1"));
+        journal.append(trade(System.currentTimeMillis(), "2"));
+        journal.shutdown();
+
+        assertEquals(2, journal.dropped());
+    }
+
+    // ── helpers ────────────────────────────────────────────────────────────────
+
+    private TickJournal journal(long recordsPerFile) {
+        return new TickJournal(webSocketClient, dir, List.of(SYMBOL), recordsPerFile, true, true,
+                Executors.newSingleThreadExecutor());
+    }
+
+    private void collect(long timestamp, double price, double quantity, TickSide side, String exchange) {
+        sides.add(side);
+        prices.add(price);
+    }
+
+    private static StreamMarketDataEvent trade(long timestamp, String price) {
+        return new StreamMarketDataEvent("BINANCE_FUTURES", SYMBOL, EventType.TRADE, new BigDecimal(price),
+                new BigDecimal("0.01"), Instant.ofEpochMilli(timestamp), new EmptyPayload());
+    }
+
+    private static StreamMarketDataEvent bookTicker(long timestamp, String bid, String ask) {
+        return new StreamMarketDataEvent("BINANCE_FUTURES", SYMBOL, EventType.BOOK_TICKER, new BigDecimal(ask),
+                BigDecimal.ZERO, Instant.ofEpochMilli(timestamp),
+                new BookTickerPayload(new BigDecimal(bid), new BigDecimal(ask)));
+    }
+}
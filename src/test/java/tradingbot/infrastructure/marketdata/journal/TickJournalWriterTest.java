@@ -0,0 +1,172 @@
+package tradingbot.infrastructure.marketdata.journal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("TickJournalWriter / TickJournalReader Tests")
+class TickJournalWriterTest {
+
+    private static final String SYMBOL = "BTCUSDT";
+    private static final long DAY = 20_000;
+    private static final long T0 = DAY * TimeUnit.DAYS.toMillis(1);
+
+    @TempDir
+    Path dir;
+
+    record Tick(long timestamp, double price, double quantity, TickSide side, String exchange) { }
+
+    @Test
+    @DisplayName("Records read back exactly as written, with their exchange names")
+    void roundTrip() throws Exception {
+        Path file = dir.resolve("j.tj");
+        try (TickJournalWriter writer = TickJournalWriter.open(file, SYMBOL, DAY, 100)) {
+            writer.append(T0, 45_000.1, 0.003, TickSide.TRADE, "BINANCE_FUTURES");
+            writer.append(T0 + 1, 45_000.0, 0, TickSide.BID, "BYBIT_LINEAR");
+            writer.append(T0 + 1, 45_000.2, 0, TickSide.ASK, "BYBIT_LINEAR");
+            assertEquals(3, writer.count());
+        }
+
+        try (TickJournalReader reader = TickJournalReader.open(file)) {
+            assertEquals(SYMBOL, reader.symbol());
+            assertEquals(DAY, reader.epochDay());
+            assertEquals(List.of(
+                    new Tick(T0, 45_000.1, 0.003, TickSide.TRADE, "BINANCE_FUTURES"),
+                    new Tick(T0 + 1, 45_000.0, 0, TickSide.BID, "BYBIT_LINEAR"),
+                    new Tick(T0 + 1, 45_000.2, 0, TickSide.ASK, "BYBIT_LINEAR")), readAll(reader));
+            assertFalse(reader.isFinished(), "not sealed yet");
+        }
+    }
+
+    @Test
+    @DisplayName("A full file refuses appends without writing")
+    void fullFile() throws Exception {
+        try (TickJournalWriter writer = TickJournalWriter.open(dir.resolve("j.tj"), SYMBOL, DAY, 2)) {
+            assertTrue(writer.append(T0, 1, 1, TickSide.TRADE, "X"));
+            assertTrue(writer.append(T0, 2, 1, TickSide.TRADE, "X"));
+            assertFalse(writer.append(T0, 3, 1, TickSide.TRADE, "X"));
+            assertEquals(2, writer.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Reopening continues after the last committed record")
+    void reopenContinues() throws Exception {
+        Path file = dir.resolve("j.tj");
+        try (TickJournalWriter writer = TickJournalWriter.open(file, SYMBOL, DAY, 10)) {
+            writer.append(T0, 1, 1, TickSide.TRADE, "A");
+        }
+        try (TickJournalWriter writer = TickJournalWriter.open(file, SYMBOL, DAY, 10)) {
+            assertEquals(1, writer.count());
+            writer.append(T0 + 1, 2, 1, TickSide.TRADE, "B");
+            writer.append(T0 + 2, 3, 1, TickSide.TRADE, "A");
+            writer.seal();
+        }
+
+        try (TickJournalReader reader = TickJournalReader.open(file)) {
+            List<Tick> ticks = readAll(reader);
+            assertEquals(List.of("A", "B", "A"), ticks.stream().map(Tick::exchange).toList());
+            assertTrue(reader.isFinished());
+        }
+        assertThrows(IllegalStateException.class, () -> TickJournalWriter.open(file, SYMBOL, DAY, 10));
+        assertThrows(IllegalStateException.class, () -> TickJournalWriter.open(file, "ETHUSDT", DAY, 10));
+    }
+
+    @Test
+    @DisplayName("A reader tails a file while it is written and finishes after the seal")
+    void tailsConcurrently() throws Exception {
+        int total = 200_000;
+        Path file = dir.resolve("j.tj");
+        TickJournalWriter writer = TickJournalWriter.open(file, SYMBOL, DAY, total);
+        CountDownLatch opened = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long[] seen = new long[1];
+
+        Thread tailer = new Thread(() -> {
+            try (TickJournalReader reader = TickJournalReader.open(file)) {
+                opened.countDown();
+                while (!reader.isFinished()) {
+                    reader.read((ts, price, qty, side, exchange) -> {
+                        if (ts != T0 + seen[0] || price != seen[0]) {
+                            throw new AssertionError("record " + seen[0] + " read as " + ts + "/" + price);
+                        }
+                        seen[0]++;
+                    }, 1_000);
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+                opened.countDown();
+            }
+        });
+        tailer.start();
+        assertTrue(opened.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < total; i++) {
+            writer.append(T0 + i, i, 1, TickSide.TRADE, i % 2 == 0 ? "A" : "B");
+        }
+        writer.seal();
+        writer.close();
+        tailer.join(TimeUnit.SECONDS.toMillis(30));
+
+        assertNull(failure.get());
+        assertEquals(total, seen[0]);
+    }
+
+    @Test
+    @DisplayName("A compressed file reads back the same records and replaces the live file")
+    void compressedMatchesLive() throws Exception {
+        Path file = dir.resolve("2024-10-04.0.tj");
+        try (TickJournalWriter writer = TickJournalWriter.open(file, SYMBOL, DAY, 10_000)) {
+            for (int i = 0; i < 5_000; i++) {
+                writer.append(T0 + i, 100 + i * 0.5, i, i % 3 == 0 ? TickSide.TRADE : TickSide.BID,
+                        i % 5 == 0 ? "A" : "B");
+            }
+            writer.seal();
+        }
+        List<Tick> live;
+        try (TickJournalReader reader = TickJournalReader.open(file)) {
+            live = readAll(reader);
+        }
+
+        Path compressed = TickJournalWriter.compress(file);
+
+        assertEquals("2024-10-04.0.tj.gz", compressed.getFileName().toString());
+        assertFalse(Files.exists(file));
+        assertTrue(Files.size(compressed) < 5_000L * 32);
+        try (TickJournalReader reader = TickJournalReader.open(compressed)) {
+            assertEquals(SYMBOL, reader.symbol());
+            List<Tick> read = new ArrayList<>();
+            // small batches cross the reader's internal chunk boundaries
+            while (reader.read((ts, p, q, s, e) -> read.add(new Tick(ts, p, q, s, e)), 777) > 0) {
+                // keep reading
+            }
+            assertEquals(live, read);
+            assertTrue(reader.isFinished());
+        }
+    }
+
+    @Test
+    @DisplayName("Names that do not fit the header are rejected")
+    void rejectsLongNames() throws Exception {
+        try (TickJournalWriter writer = TickJournalWriter.open(dir.resolve("j.tj"), SYMBOL, DAY, 10)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(T0, 1, 1, TickSide.TRADE, "X".repeat(40)));
+            assertEquals(0, writer.count());
+        }
+    }
+
+    private static List<Tick> readAll(TickJournalReader reader) {
+        List<Tick> ticks = new ArrayList<>();
+        reader.readAll((ts, price, qty, side, exchange) -> ticks.add(new Tick(ts, price, qty, side, exchange)));
+        return ticks;
+    }
+}
@@ -0,0 +1,477 @@
+package tradingbot.infrastructure.marketdata.synthetic;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.websocket.WebsocketInbound;
+import reactor.netty.http.websocket.WebsocketOutbound;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Local WebSocket server that impersonates the Binance Futures and Bybit V5 public market data
+ * endpoints, streaming prices from a {@link SyntheticPriceGenerator}.
+ *
+ * <ul>
+ *   <li><b>Binance</b> on {@code /stream}: combined-stream {@code SUBSCRIBE} / {@code UNSUBSCRIBE}
+ *       requests, {@code <symbol>@aggTrade} and {@code <symbol>@bookTicker} streams, frames wrapped
+ *       as {@code {"stream":...,"data":...}}. Point {@code exchange.binance.ws.base-url} at
+ *       {@link #binanceBaseUrl()}.</li>
+ *   <li><b>Bybit</b> on every other path: {@code {"op":"subscribe","args":[...]}} requests, ping /
+ *       pong, {@code publicTrade.<SYMBOL>} and {@code orderbook.1.<SYMBOL>} topics. Point
+ *       {@code exchange.bybit.ws.base-url} at {@link #bybitBaseUrl()}.</li>
+ * </ul>
+ *
+ * <p>A driver thread advances the generator {@link #setTicksPerSecond ticks-per-second} times a
+ * second and sends one trade and one top-of-book frame per subscribed symbol and stream on each
+ * tick. Each tick moves simulated time by {@code timeScale / ticksPerSecond} seconds, so a time
+ * scale above 1 compresses hours of market into minutes. Every connection has a bounded send
+ * queue; frames that do not fit are dropped and counted in {@link #framesDropped()}, so a client
+ * that cannot keep up shows as loss rather than server memory growth. Depth streams are
+ * acknowledged but not served.
+ */
+public final class SyntheticExchangeServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticExchangeServer.class);
+
+    private static final String BINANCE_PATH = "/stream";
+    private static final int SEND_QUEUE_CAPACITY = 1 << 16;
+    /** A driver further behind schedule than this skips ahead instead of bursting. */
+    private static final long MAX_LAG_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final SyntheticPriceGenerator generator;
+    private final double spreadBps;
+    private final double timeScale;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, List<Connection>> binanceSubscribers = new ConcurrentHashMap<>();
+    private final Map<String, List<Connection>> bybitSubscribers = new ConcurrentHashMap<>();
+    private final String[] binanceTradeStreams;
+    private final String[] binanceBookStreams;
+    private final String[] bybitTradeTopics;
+    private final String[] bybitBookTopics;
+    private final int[] priceDecimals;
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong connectionIds = new AtomicLong();
+    private long tradeId;
+    private long bookUpdateId;
+
+    private volatile double ticksPerSecond;
+    private volatile boolean running;
+    private DisposableServer server;
+    private Thread driver;
+
+    /**
+     * @param ticksPerSecond initial tick rate per symbol
+     * @param spreadBps      quoted spread around the generated price
+     * @param timeScale      simulated seconds per wall-clock second
+     */
+    public SyntheticExchangeServer(SyntheticPriceGenerator generator, double ticksPerSecond,
+                                   double spreadBps, double timeScale) {
+        this.generator = generator;
+        this.ticksPerSecond = ticksPerSecond;
+        this.spreadBps = spreadBps;
+        this.timeScale = timeScale;
+        int n = generator.symbolCount();
+        this.binanceTradeStreams = new String[n];
+        this.binanceBookStreams = new String[n];
+        this.bybitTradeTopics = new String[n];
+        this.bybitBookTopics = new String[n];
+        this.priceDecimals = new int[n];
+        for (int i = 0; i < n; i++) {
+            String symbol = generator.symbol(i);
+            String lower = symbol.toLowerCase(Locale.ROOT);
+            binanceTradeStreams[i] = lower + "@aggTrade";
+            binanceBookStreams[i] = lower + "@bookTicker";
+            bybitTradeTopics[i] = "publicTrade." + symbol;
+            bybitBookTopics[i] = "orderbook.1." + symbol;
+            double price = generator.price(i);
+            priceDecimals[i] = price >= 1_000 ? 1 : price >= 10 ? 2 : price >= 0.1 ? 4 : 6;
+        }
+    }
+
+    /** Binds to {@code port} on the loopback interface (0 for any free port) and starts streaming. */
+    public SyntheticExchangeServer start(int port) {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(port)
+                .handle((request, response) -> request.uri().startsWith(BINANCE_PATH)
+                        ? response.sendWebsocket(this::binance)
+                        : response.sendWebsocket(this::bybit))
+                .bindNow();
+        running = true;
+        driver = new Thread(this::drive, "synthetic-exchange");
+        driver.setDaemon(true);
+        driver.start();
+        log.info("Synthetic exchange listening on port {} ({} symbols, {} ticks/s)",
+                server.port(), generator.symbolCount(), ticksPerSecond);
+        return this;
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    /** Value for {@code exchange.binance.ws.base-url}; the adapter appends {@code /stream}. */
+    public String binanceBaseUrl() {
+        return "ws://127.0.0.1:" + port();
+    }
+
+    /** Value for {@code exchange.bybit.ws.base-url}. */
+    public String bybitBaseUrl() {
+        return "ws://127.0.0.1:" + port() + "/";
+    }
+
+    /** Changes the per-symbol tick rate of a running server, e.g. to ramp load. */
+    public void setTicksPerSecond(double ticksPerSecond) {
+        this.ticksPerSecond = ticksPerSecond;
+    }
+
+    public double ticksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public long ticks() {
+        return ticks.get();
+    }
+
+    public long framesSent() {
+        return framesSent.get();
+    }
+
+    public long framesDropped() {
+        return framesDropped.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (driver != null) {
+            driver.interrupt();
+        }
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Connections
+    // -------------------------------------------------------------------------
+
+    private Mono<Void> binance(WebsocketInbound in, WebsocketOutbound out) {
+        Connection connection = new Connection();
+        in.aggregateFrames()
+                .receive()
+                .asString()
+                .doFinally(signal -> connection.unsubscribeAll(binanceSubscribers))
+                .subscribe(frame -> onBinanceFrame(connection, frame), e -> { });
+        return out.sendString(connection.outbound.asFlux()).then();
+    }
+
+    private Mono<Void> bybit(WebsocketInbound in, WebsocketOutbound out) {
+        Connection connection = new Connection();
+        in.aggregateFrames()
+                .receive()
+                .asString()
+                .doFinally(signal -> connection.unsubscribeAll(bybitSubscribers))
+                .subscribe(frame -> onBybitFrame(connection, frame), e -> { });
+        return out.sendString(connection.outbound.asFlux()).then();
+    }
+
+    private void onBinanceFrame(Connection connection, String frame) {
+        JsonNode request = parse(frame);
+        if (request == null || !request.has("method")) {
+            return;
+        }
+        boolean subscribe = "SUBSCRIBE".equals(request.path("method").asText());
+        for (JsonNode stream : request.path("params")) {
+            String name = stream.asText();
+            if (subscribe) {
+                connection.subscribe(binanceSubscribers, name);
+            } else {
+                connection.unsubscribe(binanceSubscribers, name);
+            }
+        }
+        connection.send("{\"result\":null,\"id\":" + request.path("id").asLong() + "}");
+    }
+
+    private void onBybitFrame(Connection connection, String frame) {
+        JsonNode request = parse(frame);
+        if (request == null) {
+            return;
+        }
+        String op = request.path("op").asText();
+        String reqId = request.path("req_id").asText("");
+        switch (op) {
+            case "subscribe", "unsubscribe" -> {
+                for (JsonNode topic : request.path("args")) {
+                    if ("subscribe".equals(op)) {
+                        connection.subscribe(bybitSubscribers, topic.asText());
+                    } else {
+                        connection.unsubscribe(bybitSubscribers, topic.asText());
+                    }
+                }
+                connection.send("{\"success\":true,\"ret_msg\":\"\",\"conn_id\":\"" + connection.id
+                        + "\",\"req_id\":\"" + reqId + "\",\"op\":\"" + op + "\"}");
+            }
+            case "ping" -> connection.send("{\"success\":true,\"ret_msg\":\"pong\",\"conn_id\":\"" + connection.id
+                    + "\",\"req_id\":\"" + reqId + "\",\"op\":\"ping\"}");
+            default -> { }
+        }
+    }
+
+    private JsonNode parse(String frame) {
+        try {
+            return objectMapper.readTree(frame);
+        } catch (Exception e) {
+            log.debug("Ignoring malformed frame: {}", frame);
+            return null;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Driver
+    // -------------------------------------------------------------------------
+
+    private void drive() {
+        long next = System.nanoTime();
+        while (running) {
+            double rate = ticksPerSecond;
+            if (!(rate > 0)) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                next = System.nanoTime();
+                continue;
+            }
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            long now = System.nanoTime();
+            long wait = next - now;
+            if (wait > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(wait - SPIN_THRESHOLD_NANOS);
+                continue;
+            }
+            if (wait > 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (-wait > MAX_LAG_NANOS) {
+                next = now; // too far behind to catch up; measure the rate actually achieved instead
+            }
+            tick(timeScale / rate);
+            next += interval;
+        }
+    }
+
+    private void tick(double dtSeconds) {
+        generator.step(dtSeconds);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < binanceTradeStreams.length; i++) {
+            List<Connection> binanceTrades = binanceSubscribers.get(binanceTradeStreams[i]);
+            List<Connection> binanceBooks = binanceSubscribers.get(binanceBookStreams[i]);
+            List<Connection> bybitTrades = bybitSubscribers.get(bybitTradeTopics[i]);
+            List<Connection> bybitBooks = bybitSubscribers.get(bybitBookTopics[i]);
+            if (binanceTrades == null && binanceBooks == null && bybitTrades == null && bybitBooks == null) {
+                continue;
+            }
+            Quote quote = quote(i);
+            if (binanceTrades != null) {
+                broadcast(binanceTrades, binanceAggTrade(i, quote, now));
+            }
+            if (binanceBooks != null) {
+                broadcast(binanceBooks, binanceBookTicker(i, quote, now));
+            }
+            if (bybitTrades != null) {
+                broadcast(bybitTrades, bybitPublicTrade(i, quote, now));
+            }
+            if (bybitBooks != null) {
+                broadcast(bybitBooks, bybitOrderBook(i, quote, now));
+            }
+        }
+        ticks.incrementAndGet();
+    }
+
+    private void broadcast(List<Connection> connections, String frame) {
+        for (Connection connection : connections) {
+            connection.send(frame);
+        }
+    }
+
+    private Quote quote(int i) {
+        double price = generator.price(i);
+        double half = price * spreadBps / 20_000;
+        double scale = Math.pow(10, priceDecimals[i]);
+        double tick = 1 / scale;
+        double bid = Math.floor((price - half) * scale) / scale;
+        double ask = Math.max(bid + tick, Math.ceil((price + half) * scale) / scale);
+        boolean buyerAggressor = (tradeId & 1) == 0;
+        double quantity = 0.001 * (1 + (Long.hashCode(tradeId * 0x9E3779B97F4A7C15L) & 1023));
+        return new Quote(buyerAggressor ? ask : bid, quantity, bid, ask, buyerAggressor, ++tradeId, ++bookUpdateId);
+    }
+
+    private record Quote(double price, double quantity, double bid, double ask, boolean buyerAggressor,
+                         long tradeId, long updateId) { }
+
+    // -------------------------------------------------------------------------
+    // Frames
+    // -------------------------------------------------------------------------
+
+    private String binanceAggTrade(int i, Quote q, long now) {
+        StringBuilder sb = new StringBuilder(224);
+        sb.append("{\"stream\":\"").append(binanceTradeStreams[i])
+                .append("\",\"data\":{\"e\":\"aggTrade\",\"E\":").append(now)
+                .append(",\"s\":\"").append(generator.symbol(i))
+                .append("\",\"a\":").append(q.tradeId())
+                .append(",\"p\":\"");
+        appendDecimal(sb, q.price(), priceDecimals[i]);
+        sb.append("\",\"q\":\"");
+        appendDecimal(sb, q.quantity(), 3);
+        sb.append("\",\"f\":").append(q.tradeId())
+                .append(",\"l\":").append(q.tradeId())
+                .append(",\"T\":").append(now)
+                .append(",\"m\":").append(!q.buyerAggressor())
+                .append("}}");
+        return sb.toString();
+    }
+
+    private String binanceBookTicker(int i, Quote q, long now) {
+        StringBuilder sb = new StringBuilder(224);
+        sb.append("{\"stream\":\"").append(binanceBookStreams[i])
+                .append("\",\"data\":{\"e\":\"bookTicker\",\"u\":").append(q.updateId())
+                .append(",\"s\":\"").append(generator.symbol(i))
+                .append("\",\"b\":\"");
+        appendDecimal(sb, q.bid(), priceDecimals[i]);
+        sb.append("\",\"B\":\"");
+        appendDecimal(sb, q.quantity() * 7, 3);
+        sb.append("\",\"a\":\"");
+        appendDecimal(sb, q.ask(), priceDecimals[i]);
+        sb.append("\",\"A\":\"");
+        appendDecimal(sb, q.quantity() * 5, 3);
+        sb.append("\",\"T\":").append(now)
+                .append(",\"E\":").append(now)
+                .append("}}");
+        return sb.toString();
+    }
+
+    private String bybitPublicTrade(int i, Quote q, long now) {
+        StringBuilder sb = new StringBuilder(224);
+        sb.append("{\"topic\":\"").append(bybitTradeTopics[i])
+                .append("\",\"type\":\"snapshot\",\"ts\":").append(now)
+                .append(",\"data\":[{\"T\":").append(now)
+                .append(",\"s\":\"").append(generator.symbol(i))
+                .append("\",\"S\":\"").append(q.buyerAggressor() ? "Buy" : "Sell")
+                .append("\",\"v\":\"");
+        appendDecimal(sb, q.quantity(), 3);
+        sb.append("\",\"p\":\"");
+        appendDecimal(sb, q.price(), priceDecimals[i]);
+        sb.append("\",\"i\":\"").append(q.tradeId())
+                .append("\",\"BT\":false}]}");
+        return sb.toString();
+    }
+
+    private String bybitOrderBook(int i, Quote q, long now) {
+        StringBuilder sb = new StringBuilder(224);
+        sb.append("{\"topic\":\"").append(bybitBookTopics[i])
+                .append("\",\"type\":\"snapshot\",\"ts\":").append(now)
+                .append(",\"data\":{\"s\":\"").append(generator.symbol(i))
+                .append("\",\"b\":[[\"");
+        appendDecimal(sb, q.bid(), priceDecimals[i]);
+        sb.append("\",\"");
+        appendDecimal(sb, q.quantity() * 7, 3);
+        sb.append("\"]],\"a\":[[\"");
+        appendDecimal(sb, q.ask(), priceDecimals[i]);
+        sb.append("\",\"");
+        appendDecimal(sb, q.quantity() * 5, 3);
+        sb.append("\"]],\"u\":").append(q.updateId())
+                .append(",\"seq\":").append(q.updateId())
+                .append("},\"cts\":").append(now)
+                .append('}');
+        return sb.toString();
+    }
+
+    /** Appends {@code value} rounded to {@code decimals} places without going through {@code BigDecimal}. */
+    static void appendDecimal(StringBuilder sb, double value, int decimals) {
+        long scale = 1;
+        for (int d = 0; d < decimals; d++) {
+            scale *= 10;
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            sb.append('-');
+        }
+        sb.append(scaled / scale);
+        if (decimals > 0) {
+            sb.append('.');
+            String fraction = Long.toString(scaled % scale);
+            for (int pad = decimals - fraction.length(); pad > 0; pad--) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+    }
+
+    /** One client socket; {@link #send} is called from the driver and from the inbound handler. */
+    private final class Connection {
+        final long id = connectionIds.incrementAndGet();
+        final Sinks.Many<String> outbound =
+                Sinks.many().unicast().onBackpressureBuffer(Queues.<String>get(SEND_QUEUE_CAPACITY).get());
+        final ReentrantLock sendLock = new ReentrantLock();
+        final Set<String> streams = ConcurrentHashMap.newKeySet();
+
+        void send(String frame) {
+            Sinks.EmitResult result;
+            sendLock.lock();
+            try {
+                result = outbound.tryEmitNext(frame);
+            } finally {
+                sendLock.unlock();
+            }
+            if (result.isSuccess()) {
+                framesSent.incrementAndGet();
+            } else {
+                framesDropped.incrementAndGet();
+            }
+        }
+
+        void subscribe(Map<String, List<Connection>> registry, String stream) {
+            if (streams.add(stream)) {
+                registry.computeIfAbsent(stream, s -> new CopyOnWriteArrayList<>()).add(this);
+            }
+        }
+
+        void unsubscribe(Map<String, List<Connection>> registry, String stream) {
+            if (streams.remove(stream)) {
+                registry.computeIfPresent(stream, (s, list) -> {
+                    list.remove(this);
+                    return list.isEmpty() ? null : list;
+                });
+            }
+        }
+
+        void unsubscribeAll(Map<String, List<Connection>> registry) {
+            for (String stream : List.copyOf(streams)) {
+                unsubscribe(registry, stream);
+            }
+            outbound.tryEmitComplete();
+        }
+    }
+}
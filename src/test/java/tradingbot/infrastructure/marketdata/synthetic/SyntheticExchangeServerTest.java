@@ -0,0 +1,135 @@
+package tradingbot.infrastructure.marketdata.synthetic;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+@DisplayName("SyntheticExchangeServer Tests")
+class SyntheticExchangeServerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private SyntheticExchangeServer server;
+
+    @BeforeEach
+    void setUp() {
+        SyntheticPriceGenerator generator = SyntheticPriceGenerator.builder()
+                .symbol("BTCUSDT", 50_000)
+                .symbol("ETHUSDT", 3_000)
+                .correlation(0.7)
+                .build();
+        server = new SyntheticExchangeServer(generator, 200, 2, 1).start(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Binance combined-stream subscriptions are acknowledged and streamed")
+    void streamsBinanceFrames() throws Exception {
+        List<String> frames = receive(server.binanceBaseUrl() + "/stream",
+                "{\"method\":\"SUBSCRIBE\",\"params\":[\"btcusdt@aggTrade\",\"btcusdt@bookTicker\"],\"id\":7}", 6);
+
+        JsonNode ack = mapper.readTree(frames.get(0));
+        assertTrue(ack.get("result").isNull());
+        assertEquals(7, ack.get("id").asLong());
+
+        for (String frame : frames.subList(1, frames.size())) {
+            JsonNode envelope = mapper.readTree(frame);
+            JsonNode data = envelope.get("data");
+            assertEquals("BTCUSDT", data.get("s").asText());
+            if ("btcusdt@aggTrade".equals(envelope.get("stream").asText())) {
+                assertEquals("aggTrade", data.get("e").asText());
+                assertTrue(Double.parseDouble(data.get("p").asText()) > 0);
+                assertTrue(data.get("m").isBoolean());
+            } else {
+                assertEquals("btcusdt@bookTicker", envelope.get("stream").asText());
+                assertTrue(Double.parseDouble(data.get("b").asText()) < Double.parseDouble(data.get("a").asText()));
+            }
+        }
+        assertTrue(server.framesSent() >= frames.size());
+    }
+
+    @Test
+    @DisplayName("Bybit topic subscriptions are acknowledged and streamed")
+    void streamsBybitFrames() throws Exception {
+        List<String> frames = receive(server.bybitBaseUrl() + "v5/public/linear",
+                "{\"op\":\"subscribe\",\"args\":[\"publicTrade.ETHUSDT\",\"orderbook.1.ETHUSDT\"]}", 6);
+
+        JsonNode ack = mapper.readTree(frames.get(0));
+        assertEquals("subscribe", ack.get("op").asText());
+        assertTrue(ack.get("success").asBoolean());
+
+        for (String frame : frames.subList(1, frames.size())) {
+            JsonNode message = mapper.readTree(frame);
+            String topic = message.get("topic").asText();
+            if ("publicTrade.ETHUSDT".equals(topic)) {
+                JsonNode trade = message.get("data").get(0);
+                assertEquals("ETHUSDT", trade.get("s").asText());
+                assertTrue(List.of("Buy", "Sell").contains(trade.get("S").asText()));
+                assertTrue(Double.parseDouble(trade.get("p").asText()) > 0);
+            } else {
+                assertEquals("orderbook.1.ETHUSDT", topic);
+                JsonNode book = message.get("data");
+                double bid = Double.parseDouble(book.get("b").get(0).get(0).asText());
+                double ask = Double.parseDouble(book.get("a").get(0).get(0).asText());
+                assertTrue(bid < ask);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Nothing is streamed for symbols without subscribers")
+    void streamsOnlySubscribedSymbols() throws Exception {
+        List<String> frames = receive(server.binanceBaseUrl() + "/stream",
+                "{\"method\":\"SUBSCRIBE\",\"params\":[\"ethusdt@aggTrade\"],\"id\":1}", 4);
+
+        for (String frame : frames.subList(1, frames.size())) {
+            assertEquals("ethusdt@aggTrade", mapper.readTree(frame).get("stream").asText());
+        }
+        assertTrue(server.ticks() > 0);
+    }
+
+    @Test
+    @DisplayName("Decimals are formatted without scientific notation")
+    void formatsDecimals() {
+        assertEquals("50000.1", format(50_000.12, 1));
+        assertEquals("0.000123", format(0.000123, 6));
+        assertEquals("1.050", format(1.05, 3));
+        assertEquals("-2.50", format(-2.5, 2));
+        assertEquals("7", format(7.2, 0));
+    }
+
+    private List<String> receive(String url, String request, int count) {
+        return HttpClient.create()
+                .websocket()
+                .uri(url)
+                .handle((in, out) -> out.sendString(Mono.just(request))
+                        .then()
+                        .thenMany(in.receive().asString()))
+                .take(count)
+                .collectList()
+                .block(TIMEOUT);
+    }
+
+    private static String format(double value, int decimals) {
+        StringBuilder sb = new StringBuilder();
+        SyntheticExchangeServer.appendDecimal(sb, value, decimals);
+        return sb.toString();
+    }
+}
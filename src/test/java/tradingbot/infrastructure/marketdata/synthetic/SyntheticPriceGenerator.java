@@ -0,0 +1,288 @@
+package tradingbot.infrastructure.marketdata.synthetic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Correlated multi-symbol price paths: geometric Brownian motion with Merton jumps, under a
+ * market-wide regime that switches at random.
+ *
+ * <p>Per step of {@code dt} years, each symbol moves by
+ * {@code exp((mu - sigma²/2 - lambda·k)·dt + sigma·sqrt(dt)·z + J)}, where {@code z} are standard
+ * normals correlated through the Cholesky factor of the correlation matrix, {@code J} is the sum
+ * of a Poisson({@code lambda·dt}) number of normal log-jumps, and {@code k} is the mean relative
+ * jump size, so jumps do not shift the drift. {@code mu}, {@code sigma} and the jump parameters
+ * come from the current {@link Regime}, which is left with probability
+ * {@code 1 - exp(-dt / meanDuration)} each step for another regime chosen uniformly.
+ *
+ * <p>Rates are annualised over a 24/7 year. Deterministic for a given seed; {@link #step} does
+ * not allocate. Not thread-safe.
+ */
+public final class SyntheticPriceGenerator {
+
+    public static final double SECONDS_PER_YEAR = 365.0 * 24 * 60 * 60;
+
+    /**
+     * Market regime.
+     *
+     * @param drift               annualised drift {@code mu}
+     * @param volatility          annualised volatility {@code sigma}
+     * @param jumpsPerYear        jump intensity {@code lambda}
+     * @param jumpMean            mean of the log-jump size
+     * @param jumpStdDev          standard deviation of the log-jump size
+     * @param meanDurationSeconds expected time before switching to another regime
+     */
+    public record Regime(String name, double drift, double volatility, double jumpsPerYear,
+                         double jumpMean, double jumpStdDev, double meanDurationSeconds) {
+
+        public Regime {
+            if (volatility < 0 || jumpsPerYear < 0 || jumpStdDev < 0 || !(meanDurationSeconds > 0)) {
+                throw new IllegalArgumentException("Invalid regime " + name);
+            }
+        }
+
+        /** Quiet market: 50% volatility, a jump about once a week, lasting an hour on average. */
+        public static Regime calm() {
+            return new Regime("calm", 0.0, 0.5, 52, 0.0, 0.01, 3_600);
+        }
+
+        /** Stressed market: 150% volatility, several mostly-down jumps a day, lasting ten minutes. */
+        public static Regime turbulent() {
+            return new Regime("turbulent", -0.5, 1.5, 2_000, -0.002, 0.008, 600);
+        }
+    }
+
+    private final String[] symbols;
+    private final double[] logPrices;
+    private final double[][] cholesky;
+    private final Regime[] regimes;
+    private final SplittableRandom random;
+    private final double[] independent;
+    private final double[] correlated;
+    private int regime;
+    private long regimeSwitches;
+    private long jumps;
+
+    private SyntheticPriceGenerator(Builder builder) {
+        int n = builder.prices.size();
+        if (n == 0) {
+            throw new IllegalArgumentException("At least one symbol is required");
+        }
+        if (builder.regimes.isEmpty()) {
+            throw new IllegalArgumentException("At least one regime is required");
+        }
+        this.symbols = builder.prices.keySet().toArray(String[]::new);
+        this.logPrices = new double[n];
+        int i = 0;
+        for (double price : builder.prices.values()) {
+            logPrices[i++] = Math.log(price);
+        }
+        double[][] correlation = builder.correlation != null
+                ? builder.correlation
+                : uniformCorrelation(n, builder.uniformCorrelation);
+        if (correlation.length != n) {
+            throw new IllegalArgumentException("Correlation matrix must be " + n + "x" + n);
+        }
+        this.cholesky = cholesky(correlation);
+        this.regimes = builder.regimes.toArray(Regime[]::new);
+        this.random = new SplittableRandom(builder.seed);
+        this.independent = new double[n];
+        this.correlated = new double[n];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Advances every symbol by {@code dtSeconds} of simulated time.
+     */
+    public void step(double dtSeconds) {
+        if (!(dtSeconds > 0)) {
+            return;
+        }
+        double dt = dtSeconds / SECONDS_PER_YEAR;
+        maybeSwitchRegime(dtSeconds);
+        Regime r = regimes[regime];
+
+        int n = logPrices.length;
+        for (int i = 0; i < n; i++) {
+            independent[i] = random.nextGaussian();
+        }
+        for (int i = 0; i < n; i++) {
+            double z = 0;
+            double[] row = cholesky[i];
+            for (int j = 0; j <= i; j++) {
+                z += row[j] * independent[j];
+            }
+            correlated[i] = z;
+        }
+
+        double lambdaDt = r.jumpsPerYear() * dt;
+        double compensator = r.jumpsPerYear()
+                * (Math.exp(r.jumpMean() + 0.5 * r.jumpStdDev() * r.jumpStdDev()) - 1);
+        double drift = (r.drift() - 0.5 * r.volatility() * r.volatility() - compensator) * dt;
+        double diffusion = r.volatility() * Math.sqrt(dt);
+        for (int i = 0; i < n; i++) {
+            double move = drift + diffusion * correlated[i];
+            for (int k = poisson(lambdaDt); k > 0; k--) {
+                move += r.jumpMean() + r.jumpStdDev() * random.nextGaussian();
+                jumps++;
+            }
+            logPrices[i] += move;
+        }
+    }
+
+    private void maybeSwitchRegime(double dtSeconds) {
+        if (regimes.length < 2) {
+            return;
+        }
+        double leave = 1 - Math.exp(-dtSeconds / regimes[regime].meanDurationSeconds());
+        if (random.nextDouble() < leave) {
+            int next = random.nextInt(regimes.length - 1);
+            regime = next >= regime ? next + 1 : next;
+            regimeSwitches++;
+        }
+    }
+
+    /** Knuth's method; fine for the small means of per-tick jump counts. */
+    private int poisson(double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int k = 0;
+        while (product > limit) {
+            k++;
+            product *= random.nextDouble();
+        }
+        return k;
+    }
+
+    public int symbolCount() {
+        return symbols.length;
+    }
+
+    public String symbol(int index) {
+        return symbols[index];
+    }
+
+    public List<String> symbols() {
+        return List.of(symbols);
+    }
+
+    public double price(int index) {
+        return Math.exp(logPrices[index]);
+    }
+
+    public Regime regime() {
+        return regimes[regime];
+    }
+
+    public long regimeSwitches() {
+        return regimeSwitches;
+    }
+
+    public long jumps() {
+        return jumps;
+    }
+
+    /** Correlation matrix with {@code rho} off the diagonal. */
+    public static double[][] uniformCorrelation(int n, double rho) {
+        if (n > 1 && (rho < -1.0 / (n - 1) || rho >= 1)) {
+            throw new IllegalArgumentException("Correlation " + rho + " is not valid for " + n + " symbols");
+        }
+        double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(matrix[i], rho);
+            matrix[i][i] = 1;
+        }
+        return matrix;
+    }
+
+    /**
+     * Lower-triangular {@code L} with {@code L·Lᵀ = matrix}.
+     *
+     * @throws IllegalArgumentException when the matrix is not symmetric positive definite
+     */
+    static double[][] cholesky(double[][] matrix) {
+        int n = matrix.length;
+        double[][] l = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            if (matrix[i].length != n) {
+                throw new IllegalArgumentException("Correlation matrix must be square");
+            }
+            for (int j = 0; j <= i; j++) {
+                if (Math.abs(matrix[i][j] - matrix[j][i]) > 1e-12) {
+                    throw new IllegalArgumentException("Correlation matrix must be symmetric");
+                }
+                double sum = matrix[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i][k] * l[j][k];
+                }
+                if (i == j) {
+                    if (sum <= 0) {
+                        throw new IllegalArgumentException("Correlation matrix is not positive definite");
+                    }
+                    l[i][i] = Math.sqrt(sum);
+                } else {
+                    l[i][j] = sum / l[j][j];
+                }
+            }
+        }
+        return l;
+    }
+
+    public static class Builder {
+        private final Map<String, Double> prices = new LinkedHashMap<>();
+        private final List<Regime> regimes = new ArrayList<>();
+        private double[][] correlation;
+        private double uniformCorrelation;
+        private long seed = 42;
+
+        public Builder symbol(String symbol, double initialPrice) {
+            if (!(initialPrice > 0)) {
+                throw new IllegalArgumentException("Initial price must be positive: " + symbol);
+            }
+            prices.put(symbol, initialPrice);
+            return this;
+        }
+
+        /** Same pairwise correlation between every two symbols (default 0). */
+        public Builder correlation(double rho) {
+            this.uniformCorrelation = rho;
+            this.correlation = null;
+            return this;
+        }
+
+        /** Full correlation matrix, in symbol order. */
+        public Builder correlation(double[][] matrix) {
+            this.correlation = matrix;
+            return this;
+        }
+
+        public Builder regime(Regime regime) {
+            regimes.add(regime);
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** Uses {@link Regime#calm()} and {@link Regime#turbulent()} when no regime was added. */
+        public SyntheticPriceGenerator build() {
+            if (regimes.isEmpty()) {
+                regimes.add(Regime.calm());
+                regimes.add(Regime.turbulent());
+            }
+            return new SyntheticPriceGenerator(this);
+        }
+    }
+}
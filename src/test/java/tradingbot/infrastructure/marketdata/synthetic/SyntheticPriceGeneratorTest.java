@@ -0,0 +1,137 @@
+package tradingbot.infrastructure.marketdata.synthetic;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import tradingbot.infrastructure.marketdata.synthetic.SyntheticPriceGenerator.Regime;
+
+@DisplayName("SyntheticPriceGenerator Tests")
+class SyntheticPriceGeneratorTest {
+
+    private static final int STEPS = 50_000;
+    private static final double DT_SECONDS = 60;
+
+    @Test
+    @DisplayName("The same seed produces the same paths")
+    void deterministicForSeed() {
+        SyntheticPriceGenerator a = twoSymbols(0.5, 7);
+        SyntheticPriceGenerator b = twoSymbols(0.5, 7);
+        SyntheticPriceGenerator c = twoSymbols(0.5, 8);
+        for (int i = 0; i < 1_000; i++) {
+            a.step(1);
+            b.step(1);
+            c.step(1);
+        }
+
+        assertEquals(a.price(0), b.price(0));
+        assertEquals(a.price(1), b.price(1));
+        assertNotEquals(a.price(0), c.price(0));
+    }
+
+    @Test
+    @DisplayName("Log returns have the regime volatility and the requested correlation")
+    void volatilityAndCorrelation() {
+        SyntheticPriceGenerator generator = SyntheticPriceGenerator.builder()
+                .symbol("BTCUSDT", 50_000)
+                .symbol("ETHUSDT", 3_000)
+                .correlation(0.8)
+                .regime(new Regime("flat", 0, 0.6, 0, 0, 0, 1))
+                .build();
+
+        double sumX = 0, sumY = 0, sumXX = 0, sumYY = 0, sumXY = 0;
+        double prevX = Math.log(generator.price(0));
+        double prevY = Math.log(generator.price(1));
+        for (int i = 0; i < STEPS; i++) {
+            generator.step(DT_SECONDS);
+            double x = Math.log(generator.price(0));
+            double y = Math.log(generator.price(1));
+            double rx = x - prevX;
+            double ry = y - prevY;
+            sumX += rx;
+            sumY += ry;
+            sumXX += rx * rx;
+            sumYY += ry * ry;
+            sumXY += rx * ry;
+            prevX = x;
+            prevY = y;
+        }
+        double varX = sumXX / STEPS - Math.pow(sumX / STEPS, 2);
+        double varY = sumYY / STEPS - Math.pow(sumY / STEPS, 2);
+        double cov = sumXY / STEPS - (sumX / STEPS) * (sumY / STEPS);
+        double annualisedVol = Math.sqrt(varX * SyntheticPriceGenerator.SECONDS_PER_YEAR / DT_SECONDS);
+
+        assertEquals(0.6, annualisedVol, 0.02);
+        assertEquals(0.8, cov / Math.sqrt(varX * varY), 0.02);
+        assertEquals(0, generator.regimeSwitches());
+    }
+
+    @Test
+    @DisplayName("Regimes switch at about their mean duration and jumps occur at their intensity")
+    void regimesAndJumps() {
+        // both regimes last 10 minutes on average; one jump an hour
+        Regime quiet = new Regime("quiet", 0, 0.2, 8_760, 0, 0.01, 600);
+        Regime wild = new Regime("wild", 0, 1.0, 8_760, 0, 0.01, 600);
+        SyntheticPriceGenerator generator = SyntheticPriceGenerator.builder()
+                .symbol("BTCUSDT", 50_000)
+                .regime(quiet)
+                .regime(wild)
+                .build();
+
+        for (int i = 0; i < STEPS; i++) {
+            generator.step(DT_SECONDS);
+        }
+        double hours = STEPS * DT_SECONDS / 3_600;
+        double expectedSwitches = STEPS * (1 - Math.exp(-DT_SECONDS / 600));
+
+        assertEquals(expectedSwitches, generator.regimeSwitches(), expectedSwitches * 0.1);
+        assertEquals(hours, generator.jumps(), hours * 0.1);
+        assertTrue(generator.price(0) > 0);
+    }
+
+    @Test
+    @DisplayName("Jumps are compensated so they do not move the expected price")
+    void jumpsAreCompensated() {
+        double sum = 0;
+        int paths = 2_000;
+        for (int p = 0; p < paths; p++) {
+            SyntheticPriceGenerator generator = SyntheticPriceGenerator.builder()
+                    .symbol("BTCUSDT", 100)
+                    .regime(new Regime("jumpy", 0, 0.1, 50_000, -0.01, 0.005, 1))
+                    .seed(p)
+                    .build();
+            for (int i = 0; i < 24; i++) {
+                generator.step(3_600);
+            }
+            sum += generator.price(0);
+        }
+
+        assertEquals(100, sum / paths, 1.0);
+    }
+
+    @Test
+    @DisplayName("Invalid correlation matrices are rejected")
+    void rejectsInvalidCorrelation() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SyntheticPriceGenerator.cholesky(new double[][] {{1, 0.5}, {0.4, 1}}));
+        assertThrows(IllegalArgumentException.class,
+                () -> SyntheticPriceGenerator.cholesky(new double[][] {{1, 1.2}, {1.2, 1}}));
+        assertThrows(IllegalArgumentException.class, () -> SyntheticPriceGenerator.uniformCorrelation(3, -0.6));
+        assertThrows(IllegalArgumentException.class, () -> SyntheticPriceGenerator.builder().build());
+
+        double[][] l = SyntheticPriceGenerator.cholesky(SyntheticPriceGenerator.uniformCorrelation(3, 0.3));
+        assertEquals(1.0, l[0][0], 1e-12);
+        assertEquals(0.3, l[1][0], 1e-12);
+        assertEquals(0.0, l[0][1], 1e-12);
+    }
+
+    private static SyntheticPriceGenerator twoSymbols(double rho, long seed) {
+        return SyntheticPriceGenerator.builder()
+                .symbol("BTCUSDT", 50_000)
+                .symbol("ETHUSDT", 3_000)
+                .correlation(rho)
+                .seed(seed)
+                .build();
+    }
+}
@@ -0,0 +1,402 @@
+package tradingbot.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import tradingbot.bot.messaging.EventTopic;
+import tradingbot.config.VirtualThreads;
+import tradingbot.infrastructure.marketdata.ExchangeWebSocketClient;
+import tradingbot.infrastructure.marketdata.FeedHealthMonitor;
+import tradingbot.infrastructure.marketdata.MarketDataSanitizer;
+import tradingbot.infrastructure.marketdata.WebSocketMarketDataService;
+import tradingbot.infrastructure.marketdata.binance.BinanceWebSocketAdapter;
+import tradingbot.infrastructure.marketdata.bybit.BybitWebSocketAdapter;
+import tradingbot.infrastructure.marketdata.synthetic.SyntheticExchangeServer;
+import tradingbot.infrastructure.marketdata.synthetic.SyntheticPriceGenerator;
+
+/**
+ * Sustained-load harness for the market data path: a {@link SyntheticExchangeServer} stands in
+ * for Binance and Bybit, and ticks flow through the real adapters, sanitizer, feed health routing
+ * and Kafka publishing into load agents that read from Kafka and write to Redis and Postgres.
+ *
+ * <p>Load ramps in stages. Stage {@code i} streams the first {@code loadtest.symbols[i]} symbols
+ * at {@code loadtest.ticks-per-second[i]} ticks per symbol with
+ * {@code loadtest.agents-per-symbol[i]} agents each, for {@code loadtest.stage-seconds}:
+ *
+ * <pre>
+ * ./gradlew loadTest -Dloadtest.symbols=4,16,64 -Dloadtest.agents-per-symbol=1,2,4 \
+ *     -Dloadtest.ticks-per-second=10,50,200 -Dloadtest.stage-seconds=60
+ * </pre>
+ *
+ * <p>Every stage reports consumed ticks and agent decisions per second, exchange-receipt to
+ * Kafka-consume and exchange-receipt to agent-done latency percentiles, server-side drops, and
+ * GC count and pause time. The report is logged and written to
+ * {@code build/reports/load-test/market-data.txt}. The assertions only check that data flowed;
+ * the numbers are for comparison between runs.
+ */
+@Tag("load")
+@Tag("requires-docker")
+@Testcontainers
+@DisplayName("Market data load test")
+class MarketDataLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketDataLoadTest.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+    private static final int DB_BATCH_SIZE = 200;
+
+    @Container
+    static final ConfluentKafkaContainer KAFKA =
+            new ConfluentKafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.4.0"));
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16")
+            .withDatabaseName("loadtest")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Container
+    static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static final int[] SYMBOLS = intList("loadtest.symbols", "2,8,32");
+    private static final int[] AGENTS_PER_SYMBOL = intList("loadtest.agents-per-symbol", "1,2,4");
+    private static final int[] TICKS_PER_SECOND = intList("loadtest.ticks-per-second", "10,50,100");
+    private static final int STAGE_SECONDS = Integer.getInteger("loadtest.stage-seconds", 20);
+
+    private static SyntheticExchangeServer exchange;
+    private static List<String> symbols;
+    private static RedisClient redisClient;
+    private static StatefulRedisConnection<String, String> redis;
+    private static Connection db;
+    /** One JDBC connection is shared by all agents, and it does not support concurrent statements. */
+    private static final ReentrantLock dbLock = new ReentrantLock();
+    private static ExecutorService agentExecutor;
+
+    @BeforeAll
+    static void startInfrastructure() throws SQLException {
+        int maxSymbols = Arrays.stream(SYMBOLS).max().orElseThrow();
+        SyntheticPriceGenerator.Builder generator = SyntheticPriceGenerator.builder().correlation(0.6);
+        for (int i = 0; i < maxSymbols; i++) {
+            generator.symbol(String.format("SYN%03dUSDT", i), 10.0 * (i + 1));
+        }
+        SyntheticPriceGenerator prices = generator.build();
+        symbols = prices.symbols();
+        exchange = new SyntheticExchangeServer(prices, TICKS_PER_SECOND[0], 2, 60).start(0);
+
+        redisClient = RedisClient.create("redis://" + REDIS.getHost() + ":" + REDIS.getMappedPort(6379));
+        redis = redisClient.connect();
+
+        db = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        try (Statement statement = db.createStatement()) {
+            statement.execute("CREATE TABLE agent_ticks (agent_id INT NOT NULL, symbol VARCHAR(32) NOT NULL, "
+                    + "price NUMERIC(24, 8) NOT NULL, event_time TIMESTAMP NOT NULL)");
+        }
+        agentExecutor = VirtualThreads.executor();
+    }
+
+    @AfterAll
+    static void stopInfrastructure() throws SQLException {
+        if (agentExecutor != null) {
+            agentExecutor.shutdownNow();
+        }
+        if (exchange != null) {
+            exchange.close();
+        }
+        if (redis != null) {
+            redis.close();
+            redisClient.shutdown();
+        }
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Ticks flow from the synthetic exchange to agents at every load stage")
+    void rampsLoad() throws Exception {
+        assertEquals(SYMBOLS.length, AGENTS_PER_SYMBOL.length, "loadtest.agents-per-symbol stages");
+        assertEquals(SYMBOLS.length, TICKS_PER_SECOND.length, "loadtest.ticks-per-second stages");
+
+        WebSocketMarketDataService marketData = marketDataService();
+        Map<String, List<LoadAgent>> agents = new ConcurrentHashMap<>();
+        List<Disposable> streams = new ArrayList<>();
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-6s %7s %7s %8s %12s %12s %10s %10s %10s %10s %8s %6s %8s",
+                "stage", "symbols", "agents", "tick/s", "consumed/s", "decisions/s",
+                "kafka p50", "agent p50", "agent p99", "agent p999", "dropped", "gc", "gc ms"));
+
+        try (KafkaConsumer<String, String> consumer = consumer()) {
+            consumer.subscribe(List.of(EventTopic.MARKET_DATA.getTopicName()));
+            int subscribed = 0;
+            int nextAgentId = 0;
+
+            for (int stage = 0; stage < SYMBOLS.length; stage++) {
+                for (; subscribed < SYMBOLS[stage]; subscribed++) {
+                    String symbol = symbols.get(subscribed);
+                    streams.add(marketData.streamTrades(symbol).subscribe(e -> { }, e -> log.warn("Stream failed", e)));
+                }
+                for (int s = 0; s < SYMBOLS[stage]; s++) {
+                    List<LoadAgent> forSymbol = agents.computeIfAbsent(symbols.get(s),
+                            k -> new ArrayList<>());
+                    while (forSymbol.size() < AGENTS_PER_SYMBOL[stage]) {
+                        forSymbol.add(new LoadAgent(nextAgentId++));
+                    }
+                }
+                exchange.setTicksPerSecond(TICKS_PER_SECOND[stage]);
+                report.add(runStage(stage, consumer, agents));
+            }
+        } finally {
+            streams.forEach(Disposable::dispose);
+        }
+
+        String text = String.join(System.lineSeparator(), report);
+        log.info("Market data load test{}{}", System.lineSeparator(), text);
+        writeReport(text);
+        assertTrue(exchange.framesSent() > 0, "synthetic exchange sent no frames");
+    }
+
+    private String runStage(int stage, KafkaConsumer<String, String> consumer,
+                            Map<String, List<LoadAgent>> agents) throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Timer kafkaLatency = Timer.builder("loadtest.kafka.latency")
+                .publishPercentiles(0.5, 0.99).register(registry);
+        Timer agentLatency = Timer.builder("loadtest.agent.latency")
+                .publishPercentiles(0.5, 0.99, 0.999).register(registry);
+        AtomicLong decisions = new AtomicLong();
+        long consumed = 0;
+        long droppedBefore = exchange.framesDropped();
+        long[] gcBefore = gcTotals();
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(STAGE_SECONDS);
+        while (System.nanoTime() < end) {
+            for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(100))) {
+                JsonNode event = readTree(record.value());
+                long receivedNanos = event.path("receivedNanos").asLong();
+                if (receivedNanos == 0) {
+                    continue;
+                }
+                kafkaLatency.record(System.nanoTime() - receivedNanos, TimeUnit.NANOSECONDS);
+                consumed++;
+                String symbol = event.path("symbol").asText();
+                BigDecimal price = event.path("price").decimalValue();
+                Instant timestamp = Instant.ofEpochMilli(record.timestamp());
+                for (LoadAgent agent : agents.getOrDefault(symbol, List.of())) {
+                    agentExecutor.execute(() -> {
+                        agent.onTick(symbol, price, timestamp);
+                        agentLatency.record(System.nanoTime() - receivedNanos, TimeUnit.NANOSECONDS);
+                        decisions.incrementAndGet();
+                    });
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long[] gcAfter = gcTotals();
+        assertTrue(consumed > 0, "stage " + stage + " consumed no ticks");
+
+        return String.format("%-6d %7d %7d %8d %12.0f %12.0f %10s %10s %10s %10s %8d %6d %8d",
+                stage, SYMBOLS[stage], SYMBOLS[stage] * AGENTS_PER_SYMBOL[stage], TICKS_PER_SECOND[stage],
+                consumed / seconds, decisions.get() / seconds,
+                percentile(kafkaLatency, 0.5), percentile(agentLatency, 0.5),
+                percentile(agentLatency, 0.99), percentile(agentLatency, 0.999),
+                exchange.framesDropped() - droppedBefore,
+                gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+    }
+
+    /**
+     * Stand-in for a trading agent: keeps its latest view in Redis and journals every tick to
+     * Postgres in batches. One agent handles one tick at a time, as the orchestrator does.
+     */
+    private static final class LoadAgent {
+        private final int id;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<Object[]> pending = new ArrayList<>(DB_BATCH_SIZE);
+
+        LoadAgent(int id) {
+            this.id = id;
+        }
+
+        void onTick(String symbol, BigDecimal price, Instant timestamp) {
+            lock.lock();
+            try {
+                RedisCommands<String, String> commands = redis.sync();
+                commands.set("loadtest:agent:" + id + ":" + symbol, price.toPlainString());
+                pending.add(new Object[] {symbol, price, Timestamp.from(timestamp)});
+                if (pending.size() >= DB_BATCH_SIZE) {
+                    flush();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void flush() {
+            dbLock.lock();
+            try (PreparedStatement insert = db.prepareStatement(
+                    "INSERT INTO agent_ticks (agent_id, symbol, price, event_time) VALUES (?, ?, ?, ?)")) {
+                for (Object[] row : pending) {
+                    insert.setInt(1, id);
+                    insert.setString(2, (String) row[0]);
+                    insert.setBigDecimal(3, (BigDecimal) row[1]);
+                    insert.setTimestamp(4, (Timestamp) row[2]);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            } catch (SQLException e) {
+                log.warn("Agent {} failed to journal {} ticks", id, pending.size(), e);
+            } finally {
+                dbLock.unlock();
+            }
+            pending.clear();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Wiring
+    // -------------------------------------------------------------------------
+
+    private static WebSocketMarketDataService marketDataService() {
+        BinanceWebSocketAdapter binance = new BinanceWebSocketAdapter();
+        ReflectionTestUtils.setField(binance, "wsBaseUrl", exchange.binanceBaseUrl());
+        ReflectionTestUtils.setField(binance, "maxStreamsPerConnection", 200);
+        ReflectionTestUtils.setField(binance, "replayDepth", 1);
+        ReflectionTestUtils.setField(binance, "orderBookMaxLevels", 1000);
+        ReflectionTestUtils.setField(binance, "depthUpdateSpeedMs", 100);
+        binance.init();
+
+        BybitWebSocketAdapter bybit = new BybitWebSocketAdapter(MAPPER, false, exchange.bybitBaseUrl(), 50, 1000, 1);
+        bybit.init();
+
+        MarketDataSanitizer sanitizer = new MarketDataSanitizer();
+        ReflectionTestUtils.setField(sanitizer, "maxSpreadPercent", 5.0);
+        FeedHealthMonitor healthMonitor = new FeedHealthMonitor(true, 2000, 50, 8, 5, 50);
+
+        WebSocketMarketDataService service = new WebSocketMarketDataService(
+                List.<ExchangeWebSocketClient>of(binance, bybit), kafkaTemplate(), sanitizer, healthMonitor, 1);
+        // publish every tick; the production default throttles to one per 500 ms per symbol
+        ReflectionTestUtils.setField(service, "kafkaPublishIntervalMs", 0L);
+        return service;
+    }
+
+    private static KafkaTemplate<String, Object> kafkaTemplate() {
+        Map<String, Object> props = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA.getBootstrapServers(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class,
+                ProducerConfig.LINGER_MS_CONFIG, 5);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    private static KafkaConsumer<String, String> consumer() {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA.getBootstrapServers());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "market-data-load-test");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return new KafkaConsumer<>(props);
+    }
+
+    // -------------------------------------------------------------------------
+    // Reporting
+    // -------------------------------------------------------------------------
+
+    private static JsonNode readTree(String json) {
+        try {
+            return MAPPER.readTree(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable market data record", e);
+        }
+    }
+
+    private static String percentile(Timer timer, double percentile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return String.format("%.2fms", value.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        return "-";
+    }
+
+    /** Collection count and accumulated collection time in milliseconds over all collectors. */
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] {count, millis};
+    }
+
+    private static void writeReport(String text) throws IOException {
+        Path dir = Path.of("build", "reports", "load-test");
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("market-data.txt"), text + System.lineSeparator());
+    }
+
+    private static int[] intList(String property, String defaults) {
+        return Arrays.stream(System.getProperty(property, defaults).split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+}
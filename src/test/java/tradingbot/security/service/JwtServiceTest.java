@@ -11,6 +11,8 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import io.jsonwebtoken.Claims;
+
 @DisplayName("JwtService")
 class JwtServiceTest {
 
@@ -182,6 +184,40 @@ class JwtServiceTest {
             assertThat(jwtService.extractUsername("not.a.jwt")).isNull();
         }
 
+        @Test
+        @DisplayName("verifiedClaims returns every claim from a single verification")
+        void verifiedClaimsReturnsAllClaims() {
+            String token = jwtService.generateAccessToken("user-1", "alice", Set.of("ROLE_USER", "ROLE_ADMIN"));
+
+            Claims claims = jwtService.verifiedClaims(token);
+
+            assertThat(claims).isNotNull();
+            assertThat(claims.getSubject()).isEqualTo("user-1");
+            assertThat(claims.get("type", String.class)).isEqualTo("access");
+            assertThat(JwtService.rolesOf(claims)).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+            assertThat(jwtService.verifiedClaims("not.a.jwt")).isNull();
+        }
+
+        @Test
+        @DisplayName("accepts tokens signed with a previous secret during rotation")
+        void acceptsPreviousSecretDuringRotation() {
+            String oldSecret = "previous-secret-that-is-long-enough-1234";
+            JwtService old = new JwtService();
+            ReflectionTestUtils.setField(old, "jwtSecret", oldSecret);
+            ReflectionTestUtils.setField(old, "accessTokenExpiration", 3_600_000L);
+            ReflectionTestUtils.setField(old, "refreshTokenExpiration", 86_400_000L);
+            ReflectionTestUtils.setField(old, "issuer", "simple-trading-bot");
+            String tokenFromOld = old.generateAccessToken("user-1", "alice", Set.of("ROLE_USER"));
+
+            assertThat(jwtService.isTokenValid(tokenFromOld)).isFalse();
+
+            ReflectionTestUtils.setField(jwtService, "previousSecrets", oldSecret);
+            assertThat(jwtService.isTokenValid(tokenFromOld)).isTrue();
+            // New tokens are still signed with the current secret
+            String fresh = jwtService.generateAccessToken("user-2", "bob", Set.of("ROLE_USER"));
+            assertThat(old.isTokenValid(fresh)).isFalse();
+        }
+
         @Test
         @DisplayName("getAccessTokenExpirationSeconds converts ms to seconds correctly")
         void expirationSecondsConversion() {